@@ -1,5 +1,7 @@
 package htsjdk.samtools;
 
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
 import htsjdk.samtools.util.BinaryCodec;
 import htsjdk.samtools.util.RuntimeEOFException;
 import htsjdk.samtools.util.SortingCollection;
@@ -13,6 +15,10 @@ import java.util.Arrays;
  * This version is safe for headerless records, since it does not access (and does not attempt to preserve) the
  * reference indices that depend on having a header. Performance tests show this is much faster than standard Java
  * serialization on Spark.
+ *
+ * In addition to the BAM-like encoding of {@link #encode}/{@link #decode}, this class offers a more compact encoding
+ * for transient data such as Spark shuffles through {@link #encodeCompact}/{@link #decodeCompact}, in which the fixed
+ * length fields of the BAM record are written as variable-length integers and the unused fields are omitted.
  */
 public class SAMRecordSparkCodec implements SortingCollection.Codec<SAMRecord> {
     private final BinaryCodec binaryCodec = new BinaryCodec();
@@ -65,13 +71,75 @@ public class SAMRecordSparkCodec implements SortingCollection.Codec<SAMRecord> {
      */
     @Override
     public void encode(final SAMRecord alignment) {
-        // Compute block size, as it is the first element of the file representation of SAMRecord
-        final int readLength = alignment.getReadLength();
+        final int blockSize = BAMFileConstants.FIXED_BLOCK_SIZE + getVariableLengthBlockSize(alignment);
+
+        // Blurt out the elements
+        this.binaryCodec.writeInt(blockSize);
+        this.binaryCodec.writeInt(SAMRecord.NO_ALIGNMENT_REFERENCE_INDEX); // reference index is not used
+        // 0-based!!
+        this.binaryCodec.writeInt(alignment.getAlignmentStart() - 1);
+        this.binaryCodec.writeUByte((short)(alignment.getReadNameLength() + 1));
+        this.binaryCodec.writeUByte((short) alignment.getMappingQuality());
+        this.binaryCodec.writeUShort(0); // index bin is not used
+        this.binaryCodec.writeUShort(alignment.getCigarLength());
+        this.binaryCodec.writeUShort(alignment.getFlags());
+        this.binaryCodec.writeInt(alignment.getReadLength());
+        this.binaryCodec.writeInt(SAMRecord.NO_ALIGNMENT_REFERENCE_INDEX);  // mate reference index is not used
+        this.binaryCodec.writeInt(alignment.getMateAlignmentStart() - 1);
+        this.binaryCodec.writeInt(alignment.getInferredInsertSize());
+        writeVariableLengthBlock(alignment);
+    }
+
+    /**
+     * Write a record to the given Kryo output in compact form: the fixed length fields of the BAM record are
+     * written as variable-length integers, the (unused) reference indices and index bin are omitted, and the
+     * variable length block (read name, cigar, bases, qualities and tags) is written as in BAM.
+     *
+     * @param alignment Record to be written.
+     * @param output Output to write to. This codec's output stream is set to it.
+     */
+    public void encodeCompact(final SAMRecord alignment, final Output output) {
+        output.writeInt(getVariableLengthBlockSize(alignment), true);
+        output.writeInt(alignment.getAlignmentStart(), true);
+        output.writeInt(alignment.getReadNameLength() + 1, true);
+        output.writeInt(alignment.getMappingQuality(), true);
+        output.writeInt(alignment.getCigarLength(), true);
+        output.writeInt(alignment.getFlags(), true);
+        output.writeInt(alignment.getReadLength(), true);
+        output.writeInt(alignment.getMateAlignmentStart(), true);
+        output.writeInt(alignment.getInferredInsertSize(), false);
+        setOutputStream(output);
+        writeVariableLengthBlock(alignment);
+    }
 
-        final int cigarLength = alignment.getCigarLength();
+    /**
+     * Read a record written by {@link #encodeCompact} from the given Kryo input.
+     *
+     * @param input Input to read from. This codec's input stream is set to it.
+     * @return the record, with reference indices that are not set.
+     */
+    public SAMRecord decodeCompact(final Input input) {
+        final int variableLengthBlockSize = input.readInt(true);
+        final int coordinate = input.readInt(true);
+        final short readNameLength = (short) input.readInt(true);
+        final short mappingQuality = (short) input.readInt(true);
+        final int cigarLen = input.readInt(true);
+        final int flags = input.readInt(true);
+        final int readLen = input.readInt(true);
+        final int mateCoordinate = input.readInt(true);
+        final int insertSize = input.readInt(false);
+        final byte[] restOfRecord = input.readBytes(variableLengthBlockSize);
+        return this.samRecordFactory.createBAMRecord(
+                null, SAMRecord.NO_ALIGNMENT_REFERENCE_INDEX, coordinate, readNameLength, mappingQuality,
+                0, cigarLen, flags, readLen, SAMRecord.NO_ALIGNMENT_REFERENCE_INDEX, mateCoordinate, insertSize, restOfRecord);
+    }
 
-        int blockSize = BAMFileConstants.FIXED_BLOCK_SIZE + alignment.getReadNameLength() + 1  + // null terminated
-                        cigarLength * 4 +
+    // The size of the read name, cigar, bases, qualities and tags block of a BAM record
+    private static int getVariableLengthBlockSize(final SAMRecord alignment) {
+        final int readLength = alignment.getReadLength();
+
+        int blockSize = alignment.getReadNameLength() + 1  + // null terminated
+                        alignment.getCigarLength() * 4 +
                         (readLength + 1) / 2 + // 2 bases per byte, round up
                         readLength;
 
@@ -86,21 +154,10 @@ public class SAMRecordSparkCodec implements SortingCollection.Codec<SAMRecord> {
                 attribute = attribute.getNext();
             }
         }
+        return blockSize;
+    }
 
-        // Blurt out the elements
-        this.binaryCodec.writeInt(blockSize);
-        this.binaryCodec.writeInt(SAMRecord.NO_ALIGNMENT_REFERENCE_INDEX); // reference index is not used
-        // 0-based!!
-        this.binaryCodec.writeInt(alignment.getAlignmentStart() - 1);
-        this.binaryCodec.writeUByte((short)(alignment.getReadNameLength() + 1));
-        this.binaryCodec.writeUByte((short) alignment.getMappingQuality());
-        this.binaryCodec.writeUShort(0); // index bin is not used
-        this.binaryCodec.writeUShort(cigarLength);
-        this.binaryCodec.writeUShort(alignment.getFlags());
-        this.binaryCodec.writeInt(alignment.getReadLength());
-        this.binaryCodec.writeInt(SAMRecord.NO_ALIGNMENT_REFERENCE_INDEX);  // mate reference index is not used
-        this.binaryCodec.writeInt(alignment.getMateAlignmentStart() - 1);
-        this.binaryCodec.writeInt(alignment.getInferredInsertSize());
+    private void writeVariableLengthBlock(final SAMRecord alignment) {
         final byte[] variableLengthBinaryBlock = alignment.getVariableBinaryRepresentation();
         if (variableLengthBinaryBlock != null) {
             // Don't need to encode variable-length block, because it is unchanged from
@@ -22,6 +22,8 @@ import org.broadinstitute.hellbender.tools.sv.SVFeaturesHeader;
 import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
 import org.broadinstitute.hellbender.utils.io.BlockCompressedIntervalStream.Reader;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
+import org.broadinstitute.hellbender.utils.variant.SelectiveVCFCodec;
+import org.broadinstitute.hellbender.utils.variant.VariantFieldSelection;
 import org.genomicsdb.model.GenomicsDBExportConfiguration;
 import org.genomicsdb.reader.GenomicsDBFeatureReader;
 
@@ -308,6 +310,29 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
     public FeatureDataSource(final FeatureInput<T> featureInput, final int queryLookaheadBases, final Class<? extends Feature> targetFeatureType,
                              final int cloudPrefetchBuffer, final int cloudIndexPrefetchBuffer, final GenomicsDBOptions genomicsDBOptions,
                              final boolean setNameOnCodec) {
+        this(featureInput, queryLookaheadBases, targetFeatureType, cloudPrefetchBuffer, cloudIndexPrefetchBuffer,
+                genomicsDBOptions, setNameOnCodec, VariantFieldSelection.ALL);
+    }
+
+    /**
+     * Creates a FeatureDataSource backed by the provided FeatureInput. We will look ahead the specified number of bases
+     * during queries that produce cache misses.
+     *
+     * @param featureInput             a FeatureInput specifying a source of Features
+     * @param queryLookaheadBases      look ahead this many bases during queries that produce cache misses
+     * @param targetFeatureType        When searching for a {@link FeatureCodec} for this data source, restrict the search to codecs
+     *                                 that produce this type of Feature. May be null, which results in an unrestricted search.
+     * @param cloudPrefetchBuffer      MB size of caching/prefetching wrapper for the data, if on Google Cloud (0 to disable).
+     * @param cloudIndexPrefetchBuffer MB size of caching/prefetching wrapper for the index, if on Google Cloud (0 to disable).
+     * @param genomicsDBOptions         options and info for reading from a GenomicsDB; may be null
+     * @param setNameOnCodec            If true, and if this FeatureDataSource uses a NameAwareCodec, the name of the FeatureInput will be used to set the codec's name. This exists as a mechanism to store the FeatureInput name in the source field of VariantContexts
+     * @param fieldSelection            For VCF inputs, the INFO keys, FORMAT keys, and samples to decode (see {@link SelectiveVCFCodec}).
+     *                                  Other inputs are always decoded in full.
+     */
+    public FeatureDataSource(final FeatureInput<T> featureInput, final int queryLookaheadBases, final Class<? extends Feature> targetFeatureType,
+                             final int cloudPrefetchBuffer, final int cloudIndexPrefetchBuffer, final GenomicsDBOptions genomicsDBOptions,
+                             final boolean setNameOnCodec, final VariantFieldSelection fieldSelection) {
+        Utils.nonNull(fieldSelection);
         Utils.validateArg(queryLookaheadBases >= 0, "Query lookahead bases must be >= 0");
         this.featureInput = Utils.nonNull(featureInput, "featureInput must not be null");
         if (IOUtils.isGenomicsDBPath(featureInput)) {
@@ -319,7 +344,7 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
         this.featureReader = getFeatureReader(featureInput, targetFeatureType,
                 BucketUtils.getPrefetchingWrapper(cloudPrefetchBuffer),
                 BucketUtils.getPrefetchingWrapper(cloudIndexPrefetchBuffer),
-                genomicsDBOptions, setNameOnCodec);
+                genomicsDBOptions, setNameOnCodec, fieldSelection);
 
         if (IOUtils.isGenomicsDBPath(featureInput) ||
                 featureInput.getFeaturePath().toLowerCase().endsWith(BCI_FILE_EXTENSION)) {
@@ -353,7 +378,8 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
     private static <T extends Feature> FeatureReader<T> getFeatureReader(final FeatureInput<T> featureInput, final Class<? extends Feature> targetFeatureType,
                                                                          final Function<SeekableByteChannel, SeekableByteChannel> cloudWrapper,
                                                                          final Function<SeekableByteChannel, SeekableByteChannel> cloudIndexWrapper,
-                                                                         final GenomicsDBOptions genomicsDBOptions, final boolean setNameOnCodec) {
+                                                                         final GenomicsDBOptions genomicsDBOptions, final boolean setNameOnCodec,
+                                                                         final VariantFieldSelection fieldSelection) {
         if (IOUtils.isGenomicsDBPath(featureInput.getFeaturePath())) {
             Utils.nonNull(genomicsDBOptions);
             try {
@@ -370,7 +396,7 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
                 throw new UserException("GenomicsDB inputs can only be used to provide VariantContexts.", e);
             }
         } else {
-            final FeatureCodec<T, ?> codec = getCodecForFeatureInput(featureInput, targetFeatureType, setNameOnCodec);
+            final FeatureCodec<T, ?> codec = getCodecForFeatureInput(featureInput, targetFeatureType, setNameOnCodec, fieldSelection);
             if ( featureInput.getFeaturePath().toLowerCase().endsWith(BCI_FILE_EXTENSION) ) {
                 return new Reader(featureInput, codec);
             }
@@ -383,13 +409,17 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
      * use by checking to see if the FeatureInput already has a cached codec class. It not, discover the codec class
      * and cache it for next time.
      *
+     * If the codec is a plain {@link VCFCodec} and {@code fieldSelection} drops anything, it is replaced by a
+     * {@link SelectiveVCFCodec}, which is not cached in the FeatureInput.
+     *
      * @return A new FeatureCodec instance to use for the FeatureInput.
      */
     @SuppressWarnings("unchecked")
     private static <T extends Feature> FeatureCodec<T, ?> getCodecForFeatureInput(final FeatureInput<T> featureInput,
                                                                                   final Class<? extends Feature> targetFeatureType,
-                                                                                  final boolean setNameOnCodec) {
-        final FeatureCodec<T, ?> codec;
+                                                                                  final boolean setNameOnCodec,
+                                                                                  final VariantFieldSelection fieldSelection) {
+        FeatureCodec<T, ?> codec;
         final Class<FeatureCodec<T, ?>> codecClass = featureInput.getFeatureCodecClass();
         if (codecClass == null) {
             final Path featurePath = featureInput.toPath();
@@ -408,6 +438,16 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
             }
         }
 
+        if (!fieldSelection.selectsAll()) {
+            if (codec.getClass() == VCFCodec.class) {
+                logger.info("Decoding only the selected fields of " + featureInput.getName() + " (" + fieldSelection + ")");
+                codec = (FeatureCodec<T, ?>) new SelectiveVCFCodec(fieldSelection);
+            } else {
+                logger.info("Selective decoding is not supported by " + codec.getClass().getSimpleName() + ", so " +
+                        featureInput.getName() + " will be decoded in full");
+            }
+        }
+
         if (setNameOnCodec && codec instanceof NameAwareCodec) {
             final NameAwareCodec namedCodec = (NameAwareCodec) codec;
             namedCodec.setName(featureInput.getName());
@@ -182,6 +182,27 @@ public final class MultiVariantDataSource implements GATKDataSource<VariantConte
         return getMergedIteratorFromDataSources(ds -> ds.queryAndPrefetch(interval).iterator());
     }
 
+    /**
+     * Gets one iterator per backing data source, each restricted to variants overlapping our intervals if intervals
+     * were provided via {@link #setIntervalsForTraversal(List)}. Unlike {@link #iterator}, the variants are not merged,
+     * so callers can consume the sources independently (for example, on separate threads), and merge them as they see fit.
+     *
+     * Calling this method invalidates (closes) any previous iterator obtained from this data source.
+     *
+     * @return an iterator for each backing data source, in the order in which the sources were provided
+     */
+    public List<Iterator<VariantContext>> iteratorsBySource() {
+        closeOpenIterationIfNecessary();
+        return featureDataSources.stream().map(ds -> ds.iterator()).collect(Collectors.toList());
+    }
+
+    /**
+     * Gets the header of each backing data source, in the order in which the sources were provided.
+     */
+    public List<VCFHeader> headersBySource() {
+        return featureDataSources.stream().map(ds -> (VCFHeader) ds.getHeader()).collect(Collectors.toList());
+    }
+
     /**
      * Close any existing iterator, create a new iterator and update the local cached iterator reference.
      * @param iteratorFromSource function to retrieve individual iterator, to be applied to each data source
@@ -3,19 +3,27 @@ package org.broadinstitute.hellbender.engine;
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.samtools.util.Locatable;
 import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.writer.VariantContextWriter;
 import htsjdk.variant.vcf.VCFHeader;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.engine.filters.CountingReadFilter;
 import org.broadinstitute.hellbender.engine.filters.CountingVariantFilter;
 import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.transformers.VariantTransformer;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.iterators.IntervalLocusIterator;
 import org.broadinstitute.hellbender.utils.iterators.ShardedIntervalIterator;
 
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -23,7 +31,8 @@ import java.util.stream.Stream;
  * VariantLocusWalker processes variants from a single source, grouped by locus overlap, or optionally one
  * at a time in order, with optional contextual information from a reference, sets of reads, and/or supplementary sources
  * of Features. By-variant traversal is opt in, via {@link #changeTraversalModeToByVariant()}, otherwise only loci with
- * overlapping variants are traversed.
+ * overlapping variants are traversed. Either traversal can also be run on several threads, via
+ * {@link #changeTraversalModeToParallelShards(int, int)}.
  *
  * VariantLocusWalker authors must implement the {@link #apply} method to process each variant, and may optionally implement
  * {@link #onTraversalStart}, {@link #onTraversalSuccess} and/or {@link #closeTool}.
@@ -42,6 +51,12 @@ public abstract class VariantLocusWalker extends VariantWalkerBase {
 
     private boolean traverseByVariant = false;
 
+    private int numTraversalThreads = 1;
+    private int parallelShardSize;
+
+    // the output of the shard being traversed on the current worker thread, null on any other thread
+    private final ThreadLocal<ShardOutput> currentShardOutput = new ThreadLocal<>();
+
     /**
      * Traverse by variant instead of by grouped by locus. When true, the {@link #apply} method will be called for each
      * individual variant in the driving variants input, instead of by locus, with all variants overlapping that locus.
@@ -49,6 +64,26 @@ public abstract class VariantLocusWalker extends VariantWalkerBase {
      */
     protected void changeTraversalModeToByVariant() { traverseByVariant = true; }
 
+    /**
+     * Split the traversal intervals into shards of {@code shardSize} bases, and traverse them on {@code numThreads}
+     * worker threads, each with its own readers for the driving variants, the reference and any other Feature inputs.
+     * {@link #apply} is called concurrently from the worker threads, so tools that opt in must keep any state
+     * that apply() modifies per thread. Variants added to a writer obtained from {@link #createVCFWriter(Path)} on a
+     * worker thread are written in the same order as by the single-threaded traversal.
+     *
+     * This method must be called in onTraversalStart(), before creating any output writers. It has no effect when
+     * {@code numThreads} is 1.
+     */
+    protected void changeTraversalModeToParallelShards(final int numThreads, final int shardSize) {
+        Utils.validateArg(numThreads > 0, "numThreads must be positive");
+        Utils.validateArg(shardSize > 0, "shardSize must be positive");
+        if ( numThreads > 1 && hasReads() ) {
+            throw new UserException("Reads inputs are not supported when traversing variants on multiple threads");
+        }
+        numTraversalThreads = numThreads;
+        parallelShardSize = shardSize;
+    }
+
     @Override
     protected SAMSequenceDictionary getSequenceDictionaryForDrivingVariants() { return drivingVariants.getSequenceDictionary(); }
 
@@ -73,7 +108,7 @@ public abstract class VariantLocusWalker extends VariantWalkerBase {
         // This is the data source for the driving source of variants,
         // which uses a cache lookahead of getDrivingVariantCacheLookAheadBases()
         drivingVariants = new FeatureDataSource<>(drivingVariantsFeatureInput, getDrivingVariantCacheLookAheadBases(), VariantContext.class, cloudPrefetchBuffer, cloudIndexPrefetchBuffer,
-                getGenomicsDBOptions());
+                getGenomicsDBOptions(), false, getDrivingVariantFieldSelection());
 
         // Also add the driving datasource to the feature manager so that it can be queried. Setting cache lookahead
         // to 0 to avoid caching. Note: we are disabling lookahead here because of windowed queries that need to "look behind" as well.
@@ -110,6 +145,18 @@ public abstract class VariantLocusWalker extends VariantWalkerBase {
         return true;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * When traversing on multiple threads, the writer holds back variants added on a worker thread until the traversal
+     * writes the output of their shard in order.
+     */
+    @Override
+    public VariantContextWriter createVCFWriter(final Path outPath) {
+        final VariantContextWriter writer = super.createVCFWriter(outPath);
+        return numTraversalThreads > 1 ? new ShardOrderedVCFWriter(writer) : writer;
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -121,6 +168,11 @@ public abstract class VariantLocusWalker extends VariantWalkerBase {
      */
     @Override
     public void traverse() {
+        if (numTraversalThreads > 1) {
+            traverseShardsInParallel();
+            return;
+        }
+
         final CountingReadFilter readFilter = makeReadFilter();
         final CountingVariantFilter variantFilter = makeVariantFilter();
         final VariantTransformer preTransformer  = makePreVariantFilterTransformer();
@@ -173,6 +225,88 @@ public abstract class VariantLocusWalker extends VariantWalkerBase {
         }
     }
 
+    /**
+     * Traverse shards of the traversal intervals on {@link #numTraversalThreads} worker threads, each with its own
+     * {@link ShardTraverser}, writing the output of each shard in traversal order.
+     */
+    private void traverseShardsInParallel() {
+        final List<TraversalShard> shards = new ArrayList<>();
+        SimpleInterval previousInterval = null;
+        for (final SimpleInterval interval : getTraversalIntervals()) {
+            final ShardedIntervalIterator shardIterator = new ShardedIntervalIterator(Collections.singletonList(interval).iterator(), parallelShardSize);
+            boolean first = true;
+            while (shardIterator.hasNext()) {
+                shards.add(new TraversalShard(shardIterator.next(), first, previousInterval));
+                first = false;
+            }
+            previousInterval = interval;
+        }
+        logger.info(String.format("Traversing %d shards on %d threads", shards.size(), numTraversalThreads));
+
+        final List<ShardTraverser> traversers = Collections.synchronizedList(new ArrayList<>());
+        final ThreadLocal<ShardTraverser> threadTraverser = ThreadLocal.withInitial(() -> {
+            final ShardTraverser traverser = new ShardTraverser();
+            traversers.add(traverser);
+            return traverser;
+        });
+
+        final ExecutorService executor = Executors.newFixedThreadPool(numTraversalThreads);
+        try {
+            // keep every thread busy while writing the output of the shards in order
+            final Queue<Future<ShardOutput>> pendingShards = new ArrayDeque<>();
+            final Iterator<TraversalShard> shardIterator = shards.iterator();
+            while (shardIterator.hasNext() || !pendingShards.isEmpty()) {
+                while (shardIterator.hasNext() && pendingShards.size() < numTraversalThreads) {
+                    final TraversalShard shard = shardIterator.next();
+                    pendingShards.add(executor.submit(() -> threadTraverser.get().traverse(shard)));
+                }
+                final ShardOutput output = getShardOutput(pendingShards.remove());
+                output.write();
+                if (output.numApplyCalls > 0) {
+                    progressMeter.update(output.lastLocus, output.numApplyCalls);
+                }
+            }
+        } finally {
+            // a traverser may still be in use by a running task after an exception, so stop the tasks before closing
+            shutdownAndAwaitTermination(executor);
+            synchronized (traversers) {
+                traversers.forEach(ShardTraverser::close);
+            }
+        }
+    }
+
+    private static ShardOutput getShardOutput(final Future<ShardOutput> shardOutput) {
+        try {
+            return shardOutput.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while traversing shards.", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new GATKException("Error traversing shard.", e.getCause());
+        }
+    }
+
+    /**
+     * Cancel any shards not yet traversed and wait for the running ones to finish, even if interrupted
+     */
+    private static void shutdownAndAwaitTermination(final ExecutorService executor) {
+        executor.shutdownNow();
+        boolean interrupted = false;
+        while (!executor.isTerminated()) {
+            try {
+                executor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (final InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     // Return a Stream of SimpleInterval covering the entire territory sketched out by requestedInterval
     private Stream<SimpleInterval> getLocusStream(final SimpleInterval requestedInterval) {
         return Utils.stream(new IntervalLocusIterator(Collections.singletonList(requestedInterval).iterator()));
@@ -204,6 +338,203 @@ public abstract class VariantLocusWalker extends VariantWalkerBase {
      */
     public abstract void apply(Locatable loc, List<VariantContext> variants, ReadsContext readsContext, ReferenceContext referenceContext, FeatureContext featureContext );
 
+    /**
+     * A contiguous piece of one traversal interval, traversed as a unit by one worker thread
+     */
+    private static final class TraversalShard {
+        private final SimpleInterval interval;
+        // variants starting before the first shard of a traversal interval belong to that shard unless they overlap
+        // the previous traversal interval, otherwise they belong to the preceding shard
+        private final boolean firstInInterval;
+        // the preceding traversal interval, or null if there is none
+        private final SimpleInterval previousInterval;
+
+        private TraversalShard(final SimpleInterval interval, final boolean firstInInterval, final SimpleInterval previousInterval) {
+            this.interval = interval;
+            this.firstInInterval = firstInInterval;
+            this.previousInterval = previousInterval;
+        }
+
+        /**
+         * @return true if a variant overlapping this shard is traversed by this shard in by-variant traversal, so that
+         * every variant is passed to apply() once, as by the single-threaded traversal
+         */
+        private boolean owns(final VariantContext variant) {
+            if (variant.getStart() >= interval.getStart()) {
+                return true;
+            }
+            return firstInInterval && (previousInterval == null || !previousInterval.overlaps(variant));
+        }
+    }
+
+    /**
+     * The variants added to each {@link ShardOrderedVCFWriter} while traversing one shard, and the progress made
+     */
+    private static final class ShardOutput {
+        private final Map<ShardOrderedVCFWriter, List<VariantContext>> variantsByWriter = new LinkedHashMap<>();
+        private long numApplyCalls = 0;
+        private Locatable lastLocus;
+
+        private void add(final ShardOrderedVCFWriter writer, final VariantContext vc) {
+            variantsByWriter.computeIfAbsent(writer, w -> new ArrayList<>()).add(vc);
+        }
+
+        private void write() {
+            variantsByWriter.forEach((writer, variants) -> variants.forEach(writer::write));
+        }
+    }
+
+    /**
+     * Per-thread traversal state for multi-threaded traversal. None of the data sources are thread-safe, so each
+     * worker thread gets its own readers for the driving variants, the reference and any other Feature inputs, and
+     * its own read filter, variant filter and transformers.
+     */
+    private final class ShardTraverser implements AutoCloseable {
+        private final FeatureDataSource<VariantContext> shardVariants;
+        private final ReferenceDataSource shardReference;
+        private final FeatureManager shardFeatures;
+        private final CountingReadFilter readFilter = makeReadFilter();
+        private final CountingVariantFilter variantFilter = makeVariantFilter();
+        private final VariantTransformer preTransformer  = makePreVariantFilterTransformer();
+        private final VariantTransformer postTransformer = makePostVariantFilterTransformer();
+
+        private ShardTraverser() {
+            shardVariants = new FeatureDataSource<>(drivingVariantsFeatureInput, getDrivingVariantCacheLookAheadBases(), VariantContext.class,
+                    cloudPrefetchBuffer, cloudIndexPrefetchBuffer, getGenomicsDBOptions(), false, getDrivingVariantFieldSelection());
+            shardReference = hasReference() ? ReferenceDataSource.of(referenceArguments.getReferencePath()) : null;
+            shardFeatures = new FeatureManager(VariantLocusWalker.this, FeatureDataSource.DEFAULT_QUERY_LOOKAHEAD_BASES,
+                    cloudPrefetchBuffer, cloudIndexPrefetchBuffer, getGenomicsDBOptions());
+            // as in initializeDrivingVariants(), the driving variants can also be queried as Features, without lookahead
+            shardFeatures.addToFeatureSources(0, drivingVariantsFeatureInput, VariantContext.class, cloudPrefetchBuffer, cloudIndexPrefetchBuffer,
+                    getGenomicsDBOptions());
+        }
+
+        private ShardOutput traverse(final TraversalShard shard) {
+            final ShardOutput output = new ShardOutput();
+            currentShardOutput.set(output);
+            try {
+                if (traverseByVariant) {
+                    final Iterator<VariantContext> overlapping = shardVariants.query(shard.interval);
+                    while (overlapping.hasNext()) {
+                        final VariantContext variant = transform(overlapping.next());
+                        if (variant != null && shard.owns(variant)) {
+                            applyAt(output, new SimpleInterval(variant), Collections.singletonList(variant));
+                        }
+                    }
+                } else {
+                    // query the shard once and sweep its loci, skipping those that no variant overlaps
+                    final List<VariantContext> variants = new ArrayList<>();
+                    shardVariants.query(shard.interval).forEachRemaining(vc -> {
+                        final VariantContext transformed = transform(vc);
+                        if (transformed != null) {
+                            variants.add(transformed);
+                        }
+                    });
+
+                    final List<VariantContext> overlapping = new ArrayList<>();
+                    int nextVariant = 0;
+                    int position = shard.interval.getStart();
+                    while (position <= shard.interval.getEnd()) {
+                        final int locusPosition = position;
+                        overlapping.removeIf(vc -> vc.getEnd() < locusPosition);
+                        while (nextVariant < variants.size() && variants.get(nextVariant).getStart() <= position) {
+                            final VariantContext variant = variants.get(nextVariant++);
+                            if (variant.getEnd() >= position) {
+                                overlapping.add(variant);
+                            }
+                        }
+
+                        if (overlapping.isEmpty()) {
+                            if (nextVariant == variants.size()) {
+                                break;
+                            }
+                            position = variants.get(nextVariant).getStart();
+                            continue;
+                        }
+
+                        applyAt(output, new SimpleInterval(shard.interval.getContig(), position, position), new ArrayList<>(overlapping));
+                        position++;
+                    }
+                }
+                return output;
+            } finally {
+                currentShardOutput.remove();
+            }
+        }
+
+        private void applyAt(final ShardOutput output, final SimpleInterval locus, final List<VariantContext> variants) {
+            apply(locus,
+                    variants,
+                    new ReadsContext(null, locus, readFilter),
+                    new ReferenceContext(shardReference, locus),
+                    new FeatureContext(shardFeatures, locus));
+            output.numApplyCalls++;
+            output.lastLocus = locus;
+        }
+
+        // apply the same transformers and filter as the single-threaded traversal, returning null for filtered variants
+        private VariantContext transform(final VariantContext vc) {
+            final VariantContext preTransformed = preTransformer.apply(vc);
+            return variantFilter.test(preTransformed) ? postTransformer.apply(preTransformed) : null;
+        }
+
+        @Override
+        public void close() {
+            shardVariants.close();
+            if (shardReference != null) {
+                shardReference.close();
+            }
+            shardFeatures.close();
+        }
+    }
+
+    /**
+     * Writer returned by {@link #createVCFWriter(Path)} when traversing on multiple threads. Variants added on a worker
+     * thread are held in the output of the shard being traversed, and written once all preceding shards are written.
+     * Variants added on any other thread are written immediately.
+     */
+    private final class ShardOrderedVCFWriter implements VariantContextWriter {
+        private final VariantContextWriter writer;
+
+        private ShardOrderedVCFWriter(final VariantContextWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void writeHeader(final VCFHeader header) {
+            writer.writeHeader(header);
+        }
+
+        @Override
+        public void setHeader(final VCFHeader header) {
+            writer.setHeader(header);
+        }
+
+        @Override
+        public void add(final VariantContext vc) {
+            final ShardOutput shardOutput = currentShardOutput.get();
+            if (shardOutput == null) {
+                writer.add(vc);
+            } else {
+                shardOutput.add(this, vc);
+            }
+        }
+
+        private void write(final VariantContext vc) {
+            writer.add(vc);
+        }
+
+        @Override
+        public boolean checkError() {
+            return writer.checkError();
+        }
+
+        @Override
+        public void close() {
+            writer.close();
+        }
+    }
+
     /**
      * Close all data sources.
      *
@@ -9,6 +9,8 @@ import org.broadinstitute.hellbender.engine.filters.VariantFilterLibrary;
 import org.broadinstitute.hellbender.tools.genomicsdb.GenomicsDBOptions;
 import org.broadinstitute.hellbender.transformers.VariantTransformer;
 import org.broadinstitute.hellbender.utils.IndexUtils;
+import org.broadinstitute.hellbender.utils.variant.SelectiveVCFCodec;
+import org.broadinstitute.hellbender.utils.variant.VariantFieldSelection;
 
 import java.util.Spliterator;
 import java.util.stream.Stream;
@@ -128,6 +130,20 @@ public abstract class VariantWalkerBase extends WalkerBase {
         return DEFAULT_DRIVING_VARIANTS_LOOKAHEAD_BASES;
     }
 
+    /**
+     * Returns the INFO keys, FORMAT keys, and samples of the driving variants that this tool uses.  When the driving
+     * variants are a VCF, everything else is skipped while decoding (see {@link SelectiveVCFCodec}), and the header
+     * returned by {@link #getHeaderForVariants} lists only the selected samples.  Called once, after argument parsing,
+     * when the driving variants are initialized.
+     *
+     * The default implementation selects everything.  Tools that look at only a few fields of each variant, or at
+     * no genotypes at all, can override this to decode far less of large multi-sample VCFs.  Only walkers with a
+     * single driving variants input ({@link VariantWalker} and {@link VariantLocusWalker}) honor the selection.
+     */
+    protected VariantFieldSelection getDrivingVariantFieldSelection() {
+        return VariantFieldSelection.ALL;
+    }
+
     /**
      * Returns the pre-filter variant transformer (simple or composite) that will be applied to the variants before filtering.
      * The default implementation uses the {@link VariantTransformer#identity()}.
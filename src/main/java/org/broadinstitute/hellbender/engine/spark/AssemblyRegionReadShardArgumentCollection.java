@@ -9,10 +9,19 @@ public class AssemblyRegionReadShardArgumentCollection implements Serializable {
 
     public static final int DEFAULT_READSHARD_SIZE = 5000;
     public static final int DEFAULT_READSHARD_PADDING_SIZE = 100;
+    public static final String COVERAGE_WEIGHTED_READ_SHARDS_LONG_NAME = "coverage-weighted-read-shards";
 
     @Argument(fullName="read-shard-size", shortName="read-shard-size", doc = "Maximum size of each read shard, in bases. For good performance, this should be much larger than the maximum assembly region size.", optional = true)
     public int readShardSize = DEFAULT_READSHARD_SIZE;
 
     @Argument(fullName="read-shard-padding", shortName="read-shard-padding", doc = "Each read shard has this many bases of extra context on each side. Read shards must have as much or more padding than assembly regions.", optional = true)
     public int readShardPadding = DEFAULT_READSHARD_PADDING_SIZE;
+
+    /**
+     * If set, read shards are sized by the read density estimated from the index of the reads inputs rather than by
+     * length alone, so that high-coverage regions are split into shorter shards and low-coverage regions merged into
+     * longer ones (up to 4 times the read shard size). Falls back to fixed-size shards if any input is not indexed.
+     */
+    @Argument(fullName=COVERAGE_WEIGHTED_READ_SHARDS_LONG_NAME, doc = "Size read shards by the read density estimated from the reads index, so that shards have similar amounts of work", optional = true)
+    public boolean coverageWeightedReadShards = false;
 }
@@ -83,9 +83,15 @@ public abstract class AssemblyRegionWalkerSpark extends GATKSparkTool {
     protected List<SimpleInterval> editIntervals(List<SimpleInterval> rawIntervals) {
         SAMSequenceDictionary sequenceDictionary = getBestAvailableSequenceDictionary();
         List<SimpleInterval> intervals = rawIntervals == null ? IntervalUtils.getAllIntervalsForReference(sequenceDictionary) : rawIntervals;
-        intervalShards = intervals.stream()
-                .flatMap(interval -> Shard.divideIntervalIntoShards(interval, shardingArgs.readShardSize, shardingArgs.readShardPadding, sequenceDictionary).stream())
-                .collect(Collectors.toList());
+        if (shardingArgs.coverageWeightedReadShards) {
+            intervalShards = CoverageWeightedShardPlanner.fromReadIndexes(readArguments.getReadPathSpecifiers(),
+                    hasReference() ? referenceArguments.getReferencePath() : null, intervals,
+                    shardingArgs.readShardSize, shardingArgs.readShardPadding, sequenceDictionary).divideIntervalsIntoShards(intervals);
+        } else {
+            intervalShards = intervals.stream()
+                    .flatMap(interval -> Shard.divideIntervalIntoShards(interval, shardingArgs.readShardSize, shardingArgs.readShardPadding, sequenceDictionary).stream())
+                    .collect(Collectors.toList());
+        }
         List<SimpleInterval> paddedIntervalsForReads =
                 intervals.stream().map(interval -> interval.expandWithinContig(shardingArgs.readShardPadding, sequenceDictionary)).collect(Collectors.toList());
         return paddedIntervalsForReads;
@@ -0,0 +1,244 @@
+package org.broadinstitute.hellbender.engine.spark;
+
+import htsjdk.samtools.BAMFileSpan;
+import htsjdk.samtools.BAMIndex;
+import htsjdk.samtools.Chunk;
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.SamReader;
+import htsjdk.samtools.SamReaderFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.engine.GATKPath;
+import org.broadinstitute.hellbender.engine.Shard;
+import org.broadinstitute.hellbender.engine.ShardBoundary;
+import org.broadinstitute.hellbender.utils.IntervalUtils;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Divides intervals into read shards of roughly equal estimated work rather than equal length.
+ *
+ * <p>
+ *     Work is estimated from the read density of fixed-size windows along each contig. Shards are cut when their
+ *     estimated number of reads reaches that of an average-coverage shard of {@code shardSize} bases, so shards over
+ *     high-coverage regions (e.g. centromeres and collapsed repeats) are split into several short shards while shards
+ *     over low-coverage regions are merged into longer ones. Shard lengths are bounded to
+ *     [{@code shardSize / MIN_SHARD_SIZE_DIVISOR}, {@code shardSize * MAX_SHARD_SIZE_MULTIPLE}].
+ * </p>
+ *
+ * <p>
+ *     When no density estimate is available the planner falls back to {@link Shard#divideIntervalIntoShards}.
+ * </p>
+ */
+public final class CoverageWeightedShardPlanner {
+    private static final Logger logger = LogManager.getLogger(CoverageWeightedShardPlanner.class);
+
+    public static final int DEFAULT_WINDOW_SIZE = 16384;
+    public static final int MAX_SHARD_SIZE_MULTIPLE = 4;
+    public static final int MIN_SHARD_SIZE_DIVISOR = 8;
+
+    // relative tolerance for floating point error when comparing estimated work
+    private static final double WORK_TOLERANCE = 1e-9;
+
+    private final Map<String, double[]> windowWeights;
+    private final int windowSize;
+    private final int shardSize;
+    private final int shardPadding;
+    private final int minShardSize;
+    private final int maxShardSize;
+    private final SAMSequenceDictionary dictionary;
+    private final double targetShardWork;
+
+    /**
+     * @param windowWeights relative number of reads starting in each window of each contig, or {@code null} if no estimate is available.
+     *                      Contigs not present in the map are treated as having no reads.
+     * @param windowSize size of the density windows, in bases
+     * @param intervals the intervals that will be sharded, used to compute the average density
+     * @param shardSize the length of a shard of average coverage
+     * @param shardPadding padding to add on each side of each shard
+     * @param dictionary sequence dictionary for the reads
+     */
+    public CoverageWeightedShardPlanner(final Map<String, double[]> windowWeights, final int windowSize, final List<SimpleInterval> intervals,
+                                        final int shardSize, final int shardPadding, final SAMSequenceDictionary dictionary) {
+        Utils.validateArg(windowSize >= 1, "windowSize must be >= 1");
+        Utils.validateArg(shardSize >= 1, "shardSize must be >= 1");
+        Utils.validateArg(shardPadding >= 0, "shardPadding must be >= 0");
+        Utils.nonNull(intervals);
+        this.windowWeights = windowWeights;
+        this.windowSize = windowSize;
+        this.shardSize = shardSize;
+        this.shardPadding = shardPadding;
+        this.minShardSize = Math.max(1, shardSize / MIN_SHARD_SIZE_DIVISOR);
+        this.maxShardSize = (int) Math.min(Integer.MAX_VALUE, (long) shardSize * MAX_SHARD_SIZE_MULTIPLE);
+        this.dictionary = Utils.nonNull(dictionary);
+
+        if (windowWeights == null) {
+            targetShardWork = 0;
+        } else {
+            double totalWork = 0;
+            long totalBases = 0;
+            for (final SimpleInterval interval : intervals) {
+                totalWork += work(interval.getContig(), interval.getStart(), interval.getEnd());
+                totalBases += interval.getLengthOnReference();
+            }
+            targetShardWork = totalBases == 0 ? 0 : totalWork / totalBases * shardSize;
+        }
+    }
+
+    /**
+     * @return whether shards will be weighted by coverage, as opposed to having a uniform length
+     */
+    public boolean isCoverageWeighted() {
+        return targetShardWork > 0;
+    }
+
+    /**
+     * Divides all intervals into shards.
+     */
+    public List<ShardBoundary> divideIntervalsIntoShards(final List<SimpleInterval> intervals) {
+        Utils.nonNull(intervals);
+        return intervals.stream().flatMap(interval -> divideIntervalIntoShards(interval).stream()).collect(Collectors.toList());
+    }
+
+    /**
+     * Divides an interval into consecutive, non-overlapping shards (except for padding) with roughly equal estimated work.
+     */
+    public List<ShardBoundary> divideIntervalIntoShards(final SimpleInterval interval) {
+        Utils.nonNull(interval);
+        if (!isCoverageWeighted()) {
+            return Shard.divideIntervalIntoShards(interval, shardSize, shardPadding, dictionary);
+        }
+        Utils.validateArg(IntervalUtils.intervalIsOnDictionaryContig(interval, dictionary), () ->
+                "Interval " + interval + " not within the bounds of a contig in the provided dictionary");
+
+        final double[] weights = windowWeights.get(interval.getContig());
+        final List<ShardBoundary> shards = new ArrayList<>();
+        int shardStart = interval.getStart();
+        int position = interval.getStart();
+        double shardWork = 0;
+        while (position <= interval.getEnd()) {
+            final int window = (position - 1) / windowSize;
+            final int windowEnd = (int) Math.min((long) (window + 1) * windowSize, interval.getEnd());
+            final double density = weights == null || window >= weights.length ? 0 : weights[window] / windowSize;
+
+            final int shardLength = position - shardStart;
+            long basesToTake = Math.min(windowEnd - position + 1, maxShardSize - shardLength);
+            if (density > 0) {
+                final long basesUntilFull = Math.max((long) Math.ceil((targetShardWork - shardWork) / density * (1 - WORK_TOLERANCE)), minShardSize - shardLength);
+                basesToTake = Math.min(basesToTake, Math.max(1, basesUntilFull));
+            }
+            shardWork += basesToTake * density;
+            position += basesToTake;
+
+            final int newShardLength = position - shardStart;
+            if (newShardLength >= maxShardSize || (newShardLength >= minShardSize && shardWork >= targetShardWork * (1 - WORK_TOLERANCE))) {
+                shards.add(makeShard(interval.getContig(), shardStart, position - 1));
+                shardStart = position;
+                shardWork = 0;
+            }
+        }
+        if (shardStart <= interval.getEnd()) {
+            shards.add(makeShard(interval.getContig(), shardStart, interval.getEnd()));
+        }
+        return shards;
+    }
+
+    private ShardBoundary makeShard(final String contig, final int start, final int end) {
+        final SimpleInterval shardInterval = new SimpleInterval(contig, start, end);
+        return new ShardBoundary(shardInterval, shardInterval.expandWithinContig(shardPadding, dictionary));
+    }
+
+    // estimated work between start and end (inclusive), assuming reads are spread uniformly within each window
+    private double work(final String contig, final int start, final int end) {
+        final double[] weights = windowWeights.get(contig);
+        if (weights == null) {
+            return 0;
+        }
+        double work = 0;
+        for (int window = (start - 1) / windowSize; window <= (end - 1) / windowSize && window < weights.length; window++) {
+            final long windowStart = (long) window * windowSize + 1;
+            final long windowEnd = (long) (window + 1) * windowSize;
+            final long overlap = Math.min(windowEnd, end) - Math.max(windowStart, start) + 1;
+            work += weights[window] * overlap / windowSize;
+        }
+        return work;
+    }
+
+    /**
+     * Creates a planner whose read density is estimated from the indexes of the given reads inputs, summed over all inputs.
+     * The estimate for each window is the number of compressed bytes of the index chunks overlapping it, so no reads
+     * are decoded. Falls back to uniform shards if any input cannot be opened or is not indexed.
+     *
+     * @param readInputs reads inputs; each must be coordinate-sorted and indexed for coverage weighting to be used
+     * @param referencePath reference path, needed to open CRAM inputs; may be {@code null}
+     */
+    public static CoverageWeightedShardPlanner fromReadIndexes(final List<GATKPath> readInputs, final Path referencePath,
+                                                              final List<SimpleInterval> intervals, final int shardSize,
+                                                              final int shardPadding, final SAMSequenceDictionary dictionary) {
+        Utils.nonNull(readInputs);
+        Utils.nonNull(intervals);
+        Utils.nonNull(dictionary);
+        final SamReaderFactory factory = SamReaderFactory.makeDefault();
+        if (referencePath != null) {
+            factory.referenceSequence(referencePath);
+        }
+        final Map<String, double[]> weights = new HashMap<>();
+        for (final GATKPath input : readInputs) {
+            try (final SamReader reader = factory.open(input.toPath())) {
+                if (!reader.hasIndex()) {
+                    logger.warn(String.format("No index found for %s, using uniform read shards", input));
+                    return new CoverageWeightedShardPlanner(null, DEFAULT_WINDOW_SIZE, intervals, shardSize, shardPadding, dictionary);
+                }
+                addIndexWeights(reader.indexing().getIndex(), intervals, dictionary, weights);
+            } catch (final Exception e) {
+                logger.warn(String.format("Could not estimate read density from the index of %s, using uniform read shards", input), e);
+                return new CoverageWeightedShardPlanner(null, DEFAULT_WINDOW_SIZE, intervals, shardSize, shardPadding, dictionary);
+            }
+        }
+        final CoverageWeightedShardPlanner planner = new CoverageWeightedShardPlanner(weights, DEFAULT_WINDOW_SIZE, intervals, shardSize, shardPadding, dictionary);
+        if (!planner.isCoverageWeighted()) {
+            logger.warn("Read indexes contain no aligned data within the intervals, using uniform read shards");
+        }
+        return planner;
+    }
+
+    private static void addIndexWeights(final BAMIndex index, final List<SimpleInterval> intervals, final SAMSequenceDictionary dictionary,
+                                        final Map<String, double[]> weights) {
+        final Map<String, BitSet> sampledWindows = new HashMap<>();
+        for (final SimpleInterval interval : intervals) {
+            final SAMSequenceRecord contig = dictionary.getSequence(interval.getContig());
+            final double[] contigWeights = weights.computeIfAbsent(contig.getSequenceName(),
+                    name -> new double[(contig.getSequenceLength() + DEFAULT_WINDOW_SIZE - 1) / DEFAULT_WINDOW_SIZE]);
+            final BitSet sampled = sampledWindows.computeIfAbsent(contig.getSequenceName(), name -> new BitSet(contigWeights.length));
+            for (int window = (interval.getStart() - 1) / DEFAULT_WINDOW_SIZE; window <= (interval.getEnd() - 1) / DEFAULT_WINDOW_SIZE; window++) {
+                // windows shared by adjacent intervals are only sampled once per input
+                if (sampled.get(window)) {
+                    continue;
+                }
+                sampled.set(window);
+                final int windowStart = window * DEFAULT_WINDOW_SIZE + 1;
+                final int windowEnd = Math.min((window + 1) * DEFAULT_WINDOW_SIZE, contig.getSequenceLength());
+                final BAMFileSpan span = index.getSpanOverlapping(contig.getSequenceIndex(), windowStart, windowEnd);
+                contigWeights[window] += span == null ? 0 : compressedBytes(span);
+            }
+        }
+    }
+
+    private static long compressedBytes(final BAMFileSpan span) {
+        long bytes = 0;
+        for (final Chunk chunk : span.getChunks()) {
+            // the upper 48 bits of a virtual file offset are the offset of the compressed block
+            bytes += Math.max(0, (chunk.getChunkEnd() >>> 16) - (chunk.getChunkStart() >>> 16)) + 1;
+        }
+        return bytes;
+    }
+}
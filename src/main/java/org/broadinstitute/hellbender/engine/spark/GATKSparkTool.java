@@ -82,6 +82,7 @@ public abstract class GATKSparkTool extends SparkCommandLineProgram {
     public static final String OUTPUT_SHARD_DIR_LONG_NAME = "output-shard-tmp-dir";
     public static final String CREATE_OUTPUT_BAM_SPLITTING_INDEX_LONG_NAME = "create-output-bam-splitting-index";
     public static final String USE_NIO = "use-nio";
+    public static final String MEMORY_MAP_TWO_BIT_REFERENCE_LONG_NAME = "memory-map-2bit-reference";
     public static final String SPLITTING_INDEX_GRANULARITY = "splitting-index-granularity";
 
     @ArgumentCollection
@@ -106,6 +107,12 @@ public abstract class GATKSparkTool extends SparkCommandLineProgram {
             optional = true)
     protected boolean useNio = false;
 
+    @Argument(doc = "If the reference is a .2bit file, memory-map it once per executor JVM and share it between tasks, " +
+            "instead of giving each task its own on-heap copy. Has no effect for FASTA references.",
+            fullName = MEMORY_MAP_TWO_BIT_REFERENCE_LONG_NAME,
+            optional = true)
+    protected boolean memoryMapTwoBitReference = false;
+
     @ArgumentCollection
     protected SequenceDictionaryValidationArgumentCollection sequenceDictionaryValidationArguments = getSequenceDictionaryValidationArgumentCollection();
 
@@ -600,7 +607,7 @@ public abstract class GATKSparkTool extends SparkCommandLineProgram {
     private void initializeReference() {
         final GATKPath referencePathSpecifier = referenceArguments.getReferenceSpecifier();
         if ( referencePathSpecifier != null ) {
-            referenceSource = new ReferenceMultiSparkSource(referencePathSpecifier, getReferenceWindowFunction());
+            referenceSource = new ReferenceMultiSparkSource(referencePathSpecifier, getReferenceWindowFunction(), memoryMapTwoBitReference);
             referenceDictionary = referenceSource.getReferenceSequenceDictionary(readsHeader != null ? readsHeader.getSequenceDictionary() : null);
             if (referenceDictionary == null) {
                 throw new UserException.MissingReferenceDictFile(referencePathSpecifier.getRawInputString());
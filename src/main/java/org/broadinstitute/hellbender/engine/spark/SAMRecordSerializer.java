@@ -6,8 +6,10 @@ import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 import htsjdk.samtools.*;
 
+import java.util.Objects;
+
 /**
- * Efficient serializer for SAMRecords that uses SAMRecordSparkCodec for encoding/decoding.
+ * Efficient serializer for SAMRecords that uses the compact encoding of SAMRecordSparkCodec for encoding/decoding.
  * Assumes that the SAMRecords are headerless (and clears their header if they're not).
  */
 public final class SAMRecordSerializer extends Serializer<SAMRecord> {
@@ -20,10 +22,8 @@ public final class SAMRecordSerializer extends Serializer<SAMRecord> {
         record.setHeaderStrict(null);
 
         // serialize reference names to avoid having to have a header at read time
-        output.writeString(record.getReferenceName());
-        output.writeString(record.getMateReferenceName());
-        lazyCodec.setOutputStream(output);
-        lazyCodec.encode(record);
+        writeReferenceNames(output, record);
+        lazyCodec.encodeCompact(record, output);
 
         // clear indexing bin after encoding to ensure all SAMRecords compare properly
         record.setFlags(record.getFlags());
@@ -32,9 +32,8 @@ public final class SAMRecordSerializer extends Serializer<SAMRecord> {
     @Override
     public SAMRecord read(Kryo kryo, Input input, Class<SAMRecord> type) {
         final String referenceName = input.readString();
-        final String mateReferenceName = input.readString();
-        lazyCodec.setInputStream(input);
-        final SAMRecord record = lazyCodec.decode();
+        final String mateReferenceName = readMateReferenceName(input, referenceName);
+        final SAMRecord record = lazyCodec.decodeCompact(input);
 
         // clear indexing bin after decoding to ensure all SAMRecords compare properly
         record.setFlags(record.getFlags());
@@ -49,4 +48,26 @@ public final class SAMRecordSerializer extends Serializer<SAMRecord> {
 
         return record;
     }
+
+    /**
+     * Write the reference name of a record, followed by its mate reference name unless it is the same contig
+     * (which is the case for most reads), in which case only a single marker byte is written.
+     */
+    static void writeReferenceNames(final Output output, final SAMRecord record) {
+        final String referenceName = record.getReferenceName();
+        final String mateReferenceName = record.getMateReferenceName();
+        output.writeString(referenceName);
+        final boolean mateOnSameContig = Objects.equals(referenceName, mateReferenceName);
+        output.writeBoolean(mateOnSameContig);
+        if (!mateOnSameContig) {
+            output.writeString(mateReferenceName);
+        }
+    }
+
+    /**
+     * Read a mate reference name written by {@link #writeReferenceNames}.
+     */
+    static String readMateReferenceName(final Input input, final String referenceName) {
+        return input.readBoolean() ? referenceName : input.readString();
+    }
 }
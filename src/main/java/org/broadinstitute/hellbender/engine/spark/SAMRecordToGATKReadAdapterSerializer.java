@@ -8,7 +8,7 @@ import htsjdk.samtools.*;
 import org.broadinstitute.hellbender.utils.read.SAMRecordToGATKReadAdapter;
 
 /**
- * Efficient serializer for SAMRecordToGATKReadAdapters that uses SAMRecordSparkCodec for encoding/decoding.
+ * Efficient serializer for SAMRecordToGATKReadAdapters that uses the compact encoding of SAMRecordSparkCodec for encoding/decoding.
  * Assumes that the underlying SAMRecords are headerless (and clears their header if they're not).
  */
 public final class SAMRecordToGATKReadAdapterSerializer extends Serializer<SAMRecordToGATKReadAdapter> {
@@ -23,10 +23,8 @@ public final class SAMRecordToGATKReadAdapterSerializer extends Serializer<SAMRe
         record.setHeaderStrict(null);
 
         // serialize reference names to avoid having to have a header at read time
-        output.writeString(record.getReferenceName());
-        output.writeString(record.getMateReferenceName());
-        lazyCodec.setOutputStream(output);
-        lazyCodec.encode(record);
+        SAMRecordSerializer.writeReferenceNames(output, record);
+        lazyCodec.encodeCompact(record, output);
 
         // clear indexing bin after encoding to ensure all SAMRecords compare properly
         record.setFlags(record.getFlags());
@@ -35,9 +33,8 @@ public final class SAMRecordToGATKReadAdapterSerializer extends Serializer<SAMRe
     @Override
     public SAMRecordToGATKReadAdapter read(Kryo kryo, Input input, Class<SAMRecordToGATKReadAdapter> type) {
         final String referenceName = input.readString();
-        final String mateReferenceName = input.readString();
-        lazyCodec.setInputStream(input);
-        final SAMRecord record = lazyCodec.decode();
+        final String mateReferenceName = SAMRecordSerializer.readMateReferenceName(input, referenceName);
+        final SAMRecord record = lazyCodec.decodeCompact(input);
 
         // clear indexing bin after decoding to ensure all SAMRecords compare properly
         record.setFlags(record.getFlags());
@@ -0,0 +1,247 @@
+package org.broadinstitute.hellbender.engine.spark.datasources;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import org.broadinstitute.hellbender.engine.GATKPath;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
+import org.broadinstitute.hellbender.utils.reference.ReferenceBases;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A ReferenceSource impl that is backed by a memory-mapped .2bit file.
+ *
+ * <p>
+ *     Unlike {@link ReferenceTwoBitSparkSource}, which holds the whole .2bit file in a byte array that is serialized
+ *     with every copy of the source, instances of this class only hold the location of the reference. The first
+ *     query in each JVM maps the file off-heap (copying it to local temporary storage first if it is not on a local
+ *     filesystem) and the mapping is then shared by every task and every instance for the same reference in that JVM.
+ *     Queries decode the packed bases directly from the mapped file into the returned array.
+ * </p>
+ *
+ * <p>
+ *     Soft-masking is ignored, so all bases are returned upper case, as with {@link ReferenceTwoBitSparkSource}.
+ * </p>
+ */
+public class ReferenceMappedTwoBitSparkSource implements ReferenceSparkSource, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final Map<String, MappedTwoBitImage> IMAGES_BY_URL = new ConcurrentHashMap<>();
+
+    private final String referenceURL;
+
+    private transient MappedTwoBitImage image;
+
+    public ReferenceMappedTwoBitSparkSource(final GATKPath referencePathSpecifier) {
+        Utils.nonNull(referencePathSpecifier);
+        Utils.validateArg(ReferenceTwoBitSparkSource.isTwoBit(referencePathSpecifier), "ReferenceMappedTwoBitSparkSource can only take .2bit files");
+        // see ReferenceTwoBitSparkSource for why the GATKPath itself is not kept
+        this.referenceURL = referencePathSpecifier.getRawInputString();
+    }
+
+    /**
+     * Gets the reference bases spanning the requested interval. If the interval ends beyond the end of its
+     * contig according to our reference source's dictionary, it will be truncated at the contig end.
+     *
+     * @param interval query interval
+     * @return A ReferenceBases containing the reference bases spanning the requested interval, cropped at the
+     *         contig end if necessary
+     */
+    @Override
+    public ReferenceBases getReferenceBases(final SimpleInterval interval) throws IOException {
+        Utils.nonNull(interval);
+        final MappedTwoBitImage.Sequence sequence = getImage().getSequence(interval.getContig());
+        Utils.nonNull(sequence, () -> "Contig " + interval.getContig() + " not found in reference dictionary");
+        final SimpleInterval queryInterval = new SimpleInterval(interval.getContig(), interval.getStart(), Math.min(interval.getEnd(), sequence.length));
+        return new ReferenceBases(getImage().extract(sequence, queryInterval.getStart() - 1, queryInterval.getEnd()), queryInterval);
+    }
+
+    @Override
+    public SAMSequenceDictionary getReferenceSequenceDictionary(final SAMSequenceDictionary optReadSequenceDictionaryToMatch) throws IOException {
+        final List<SAMSequenceRecord> records = new ArrayList<>();
+        getImage().sequences.forEach((name, sequence) -> records.add(new SAMSequenceRecord(name, sequence.length)));
+        return new SAMSequenceDictionary(records);
+    }
+
+    private MappedTwoBitImage getImage() throws IOException {
+        if (image == null) {
+            try {
+                image = IMAGES_BY_URL.computeIfAbsent(referenceURL, url -> {
+                    try {
+                        return new MappedTwoBitImage(localCopy(url));
+                    } catch (final IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (final UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        return image;
+    }
+
+    private static Path localCopy(final String url) throws IOException {
+        if (!BucketUtils.isRemoteStorageUrl(url)) {
+            return new GATKPath(url).toPath();
+        }
+        final Path copy = Files.createTempFile("reference", ReferenceTwoBitSparkSource.TWO_BIT_EXTENSION);
+        copy.toFile().deleteOnExit();
+        try (final InputStream in = BucketUtils.openFile(url)) {
+            Files.copy(in, copy, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return copy;
+    }
+
+    /**
+     * A .2bit file mapped into memory. Only the sequence index and the N blocks of each sequence are held on the heap.
+     */
+    static final class MappedTwoBitImage {
+        private static final int SIGNATURE = 0x1A412743;
+        private static final byte[] BASES = {'T', 'C', 'A', 'G'};
+        private static final int SEGMENT_BITS = 30;
+        private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+
+        // MappedByteBuffers are limited to 2GB, so large files are mapped in several segments
+        private final MappedByteBuffer[] segments;
+        private final ByteOrder order;
+        private final Map<String, Sequence> sequences = new LinkedHashMap<>();
+
+        static final class Sequence {
+            final int length;
+            final long dnaOffset;
+            final int[] nBlockStarts;
+            final int[] nBlockEnds;
+
+            Sequence(final int length, final long dnaOffset, final int[] nBlockStarts, final int[] nBlockEnds) {
+                this.length = length;
+                this.dnaOffset = dnaOffset;
+                this.nBlockStarts = nBlockStarts;
+                this.nBlockEnds = nBlockEnds;
+            }
+        }
+
+        MappedTwoBitImage(final Path path) throws IOException {
+            try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                final long size = channel.size();
+                segments = new MappedByteBuffer[(int) ((size + SEGMENT_MASK) >>> SEGMENT_BITS)];
+                for (int i = 0; i < segments.length; i++) {
+                    final long start = (long) i << SEGMENT_BITS;
+                    segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_MASK + 1, size - start));
+                }
+            }
+            if (segments.length == 0) {
+                throw new IOException("Empty .2bit file " + path);
+            }
+
+            final int signature = segments[0].order(ByteOrder.LITTLE_ENDIAN).getInt(0);
+            if (signature == SIGNATURE) {
+                order = ByteOrder.LITTLE_ENDIAN;
+            } else if (Integer.reverseBytes(signature) == SIGNATURE) {
+                order = ByteOrder.BIG_ENDIAN;
+            } else {
+                throw new IOException("Not a .2bit file: " + path);
+            }
+            final int version = getInt(4);
+            if (version != 0 && version != 1) {
+                throw new IOException("Unsupported .2bit version " + version + " in " + path);
+            }
+
+            final int sequenceCount = getInt(8);
+            long indexOffset = 16;
+            for (int i = 0; i < sequenceCount; i++) {
+                final int nameLength = getByte(indexOffset) & 0xFF;
+                final byte[] name = new byte[nameLength];
+                for (int c = 0; c < nameLength; c++) {
+                    name[c] = getByte(indexOffset + 1 + c);
+                }
+                indexOffset += 1 + nameLength;
+                final long recordOffset = version == 0 ? Integer.toUnsignedLong(getInt(indexOffset)) : getLong(indexOffset);
+                indexOffset += version == 0 ? Integer.BYTES : Long.BYTES;
+                sequences.put(new String(name, StandardCharsets.US_ASCII), readSequence(recordOffset));
+            }
+        }
+
+        private Sequence readSequence(final long recordOffset) {
+            final int length = getInt(recordOffset);
+            final int nBlockCount = getInt(recordOffset + 4);
+            final long nBlockStartsOffset = recordOffset + 8;
+            final long nBlockSizesOffset = nBlockStartsOffset + 4L * nBlockCount;
+            final int[] nBlockStarts = new int[nBlockCount];
+            final int[] nBlockEnds = new int[nBlockCount];
+            for (int i = 0; i < nBlockCount; i++) {
+                nBlockStarts[i] = getInt(nBlockStartsOffset + 4L * i);
+                nBlockEnds[i] = nBlockStarts[i] + getInt(nBlockSizesOffset + 4L * i);
+            }
+            final long maskBlockCountOffset = nBlockSizesOffset + 4L * nBlockCount;
+            final int maskBlockCount = getInt(maskBlockCountOffset);
+            // skip the mask blocks and the reserved word
+            final long dnaOffset = maskBlockCountOffset + 4 + 8L * maskBlockCount + 4;
+            return new Sequence(length, dnaOffset, nBlockStarts, nBlockEnds);
+        }
+
+        Sequence getSequence(final String name) {
+            return sequences.get(name);
+        }
+
+        /**
+         * Decodes the bases in the zero-based, half-open range [start, end) of a sequence.
+         */
+        byte[] extract(final Sequence sequence, final int start, final int end) {
+            Utils.validateArg(start >= 0 && start <= end && end <= sequence.length, "invalid range");
+            final byte[] bases = new byte[end - start];
+            for (int i = start; i < end; i++) {
+                final int packed = getByte(sequence.dnaOffset + (i >>> 2));
+                bases[i - start] = BASES[(packed >>> (6 - 2 * (i & 3))) & 3];
+            }
+
+            // N blocks are sorted and non-overlapping, so start from the last block starting at or before start
+            int block = Arrays.binarySearch(sequence.nBlockStarts, start);
+            block = block >= 0 ? block : Math.max(0, -block - 2);
+            for (; block < sequence.nBlockStarts.length && sequence.nBlockStarts[block] < end; block++) {
+                final int from = Math.max(start, sequence.nBlockStarts[block]);
+                final int to = Math.min(end, sequence.nBlockEnds[block]);
+                if (from < to) {
+                    Arrays.fill(bases, from - start, to - start, (byte) 'N');
+                }
+            }
+            return bases;
+        }
+
+        private byte getByte(final long offset) {
+            return segments[(int) (offset >>> SEGMENT_BITS)].get((int) (offset & SEGMENT_MASK));
+        }
+
+        private int getInt(final long offset) {
+            final int b0 = getByte(offset) & 0xFF;
+            final int b1 = getByte(offset + 1) & 0xFF;
+            final int b2 = getByte(offset + 2) & 0xFF;
+            final int b3 = getByte(offset + 3) & 0xFF;
+            return order == ByteOrder.LITTLE_ENDIAN ? (b3 << 24) | (b2 << 16) | (b1 << 8) | b0 : (b0 << 24) | (b1 << 16) | (b2 << 8) | b3;
+        }
+
+        private long getLong(final long offset) {
+            final long first = Integer.toUnsignedLong(getInt(offset));
+            final long second = Integer.toUnsignedLong(getInt(offset + 4));
+            return order == ByteOrder.LITTLE_ENDIAN ? (second << 32) | first : (first << 32) | second;
+        }
+    }
+}
@@ -35,8 +35,22 @@ public class ReferenceMultiSparkSource implements ReferenceSparkSource, Serializ
      */
     public ReferenceMultiSparkSource( final GATKPath referencePathSpecifier,
                                       final SerializableFunction<GATKRead, SimpleInterval> referenceWindowFunction) {
+        this(referencePathSpecifier, referenceWindowFunction, false);
+    }
+
+    /**
+     * @param referencePathSpecifier local path or URL to the reference file
+     * @param referenceWindowFunction the custom reference window function used to map reads to desired reference bases
+     * @param memoryMapTwoBit if the reference is a .2bit file, memory-map it once per JVM instead of holding
+     *                        (and serializing) a copy of it on the heap of every instance
+     */
+    public ReferenceMultiSparkSource( final GATKPath referencePathSpecifier,
+                                      final SerializableFunction<GATKRead, SimpleInterval> referenceWindowFunction,
+                                      final boolean memoryMapTwoBit) {
         Utils.nonNull(referenceWindowFunction);
-        if ( ReferenceTwoBitSparkSource.isTwoBit(referencePathSpecifier)) {
+        if ( ReferenceTwoBitSparkSource.isTwoBit(referencePathSpecifier) && memoryMapTwoBit) {
+            referenceSource = new ReferenceMappedTwoBitSparkSource(referencePathSpecifier);
+        } else if ( ReferenceTwoBitSparkSource.isTwoBit(referencePathSpecifier)) {
             try {
                 referenceSource = new ReferenceTwoBitSparkSource(referencePathSpecifier);
             } catch (IOException e) {
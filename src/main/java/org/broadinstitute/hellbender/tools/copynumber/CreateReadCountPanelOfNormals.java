@@ -18,6 +18,7 @@ import org.broadinstitute.hellbender.tools.copynumber.arguments.CopyNumberArgume
 import org.broadinstitute.hellbender.tools.copynumber.arguments.CopyNumberStandardArgument;
 import org.broadinstitute.hellbender.tools.copynumber.denoising.GCBiasCorrector;
 import org.broadinstitute.hellbender.tools.copynumber.denoising.HDF5SVDReadCountPanelOfNormals;
+import org.broadinstitute.hellbender.tools.copynumber.denoising.MemoryMappedMatrix;
 import org.broadinstitute.hellbender.tools.copynumber.formats.collections.AnnotatedIntervalCollection;
 import org.broadinstitute.hellbender.tools.copynumber.formats.collections.SimpleCountCollection;
 import org.broadinstitute.hellbender.tools.copynumber.formats.records.annotation.CopyNumberAnnotations;
@@ -30,6 +31,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 /**
@@ -108,6 +110,25 @@ import java.util.stream.Collectors;
  *          -O cnv.pon.hdf5
  * </pre>
  *
+ * <p>
+ *     For panels too large to hold in memory, the out-of-core mode stores the read counts in a memory-mapped
+ *     file in the temporary directory, computes all filtering and median statistics by passes over samples or
+ *     blocks of intervals, and performs a randomized SVD (without Spark) instead of an exact one.
+ *     The filters and preprocessed values are identical to those of the default mode and
+ *     the output panel of normals has the same format.  Sufficient space for twice the size of the panel
+ *     (8 bytes per count) should be available in the temporary directory.
+ * </p>
+ *
+ * <pre>
+ *     gatk CreateReadCountPanelOfNormals \
+ *          -I sample_1.counts.hdf5 \
+ *          -I sample_2.counts.hdf5 \
+ *          ... \
+ *          --out-of-core \
+ *          --tmp-dir /path/to/large/tmp \
+ *          -O cnv.pon.hdf5
+ * </pre>
+ *
  * @author Samuel Lee &lt;slee@broadinstitute.org&gt;
  */
 @CommandLineProgramProperties(
@@ -131,6 +152,9 @@ public final class CreateReadCountPanelOfNormals extends SparkCommandLineProgram
     private static final int DEFAULT_CHUNK_DIVISOR = 16;
     private static final int DEFAULT_MAXIMUM_CHUNK_SIZE = HDF5Utils.MAX_NUMBER_OF_VALUES_PER_HDF5_MATRIX / DEFAULT_CHUNK_DIVISOR;
 
+    private static final int DEFAULT_NUMBER_OF_RANDOMIZED_SVD_OVERSAMPLES = 10;
+    private static final int DEFAULT_NUMBER_OF_RANDOMIZED_SVD_POWER_ITERATIONS = 2;
+
     //parameter names
     public static final String MINIMUM_INTERVAL_MEDIAN_PERCENTILE_LONG_NAME = "minimum-interval-median-percentile";
     public static final String MAXIMUM_ZEROS_IN_SAMPLE_PERCENTAGE_LONG_NAME = "maximum-zeros-in-sample-percentage";
@@ -139,6 +163,9 @@ public final class CreateReadCountPanelOfNormals extends SparkCommandLineProgram
     public static final String IMPUTE_ZEROS_LONG_NAME = "do-impute-zeros";
     public static final String EXTREME_OUTLIER_TRUNCATION_PERCENTILE_LONG_NAME = "extreme-outlier-truncation-percentile";
     public static final String MAXIMUM_CHUNK_SIZE = "maximum-chunk-size";
+    public static final String OUT_OF_CORE_LONG_NAME = "out-of-core";
+    public static final String RANDOMIZED_SVD_OVERSAMPLES_LONG_NAME = "randomized-svd-oversamples";
+    public static final String RANDOMIZED_SVD_POWER_ITERATIONS_LONG_NAME = "randomized-svd-power-iterations";
 
     @Argument(
             doc = "Input TSV or HDF5 files containing integer read counts in genomic intervals for all samples in the panel of normals (output of CollectReadCounts).  " +
@@ -249,6 +276,36 @@ public final class CreateReadCountPanelOfNormals extends SparkCommandLineProgram
     )
     private int maximumChunkSize = DEFAULT_MAXIMUM_CHUNK_SIZE;
 
+    @Argument(
+            doc = "If true, build the panel of normals out of core.  Read counts are held in a memory-mapped file in the " +
+                    "temporary directory rather than on the heap, filtering and median statistics are computed by passes " +
+                    "over samples or blocks of intervals, and the SVD is computed by a randomized algorithm instead of Spark.  " +
+                    "Filtering and preprocessing are identical to the default mode.",
+            fullName = OUT_OF_CORE_LONG_NAME,
+            optional = true
+    )
+    private boolean outOfCore = false;
+
+    @Advanced
+    @Argument(
+            doc = "Number of additional random vectors used to sketch the range of the standardized counts in the randomized SVD.  " +
+                    "Larger values improve accuracy at the cost of memory and runtime.  Only used in out-of-core mode.",
+            fullName = RANDOMIZED_SVD_OVERSAMPLES_LONG_NAME,
+            minValue = 0,
+            optional = true
+    )
+    private int numRandomizedSVDOversamples = DEFAULT_NUMBER_OF_RANDOMIZED_SVD_OVERSAMPLES;
+
+    @Advanced
+    @Argument(
+            doc = "Number of power iterations used in the randomized SVD.  Each iteration requires two additional passes " +
+                    "over the standardized counts but improves the accuracy of the eigensamples.  Only used in out-of-core mode.",
+            fullName = RANDOMIZED_SVD_POWER_ITERATIONS_LONG_NAME,
+            minValue = 0,
+            optional = true
+    )
+    private int numRandomizedSVDPowerIterations = DEFAULT_NUMBER_OF_RANDOMIZED_SVD_POWER_ITERATIONS;
+
     @Override
     protected void runPipeline(final JavaSparkContext ctx) {
         if (!new HDF5Library().load(null)) {  //Note: passing null means using the default temp dir.
@@ -281,17 +338,34 @@ public final class CreateReadCountPanelOfNormals extends SparkCommandLineProgram
                     .mapToDouble(i -> i.getAnnotationMap().getValue(CopyNumberAnnotations.GC_CONTENT))
                     .toArray();
 
-        //validate input read-counts files (i.e., check intervals and that only integer counts are contained)
-        //and aggregate as a RealMatrix with dimensions numIntervals x numSamples
-        final RealMatrix readCountMatrix = constructReadCountMatrix(logger, inputReadCountFiles, sequenceDictionary, intervals);
+        if (outOfCore) {
+            //validate input read-counts files and aggregate them one at a time
+            //in a memory-mapped matrix with dimensions numSamples x numIntervals
+            try (final MemoryMappedMatrix readCountMatrix = new MemoryMappedMatrix(inputReadCountFiles.size(), intervals.size())) {
+                logger.info("Validating and aggregating input read-counts files in a memory-mapped matrix...");
+                aggregateReadCounts(logger, inputReadCountFiles, sequenceDictionary, intervals, readCountMatrix::setRow);
+
+                //create the PoN
+                logger.info("Creating the panel of normals out of core...");
+                HDF5SVDReadCountPanelOfNormals.createOutOfCore(outputPanelOfNormalsFile, getCommandLine(),
+                        sequenceDictionary, readCountMatrix, sampleFilenames, intervals, intervalGCContent,
+                        minimumIntervalMedianPercentile, maximumZerosInSamplePercentage, maximumZerosInIntervalPercentage,
+                        extremeSampleMedianPercentile, doImputeZeros, extremeOutlierTruncationPercentile, numEigensamplesRequested,
+                        numRandomizedSVDOversamples, numRandomizedSVDPowerIterations, maximumChunkSize);
+            }
+        } else {
+            //validate input read-counts files (i.e., check intervals and that only integer counts are contained)
+            //and aggregate as a RealMatrix with dimensions numSamples x numIntervals
+            final RealMatrix readCountMatrix = constructReadCountMatrix(logger, inputReadCountFiles, sequenceDictionary, intervals);
 
-        //create the PoN
-        logger.info("Creating the panel of normals...");
-        HDF5SVDReadCountPanelOfNormals.create(outputPanelOfNormalsFile, getCommandLine(),
-                sequenceDictionary, readCountMatrix, sampleFilenames, intervals, intervalGCContent,
-                minimumIntervalMedianPercentile, maximumZerosInSamplePercentage, maximumZerosInIntervalPercentage,
-                extremeSampleMedianPercentile, doImputeZeros, extremeOutlierTruncationPercentile, numEigensamplesRequested,
-                maximumChunkSize, ctx);
+            //create the PoN
+            logger.info("Creating the panel of normals...");
+            HDF5SVDReadCountPanelOfNormals.create(outputPanelOfNormalsFile, getCommandLine(),
+                    sequenceDictionary, readCountMatrix, sampleFilenames, intervals, intervalGCContent,
+                    minimumIntervalMedianPercentile, maximumZerosInSamplePercentage, maximumZerosInIntervalPercentage,
+                    extremeSampleMedianPercentile, doImputeZeros, extremeOutlierTruncationPercentile, numEigensamplesRequested,
+                    maximumChunkSize, ctx);
+        }
 
         logger.info(String.format("%s complete.", getClass().getSimpleName()));
     }
@@ -316,9 +390,21 @@ public final class CreateReadCountPanelOfNormals extends SparkCommandLineProgram
                                                        final SAMSequenceDictionary sequenceDictionary,
                                                        final List<SimpleInterval> intervals) {
         logger.info("Validating and aggregating input read-counts files...");
+        final RealMatrix readCountMatrix = new Array2DRowRealMatrix(inputReadCountFiles.size(), intervals.size());
+        aggregateReadCounts(logger, inputReadCountFiles, sequenceDictionary, intervals, readCountMatrix::setRow);
+        return readCountMatrix;
+    }
+
+    /**
+     * Reads and validates the read-counts files one at a time, passing the counts for each sample to {@code rowConsumer}
+     * along with the sample index, so that only a single sample is held in memory by this method at any time.
+     */
+    private static void aggregateReadCounts(final Logger logger,
+                                            final List<File> inputReadCountFiles,
+                                            final SAMSequenceDictionary sequenceDictionary,
+                                            final List<SimpleInterval> intervals,
+                                            final BiConsumer<Integer, double[]> rowConsumer) {
         final int numSamples = inputReadCountFiles.size();
-        final int numIntervals = intervals.size();
-        final RealMatrix readCountMatrix = new Array2DRowRealMatrix(numSamples, numIntervals);
         final ListIterator<File> inputReadCountFilesIterator = inputReadCountFiles.listIterator();
         while (inputReadCountFilesIterator.hasNext()) {
             final int sampleIndex = inputReadCountFilesIterator.nextIndex();
@@ -330,8 +416,7 @@ public final class CreateReadCountPanelOfNormals extends SparkCommandLineProgram
             }
             Utils.validateArg(readCounts.getIntervals().equals(intervals),
                     String.format("Intervals for read-counts file %s do not match those in other read-counts files.", inputReadCountFile));
-            readCountMatrix.setRow(sampleIndex, readCounts.getCounts());
+            rowConsumer.accept(sampleIndex, readCounts.getCounts());
         }
-        return readCountMatrix;
     }
 }
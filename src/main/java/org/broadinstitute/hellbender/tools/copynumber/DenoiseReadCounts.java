@@ -1,6 +1,8 @@
 package org.broadinstitute.hellbender.tools.copynumber;
 
+import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.math3.linear.RealMatrix;
+import org.broadinstitute.barclay.argparser.Advanced;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
 import org.broadinstitute.barclay.help.DocumentedFeature;
@@ -16,13 +18,20 @@ import org.broadinstitute.hellbender.tools.copynumber.denoising.GCBiasCorrector;
 import org.broadinstitute.hellbender.tools.copynumber.denoising.HDF5SVDReadCountPanelOfNormals;
 import org.broadinstitute.hellbender.tools.copynumber.denoising.SVDDenoisedCopyRatioResult;
 import org.broadinstitute.hellbender.tools.copynumber.denoising.SVDDenoisingUtils;
+import org.broadinstitute.hellbender.tools.copynumber.denoising.SVDReadCountPanelDenoiser;
 import org.broadinstitute.hellbender.tools.copynumber.denoising.SVDReadCountPanelOfNormals;
 import org.broadinstitute.hellbender.tools.copynumber.formats.collections.AnnotatedIntervalCollection;
 import org.broadinstitute.hellbender.tools.copynumber.formats.collections.CopyRatioCollection;
 import org.broadinstitute.hellbender.tools.copynumber.formats.collections.SimpleCountCollection;
 import org.broadinstitute.hellbender.tools.copynumber.formats.records.annotation.CopyNumberAnnotations;
+import org.broadinstitute.hellbender.utils.Utils;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Denoises read counts to produce denoised copy ratios.
@@ -118,6 +127,24 @@ import java.io.File;
  *          --denoised-copy-ratios sample.denoisedCR.tsv
  * </pre>
  *
+ * <p>
+ *     Multiple samples may be denoised in a single invocation by specifying the input and both output arguments
+ *     once per sample, in the same order.  The panel of normals is then read only once and samples are standardized
+ *     and denoised together in batches, projecting each batch onto the eigensamples with a single matrix multiplication.
+ *     The output files for each sample are identical to those produced by denoising that sample alone.
+ * </p>
+ *
+ * <pre>
+ *     gatk DenoiseReadCounts \
+ *          -I sample_1.counts.hdf5 \
+ *          -I sample_2.counts.hdf5 \
+ *          --count-panel-of-normals panel_of_normals.pon.hdf5 \
+ *          --standardized-copy-ratios sample_1.standardizedCR.tsv \
+ *          --standardized-copy-ratios sample_2.standardizedCR.tsv \
+ *          --denoised-copy-ratios sample_1.denoisedCR.tsv \
+ *          --denoised-copy-ratios sample_2.denoisedCR.tsv
+ * </pre>
+ *
  * @author Samuel Lee &lt;slee@broadinstitute.org&gt;
  */
 @CommandLineProgramProperties(
@@ -127,12 +154,18 @@ import java.io.File;
 )
 @DocumentedFeature
 public final class DenoiseReadCounts extends CommandLineProgram {
+    public static final String NUMBER_OF_SAMPLES_PER_BATCH_LONG_NAME = "number-of-samples-per-batch";
+
+    private static final int DEFAULT_NUMBER_OF_SAMPLES_PER_BATCH = 100;
+
     @Argument(
-            doc = "Input TSV or HDF5 file containing integer read counts in genomic intervals for a single case sample (output of CollectReadCounts).",
+            doc = "Input TSV or HDF5 file containing integer read counts in genomic intervals for a case sample (output of CollectReadCounts).  " +
+                    "This argument may be specified multiple times to denoise multiple samples with a single read of the panel of normals.",
             fullName = StandardArgumentDefinitions.INPUT_LONG_NAME,
-            shortName = StandardArgumentDefinitions.INPUT_SHORT_NAME
+            shortName = StandardArgumentDefinitions.INPUT_SHORT_NAME,
+            minElements = 1
     )
-    private File inputReadCountFile;
+    private List<File> inputReadCountFiles = new ArrayList<>();
 
     @Argument(
             doc = "Input HDF5 file containing the panel of normals (output of CreateReadCountPanelOfNormals).",
@@ -143,7 +176,7 @@ public final class DenoiseReadCounts extends CommandLineProgram {
 
     @Argument(
             doc = "Input file containing annotations for GC content in genomic intervals (output of AnnotateIntervals).  " +
-                    "Intervals must be identical to and in the same order as those in the input read-counts file.  " +
+                    "Intervals must be identical to and in the same order as those in the input read-counts files.  " +
                     "If a panel of normals is provided, this input will be ignored.",
             fullName = CopyNumberStandardArgument.ANNOTATED_INTERVALS_FILE_LONG_NAME,
             optional = true
@@ -151,16 +184,20 @@ public final class DenoiseReadCounts extends CommandLineProgram {
     private File inputAnnotatedIntervalsFile = null;
 
     @Argument(
-            doc = "Output file for standardized copy ratios.  GC-bias correction will be performed if annotations for GC content are provided.",
-            fullName = CopyNumberStandardArgument.STANDARDIZED_COPY_RATIOS_FILE_LONG_NAME
+            doc = "Output file for standardized copy ratios.  GC-bias correction will be performed if annotations for GC content are provided.  " +
+                    "If multiple inputs are specified, this argument must be specified once for each, in the same order.",
+            fullName = CopyNumberStandardArgument.STANDARDIZED_COPY_RATIOS_FILE_LONG_NAME,
+            minElements = 1
     )
-    private File outputStandardizedCopyRatiosFile;
+    private List<File> outputStandardizedCopyRatiosFiles = new ArrayList<>();
 
     @Argument(
-            doc = "Output file for denoised copy ratios.",
-            fullName = CopyNumberStandardArgument.DENOISED_COPY_RATIOS_FILE_LONG_NAME
+            doc = "Output file for denoised copy ratios.  " +
+                    "If multiple inputs are specified, this argument must be specified once for each, in the same order.",
+            fullName = CopyNumberStandardArgument.DENOISED_COPY_RATIOS_FILE_LONG_NAME,
+            minElements = 1
     )
-    private File outputDenoisedCopyRatiosFile;
+    private List<File> outputDenoisedCopyRatiosFiles = new ArrayList<>();
 
     @Argument(
             doc = "Number of eigensamples to use for denoising.  " +
@@ -172,6 +209,16 @@ public final class DenoiseReadCounts extends CommandLineProgram {
     )
     private Integer numEigensamplesRequested = null;
 
+    @Advanced
+    @Argument(
+            doc = "Maximum number of samples to hold in memory and denoise together when multiple inputs are specified.  " +
+                    "Larger batches amortize the projection onto the eigensamples over more samples at the cost of memory.",
+            fullName = NUMBER_OF_SAMPLES_PER_BATCH_LONG_NAME,
+            minValue = 1,
+            optional = true
+    )
+    private int numSamplesPerBatch = DEFAULT_NUMBER_OF_SAMPLES_PER_BATCH;
+
     @Override
     protected Object doWork() {
         if (!new HDF5Library().load(null)) { //Note: passing null means using the default temp dir.
@@ -181,9 +228,7 @@ public final class DenoiseReadCounts extends CommandLineProgram {
 
         validateArguments();
 
-        logger.info(String.format("Reading read-counts file (%s)...", inputReadCountFile));
-        final SimpleCountCollection readCounts = SimpleCountCollection.read(inputReadCountFile);
-
+        final int numSamples = inputReadCountFiles.size();
         if (inputPanelOfNormalsFile != null) {  //denoise using panel of normals
             try (final HDF5File hdf5PanelOfNormalsFile = new HDF5File(inputPanelOfNormalsFile)) {  //HDF5File implements AutoCloseable
                 final SVDReadCountPanelOfNormals panelOfNormals = HDF5SVDReadCountPanelOfNormals.read(hdf5PanelOfNormalsFile);
@@ -192,7 +237,7 @@ public final class DenoiseReadCounts extends CommandLineProgram {
                     logger.warn("Panel of normals was provided; ignoring input GC-content annotations...");
                 }
 
-                //perform denoising and write result
+                //perform denoising and write results, one batch of samples at a time
                 final int numEigensamples =
                         numEigensamplesRequested == null ?
                                 panelOfNormals.getNumEigensamples() :
@@ -201,34 +246,55 @@ public final class DenoiseReadCounts extends CommandLineProgram {
                     logger.warn(String.format("%d eigensamples were requested but only %d are available in the panel of normals...",
                             numEigensamplesRequested, numEigensamples));
                 }
-                final SVDDenoisedCopyRatioResult denoisedCopyRatioResult = panelOfNormals.denoise(readCounts, numEigensamples);
-
-                writeResult(denoisedCopyRatioResult);
+                final SVDReadCountPanelDenoiser panelDenoiser = panelOfNormals.createDenoiser(numEigensamples);   //read the panel once for all batches
+                for (int batchStartIndex = 0; batchStartIndex < numSamples; batchStartIndex += numSamplesPerBatch) {
+                    final int batchEndIndex = Math.min(batchStartIndex + numSamplesPerBatch, numSamples);
+                    if (numSamples > 1) {
+                        logger.info(String.format("Denoising samples %d to %d of %d...", batchStartIndex + 1, batchEndIndex, numSamples));
+                    }
+                    final List<SimpleCountCollection> batchReadCounts = IntStream.range(batchStartIndex, batchEndIndex)
+                            .mapToObj(this::readReadCounts)
+                            .collect(Collectors.toList());
+                    final List<SVDDenoisedCopyRatioResult> denoisedCopyRatioResults = panelDenoiser.denoise(batchReadCounts);
+                    for (int sampleIndex = batchStartIndex; sampleIndex < batchEndIndex; sampleIndex++) {
+                        writeResult(denoisedCopyRatioResults.get(sampleIndex - batchStartIndex), sampleIndex);
+                    }
+                }
             }
         } else {    //standardize and perform optional GC-bias correction
-            //get GC content (null if not provided)
-            final AnnotatedIntervalCollection annotatedIntervals = CopyNumberArgumentValidationUtils.validateAnnotatedIntervals(
-                    inputAnnotatedIntervalsFile, readCounts, logger);
-            final double[] intervalGCContent = annotatedIntervals == null
-                    ? null
-                    : annotatedIntervals.getRecords().stream()
-                    .mapToDouble(i -> i.getAnnotationMap().getValue(CopyNumberAnnotations.GC_CONTENT))
-                    .toArray();
-
-            if (intervalGCContent == null) {
-                logger.warn("Neither a panel of normals nor GC-content annotations were provided, so only standardization will be performed...");
-            }
+            //get GC content (null if not provided), which is validated against the intervals of each sample
+            AnnotatedIntervalCollection annotatedIntervals = null;
+            double[] intervalGCContent = null;
+            for (int sampleIndex = 0; sampleIndex < numSamples; sampleIndex++) {
+                final SimpleCountCollection readCounts = readReadCounts(sampleIndex);
+                if (sampleIndex == 0) {
+                    annotatedIntervals = CopyNumberArgumentValidationUtils.validateAnnotatedIntervals(
+                            inputAnnotatedIntervalsFile, readCounts, logger);
+                    intervalGCContent = annotatedIntervals == null
+                            ? null
+                            : annotatedIntervals.getRecords().stream()
+                            .mapToDouble(i -> i.getAnnotationMap().getValue(CopyNumberAnnotations.GC_CONTENT))
+                            .toArray();
 
-            final RealMatrix standardizedCopyRatioValues = SVDDenoisingUtils.preprocessAndStandardizeSample(readCounts.getCounts(), intervalGCContent);
+                    if (intervalGCContent == null) {
+                        logger.warn("Neither a panel of normals nor GC-content annotations were provided, so only standardization will be performed...");
+                    }
+                } else if (annotatedIntervals != null) {
+                    Utils.validateArg(annotatedIntervals.getIntervals().equals(readCounts.getIntervals()),
+                            "Annotated intervals do not match provided intervals.");
+                }
+
+                final RealMatrix standardizedCopyRatioValues = SVDDenoisingUtils.preprocessAndStandardizeSample(readCounts.getCounts(), intervalGCContent);
 
-            //construct a result with denoised result identical to standardized result
-            final SVDDenoisedCopyRatioResult standardizedResult = new SVDDenoisedCopyRatioResult(
-                    readCounts.getMetadata(),
-                    readCounts.getIntervals(),
-                    standardizedCopyRatioValues,
-                    standardizedCopyRatioValues);
+                //construct a result with denoised result identical to standardized result
+                final SVDDenoisedCopyRatioResult standardizedResult = new SVDDenoisedCopyRatioResult(
+                        readCounts.getMetadata(),
+                        readCounts.getIntervals(),
+                        standardizedCopyRatioValues,
+                        standardizedCopyRatioValues);
 
-            writeResult(standardizedResult);
+                writeResult(standardizedResult, sampleIndex);
+            }
         }
 
         logger.info(String.format("%s complete.", getClass().getSimpleName()));
@@ -237,16 +303,31 @@ public final class DenoiseReadCounts extends CommandLineProgram {
     }
 
     private void validateArguments() {
+        Utils.validateArg(inputReadCountFiles.size() == outputStandardizedCopyRatiosFiles.size() &&
+                        inputReadCountFiles.size() == outputDenoisedCopyRatiosFiles.size(),
+                String.format("Number of standardized-copy-ratios files (%d) and denoised-copy-ratios files (%d) " +
+                                "must match the number of input read-counts files (%d).",
+                        outputStandardizedCopyRatiosFiles.size(), outputDenoisedCopyRatiosFiles.size(), inputReadCountFiles.size()));
+        final List<File> outputFiles = ListUtils.union(outputStandardizedCopyRatiosFiles, outputDenoisedCopyRatiosFiles);
+        Utils.validateArg(outputFiles.size() == new HashSet<>(outputFiles).size(),
+                "Output files cannot contain duplicates.");
+        inputReadCountFiles.forEach(CopyNumberArgumentValidationUtils::validateInputs);
         CopyNumberArgumentValidationUtils.validateInputs(
-                inputReadCountFile,
                 inputPanelOfNormalsFile,
                 inputAnnotatedIntervalsFile);
-        CopyNumberArgumentValidationUtils.validateOutputFiles(
-                outputStandardizedCopyRatiosFile,
-                outputStandardizedCopyRatiosFile);
+        CopyNumberArgumentValidationUtils.validateOutputFiles(outputFiles.toArray(new File[0]));
+    }
+
+    private SimpleCountCollection readReadCounts(final int sampleIndex) {
+        final File inputReadCountFile = inputReadCountFiles.get(sampleIndex);
+        logger.info(String.format("Reading read-counts file (%s)...", inputReadCountFile));
+        return SimpleCountCollection.read(inputReadCountFile);
     }
 
-    private void writeResult(final SVDDenoisedCopyRatioResult result) {
+    private void writeResult(final SVDDenoisedCopyRatioResult result,
+                             final int sampleIndex) {
+        final File outputStandardizedCopyRatiosFile = outputStandardizedCopyRatiosFiles.get(sampleIndex);
+        final File outputDenoisedCopyRatiosFile = outputDenoisedCopyRatiosFiles.get(sampleIndex);
         logger.info(String.format("Writing standardized and denoised copy ratios to %s and %s...",
                 outputStandardizedCopyRatiosFile.getAbsolutePath(),
                 outputDenoisedCopyRatiosFile.getAbsolutePath()));
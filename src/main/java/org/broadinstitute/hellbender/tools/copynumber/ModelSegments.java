@@ -503,7 +503,8 @@ public final class ModelSegments extends CommandLineProgram {
                             segmentationArguments.kernelApproximationDimension,
                             ImmutableSet.copyOf(segmentationArguments.windowSizes).asList(),
                             segmentationArguments.numChangepointsPenaltyFactor,
-                            segmentationArguments.numChangepointsPenaltyFactor);
+                            segmentationArguments.numChangepointsPenaltyFactor,
+                            segmentationArguments.numSegmentationThreads);
             logHeapUsage("segmentation");
 
             final File segmentsIntervalListFile = new File(outputDir, outputPrefix + PICARD_INTERVAL_LIST_FILE_SUFFIX);
@@ -550,7 +551,8 @@ public final class ModelSegments extends CommandLineProgram {
                                 segmentationArguments.kernelApproximationDimension,
                                 ImmutableSet.copyOf(segmentationArguments.windowSizes).asList(),
                                 segmentationArguments.numChangepointsPenaltyFactor,
-                                segmentationArguments.numChangepointsPenaltyFactor);
+                                segmentationArguments.numChangepointsPenaltyFactor,
+                                segmentationArguments.numSegmentationThreads);
                 logHeapUsage("segmentation");
             } else {
                 final IntervalList segmentsIntervalList = IntervalList.fromFile(inputSegmentsFile);
@@ -571,7 +573,8 @@ public final class ModelSegments extends CommandLineProgram {
             final MultidimensionalModeller modeller = new MultidimensionalModeller(
                     segments, denoisedCopyRatios, hetAllelicCounts, alleleFractionPrior,
                     modelingArguments.numSamplesCopyRatio, modelingArguments.numBurnInCopyRatio,
-                    modelingArguments.numSamplesAlleleFraction, modelingArguments.numBurnInAlleleFraction);
+                    modelingArguments.numSamplesAlleleFraction, modelingArguments.numBurnInAlleleFraction,
+                    modelingArguments.numChains, modelingArguments.numThreads);
 
             //write initial segments and parameters to file
             writeModeledSegmentsAndParameterFiles(modeller, BEGIN_FIT_FILE_TAG);
@@ -14,6 +14,8 @@ public class SomaticModelingArgumentCollection implements Serializable {
     public static final String NUMBER_OF_BURN_IN_SAMPLES_COPY_RATIO_LONG_NAME = "number-of-burn-in-samples-copy-ratio";
     public static final String NUMBER_OF_SAMPLES_ALLELE_FRACTION_LONG_NAME = "number-of-samples-allele-fraction";
     public static final String NUMBER_OF_BURN_IN_SAMPLES_ALLELE_FRACTION_LONG_NAME = "number-of-burn-in-samples-allele-fraction";
+    public static final String NUMBER_OF_CHAINS_LONG_NAME = "number-of-mcmc-chains";
+    public static final String NUMBER_OF_THREADS_LONG_NAME = "number-of-mcmc-threads";
 
     //smoothing argument names
     public static final String SMOOTHING_CREDIBLE_INTERVAL_THRESHOLD_COPY_RATIO_LONG_NAME = "smoothing-credible-interval-threshold-copy-ratio";
@@ -63,6 +65,26 @@ public class SomaticModelingArgumentCollection implements Serializable {
     )
     public int numBurnInAlleleFraction = 50;
 
+    @Argument(
+            doc = "Number of MCMC chains to run for each of the copy-ratio and allele-fraction models. " +
+                    "Each chain generates the specified number of samples and discards the specified number of burn-in samples; " +
+                    "posterior summaries are computed from the samples pooled across chains.",
+            fullName = NUMBER_OF_CHAINS_LONG_NAME,
+            optional = true,
+            minValue = 1
+    )
+    public int numChains = 1;
+
+    @Argument(
+            doc = "Number of threads to use for MCMC. If greater than 1, chains are run concurrently and segment-level " +
+                    "parameters are sampled in parallel. Results are then reproducible and independent of the number of threads, " +
+                    "but differ from those obtained using a single thread.",
+            fullName = NUMBER_OF_THREADS_LONG_NAME,
+            optional = true,
+            minValue = 1
+    )
+    public int numThreads = 1;
+
     @Argument(
             doc = "Number of 10% equal-tailed credible-interval widths to use for copy-ratio segmentation smoothing.",
             fullName = SMOOTHING_CREDIBLE_INTERVAL_THRESHOLD_COPY_RATIO_LONG_NAME,
@@ -18,6 +18,7 @@ public class SomaticSegmentationArgumentCollection implements Serializable {
     public static final String KERNEL_APPROXIMATION_DIMENSION_LONG_NAME = "kernel-approximation-dimension";
     public static final String WINDOW_SIZE_LONG_NAME = "window-size";
     public static final String NUMBER_OF_CHANGEPOINTS_PENALTY_FACTOR_LONG_NAME = "number-of-changepoints-penalty-factor";
+    public static final String NUMBER_OF_SEGMENTATION_THREADS_LONG_NAME = "number-of-segmentation-threads";
 
     @Argument(
             doc = "Maximum number of segments allowed per chromosome.",
@@ -88,4 +89,14 @@ public class SomaticSegmentationArgumentCollection implements Serializable {
             optional = true
     )
     public double numChangepointsPenaltyFactor = 1.;
+
+    @Argument(
+            doc = "Number of threads to use for segmentation of each chromosome.  " +
+                    "Local changepoint costs for different window sizes are calculated in parallel.  " +
+                    "The resulting segmentation does not depend on the number of threads.",
+            fullName = NUMBER_OF_SEGMENTATION_THREADS_LONG_NAME,
+            minValue = 1,
+            optional = true
+    )
+    public int numSegmentationThreads = 1;
 }
@@ -26,6 +26,7 @@ import org.broadinstitute.hellbender.utils.spark.SparkConverter;
 import java.io.File;
 import java.io.StringWriter;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -91,6 +92,7 @@ public final class HDF5SVDReadCountPanelOfNormals implements SVDReadCountPanelOf
     private static final int CHUNK_DIVISOR = 16;    //limits number of intervals to 16777215
     private static final int NUM_SLICES_FOR_SPARK_MATRIX_CONVERSION = 100;
     private static final double EPSILON = 1E-9;
+    private static final long RANDOMIZED_SVD_SEED = 1216;
 
     /**
      * The version number is a double where the integer part is the
@@ -257,29 +259,10 @@ public final class HDF5SVDReadCountPanelOfNormals implements SVDReadCountPanelOf
             logger.info(String.format("Creating read-count panel of normals at %s...", outFile.getAbsolutePath()));
             final HDF5SVDReadCountPanelOfNormals pon = new HDF5SVDReadCountPanelOfNormals(file);
 
-            logger.info(String.format("Writing version number (" + PON_VERSION_STRING_FORMAT + ")...", CURRENT_PON_VERSION));
-            pon.writeVersion(CURRENT_PON_VERSION);
-
-            logger.info("Writing command line...");
-            pon.writeCommandLine(commandLine);
-
-            logger.info("Writing sequence dictionary...");
-            pon.writeSequenceDictionary(sequenceDictionary);
-
-            logger.info(String.format("Writing original read counts (%d x %d)...",
-                    originalReadCounts.getColumnDimension(), originalReadCounts.getRowDimension()));
-            pon.writeOriginalReadCountsPath(originalReadCounts, maximumChunkSize);
-
-            logger.info(String.format("Writing original sample filenames (%d)...", originalSampleFilenames.size()));
-            pon.writeOriginalSampleFilenames(originalSampleFilenames);
-
-            logger.info(String.format("Writing original intervals (%d)...", originalIntervals.size()));
-            pon.writeOriginalIntervals(originalIntervals);
-
-            if (intervalGCContent != null) {
-                logger.info(String.format("Writing GC-content annotations for original intervals (%d)...", intervalGCContent.length));
-                pon.writeOriginalIntervalGCContent(intervalGCContent);
-            }
+            pon.writeOriginalData(commandLine, sequenceDictionary,
+                    originalReadCounts.getRowDimension(), originalReadCounts.getColumnDimension(),
+                    Arrays.asList(originalReadCounts.getData()).iterator(),
+                    originalSampleFilenames, originalIntervals, intervalGCContent, maximumChunkSize);
 
             //preprocess and standardize read counts and determine filters
             //(originalReadCounts is modified in place and a filtered submatrix is returned)
@@ -289,35 +272,15 @@ public final class HDF5SVDReadCountPanelOfNormals implements SVDReadCountPanelOf
                             minimumIntervalMedianPercentile, maximumZerosInSamplePercentage, maximumZerosInIntervalPercentage,
                             extremeSampleMedianPercentile, doImputeZeros, extremeOutlierTruncationPercentile);
 
-            //filter samples and intervals
-            final List<String> panelSampleFilenames = IntStream.range(0, originalSampleFilenames.size())
-                    .filter(sampleIndex -> !preprocessedStandardizedResult.filterSamples[sampleIndex])
-                    .mapToObj(originalSampleFilenames::get).collect(Collectors.toList());
-            final List<SimpleInterval> panelIntervals = IntStream.range(0, originalIntervals.size())
-                    .filter(intervalIndex -> !preprocessedStandardizedResult.filterIntervals[intervalIndex])
-                    .mapToObj(originalIntervals::get).collect(Collectors.toList());
-
-            logger.info(String.format("Writing panel sample filenames (%d)...", panelSampleFilenames.size()));
-            pon.writePanelSampleFilenames(panelSampleFilenames);
-
-            logger.info(String.format("Writing panel intervals (%d)...", panelIntervals.size()));
-            pon.writePanelIntervals(panelIntervals);
-
-            //get panel interval fractional medians (calculated as an intermediate result during preprocessing)
-            final double[] panelIntervalFractionalMedians = preprocessedStandardizedResult.panelIntervalFractionalMedians;
-
-            logger.info(String.format("Writing panel interval fractional medians (%d)...", panelIntervalFractionalMedians.length));
-            pon.writePanelIntervalFractionalMedians(panelIntervalFractionalMedians);
+            pon.writePanelData(originalSampleFilenames, originalIntervals,
+                    preprocessedStandardizedResult.filterSamples, preprocessedStandardizedResult.filterIntervals,
+                    preprocessedStandardizedResult.panelIntervalFractionalMedians);
 
             final int numPanelSamples = preprocessedStandardizedResult.preprocessedStandardizedValues.getRowDimension();
             final int numPanelIntervals = preprocessedStandardizedResult.preprocessedStandardizedValues.getColumnDimension();
 
             //perform SVD, handling number of eigensamples requested vs. that available in filtered panel vs. that available from actual decomposition
-            final int numEigensamples = Math.min(numEigensamplesRequested, numPanelSamples);
-            if (numEigensamples < numEigensamplesRequested) {
-                logger.warn(String.format("%d eigensamples were requested but only %d are available in the panel of normals...",
-                        numEigensamplesRequested, numEigensamples));
-            }
+            final int numEigensamples = calculateNumEigensamples(numEigensamplesRequested, numPanelSamples);
             logger.info(String.format("Performing SVD (truncated at %d eigensamples) of standardized counts (transposed to %d x %d)...",
                     numEigensamples, numPanelIntervals, numPanelSamples));
             if (numPanelSamples > 1 && numEigensamples > 0) {
@@ -325,15 +288,7 @@ public final class HDF5SVDReadCountPanelOfNormals implements SVDReadCountPanelOf
                         ctx, preprocessedStandardizedResult.preprocessedStandardizedValues.transpose(), NUM_SLICES_FOR_SPARK_MATRIX_CONVERSION)
                         .computeSVD(numEigensamples, true, EPSILON);
                 final double[] singularValues = svd.s().toArray();    //should be in decreasing order (with corresponding matrices below)
-                if (singularValues.length == 0 || Arrays.stream(singularValues).noneMatch(s -> s > EPSILON)) {
-                    //if the panel contains more than one sample, we require that at least one non-negligible singular value is found
-                    throw new UserException(String.format("No non-zero singular values were found.  It may be necessary to use stricter parameters for filtering.  " +
-                            "For example, use a larger value of %s.", CreateReadCountPanelOfNormals.MINIMUM_INTERVAL_MEDIAN_PERCENTILE_LONG_NAME));
-                }
-                if (singularValues.length < numEigensamples) {
-                    logger.warn(String.format("Attempted to truncate at %d eigensamples, but only %d non-zero singular values were found...",
-                            numEigensamples, singularValues.length));
-                }
+                validateSingularValues(singularValues, numEigensamples);
                 final double[][] eigensampleVectors = SparkConverter.convertSparkRowMatrixToRealMatrix(svd.U(), numPanelIntervals).getData();
 
                 logger.info(String.format("Writing singular values (%d)...", singularValues.length));
@@ -347,16 +302,182 @@ public final class HDF5SVDReadCountPanelOfNormals implements SVDReadCountPanelOf
                 logger.info("No eigensamples could be computed because only a single sample was provided or no eigensamples were requested.");
             }
         } catch (final RuntimeException exception) {
-            //if any exceptions encountered, delete partial output and rethrow
-            logger.warn(String.format("Exception encountered during creation of panel of normals (%s).  Attempting to delete partial output in %s...",
-                    exception, outFile.getAbsolutePath()));
-            IOUtils.tryDelete(outFile);
-            throw new GATKException(String.format("Could not create panel of normals.  It may be necessary to use stricter parameters for filtering.  " +
-                    "For example, use a larger value of %s.", CreateReadCountPanelOfNormals.MINIMUM_INTERVAL_MEDIAN_PERCENTILE_LONG_NAME),  exception);
+            throw deletePartialOutput(outFile, exception);
         }
         logger.info(String.format("Read-count panel of normals written to %s.", outFile.getAbsolutePath()));
     }
 
+    /**
+     * Create the panel of normals out of core and write it to an HDF5 file with the same contents as
+     * {@link #create}, up to the method used for the SVD.  All inputs are assumed to be valid.
+     * The dimensions of {@code originalReadCounts} should be samples x intervals; it is modified in place.
+     * Preprocessing is performed by passes over the memory-mapped counts that hold only single samples or blocks of
+     * intervals in memory (see {@link SVDDenoisingUtils}) and the SVD is computed by a randomized algorithm
+     * (see {@link RandomizedSVD}) with the given number of oversamples and power iterations, which requires
+     * only a small number of passes over the standardized counts.
+     * If {@code intervalGCContent} is null, GC-bias correction will not be performed.
+     */
+    public static void createOutOfCore(final File outFile,
+                                       final String commandLine,
+                                       final SAMSequenceDictionary sequenceDictionary,
+                                       final MemoryMappedMatrix originalReadCounts,
+                                       final List<String> originalSampleFilenames,
+                                       final List<SimpleInterval> originalIntervals,
+                                       final double[] intervalGCContent,
+                                       final double minimumIntervalMedianPercentile,
+                                       final double maximumZerosInSamplePercentage,
+                                       final double maximumZerosInIntervalPercentage,
+                                       final double extremeSampleMedianPercentile,
+                                       final boolean doImputeZeros,
+                                       final double extremeOutlierTruncationPercentile,
+                                       final int numEigensamplesRequested,
+                                       final int numRandomizedSVDOversamples,
+                                       final int numRandomizedSVDPowerIterations,
+                                       final int maximumChunkSize) {
+        try (final HDF5File file = new HDF5File(outFile, HDF5File.OpenMode.CREATE)) {
+            logger.info(String.format("Creating read-count panel of normals out of core at %s...", outFile.getAbsolutePath()));
+            final HDF5SVDReadCountPanelOfNormals pon = new HDF5SVDReadCountPanelOfNormals(file);
+
+            final int numOriginalSamples = originalReadCounts.getRowDimension();
+            pon.writeOriginalData(commandLine, sequenceDictionary,
+                    numOriginalSamples, originalReadCounts.getColumnDimension(),
+                    IntStream.range(0, numOriginalSamples).mapToObj(originalReadCounts::getRow).iterator(),
+                    originalSampleFilenames, originalIntervals, intervalGCContent, maximumChunkSize);
+
+            //preprocess and standardize read counts and determine filters
+            //(originalReadCounts is modified in place and a filtered submatrix is returned)
+            logger.info("Preprocessing and standardizing read counts...");
+            final SVDDenoisingUtils.OutOfCorePreprocessedStandardizedResult preprocessedStandardizedResult =
+                    SVDDenoisingUtils.preprocessAndStandardizePanel(originalReadCounts, intervalGCContent,
+                            minimumIntervalMedianPercentile, maximumZerosInSamplePercentage, maximumZerosInIntervalPercentage,
+                            extremeSampleMedianPercentile, doImputeZeros, extremeOutlierTruncationPercentile);
+
+            try (final MemoryMappedMatrix preprocessedStandardizedValues = preprocessedStandardizedResult.preprocessedStandardizedValues) {
+                pon.writePanelData(originalSampleFilenames, originalIntervals,
+                        preprocessedStandardizedResult.filterSamples, preprocessedStandardizedResult.filterIntervals,
+                        preprocessedStandardizedResult.panelIntervalFractionalMedians);
+
+                final int numPanelSamples = preprocessedStandardizedValues.getRowDimension();
+                final int numPanelIntervals = preprocessedStandardizedValues.getColumnDimension();
+
+                //perform SVD, handling number of eigensamples requested vs. that available in filtered panel vs. that available from actual decomposition
+                final int numEigensamples = calculateNumEigensamples(numEigensamplesRequested, numPanelSamples);
+                logger.info(String.format("Performing randomized SVD (truncated at %d eigensamples) of standardized counts (%d x %d)...",
+                        numEigensamples, numPanelSamples, numPanelIntervals));
+                if (numPanelSamples > 1 && numEigensamples > 0) {
+                    final RandomizedSVD svd = RandomizedSVD.compute(preprocessedStandardizedValues, numEigensamples,
+                            numRandomizedSVDOversamples, numRandomizedSVDPowerIterations, EPSILON, RANDOMIZED_SVD_SEED);
+                    final double[] singularValues = svd.singularValues;
+                    validateSingularValues(singularValues, numEigensamples);
+                    final double[][] transposedEigensampleVectors = svd.transposedRightSingularVectors;
+
+                    logger.info(String.format("Writing singular values (%d)...", singularValues.length));
+                    pon.writeSingularValues(singularValues);
+
+                    logger.info(String.format("Writing eigensample vectors (transposed to %d x %d)...", transposedEigensampleVectors.length, transposedEigensampleVectors[0].length));
+                    pon.writeTransposedEigensampleVectors(transposedEigensampleVectors, maximumChunkSize);
+                } else {
+                    //if the panel only contains a single sample or zero eigensamples were requested,
+                    //we do not store singular values or eigenvectors in the panel
+                    logger.info("No eigensamples could be computed because only a single sample was provided or no eigensamples were requested.");
+                }
+            }
+        } catch (final RuntimeException exception) {
+            throw deletePartialOutput(outFile, exception);
+        }
+        logger.info(String.format("Read-count panel of normals written to %s.", outFile.getAbsolutePath()));
+    }
+
+    private static int calculateNumEigensamples(final int numEigensamplesRequested,
+                                                final int numPanelSamples) {
+        final int numEigensamples = Math.min(numEigensamplesRequested, numPanelSamples);
+        if (numEigensamples < numEigensamplesRequested) {
+            logger.warn(String.format("%d eigensamples were requested but only %d are available in the panel of normals...",
+                    numEigensamplesRequested, numEigensamples));
+        }
+        return numEigensamples;
+    }
+
+    private static void validateSingularValues(final double[] singularValues,
+                                               final int numEigensamples) {
+        if (singularValues.length == 0 || Arrays.stream(singularValues).noneMatch(s -> s > EPSILON)) {
+            //if the panel contains more than one sample, we require that at least one non-negligible singular value is found
+            throw new UserException(String.format("No non-zero singular values were found.  It may be necessary to use stricter parameters for filtering.  " +
+                    "For example, use a larger value of %s.", CreateReadCountPanelOfNormals.MINIMUM_INTERVAL_MEDIAN_PERCENTILE_LONG_NAME));
+        }
+        if (singularValues.length < numEigensamples) {
+            logger.warn(String.format("Attempted to truncate at %d eigensamples, but only %d non-zero singular values were found...",
+                    numEigensamples, singularValues.length));
+        }
+    }
+
+    //if any exceptions encountered, delete partial output and return exception to rethrow
+    private static GATKException deletePartialOutput(final File outFile,
+                                                     final RuntimeException exception) {
+        logger.warn(String.format("Exception encountered during creation of panel of normals (%s).  Attempting to delete partial output in %s...",
+                exception, outFile.getAbsolutePath()));
+        IOUtils.tryDelete(outFile);
+        return new GATKException(String.format("Could not create panel of normals.  It may be necessary to use stricter parameters for filtering.  " +
+                "For example, use a larger value of %s.", CreateReadCountPanelOfNormals.MINIMUM_INTERVAL_MEDIAN_PERCENTILE_LONG_NAME),  exception);
+    }
+
+    private void writeOriginalData(final String commandLine,
+                                   final SAMSequenceDictionary sequenceDictionary,
+                                   final int numOriginalSamples,
+                                   final int numOriginalIntervals,
+                                   final Iterator<double[]> originalReadCountsRowIterator,
+                                   final List<String> originalSampleFilenames,
+                                   final List<SimpleInterval> originalIntervals,
+                                   final double[] intervalGCContent,
+                                   final int maximumChunkSize) {
+        logger.info(String.format("Writing version number (" + PON_VERSION_STRING_FORMAT + ")...", CURRENT_PON_VERSION));
+        writeVersion(CURRENT_PON_VERSION);
+
+        logger.info("Writing command line...");
+        writeCommandLine(commandLine);
+
+        logger.info("Writing sequence dictionary...");
+        writeSequenceDictionary(sequenceDictionary);
+
+        logger.info(String.format("Writing original read counts (%d x %d)...", numOriginalIntervals, numOriginalSamples));
+        writeOriginalReadCountsPath(numOriginalSamples, numOriginalIntervals, originalReadCountsRowIterator, maximumChunkSize);
+
+        logger.info(String.format("Writing original sample filenames (%d)...", originalSampleFilenames.size()));
+        writeOriginalSampleFilenames(originalSampleFilenames);
+
+        logger.info(String.format("Writing original intervals (%d)...", originalIntervals.size()));
+        writeOriginalIntervals(originalIntervals);
+
+        if (intervalGCContent != null) {
+            logger.info(String.format("Writing GC-content annotations for original intervals (%d)...", intervalGCContent.length));
+            writeOriginalIntervalGCContent(intervalGCContent);
+        }
+    }
+
+    private void writePanelData(final List<String> originalSampleFilenames,
+                                final List<SimpleInterval> originalIntervals,
+                                final boolean[] filterSamples,
+                                final boolean[] filterIntervals,
+                                final double[] panelIntervalFractionalMedians) {
+        //filter samples and intervals
+        final List<String> panelSampleFilenames = IntStream.range(0, originalSampleFilenames.size())
+                .filter(sampleIndex -> !filterSamples[sampleIndex])
+                .mapToObj(originalSampleFilenames::get).collect(Collectors.toList());
+        final List<SimpleInterval> panelIntervals = IntStream.range(0, originalIntervals.size())
+                .filter(intervalIndex -> !filterIntervals[intervalIndex])
+                .mapToObj(originalIntervals::get).collect(Collectors.toList());
+
+        logger.info(String.format("Writing panel sample filenames (%d)...", panelSampleFilenames.size()));
+        writePanelSampleFilenames(panelSampleFilenames);
+
+        logger.info(String.format("Writing panel intervals (%d)...", panelIntervals.size()));
+        writePanelIntervals(panelIntervals);
+
+        //panel interval fractional medians are calculated as an intermediate result during preprocessing
+        logger.info(String.format("Writing panel interval fractional medians (%d)...", panelIntervalFractionalMedians.length));
+        writePanelIntervalFractionalMedians(panelIntervalFractionalMedians);
+    }
+
     //PRIVATE WRITERS (write values to HDF5 file)
     //these are private to prevent fields from being written individually, which could leave the file in a bad state
 
@@ -374,9 +495,12 @@ public final class HDF5SVDReadCountPanelOfNormals implements SVDReadCountPanelOf
         file.makeStringArray(SEQUENCE_DICTIONARY_PATH, stringWriter.toString());
     }
 
-    private void writeOriginalReadCountsPath(final RealMatrix originalReadCounts,
+    private void writeOriginalReadCountsPath(final int numOriginalSamples,
+                                             final int numOriginalIntervals,
+                                             final Iterator<double[]> originalReadCountsRowIterator,
                                              final int maximumChunkSize) {
-        HDF5Utils.writeChunkedDoubleMatrix(file, ORIGINAL_READ_COUNTS_PATH, originalReadCounts.getData(), maximumChunkSize);
+        HDF5Utils.writeChunkedDoubleMatrix(file, ORIGINAL_READ_COUNTS_PATH,
+                numOriginalSamples, numOriginalIntervals, originalReadCountsRowIterator, maximumChunkSize);
     }
 
     private void writeOriginalSampleFilenames(final List<String> originalSampleFilenames) {
@@ -409,7 +533,11 @@ public final class HDF5SVDReadCountPanelOfNormals implements SVDReadCountPanelOf
 
     private void writeEigensampleVectors(final double[][] eigensampleVectors,
                                          final int maximumChunkSize) {
-        HDF5Utils.writeChunkedDoubleMatrix(file, PANEL_EIGENSAMPLE_VECTORS_PATH,
-                new Array2DRowRealMatrix(eigensampleVectors, false).transpose().getData(), maximumChunkSize);
+        writeTransposedEigensampleVectors(new Array2DRowRealMatrix(eigensampleVectors, false).transpose().getData(), maximumChunkSize);
+    }
+
+    private void writeTransposedEigensampleVectors(final double[][] transposedEigensampleVectors,
+                                                   final int maximumChunkSize) {
+        HDF5Utils.writeChunkedDoubleMatrix(file, PANEL_EIGENSAMPLE_VECTORS_PATH, transposedEigensampleVectors, maximumChunkSize);
     }
 }
@@ -0,0 +1,140 @@
+package org.broadinstitute.hellbender.tools.copynumber.denoising;
+
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.copynumber.CreateReadCountPanelOfNormals;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+import org.broadinstitute.hellbender.utils.param.ParamUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Dense matrix of doubles stored row-major in a temporary file that is memory mapped, so that matrices much larger
+ * than the heap can be held.  Used by {@link CreateReadCountPanelOfNormals} in out-of-core mode, where each row
+ * corresponds to a sample and each column to a genomic interval.  Rows are read and written as copies; algorithms
+ * should therefore be written as passes over rows or over blocks of columns.  The temporary file is deleted when
+ * the matrix is closed.
+ */
+public final class MemoryMappedMatrix implements AutoCloseable {
+    private static final int MAXIMUM_NUMBER_OF_BYTES_PER_SEGMENT = Integer.MAX_VALUE;
+    private static final int MAXIMUM_NUMBER_OF_VALUES_PER_COLUMN_BLOCK = 1 << 23;   //64MB of doubles
+
+    private final int numRows;
+    private final int numColumns;
+    private final int numRowsPerSegment;
+    private final File file;
+    private DoubleBuffer[] segments;
+
+    /**
+     * Creates a matrix with all entries initialized to zero, backed by a temporary file.
+     */
+    public MemoryMappedMatrix(final int numRows,
+                              final int numColumns) {
+        ParamUtils.isPositive(numRows, "Number of rows must be positive.");
+        ParamUtils.isPositive(numColumns, "Number of columns must be positive.");
+        final long numBytesPerRow = (long) numColumns * Double.BYTES;
+        Utils.validateArg(numBytesPerRow <= MAXIMUM_NUMBER_OF_BYTES_PER_SEGMENT,
+                String.format("Number of columns (%d) is too large for a memory-mapped matrix.", numColumns));
+        this.numRows = numRows;
+        this.numColumns = numColumns;
+        numRowsPerSegment = (int) Math.min(numRows, MAXIMUM_NUMBER_OF_BYTES_PER_SEGMENT / numBytesPerRow);
+        final int numSegments = (numRows + numRowsPerSegment - 1) / numRowsPerSegment;
+
+        file = IOUtils.createTempFile("memory-mapped-matrix", ".bin");
+        segments = new DoubleBuffer[numSegments];
+        try (final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(numBytesPerRow * numRows);
+            final FileChannel channel = randomAccessFile.getChannel();
+            for (int segmentIndex = 0; segmentIndex < numSegments; segmentIndex++) {
+                final int numRowsInSegment = Math.min(numRowsPerSegment, numRows - segmentIndex * numRowsPerSegment);
+                //mappings remain valid after the channel is closed
+                segments[segmentIndex] = channel.map(FileChannel.MapMode.READ_WRITE,
+                        segmentIndex * numRowsPerSegment * numBytesPerRow, numRowsInSegment * numBytesPerRow)
+                        .order(ByteOrder.nativeOrder())
+                        .asDoubleBuffer();
+            }
+        } catch (final IOException e) {
+            IOUtils.tryDelete(file);
+            throw new UserException.CouldNotCreateOutputFile(file,
+                    String.format("Could not create memory-mapped matrix (%d x %d); check that sufficient space is available in the temporary directory.",
+                            numRows, numColumns), e);
+        }
+    }
+
+    public int getRowDimension() {
+        return numRows;
+    }
+
+    public int getColumnDimension() {
+        return numColumns;
+    }
+
+    /**
+     * Returns a copy of the row at {@code rowIndex}.
+     */
+    public double[] getRow(final int rowIndex) {
+        final double[] row = new double[numColumns];
+        rowBuffer(rowIndex, 0).get(row);
+        return row;
+    }
+
+    public void setRow(final int rowIndex,
+                       final double[] row) {
+        Utils.nonNull(row);
+        Utils.validateArg(row.length == numColumns,
+                String.format("Row length (%d) does not match number of columns (%d).", row.length, numColumns));
+        rowBuffer(rowIndex, 0).put(row);
+    }
+
+    /**
+     * Returns a copy of the {@code numRows x numColumnsInBlock} submatrix with columns starting at {@code startColumnIndex}.
+     */
+    public double[][] getColumnBlock(final int startColumnIndex,
+                                     final int numColumnsInBlock) {
+        Utils.validateArg(startColumnIndex >= 0 && numColumnsInBlock > 0 && startColumnIndex + numColumnsInBlock <= numColumns,
+                String.format("Invalid column block (start %d, size %d) for matrix with %d columns.", startColumnIndex, numColumnsInBlock, numColumns));
+        final double[][] block = new double[numRows][numColumnsInBlock];
+        for (int rowIndex = 0; rowIndex < numRows; rowIndex++) {
+            rowBuffer(rowIndex, startColumnIndex).get(block[rowIndex]);
+        }
+        return block;
+    }
+
+    /**
+     * Passes successive column blocks spanning the matrix, together with the index of the first column in each block,
+     * to {@code action}.  Each block holds at most {@link #MAXIMUM_NUMBER_OF_VALUES_PER_COLUMN_BLOCK} values,
+     * but always at least one column.
+     */
+    public void forEachColumnBlock(final ObjIntConsumer<double[][]> action) {
+        Utils.nonNull(action);
+        final int numColumnsPerBlock = Math.max(1, Math.min(numColumns, MAXIMUM_NUMBER_OF_VALUES_PER_COLUMN_BLOCK / numRows));
+        for (int startColumnIndex = 0; startColumnIndex < numColumns; startColumnIndex += numColumnsPerBlock) {
+            action.accept(getColumnBlock(startColumnIndex, Math.min(numColumnsPerBlock, numColumns - startColumnIndex)), startColumnIndex);
+        }
+    }
+
+    /**
+     * Releases the mapped segments and deletes the backing file.
+     */
+    @Override
+    public void close() {
+        segments = null;
+        IOUtils.tryDelete(file);
+    }
+
+    //returns an independent view of the segment containing the row, positioned at the requested entry
+    private DoubleBuffer rowBuffer(final int rowIndex,
+                                   final int columnIndex) {
+        Utils.validate(segments != null, "Memory-mapped matrix has already been closed.");
+        Utils.validIndex(rowIndex, numRows);
+        final DoubleBuffer buffer = segments[rowIndex / numRowsPerSegment].duplicate();
+        buffer.position((rowIndex % numRowsPerSegment) * numColumns + columnIndex);
+        return buffer;
+    }
+}
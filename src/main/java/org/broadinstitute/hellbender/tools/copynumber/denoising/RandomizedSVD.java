@@ -0,0 +1,221 @@
+package org.broadinstitute.hellbender.tools.copynumber.denoising;
+
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.EigenDecomposition;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.RandomGeneratorFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.param.ParamUtils;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Truncated singular value decomposition of a {@link MemoryMappedMatrix} using the randomized range finder with
+ * subspace (power) iteration of Halko, Martinsson, and Tropp (SIAM Review 53, 217 (2011)).
+ *
+ * <p>
+ *     The matrix A (dimensions N x M) is assumed to have many fewer rows than columns (i.e., samples x intervals).
+ *     It is only accessed by passes over blocks of columns, each of which requires memory proportional to N times the
+ *     block size, so that no dense copy of A or of any M x (numComponents + numOversamples) matrix is ever formed.
+ *     An orthonormal basis Q for the range of A is found by projecting A onto a random Gaussian test matrix,
+ *     followed by the requested number of power iterations.  The singular values and right singular vectors of A
+ *     are then obtained from the eigendecomposition of the small Gram matrix Q<sup>T</sup> A A<sup>T</sup> Q
+ *     and a final pass to form V<sup>T</sup> = &Sigma;<sup>-1</sup> U<sup>T</sup> Q<sup>T</sup> A.
+ *     In total, {@code numPowerIterations + 3} passes over A are made.
+ * </p>
+ *
+ * <p>
+ *     Since singular values are obtained as square roots of the eigenvalues of the Gram matrix, singular values
+ *     smaller than {@code sqrt(relativeEigenvalueThreshold)} times the largest singular value are treated as zero
+ *     and discarded.  Results are deterministic given the seed.
+ * </p>
+ */
+final class RandomizedSVD {
+    private static final Logger logger = LogManager.getLogger(RandomizedSVD.class);
+
+    private static final double RANK_DEFICIENCY_TOLERANCE = 1E-12;
+
+    final double[] singularValues;                      //in decreasing order
+    final double[][] transposedRightSingularVectors;    //singularValues.length x M
+
+    private RandomizedSVD(final double[] singularValues,
+                          final double[][] transposedRightSingularVectors) {
+        this.singularValues = singularValues;
+        this.transposedRightSingularVectors = transposedRightSingularVectors;
+    }
+
+    static RandomizedSVD compute(final MemoryMappedMatrix matrix,
+                                 final int numComponents,
+                                 final int numOversamples,
+                                 final int numPowerIterations,
+                                 final double relativeEigenvalueThreshold,
+                                 final long seed) {
+        Utils.nonNull(matrix);
+        ParamUtils.isPositive(numComponents, "Number of components must be positive.");
+        ParamUtils.isPositiveOrZero(numOversamples, "Number of oversamples must be non-negative.");
+        ParamUtils.isPositiveOrZero(numPowerIterations, "Number of power iterations must be non-negative.");
+        final int numRows = matrix.getRowDimension();
+        final int numColumns = matrix.getColumnDimension();
+        final int numSketchColumns = Math.min(numComponents + numOversamples, Math.min(numRows, numColumns));
+
+        //sketch the range of the matrix with a Gaussian test matrix, which is generated block by block
+        logger.info(String.format("Sketching range of %d x %d matrix with %d random vectors...", numRows, numColumns, numSketchColumns));
+        final RandomGenerator rng = RandomGeneratorFactory.createRandomGenerator(new Random(seed));
+        final double[][] sketch = new double[numRows][numSketchColumns];
+        matrix.forEachColumnBlock((block, startColumnIndex) -> {
+            final double[][] testBlock = new double[block[0].length][numSketchColumns];
+            for (final double[] testRow : testBlock) {
+                for (int k = 0; k < numSketchColumns; k++) {
+                    testRow[k] = rng.nextGaussian();
+                }
+            }
+            accumulateProduct(block, testBlock, sketch);
+        });
+        double[][] basis = orthonormalizeColumns(sketch);
+
+        //power iterations, orthonormalizing after each to preserve accuracy
+        for (int iteration = 0; iteration < numPowerIterations; iteration++) {
+            logger.info(String.format("Performing power iteration %d of %d...", iteration + 1, numPowerIterations));
+            final double[][] powerSketch = new double[numRows][numSketchColumns];
+            final double[][] currentBasis = basis;
+            matrix.forEachColumnBlock((block, startColumnIndex) ->
+                    accumulateProduct(block, transposedProduct(block, currentBasis), powerSketch));
+            basis = orthonormalizeColumns(powerSketch);
+        }
+
+        //Gram matrix of the projection B = Q^T A, whose eigenvalues are the squared singular values
+        logger.info("Computing singular values from projected Gram matrix...");
+        final double[][] finalBasis = basis;
+        final double[][] gram = new double[numSketchColumns][numSketchColumns];
+        matrix.forEachColumnBlock((block, startColumnIndex) -> {
+            final double[][] projectedBlock = transposedProduct(block, finalBasis);  //columns of B as rows
+            for (final double[] projectedColumn : projectedBlock) {
+                for (int k = 0; k < numSketchColumns; k++) {
+                    final double value = projectedColumn[k];
+                    for (int l = 0; l < numSketchColumns; l++) {
+                        gram[k][l] += value * projectedColumn[l];
+                    }
+                }
+            }
+        });
+        final EigenDecomposition eigenDecomposition = new EigenDecomposition(new Array2DRowRealMatrix(gram, false));
+        final double[] eigenvalues = eigenDecomposition.getRealEigenvalues();
+        final int[] sortedIndices = IntStream.range(0, eigenvalues.length).boxed()
+                .sorted(Comparator.comparingDouble(i -> -eigenvalues[i]))
+                .mapToInt(i -> i).toArray();
+        final double largestEigenvalue = eigenvalues[sortedIndices[0]];
+        final int[] retainedIndices = IntStream.of(sortedIndices)
+                .filter(i -> eigenvalues[i] > 0. && eigenvalues[i] > relativeEigenvalueThreshold * largestEigenvalue)
+                .limit(numComponents)
+                .toArray();
+        final int numRetained = retainedIndices.length;
+        final double[] singularValues = IntStream.of(retainedIndices).mapToDouble(i -> Math.sqrt(eigenvalues[i])).toArray();
+
+        //right singular vectors V^T = Sigma^-1 U^T Q^T A, where U are the eigenvectors of the Gram matrix
+        logger.info(String.format("Computing %d right singular vectors...", numRetained));
+        final double[][] scaledEigenvectors = new double[numRetained][];
+        for (int c = 0; c < numRetained; c++) {
+            final double inverseSingularValue = 1. / singularValues[c];
+            scaledEigenvectors[c] = eigenDecomposition.getEigenvector(retainedIndices[c]).mapMultiply(inverseSingularValue).toArray();
+        }
+        final double[][] transposedRightSingularVectors = new double[numRetained][numColumns];
+        matrix.forEachColumnBlock((block, startColumnIndex) -> {
+            final double[][] projectedBlock = transposedProduct(block, finalBasis);
+            for (int j = 0; j < projectedBlock.length; j++) {
+                for (int c = 0; c < numRetained; c++) {
+                    double value = 0.;
+                    for (int k = 0; k < numSketchColumns; k++) {
+                        value += projectedBlock[j][k] * scaledEigenvectors[c][k];
+                    }
+                    transposedRightSingularVectors[c][startColumnIndex + j] = value;
+                }
+            }
+        });
+        return new RandomizedSVD(singularValues, transposedRightSingularVectors);
+    }
+
+    //result += block (N x b) * right (b x K)
+    private static void accumulateProduct(final double[][] block,
+                                          final double[][] right,
+                                          final double[][] result) {
+        for (int i = 0; i < block.length; i++) {
+            final double[] blockRow = block[i];
+            final double[] resultRow = result[i];
+            for (int j = 0; j < blockRow.length; j++) {
+                final double value = blockRow[j];
+                if (value == 0.) {
+                    continue;
+                }
+                final double[] rightRow = right[j];
+                for (int k = 0; k < resultRow.length; k++) {
+                    resultRow[k] += value * rightRow[k];
+                }
+            }
+        }
+    }
+
+    //returns block^T (b x N) * basis (N x K)
+    private static double[][] transposedProduct(final double[][] block,
+                                                final double[][] basis) {
+        final int numColumnsInBlock = block[0].length;
+        final int numBasisColumns = basis[0].length;
+        final double[][] result = new double[numColumnsInBlock][numBasisColumns];
+        for (int i = 0; i < block.length; i++) {
+            final double[] blockRow = block[i];
+            final double[] basisRow = basis[i];
+            for (int j = 0; j < numColumnsInBlock; j++) {
+                final double value = blockRow[j];
+                if (value == 0.) {
+                    continue;
+                }
+                final double[] resultRow = result[j];
+                for (int k = 0; k < numBasisColumns; k++) {
+                    resultRow[k] += value * basisRow[k];
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Orthonormalizes the columns of {@code matrix} in place using modified Gram-Schmidt with reorthogonalization.
+     * Columns that are numerically linearly dependent on previous columns are set to zero.
+     */
+    static double[][] orthonormalizeColumns(final double[][] matrix) {
+        final int numRows = matrix.length;
+        final int numColumns = matrix[0].length;
+        for (int k = 0; k < numColumns; k++) {
+            final double originalNorm = columnNorm(matrix, k);
+            for (int pass = 0; pass < 2; pass++) {
+                for (int l = 0; l < k; l++) {
+                    double projection = 0.;
+                    for (int i = 0; i < numRows; i++) {
+                        projection += matrix[i][l] * matrix[i][k];
+                    }
+                    for (int i = 0; i < numRows; i++) {
+                        matrix[i][k] -= projection * matrix[i][l];
+                    }
+                }
+            }
+            final double norm = columnNorm(matrix, k);
+            final boolean isDependent = norm == 0. || norm <= RANK_DEFICIENCY_TOLERANCE * originalNorm;
+            for (int i = 0; i < numRows; i++) {
+                matrix[i][k] = isDependent ? 0. : matrix[i][k] / norm;
+            }
+        }
+        return matrix;
+    }
+
+    private static double columnNorm(final double[][] matrix,
+                                     final int columnIndex) {
+        double sumOfSquares = 0.;
+        for (final double[] row : matrix) {
+            sumOfSquares += row[columnIndex] * row[columnIndex];
+        }
+        return Math.sqrt(sumOfSquares);
+    }
+}
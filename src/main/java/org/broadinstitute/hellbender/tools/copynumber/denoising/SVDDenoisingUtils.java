@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.tools.copynumber.denoising;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.primitives.Doubles;
 import org.apache.commons.math3.linear.Array2DRowRealMatrix;
 import org.apache.commons.math3.linear.DefaultRealMatrixChangingVisitor;
@@ -19,8 +20,8 @@ import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.param.ParamUtils;
 
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 /**
@@ -37,6 +38,9 @@ public final class SVDDenoisingUtils {
     private static final double EPSILON = 1E-9;
     private static final double LN2_EPSILON = Math.log(EPSILON) * MathUtils.INV_LOG_2;
 
+    private static final int RADIX_BITS = 16;
+    private static final long RADIX_MASK = (1L << RADIX_BITS) - 1;
+
     private SVDDenoisingUtils() {}
 
     static final class PreprocessedStandardizedResult {
@@ -56,6 +60,23 @@ public final class SVDDenoisingUtils {
         }
     }
 
+    static final class OutOfCorePreprocessedStandardizedResult {
+        final MemoryMappedMatrix preprocessedStandardizedValues;
+        final double[] panelIntervalFractionalMedians;
+        final boolean[] filterSamples;
+        final boolean[] filterIntervals;
+
+        private OutOfCorePreprocessedStandardizedResult(final MemoryMappedMatrix preprocessedStandardizedValues,
+                                                        final double[] panelIntervalFractionalMedians,
+                                                        final boolean[] filterSamples,
+                                                        final boolean[] filterIntervals) {
+            this.preprocessedStandardizedValues = preprocessedStandardizedValues;
+            this.panelIntervalFractionalMedians = panelIntervalFractionalMedians;
+            this.filterSamples = filterSamples;
+            this.filterIntervals = filterIntervals;
+        }
+    }
+
     /**
      * Preprocess (i.e., transform to fractional coverage, correct GC bias, filter, impute, and truncate)
      * and standardize read counts from a panel of normals.
@@ -100,47 +121,111 @@ public final class SVDDenoisingUtils {
     }
 
     /**
-     * Perform SVD-based denoising of integer read counts for a single sample using a panel of normals.
-     * Only the eigensamples (which are sorted by singular value in decreasing order) specified by
-     * {@code numEigensamples} are used to denoise.
+     * Out-of-core version of {@link #preprocessAndStandardizePanel(RealMatrix, double[], double, double, double, double, boolean, double)}
+     * that yields identical results, but holds only single samples or blocks of intervals in memory at any time.
+     * The dimensions of {@code readCounts} should be samples x intervals; it is modified in place.
+     * The preprocessed and standardized values are returned in a new {@link MemoryMappedMatrix}, which should be
+     * closed by the caller.
      */
-    static SVDDenoisedCopyRatioResult denoise(final SVDReadCountPanelOfNormals panelOfNormals,
-                                              final SimpleCountCollection readCounts,
-                                              final int numEigensamples) {
-        Utils.nonNull(panelOfNormals);
-        if (!CopyNumberArgumentValidationUtils.isSameDictionary(panelOfNormals.getSequenceDictionary(), readCounts.getMetadata().getSequenceDictionary())) {
-            logger.warn("Sequence dictionaries in panel and case sample do not match.");
+    static OutOfCorePreprocessedStandardizedResult preprocessAndStandardizePanel(final MemoryMappedMatrix readCounts,
+                                                                                 final double[] intervalGCContent,
+                                                                                 final double minimumIntervalMedianPercentile,
+                                                                                 final double maximumZerosInSamplePercentage,
+                                                                                 final double maximumZerosInIntervalPercentage,
+                                                                                 final double extremeSampleMedianPercentile,
+                                                                                 final boolean doImputeZeros,
+                                                                                 final double extremeOutlierTruncationPercentile) {
+        //preprocess (transform to fractional coverage, correct GC bias, filter, impute, truncate) and return copy of submatrix
+        logger.info("Preprocessing read counts...");
+        final OutOfCorePreprocessedStandardizedResult preprocessedStandardizedResult = preprocessPanel(readCounts, intervalGCContent,
+                minimumIntervalMedianPercentile, maximumZerosInSamplePercentage, maximumZerosInIntervalPercentage,
+                extremeSampleMedianPercentile, doImputeZeros, extremeOutlierTruncationPercentile);
+        logger.info("Panel read counts preprocessed.");
+
+        //standardize in place, one sample at a time
+        logger.info("Standardizing read counts...");
+        logger.info("Dividing by sample medians and transforming to log2 space...");
+        final MemoryMappedMatrix values = preprocessedStandardizedResult.preprocessedStandardizedValues;
+        final int numSamples = values.getRowDimension();
+        final double[] sampleLog2Medians = new double[numSamples];
+        for (int sampleIndex = 0; sampleIndex < numSamples; sampleIndex++) {
+            final double[] sampleValues = values.getRow(sampleIndex);
+            final double sampleMedian = new Median().evaluate(sampleValues);
+            ParamUtils.isPositive(sampleMedian, numSamples == 1
+                    ? "Sample does not have a positive sample median."
+                    : String.format("Sample at index %s does not have a positive sample median.", sampleIndex));
+            for (int intervalIndex = 0; intervalIndex < sampleValues.length; intervalIndex++) {
+                sampleValues[intervalIndex] = safeLog2(sampleValues[intervalIndex] / sampleMedian);
+            }
+            sampleLog2Medians[sampleIndex] = new Median().evaluate(sampleValues);
+            values.setRow(sampleIndex, sampleValues);
         }
-        ParamUtils.isPositiveOrZero(numEigensamples, "Number of eigensamples to use for denoising must be non-negative.");
-        Utils.validateArg(numEigensamples <= panelOfNormals.getNumEigensamples(),
-                "Number of eigensamples to use for denoising is greater than the number available in the panel of normals.");
+        logger.info("Subtracting median of sample medians...");
+        final double medianOfSampleMedians = new Median().evaluate(sampleLog2Medians);
+        for (int sampleIndex = 0; sampleIndex < numSamples; sampleIndex++) {
+            final double[] sampleValues = values.getRow(sampleIndex);
+            for (int intervalIndex = 0; intervalIndex < sampleValues.length; intervalIndex++) {
+                sampleValues[intervalIndex] -= medianOfSampleMedians;
+            }
+            values.setRow(sampleIndex, sampleValues);
+        }
+        logger.info("Panel read counts standardized.");
+
+        return preprocessedStandardizedResult;
+    }
+
+    /**
+     * Perform SVD-based denoising of integer read counts for multiple samples using the quantities read once from
+     * a panel of normals by {@code panelDenoiser}.  The standardized samples are stacked as the rows of a single
+     * matrix, and the projection onto the eigensamples is subtracted from all samples with a single matrix multiplication.
+     * Results are identical to those obtained by denoising each sample individually and are returned in the same
+     * order as {@code readCounts}.  Only the eigensamples (which are sorted by singular value in decreasing order)
+     * specified by {@link SVDReadCountPanelDenoiser#getNumEigensamples()} are used to denoise.
+     */
+    static List<SVDDenoisedCopyRatioResult> denoise(final SVDReadCountPanelDenoiser panelDenoiser,
+                                                    final List<SimpleCountCollection> readCounts) {
+        Utils.nonNull(panelDenoiser);
+        Utils.nonEmpty(readCounts);
+
+        final int numSamples = readCounts.size();
+        final RealMatrix standardizedCopyRatioValues = new Array2DRowRealMatrix(numSamples, panelDenoiser.panelIntervals.size());
+        for (int sampleIndex = 0; sampleIndex < numSamples; sampleIndex++) {
+            final SimpleCountCollection sampleReadCounts = readCounts.get(sampleIndex);
+            if (!CopyNumberArgumentValidationUtils.isSameDictionary(panelDenoiser.sequenceDictionary, sampleReadCounts.getMetadata().getSequenceDictionary())) {
+                logger.warn("Sequence dictionaries in panel and case sample do not match.");
+            }
 
-        logger.info("Validating sample intervals against original intervals used to build panel of normals...");
-        Utils.validateArg(panelOfNormals.getOriginalIntervals().equals(readCounts.getIntervals()),
-                "Sample intervals must be identical to the original intervals used to build the panel of normals.");
+            logger.info("Validating sample intervals against original intervals used to build panel of normals...");
+            Utils.validateArg(panelDenoiser.originalIntervals.equals(sampleReadCounts.getIntervals()),
+                    "Sample intervals must be identical to the original intervals used to build the panel of normals.");
 
-        logger.info("Preprocessing and standardizing sample read counts...");
-        final RealMatrix standardizedCopyRatioValues = preprocessAndStandardizeSample(panelOfNormals, readCounts.getCounts());
+            logger.info("Preprocessing and standardizing sample read counts...");
+            standardizedCopyRatioValues.setRow(sampleIndex, preprocessAndStandardizeSample(sampleReadCounts.getCounts(),
+                    panelDenoiser.originalIntervalGCContent, panelDenoiser.subsetIntervalIndices, panelDenoiser.panelIntervalFractionalMedians));
+        }
 
         final RealMatrix denoisedCopyRatioValues;
-        if (numEigensamples == 0 || panelOfNormals.getNumEigensamples() == 0) {
+        if (panelDenoiser.eigensampleTruncatedMatrix == null) {
             logger.warn("A zero number of eigensamples was specified or no eigensamples were available to perform denoising; " +
                     "denoised copy ratios will be identical to the standardized copy ratios...");
             denoisedCopyRatioValues = standardizedCopyRatioValues;
         } else {
-            logger.info(String.format("Using %d out of %d eigensamples to denoise...", numEigensamples, panelOfNormals.getNumEigensamples()));
+            logger.info(String.format("Using %d out of %d eigensamples to denoise...",
+                    panelDenoiser.numEigensamples, panelDenoiser.numPanelEigensamples));
             logger.info("Subtracting projection onto space spanned by eigensamples...");
-            denoisedCopyRatioValues = subtractProjection(standardizedCopyRatioValues, panelOfNormals.getEigensampleVectors(), numEigensamples);
+            denoisedCopyRatioValues = subtractProjection(standardizedCopyRatioValues, panelDenoiser.eigensampleTruncatedMatrix);
         }
 
-        logger.info("Sample denoised.");
+        logger.info(numSamples == 1 ? "Sample denoised." : String.format("%d samples denoised.", numSamples));
 
-        //construct the result
-        return new SVDDenoisedCopyRatioResult(
-                readCounts.getMetadata(),
-                panelOfNormals.getPanelIntervals(),
-                standardizedCopyRatioValues,
-                denoisedCopyRatioValues);
+        //construct the results
+        return IntStream.range(0, numSamples)
+                .mapToObj(sampleIndex -> new SVDDenoisedCopyRatioResult(
+                        readCounts.get(sampleIndex).getMetadata(),
+                        panelDenoiser.panelIntervals,
+                        standardizedCopyRatioValues.getRowMatrix(sampleIndex),
+                        denoisedCopyRatioValues.getRowMatrix(sampleIndex)))
+                .collect(Collectors.toList());
     }
 
     /**
@@ -360,6 +445,310 @@ public final class SVDDenoisingUtils {
                 preprocessedReadCounts, panelIntervalFractionalMedians, filterSamples, filterIntervals);
     }
 
+    /**
+     * Out-of-core version of {@link #preprocessPanel(RealMatrix, double[], double, double, double, double, boolean, double)}.
+     * Each step is performed by a pass over samples (rows) or over blocks of intervals (columns) and applies exactly
+     * the same criteria, so that the filters and values match those of the in-memory version.  The only difference
+     * is that outlier truncation is not skipped for matrices with more than Integer.MAX_VALUE elements, since the
+     * truncation thresholds are computed by an exact radix selection over the matrix rather than by sorting a copy.
+     */
+    private static OutOfCorePreprocessedStandardizedResult preprocessPanel(final MemoryMappedMatrix readCounts,
+                                                                           final double[] intervalGCContent,
+                                                                           final double minimumIntervalMedianPercentile,
+                                                                           final double maximumZerosInSamplePercentage,
+                                                                           final double maximumZerosInIntervalPercentage,
+                                                                           final double extremeSampleMedianPercentile,
+                                                                           final boolean doImputeZeros,
+                                                                           final double extremeOutlierTruncationPercentile) {
+        final int numOriginalSamples = readCounts.getRowDimension();
+        final int numOriginalIntervals = readCounts.getColumnDimension();
+
+        logger.info("Transforming read counts to fractional coverage...");
+        if (intervalGCContent != null) {
+            logger.info("Performing GC-bias correction...");
+        }
+        for (int sampleIndex = 0; sampleIndex < numOriginalSamples; sampleIndex++) {
+            final double[] sampleReadCounts = readCounts.getRow(sampleIndex);
+            final double sampleSum = MathUtils.sum(sampleReadCounts);
+            for (int intervalIndex = 0; intervalIndex < numOriginalIntervals; intervalIndex++) {
+                sampleReadCounts[intervalIndex] /= sampleSum;
+            }
+            if (intervalGCContent != null) {
+                //GC-bias correction is performed independently for each sample, so we correct a 1 x intervals view of the row
+                GCBiasCorrector.correctGCBias(new Array2DRowRealMatrix(new double[][]{sampleReadCounts}, false), intervalGCContent);
+            }
+            readCounts.setRow(sampleIndex, sampleReadCounts);
+        }
+
+        final boolean[] filterSamples = new boolean[numOriginalSamples];
+        final boolean[] filterIntervals = new boolean[numOriginalIntervals];
+
+        //filter intervals by fractional median
+        final double[] originalIntervalMedians = new double[numOriginalIntervals];
+        readCounts.forEachColumnBlock((block, startIntervalIndex) -> {
+            final Median medianCalculator = new Median();
+            final double[] intervalValues = new double[numOriginalSamples];
+            for (int j = 0; j < block[0].length; j++) {
+                for (int sampleIndex = 0; sampleIndex < numOriginalSamples; sampleIndex++) {
+                    intervalValues[sampleIndex] = block[sampleIndex][j];
+                }
+                originalIntervalMedians[startIntervalIndex + j] = medianCalculator.evaluate(intervalValues);
+            }
+        });
+        if (minimumIntervalMedianPercentile == 0.) {
+            logger.info(String.format("A value of 0 was provided for argument %s, so the corresponding filtering step will be skipped...",
+                    CreateReadCountPanelOfNormals.MINIMUM_INTERVAL_MEDIAN_PERCENTILE_LONG_NAME));
+        } else {
+            //calculate percentile
+            final double minimumIntervalMedianThreshold = new Percentile(minimumIntervalMedianPercentile).evaluate(originalIntervalMedians);
+            logger.info(String.format("Filtering intervals with median (across samples) less than or equal to the %.2f percentile (%.2f)...",
+                    minimumIntervalMedianPercentile, minimumIntervalMedianThreshold));
+            //filter intervals
+            IntStream.range(0, numOriginalIntervals)
+                    .filter(intervalIndex -> originalIntervalMedians[intervalIndex] <= minimumIntervalMedianThreshold)
+                    .forEach(intervalIndex -> filterIntervals[intervalIndex] = true);
+            logger.info(String.format("After filtering, %d out of %d intervals remain...", countNumberPassingFilter(filterIntervals), numOriginalIntervals));
+        }
+
+        //no samples have been filtered yet, so we divide all samples by the interval medians and, in the same pass,
+        //count the zero-coverage intervals not already filtered in each sample
+        logger.info("Dividing by interval medians...");
+        final int[] numZerosInSamples = new int[numOriginalSamples];
+        for (int sampleIndex = 0; sampleIndex < numOriginalSamples; sampleIndex++) {
+            final double[] sampleValues = readCounts.getRow(sampleIndex);
+            for (int intervalIndex = 0; intervalIndex < numOriginalIntervals; intervalIndex++) {
+                if (!filterIntervals[intervalIndex]) {
+                    sampleValues[intervalIndex] /= originalIntervalMedians[intervalIndex];
+                    if (sampleValues[intervalIndex] == 0.) {
+                        numZerosInSamples[sampleIndex]++;
+                    }
+                }
+            }
+            readCounts.setRow(sampleIndex, sampleValues);
+        }
+
+        //filter samples by percentage of zero-coverage intervals not already filtered
+        if (maximumZerosInSamplePercentage == 100.) {
+            logger.info(String.format("A value of 100 was provided for argument %s, so the corresponding filtering step will be skipped...",
+                    CreateReadCountPanelOfNormals.MAXIMUM_ZEROS_IN_SAMPLE_PERCENTAGE_LONG_NAME));
+        } else {
+            logger.info(String.format("Filtering samples with a fraction of zero-coverage intervals greater than or equal to %.2f percent...", maximumZerosInSamplePercentage));
+            final int numPassingIntervals = countNumberPassingFilter(filterIntervals);
+            IntStream.range(0, numOriginalSamples)
+                    .filter(sampleIndex -> (double) numZerosInSamples[sampleIndex] / numPassingIntervals >= maximumZerosInSamplePercentage / 100.)
+                    .forEach(sampleIndex -> filterSamples[sampleIndex] = true);
+            logger.info(String.format("After filtering, %d out of %d samples remain...", countNumberPassingFilter(filterSamples), numOriginalSamples));
+        }
+
+        //filter intervals by percentage of zero-coverage samples not already filtered
+        if (maximumZerosInIntervalPercentage == 100.) {
+            logger.info(String.format("A value of 100 was provided for argument %s, so the corresponding filtering step will be skipped...",
+                    CreateReadCountPanelOfNormals.MAXIMUM_ZEROS_IN_INTERVAL_PERCENTAGE_LONG_NAME));
+        } else {
+            logger.info(String.format("Filtering intervals with a fraction of zero-coverage samples greater than or equal to %.2f percent...", maximumZerosInIntervalPercentage));
+            final int numPassingSamples = countNumberPassingFilter(filterSamples);
+            final int[] numZerosInIntervals = new int[numOriginalIntervals];
+            for (int sampleIndex = 0; sampleIndex < numOriginalSamples; sampleIndex++) {
+                if (!filterSamples[sampleIndex]) {
+                    final double[] sampleValues = readCounts.getRow(sampleIndex);
+                    for (int intervalIndex = 0; intervalIndex < numOriginalIntervals; intervalIndex++) {
+                        if (sampleValues[intervalIndex] == 0.) {
+                            numZerosInIntervals[intervalIndex]++;
+                        }
+                    }
+                }
+            }
+            IntStream.range(0, numOriginalIntervals)
+                    .filter(intervalIndex -> !filterIntervals[intervalIndex])
+                    .filter(intervalIndex -> (double) numZerosInIntervals[intervalIndex] / numPassingSamples >= maximumZerosInIntervalPercentage / 100.)
+                    .forEach(intervalIndex -> filterIntervals[intervalIndex] = true);
+            logger.info(String.format("After filtering, %d out of %d intervals remain...", countNumberPassingFilter(filterIntervals), numOriginalIntervals));
+        }
+
+        //filter samples with extreme medians
+        if (extremeSampleMedianPercentile == 0.) {
+            logger.info(String.format("A value of 0 was provided for argument %s, so the corresponding filtering step will be skipped...",
+                    CreateReadCountPanelOfNormals.EXTREME_SAMPLE_MEDIAN_PERCENTILE_LONG_NAME));
+        } else {
+            //calculate the medians for all samples (which, although unnecessary, makes bookkeeping easier) across intervals not already filtered
+            final double[] sampleMedians = IntStream.range(0, numOriginalSamples)
+                    .mapToDouble(sampleIndex -> {
+                        final double[] sampleValues = readCounts.getRow(sampleIndex);
+                        return new Median().evaluate(IntStream.range(0, numOriginalIntervals)
+                                .filter(intervalIndex -> !filterIntervals[intervalIndex])
+                                .mapToDouble(intervalIndex -> sampleValues[intervalIndex])
+                                .toArray());
+                    })
+                    .toArray();
+            //calculate percentiles
+            final double minimumSampleMedianThreshold = new Percentile(extremeSampleMedianPercentile).evaluate(sampleMedians);
+            final double maximumSampleMedianThreshold = new Percentile(100. - extremeSampleMedianPercentile).evaluate(sampleMedians);
+            logger.info(String.format("Filtering samples with a median (across intervals) strictly below the %.2f percentile (%.2f) or strictly above the %.2f percentile (%.2f)...",
+                    extremeSampleMedianPercentile, minimumSampleMedianThreshold, 100. - extremeSampleMedianPercentile, maximumSampleMedianThreshold));
+            //filter samples
+            IntStream.range(0, numOriginalSamples)
+                    .filter(sampleIndex -> sampleMedians[sampleIndex] < minimumSampleMedianThreshold || sampleMedians[sampleIndex] > maximumSampleMedianThreshold)
+                    .forEach(sampleIndex -> filterSamples[sampleIndex] = true);
+            logger.info(String.format("After filtering, %d out of %d samples remain...", countNumberPassingFilter(filterSamples), numOriginalSamples));
+        }
+
+        //construct the filtered results as a new matrix, which will be modified in place from this point on
+        final int[] panelIntervalIndices = IntStream.range(0, numOriginalIntervals).filter(intervalIndex -> !filterIntervals[intervalIndex]).toArray();
+        final int[] panelSampleIndices = IntStream.range(0, numOriginalSamples).filter(sampleIndex -> !filterSamples[sampleIndex]).toArray();
+        final int numPanelIntervals = panelIntervalIndices.length;
+        final MemoryMappedMatrix preprocessedReadCounts = new MemoryMappedMatrix(panelSampleIndices.length, numPanelIntervals);
+        for (int panelSampleIndex = 0; panelSampleIndex < panelSampleIndices.length; panelSampleIndex++) {
+            final double[] sampleValues = readCounts.getRow(panelSampleIndices[panelSampleIndex]);
+            preprocessedReadCounts.setRow(panelSampleIndex,
+                    Arrays.stream(panelIntervalIndices).mapToDouble(intervalIndex -> sampleValues[intervalIndex]).toArray());
+        }
+        final double[] panelIntervalFractionalMedians = Arrays.stream(panelIntervalIndices)
+                .mapToDouble(intervalIndex -> originalIntervalMedians[intervalIndex]).toArray();
+
+        //impute zeros as median of non-zero values in interval
+        if (!doImputeZeros) {
+            logger.info("Skipping imputation of zero-coverage values...");
+        } else {
+            final double[] intervalNonZeroMedians = new double[numPanelIntervals];
+            preprocessedReadCounts.forEachColumnBlock((block, startIntervalIndex) -> {
+                for (int j = 0; j < block[0].length; j++) {
+                    final int columnIndex = j;
+                    intervalNonZeroMedians[startIntervalIndex + j] = new Median().evaluate(
+                            Arrays.stream(block).mapToDouble(sampleValues -> sampleValues[columnIndex]).filter(value -> value > 0.).toArray());
+                }
+            });
+            long numImputed = 0;
+            for (int sampleIndex = 0; sampleIndex < preprocessedReadCounts.getRowDimension(); sampleIndex++) {
+                final double[] sampleValues = preprocessedReadCounts.getRow(sampleIndex);
+                for (int intervalIndex = 0; intervalIndex < numPanelIntervals; intervalIndex++) {
+                    if (sampleValues[intervalIndex] == 0.) {
+                        numImputed++;
+                        sampleValues[intervalIndex] = intervalNonZeroMedians[intervalIndex];
+                    }
+                }
+                preprocessedReadCounts.setRow(sampleIndex, sampleValues);
+            }
+            logger.info(String.format("%d zero-coverage values were imputed to the median of the non-zero values in the corresponding interval...",
+                    numImputed));
+        }
+
+        //truncate extreme values to the corresponding percentile
+        if (extremeOutlierTruncationPercentile == 0.) {
+            logger.info(String.format("A value of 0 was provided for argument %s, so the corresponding truncation step will be skipped...",
+                    CreateReadCountPanelOfNormals.EXTREME_OUTLIER_TRUNCATION_PERCENTILE_LONG_NAME));
+        } else {
+            final double[] outlierTruncationThresholds = calculatePercentiles(preprocessedReadCounts,
+                    extremeOutlierTruncationPercentile, 100. - extremeOutlierTruncationPercentile);
+            final double minimumOutlierTruncationThreshold = outlierTruncationThresholds[0];
+            final double maximumOutlierTruncationThreshold = outlierTruncationThresholds[1];
+            long numTruncated = 0;
+            for (int sampleIndex = 0; sampleIndex < preprocessedReadCounts.getRowDimension(); sampleIndex++) {
+                final double[] sampleValues = preprocessedReadCounts.getRow(sampleIndex);
+                for (int intervalIndex = 0; intervalIndex < numPanelIntervals; intervalIndex++) {
+                    if (sampleValues[intervalIndex] < minimumOutlierTruncationThreshold) {
+                        numTruncated++;
+                        sampleValues[intervalIndex] = minimumOutlierTruncationThreshold;
+                    } else if (sampleValues[intervalIndex] > maximumOutlierTruncationThreshold) {
+                        numTruncated++;
+                        sampleValues[intervalIndex] = maximumOutlierTruncationThreshold;
+                    }
+                }
+                preprocessedReadCounts.setRow(sampleIndex, sampleValues);
+            }
+            logger.info(String.format("%d values strictly below the %.2f percentile (%.2f) or strictly above the %.2f percentile (%.2f) were truncated to the corresponding value...",
+                    numTruncated, extremeOutlierTruncationPercentile, minimumOutlierTruncationThreshold, 100. - extremeOutlierTruncationPercentile, maximumOutlierTruncationThreshold));
+        }
+        return new OutOfCorePreprocessedStandardizedResult(
+                preprocessedReadCounts, panelIntervalFractionalMedians, filterSamples, filterIntervals);
+    }
+
+    /**
+     * Calculates percentiles of all non-NaN values in {@code matrix}, using the same (legacy) estimation as
+     * {@link Percentile}.  The required order statistics are found exactly by a most-significant-digit radix
+     * selection on the bits of the values, which requires four passes over the matrix and a small amount of memory.
+     */
+    @VisibleForTesting
+    static double[] calculatePercentiles(final MemoryMappedMatrix matrix,
+                                         final double... percentiles) {
+        final int numRows = matrix.getRowDimension();
+        long numValues = 0;
+        for (int rowIndex = 0; rowIndex < numRows; rowIndex++) {
+            numValues += Arrays.stream(matrix.getRow(rowIndex)).filter(value -> !Double.isNaN(value)).count();
+        }
+        if (numValues == 0) {
+            return Arrays.stream(percentiles).map(p -> Double.NaN).toArray();
+        }
+
+        //determine the (zero-based) ranks of the lower and upper order statistics interpolated by each percentile
+        final int numPercentiles = percentiles.length;
+        final long[] ranks = new long[2 * numPercentiles];
+        final double[] interpolationFractions = new double[numPercentiles];
+        for (int i = 0; i < numPercentiles; i++) {
+            ParamUtils.inRange(percentiles[i], 0., 100., "Percentile must be in [0, 100].");
+            final double position = percentiles[i] == 0. ? 0. : percentiles[i] == 100. ? numValues : percentiles[i] / 100. * (numValues + 1);
+            if (position < 1.) {
+                ranks[2 * i] = ranks[2 * i + 1] = 0;
+            } else if (position >= numValues) {
+                ranks[2 * i] = ranks[2 * i + 1] = numValues - 1;
+            } else {
+                final long floorPosition = (long) Math.floor(position);
+                ranks[2 * i] = floorPosition - 1;
+                ranks[2 * i + 1] = floorPosition;
+                interpolationFractions[i] = position - floorPosition;
+            }
+        }
+
+        //select 16 bits at a time, from most to least significant, of the sortable keys of the order statistics
+        final int numRanks = ranks.length;
+        final long[] keyPrefixes = new long[numRanks];
+        final long[] remainingRanks = ranks.clone();
+        for (int shift = Long.SIZE - RADIX_BITS; shift >= 0; shift -= RADIX_BITS) {
+            final int digitShift = shift;
+            final long prefixMask = shift == Long.SIZE - RADIX_BITS ? 0L : -1L << (shift + RADIX_BITS);
+            final long[][] digitCounts = new long[numRanks][1 << RADIX_BITS];
+            for (int rowIndex = 0; rowIndex < numRows; rowIndex++) {
+                for (final double value : matrix.getRow(rowIndex)) {
+                    if (Double.isNaN(value)) {
+                        continue;
+                    }
+                    final long key = toSortableKey(value);
+                    final int digit = (int) ((key >>> digitShift) & RADIX_MASK);
+                    for (int r = 0; r < numRanks; r++) {
+                        if ((key & prefixMask) == keyPrefixes[r]) {
+                            digitCounts[r][digit]++;
+                        }
+                    }
+                }
+            }
+            for (int r = 0; r < numRanks; r++) {
+                int digit = 0;
+                while (remainingRanks[r] >= digitCounts[r][digit]) {
+                    remainingRanks[r] -= digitCounts[r][digit];
+                    digit++;
+                }
+                keyPrefixes[r] |= (long) digit << shift;
+            }
+        }
+
+        final double[] result = new double[numPercentiles];
+        for (int i = 0; i < numPercentiles; i++) {
+            final double lower = fromSortableKey(keyPrefixes[2 * i]);
+            final double upper = fromSortableKey(keyPrefixes[2 * i + 1]);
+            result[i] = lower + interpolationFractions[i] * (upper - lower);
+        }
+        return result;
+    }
+
+    //maps doubles to longs whose unsigned order matches the numerical order of the doubles
+    private static long toSortableKey(final double value) {
+        final long bits = Double.doubleToLongBits(value);
+        return bits >= 0 ? bits ^ Long.MIN_VALUE : ~bits;
+    }
+
+    private static double fromSortableKey(final long key) {
+        return Double.longBitsToDouble(key < 0 ? key ^ Long.MIN_VALUE : ~key);
+    }
+
     private static void logHeapUsage() {
         final int mb = 1024 * 1024;
         final Runtime runtime = Runtime.getRuntime();
@@ -372,31 +761,29 @@ public final class SVDDenoisingUtils {
 
     /**
      * Preprocess (i.e., transform to fractional coverage, correct GC bias, subset, divide by fractional medians)
-     * and standardize read counts for samples, using interval fractional medians from a panel of normals.
-     * The original {@code readCounts} has dimensions 1 x intervals and is not modified.
+     * and standardize read counts for a sample, using quantities read from a panel of normals.
+     * The original {@code readCounts} has length equal to the number of original intervals and is not modified;
+     * the returned standardized values have length equal to the number of panel intervals.
      */
-    private static RealMatrix preprocessAndStandardizeSample(final SVDReadCountPanelOfNormals panelOfNormals,
-                                                             final double[] readCounts) {
+    private static double[] preprocessAndStandardizeSample(final double[] readCounts,
+                                                           final double[] originalIntervalGCContent,
+                                                           final int[] subsetIntervalIndices,
+                                                           final double[] panelIntervalFractionalMedians) {
         RealMatrix result = new Array2DRowRealMatrix(new double[][]{readCounts});
 
         //preprocess (transform to fractional coverage, correct GC bias, subset, divide by fractional medians) copy in place
         logger.info("Preprocessing read counts...");
         transformToFractionalCoverage(result);
-        performOptionalGCBiasCorrection(result, panelOfNormals.getOriginalIntervalGCContent());
+        performOptionalGCBiasCorrection(result, originalIntervalGCContent);
 
         logger.info("Subsetting sample intervals to post-filter panel intervals...");
-        final Set<SimpleInterval> panelIntervals = new HashSet<>(panelOfNormals.getPanelIntervals());
-        final int[] subsetIntervalIndices = IntStream.range(0, panelOfNormals.getOriginalIntervals().size())
-                .filter(i -> panelIntervals.contains(panelOfNormals.getOriginalIntervals().get(i)))
-                .toArray();
         result = result.getSubMatrix(new int[]{0}, subsetIntervalIndices);
 
         logger.info("Dividing by interval medians from the panel of normals...");
-        final double[] intervalMedians = panelOfNormals.getPanelIntervalFractionalMedians();
         result.walkInOptimizedOrder(new DefaultRealMatrixChangingVisitor() {
             @Override
             public double visit(int sampleIndex, int intervalIndex, double value) {
-                return value / intervalMedians[intervalIndex];
+                return value / panelIntervalFractionalMedians[intervalIndex];
             }
         });
         logger.info("Sample read counts preprocessed.");
@@ -414,32 +801,16 @@ public final class SVDDenoisingUtils {
         });
         logger.info("Sample read counts standardized.");
 
-        return result;
+        return result.getRow(0);
     }
 
     /**
-     * Given standardized read counts specified by a row vector S (dimensions {@code 1 x M})
-     * and all eigensample vectors U (dimensions {@code M x K}),
-     * returns s - s U<sub>k</sub> U<sub>k</sub><sup>T</sup>,
-     * where U<sub>k</sub> contains the first {@code numEigensamples}.
+     * Given standardized read counts for one or more samples specified by the rows of S (dimensions {@code N x M})
+     * and the first k eigensample vectors U<sub>k</sub> (dimensions {@code M x k}),
+     * returns S - S U<sub>k</sub> U<sub>k</sub><sup>T</sup>.
      */
     private static RealMatrix subtractProjection(final RealMatrix standardizedValues,
-                                                 final double[][] eigensampleVectors,
-                                                 final int numEigensamples) {
-        if (numEigensamples == 0) {
-            return standardizedValues.copy();
-        }
-
-        final int numIntervals = eigensampleVectors.length;
-        final int numAllEigensamples = eigensampleVectors[0].length;
-
-        logger.info("Distributing the standardized read counts...");
-
-        logger.info("Composing eigensample matrix for the requested number of eigensamples and transposing them...");
-        final RealMatrix eigensampleTruncatedMatrix = numEigensamples == numAllEigensamples
-                ? new Array2DRowRealMatrix(eigensampleVectors, false)
-                : new Array2DRowRealMatrix(eigensampleVectors, false).getSubMatrix(0, numIntervals - 1, 0, numEigensamples - 1);
-
+                                                 final RealMatrix eigensampleTruncatedMatrix) {
         logger.info("Computing projection...");
         final RealMatrix projection = standardizedValues
                 .multiply(eigensampleTruncatedMatrix)
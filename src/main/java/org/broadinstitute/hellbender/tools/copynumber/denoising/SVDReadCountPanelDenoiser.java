@@ -0,0 +1,85 @@
+package org.broadinstitute.hellbender.tools.copynumber.denoising;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.broadinstitute.hellbender.tools.copynumber.formats.collections.SimpleCountCollection;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.param.ParamUtils;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Holds the quantities of an {@link SVDReadCountPanelOfNormals} needed to standardize and denoise samples using
+ * a fixed number of eigensamples.  These are read from the panel once upon construction, so that any number
+ * of batches of samples can subsequently be denoised without reading the panel again.
+ */
+public final class SVDReadCountPanelDenoiser {
+    final SAMSequenceDictionary sequenceDictionary;
+    final List<SimpleInterval> originalIntervals;
+    final List<SimpleInterval> panelIntervals;
+    final double[] originalIntervalGCContent;
+    final double[] panelIntervalFractionalMedians;
+    final int[] subsetIntervalIndices;
+    final int numEigensamples;
+    final int numPanelEigensamples;
+    final RealMatrix eigensampleTruncatedMatrix;    //M x numEigensamples; null if no eigensamples are used
+
+    /**
+     * Reads from {@code panelOfNormals} the quantities needed to denoise using {@code numEigensamples} of the eigensamples.
+     */
+    SVDReadCountPanelDenoiser(final SVDReadCountPanelOfNormals panelOfNormals,
+                              final int numEigensamples) {
+        Utils.nonNull(panelOfNormals);
+        ParamUtils.isPositiveOrZero(numEigensamples, "Number of eigensamples to use for denoising must be non-negative.");
+        numPanelEigensamples = panelOfNormals.getNumEigensamples();
+        Utils.validateArg(numEigensamples <= numPanelEigensamples,
+                "Number of eigensamples to use for denoising is greater than the number available in the panel of normals.");
+        this.numEigensamples = numEigensamples;
+
+        sequenceDictionary = panelOfNormals.getSequenceDictionary();
+        originalIntervals = Collections.unmodifiableList(panelOfNormals.getOriginalIntervals());
+        panelIntervals = Collections.unmodifiableList(panelOfNormals.getPanelIntervals());
+        originalIntervalGCContent = panelOfNormals.getOriginalIntervalGCContent();
+        panelIntervalFractionalMedians = panelOfNormals.getPanelIntervalFractionalMedians();
+        final Set<SimpleInterval> panelIntervalsSet = new HashSet<>(panelIntervals);
+        subsetIntervalIndices = IntStream.range(0, originalIntervals.size())
+                .filter(i -> panelIntervalsSet.contains(originalIntervals.get(i)))
+                .toArray();
+
+        if (numEigensamples == 0 || numPanelEigensamples == 0) {
+            eigensampleTruncatedMatrix = null;
+        } else {
+            final RealMatrix eigensampleMatrix = new Array2DRowRealMatrix(panelOfNormals.getEigensampleVectors(), false);
+            eigensampleTruncatedMatrix = numEigensamples == numPanelEigensamples
+                    ? eigensampleMatrix
+                    : eigensampleMatrix.getSubMatrix(0, eigensampleMatrix.getRowDimension() - 1, 0, numEigensamples - 1);
+        }
+    }
+
+    public int getNumEigensamples() {
+        return numEigensamples;
+    }
+
+    /**
+     * Standardizes and denoises {@code readCounts}.
+     * If no eigensamples are used, the denoised output is identical to the standardized output.
+     */
+    public SVDDenoisedCopyRatioResult denoise(final SimpleCountCollection readCounts) {
+        Utils.nonNull(readCounts);
+        return denoise(Collections.singletonList(readCounts)).get(0);
+    }
+
+    /**
+     * Standardizes and denoises multiple samples, projecting all samples together.  Results are identical to those
+     * of {@link #denoise(SimpleCountCollection)} for each sample and are returned in the same order as {@code readCounts}.
+     */
+    public List<SVDDenoisedCopyRatioResult> denoise(final List<SimpleCountCollection> readCounts) {
+        return SVDDenoisingUtils.denoise(this, readCounts);
+    }
+}
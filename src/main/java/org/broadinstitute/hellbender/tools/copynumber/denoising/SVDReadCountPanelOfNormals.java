@@ -79,12 +79,33 @@ public interface SVDReadCountPanelOfNormals {
      */
     double[][] getEigensampleVectors();
 
+    /**
+     * Reads the quantities needed to standardize and denoise using {@code numEigensamples} of the eigensamples
+     * from the panel once.  The returned denoiser can be used for any number of batches of samples
+     * without reading the panel again.
+     */
+    default SVDReadCountPanelDenoiser createDenoiser(final int numEigensamples) {
+        return new SVDReadCountPanelDenoiser(this, numEigensamples);
+    }
+
     /**
      * Standardizes and denoises {@code readCounts} using {@code numEigensamples} of the eigensamples.
      * If no eigensamples are available, the denoised output should be identical to the standardized output.
      */
     default SVDDenoisedCopyRatioResult denoise(final SimpleCountCollection readCounts,
                                                final int numEigensamples) {
-        return SVDDenoisingUtils.denoise(this, readCounts, numEigensamples);
+        return createDenoiser(numEigensamples).denoise(readCounts);
+    }
+
+    /**
+     * Standardizes and denoises multiple samples using {@code numEigensamples} of the eigensamples,
+     * reading the panel only once and projecting all samples together.  Results are identical to those of
+     * {@link #denoise(SimpleCountCollection, int)} for each sample and are returned in the same order as {@code readCounts}.
+     * If no eigensamples are available, the denoised output should be identical to the standardized output.
+     * To denoise several batches of samples, use {@link #createDenoiser(int)} to avoid reading the panel for each batch.
+     */
+    default List<SVDDenoisedCopyRatioResult> denoise(final List<SimpleCountCollection> readCounts,
+                                                     final int numEigensamples) {
+        return createDenoiser(numEigensamples).denoise(readCounts);
     }
 }
@@ -11,6 +11,7 @@ import org.broadinstitute.hellbender.utils.mcmc.DecileCollection;
 import org.broadinstitute.hellbender.utils.mcmc.GibbsSampler;
 import org.broadinstitute.hellbender.utils.mcmc.ParameterSampler;
 import org.broadinstitute.hellbender.utils.mcmc.ParameterizedModel;
+import org.broadinstitute.hellbender.utils.param.ParamUtils;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -64,7 +65,8 @@ public final class AlleleFractionModeller {
     private static final double MIN_MINOR_FRACTION_SAMPLING_WIDTH = 1E-3;
 
     private final SampleLocatableMetadata metadata;
-    private final ParameterizedModel<AlleleFractionParameter, AlleleFractionState, AlleleFractionSegmentedData> model;
+    private final List<ParameterizedModel<AlleleFractionParameter, AlleleFractionState, AlleleFractionSegmentedData>> chainModels;
+    private final int numThreads;
 
     private final List<Double> meanBiasSamples = new ArrayList<>();
     private final List<Double> biasVarianceSamples = new ArrayList<>();
@@ -78,11 +80,28 @@ public final class AlleleFractionModeller {
     AlleleFractionModeller(final AllelicCountCollection allelicCounts,
                            final SimpleIntervalCollection segments,
                            final AlleleFractionPrior prior) {
+        this(allelicCounts, segments, prior, 1, 1);
+    }
+
+    /**
+     * As above, but {@code numChains} Markov chains are run from the same initial state and their samples are pooled.
+     * If {@code numThreads} is greater than one, chains are run concurrently and the minor-allele fractions within each
+     * chain are sampled in parallel; results are then reproducible and do not depend on the number of threads,
+     * but differ from those obtained using a single thread.
+     */
+    AlleleFractionModeller(final AllelicCountCollection allelicCounts,
+                           final SimpleIntervalCollection segments,
+                           final AlleleFractionPrior prior,
+                           final int numChains,
+                           final int numThreads) {
         Utils.nonNull(allelicCounts);
         Utils.nonNull(segments);
         Utils.validateArg(allelicCounts.getMetadata().getSequenceDictionary().equals(segments.getMetadata().getSequenceDictionary()),
                 "Metadata of the allelic counts and the segments do not match.");
         Utils.nonNull(prior);
+        ParamUtils.isPositive(numChains, "Number of chains must be positive.");
+        ParamUtils.isPositive(numThreads, "Number of threads must be positive.");
+        this.numThreads = numThreads;
 
         metadata = allelicCounts.getMetadata();
         final AlleleFractionSegmentedData data = new AlleleFractionSegmentedData(allelicCounts, segments);
@@ -113,33 +132,41 @@ public final class AlleleFractionModeller {
         final ParameterSampler<Double, AlleleFractionParameter, AlleleFractionState, AlleleFractionSegmentedData> outlierProbabilitySampler =
                 new AlleleFractionSamplers.OutlierProbabilitySampler(MAX_REASONABLE_OUTLIER_PROBABILITY, outlierProbabilitySamplingWidths);
         final ParameterSampler<AlleleFractionState.MinorFractions, AlleleFractionParameter, AlleleFractionState, AlleleFractionSegmentedData> minorFractionsSampler =
-                new AlleleFractionSamplers.MinorFractionsSampler(prior, minorFractionsSliceSamplingWidths);
-
-        model = new ParameterizedModel.GibbsBuilder<>(initialState, data)
-                .addParameterSampler(AlleleFractionParameter.MEAN_BIAS, meanBiasSampler, Double.class)
-                .addParameterSampler(AlleleFractionParameter.BIAS_VARIANCE, biasVarianceSampler, Double.class)
-                .addParameterSampler(AlleleFractionParameter.OUTLIER_PROBABILITY, outlierProbabilitySampler, Double.class)
-                .addParameterSampler(AlleleFractionParameter.MINOR_ALLELE_FRACTIONS, minorFractionsSampler, AlleleFractionState.MinorFractions.class)
-                .build();
+                new AlleleFractionSamplers.MinorFractionsSampler(prior, minorFractionsSliceSamplingWidths, numThreads > 1);
+
+        //all chains are initialized at the mode and share the samplers
+        chainModels = IntStream.range(0, numChains)
+                .mapToObj(chain -> new ParameterizedModel.GibbsBuilder<>(
+                        new AlleleFractionState(initialParameters.getMeanBias(), initialParameters.getBiasVariance(),
+                                initialParameters.getOutlierProbability(), new AlleleFractionState.MinorFractions(initialMinorFractions)),
+                        data)
+                        .addParameterSampler(AlleleFractionParameter.MEAN_BIAS, meanBiasSampler, Double.class)
+                        .addParameterSampler(AlleleFractionParameter.BIAS_VARIANCE, biasVarianceSampler, Double.class)
+                        .addParameterSampler(AlleleFractionParameter.OUTLIER_PROBABILITY, outlierProbabilitySampler, Double.class)
+                        .addParameterSampler(AlleleFractionParameter.MINOR_ALLELE_FRACTIONS, minorFractionsSampler, AlleleFractionState.MinorFractions.class)
+                        .build())
+                .collect(Collectors.toList());
     }
 
     /**
      * Adds {@code numSamples - numBurnIn} Markov-Chain Monte-Carlo samples of the parameter posteriors (generated using
-     * Gibbs sampling) to the collections held internally.  The current {@link AlleleFractionState} held internally is used
-     * to initialize the Markov Chain.
-     * @param numSamples    total number of samples per posterior
-     * @param numBurnIn     number of burn-in samples to discard
+     * Gibbs sampling) per chain to the collections held internally.  The current {@link AlleleFractionState} held
+     * internally by each chain is used to initialize that chain.
+     * @param numSamples    total number of samples per posterior per chain
+     * @param numBurnIn     number of burn-in samples to discard from each chain
      */
     void fitMCMC(final int numSamples, final int numBurnIn) {
         //run MCMC
-        final GibbsSampler<AlleleFractionParameter, AlleleFractionState, AlleleFractionSegmentedData> gibbsSampler = new GibbsSampler<>(numSamples, model);
-        gibbsSampler.runMCMC();
-
-        //update posterior samples
-        meanBiasSamples.addAll(gibbsSampler.getSamples(AlleleFractionParameter.MEAN_BIAS, Double.class, numBurnIn));
-        biasVarianceSamples.addAll(gibbsSampler.getSamples(AlleleFractionParameter.BIAS_VARIANCE, Double.class, numBurnIn));
-        outlierProbabilitySamples.addAll(gibbsSampler.getSamples(AlleleFractionParameter.OUTLIER_PROBABILITY, Double.class, numBurnIn));
-        minorFractionsSamples.addAll(gibbsSampler.getSamples(AlleleFractionParameter.MINOR_ALLELE_FRACTIONS, AlleleFractionState.MinorFractions.class, numBurnIn));
+        final List<GibbsSampler<AlleleFractionParameter, AlleleFractionState, AlleleFractionSegmentedData>> gibbsSamplers =
+                GibbsSampler.runChains(numSamples, chainModels, numThreads);
+
+        //update posterior samples, pooling chains in order
+        for (final GibbsSampler<AlleleFractionParameter, AlleleFractionState, AlleleFractionSegmentedData> gibbsSampler : gibbsSamplers) {
+            meanBiasSamples.addAll(gibbsSampler.getSamples(AlleleFractionParameter.MEAN_BIAS, Double.class, numBurnIn));
+            biasVarianceSamples.addAll(gibbsSampler.getSamples(AlleleFractionParameter.BIAS_VARIANCE, Double.class, numBurnIn));
+            outlierProbabilitySamples.addAll(gibbsSampler.getSamples(AlleleFractionParameter.OUTLIER_PROBABILITY, Double.class, numBurnIn));
+            minorFractionsSamples.addAll(gibbsSampler.getSamples(AlleleFractionParameter.MINOR_ALLELE_FRACTIONS, AlleleFractionState.MinorFractions.class, numBurnIn));
+        }
     }
 
     List<Double> getMeanBiasSamples() {
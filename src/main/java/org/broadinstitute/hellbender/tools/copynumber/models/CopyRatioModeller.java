@@ -19,6 +19,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Represents a segmented model for copy ratio fit to denoised log2 copy-ratio data.
@@ -43,7 +44,8 @@ public final class CopyRatioModeller {
     private static final double OUTLIER_PROBABILITY_PRIOR_BETA = 95.;
 
     private final SampleLocatableMetadata metadata;
-    private final ParameterizedModel<CopyRatioParameter, CopyRatioState, CopyRatioSegmentedData> model;
+    private final List<ParameterizedModel<CopyRatioParameter, CopyRatioState, CopyRatioSegmentedData>> chainModels;
+    private final int numThreads;
 
     private final List<Double> varianceSamples = new ArrayList<>();
     private final List<Double> outlierProbabilitySamples = new ArrayList<>();
@@ -55,11 +57,27 @@ public final class CopyRatioModeller {
      */
     CopyRatioModeller(final CopyRatioCollection copyRatios,
                       final SimpleIntervalCollection segments) {
+        this(copyRatios, segments, 1, 1);
+    }
+
+    /**
+     * As above, but {@code numChains} Markov chains are run from the same initial state and their samples are pooled.
+     * If {@code numThreads} is greater than one, chains are run concurrently and segment-level parameters within each
+     * chain are sampled in parallel; results are then reproducible and do not depend on the number of threads,
+     * but differ from those obtained using a single thread.
+     */
+    CopyRatioModeller(final CopyRatioCollection copyRatios,
+                      final SimpleIntervalCollection segments,
+                      final int numChains,
+                      final int numThreads) {
         Utils.nonNull(copyRatios);
         Utils.nonNull(segments);
         Utils.validateArg(copyRatios.getMetadata().getSequenceDictionary().equals(segments.getMetadata().getSequenceDictionary()),
                 "Metadata of the copy ratios and the segments do not match.");
         Utils.nonEmpty(segments.getRecords());
+        ParamUtils.isPositive(numChains, "Number of chains must be positive.");
+        ParamUtils.isPositive(numThreads, "Number of threads must be positive.");
+        this.numThreads = numThreads;
 
         metadata = copyRatios.getMetadata();
         final CopyRatioSegmentedData data = new CopyRatioSegmentedData(copyRatios, segments);
@@ -83,47 +101,52 @@ public final class CopyRatioModeller {
         //the outlier-probability parameter should be interpreted accordingly
         final double outlierUniformLogLikelihood = -Math.log(dataRange);
 
-        //use empirical segment means and empirical average variance across segments to initialize CopyRatioState
-        final CopyRatioState initialState = new CopyRatioState(varianceEstimate, CopyRatioModeller.OUTLIER_PROBABILITY_INITIAL,
-                new CopyRatioState.SegmentMeans(segmentMeans), new CopyRatioState.OutlierIndicators(Collections.nCopies(data.getNumPoints(), false)));
-
-        //define ParameterSamplers
+        //define ParameterSamplers, which are shared by all chains
+        final boolean sampleSegmentsInParallel = numThreads > 1;
         final ParameterSampler<Double, CopyRatioParameter, CopyRatioState, CopyRatioSegmentedData> varianceSampler =
                 new CopyRatioSamplers.VarianceSampler(VARIANCE_MIN, varianceMax, varianceSliceSamplingWidth);
         final ParameterSampler<Double, CopyRatioParameter, CopyRatioState, CopyRatioSegmentedData> outlierProbabilitySampler =
                 new CopyRatioSamplers.OutlierProbabilitySampler(OUTLIER_PROBABILITY_PRIOR_ALPHA, OUTLIER_PROBABILITY_PRIOR_BETA);
         final ParameterSampler<CopyRatioState.SegmentMeans, CopyRatioParameter, CopyRatioState, CopyRatioSegmentedData> segmentMeansSampler =
-                new CopyRatioSamplers.SegmentMeansSampler(LOG2_COPY_RATIO_MIN, LOG2_COPY_RATIO_MAX, meanSliceSamplingWidth);
+                new CopyRatioSamplers.SegmentMeansSampler(LOG2_COPY_RATIO_MIN, LOG2_COPY_RATIO_MAX, meanSliceSamplingWidth, sampleSegmentsInParallel);
         final ParameterSampler<CopyRatioState.OutlierIndicators, CopyRatioParameter, CopyRatioState, CopyRatioSegmentedData> outlierIndicatorsSampler =
-                new CopyRatioSamplers.OutlierIndicatorsSampler(outlierUniformLogLikelihood);
-
-        model = new ParameterizedModel.GibbsBuilder<>(initialState, data)
-                .addParameterSampler(CopyRatioParameter.VARIANCE, varianceSampler, Double.class)
-                .addParameterSampler(CopyRatioParameter.OUTLIER_PROBABILITY, outlierProbabilitySampler, Double.class)
-                .addParameterSampler(CopyRatioParameter.SEGMENT_MEANS, segmentMeansSampler, CopyRatioState.SegmentMeans.class)
-                .addParameterSampler(CopyRatioParameter.OUTLIER_INDICATORS, outlierIndicatorsSampler, CopyRatioState.OutlierIndicators.class)
-                .build();
+                new CopyRatioSamplers.OutlierIndicatorsSampler(outlierUniformLogLikelihood, sampleSegmentsInParallel);
+
+        //use empirical segment means and empirical average variance across segments to initialize the CopyRatioState of each chain
+        chainModels = IntStream.range(0, numChains)
+                .mapToObj(chain -> new ParameterizedModel.GibbsBuilder<>(
+                        new CopyRatioState(varianceEstimate, CopyRatioModeller.OUTLIER_PROBABILITY_INITIAL,
+                                new CopyRatioState.SegmentMeans(segmentMeans), new CopyRatioState.OutlierIndicators(Collections.nCopies(data.getNumPoints(), false))),
+                        data)
+                        .addParameterSampler(CopyRatioParameter.VARIANCE, varianceSampler, Double.class)
+                        .addParameterSampler(CopyRatioParameter.OUTLIER_PROBABILITY, outlierProbabilitySampler, Double.class)
+                        .addParameterSampler(CopyRatioParameter.SEGMENT_MEANS, segmentMeansSampler, CopyRatioState.SegmentMeans.class)
+                        .addParameterSampler(CopyRatioParameter.OUTLIER_INDICATORS, outlierIndicatorsSampler, CopyRatioState.OutlierIndicators.class)
+                        .build())
+                .collect(Collectors.toList());
     }
 
     /**
      * Adds {@code numSamples - numBurnIn} Markov-Chain Monte-Carlo samples of the parameter posteriors (generated using
-     * Gibbs sampling) to the collections held internally.  The current {@link CopyRatioState} held internally is used
-     * to initialize the Markov Chain.
-     * @param numSamples    total number of samples per posterior
-     * @param numBurnIn     number of burn-in samples to discard
+     * Gibbs sampling) per chain to the collections held internally.  The current {@link CopyRatioState} held internally
+     * by each chain is used to initialize that chain.
+     * @param numSamples    total number of samples per posterior per chain
+     * @param numBurnIn     number of burn-in samples to discard from each chain
      */
     void fitMCMC(final int numSamples, final int numBurnIn) {
         ParamUtils.isPositiveOrZero(numBurnIn, "Number of burn-in samples must be non-negative.");
         Utils.validateArg(numBurnIn < numSamples, "Number of samples must be greater than number of burn-in samples.");
 
         //run MCMC
-        final GibbsSampler<CopyRatioParameter, CopyRatioState, CopyRatioSegmentedData> gibbsSampler = new GibbsSampler<>(numSamples, model);
-        gibbsSampler.runMCMC();
-
-        //update posterior samples
-        varianceSamples.addAll(gibbsSampler.getSamples(CopyRatioParameter.VARIANCE, Double.class, numBurnIn));
-        outlierProbabilitySamples.addAll(gibbsSampler.getSamples(CopyRatioParameter.OUTLIER_PROBABILITY, Double.class, numBurnIn));
-        segmentMeansSamples.addAll(gibbsSampler.getSamples(CopyRatioParameter.SEGMENT_MEANS, CopyRatioState.SegmentMeans.class, numBurnIn));
+        final List<GibbsSampler<CopyRatioParameter, CopyRatioState, CopyRatioSegmentedData>> gibbsSamplers =
+                GibbsSampler.runChains(numSamples, chainModels, numThreads);
+
+        //update posterior samples, pooling chains in order
+        for (final GibbsSampler<CopyRatioParameter, CopyRatioState, CopyRatioSegmentedData> gibbsSampler : gibbsSamplers) {
+            varianceSamples.addAll(gibbsSampler.getSamples(CopyRatioParameter.VARIANCE, Double.class, numBurnIn));
+            outlierProbabilitySamples.addAll(gibbsSampler.getSamples(CopyRatioParameter.OUTLIER_PROBABILITY, Double.class, numBurnIn));
+            segmentMeansSamples.addAll(gibbsSampler.getSamples(CopyRatioParameter.SEGMENT_MEANS, CopyRatioState.SegmentMeans.class, numBurnIn));
+        }
     }
 
     List<Double> getVarianceSamples() {
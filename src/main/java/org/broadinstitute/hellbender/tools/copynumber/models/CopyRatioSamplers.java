@@ -106,37 +106,39 @@ final class CopyRatioSamplers {
         private final double meanMin;
         private final double meanMax;
         private final double meanSliceSamplingWidth;
+        private final boolean sampleSegmentsInParallel;
 
         SegmentMeansSampler(final double meanMin, 
                             final double meanMax, 
-                            final double meanSliceSamplingWidth) {
+                            final double meanSliceSamplingWidth,
+                            final boolean sampleSegmentsInParallel) {
             this.meanMin = meanMin;
             this.meanMax = meanMax;
             this.meanSliceSamplingWidth = meanSliceSamplingWidth;
+            this.sampleSegmentsInParallel = sampleSegmentsInParallel;
         }
 
         @Override
         public CopyRatioState.SegmentMeans sample(final RandomGenerator rng,
                                                   final CopyRatioState state,
                                                   final CopyRatioSegmentedData data) {
-            final List<Double> means = new ArrayList<>(data.getNumSegments());
             final BiFunction<CopyRatioSegmentedData.IndexedCopyRatio, Double, Double> logConditionalPDF = (icr, newMean) ->
                     state.outlierIndicator(icr.getIndex())
                             ? 0.
                             : -normalTerm(icr.getLog2CopyRatioValue(), newMean, state.variance());
-            for (int segmentIndex = 0; segmentIndex < data.getNumSegments(); segmentIndex++) {
-                final List<CopyRatioSegmentedData.IndexedCopyRatio> indexedCopyRatiosInSegment = data.getIndexedCopyRatiosInSegment(segmentIndex);
-                if (indexedCopyRatiosInSegment.isEmpty()) {
-                    means.add(Double.NaN);
-                } else {
-                    logger.debug(String.format("Sampling mean for segment %d...", segmentIndex));
-                    final MinibatchSliceSampler<CopyRatioSegmentedData.IndexedCopyRatio> sampler = new MinibatchSliceSampler<>(
-                            rng, indexedCopyRatiosInSegment, UNIFORM_LOG_PRIOR, logConditionalPDF,
-                            meanMin, meanMax, meanSliceSamplingWidth,
-                            SEGMENT_MINIBATCH_SIZE, APPROX_THRESHOLD);
-                    means.add(sampler.sample(state.segmentMean(segmentIndex)));
-                }
-            }
+            final List<Double> means = SegmentSamplingUtils.sampleSegments(rng, data.getNumSegments(), sampleSegmentsInParallel,
+                    (segmentRng, segmentIndex) -> {
+                        final List<CopyRatioSegmentedData.IndexedCopyRatio> indexedCopyRatiosInSegment = data.getIndexedCopyRatiosInSegment(segmentIndex);
+                        if (indexedCopyRatiosInSegment.isEmpty()) {
+                            return Double.NaN;
+                        }
+                        logger.debug(String.format("Sampling mean for segment %d...", segmentIndex));
+                        final MinibatchSliceSampler<CopyRatioSegmentedData.IndexedCopyRatio> sampler = new MinibatchSliceSampler<>(
+                                segmentRng, indexedCopyRatiosInSegment, UNIFORM_LOG_PRIOR, logConditionalPDF,
+                                meanMin, meanMax, meanSliceSamplingWidth,
+                                SEGMENT_MINIBATCH_SIZE, APPROX_THRESHOLD);
+                        return sampler.sample(state.segmentMean(segmentIndex));
+                    });
             return new CopyRatioState.SegmentMeans(means);
         }
     }
@@ -151,9 +153,12 @@ final class CopyRatioSamplers {
     //(corresponding to the first line in the unnormalized expression above)
     static final class OutlierIndicatorsSampler implements ParameterSampler<CopyRatioState.OutlierIndicators, CopyRatioParameter, CopyRatioState, CopyRatioSegmentedData> {
         private final double outlierUniformLogLikelihood;
+        private final boolean sampleSegmentsInParallel;
 
-        OutlierIndicatorsSampler(final double outlierUniformLogLikelihood) {
+        OutlierIndicatorsSampler(final double outlierUniformLogLikelihood,
+                                 final boolean sampleSegmentsInParallel) {
             this.outlierUniformLogLikelihood = outlierUniformLogLikelihood;
+            this.sampleSegmentsInParallel = sampleSegmentsInParallel;
         }
 
         @Override
@@ -167,19 +172,24 @@ final class CopyRatioSamplers {
 //                    FastMath.log(1. - state.outlierProbability()) - 0.5 * FastMath.log(2 * Math.PI * state.variance());
             final double notOutlierUnnormalizedLogProbabilityPrefactor =
                     FastMath.log((1. - state.outlierProbability()) / FastMath.sqrt(2 * Math.PI * state.variance()));
+            //indicators are conditionally independent given the segment means, so each segment may be sampled separately
+            final List<List<Boolean>> indicatorsBySegment = SegmentSamplingUtils.sampleSegments(rng, data.getNumSegments(), sampleSegmentsInParallel,
+                    (segmentRng, segmentIndex) -> {
+                        final List<CopyRatioSegmentedData.IndexedCopyRatio> indexedCopyRatiosInSegment = data.getIndexedCopyRatiosInSegment(segmentIndex);
+                        final List<Boolean> indicatorsInSegment = new ArrayList<>(indexedCopyRatiosInSegment.size());
+                        for (final CopyRatioSegmentedData.IndexedCopyRatio indexedCopyRatio : indexedCopyRatiosInSegment) {
+                            final double notOutlierUnnormalizedLogProbability =
+                                    notOutlierUnnormalizedLogProbabilityPrefactor
+                                            - normalTerm(indexedCopyRatio.getLog2CopyRatioValue(), state.segmentMean(segmentIndex), state.variance());
+                            final double conditionalProbability =
+                                    FastMath.exp(outlierUnnormalizedLogProbability -
+                                            NaturalLogUtils.logSumLog(outlierUnnormalizedLogProbability, notOutlierUnnormalizedLogProbability));
+                            indicatorsInSegment.add(segmentRng.nextDouble() < conditionalProbability);
+                        }
+                        return indicatorsInSegment;
+                    });
             final List<Boolean> indicators = new ArrayList<>(data.getNumPoints());
-            for (int segmentIndex = 0; segmentIndex < data.getNumSegments(); segmentIndex++) {
-                final List<CopyRatioSegmentedData.IndexedCopyRatio> indexedCopyRatiosInSegment = data.getIndexedCopyRatiosInSegment(segmentIndex);
-                for (final CopyRatioSegmentedData.IndexedCopyRatio indexedCopyRatio : indexedCopyRatiosInSegment) {
-                    final double notOutlierUnnormalizedLogProbability =
-                            notOutlierUnnormalizedLogProbabilityPrefactor
-                                    - normalTerm(indexedCopyRatio.getLog2CopyRatioValue(), state.segmentMean(segmentIndex), state.variance());
-                    final double conditionalProbability =
-                            FastMath.exp(outlierUnnormalizedLogProbability -
-                                    NaturalLogUtils.logSumLog(outlierUnnormalizedLogProbability, notOutlierUnnormalizedLogProbability));
-                    indicators.add(rng.nextDouble() < conditionalProbability);
-                }
-            }
+            indicatorsBySegment.forEach(indicators::addAll);
             return new CopyRatioState.OutlierIndicators(indicators);
         }
     }
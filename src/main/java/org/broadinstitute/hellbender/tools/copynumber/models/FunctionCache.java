@@ -5,6 +5,10 @@ import java.util.Map;
 import java.util.function.Function;
 
 /**
+ * Bounded cache of the values of a function.  The cache may be shared by samplers running on multiple threads;
+ * values are computed outside of the lock, so a value may occasionally be computed more than once, which is harmless
+ * since the function is assumed to be pure.
+ *
  * @author Samuel Lee &lt;slee@broadinstitute.org&gt;
  */
 final class FunctionCache<DATA> extends LinkedHashMap<DATA, Double> {
@@ -18,7 +22,17 @@ final class FunctionCache<DATA> extends LinkedHashMap<DATA, Double> {
     }
 
     Double computeIfAbsent(final DATA key) {
-        return super.computeIfAbsent(key, mappingFunction);
+        synchronized (this) {
+            final Double cachedValue = get(key);
+            if (cachedValue != null) {
+                return cachedValue;
+            }
+        }
+        final Double value = mappingFunction.apply(key);
+        synchronized (this) {
+            putIfAbsent(key, value);
+        }
+        return value;
     }
 
     @Override
@@ -51,6 +51,8 @@ public final class MultidimensionalModeller {
     private final int numBurnInCopyRatio;
     private final int numSamplesAlleleFraction;
     private final int numBurnInAlleleFraction;
+    private final int numChains;
+    private final int numThreads;
 
     /**
      * Constructs a copy-ratio and allele-fraction modeller, specifying number of total samples
@@ -65,6 +67,24 @@ public final class MultidimensionalModeller {
                                     final int numBurnInCopyRatio,
                                     final int numSamplesAlleleFraction,
                                     final int numBurnInAlleleFraction) {
+        this(segments, denoisedCopyRatios, allelicCounts, alleleFractionPrior,
+                numSamplesCopyRatio, numBurnInCopyRatio, numSamplesAlleleFraction, numBurnInAlleleFraction, 1, 1);
+    }
+
+    /**
+     * As above, but additionally specifying the number of Markov chains to run and pool for each model
+     * and the number of threads to use for sampling.
+     */
+    public MultidimensionalModeller(final SimpleIntervalCollection segments,
+                                    final CopyRatioCollection denoisedCopyRatios,
+                                    final AllelicCountCollection allelicCounts,
+                                    final AlleleFractionPrior alleleFractionPrior,
+                                    final int numSamplesCopyRatio,
+                                    final int numBurnInCopyRatio,
+                                    final int numSamplesAlleleFraction,
+                                    final int numBurnInAlleleFraction,
+                                    final int numChains,
+                                    final int numThreads) {
         Utils.nonNull(segments);
         Utils.nonNull(denoisedCopyRatios);
         Utils.nonNull(allelicCounts);
@@ -73,6 +93,8 @@ public final class MultidimensionalModeller {
         Utils.validateArg(numBurnInCopyRatio < numSamplesCopyRatio, "Number of copy-ratio samples must be greater than number of burn-in copy-ratio samples.");
         ParamUtils.isPositiveOrZero(numBurnInAlleleFraction, "Number of burn-in allele-fraction samples must be non-negative.");
         Utils.validateArg(numBurnInAlleleFraction < numSamplesAlleleFraction, "Number of allele-fraction samples must be greater than number of burn-in allele-fraction samples.");
+        ParamUtils.isPositive(numChains, "Number of chains must be positive.");
+        ParamUtils.isPositive(numThreads, "Number of threads must be positive.");
         metadata = CopyNumberArgumentValidationUtils.getValidatedMetadata(denoisedCopyRatios, allelicCounts);
         CopyNumberArgumentValidationUtils.getValidatedSequenceDictionary(segments, denoisedCopyRatios, allelicCounts);
         ParamUtils.isPositive(segments.size(), "Number of segments must be positive.");
@@ -86,6 +108,8 @@ public final class MultidimensionalModeller {
         this.numBurnInCopyRatio = numBurnInCopyRatio;
         this.numSamplesAlleleFraction = numSamplesAlleleFraction;
         this.numBurnInAlleleFraction = numBurnInAlleleFraction;
+        this.numChains = numChains;
+        this.numThreads = numThreads;
         logger.info("Fitting initial model...");
         fitModel();
     }
@@ -101,10 +125,10 @@ public final class MultidimensionalModeller {
     private void fitModel() {
         //perform MCMC to generate posterior samples
         logger.info("Fitting copy-ratio model...");
-        copyRatioModeller = new CopyRatioModeller(denoisedCopyRatios, currentSegments);
+        copyRatioModeller = new CopyRatioModeller(denoisedCopyRatios, currentSegments, numChains, numThreads);
         copyRatioModeller.fitMCMC(numSamplesCopyRatio, numBurnInCopyRatio);
         logger.info("Fitting allele-fraction model...");
-        alleleFractionModeller = new AlleleFractionModeller(allelicCounts, currentSegments, alleleFractionPrior);
+        alleleFractionModeller = new AlleleFractionModeller(allelicCounts, currentSegments, alleleFractionPrior, numChains, numThreads);
         alleleFractionModeller.fitMCMC(numSamplesAlleleFraction, numBurnInAlleleFraction);
 
         //update list of ModeledSegment with new PosteriorSummaries
@@ -0,0 +1,41 @@
+package org.broadinstitute.hellbender.tools.copynumber.models;
+
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.RandomGeneratorFactory;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Samples segment-level parameters, which are conditionally independent given the global parameters
+ * and may therefore be sampled in parallel.
+ */
+final class SegmentSamplingUtils {
+    private SegmentSamplingUtils() {}
+
+    /**
+     * Applies {@code segmentSampler} to each segment index and returns the results in segment order.
+     * If {@code sampleInParallel} is false, segments are sampled in order using {@code rng}.  Otherwise, a seed
+     * for each segment is first drawn from {@code rng} and the segments are then sampled in a parallel stream,
+     * each with its own random-number generator; results do not depend on the number of threads, but differ from
+     * those obtained by sampling in order.
+     */
+    static <T> List<T> sampleSegments(final RandomGenerator rng,
+                                      final int numSegments,
+                                      final boolean sampleInParallel,
+                                      final BiFunction<RandomGenerator, Integer, T> segmentSampler) {
+        if (!sampleInParallel) {
+            return IntStream.range(0, numSegments)
+                    .mapToObj(segmentIndex -> segmentSampler.apply(rng, segmentIndex))
+                    .collect(Collectors.toList());
+        }
+        final long[] segmentSeeds = IntStream.range(0, numSegments).mapToLong(segmentIndex -> rng.nextLong()).toArray();
+        return IntStream.range(0, numSegments).parallel()
+                .mapToObj(segmentIndex -> segmentSampler.apply(
+                        RandomGeneratorFactory.createRandomGenerator(new Random(segmentSeeds[segmentIndex])), segmentIndex))
+                .collect(Collectors.toList());
+    }
+}
@@ -235,6 +235,24 @@ public final class MultisampleMultidimensionalKernelSegmenter {
                                                      final List<Integer> windowSizes,
                                                      final double numChangepointsPenaltyLinearFactor,
                                                      final double numChangepointsPenaltyLogLinearFactor) {
+        return findSegmentation(maxNumSegmentsPerChromosome, kernelVarianceCopyRatio, kernelVarianceAlleleFraction,
+                kernelScalingAlleleFraction, kernelApproximationDimension, windowSizes,
+                numChangepointsPenaltyLinearFactor, numChangepointsPenaltyLogLinearFactor, 1);
+    }
+
+    /**
+     * @param numThreads    number of threads used by the {@link KernelSegmenter} for each chromosome;
+     *                      the segmentation does not depend on this number
+     */
+    public SimpleIntervalCollection findSegmentation(final int maxNumSegmentsPerChromosome,
+                                                     final double kernelVarianceCopyRatio,
+                                                     final double kernelVarianceAlleleFraction,
+                                                     final double kernelScalingAlleleFraction,
+                                                     final int kernelApproximationDimension,
+                                                     final List<Integer> windowSizes,
+                                                     final double numChangepointsPenaltyLinearFactor,
+                                                     final double numChangepointsPenaltyLogLinearFactor,
+                                                     final int numThreads) {
         ParamUtils.isPositive(maxNumSegmentsPerChromosome, "Maximum number of segments must be positive.");
         ParamUtils.isPositiveOrZero(kernelVarianceCopyRatio, "Variance of copy-ratio Gaussian kernel must be non-negative (if zero, a linear kernel will be used).");
         ParamUtils.isPositiveOrZero(kernelVarianceAlleleFraction, "Variance of allele-fraction Gaussian kernel must be non-negative (if zero, a linear kernel will be used).");
@@ -246,6 +264,7 @@ public final class MultisampleMultidimensionalKernelSegmenter {
                 "Linear factor for the penalty on the number of changepoints per chromosome must be non-negative.");
         ParamUtils.isPositiveOrZero(numChangepointsPenaltyLogLinearFactor,
                 "Log-linear factor for the penalty on the number of changepoints per chromosome must be non-negative.");
+        ParamUtils.isPositive(numThreads, "Number of threads must be positive.");
 
         final BiFunction<MultidimensionalPoint, MultidimensionalPoint, Double> kernel = constructKernel(
                 kernelVarianceCopyRatio, kernelVarianceAlleleFraction, kernelScalingAlleleFraction);
@@ -272,7 +291,7 @@ public final class MultisampleMultidimensionalKernelSegmenter {
                 continue;
             }
 
-            final List<Integer> changepoints = new ArrayList<>(new KernelSegmenter<>(multidimensionalPointsInChromosome)
+            final List<Integer> changepoints = new ArrayList<>(new KernelSegmenter<>(multidimensionalPointsInChromosome, numThreads)
                 .findChangepoints(maxNumChangepointsPerChromosome, kernel, kernelApproximationDimension,
                         windowSizes, numChangepointsPenaltyLinearFactor, numChangepointsPenaltyLogLinearFactor, KernelSegmenter.ChangepointSortOrder.INDEX));
 
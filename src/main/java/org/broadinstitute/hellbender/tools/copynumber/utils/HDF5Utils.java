@@ -9,6 +9,9 @@ import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
 import org.broadinstitute.hellbender.utils.param.ParamUtils;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -78,18 +81,42 @@ public final class HDF5Utils {
     public static <T extends SimpleInterval> void writeIntervals(final HDF5File file,
                                                                  final String path,
                                                                  final List<T> intervals) {
-        final Map<String, Double> contigNamesToIndexMap = new LinkedHashMap<>();
-        final double[][] matrix = new double[NUM_INTERVAL_FIELDS][intervals.size()];
+        final Map<String, Integer> contigNamesToIndexMap = new LinkedHashMap<>();
+        final int[] contigIndices = new int[intervals.size()];
+        final int[] starts = new int[intervals.size()];
+        final int[] ends = new int[intervals.size()];
         for (int i = 0; i < intervals.size(); i++) {
             final SimpleInterval interval = intervals.get(i);
-            contigNamesToIndexMap.putIfAbsent(interval.getContig(), (double) contigNamesToIndexMap.keySet().size());
-            matrix[IntervalField.CONTIG_INDEX.index][i] = contigNamesToIndexMap.get(interval.getContig());
-            matrix[IntervalField.START.index][i] = interval.getStart();
-            matrix[IntervalField.END.index][i] = interval.getEnd();
+            contigNamesToIndexMap.putIfAbsent(interval.getContig(), contigNamesToIndexMap.keySet().size());
+            contigIndices[i] = contigNamesToIndexMap.get(interval.getContig());
+            starts[i] = interval.getStart();
+            ends[i] = interval.getEnd();
+        }
+        writeIntervals(file, path, new ArrayList<>(contigNamesToIndexMap.keySet()), contigIndices, starts, ends);
+    }
+
+    /**
+     * Writes intervals given as columns of contig indices, starts, and ends to the same sub-paths and with the
+     * same conventions as {@link #writeIntervals(HDF5File, String, List)}, which allows callers to avoid
+     * materializing a list of interval objects. Contig indices refer to the list of contig names.
+     */
+    public static void writeIntervals(final HDF5File file,
+                                      final String path,
+                                      final List<String> contigNames,
+                                      final int[] contigIndices,
+                                      final int[] starts,
+                                      final int[] ends) {
+        Utils.nonNull(contigNames);
+        Utils.validateArg(contigIndices.length == starts.length && starts.length == ends.length,
+                "Numbers of contig indices, starts, and ends must be equal.");
+        final double[][] matrix = new double[NUM_INTERVAL_FIELDS][contigIndices.length];
+        for (int i = 0; i < contigIndices.length; i++) {
+            matrix[IntervalField.CONTIG_INDEX.index][i] = contigIndices[i];
+            matrix[IntervalField.START.index][i] = starts[i];
+            matrix[IntervalField.END.index][i] = ends[i];
         }
         file.makeDoubleMatrix(path + INTERVAL_MATRIX_SUB_PATH, matrix);
-        file.makeStringArray(path + INTERVAL_CONTIG_NAMES_SUB_PATH,
-                contigNamesToIndexMap.keySet().toArray(new String[contigNamesToIndexMap.keySet().size()]));
+        file.makeStringArray(path + INTERVAL_CONTIG_NAMES_SUB_PATH, contigNames.toArray(new String[0]));
     }
 
     /**
@@ -147,15 +174,29 @@ public final class HDF5Utils {
                                                 final String path,
                                                 final double[][] matrix,
                                                 final int maxChunkSize) {
+        Utils.nonNull(matrix);
+        Utils.validateArg(matrix.length > 0, "Matrix must contain at least one row.");
+        writeChunkedDoubleMatrix(file, path, matrix.length, matrix[0].length, Arrays.asList(matrix).iterator(), maxChunkSize);
+    }
+
+    /**
+     * Writes a large matrix, given as an iterator over a known number of rows, using the same chunking, sub-paths, and
+     * conventions as {@link #writeChunkedDoubleMatrix(HDF5File, String, double[][], int)}. Only the rows of a single
+     * chunk are held at any time, so this may be used to write matrices that are streamed from disk.
+     */
+    public static void writeChunkedDoubleMatrix(final HDF5File file,
+                                                final String path,
+                                                final long numRows,
+                                                final long numColumns,
+                                                final Iterator<double[]> rowIterator,
+                                                final int maxChunkSize) {
         Utils.nonNull(file);
         IOUtils.canReadFile(file.getFile());
         Utils.nonNull(path);
-        Utils.nonNull(matrix);
+        Utils.nonNull(rowIterator);
         ParamUtils.inRange(maxChunkSize, 1 , MAX_NUMBER_OF_VALUES_PER_HDF5_MATRIX,
                 String.format("Maximum chunk size must be in [1, %d].", MAX_NUMBER_OF_VALUES_PER_HDF5_MATRIX));
-        final long numRows = matrix.length;
         Utils.validateArg(numRows > 0, "Matrix must contain at least one row.");
-        final long numColumns = matrix[0].length;
         Utils.validateArg(numColumns > 0, "Matrix must contain at least one column.");
         Utils.validateArg(numColumns <= maxChunkSize,
                 String.format("Number of columns (%d) exceeds the maximum number of values allowed per chunk (%d).",
@@ -178,20 +219,30 @@ public final class HDF5Utils {
         file.makeDouble(numColumnsPath, numColumns);
         file.makeDouble(numChunksPath, needPartialChunk ? numFilledChunks + 1 : numFilledChunks);
 
-        //TODO we could add makeDoubleMatrix(path, matrix, startRow, endRow, startCol, endCol) method to avoid copying
         int numRowsWritten = 0;
         for (int chunkIndex = 0; chunkIndex < numFilledChunks; chunkIndex++) {
-            final double[][] matrixChunk = new double[numRowsPerFilledChunk][(int) numColumns];
-            System.arraycopy(matrix, numRowsWritten, matrixChunk, 0, numRowsPerFilledChunk);
+            final double[][] matrixChunk = nextChunk(rowIterator, numRowsPerFilledChunk, numColumns);
             file.makeDoubleMatrix(path + CHUNK_INDEX_PATH_SUFFIX + chunkIndex, matrixChunk);    //write filled chunks
             numRowsWritten += numRowsPerFilledChunk;
         }
         if (needPartialChunk) {
             final int numRowsPartialChunk = (int) numRows - numRowsWritten;
             logger.debug("Number of rows in partial chunk: " + numRowsPartialChunk);
-            final double[][] matrixChunk = new double[numRowsPartialChunk][(int) numColumns];
-            System.arraycopy(matrix, numRowsWritten, matrixChunk, 0, numRowsPartialChunk);
+            final double[][] matrixChunk = nextChunk(rowIterator, numRowsPartialChunk, numColumns);
             file.makeDoubleMatrix(path + CHUNK_INDEX_PATH_SUFFIX + numFilledChunks, matrixChunk);    //write final partially filled chunk
         }
+        Utils.validateArg(!rowIterator.hasNext(), "Row iterator contains more rows than expected.");
+    }
+
+    private static double[][] nextChunk(final Iterator<double[]> rowIterator,
+                                        final int numRowsInChunk,
+                                        final long numColumns) {
+        final double[][] matrixChunk = new double[numRowsInChunk][];
+        for (int i = 0; i < numRowsInChunk; i++) {
+            Utils.validateArg(rowIterator.hasNext(), "Row iterator contains fewer rows than expected.");
+            matrixChunk[i] = rowIterator.next();
+            Utils.validateArg(matrixChunk[i].length == numColumns, "All rows must have the same number of columns.");
+        }
+        return matrixChunk;
     }
 }
@@ -1,13 +1,13 @@
 package org.broadinstitute.hellbender.tools.copynumber.utils.segmentation;
 
 import org.apache.commons.math3.linear.Array2DRowRealMatrix;
-import org.apache.commons.math3.linear.DefaultRealMatrixChangingVisitor;
 import org.apache.commons.math3.linear.RealMatrix;
 import org.apache.commons.math3.linear.SingularValueDecomposition;
 import org.apache.commons.math3.random.RandomGenerator;
 import org.apache.commons.math3.random.RandomGeneratorFactory;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.tools.copynumber.utils.optimization.PersistenceOptimizer;
 import org.broadinstitute.hellbender.utils.IndexRange;
 import org.broadinstitute.hellbender.utils.MathUtils;
@@ -19,6 +19,10 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -76,6 +80,13 @@ import java.util.stream.IntStream;
  *     Note that we break with camelCase naming convention in places to match some notation in the paper
  * </p>
  *
+ * <p>
+ *     The reduced observation matrix is held in primitive arrays and its rows are calculated in parallel blocks.
+ *     Local changepoint costs for different window sizes are likewise calculated in parallel, as are the initial
+ *     segment costs used in backward selection.  All floating-point operations are performed in the same order
+ *     regardless of the number of threads, so that the changepoints found do not depend on it.
+ * </p>
+ *
  * @author Samuel Lee &lt;slee@broadinstitute.org&gt;
  */
 public final class KernelSegmenter<DATA> {
@@ -88,10 +99,26 @@ public final class KernelSegmenter<DATA> {
     private static final int RANDOM_SEED = 1216;
     private static final double EPSILON = 1E-10;
 
+    //number of rows of the reduced observation matrix calculated in each parallel task
+    private static final int ROW_BLOCK_SIZE = 1024;
+
     private final List<DATA> data;
+    private final int numThreads;
 
     public KernelSegmenter(final List<DATA> data) {
+        this(data, 1);
+    }
+
+    /**
+     * @param data          data points to segment
+     * @param numThreads    number of threads used to calculate the kernel approximation and changepoint costs;
+     *                      note that the kernel function must be thread-safe if this is greater than one
+     */
+    public KernelSegmenter(final List<DATA> data,
+                           final int numThreads) {
+        ParamUtils.isPositive(numThreads, "Number of threads must be positive.");
         this.data = Collections.unmodifiableList(new ArrayList<>(Utils.nonNull(data)));
+        this.numThreads = numThreads;
     }
 
     /**
@@ -135,20 +162,25 @@ public final class KernelSegmenter<DATA> {
         logger.debug(String.format("Finding up to %d changepoints in %d data points...", maxNumChangepoints, data.size()));
         final RandomGenerator rng = RandomGeneratorFactory.createRandomGenerator(new Random(RANDOM_SEED));
 
-        logger.debug("Calculating low-rank approximation to kernel matrix...");
-        final RealMatrix reducedObservationMatrix = calculateReducedObservationMatrix(rng, data, kernel, kernelApproximationDimension);
-        final double[] kernelApproximationDiagonal = calculateKernelApproximationDiagonal(reducedObservationMatrix);
-
-        logger.debug(String.format("Finding changepoint candidates for all window sizes %s...", windowSizes.toString()));
-        final List<Integer> changepointCandidates = findChangepointCandidates(
-                data, reducedObservationMatrix, kernelApproximationDiagonal, maxNumChangepoints, windowSizes);
-
-        logger.debug("Performing backward model selection on changepoint candidates...");
-        return selectChangepoints(
-                changepointCandidates, maxNumChangepoints, numChangepointsPenaltyLinearFactor, numChangepointsPenaltyLogLinearFactor,
-                reducedObservationMatrix, kernelApproximationDiagonal).stream()
-                .sorted((a, b) -> changepointSortOrder.equals(ChangepointSortOrder.INDEX) ? Integer.compare(a, b) : 0)    //if BACKWARD_SELECTION, simply retain original order from backward model selection
-                .collect(Collectors.toList());
+        final ForkJoinPool pool = new ForkJoinPool(numThreads);
+        try {
+            logger.debug("Calculating low-rank approximation to kernel matrix...");
+            final double[][] reducedObservationMatrix = calculateReducedObservationMatrix(pool, rng, data, kernel, kernelApproximationDimension);
+            final double[] kernelApproximationDiagonal = calculateKernelApproximationDiagonal(reducedObservationMatrix);
+
+            logger.debug(String.format("Finding changepoint candidates for all window sizes %s...", windowSizes.toString()));
+            final List<Integer> changepointCandidates = findChangepointCandidates(
+                    pool, reducedObservationMatrix, kernelApproximationDiagonal, maxNumChangepoints, windowSizes);
+
+            logger.debug("Performing backward model selection on changepoint candidates...");
+            return selectChangepoints(
+                    pool, changepointCandidates, maxNumChangepoints, numChangepointsPenaltyLinearFactor, numChangepointsPenaltyLogLinearFactor,
+                    reducedObservationMatrix, kernelApproximationDiagonal).stream()
+                    .sorted((a, b) -> changepointSortOrder.equals(ChangepointSortOrder.INDEX) ? Integer.compare(a, b) : 0)    //if BACKWARD_SELECTION, simply retain original order from backward model selection
+                    .collect(Collectors.toList());
+        } finally {
+            pool.shutdown();
+        }
     }
 
     private static final class Segment {
@@ -166,7 +198,7 @@ public final class KernelSegmenter<DATA> {
 
         private Segment(final int start,
                         final int end,
-                        final RealMatrix reducedObservationMatrix,
+                        final double[][] reducedObservationMatrix,
                         final double[] kernelApproximationDiagonal) {
             this(start, end, calculateSegmentCost(start, end, reducedObservationMatrix, kernelApproximationDiagonal).C);
         }
@@ -191,7 +223,8 @@ public final class KernelSegmenter<DATA> {
     }
 
     //calculates the N x p reduced observation matrix, defined as Z in equation preceding Eq. 14 in https://hal.inria.fr/hal-01413230/document
-    private static <DATA> RealMatrix calculateReducedObservationMatrix(final RandomGenerator rng,
+    private static <DATA> double[][] calculateReducedObservationMatrix(final ForkJoinPool pool,
+                                                                       final RandomGenerator rng,
                                                                        final List<DATA> data,
                                                                        final BiFunction<DATA, DATA, Double> kernel,
                                                                        final int kernelApproximationDimension) {
@@ -226,58 +259,90 @@ public final class KernelSegmenter<DATA> {
         //calculate reduced observation matrix
         logger.debug(String.format("Calculating reduced observation matrix (%d x %d)...", data.size(), numSubsample));
         final double[] invSqrtSingularValues = Arrays.stream(svd.getSingularValues()).map(Math::sqrt).map(x -> 1. / (x + EPSILON)).toArray();
-        final RealMatrix subKernelUMatrix = new Array2DRowRealMatrix(numSubsample, numSubsample);
-        subKernelUMatrix.walkInOptimizedOrder(new DefaultRealMatrixChangingVisitor() {
-            @Override
-            public double visit(int i, int j, double value) {
-                return svd.getU().getEntry(i, j) * invSqrtSingularValues[j];
+        final RealMatrix svdU = svd.getU();
+        final double[][] subKernelUMatrix = new double[numSubsample][numSubsample];
+        for (int i = 0; i < numSubsample; i++) {
+            for (int j = 0; j < numSubsample; j++) {
+                subKernelUMatrix[i][j] = svdU.getEntry(i, j) * invSqrtSingularValues[j];
             }
-        });
-        final RealMatrix reducedKernelMatrix = new Array2DRowRealMatrix(data.size(), numSubsample);
-        reducedKernelMatrix.walkInOptimizedOrder(new DefaultRealMatrixChangingVisitor() {
-            @Override
-            public double visit(int i, int j, double value) {
-                return kernel.apply(data.get(i), dataSubsample.get(j));
+        }
+
+        //each row of the reduced kernel matrix is calculated and multiplied by subKernelUMatrix in turn, so the N x p
+        //reduced kernel matrix is never held in memory; the products are accumulated in i-k-j order, which only
+        //streams through contiguous rows, but adds terms for each entry in the same order as a naive product
+        final double[][] reducedObservationMatrix = new double[data.size()][];
+        mapRowBlocks(pool, data.size(), (from, to) -> {
+            final double[] reducedKernelRow = new double[numSubsample];
+            for (int i = from; i < to; i++) {
+                final DATA point = data.get(i);
+                for (int k = 0; k < numSubsample; k++) {
+                    reducedKernelRow[k] = kernel.apply(point, dataSubsample.get(k));
+                }
+                final double[] row = new double[numSubsample];
+                for (int k = 0; k < numSubsample; k++) {
+                    final double reducedKernelEntry = reducedKernelRow[k];
+                    final double[] subKernelURow = subKernelUMatrix[k];
+                    for (int j = 0; j < numSubsample; j++) {
+                        row[j] += reducedKernelEntry * subKernelURow[j];
+                    }
+                }
+                reducedObservationMatrix[i] = row;
             }
         });
-        return reducedKernelMatrix.multiply(subKernelUMatrix);
+        return reducedObservationMatrix;
     }
 
     //for N x p matrix Z_ij, returns the N-dimensional vector sum(Z_ij * Z_ij, j = 0,..., p - 1),
     //which are the diagonal elements K_ii of the approximate kernel matrix
-    private static double[] calculateKernelApproximationDiagonal(final RealMatrix reducedObservationMatrix) {
-        return new IndexRange(0, reducedObservationMatrix.getRowDimension())
-                .mapToDouble(i -> MathUtils.square(reducedObservationMatrix.getRowVector(i).getNorm()));
+    private static double[] calculateKernelApproximationDiagonal(final double[][] reducedObservationMatrix) {
+        return new IndexRange(0, reducedObservationMatrix.length)
+                .mapToDouble(i -> {
+                    double sumOfSquares = 0.;
+                    for (final double z : reducedObservationMatrix[i]) {
+                        sumOfSquares += z * z;
+                    }
+                    return MathUtils.square(Math.sqrt(sumOfSquares));   //square of the row norm, as in previous versions
+                });
     }
 
     //finds indices of changepoint candidates from all window sizes
-    private static <DATA> List<Integer> findChangepointCandidates(final List<DATA> data,
-                                                                  final RealMatrix reducedObservationMatrix,
-                                                                  final double[] kernelApproximationDiagonal,
-                                                                  final int maxNumChangepoints,
-                                                                  final List<Integer> windowSizes) {
-        final List<Integer> changepointCandidates = new ArrayList<>(windowSizes.size() * maxNumChangepoints);
-
-        //for each window size, calculate local changepoint costs at each point and add maxNumChangepoints candidates
-        //(this is overkill, but we cannot guarantee that the most significant maxNumChangepoints changepoints
-        //do not all appear at only a single window size)
+    private static List<Integer> findChangepointCandidates(final ForkJoinPool pool,
+                                                           final double[][] reducedObservationMatrix,
+                                                           final double[] kernelApproximationDiagonal,
+                                                           final int maxNumChangepoints,
+                                                           final List<Integer> windowSizes) {
+        final int numData = reducedObservationMatrix.length;
+        final List<Integer> validWindowSizes = new ArrayList<>(windowSizes.size());
         for (final int windowSize : windowSizes) {
-            logger.debug(String.format("Calculating local changepoints costs for window size %d...", windowSize));
-            if (2 * windowSize > data.size()) {
+            if (2 * windowSize > numData) {
                 logger.warn(String.format("Number of points needed to calculate local changepoint costs (2 * window size = %d) " +
                         "exceeds number of data points (%d).  Local changepoint costs will not be calculated for this window size.",
-                        2 * windowSize, data.size()));
+                        2 * windowSize, numData));
                 continue;
             }
-            final double[] windowCosts = calculateWindowCosts(reducedObservationMatrix, kernelApproximationDiagonal, windowSize);
-
-            logger.debug(String.format("Finding local minima of local changepoint costs for window size %d...", windowSize));
-            final List<Integer> windowCostLocalMinima = new ArrayList<>(new PersistenceOptimizer(windowCosts).getMinimaIndices());
-            windowCostLocalMinima.remove(Integer.valueOf(0));                //remove first data point if present
-            windowCostLocalMinima.remove(Integer.valueOf(data.size() - 1));  //remove last data point if present
-            changepointCandidates.addAll(windowCostLocalMinima.subList(0, Math.min(maxNumChangepoints, windowCostLocalMinima.size())));
+            validWindowSizes.add(windowSize);
         }
 
+        //for each window size, calculate local changepoint costs at each point and add maxNumChangepoints candidates
+        //(this is overkill, but we cannot guarantee that the most significant maxNumChangepoints changepoints
+        //do not all appear at only a single window size); window sizes are handled in parallel,
+        //but candidates are added in the order of the window sizes
+        final List<List<Integer>> changepointCandidatesPerWindowSize = invoke(pool, () -> validWindowSizes.parallelStream()
+                .map(windowSize -> {
+                    logger.debug(String.format("Calculating local changepoints costs for window size %d...", windowSize));
+                    final double[] windowCosts = calculateWindowCosts(reducedObservationMatrix, kernelApproximationDiagonal, windowSize);
+
+                    logger.debug(String.format("Finding local minima of local changepoint costs for window size %d...", windowSize));
+                    final List<Integer> windowCostLocalMinima = new ArrayList<>(new PersistenceOptimizer(windowCosts).getMinimaIndices());
+                    windowCostLocalMinima.remove(Integer.valueOf(0));                //remove first data point if present
+                    windowCostLocalMinima.remove(Integer.valueOf(numData - 1));      //remove last data point if present
+                    return windowCostLocalMinima.subList(0, Math.min(maxNumChangepoints, windowCostLocalMinima.size()));
+                })
+                .collect(Collectors.toList()));
+
+        final List<Integer> changepointCandidates = new ArrayList<>(windowSizes.size() * maxNumChangepoints);
+        changepointCandidatesPerWindowSize.forEach(changepointCandidates::addAll);
+
         if (changepointCandidates.isEmpty()) {
             logger.warn("No changepoint candidates were found.  The specified window sizes may be inappropriate, or there may be insufficient data points.");
         }
@@ -287,38 +352,40 @@ public final class KernelSegmenter<DATA> {
 
     //performs backward model selection to order changepoints by increasing change to the global segmentation cost
     //and returns the requested number
-    private static List<Integer> selectChangepoints(final List<Integer> changepointCandidates,
+    private static List<Integer> selectChangepoints(final ForkJoinPool pool,
+                                                    final List<Integer> changepointCandidates,
                                                     final int maxNumChangepoints,
                                                     final double numChangepointsPenaltyLinearFactor,
                                                     final double numChangepointsPenaltyLogLinearFactor,
-                                                    final RealMatrix reducedObservationMatrix,
+                                                    final double[][] reducedObservationMatrix,
                                                     final double[] kernelApproximationDiagonal) {
         final List<Integer> changepoints = new ArrayList<>(changepointCandidates.size());
 
         //calculate penalties as a function of the number of changepoints
-        final int numData = reducedObservationMatrix.getRowDimension();
+        final int numData = reducedObservationMatrix.length;
         final List<Double> changepointPenalties = IntStream.range(0, maxNumChangepoints + 1)
                 .mapToObj(numChangepoints -> calculateChangepointPenalty(
                         numChangepoints, numChangepointsPenaltyLinearFactor, numChangepointsPenaltyLogLinearFactor, numData))
                 .collect(Collectors.toList());
 
-        //construct initial list of all segments and initialize costs
+        //construct initial list of all segments and initialize costs (the costs of the initial segments and
+        //adjacent pairs are independent, so we calculate them in parallel)
         final List<Integer> candidateStarts = changepointCandidates.stream().sorted().distinct()
                 .map(i -> Math.min(i + 1, numData - 1)).collect(Collectors.toList());
         candidateStarts.add(0, 0);
         final List<Integer> candidateEnds = changepointCandidates.stream().sorted().distinct().collect(Collectors.toList());
         candidateEnds.add(numData - 1);
         final int numSegments = candidateStarts.size();
-        final List<Segment> segments = IntStream.range(0, numSegments)
+        final List<Segment> segments = invoke(pool, () -> IntStream.range(0, numSegments).parallel()
                 .mapToObj(i -> new Segment(candidateStarts.get(i), candidateEnds.get(i), reducedObservationMatrix, kernelApproximationDiagonal))
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
         final List<Double> totalSegmentationCosts = new ArrayList<>(Collections.singletonList(segments.stream().mapToDouble(s -> s.cost).sum()));
         final List<Double> costsForSegmentPairs = IntStream.range(0, numSegments - 1)
                 .mapToObj(i -> segments.get(i).cost + segments.get(i + 1).cost)
                 .collect(Collectors.toList());  //sum of the costs for the segments in each adjacent pair
-        final List<Double> costsForMergedSegmentPairs = IntStream.range(0, numSegments - 1)
+        final List<Double> costsForMergedSegmentPairs = invoke(pool, () -> IntStream.range(0, numSegments - 1).parallel()
                 .mapToObj(i -> new Segment(candidateStarts.get(i), candidateEnds.get(i + 1), reducedObservationMatrix, kernelApproximationDiagonal).cost)
-                .collect(Collectors.toList());  //cost of each adjacent pair when considered as a single segment
+                .collect(Collectors.toList()));  //cost of each adjacent pair when considered as a single segment
         final List<Double> costsForMergingSegmentPairs = IntStream.range(0, numSegments - 1)
                 .mapToObj(i -> costsForSegmentPairs.get(i) - costsForMergedSegmentPairs.get(i))
                 .collect(Collectors.toList());  //cost for merging each adjacent pair into a single segment
@@ -390,32 +457,34 @@ public final class KernelSegmenter<DATA> {
      */
     private static Cost calculateSegmentCost(final int start,
                                              final int end,
-                                             final RealMatrix reducedObservationMatrix,
+                                             final double[][] reducedObservationMatrix,
                                              final double[] kernelApproximationDiagonal) {
-        final int N = reducedObservationMatrix.getRowDimension();
-        final int p = reducedObservationMatrix.getColumnDimension();
+        final int N = reducedObservationMatrix.length;
+        final int p = reducedObservationMatrix[start].length;
 
         //initialize quantities for recurrence
         double D = kernelApproximationDiagonal[start];
-        final double[] W = Arrays.copyOf(reducedObservationMatrix.getRow(start), p);
+        final double[] W = Arrays.copyOf(reducedObservationMatrix[start], p);
         double V = Arrays.stream(W).map(w -> w * w).sum();
 
-        //generate indices for iteration; we need to wrap around to beginning of data if start > end
-        final List<Integer> indices = start <= end 
-                ? IntStream.range(start + 1, end + 1).boxed().collect(Collectors.toList()) 
-                : IntStream.concat(IntStream.range(start + 1, N), IntStream.range(0, end + 1)).boxed().collect(Collectors.toList());
+        //we need to wrap around to beginning of data if start > end
+        final int numPoints = start <= end
+                ? end - start + 1
+                : N - start + end + 1;
 
         //use recurrence relations to iteratively calculate cost
-        for (final int tauPrime : indices) {
+        for (int n = 1; n < numPoints; n++) {
+            final int tauPrime = (start + n) % N;
+            final double[] Z = reducedObservationMatrix[tauPrime];
             D += kernelApproximationDiagonal[tauPrime];
             double ZdotW = 0.;
             for (int j = 0; j < p; j++) {
-                ZdotW += reducedObservationMatrix.getEntry(tauPrime, j) * W[j];
-                W[j] += reducedObservationMatrix.getEntry(tauPrime, j);
+                ZdotW += Z[j] * W[j];
+                W[j] += Z[j];
             }
             V += 2. * ZdotW + kernelApproximationDiagonal[tauPrime];
         }
-        final double C = D - V / (indices.size() + 1);
+        final double C = D - V / numPoints;
 
         return new Cost(D, W, V, C);
     }
@@ -434,11 +503,11 @@ public final class KernelSegmenter<DATA> {
      * @param kernelApproximationDiagonal   N diagonal terms of the low-rank approximation to the kernel matrix
      * @param windowSize                    number of points to include in either flanking segment when calculating cost
      */
-    private static double[] calculateWindowCosts(final RealMatrix reducedObservationMatrix,
+    private static double[] calculateWindowCosts(final double[][] reducedObservationMatrix,
                                                  final double[] kernelApproximationDiagonal,
                                                  final int windowSize) {
-        final int N = reducedObservationMatrix.getRowDimension();
-        final int p = reducedObservationMatrix.getColumnDimension();
+        final int N = reducedObservationMatrix.length;
+        final int p = reducedObservationMatrix[0].length;
 
         //initialize indices of the boundaries of the two flanking segments, wrapping around to beginning of data if necessary
         int center = 0;
@@ -476,21 +545,24 @@ public final class KernelSegmenter<DATA> {
         for (center = 0; center < N; center++) {
             final int centerNext = (center + 1) % N;
             final int endNext = (end + 1) % N;
+            final double[] ZStart = reducedObservationMatrix[start];
+            final double[] ZCenterNext = reducedObservationMatrix[centerNext];
+            final double[] ZEndNext = reducedObservationMatrix[endNext];
 
             //update quantities in left segment
             leftD -= kernelApproximationDiagonal[start];
             ZdotW = 0.;
             for (int j = 0; j < p; j++) {
-                ZdotW += reducedObservationMatrix.getEntry(start, j) * leftW[j];
-                leftW[j] -= reducedObservationMatrix.getEntry(start, j);
+                ZdotW += ZStart[j] * leftW[j];
+                leftW[j] -= ZStart[j];
             }
             leftV += -2. * ZdotW + kernelApproximationDiagonal[start];
 
             leftD += kernelApproximationDiagonal[centerNext];
             ZdotW = 0.;
             for (int j = 0; j < p; j++) {
-                ZdotW += reducedObservationMatrix.getEntry(centerNext, j) * leftW[j];
-                leftW[j] += reducedObservationMatrix.getEntry(centerNext, j);
+                ZdotW += ZCenterNext[j] * leftW[j];
+                leftW[j] += ZCenterNext[j];
             }
             leftV += 2. * ZdotW + kernelApproximationDiagonal[centerNext];
 
@@ -500,16 +572,16 @@ public final class KernelSegmenter<DATA> {
             rightD -= kernelApproximationDiagonal[centerNext];
             ZdotW = 0.;
             for (int j = 0; j < p; j++) {
-                ZdotW += reducedObservationMatrix.getEntry(centerNext, j) * rightW[j];
-                rightW[j] -= reducedObservationMatrix.getEntry(centerNext, j);
+                ZdotW += ZCenterNext[j] * rightW[j];
+                rightW[j] -= ZCenterNext[j];
             }
             rightV += -2. * ZdotW + kernelApproximationDiagonal[centerNext];
 
             rightD += kernelApproximationDiagonal[endNext];
             ZdotW = 0.;
             for (int j = 0; j < p; j++) {
-                ZdotW += reducedObservationMatrix.getEntry(endNext, j) * rightW[j];
-                rightW[j] += reducedObservationMatrix.getEntry(endNext, j);
+                ZdotW += ZEndNext[j] * rightW[j];
+                rightW[j] += ZEndNext[j];
             }
             rightV += 2. * ZdotW + kernelApproximationDiagonal[endNext];
 
@@ -519,16 +591,16 @@ public final class KernelSegmenter<DATA> {
             totalD -= kernelApproximationDiagonal[start];
             ZdotW = 0.;
             for (int j = 0; j < p; j++) {
-                ZdotW += reducedObservationMatrix.getEntry(start, j) * totalW[j];
-                totalW[j] -= reducedObservationMatrix.getEntry(start, j);
+                ZdotW += ZStart[j] * totalW[j];
+                totalW[j] -= ZStart[j];
             }
             totalV += -2. * ZdotW + kernelApproximationDiagonal[start];
 
             totalD += kernelApproximationDiagonal[endNext];
             ZdotW = 0.;
             for (int j = 0; j < p; j++) {
-                ZdotW += reducedObservationMatrix.getEntry(endNext, j) * totalW[j];
-                totalW[j] += reducedObservationMatrix.getEntry(endNext, j);
+                ZdotW += ZEndNext[j] * totalW[j];
+                totalW[j] += ZEndNext[j];
             }
             totalV += 2. * ZdotW + kernelApproximationDiagonal[endNext];
 
@@ -543,4 +615,34 @@ public final class KernelSegmenter<DATA> {
         }
         return windowCosts;
     }
+
+    /**
+     * Applies the function to the half-open row ranges [from, to) of consecutive blocks of {@link #ROW_BLOCK_SIZE} rows,
+     * in parallel on the given pool.
+     */
+    private static void mapRowBlocks(final ForkJoinPool pool,
+                                     final int numRows,
+                                     final BiConsumer<Integer, Integer> rowBlockFunction) {
+        final int numBlocks = (numRows + ROW_BLOCK_SIZE - 1) / ROW_BLOCK_SIZE;
+        invoke(pool, () -> {
+            IntStream.range(0, numBlocks).parallel()
+                    .forEach(b -> rowBlockFunction.accept(b * ROW_BLOCK_SIZE, Math.min(numRows, (b + 1) * ROW_BLOCK_SIZE)));
+            return null;
+        });
+    }
+
+    private static <T> T invoke(final ForkJoinPool pool,
+                                final Callable<T> task) {
+        try {
+            return pool.submit(task).get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted during kernel segmentation.", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new GATKException("Exception thrown during kernel segmentation.", e.getCause());
+        }
+    }
 }
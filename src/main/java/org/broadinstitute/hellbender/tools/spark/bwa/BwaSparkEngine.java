@@ -114,24 +114,26 @@ public final class BwaSparkEngine implements AutoCloseable {
         private final BwaMemIndex bwaMemIndex;
         private final SAMFileHeader readsHeader;
         private final boolean alignsPairs;
-
-        // assumes 128Mb partitions, with reads needing about 100bytes each when BAM compressed
-        private static final int READS_PER_PARTITION_GUESS = 1500000;
+        private final int nThreads;
 
         ReadAligner( final String indexFileName, final SAMFileHeader readsHeader, final boolean alignsPairs) {
-            this.bwaMemIndex = BwaMemIndexCache.getInstance(indexFileName);
-            this.readsHeader = readsHeader;
-            this.alignsPairs = alignsPairs;
             if ( alignsPairs && readsHeader.getSortOrder() != SAMFileHeader.SortOrder.queryname ) {
                 throw new UserException("Input must be queryname sorted unless you use single-ended alignment mode.");
             }
+            // all tasks in the executor share a single copy of the index
+            this.bwaMemIndex = BwaMemIndexCache.getInstanceForTask(indexFileName);
+            this.readsHeader = readsHeader;
+            this.alignsPairs = alignsPairs;
+            this.nThreads = BwaMemBatchIterator.getTaskThreadCount();
         }
 
         Iterator<GATKRead> apply( final Iterator<GATKRead> readItr ) {
-            final List<GATKRead> inputReads = new ArrayList<>(READS_PER_PARTITION_GUESS);
-            while ( readItr.hasNext() ) {
-                inputReads.add(readItr.next());
-            }
+            final BwaMemBatchIterator<GATKRead> batches =
+                    new BwaMemBatchIterator<>(readItr, GATKRead::getLength, BwaMemBatchIterator.BASES_PER_BATCH, alignsPairs);
+            return Utils.stream(batches).flatMap(batch -> alignBatch(batch).stream()).iterator();
+        }
+
+        private List<GATKRead> alignBatch( final List<GATKRead> inputReads ) {
             final int nReads = inputReads.size();
             if ( alignsPairs ) {
                 if ( (nReads & 1) != 0 ) {
@@ -145,14 +147,13 @@ public final class BwaSparkEngine implements AutoCloseable {
                     }
                 }
             }
+            final List<byte[]> seqs = new ArrayList<>(nReads);
+            for (final GATKRead read : inputReads) {
+                seqs.add(read.getBases());
+            }
             final List<List<BwaMemAlignment>> allAlignments;
-            if ( nReads == 0 ) allAlignments = Collections.emptyList();
-            else {
-                final List<byte[]> seqs = new ArrayList<>(nReads);
-                for (final GATKRead read : inputReads) {
-                    seqs.add(read.getBases());
-                }
-                final BwaMemAligner aligner = new BwaMemAligner(bwaMemIndex);
+            try ( final BwaMemAligner aligner = new BwaMemAligner(bwaMemIndex) ) {
+                aligner.setNThreadsOption(nThreads);
                 // we are dealing with interleaved, paired reads.  tell BWA that they're paired.
                 if (alignsPairs) {
                     aligner.alignPairs();
@@ -179,7 +180,7 @@ public final class BwaSparkEngine implements AutoCloseable {
                     outputReads.add(rec);
                 }
             }
-            return outputReads.iterator();
+            return outputReads;
         }
     }
 }
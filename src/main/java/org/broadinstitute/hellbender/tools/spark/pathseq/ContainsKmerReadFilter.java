@@ -3,8 +3,6 @@ package org.broadinstitute.hellbender.tools.spark.pathseq;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
-import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerShort;
-import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerizer;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 
 /**
@@ -16,7 +14,7 @@ public class ContainsKmerReadFilter extends ReadFilter {
 
     private static final long serialVersionUID = 1L;
     private static volatile PSKmerCollection kmerLib = null; //Must be volatile for proper initialization
-    private final int kSize, kmerCountThreshold;
+    private final int kmerCountThreshold;
 
     public ContainsKmerReadFilter(final String kmerLibPath, final int kmerCountThreshold) {
         this.kmerCountThreshold = kmerCountThreshold;
@@ -29,21 +27,13 @@ public class ContainsKmerReadFilter extends ReadFilter {
                 }
             }
         }
-        kSize = kmerLib.kmerSize();
     }
 
     @Override
     public boolean test(final GATKRead read) {
-        final SVKmerizer kmers = new SVKmerizer(read.getBases(), kSize, 1, new SVKmerShort(kSize));
-        int numKmersFound = 0;
-        while (kmers.hasNext()) {
-            if (kmerLib.contains(((SVKmerShort)kmers.next()))) {
-                if (++numKmersFound >= kmerCountThreshold) {
-                    return false;
-                }
-            }
-        }
-        return true;
+        //A threshold of 0 still requires one kmer to be found
+        final int minKmersFound = Math.max(1, kmerCountThreshold);
+        return kmerLib.countKmersContained(read.getBases(), minKmersFound) < minKmersFound;
     }
 
     //Static variables can't be garbage collected until the object is unloaded
@@ -4,6 +4,7 @@ package org.broadinstitute.hellbender.tools.spark.pathseq;
 import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.SAMFlag;
 import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.bwa.*;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.read.SAMRecordToGATKReadAdapter;
@@ -24,7 +25,7 @@ public final class PSBwaAligner {
     private final boolean pairedAlignment;
 
     public PSBwaAligner(final PSBwaArgumentCollection bwaArgs, final boolean pairedAlignment) {
-        this.bwaIndex = BwaMemIndexCache.getInstance(bwaArgs.bwaImage);
+        this.bwaIndex = BwaMemIndexCache.getInstanceForTask(bwaArgs.bwaImage);
         this.bwaArgs = bwaArgs;
         this.pairedAlignment = pairedAlignment;
     }
@@ -56,37 +57,36 @@ public final class PSBwaAligner {
     }
 
     public Iterator<GATKRead> apply(final Iterator<GATKRead> itr, final SAMFileHeader header) {
-        //Create aligner and set options
-        final BwaMemAligner aligner = new BwaMemAligner(bwaIndex);
-        if (pairedAlignment) {
-            aligner.alignPairs();
-        }
-        aligner.setMaxXAHitsAltOption(bwaArgs.maxAlternateHits);
-        aligner.setMaxXAHitsOption(bwaArgs.maxAlternateHits);
-        aligner.setMinSeedLengthOption(bwaArgs.seedLength);
-        aligner.setOutputScoreThresholdOption(bwaArgs.scoreThreshold);
-        aligner.setNThreadsOption(bwaArgs.bwaThreads);
-
-        //Get list of reads on the partition
-        final List<GATKRead> reads = new ArrayList<>();
-        while (itr.hasNext()) {
-            reads.add(itr.next());
-        }
+        final int nThreads = Math.max(bwaArgs.bwaThreads, BwaMemBatchIterator.getTaskThreadCount());
+        final BwaMemBatchIterator<GATKRead> batches =
+                new BwaMemBatchIterator<>(itr, GATKRead::getLength, BwaMemBatchIterator.BASES_PER_BATCH, pairedAlignment);
+        return Utils.stream(batches).flatMap(batch -> alignBatch(batch, header, nThreads).stream()).iterator();
+    }
 
+    private List<GATKRead> alignBatch(final List<GATKRead> reads, final SAMFileHeader header, final int nThreads) {
         final int numReads = reads.size();
         if (pairedAlignment && numReads % 2 != 0) {
             throw new UserException.BadInput("Expected paired reads but there are an odd number");
         }
-        if (numReads == 0) {
-            return new ArrayList<GATKRead>(0).iterator();
+
+        //Create aligner, set options and align read sequences
+        final List<List<BwaMemAlignment>> alignments;
+        try (final BwaMemAligner aligner = new BwaMemAligner(bwaIndex)) {
+            if (pairedAlignment) {
+                aligner.alignPairs();
+            }
+            aligner.setMaxXAHitsAltOption(bwaArgs.maxAlternateHits);
+            aligner.setMaxXAHitsOption(bwaArgs.maxAlternateHits);
+            aligner.setMinSeedLengthOption(bwaArgs.seedLength);
+            aligner.setOutputScoreThresholdOption(bwaArgs.scoreThreshold);
+            aligner.setNThreadsOption(nThreads);
+            alignments = aligner.alignSeqs(reads, GATKRead::getBases);
         }
 
-        //Align read sequences
         final List<String> refNames = bwaIndex.getReferenceContigNames();
-        final List<List<BwaMemAlignment>> alignments = aligner.alignSeqs(reads, GATKRead::getBases);
-        for (int i = 0; i < reads.size(); i++) {
+        for (int i = 0; i < numReads; i++) {
             reads.set(i, applyAlignments(reads.get(i), alignments.get(i), refNames, header));
         }
-        return reads.iterator();
+        return reads;
     }
 }
\ No newline at end of file
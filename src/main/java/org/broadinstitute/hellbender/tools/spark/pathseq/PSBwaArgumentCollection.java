@@ -50,6 +50,7 @@ public final class PSBwaArgumentCollection implements Serializable {
             optional = true)
     public int scoreThreshold = 30;
 
+    // minimum number of BWA threads; tasks use at least as many threads as Spark reserves cores for them (spark.task.cpus)
     public final int bwaThreads = 1;
 
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import htsjdk.samtools.TextCigarCodec;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.utils.bwa.BwaMemAligner;
 import org.broadinstitute.hellbender.utils.bwa.BwaMemAlignment;
+import org.broadinstitute.hellbender.utils.bwa.BwaMemBatchIterator;
 import org.broadinstitute.hellbender.utils.bwa.BwaMemIndex;
 import org.broadinstitute.hellbender.utils.bwa.BwaMemIndexCache;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
@@ -26,7 +27,7 @@ public class PSBwaFilter {
 
     public PSBwaFilter(final String indexFileName, final int minIdent,
                        final int minSeedLength, final int numThreads, final boolean bPaired) {
-        this.bwaIndex = BwaMemIndexCache.getInstance(indexFileName);
+        this.bwaIndex = BwaMemIndexCache.getInstanceForTask(indexFileName);
         this.minIdent = minIdent;
         this.minSeedLength = minSeedLength;
         this.numThreads = numThreads;
@@ -44,7 +45,7 @@ public class PSBwaFilter {
         aligner.setMaxXAHitsOption(0);
         aligner.setMinSeedLengthOption(minSeedLength);
         aligner.setOutputScoreThresholdOption(0);
-        aligner.setNThreadsOption(numThreads);
+        aligner.setNThreadsOption(Math.max(numThreads, BwaMemBatchIterator.getTaskThreadCount()));
 
         //Collect reads
         final List<GATKRead> reads = new ArrayList<>();
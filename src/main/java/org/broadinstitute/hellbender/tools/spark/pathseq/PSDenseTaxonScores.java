@@ -0,0 +1,150 @@
+package org.broadinstitute.hellbender.tools.spark.pathseq;
+
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Taxonomic scores accumulated in primitive arrays indexed by the dense taxon indices of a {@link PSTaxonIndex}.
+ * <p>
+ *     Scoring reads this way gives the same scores as {@link PSScorer#computeTaxScores}, but a partition of any number
+ *     of reads reduces to a fixed number of arrays the size of the taxonomy, which can be merged without shuffling
+ *     per-taxon objects.
+ * </p>
+ */
+public final class PSDenseTaxonScores implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final double[] selfScores;
+    private final double[] descendentScores;
+    private final int[] totalReads;
+    private final int[] unambiguousReads;
+    private final Set<Integer> invalidTaxIds = new HashSet<>();
+
+    //Scratch space for de-duplicating the taxa of a hit and the union of their paths
+    private transient int[] marks;
+    private transient int currentMark;
+    private transient int[] hitIndices;
+
+    public PSDenseTaxonScores(final int numTaxa) {
+        Utils.validateArg(numTaxa >= 0, "Number of taxa must be non-negative");
+        selfScores = new double[numTaxa];
+        descendentScores = new double[numTaxa];
+        totalReads = new int[numTaxa];
+        unambiguousReads = new int[numTaxa];
+    }
+
+    /**
+     * Adds the scores of the reads in a hit. See {@link PSScorer#computeTaxScores} for the definitions of the scores.
+     */
+    public PSDenseTaxonScores addHit(final PSPathogenAlignmentHit hit, final PSTaxonIndex taxonIndex,
+                                     final boolean divideByGenomeLength) {
+        Utils.validateArg(taxonIndex.size() == selfScores.length, "Taxon index does not match the score arrays");
+        if (marks == null) {
+            marks = new int[selfScores.length];
+            hitIndices = new int[16];
+        }
+
+        //Unique hits that are in the tree and have a reference length
+        int numHits = 0;
+        nextMark();
+        for (final int taxId : hit.taxIDs) {
+            final int index = taxonIndex.indexOf(taxId);
+            if (index == PSTaxonIndex.NO_PARENT || taxonIndex.getReferenceLength(index) == 0) {
+                invalidTaxIds.add(taxId);
+            } else if (marks[index] != currentMark) {
+                marks[index] = currentMark;
+                if (numHits == hitIndices.length) {
+                    hitIndices = Arrays.copyOf(hitIndices, 2 * numHits);
+                }
+                hitIndices[numHits++] = index;
+            }
+        }
+        if (numHits == 0) {
+            return this;
+        }
+
+        //Unambiguous read scores for the lowest common ancestor and its ancestors
+        int lowestCommonAncestor = hitIndices[0];
+        for (int i = 1; i < numHits; i++) {
+            lowestCommonAncestor = taxonIndex.getLCA(lowestCommonAncestor, hitIndices[i]);
+        }
+        for (int node = lowestCommonAncestor; node != PSTaxonIndex.NO_PARENT; node = taxonIndex.getParent(node)) {
+            unambiguousReads[node] += hit.numMates;
+        }
+
+        //Scores normalized by genome length and degree of ambiguity, and reads that COULD belong to each node
+        nextMark();
+        for (int i = 0; i < numHits; i++) {
+            final int index = hitIndices[i];
+            double score = hit.numMates / (double) numHits;
+            if (divideByGenomeLength) score *= PSScorer.SCORE_GENOME_LENGTH_UNITS / taxonIndex.getReferenceLength(index);
+            selfScores[index] += score;
+            for (int node = taxonIndex.getParent(index); node != PSTaxonIndex.NO_PARENT; node = taxonIndex.getParent(node)) {
+                descendentScores[node] += score;
+            }
+            for (int node = index; node != PSTaxonIndex.NO_PARENT && marks[node] != currentMark; node = taxonIndex.getParent(node)) {
+                marks[node] = currentMark;
+                totalReads[node] += hit.numMates;
+            }
+        }
+        return this;
+    }
+
+    private void nextMark() {
+        if (currentMark == Integer.MAX_VALUE) {
+            Arrays.fill(marks, 0);
+            currentMark = 0;
+        }
+        currentMark++;
+    }
+
+    /**
+     * Adds the scores of another instance to this one.
+     */
+    public PSDenseTaxonScores merge(final PSDenseTaxonScores other) {
+        Utils.nonNull(other, "Cannot merge taxon scores with null");
+        Utils.validateArg(other.selfScores.length == selfScores.length, "Cannot merge taxon scores of different taxonomies");
+        for (int i = 0; i < selfScores.length; i++) {
+            selfScores[i] += other.selfScores[i];
+            descendentScores[i] += other.descendentScores[i];
+            totalReads[i] += other.totalReads[i];
+            unambiguousReads[i] += other.unambiguousReads[i];
+        }
+        invalidTaxIds.addAll(other.invalidTaxIds);
+        return this;
+    }
+
+    /**
+     * @return IDs of hits that were ignored because they were not in the tree or had a reference length of 0
+     */
+    public Set<Integer> getInvalidTaxIds() {
+        return invalidTaxIds;
+    }
+
+    /**
+     * Converts the scores of the taxa that were hit by at least one read into the form returned by
+     * {@link PSScorer#computeTaxScores}.
+     */
+    public Map<Integer, PSPathogenTaxonScore> toScoreMap(final PSTaxonIndex taxonIndex) {
+        Utils.validateArg(taxonIndex.size() == selfScores.length, "Taxon index does not match the score arrays");
+        final Map<Integer, PSPathogenTaxonScore> scores = new HashMap<>();
+        for (int i = 0; i < selfScores.length; i++) {
+            if (totalReads[i] > 0) {
+                final PSPathogenTaxonScore score = new PSPathogenTaxonScore();
+                score.setReferenceLength(taxonIndex.getReferenceLength(i));
+                score.addSelfScore(selfScores[i]);
+                score.addDescendentScore(descendentScores[i]);
+                score.addTotalReads(totalReads[i]);
+                score.addUnambiguousReads(unambiguousReads[i]);
+                scores.put(taxonIndex.getTaxId(i), score);
+            }
+        }
+        return scores;
+    }
+}
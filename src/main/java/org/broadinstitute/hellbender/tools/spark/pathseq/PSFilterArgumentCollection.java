@@ -15,6 +15,7 @@ import java.util.List;
 public final class PSFilterArgumentCollection implements Serializable {
 
     private static final long serialVersionUID = 1L;
+    // minimum number of BWA threads; tasks use at least as many threads as Spark reserves cores for them (spark.task.cpus)
     public final int bwaThreads = 1;
 
     public static final String KMER_FILE_PATH_LONG_NAME = "kmer-file";
@@ -0,0 +1,150 @@
+package org.broadinstitute.hellbender.tools.spark.pathseq;
+
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerShort;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerizer;
+import org.broadinstitute.hellbender.tools.spark.utils.LongBlockedBloomFilter;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Kmer filter backed by a cache-blocked Bloom filter, which encapsulates the filter, kmer size, and kmer mask.
+ * <p>
+ *     The filter is stored in a binary file that can be memory-mapped (see {@link #map}), so that all the tasks of an
+ *     executor share a single read-only copy through the OS page cache instead of each deserializing one on the heap.
+ * </p>
+ */
+public final class PSKmerBlockedBloomFilter extends PSKmerCollection {
+
+    private static final int METADATA_BYTES = Integer.BYTES + Long.BYTES + Double.BYTES;
+
+    private final LongBlockedBloomFilter kmerSet;
+    private final int kmerSize;
+    private final SVKmerShort kmerMask;
+    private final double falsePositiveProbability;
+
+    /**
+     * Note values in the Bloom filter should have been run through PSKmerCollection's canonicalizeAndMask()
+     */
+    public PSKmerBlockedBloomFilter(final LongBlockedBloomFilter maskedKmerBloomFilter, final int kmerSize, final SVKmerShort kmerMask,
+                                    final long numElements) {
+        this(maskedKmerBloomFilter, kmerSize, kmerMask, maskedKmerBloomFilter.getTheoreticalFPP(numElements));
+    }
+
+    private PSKmerBlockedBloomFilter(final LongBlockedBloomFilter maskedKmerBloomFilter, final int kmerSize, final SVKmerShort kmerMask,
+                                     final double falsePositiveProbability) {
+        Utils.nonNull(maskedKmerBloomFilter);
+        Utils.nonNull(kmerMask);
+        this.kmerSet = maskedKmerBloomFilter;
+        this.kmerSize = kmerSize;
+        this.kmerMask = kmerMask;
+        this.falsePositiveProbability = falsePositiveProbability;
+    }
+
+    /**
+     * Input should not be canonicalized/masked
+     */
+    @Override
+    public boolean contains(final SVKmerShort rawKmer) {
+        return kmerSet.contains(canonicalizeAndMask(rawKmer, kmerSize, kmerMask));
+    }
+
+    /**
+     * Canonicalizes and masks all the kmers of the sequence first, then probes the filter for all of them in one batch.
+     */
+    @Override
+    public int countKmersContained(final byte[] bases, final int maxCount) {
+        final long[] kmers = new long[Math.max(0, bases.length - kmerSize + 1)];
+        final SVKmerizer kmerizer = new SVKmerizer(bases, kmerSize, 1, new SVKmerShort(kmerSize));
+        int numKmers = 0;
+        while (kmerizer.hasNext()) {
+            kmers[numKmers++] = canonicalizeAndMask((SVKmerShort) kmerizer.next(), kmerSize, kmerMask);
+        }
+        return kmerSet.countContained(kmers, numKmers, maxCount);
+    }
+
+    @Override
+    public int kmerSize() {
+        return kmerSize;
+    }
+
+    @Override
+    public SVKmerShort getMask() {
+        return kmerMask;
+    }
+
+    @Override
+    public double getFalsePositiveProbability() {
+        return falsePositiveProbability;
+    }
+
+    /**
+     * Writes the kmer size, mask, false positive probability, and filter. The stream is not closed.
+     */
+    public void write(final OutputStream outputStream) throws IOException {
+        final DataOutputStream output = new DataOutputStream(outputStream);
+        output.writeInt(kmerSize);
+        output.writeLong(kmerMask.getLong());
+        output.writeDouble(falsePositiveProbability);
+        kmerSet.write(output);
+    }
+
+    /**
+     * Reads a filter written by {@link #write} onto the heap.
+     */
+    public static PSKmerBlockedBloomFilter read(final InputStream inputStream) throws IOException {
+        final DataInputStream input = new DataInputStream(inputStream);
+        final int kmerSize = input.readInt();
+        final SVKmerShort kmerMask = new SVKmerShort(input.readLong());
+        final double falsePositiveProbability = input.readDouble();
+        return new PSKmerBlockedBloomFilter(LongBlockedBloomFilter.read(input), kmerSize, kmerMask, falsePositiveProbability);
+    }
+
+    /**
+     * Memory-maps a filter written by {@link #write}.
+     */
+    public static PSKmerBlockedBloomFilter map(final Path path) throws IOException {
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final ByteBuffer metadata = ByteBuffer.allocate(METADATA_BYTES);
+            while (metadata.hasRemaining()) {
+                if (channel.read(metadata) < 0) {
+                    throw new IOException("Truncated kmer filter file " + path);
+                }
+            }
+            final DataInputStream input = new DataInputStream(new ByteArrayInputStream(metadata.array()));
+            final int kmerSize = input.readInt();
+            final SVKmerShort kmerMask = new SVKmerShort(input.readLong());
+            final double falsePositiveProbability = input.readDouble();
+            return new PSKmerBlockedBloomFilter(LongBlockedBloomFilter.map(channel, METADATA_BYTES), kmerSize, kmerMask, falsePositiveProbability);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PSKmerBlockedBloomFilter)) return false;
+
+        final PSKmerBlockedBloomFilter psKmerSet = (PSKmerBlockedBloomFilter) o;
+
+        if (kmerSize != psKmerSet.kmerSize) return false;
+        if (!kmerSet.equals(psKmerSet.kmerSet)) return false;
+        return kmerMask.equals(psKmerSet.kmerMask);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = kmerSet.hashCode();
+        result = 31 * result + kmerSize;
+        result = 31 * result + kmerMask.hashCode();
+        return result;
+    }
+}
@@ -1,6 +1,7 @@
 package org.broadinstitute.hellbender.tools.spark.pathseq;
 
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerShort;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerizer;
 
 /**
  * Classes that provide a way to test kmers for set membership and keep track of the kmer size and mask
@@ -12,6 +13,21 @@ public abstract class PSKmerCollection {
     abstract SVKmerShort getMask();
     abstract double getFalsePositiveProbability();
 
+    /**
+     * Counts the kmers of a sequence that are in the collection, stopping as soon as maxCount have been found.
+     * Bases should not be canonicalized/masked.
+     */
+    public int countKmersContained(final byte[] bases, final int maxCount) {
+        final SVKmerizer kmers = new SVKmerizer(bases, kmerSize(), 1, new SVKmerShort(kmerSize()));
+        int numKmersFound = 0;
+        while (numKmersFound < maxCount && kmers.hasNext()) {
+            if (contains((SVKmerShort) kmers.next())) {
+                numKmersFound++;
+            }
+        }
+        return numKmersFound;
+    }
+
     /**
      * Definition for the order of canonicalization and masking
      */
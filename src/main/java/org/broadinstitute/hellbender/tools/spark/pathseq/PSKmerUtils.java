@@ -5,17 +5,23 @@ import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.engine.GATKPath;
 import org.broadinstitute.hellbender.engine.spark.datasources.ReferenceFileSparkSource;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerShort;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerizer;
 import org.broadinstitute.hellbender.tools.spark.utils.LargeLongHopscotchSet;
+import org.broadinstitute.hellbender.tools.spark.utils.LongBlockedBloomFilter;
 import org.broadinstitute.hellbender.tools.spark.utils.LongBloomFilter;
 import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
 import org.broadinstitute.hellbender.utils.reference.ReferenceBases;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Map;
@@ -27,6 +33,7 @@ public class PSKmerUtils {
 
     public static final String HOPSCOTCH_SET_EXTENSION = ".hss";
     public static final String BLOOM_FILTER_EXTENSION = ".bfi";
+    public static final String BLOCKED_BLOOM_FILTER_EXTENSION = ".bbf";
     private static final Logger logger = LogManager.getLogger(PSKmerUtils.class);
 
     /**
@@ -101,6 +108,19 @@ public class PSKmerUtils {
         return bloomFilter;
     }
 
+    /**
+     * Converts a Collection of Lists of Longs into a cache-blocked Bloom filter
+     */
+    protected static LongBlockedBloomFilter longArrayCollectionToBlockedBloomFilter(final Collection<long[]> longs, final long numLongs, final double bloomFpp) {
+        final LongBlockedBloomFilter bloomFilter = new LongBlockedBloomFilter(numLongs, bloomFpp);
+        final ProgressCounter counter = new ProgressCounter(numLongs, 1e6, "million kmers", logger);
+        for (final long[] array : longs) {
+            bloomFilter.addAll(array);
+            counter.update(array.length);
+        }
+        return bloomFilter;
+    }
+
     /**
      * Writes an object to a URI using Kryo serialization.
      */
@@ -127,7 +147,38 @@ public class PSKmerUtils {
         writeKryoObject(bloomFilter, filePath);
     }
 
+    public static void writeKmerBlockedBloomFilter(final String uri, final PSKmerBlockedBloomFilter bloomFilter) {
+        String filePath = uri;
+        if (!uri.toLowerCase().endsWith(BLOCKED_BLOOM_FILTER_EXTENSION.toLowerCase())) {
+            filePath = filePath + BLOCKED_BLOOM_FILTER_EXTENSION;
+        }
+        try (final OutputStream output = new BufferedOutputStream(BucketUtils.createFile(filePath))) {
+            bloomFilter.write(output);
+        } catch (final IOException e) {
+            throw new UserException.CouldNotCreateOutputFile(filePath, "could not write kmer filter", e);
+        }
+    }
+
+    /**
+     * Reads a blocked Bloom filter, which is memory-mapped if it is on a local filesystem.
+     */
+    public static PSKmerBlockedBloomFilter readKmerBlockedBloomFilter(final String uri) {
+        try {
+            if (!BucketUtils.isRemoteStorageUrl(uri)) {
+                return PSKmerBlockedBloomFilter.map(new GATKPath(uri).toPath());
+            }
+            try (final InputStream input = new BufferedInputStream(BucketUtils.openFile(uri))) {
+                return PSKmerBlockedBloomFilter.read(input);
+            }
+        } catch (final IOException e) {
+            throw new UserException.CouldNotReadInputFile(uri, "could not read kmer filter", e);
+        }
+    }
+
     public static PSKmerCollection readKmerFilter(final String uri) {
+        if (uri.endsWith(BLOCKED_BLOOM_FILTER_EXTENSION)) {
+            return readKmerBlockedBloomFilter(uri);
+        }
         final Input input = new Input(BucketUtils.openFile(uri));
         final Kryo kryo = new Kryo();
         if (uri.endsWith(HOPSCOTCH_SET_EXTENSION)) {
@@ -24,6 +24,7 @@ public final class PSScoreArgumentCollection implements Serializable {
     public static final String DIVIDE_BY_GENOME_LENGTH_SHORT_NAME = DIVIDE_BY_GENOME_LENGTH_LONG_NAME;
     public static final String NOT_NORMALIZED_BY_KINGDOM_LONG_NAME = "not-normalized-by-kingdom";
     public static final String NOT_NORMALIZED_BY_KINGDOM_SHORT_NAME = NOT_NORMALIZED_BY_KINGDOM_LONG_NAME;
+    public static final String DENSE_TAXON_SCORES_LONG_NAME = "dense-taxon-scores";
     public static final String SCORE_READS_PER_PARTITION_LONG_NAME = "score-reads-per-partition-estimate";
     public static final String SCORE_READS_PER_PARTITION_SHORT_NAME = SCORE_READS_PER_PARTITION_LONG_NAME;
 
@@ -102,6 +103,17 @@ public final class PSScoreArgumentCollection implements Serializable {
             optional = true)
     public int readsPerPartitionEstimate = 200000;
 
+    /**
+     * Accumulates the scores of each Spark partition in arrays the size of the taxonomy, which are then merged, instead
+     * of shuffling a score object per taxon hit in each partition. This greatly reduces the shuffle for large samples
+     * scored against a large taxonomy, but each task holds a few arrays the size of the taxonomy in memory.
+     */
+    @Advanced
+    @Argument(doc = "Accumulate taxonomic scores in dense per-partition arrays",
+            fullName = DENSE_TAXON_SCORES_LONG_NAME,
+            optional = true)
+    public boolean denseTaxonScores = false;
+
     /**
      * If specified, records the following metrics:
      * <ul>
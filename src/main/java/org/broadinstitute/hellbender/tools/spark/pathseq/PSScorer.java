@@ -64,11 +64,18 @@ public final class PSScorer {
         //Compute taxonomic scores from the alignment hits
         final JavaRDD<PSPathogenAlignmentHit> alignmentHits = readHits.map(Tuple2::_2);
         final boolean divideByGenomeLength = scoreArgs.divideByGenomeLength; //To prevent serialization of PSScorer
-        final JavaPairRDD<Integer, PSPathogenTaxonScore> taxScoresRdd = alignmentHits
-                .mapPartitionsToPair(iter -> computeTaxScores(iter, taxonomyDatabaseBroadcast.value(), divideByGenomeLength));
+        Map<Integer, PSPathogenTaxonScore> taxScoresMap;
+        if (scoreArgs.denseTaxonScores) {
+            taxScoresMap = computeDenseTaxScores(ctx, alignmentHits, taxDB, divideByGenomeLength);
+        } else {
+            final JavaPairRDD<Integer, PSPathogenTaxonScore> taxScoresRdd = alignmentHits
+                    .mapPartitionsToPair(iter -> computeTaxScores(iter, taxonomyDatabaseBroadcast.value(), divideByGenomeLength));
+
+            //Reduce scores by taxon
+            taxScoresMap = new HashMap<>(taxScoresRdd.reduceByKey(PSPathogenTaxonScore::add).collectAsMap());
+        }
 
-        //Reduce scores by taxon and compute normalized scores
-        Map<Integer, PSPathogenTaxonScore> taxScoresMap = new HashMap<>(taxScoresRdd.reduceByKey(PSPathogenTaxonScore::add).collectAsMap());
+        //Compute normalized scores
         taxScoresMap = computeNormalizedScores(taxScoresMap, taxDB.tree, scoreArgs.notNormalizedByKingdom);
 
         //Write scores to file
@@ -337,6 +344,26 @@ public final class PSScorer {
         return taxIdsToScores.entrySet().stream().map(entry -> new Tuple2<>(entry.getKey(), entry.getValue())).iterator();
     }
 
+    /**
+     * Computes the same scores as {@link #computeTaxScores}, but reduces each partition into arrays indexed by taxon
+     * and merges the arrays with a tree aggregation, so that the data moved between executors is proportional to the
+     * size of the taxonomy rather than to the number of reads.
+     */
+    static Map<Integer, PSPathogenTaxonScore> computeDenseTaxScores(final JavaSparkContext ctx,
+                                                                    final JavaRDD<PSPathogenAlignmentHit> alignmentHits,
+                                                                    final PSTaxonomyDatabase taxonomyDatabase,
+                                                                    final boolean divideByGenomeLength) {
+        final PSTaxonIndex taxonIndex = new PSTaxonIndex(taxonomyDatabase.tree);
+        final Broadcast<PSTaxonIndex> taxonIndexBroadcast = ctx.broadcast(taxonIndex);
+        final PSDenseTaxonScores scores = alignmentHits.treeAggregate(new PSDenseTaxonScores(taxonIndex.size()),
+                (partitionScores, hit) -> partitionScores.addHit(hit, taxonIndexBroadcast.value(), divideByGenomeLength),
+                PSDenseTaxonScores::merge);
+        PSUtils.logItemizedWarning(logger, scores.getInvalidTaxIds(), "The following taxonomic ID hits were ignored because " +
+                "they either could not be found in the tree or had a reference length of 0 (this may happen when " +
+                "the catalog file, taxdump file, and/or pathogen reference are inconsistent)");
+        return scores.toScoreMap(taxonIndex);
+    }
+
     /**
      * Assigns scores normalized to 100%. For each taxon, its normalized score is own score divided by the sum
      * over all scores, plus the sum of its childrens' normalized scores. If normalizeByKingdom is true,
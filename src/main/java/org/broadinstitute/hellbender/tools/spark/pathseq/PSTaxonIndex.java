@@ -0,0 +1,116 @@
+package org.broadinstitute.hellbender.tools.spark.pathseq;
+
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Flattened, read-only copy of the structure of a {@link PSTree} in which every taxon is assigned a dense index
+ * between 0 and {@link #size()}. Parents, depths, and reference lengths are stored in primitive arrays so that scores
+ * can be accumulated in arrays indexed by taxon instead of maps keyed by taxonomic ID.
+ */
+public final class PSTaxonIndex implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final int NO_PARENT = -1;
+
+    private final int[] taxIds; //Sorted, so that the index of a taxonomic ID can be found by binary search
+    private final int[] parents;
+    private final int[] depths;
+    private final long[] referenceLengths;
+
+    public PSTaxonIndex(final PSTree tree) {
+        Utils.nonNull(tree);
+        taxIds = tree.getNodeIDs().stream().mapToInt(Integer::intValue).sorted().toArray();
+        parents = new int[taxIds.length];
+        referenceLengths = new long[taxIds.length];
+        for (int i = 0; i < taxIds.length; i++) {
+            final int parentId = tree.getParentOf(taxIds[i]);
+            if (parentId == PSTree.NULL_NODE) {
+                parents[i] = NO_PARENT;
+            } else {
+                parents[i] = indexOf(parentId);
+                if (parents[i] == NO_PARENT) {
+                    throw new UserException.BadInput("Parent node " + parentId + " not found in tree while getting path");
+                }
+            }
+            referenceLengths[i] = tree.getLengthOf(taxIds[i]);
+        }
+        depths = new int[taxIds.length];
+        Arrays.fill(depths, -1);
+        for (int i = 0; i < taxIds.length; i++) {
+            computeDepth(i);
+        }
+    }
+
+    /**
+     * Sets the depth of a node and all its ancestors whose depth is unknown, without recursion.
+     */
+    private void computeDepth(final int index) {
+        int node = index;
+        int numUnknown = 0;
+        while (node != NO_PARENT && depths[node] < 0) {
+            if (++numUnknown > taxIds.length) {
+                throw new UserException.BadInput("The tree contains a cycle at node " + taxIds[index]);
+            }
+            node = parents[node];
+        }
+        int depth = node == NO_PARENT ? numUnknown - 1 : depths[node] + numUnknown;
+        for (node = index; node != NO_PARENT && depths[node] < 0; node = parents[node]) {
+            depths[node] = depth--;
+        }
+    }
+
+    public int size() {
+        return taxIds.length;
+    }
+
+    /**
+     * @return the index of the taxon, or {@link #NO_PARENT} if it is not in the tree
+     */
+    public int indexOf(final int taxId) {
+        final int index = Arrays.binarySearch(taxIds, taxId);
+        return index >= 0 ? index : NO_PARENT;
+    }
+
+    public int getTaxId(final int index) {
+        return taxIds[index];
+    }
+
+    /**
+     * @return the index of the parent of the taxon at the given index, or {@link #NO_PARENT} for the root
+     */
+    public int getParent(final int index) {
+        return parents[index];
+    }
+
+    /**
+     * @return the number of ancestors of the taxon at the given index
+     */
+    public int getDepth(final int index) {
+        return depths[index];
+    }
+
+    public long getReferenceLength(final int index) {
+        return referenceLengths[index];
+    }
+
+    /**
+     * @return the index of the lowest common ancestor of the two taxa at the given indices
+     */
+    public int getLCA(int index1, int index2) {
+        while (depths[index1] > depths[index2]) {
+            index1 = parents[index1];
+        }
+        while (depths[index2] > depths[index1]) {
+            index2 = parents[index2];
+        }
+        while (index1 != index2) {
+            index1 = parents[index1];
+            index2 = parents[index2];
+        }
+        return index1;
+    }
+}
@@ -0,0 +1,358 @@
+package org.broadinstitute.hellbender.tools.spark.transforms.markduplicates;
+
+import com.esotericsoftware.kryo.DefaultSerializer;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.read.markduplicates.sparkrecords.*;
+import picard.sam.markduplicates.util.OpticalDuplicateFinder;
+import picard.sam.util.PhysicalLocation;
+import picard.sam.util.PhysicalLocationInt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Combiner used by MarkDuplicatesSpark to reduce all of the {@link MarkDuplicatesSparkRecord}s sharing a
+ * {@link ReadsKey} without materializing them as a group.
+ *
+ * Only the information needed to mark the group is retained:
+ * <ul>
+ *     <li>every passthrough record, since each of them is emitted,</li>
+ *     <li>whether an empty fragment was seen, and the best scoring fragment (or every fragment if the fragment
+ *     ends must be taken into account),</li>
+ *     <li>the best scoring pair, plus the read group, tile, x, y and orientation of every pair (and the names, if
+ *     optical duplicates are to be tagged) packed into primitive arrays for optical duplicate detection.</li>
+ * </ul>
+ *
+ * Physical locations are parsed from the read names as records are added, because the location fields of
+ * {@link TransientFieldPhysicalLocation} do not survive serialization.
+ */
+@DefaultSerializer(DuplicateGroup.Serializer.class)
+public final class DuplicateGroup {
+    private static final int INITIAL_CAPACITY = 2;
+
+    private final boolean keepAllFragments;
+    private final boolean keepPairNames;
+
+    private final List<MarkDuplicatesSparkRecord> passthroughs;
+    private boolean hasEmptyFragment;
+    private final List<MarkDuplicatesSparkRecord> fragments;
+
+    private Pair bestPair;
+    private int bestPairIndex = -1;
+    private int pairCount;
+    private int[] pairPartitionIndices;
+    private short[] pairReadGroups;
+    private short[] pairTiles;
+    private short[] pairXs;
+    private short[] pairYs;
+    private byte[] pairOrientations;
+    private String[] pairNames;
+
+    /**
+     * @param keepAllFragments whether to keep every fragment rather than just the best one
+     * @param keepPairNames whether to keep the name of every pair, which is needed to tag optical duplicates
+     */
+    public DuplicateGroup(final boolean keepAllFragments, final boolean keepPairNames) {
+        this(keepAllFragments, keepPairNames, INITIAL_CAPACITY);
+    }
+
+    private DuplicateGroup(final boolean keepAllFragments, final boolean keepPairNames, final int pairCapacity) {
+        this.keepAllFragments = keepAllFragments;
+        this.keepPairNames = keepPairNames;
+        this.passthroughs = new ArrayList<>(1);
+        this.fragments = new ArrayList<>(1);
+        pairPartitionIndices = new int[pairCapacity];
+        pairReadGroups = new short[pairCapacity];
+        pairTiles = new short[pairCapacity];
+        pairXs = new short[pairCapacity];
+        pairYs = new short[pairCapacity];
+        pairOrientations = new byte[pairCapacity];
+        pairNames = keepPairNames ? new String[pairCapacity] : null;
+    }
+
+    /**
+     * Add a single record to this group.
+     *
+     * @return this group
+     */
+    public DuplicateGroup add(final MarkDuplicatesSparkRecord record, final OpticalDuplicateFinder finder) {
+        Utils.nonNull(record);
+        switch (record.getType()) {
+            case PASSTHROUGH:
+                passthroughs.add(record);
+                break;
+            case EMPTY_FRAGMENT:
+                // fragments at a site with a non-fragment placeholder are never kept, so we can drop them now
+                hasEmptyFragment = true;
+                fragments.clear();
+                break;
+            case FRAGMENT:
+                if (!hasEmptyFragment) {
+                    addFragment((TransientFieldPhysicalLocation) record, finder);
+                }
+                break;
+            case PAIR:
+                addPair((Pair) record, finder);
+                break;
+            default:
+                throw new GATKException.ShouldNeverReachHereException("Unknown record type " + record.getType());
+        }
+        return this;
+    }
+
+    /**
+     * Merge another group with the same key into this one.
+     *
+     * @return this group
+     */
+    public DuplicateGroup merge(final DuplicateGroup other, final OpticalDuplicateFinder finder) {
+        Utils.nonNull(other);
+        passthroughs.addAll(other.passthroughs);
+
+        if (hasEmptyFragment || other.hasEmptyFragment) {
+            hasEmptyFragment = true;
+            fragments.clear();
+        } else {
+            // either group may have been deserialized, which loses the transient physical locations
+            fragments.forEach(f -> finder.addLocationInformation(f.getName(), (TransientFieldPhysicalLocation) f));
+            other.fragments.forEach(f -> addFragment((TransientFieldPhysicalLocation) f, finder));
+        }
+
+        if (other.pairCount > 0) {
+            ensurePairCapacity(pairCount + other.pairCount);
+            System.arraycopy(other.pairPartitionIndices, 0, pairPartitionIndices, pairCount, other.pairCount);
+            System.arraycopy(other.pairReadGroups, 0, pairReadGroups, pairCount, other.pairCount);
+            System.arraycopy(other.pairTiles, 0, pairTiles, pairCount, other.pairCount);
+            System.arraycopy(other.pairXs, 0, pairXs, pairCount, other.pairCount);
+            System.arraycopy(other.pairYs, 0, pairYs, pairCount, other.pairCount);
+            System.arraycopy(other.pairOrientations, 0, pairOrientations, pairCount, other.pairCount);
+            if (keepPairNames) {
+                System.arraycopy(other.pairNames, 0, pairNames, pairCount, other.pairCount);
+            }
+
+            if (bestPair != null) {
+                finder.addLocationInformation(bestPair.getName(), bestPair);
+            }
+            finder.addLocationInformation(other.bestPair.getName(), other.bestPair);
+            if (bestPair == null || MarkDuplicatesSparkUtils.PAIRED_ENDS_SCORE_COMPARATOR.compare(other.bestPair, bestPair) > 0) {
+                bestPair = other.bestPair;
+                bestPairIndex = pairCount + other.bestPairIndex;
+            }
+            pairCount += other.pairCount;
+        }
+        return this;
+    }
+
+    private void addFragment(final TransientFieldPhysicalLocation fragment, final OpticalDuplicateFinder finder) {
+        finder.addLocationInformation(fragment.getName(), fragment);
+        if (keepAllFragments) {
+            fragments.add(fragment);
+        } else if (fragments.isEmpty()) {
+            fragments.add(fragment);
+        } else if (MarkDuplicatesSparkUtils.PAIRED_ENDS_SCORE_COMPARATOR.compare(fragment, (TransientFieldPhysicalLocation) fragments.get(0)) > 0) {
+            fragments.set(0, fragment);
+        }
+    }
+
+    private void addPair(final Pair pair, final OpticalDuplicateFinder finder) {
+        finder.addLocationInformation(pair.getName(), pair);
+        ensurePairCapacity(pairCount + 1);
+        pairPartitionIndices[pairCount] = pair.getPartitionIndex();
+        pairReadGroups[pairCount] = pair.getReadGroup();
+        pairTiles[pairCount] = pair.getTile();
+        pairXs[pairCount] = (short) pair.getX();
+        pairYs[pairCount] = (short) pair.getY();
+        pairOrientations[pairCount] = pair.getOrientationForOpticalDuplicates();
+        if (keepPairNames) {
+            pairNames[pairCount] = pair.getName();
+        }
+        if (bestPair == null || MarkDuplicatesSparkUtils.PAIRED_ENDS_SCORE_COMPARATOR.compare(pair, bestPair) > 0) {
+            bestPair = pair;
+            bestPairIndex = pairCount;
+        }
+        pairCount++;
+    }
+
+    private void ensurePairCapacity(final int capacity) {
+        if (capacity <= pairPartitionIndices.length) {
+            return;
+        }
+        final int newCapacity = Math.max(capacity, pairPartitionIndices.length * 2);
+        pairPartitionIndices = Arrays.copyOf(pairPartitionIndices, newCapacity);
+        pairReadGroups = Arrays.copyOf(pairReadGroups, newCapacity);
+        pairTiles = Arrays.copyOf(pairTiles, newCapacity);
+        pairXs = Arrays.copyOf(pairXs, newCapacity);
+        pairYs = Arrays.copyOf(pairYs, newCapacity);
+        pairOrientations = Arrays.copyOf(pairOrientations, newCapacity);
+        if (keepPairNames) {
+            pairNames = Arrays.copyOf(pairNames, newCapacity);
+        }
+    }
+
+    /**
+     * @return the passthrough records of this group
+     */
+    public List<MarkDuplicatesSparkRecord> getPassthroughs() {
+        return Collections.unmodifiableList(passthroughs);
+    }
+
+    /**
+     * @return whether an empty fragment (i.e. the placeholder for a read with a mapped mate) was added to this group
+     */
+    public boolean hasEmptyFragment() {
+        return hasEmptyFragment;
+    }
+
+    /**
+     * @return the retained fragments: none if this group has an empty fragment, otherwise either the best fragment
+     * or all of the fragments depending on how this group was constructed
+     */
+    public List<MarkDuplicatesSparkRecord> getFragments() {
+        return Collections.unmodifiableList(fragments);
+    }
+
+    /**
+     * @return the number of pairs added to this group
+     */
+    public int getPairCount() {
+        return pairCount;
+    }
+
+    /**
+     * @return the best scoring pair, or {@code null} if this group contains no pairs
+     */
+    public Pair getBestPair() {
+        return bestPair;
+    }
+
+    /**
+     * @return the index of the best pair among {@link #getPairLocations()}, or -1 if this group contains no pairs
+     */
+    public int getBestPairIndex() {
+        return bestPairIndex;
+    }
+
+    /**
+     * @return the optical duplicate orientation of the pair at the given index
+     */
+    public byte getPairOrientation(final int index) {
+        Utils.validIndex(index, pairCount);
+        return pairOrientations[index];
+    }
+
+    /**
+     * @return the partition index of the pair at the given index
+     */
+    public int getPairPartitionIndex(final int index) {
+        Utils.validIndex(index, pairCount);
+        return pairPartitionIndices[index];
+    }
+
+    /**
+     * @return the name of the pair at the given index
+     */
+    public String getPairName(final int index) {
+        Utils.validate(keepPairNames, "pair names were not retained");
+        Utils.validIndex(index, pairCount);
+        return pairNames[index];
+    }
+
+    /**
+     * @return a newly allocated physical location for every pair in this group, in the order the pairs were added
+     */
+    public List<PhysicalLocation> getPairLocations() {
+        final List<PhysicalLocation> locations = new ArrayList<>(pairCount);
+        for (int i = 0; i < pairCount; i++) {
+            final PhysicalLocationInt location = new PhysicalLocationInt();
+            location.setReadGroup(pairReadGroups[i]);
+            location.setTile(pairTiles[i]);
+            location.setX(pairXs[i]);
+            location.setY(pairYs[i]);
+            locations.add(location);
+        }
+        return locations;
+    }
+
+    /**
+     * Kryo serializer writing the retained pair information as primitives.
+     */
+    public static final class Serializer extends com.esotericsoftware.kryo.Serializer<DuplicateGroup> {
+        @Override
+        public void write(final Kryo kryo, final Output output, final DuplicateGroup group) {
+            output.writeBoolean(group.keepAllFragments);
+            output.writeBoolean(group.keepPairNames);
+            output.writeBoolean(group.hasEmptyFragment);
+            writeRecords(kryo, output, group.passthroughs);
+            writeRecords(kryo, output, group.fragments);
+
+            output.writeInt(group.pairCount, true);
+            if (group.pairCount > 0) {
+                kryo.writeObject(output, group.bestPair);
+                output.writeInt(group.bestPairIndex, true);
+                for (int i = 0; i < group.pairCount; i++) {
+                    output.writeInt(group.pairPartitionIndices[i], true);
+                    output.writeShort(group.pairReadGroups[i]);
+                    output.writeShort(group.pairTiles[i]);
+                    output.writeShort(group.pairXs[i]);
+                    output.writeShort(group.pairYs[i]);
+                    output.writeByte(group.pairOrientations[i]);
+                    if (group.keepPairNames) {
+                        output.writeString(group.pairNames[i]);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public DuplicateGroup read(final Kryo kryo, final Input input, final Class<DuplicateGroup> klass) {
+            final boolean keepAllFragments = input.readBoolean();
+            final boolean keepPairNames = input.readBoolean();
+            final boolean hasEmptyFragment = input.readBoolean();
+            final List<MarkDuplicatesSparkRecord> passthroughs = readRecords(kryo, input);
+            final List<MarkDuplicatesSparkRecord> fragments = readRecords(kryo, input);
+
+            final int pairCount = input.readInt(true);
+            final DuplicateGroup group = new DuplicateGroup(keepAllFragments, keepPairNames, Math.max(pairCount, INITIAL_CAPACITY));
+            group.hasEmptyFragment = hasEmptyFragment;
+            group.passthroughs.addAll(passthroughs);
+            group.fragments.addAll(fragments);
+            if (pairCount > 0) {
+                group.bestPair = kryo.readObject(input, Pair.class);
+                group.bestPairIndex = input.readInt(true);
+                for (int i = 0; i < pairCount; i++) {
+                    group.pairPartitionIndices[i] = input.readInt(true);
+                    group.pairReadGroups[i] = input.readShort();
+                    group.pairTiles[i] = input.readShort();
+                    group.pairXs[i] = input.readShort();
+                    group.pairYs[i] = input.readShort();
+                    group.pairOrientations[i] = input.readByte();
+                    if (keepPairNames) {
+                        group.pairNames[i] = input.readString();
+                    }
+                }
+                group.pairCount = pairCount;
+            }
+            return group;
+        }
+
+        private static void writeRecords(final Kryo kryo, final Output output, final List<MarkDuplicatesSparkRecord> records) {
+            output.writeInt(records.size(), true);
+            records.forEach(record -> kryo.writeClassAndObject(output, record));
+        }
+
+        private static List<MarkDuplicatesSparkRecord> readRecords(final Kryo kryo, final Input input) {
+            final int size = input.readInt(true);
+            final List<MarkDuplicatesSparkRecord> records = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                records.add((MarkDuplicatesSparkRecord) kryo.readClassAndObject(input));
+            }
+            return records;
+        }
+    }
+}
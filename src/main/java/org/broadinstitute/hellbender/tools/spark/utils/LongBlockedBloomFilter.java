@@ -0,0 +1,338 @@
+package org.broadinstitute.hellbender.tools.spark.utils;
+
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVUtils;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Cache-blocked Bloom filter for primitive longs.
+ * <p>
+ *     Unlike {@link LongBloomFilter}, which sets bits anywhere in the filter, each value is first hashed to a single
+ *     512-bit (64-byte) block, and all of its hash functions set bits within that block. A lookup therefore touches one
+ *     cache line instead of one per hash function, at the cost of needing somewhat more bits for the same false positive
+ *     probability. See:
+ * </p>
+ * <p>
+ *     Putze, Sanders and Singler. 2009. Cache-, hash-, and space-efficient Bloom filters. Journal of Experimental
+ *     Algorithmics. 14, 4.4.
+ * </p>
+ * <p>
+ *     Filters can be written to a simple binary format with {@link #write} that can either be read onto the heap or
+ *     memory-mapped with {@link #map}, in which case the filter is read-only and shared by everything in the JVM that
+ *     maps the same file through the OS page cache.
+ * </p>
+ */
+public final class LongBlockedBloomFilter {
+
+    public static final int BLOCK_BITS = 512;
+    private static final int WORDS_PER_BLOCK = BLOCK_BITS / Long.SIZE;
+    private static final int BLOCK_BIT_MASK = BLOCK_BITS - 1;
+    // the indices of the bits set within a block are 9 bits wide and taken 7 at a time from a 64-bit hash, which is
+    // rehashed after every 7 indices
+    private static final int BLOCK_BIT_INDEX_SIZE = 9;
+    private static final int INDICES_PER_HASH = Long.SIZE / BLOCK_BIT_INDEX_SIZE;
+
+    private static final long FILE_MAGIC = 0x4742424C4F4F4D31L; // "GBBLOOM1"
+    private static final int HEADER_BYTES = 3 * Long.BYTES + Integer.BYTES;
+
+    // mapped files are split in segments of 2^27 longs (1GB), a multiple of the block size so blocks never span segments
+    private static final int SEGMENT_WORD_BITS = 27;
+    private static final long SEGMENT_WORD_MASK = (1L << SEGMENT_WORD_BITS) - 1;
+
+    private static final long HASH_SEED_2 = 0x6cebe6dca7f118a6L;
+
+    private final long numBlocks;
+    private final int numHashes;
+
+    // exactly one of these is non-null
+    private final long[] words;
+    private final LongBuffer[] mappedWords;
+
+    public LongBlockedBloomFilter(final long numElements, final double fpp) {
+        Utils.validateArg(numElements > 0, "Number of elements must be greater than 0");
+        Utils.validateArg(fpp > 0 && fpp < 1, "False positive probability must be between 0 and 1");
+        final int optimalNumberOfHashes = (int) Math.ceil(-Math.log(fpp) / Math.log(2));
+        this.numHashes = Math.max(1, optimalNumberOfHashes);
+
+        // start from the size of an unblocked filter, and grow it until the uneven load of the blocks is compensated
+        long blocks = (LongBloomFilter.getOptimalNumberOfBits(numElements, fpp) + BLOCK_BITS - 1) / BLOCK_BITS;
+        while (getTheoreticalFPP(numElements, blocks, numHashes) > fpp) {
+            blocks += Math.max(1, blocks / 20);
+        }
+        final long numWords = blocks * WORDS_PER_BLOCK;
+        if (numWords > Integer.MAX_VALUE - WORDS_PER_BLOCK) {
+            throw new GATKException("Could not create blocked Bloom filter with " + numWords * Long.SIZE + " bits");
+        }
+        this.numBlocks = blocks;
+        this.words = new long[(int) numWords];
+        this.mappedWords = null;
+    }
+
+    private LongBlockedBloomFilter(final long numBlocks, final int numHashes, final long[] words, final LongBuffer[] mappedWords) {
+        this.numBlocks = numBlocks;
+        this.numHashes = numHashes;
+        this.words = words;
+        this.mappedWords = mappedWords;
+    }
+
+    public long getNumBlocks() {
+        return numBlocks;
+    }
+
+    public int getNumHashes() {
+        return numHashes;
+    }
+
+    /**
+     * @return whether the filter is backed by a memory-mapped file, and therefore read-only.
+     */
+    public boolean isMapped() {
+        return mappedWords != null;
+    }
+
+    /**
+     * Theoretical false positive probability after inserting the given number of elements. Since the number of
+     * elements per block varies, this averages the false positive probability of a block over the Poisson distribution
+     * of its number of elements.
+     */
+    public double getTheoreticalFPP(final long numElements) {
+        return getTheoreticalFPP(numElements, numBlocks, numHashes);
+    }
+
+    private static double getTheoreticalFPP(final long numElements, final long numBlocks, final int numHashes) {
+        final double lambda = numElements / (double) numBlocks;
+        final int maxCount = (int) Math.ceil(lambda + 10 * Math.sqrt(lambda) + 10);
+        double logPoisson = -lambda;
+        double fpp = 0;
+        for (int count = 0; count <= maxCount; count++) {
+            if (count > 0) {
+                logPoisson += Math.log(lambda) - Math.log(count);
+            }
+            final double blockFpp = Math.pow(1.0 - Math.pow(1.0 - 1.0 / BLOCK_BITS, (double) numHashes * count), numHashes);
+            fpp += Math.exp(logPoisson) * blockFpp;
+        }
+        return fpp;
+    }
+
+    public boolean add(final long entryValue) {
+        Utils.validate(!isMapped(), "cannot add values to a memory-mapped filter");
+        final long blockStart = blockStart(entryValue);
+        long bitHash = SVUtils.fnvLong64(HASH_SEED_2, entryValue);
+        for (int i = 0; i < numHashes; i++) {
+            if (i > 0 && i % INDICES_PER_HASH == 0) {
+                bitHash = SVUtils.fnvLong64(HASH_SEED_2, bitHash);
+            }
+            final int bit = (int) (bitHash >>> (BLOCK_BIT_INDEX_SIZE * (i % INDICES_PER_HASH))) & BLOCK_BIT_MASK;
+            words[(int) blockStart + (bit >>> 6)] |= 1L << bit;
+        }
+        return true;
+    }
+
+    public void addAll(final long[] entryValues) {
+        for (final long val : entryValues) {
+            add(val);
+        }
+    }
+
+    public boolean contains(final long key) {
+        return blockContains(blockStart(key), SVUtils.fnvLong64(HASH_SEED_2, key));
+    }
+
+    public boolean containsAll(final long[] vals) {
+        for (final long val : vals) {
+            if (!contains(val))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Counts how many of the first {@code numKeys} keys are (probably) in the filter, stopping as soon as
+     * {@code maxCount} have been found.
+     * <p>
+     *     The block of every key is computed before any block is probed, so that the memory loads of consecutive probes
+     *     are independent of each other and can be overlapped by the CPU.
+     * </p>
+     *
+     * @return the number of keys found, which is at most {@code maxCount}.
+     */
+    public int countContained(final long[] keys, final int numKeys, final int maxCount) {
+        Utils.nonNull(keys);
+        Utils.validateArg(numKeys >= 0 && numKeys <= keys.length, "invalid number of keys");
+        final long[] blockStarts = new long[numKeys];
+        for (int k = 0; k < numKeys; k++) {
+            blockStarts[k] = blockStart(keys[k]);
+        }
+        int found = 0;
+        for (int k = 0; k < numKeys && found < maxCount; k++) {
+            if (blockContains(blockStarts[k], SVUtils.fnvLong64(HASH_SEED_2, keys[k]))) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private boolean blockContains(final long blockStart, final long hash2) {
+        long bitHash = hash2;
+        for (int i = 0; i < numHashes; i++) {
+            if (i > 0 && i % INDICES_PER_HASH == 0) {
+                bitHash = SVUtils.fnvLong64(HASH_SEED_2, bitHash);
+            }
+            final int bit = (int) (bitHash >>> (BLOCK_BIT_INDEX_SIZE * (i % INDICES_PER_HASH))) & BLOCK_BIT_MASK;
+            if ((word(blockStart + (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long blockStart(final long value) {
+        return Math.floorMod(SVUtils.fnvLong64(value), numBlocks) * WORDS_PER_BLOCK;
+    }
+
+    private long word(final long index) {
+        if (words != null) {
+            return words[(int) index];
+        }
+        return mappedWords[(int) (index >>> SEGMENT_WORD_BITS)].get((int) (index & SEGMENT_WORD_MASK));
+    }
+
+    /**
+     * Writes the filter in a format that can be read by {@link #read} or {@link #map}. The stream is not closed.
+     */
+    public void write(final OutputStream outputStream) throws IOException {
+        final DataOutputStream output = new DataOutputStream(outputStream);
+        output.writeLong(FILE_MAGIC);
+        output.writeLong(numBlocks);
+        output.writeInt(numHashes);
+        output.writeLong(numBlocks * WORDS_PER_BLOCK);
+        final long numWords = numBlocks * WORDS_PER_BLOCK;
+        for (long w = 0; w < numWords; w++) {
+            output.writeLong(word(w));
+        }
+        output.flush();
+    }
+
+    /**
+     * Reads a filter written by {@link #write} onto the heap.
+     */
+    public static LongBlockedBloomFilter read(final InputStream inputStream) throws IOException {
+        final DataInputStream input = new DataInputStream(inputStream);
+        if (input.readLong() != FILE_MAGIC) {
+            throw new IOException("Not a blocked Bloom filter file");
+        }
+        final long numBlocks = input.readLong();
+        final int numHashes = input.readInt();
+        final long numWords = input.readLong();
+        validateHeader(numBlocks, numHashes, numWords);
+        if (numWords > Integer.MAX_VALUE - WORDS_PER_BLOCK) {
+            throw new IOException("Blocked Bloom filter is too large to be read onto the heap; map it instead");
+        }
+        final long[] words = new long[(int) numWords];
+        for (int w = 0; w < words.length; w++) {
+            words[w] = input.readLong();
+        }
+        return new LongBlockedBloomFilter(numBlocks, numHashes, words, null);
+    }
+
+    /**
+     * Memory-maps a filter written by {@link #write}. The returned filter is read-only.
+     */
+    public static LongBlockedBloomFilter map(final Path path) throws IOException {
+        Utils.nonNull(path);
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return map(channel, 0);
+        }
+    }
+
+    /**
+     * Memory-maps a filter written by {@link #write} starting at the given position of a file. The returned filter is
+     * read-only and stays valid after the channel is closed.
+     */
+    public static LongBlockedBloomFilter map(final FileChannel channel, final long position) throws IOException {
+        Utils.nonNull(channel);
+        channel.position(position);
+        final DataInputStream header = new DataInputStream(new ByteArrayInputStream(readFully(channel, HEADER_BYTES)));
+        if (header.readLong() != FILE_MAGIC) {
+            throw new IOException("Not a blocked Bloom filter file");
+        }
+        final long numBlocks = header.readLong();
+        final int numHashes = header.readInt();
+        final long numWords = header.readLong();
+        validateHeader(numBlocks, numHashes, numWords);
+        final long wordsStart = position + HEADER_BYTES;
+        if (channel.size() < wordsStart + numWords * Long.BYTES) {
+            throw new IOException("Truncated blocked Bloom filter file");
+        }
+
+        final int numSegments = (int) ((numWords + SEGMENT_WORD_MASK) >>> SEGMENT_WORD_BITS);
+        final LongBuffer[] segments = new LongBuffer[numSegments];
+        for (int s = 0; s < numSegments; s++) {
+            final long firstWord = (long) s << SEGMENT_WORD_BITS;
+            final long segmentWords = Math.min(SEGMENT_WORD_MASK + 1, numWords - firstWord);
+            segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, wordsStart + firstWord * Long.BYTES, segmentWords * Long.BYTES)
+                    .order(ByteOrder.BIG_ENDIAN).asLongBuffer();
+        }
+        return new LongBlockedBloomFilter(numBlocks, numHashes, null, segments);
+    }
+
+    private static byte[] readFully(final FileChannel channel, final int numBytes) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(numBytes);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Truncated blocked Bloom filter header");
+            }
+        }
+        return buffer.array();
+    }
+
+    private static void validateHeader(final long numBlocks, final int numHashes, final long numWords) throws IOException {
+        if (numBlocks <= 0 || numHashes <= 0 || numWords != numBlocks * WORDS_PER_BLOCK) {
+            throw new IOException("Invalid blocked Bloom filter header");
+        }
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LongBlockedBloomFilter)) return false;
+
+        final LongBlockedBloomFilter that = (LongBlockedBloomFilter) o;
+        if (numBlocks != that.numBlocks) return false;
+        if (numHashes != that.numHashes) return false;
+        if (words != null && that.words != null) {
+            return Arrays.equals(words, that.words);
+        }
+        final long numWords = numBlocks * WORDS_PER_BLOCK;
+        for (long w = 0; w < numWords; w++) {
+            if (word(w) != that.word(w)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (numBlocks ^ (numBlocks >>> 32));
+        result = 31 * result + numHashes;
+        final long numWords = numBlocks * WORDS_PER_BLOCK;
+        for (long w = 0; w < numWords; w++) {
+            final long word = word(w);
+            result = 31 * result + (int) (word ^ (word >>> 32));
+        }
+        return result;
+    }
+}
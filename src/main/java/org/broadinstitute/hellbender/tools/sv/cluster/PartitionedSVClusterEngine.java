@@ -0,0 +1,199 @@
+package org.broadinstitute.hellbender.tools.sv.cluster;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.tools.sv.SVLocatable;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * <p>Clusters coordinate-sorted items on multiple threads, producing the same clusters as a single
+ * {@link SVClusterEngine}.</p>
+ *
+ * <p>The input is split into independent partitions: a new partition begins on each new contig, and whenever an item
+ * starts beyond the max clusterable starting position of every previous item in the partition (see
+ * {@link SVClusterLinkage#getMaxClusterableStartingPosition(SVLocatable)}), since no item before such a gap can
+ * cluster with any item after it. Runs of consecutive partitions are clustered as tasks on a thread pool, each thread
+ * using its own engine, and the results are returned in input order. Output is therefore sorted as long as the
+ * collapser places each representative item within the span of its cluster's members, as all current collapsers do.</p>
+ *
+ * <p>The number of running and queued tasks is bounded, so that the items waiting to be clustered don't accumulate
+ * when input arrives faster than it can be clustered. Results are held until they are retrieved with {@link #flush()}
+ * or {@link #forceFlush()}.</p>
+ *
+ * <p>{@link #close()} waits for the clustering threads to stop, after which any resources used by the engines they
+ * created (e.g. reference readers) are no longer in use and may be closed by the caller.</p>
+ *
+ * @param <T> class of items to cluster
+ */
+public final class PartitionedSVClusterEngine<T extends SVLocatable> implements AutoCloseable {
+
+    public static final int DEFAULT_MIN_ITEMS_PER_TASK = 1000;
+
+    private final SVClusterLinkage<T> linkage;
+    private final ThreadLocal<SVClusterEngine<T>> threadEngines;
+    private final ExecutorService executorService;
+    private final int minItemsPerTask;
+    private final int maxTasksInFlight;
+    private final Deque<Future<List<T>>> tasksInFlight;
+
+    private List<T> currentTaskItems;
+    private String currentContig;
+    private int currentPartitionMaxClusterableStart;
+
+    /**
+     * @param linkage linkage used by the engines, which determines the partitions
+     * @param engineFactory creates an engine for each thread, using {@code linkage}. Engines must not share any state
+     *                      that is not thread-safe (e.g. a reference reader used by the collapser).
+     * @param numThreads number of clustering threads
+     */
+    public PartitionedSVClusterEngine(final SVClusterLinkage<T> linkage, final Supplier<SVClusterEngine<T>> engineFactory,
+                                      final int numThreads) {
+        this(linkage, engineFactory, numThreads, DEFAULT_MIN_ITEMS_PER_TASK);
+    }
+
+    /**
+     * @param linkage linkage used by the engines, which determines the partitions
+     * @param engineFactory creates an engine for each thread, using {@code linkage}. Engines must not share any state
+     *                      that is not thread-safe (e.g. a reference reader used by the collapser).
+     * @param numThreads number of clustering threads
+     * @param minItemsPerTask minimum number of items to batch into each task (tasks only end on partition boundaries)
+     */
+    public PartitionedSVClusterEngine(final SVClusterLinkage<T> linkage, final Supplier<SVClusterEngine<T>> engineFactory,
+                                      final int numThreads, final int minItemsPerTask) {
+        Utils.nonNull(linkage);
+        Utils.nonNull(engineFactory);
+        Utils.validateArg(numThreads > 0, "Number of threads must be positive");
+        Utils.validateArg(minItemsPerTask > 0, "Minimum number of items per task must be positive");
+        this.linkage = linkage;
+        this.threadEngines = ThreadLocal.withInitial(engineFactory);
+        this.executorService = Executors.newFixedThreadPool(numThreads, new ThreadFactoryBuilder()
+                .setNameFormat("svCluster-thread-%d")
+                .setDaemon(true)
+                .build());
+        this.minItemsPerTask = minItemsPerTask;
+        this.maxTasksInFlight = 2 * numThreads;
+        this.tasksInFlight = new ArrayDeque<>();
+        this.currentTaskItems = new ArrayList<>();
+        this.currentContig = null;
+        this.currentPartitionMaxClusterableStart = 0;
+    }
+
+    /**
+     * Adds the given item. Note that items must be added in order of increasing start position.
+     * @param item item to cluster
+     */
+    public void add(final T item) {
+        final boolean isNewPartition = !item.getContigA().equals(currentContig)
+                || item.getPositionA() > currentPartitionMaxClusterableStart;
+        final int maxClusterableStart = linkage.getMaxClusterableStartingPosition(item);
+        if (isNewPartition) {
+            if (currentTaskItems.size() >= minItemsPerTask) {
+                submitCurrentTask();
+            }
+            currentContig = item.getContigA();
+            currentPartitionMaxClusterableStart = maxClusterableStart;
+        } else {
+            currentPartitionMaxClusterableStart = Math.max(currentPartitionMaxClusterableStart, maxClusterableStart);
+        }
+        currentTaskItems.add(item);
+    }
+
+    /**
+     * Gets the clustered items of any tasks that have completed, without waiting for running tasks.
+     */
+    public List<T> flush() {
+        final List<T> result = new ArrayList<>();
+        while (!tasksInFlight.isEmpty() && tasksInFlight.peekFirst().isDone()) {
+            result.addAll(getResult(tasksInFlight.pollFirst()));
+        }
+        return result;
+    }
+
+    /**
+     * Clusters all items added so far, waiting for all tasks to complete, and returns the results.
+     */
+    public List<T> forceFlush() {
+        if (!currentTaskItems.isEmpty()) {
+            submitCurrentTask();
+        }
+        currentContig = null;
+        final List<T> result = new ArrayList<>();
+        while (!tasksInFlight.isEmpty()) {
+            result.addAll(getResult(tasksInFlight.pollFirst()));
+        }
+        return result;
+    }
+
+    /**
+     * Returns true if there are any items that have not yet been returned by a flush.
+     */
+    public boolean isEmpty() {
+        return currentTaskItems.isEmpty() && tasksInFlight.isEmpty();
+    }
+
+    /**
+     * Stops the clustering threads, discarding any items that have not been returned by a flush, and waits for them
+     * to terminate so that the resources used by their engines may be released.
+     */
+    @Override
+    public void close() {
+        executorService.shutdownNow();
+        boolean interrupted = false;
+        while (!executorService.isTerminated()) {
+            try {
+                executorService.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (final InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void submitCurrentTask() {
+        final List<T> items = currentTaskItems;
+        currentTaskItems = new ArrayList<>();
+        tasksInFlight.addLast(executorService.submit(() -> {
+            final SVClusterEngine<T> engine = threadEngines.get();
+            for (final T item : items) {
+                engine.add(item);
+            }
+            return engine.forceFlush();
+        }));
+        // Bound the number of items held by queued tasks by waiting for the oldest running tasks once too many are
+        // outstanding. Their results stay in the queue until they are flushed.
+        int numIncomplete = (int) tasksInFlight.stream().filter(task -> !task.isDone()).count();
+        final Iterator<Future<List<T>>> taskIterator = tasksInFlight.iterator();
+        while (numIncomplete > maxTasksInFlight) {
+            final Future<List<T>> task = taskIterator.next();
+            if (!task.isDone()) {
+                getResult(task);
+                numIncomplete--;
+            }
+        }
+    }
+
+    private List<T> getResult(final Future<List<T>> task) {
+        try {
+            return task.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while clustering", e);
+        } catch (final ExecutionException e) {
+            throw new GATKException("Exception thrown while clustering", e.getCause());
+        }
+    }
+}
@@ -41,6 +41,7 @@ public class SVClusterEngine<T extends SVLocatable> {
     private final SVClusterLinkage<T> linkage;
     private Map<Integer, Cluster> idToClusterMap; // Active clusters
     private final Map<Integer, T> idToItemMap; // Active items
+    private final ActiveItemIndex activeItemIndex; // Active items by max clusterable start
     protected final CLUSTERING_TYPE clusteringType;
     private final ItemSortingBuffer buffer;
     private final Comparator<T> itemComparator;
@@ -65,6 +66,7 @@ public class SVClusterEngine<T extends SVLocatable> {
         idToClusterMap = new HashMap<>();
         currentContig = null;
         idToItemMap = new HashMap<>();
+        activeItemIndex = new ActiveItemIndex();
         itemComparator = SVCallRecordUtils.getSVLocatableComparator(dictionary);
         buffer = new ItemSortingBuffer();
         nextItemId = 0;
@@ -76,10 +78,13 @@ public class SVClusterEngine<T extends SVLocatable> {
 
     /**
      * Flushes all active clusters, adding them to the output buffer. Results from the output buffer are then copied out
-     * and the buffer is cleared. This should be called between contigs to save memory.
+     * and the buffer is cleared. This should be called between contigs to save memory. Since no active clusters
+     * remain, the engine may subsequently be reused for items at any position.
      */
     public final List<T> forceFlush() {
         flushClusters();
+        currentContig = null;
+        lastStart = 0;
         return buffer.forceFlush();
     }
 
@@ -95,7 +100,6 @@ public class SVClusterEngine<T extends SVLocatable> {
         return collapser;
     }
 
-    @VisibleForTesting
     public SVClusterLinkage<T> getLinkage() {
         return linkage;
     }
@@ -136,6 +140,7 @@ public class SVClusterEngine<T extends SVLocatable> {
         lastStart = item.getPositionA();
         final int itemId = nextItemId++;
         idToItemMap.put(itemId, item);
+        activeItemIndex.add(itemId, linkage.getMaxClusterableStartingPosition(item));
         if (minActiveStartingPositionItemId == null || item.getPositionA() < getMinActiveStartingPositionItem().getPositionA()) {
             minActiveStartingPositionItemId = itemId;
         }
@@ -155,10 +160,9 @@ public class SVClusterEngine<T extends SVLocatable> {
      */
     private final List<Integer> cluster(final Integer itemId) {
         final T item = getItem(itemId);
-        // Get list of item IDs from active clusters that cluster with this item
-        final Set<Integer> linkedItems = idToClusterMap.values().stream().map(Cluster::getItemIds)
-                .flatMap(List::stream)
-                .distinct()
+        // Get list of item IDs from active clusters that cluster with this item, testing only those items that can
+        // still cluster with an item at this position
+        final Set<Integer> linkedItems = activeItemIndex.getCandidates(item.getPositionA()).stream()
                 .filter(other -> !other.equals(itemId) && linkage.areClusterable(item, getItem(other)))
                 .collect(Collectors.toCollection(LinkedHashSet::new));
 
@@ -273,6 +277,7 @@ public class SVClusterEngine<T extends SVLocatable> {
         if (clusterItemIds.size() == 1) {
             // Singletons won't be present in any other clusters
             idToItemMap.remove(clusterItemIds.get(0));
+            activeItemIndex.remove(clusterItemIds.get(0));
         } else {
             // Need to check that items aren't present in any other clusters
             final Set<Integer> activeItemIds = idToClusterMap.values().stream()
@@ -283,6 +288,7 @@ public class SVClusterEngine<T extends SVLocatable> {
                     .collect(Collectors.toList());
             for (final Integer i : itemsToRemove) {
                 idToItemMap.remove(i);
+                activeItemIndex.remove(i);
             }
         }
         // Update min active start position
@@ -325,6 +331,7 @@ public class SVClusterEngine<T extends SVLocatable> {
             processCluster(clusterId);
         }
         idToItemMap.clear();
+        activeItemIndex.clear();
         minActiveStartingPositionItemId = null;
         nextItemId = 0;
         nextClusterId = 0;
@@ -421,6 +428,50 @@ public class SVClusterEngine<T extends SVLocatable> {
         }
     }
 
+    /**
+     * Index of the active items by the interval of starting positions with which they can cluster, i.e. from their own
+     * start up to {@link SVClusterLinkage#getMaxClusterableStartingPosition(SVLocatable)}. Because items are added in
+     * order of increasing start, the items whose interval contains the start of a new item are just those whose max
+     * clusterable start is not less than it, so a candidate lookup is a tail query on a sorted map rather than a scan
+     * over every item of every active cluster.
+     */
+    private static final class ActiveItemIndex {
+        private final NavigableMap<Integer, Set<Integer>> maxClusterableStartToItemIds = new TreeMap<>();
+        private final Map<Integer, Integer> itemIdToMaxClusterableStart = new HashMap<>();
+
+        public void add(final int itemId, final int maxClusterableStart) {
+            maxClusterableStartToItemIds.computeIfAbsent(maxClusterableStart, k -> new HashSet<>()).add(itemId);
+            itemIdToMaxClusterableStart.put(itemId, maxClusterableStart);
+        }
+
+        public void remove(final int itemId) {
+            final Integer maxClusterableStart = itemIdToMaxClusterableStart.remove(itemId);
+            if (maxClusterableStart != null) {
+                final Set<Integer> itemIds = maxClusterableStartToItemIds.get(maxClusterableStart);
+                itemIds.remove(itemId);
+                if (itemIds.isEmpty()) {
+                    maxClusterableStartToItemIds.remove(maxClusterableStart);
+                }
+            }
+        }
+
+        public void clear() {
+            maxClusterableStartToItemIds.clear();
+            itemIdToMaxClusterableStart.clear();
+        }
+
+        /**
+         * Returns ids of all items that may cluster with an item starting at the given position
+         */
+        public List<Integer> getCandidates(final int start) {
+            final List<Integer> candidates = new ArrayList<>();
+            for (final Set<Integer> itemIds : maxClusterableStartToItemIds.tailMap(start, true).values()) {
+                candidates.addAll(itemIds);
+            }
+            return candidates;
+        }
+    }
+
     private final class ItemSortingBuffer {
         private SortedMultiset<T> buffer;
 
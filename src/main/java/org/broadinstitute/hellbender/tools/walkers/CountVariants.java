@@ -6,8 +6,11 @@ import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
 import org.broadinstitute.barclay.help.DocumentedFeature;
 import org.broadinstitute.hellbender.cmdline.argumentcollections.OptionalTextOutputArgumentCollection;
 import org.broadinstitute.hellbender.engine.*;
+import org.broadinstitute.hellbender.utils.variant.VariantFieldSelection;
 import picard.cmdline.programgroups.VariantEvaluationProgramGroup;
 
+import java.util.Collections;
+
 /**
  *
  * Count variant records in a VCF file, regardless of filter status. The tool prints the count to standard output
@@ -41,6 +44,12 @@ public final class CountVariants extends VariantWalker {
     @ArgumentCollection
     final public OptionalTextOutputArgumentCollection out = new OptionalTextOutputArgumentCollection();
 
+    // only the records themselves are counted, so neither INFO fields nor genotypes need to be decoded
+    @Override
+    protected VariantFieldSelection getDrivingVariantFieldSelection() {
+        return VariantFieldSelection.sitesOnly(Collections.emptySet());
+    }
+
     @Override
     public void apply(final VariantContext variant, final ReadsContext readsContext, final ReferenceContext referenceContext, final FeatureContext featureContext) {
         count++;
@@ -0,0 +1,170 @@
+package org.broadinstitute.hellbender.tools.walkers;
+
+import com.google.common.collect.AbstractIterator;
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.variant.variantcontext.VariantContext;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Streaming k-way merge of several single-sample (or disjoint-sample) GVCF record streams into the per-site groups
+ * of records that {@link GenotypeGVCFsEngine#callRegion} expects, without materializing a combined GVCF.
+ *
+ * Each source must be sorted in the order of the provided sequence dictionary. Sources are merged through a heap of
+ * source indices keyed on primitive (contig index, start) cursors for the next pending record of each source. Every
+ * record that has been reached stays "active" for its source until the merge moves past its end, so reference blocks
+ * are effectively split at the start of every variant record in any other source.
+ *
+ * A {@link MergedSite} is produced for every position at which at least one source has a record with a true
+ * alternate allele (i.e. anything besides the {@code <NON_REF>} allele) starting, and contains all active records
+ * from all sources that overlap that position. This mirrors the sites at which {@link CombineGVCFs} would emit a
+ * merged variant record.
+ */
+public final class GVCFSiteMergingIterator extends AbstractIterator<GVCFSiteMergingIterator.MergedSite> {
+
+    private static final int NO_CONTIG = -1;
+
+    private final List<? extends Iterator<VariantContext>> sources;
+    private final SAMSequenceDictionary dictionary;
+
+    // primitive cursors for the next not-yet-active record of each source
+    private final VariantContext[] pending;
+    private final int[] pendingContig;
+    private final int[] pendingStart;
+
+    // records from each source that have been reached by the merge, and may still overlap upcoming sites
+    private final List<List<VariantContext>> active;
+
+    private final PriorityQueue<Integer> heap;
+
+    /**
+     * @param sources one sorted iterator per input GVCF
+     * @param dictionary sequence dictionary defining the contig order of the sources
+     */
+    public GVCFSiteMergingIterator(final List<? extends Iterator<VariantContext>> sources, final SAMSequenceDictionary dictionary) {
+        Utils.nonEmpty(sources, "must provide at least one source of variants");
+        Utils.nonNull(dictionary, "a sequence dictionary is required to merge GVCFs");
+        this.sources = sources;
+        this.dictionary = dictionary;
+
+        final int numSources = sources.size();
+        pending = new VariantContext[numSources];
+        pendingContig = new int[numSources];
+        pendingStart = new int[numSources];
+        active = new ArrayList<>(numSources);
+        heap = new PriorityQueue<>(numSources, (i, j) -> pendingContig[i] != pendingContig[j] ?
+                Integer.compare(pendingContig[i], pendingContig[j]) : Integer.compare(pendingStart[i], pendingStart[j]));
+
+        for (int i = 0; i < numSources; i++) {
+            active.add(new ArrayList<>(2));
+            pendingContig[i] = NO_CONTIG;
+            advance(i);
+        }
+    }
+
+    @Override
+    protected MergedSite computeNext() {
+        while (!heap.isEmpty()) {
+            final int top = heap.peek();
+            final int contig = pendingContig[top];
+            final int start = pendingStart[top];
+            boolean variantStartsHere = false;
+
+            // activate every pending record (from any source) starting at this position
+            while (!heap.isEmpty() && pendingContig[heap.peek()] == contig && pendingStart[heap.peek()] == start) {
+                final int source = heap.poll();
+                final VariantContext vc = pending[source];
+                evictRecordsEndingBefore(source, contig, start);
+                active.get(source).add(vc);
+                variantStartsHere |= hasTrueAltAllele(vc);
+                advance(source);
+            }
+
+            if (variantStartsHere) {
+                final List<VariantContext> overlapping = new ArrayList<>(sources.size());
+                for (int source = 0; source < sources.size(); source++) {
+                    evictRecordsEndingBefore(source, contig, start);
+                    overlapping.addAll(active.get(source));
+                }
+                final String contigName = dictionary.getSequence(contig).getSequenceName();
+                return new MergedSite(new SimpleInterval(contigName, start, start), overlapping);
+            }
+        }
+        return endOfData();
+    }
+
+    /**
+     * Load the next record from the given source into the pending cursors, and push the source onto the heap if
+     * there was one.
+     */
+    private void advance(final int source) {
+        final Iterator<VariantContext> it = sources.get(source);
+        if (!it.hasNext()) {
+            pending[source] = null;
+            return;
+        }
+        final VariantContext vc = it.next();
+        final int contig = dictionary.getSequenceIndex(vc.getContig());
+        if (contig == NO_CONTIG) {
+            throw new UserException.BadInput(String.format("Contig %s of record at %s:%d is not present in the sequence dictionary",
+                    vc.getContig(), vc.getContig(), vc.getStart()));
+        }
+        if (contig < pendingContig[source] || (contig == pendingContig[source] && vc.getStart() < pendingStart[source])) {
+            throw new UserException.BadInput(String.format("Input GVCF %d is not sorted: record at %s:%d follows %s:%d",
+                    source, vc.getContig(), vc.getStart(), pending[source].getContig(), pendingStart[source]));
+        }
+        pending[source] = vc;
+        pendingContig[source] = contig;
+        pendingStart[source] = vc.getStart();
+        heap.add(source);
+    }
+
+    private void evictRecordsEndingBefore(final int source, final int contig, final int position) {
+        final List<VariantContext> records = active.get(source);
+        if (records.isEmpty()) {
+            return;
+        }
+        final String contigName = dictionary.getSequence(contig).getSequenceName();
+        records.removeIf(vc -> vc.getEnd() < position || !vc.getContig().equals(contigName));
+    }
+
+    private static boolean hasTrueAltAllele(final VariantContext vc) {
+        // GVCF records always carry the <NON_REF> allele, so more than two alleles means a real alternate allele
+        return vc.getNAlleles() > 2;
+    }
+
+    /**
+     * A single site at which at least one input has a variant record starting, together with all input records
+     * overlapping it.
+     */
+    public static final class MergedSite {
+        private final SimpleInterval locus;
+        private final List<VariantContext> variants;
+
+        MergedSite(final SimpleInterval locus, final List<VariantContext> variants) {
+            this.locus = locus;
+            this.variants = Collections.unmodifiableList(variants);
+        }
+
+        /**
+         * @return the single-base locus of this site
+         */
+        public SimpleInterval getLocus() {
+            return locus;
+        }
+
+        /**
+         * @return all input records overlapping this site, including reference blocks spanning it
+         */
+        public List<VariantContext> getVariants() {
+            return variants;
+        }
+    }
+}
@@ -78,6 +78,9 @@ import java.util.stream.Collectors;
  * programs produce files that they call GVCFs but those lack some important information (accurate genotype likelihoods
  * for every position) that GenotypeGVCFs requires for its operation.</li>
  *   <li>Cannot take multiple GVCF files in one command.</li>
+ *   <li>With `--threads` greater than 1, each worker thread opens its own reader over the input (including its own
+ * GenomicsDB query), the reference and any other feature inputs, so memory and open file usage scale with the number
+ * of threads.</li>
  *   <li>The amount of temporary disk storage required by GenomicsDBImport may exceed what is available in the default location: `/tmp`. The command line argument `--tmp-dir` can be used to specify an alternate temperary storage location with sufficient space.</li>
  * </ul>
  *
@@ -99,6 +102,9 @@ public final class GenotypeGVCFs extends VariantLocusWalker {
     public static final String KEEP_COMBINED_LONG_NAME = "keep-combined-raw-annotations";
     public static final String KEEP_COMBINED_SHORT_NAME = "keep-combined";
     public static final String FORCE_OUTPUT_INTERVALS_NAME = "force-output-intervals";
+    public static final String THREADS_LONG_NAME = "threads";
+    public static final String THREADED_SHARD_SIZE_LONG_NAME = "threaded-shard-size";
+    public static final int DEFAULT_THREADED_SHARD_SIZE = 1_000_000;
 
     @Argument(fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME, shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME,
             doc="File to which variants should be written", optional=false)
@@ -172,6 +178,19 @@ public final class GenotypeGVCFs extends VariantLocusWalker {
     @ArgumentCollection
     private final DbsnpArgumentCollection dbsnp = new DbsnpArgumentCollection();
 
+    /**
+     * When greater than 1, the traversal intervals are split into shards of --threaded-shard-size bases which are
+     * genotyped in parallel (see {@link VariantLocusWalker#changeTraversalModeToParallelShards}). Records are written
+     * in the same order as in single-threaded mode.
+     */
+    @Argument(fullName = THREADS_LONG_NAME, doc = "Number of threads to genotype with", optional = true, minValue = 1)
+    private int threads = 1;
+
+    @Advanced
+    @Argument(fullName = THREADED_SHARD_SIZE_LONG_NAME, doc = "Size in bases of the shards genotyped by each thread when --" + THREADS_LONG_NAME + " is greater than 1",
+            optional = true, minValue = 1)
+    private int threadedShardSize = DEFAULT_THREADED_SHARD_SIZE;
+
     // the annotation engine
     private VariantAnnotatorEngine annotationEngine;
 
@@ -188,6 +207,15 @@ public final class GenotypeGVCFs extends VariantLocusWalker {
 
     private GenotypeGVCFsEngine gvcfEngine;
 
+    // state needed to create additional genotyping engines when running with multiple threads
+    private VCFHeader inputVCFHeader;
+    private Collection<Annotation> variantAnnotations;
+    private Set<VCFHeaderLine> defaultToolVCFHeaderLines;
+    private boolean keepSB;
+
+    // genotyping engines of the worker threads, null when running on a single thread
+    private ThreadLocal<ThreadGenotypingEngines> threadEngines;
+
     /**
      * Get the largest interval per contig that contains the intervals specified on the command line.
      * @param getIntervals intervals to be transformed
@@ -249,8 +277,9 @@ public final class GenotypeGVCFs extends VariantLocusWalker {
         if (!(includeNonVariants || forceOutputIntervalsPresent)) {
             changeTraversalModeToByVariant();
         }
+        changeTraversalModeToParallelShards(threads, threadedShardSize);
 
-        final VCFHeader inputVCFHeader = getHeaderForVariants();
+        inputVCFHeader = getHeaderForVariants();
 
         if(onlyOutputCallsStartingInIntervals) {
             if( !hasUserSuppliedIntervals()) {
@@ -261,38 +290,75 @@ public final class GenotypeGVCFs extends VariantLocusWalker {
         intervals = hasUserSuppliedIntervals() ? intervalArgumentCollection.getIntervals(getBestAvailableSequenceDictionary()) :
                 Collections.emptyList();
 
-        Collection<Annotation>  variantAnnotations = makeVariantAnnotations();
+        variantAnnotations = makeVariantAnnotations();
         annotationEngine = new VariantAnnotatorEngine(variantAnnotations, dbsnp.dbsnp, Collections.emptyList(), false, keepCombined);
 
         merger = new ReferenceConfidenceVariantContextMerger(annotationEngine, getHeaderForVariants(), somaticInput, false, true);
 
         //methods that cannot be called in engine bc its protected
-        Set<VCFHeaderLine> defaultToolVCFHeaderLines = getDefaultToolVCFHeaderLines();
+        defaultToolVCFHeaderLines = getDefaultToolVCFHeaderLines();
         vcfWriter = createVCFWriter(outputFile);
 
         //create engine object
-        final boolean   keepSB = variantAnnotations.stream().map(a -> a.getClass().getSimpleName()).collect(Collectors.toList()).contains(StrandBiasBySample.class.getSimpleName());
+        keepSB = variantAnnotations.stream().map(a -> a.getClass().getSimpleName()).collect(Collectors.toList()).contains(StrandBiasBySample.class.getSimpleName());
         gvcfEngine = new GenotypeGVCFsEngine(annotationEngine, genotypeArgs, includeNonVariants, inputVCFHeader, keepSB);
 
         //call initialize method in engine class that creates VCFWriter object and writes a header to it
         vcfWriter = gvcfEngine.setupVCFWriter(defaultToolVCFHeaderLines, keepCombined, dbsnp, vcfWriter);
 
+        if (threads > 1) {
+            threadEngines = ThreadLocal.withInitial(ThreadGenotypingEngines::new);
+        }
+
     }
 
     @Override
     public void apply(final Locatable loc, List<VariantContext> variants, ReadsContext reads, ReferenceContext ref, FeatureContext features) {
+        final VariantContext regenotypedVC;
+        if (threadEngines == null) {
+            regenotypedVC = genotypeLocus(gvcfEngine, merger, loc, variants, ref, features);
+        } else {
+            final ThreadGenotypingEngines engines = threadEngines.get();
+            regenotypedVC = genotypeLocus(engines.engine, engines.merger, loc, variants, ref, features);
+        }
+        if (regenotypedVC != null) {
+            vcfWriter.add(regenotypedVC);
+        }
+    }
 
+    /**
+     * Genotype the variants at a single locus with the given engine and merger
+     * @return the regenotyped variant if it should be written to the output, otherwise null
+     */
+    private VariantContext genotypeLocus(final GenotypeGVCFsEngine engine, final ReferenceConfidenceVariantContextMerger locusMerger,
+                                         final Locatable loc, final List<VariantContext> variants, final ReferenceContext ref, final FeatureContext features) {
         final boolean inForceOutputIntervals = forceOutputIntervalsPresent && forceOutputIntervals.overlapsAny(loc);
         final boolean forceOutput = includeNonVariants || inForceOutputIntervals;
-        final VariantContext regenotypedVC = gvcfEngine.callRegion(loc, variants, ref, features, merger, somaticInput, tlodThreshold, afTolerance, forceOutput);
+        final VariantContext regenotypedVC = engine.callRegion(loc, variants, ref, features, locusMerger, somaticInput, tlodThreshold, afTolerance, forceOutput);
 
         if (regenotypedVC != null) {
             final SimpleInterval variantStart = new SimpleInterval(regenotypedVC.getContig(), regenotypedVC.getStart(), regenotypedVC.getStart());
             if ((forceOutput || !GATKVariantContextUtils.isSpanningDeletionOnly(regenotypedVC)) &&
                     (!onlyOutputCallsStartingInIntervals || intervals.stream().anyMatch(interval -> interval.contains (variantStart)))) {
-                vcfWriter.add(regenotypedVC);
+                return regenotypedVC;
             }
         }
+        return null;
+    }
+
+    /**
+     * The genotyping engine and merger of one worker thread when running with multiple threads, as neither is thread-safe
+     */
+    private final class ThreadGenotypingEngines {
+        private final GenotypeGVCFsEngine engine;
+        private final ReferenceConfidenceVariantContextMerger merger;
+
+        private ThreadGenotypingEngines() {
+            final VariantAnnotatorEngine threadAnnotationEngine = new VariantAnnotatorEngine(variantAnnotations, dbsnp.dbsnp, Collections.emptyList(), false, keepCombined);
+            merger = new ReferenceConfidenceVariantContextMerger(threadAnnotationEngine, inputVCFHeader, somaticInput, false, true);
+            engine = new GenotypeGVCFsEngine(threadAnnotationEngine, genotypeArgs, includeNonVariants, inputVCFHeader, keepSB);
+            engine.createOutputHeader(defaultToolVCFHeaderLines, keepCombined, dbsnp);
+        }
     }
 
     @Override
@@ -391,6 +391,17 @@ public class GenotypeGVCFsEngine
 
      */
     public VariantContextWriter setupVCFWriter(Set<VCFHeaderLine> defaultToolVCFHeaderLines, boolean keepCombined, DbsnpArgumentCollection dbsnp, VariantContextWriter vcfWriter) {
+        vcfWriter.writeHeader(createOutputHeader(defaultToolVCFHeaderLines, keepCombined, dbsnp));
+        return vcfWriter;
+    }
+
+    /**
+     * Create the output VCF header without writing it anywhere. Engines that share a writer with another engine
+     * (e.g. one engine per worker thread) must still call this so that they know the output header.
+     *
+     * @return the output VCF header
+     */
+    public VCFHeader createOutputHeader(Set<VCFHeaderLine> defaultToolVCFHeaderLines, boolean keepCombined, DbsnpArgumentCollection dbsnp) {
         final Set<VCFHeaderLine> headerLines = new LinkedHashSet<>(inputVCFHeader.getMetaDataInInputOrder());
         headerLines.addAll(defaultToolVCFHeaderLines);
 
@@ -416,9 +427,7 @@ public class GenotypeGVCFsEngine
 
         final Set<String> sampleNameSet = samples.asSetOfSamples();
         outputHeader = new VCFHeader(headerLines, new TreeSet<>(sampleNameSet));
-        vcfWriter.writeHeader(outputHeader);
-
-        return vcfWriter;
+        return outputHeader;
     }
 
 
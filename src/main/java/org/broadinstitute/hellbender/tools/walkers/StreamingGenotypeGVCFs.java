@@ -0,0 +1,235 @@
+package org.broadinstitute.hellbender.tools.walkers;
+
+import htsjdk.samtools.util.CloserUtil;
+import htsjdk.samtools.util.OverlapDetector;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.writer.VariantContextWriter;
+import htsjdk.variant.vcf.VCFHeader;
+import org.broadinstitute.barclay.argparser.Argument;
+import org.broadinstitute.barclay.argparser.ArgumentCollection;
+import org.broadinstitute.barclay.argparser.BetaFeature;
+import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
+import org.broadinstitute.barclay.help.DocumentedFeature;
+import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
+import org.broadinstitute.hellbender.cmdline.argumentcollections.DbsnpArgumentCollection;
+import org.broadinstitute.hellbender.cmdline.argumentcollections.MultiVariantInputArgumentCollection;
+import org.broadinstitute.hellbender.cmdline.programgroups.ShortVariantDiscoveryProgramGroup;
+import org.broadinstitute.hellbender.engine.FeatureContext;
+import org.broadinstitute.hellbender.engine.FeatureInput;
+import org.broadinstitute.hellbender.engine.GATKPath;
+import org.broadinstitute.hellbender.engine.GATKTool;
+import org.broadinstitute.hellbender.engine.MultiVariantDataSource;
+import org.broadinstitute.hellbender.engine.ReferenceContext;
+import org.broadinstitute.hellbender.engine.VariantWalkerBase;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.walkers.annotator.Annotation;
+import org.broadinstitute.hellbender.tools.walkers.annotator.StandardAnnotation;
+import org.broadinstitute.hellbender.tools.walkers.annotator.StrandBiasBySample;
+import org.broadinstitute.hellbender.tools.walkers.annotator.VariantAnnotatorEngine;
+import org.broadinstitute.hellbender.tools.walkers.genotyper.GenotypeCalculationArgumentCollection;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.iterators.PrefetchingIterator;
+import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Perform joint genotyping directly on a small cohort of per-sample GVCFs, without an intermediate combined GVCF
+ * or GenomicsDB workspace
+ *
+ * <p>
+ * For small cohorts (e.g. trios and families), this tool replaces the CombineGVCFs (or GenomicsDBImport) step
+ * followed by GenotypeGVCFs. The input GVCFs are read in parallel, one reader thread per input, and merged in a
+ * single streaming pass: reference blocks are split at the start of every variant in any sample, and the records
+ * overlapping each such site are handed directly to the same genotyping engine used by GenotypeGVCFs.
+ * </p>
+ *
+ * <h3>Input</h3>
+ * <p>
+ * Two or more GVCFs produced by HaplotypeCaller with `-ERC GVCF` or `-ERC BP_RESOLUTION`. Sample names must be unique
+ * across inputs.
+ * </p>
+ *
+ * <h3>Output</h3>
+ * <p>
+ * A final VCF in which all samples have been jointly genotyped.
+ * </p>
+ *
+ * <h3>Usage example</h3>
+ * <pre>
+ * gatk StreamingGenotypeGVCFs \
+ *   -R reference.fasta \
+ *   -V mother.g.vcf.gz \
+ *   -V father.g.vcf.gz \
+ *   -V child.g.vcf.gz \
+ *   -O trio.vcf.gz
+ * </pre>
+ *
+ * <h3>Caveats</h3>
+ * <ul>
+ *   <li>Every input is held open with its own reader thread, so this tool is intended for cohorts of tens of samples.
+ *   Use GenomicsDBImport followed by GenotypeGVCFs for larger cohorts.</li>
+ *   <li>Only variant sites are emitted; use GenotypeGVCFs with `--include-non-variant-sites` for all-sites output.</li>
+ * </ul>
+ */
+@CommandLineProgramProperties(summary = "Perform joint genotyping directly on a small cohort of per-sample HaplotypeCaller GVCFs, without combining them first",
+        oneLineSummary = "Perform joint genotyping directly on a small cohort of per-sample GVCFs",
+        programGroup = ShortVariantDiscoveryProgramGroup.class)
+@DocumentedFeature
+@BetaFeature
+public final class StreamingGenotypeGVCFs extends GATKTool {
+
+    public static final String DISABLE_READER_THREADS_LONG_NAME = "disable-reader-threads";
+
+    @ArgumentCollection
+    private final MultiVariantInputArgumentCollection inputArgs = new MultiVariantInputArgumentCollection.DefaultMultiVariantInputArgumentCollection();
+
+    @Argument(fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME, shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME,
+            doc="File to which variants should be written", optional=false)
+    private GATKPath outputFile;
+
+    /**
+     * If specified, keep the combined raw annotations (e.g. AS_SB_TABLE) after genotyping.  This is applicable to Allele-Specific annotations
+     */
+    @Argument(fullName=GenotypeGVCFs.KEEP_COMBINED_LONG_NAME, shortName = GenotypeGVCFs.KEEP_COMBINED_SHORT_NAME, doc = "If specified, keep the combined raw annotations")
+    private boolean keepCombined = false;
+
+    /**
+     * By default each input GVCF is decoded on its own thread. Use this to decode all inputs on the main thread instead.
+     */
+    @Argument(fullName = DISABLE_READER_THREADS_LONG_NAME, doc = "Decode all input GVCFs on the main thread", optional = true)
+    private boolean disableReaderThreads = false;
+
+    @ArgumentCollection
+    private GenotypeCalculationArgumentCollection genotypeArgs = new GenotypeCalculationArgumentCollection();
+
+    /**
+     * The rsIDs from this file are used to populate the ID column of the output.  Also, the DB INFO flag will be set
+     * when appropriate. Note that dbSNP is not used in any way for the genotyping calculations themselves.
+     */
+    @ArgumentCollection
+    private final DbsnpArgumentCollection dbsnp = new DbsnpArgumentCollection();
+
+    private MultiVariantDataSource gvcfs;
+
+    private ReferenceConfidenceVariantContextMerger merger;
+
+    private GenotypeGVCFsEngine gvcfEngine;
+
+    private VariantContextWriter vcfWriter;
+
+    private OverlapDetector<SimpleInterval> intervalFilter;
+
+    @Override
+    public boolean requiresReference() {
+        return true;
+    }
+
+    @Override
+    public boolean useVariantAnnotations() { return true;}
+
+    @Override
+    public List<Class<? extends Annotation>> getDefaultVariantAnnotationGroups() {
+        return Collections.singletonList(StandardAnnotation.class);
+    }
+
+    @Override
+    public String getProgressMeterRecordLabel() { return "sites"; }
+
+    @Override
+    public void onTraversalStart() {
+        final List<FeatureInput<VariantContext>> inputs = inputArgs.getDrivingVariantPaths().stream()
+                .map(path -> new FeatureInput<VariantContext>(path))
+                .distinct()
+                .collect(Collectors.toList());
+        if (inputs.size() != inputArgs.getDrivingVariantPaths().size()) {
+            throw new UserException.BadInput("Feature inputs must be unique");
+        }
+
+        gvcfs = new MultiVariantDataSource(inputs, VariantWalkerBase.DEFAULT_DRIVING_VARIANTS_LOOKAHEAD_BASES,
+                cloudPrefetchBuffer, cloudIndexPrefetchBuffer, referenceArguments.getReferencePath(),
+                !seqValidationArguments.performSequenceDictionaryValidation());
+        validateUniqueSamples(gvcfs.headersBySource());
+        if (hasUserSuppliedIntervals()) {
+            gvcfs.setIntervalsForTraversal(getTraversalIntervals());
+            intervalFilter = OverlapDetector.create(getTraversalIntervals());
+        }
+
+        final VCFHeader inputVCFHeader = new VCFHeader(gvcfs.getHeader().getMetaDataInInputOrder(), gvcfs.getSamples());
+
+        final Collection<Annotation> variantAnnotations = makeVariantAnnotations();
+        final VariantAnnotatorEngine annotationEngine = new VariantAnnotatorEngine(variantAnnotations, dbsnp.dbsnp, Collections.emptyList(), false, keepCombined);
+        merger = new ReferenceConfidenceVariantContextMerger(annotationEngine, inputVCFHeader, false, false, true);
+
+        final boolean keepSB = variantAnnotations.stream().anyMatch(a -> a instanceof StrandBiasBySample);
+        gvcfEngine = new GenotypeGVCFsEngine(annotationEngine, genotypeArgs, false, inputVCFHeader, keepSB);
+        vcfWriter = gvcfEngine.setupVCFWriter(getDefaultToolVCFHeaderLines(), keepCombined, dbsnp, createVCFWriter(outputFile));
+    }
+
+    /**
+     * The merged header holds each sample name once, so a sample present in several inputs would be silently collapsed.
+     */
+    private void validateUniqueSamples(final List<VCFHeader> headers) {
+        final Set<String> samples = new HashSet<>();
+        for (final VCFHeader header : headers) {
+            for (final String sample : header.getGenotypeSamples()) {
+                if (!samples.add(sample)) {
+                    throw new UserException.BadInput(String.format("Sample %s is present in more than one input GVCF. " +
+                            "Sample names must be unique across inputs.", sample));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void traverse() {
+        final List<Iterator<VariantContext>> sources = gvcfs.iteratorsBySource();
+        final List<PrefetchingIterator<VariantContext>> readers = new ArrayList<>(sources.size());
+        try {
+            if (!disableReaderThreads) {
+                for (int i = 0; i < sources.size(); i++) {
+                    readers.add(new PrefetchingIterator<>(sources.get(i), "gvcfReader-thread-" + i));
+                }
+            }
+
+            final GVCFSiteMergingIterator sites = new GVCFSiteMergingIterator(disableReaderThreads ? sources : readers,
+                    getBestAvailableSequenceDictionary());
+            while (sites.hasNext()) {
+                final GVCFSiteMergingIterator.MergedSite site = sites.next();
+                final SimpleInterval locus = site.getLocus();
+                if (intervalFilter != null && !intervalFilter.overlapsAny(locus)) {
+                    continue;
+                }
+
+                final VariantContext regenotypedVC = gvcfEngine.callRegion(locus, site.getVariants(),
+                        new ReferenceContext(directlyAccessEngineReferenceDataSource(), locus),
+                        new FeatureContext(features, locus), merger, false, 0.0, 0.0, false);
+                if (regenotypedVC != null && !GATKVariantContextUtils.isSpanningDeletionOnly(regenotypedVC)) {
+                    vcfWriter.add(regenotypedVC);
+                }
+                progressMeter.update(locus);
+            }
+        } finally {
+            // closing a reader stops its thread and closes its source, so only the sources without a reader are closed here
+            readers.forEach(PrefetchingIterator::close);
+            sources.subList(readers.size(), sources.size()).forEach(CloserUtil::close);
+        }
+    }
+
+    @Override
+    public void closeTool() {
+        if (vcfWriter != null) {
+            vcfWriter.close();
+        }
+        if (gvcfs != null) {
+            gvcfs.close();
+        }
+    }
+}
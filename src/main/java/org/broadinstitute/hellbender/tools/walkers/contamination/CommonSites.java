@@ -0,0 +1,172 @@
+package org.broadinstitute.hellbender.tools.walkers.contamination;
+
+import htsjdk.samtools.CigarElement;
+import htsjdk.samtools.CigarOperator;
+import org.broadinstitute.hellbender.utils.BaseUtils;
+import org.broadinstitute.hellbender.utils.IndexRange;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The common biallelic SNP sites of one contig used by the sparse-site mode of {@link GetPileupSummaries}, held in
+ * parallel primitive arrays sorted by position.
+ *
+ * Sites are processed in batches of nearby sites.  For each batch the overlapping reads are queried once and the bases
+ * at each site are tallied directly from the reads' cigars, giving the same counts as {@link PileupSummary#PileupSummary(htsjdk.variant.variantcontext.VariantContext, org.broadinstitute.hellbender.utils.pileup.ReadPileup)}
+ * without building a pileup.
+ */
+final class CommonSites {
+    private static final int INITIAL_CAPACITY = 1_000;
+
+    private final String contig;
+
+    private int[] positions = new int[INITIAL_CAPACITY];
+
+    // base indices as given by {@link BaseUtils#simpleBaseToBaseIndex}
+    private byte[] refBaseIndices = new byte[INITIAL_CAPACITY];
+
+    private byte[] altBaseIndices = new byte[INITIAL_CAPACITY];
+
+    private double[] alleleFrequencies = new double[INITIAL_CAPACITY];
+
+    private int size = 0;
+
+    CommonSites(final String contig) {
+        this.contig = Utils.nonNull(contig);
+    }
+
+    String getContig() { return contig; }
+
+    int size() { return size; }
+
+    boolean isEmpty() { return size == 0; }
+
+    int getPosition(final int index) { return positions[Utils.validIndex(index, size)]; }
+
+    /**
+     * Add a site, which must come after all sites added so far
+     */
+    void add(final int position, final byte refBase, final byte altBase, final double alleleFrequency) {
+        Utils.validateArg(size == 0 || position > positions[size - 1], "Sites must be added in order of increasing position.");
+        final int refBaseIndex = BaseUtils.simpleBaseToBaseIndex(refBase);
+        final int altBaseIndex = BaseUtils.simpleBaseToBaseIndex(altBase);
+        Utils.validateArg(refBaseIndex != -1 && altBaseIndex != -1, "Ref and alt bases must be one of A, C, G, T.");
+        if (size == positions.length) {
+            final int newCapacity = 2 * positions.length;
+            positions = Arrays.copyOf(positions, newCapacity);
+            refBaseIndices = Arrays.copyOf(refBaseIndices, newCapacity);
+            altBaseIndices = Arrays.copyOf(altBaseIndices, newCapacity);
+            alleleFrequencies = Arrays.copyOf(alleleFrequencies, newCapacity);
+        }
+        positions[size] = position;
+        refBaseIndices[size] = (byte) refBaseIndex;
+        altBaseIndices[size] = (byte) altBaseIndex;
+        alleleFrequencies[size] = alleleFrequency;
+        size++;
+    }
+
+    /**
+     * Partition the sites into batches of consecutive sites such that neighboring sites in a batch are at most
+     * {@code maxGap} bases apart and no batch has more than {@code maxSitesPerBatch} sites.
+     */
+    List<IndexRange> makeBatches(final int maxGap, final int maxSitesPerBatch) {
+        Utils.validateArg(maxGap >= 0, "maxGap must be non-negative.");
+        Utils.validateArg(maxSitesPerBatch > 0, "maxSitesPerBatch must be positive.");
+        final List<IndexRange> result = new ArrayList<>();
+        int batchStart = 0;
+        for (int n = 1; n <= size; n++) {
+            if (n == size || n - batchStart == maxSitesPerBatch || positions[n] - positions[n - 1] > maxGap) {
+                result.add(new IndexRange(batchStart, n));
+                batchStart = n;
+            }
+        }
+        return result;
+    }
+
+    SimpleInterval getInterval(final IndexRange batch) {
+        return new SimpleInterval(contig, positions[batch.getFrom()], positions[batch.getTo() - 1]);
+    }
+
+    /**
+     * Count the bases supporting the ref, alt, and other alleles at each site of a batch and emit a {@link PileupSummary}
+     * for each site covered by at least one read, counting only reads with sufficient mapping quality.
+     *
+     * @param reads reads overlapping the batch, sorted by alignment start
+     */
+    void summarizeBatch(final IndexRange batch, final Iterator<GATKRead> reads, final int minMappingQuality,
+                        final Consumer<PileupSummary> action) {
+        final int from = batch.getFrom();
+        final int to = batch.getTo();
+        final int numSites = to - from;
+        final int[] refCounts = new int[numSites];
+        final int[] altCounts = new int[numSites];
+        final int[] otherAltCounts = new int[numSites];
+        final boolean[] isCovered = new boolean[numSites];
+
+        // reads are sorted by start, so the first site a read can overlap never decreases
+        int firstSite = from;
+        while (reads.hasNext()) {
+            final GATKRead read = reads.next();
+            while (firstSite < to && positions[firstSite] < read.getStart()) {
+                firstSite++;
+            }
+            if (firstSite == to) {
+                break;
+            }
+            if (positions[firstSite] > read.getEnd()) {
+                continue;
+            }
+
+            final boolean isCounted = read.getMappingQuality() >= minMappingQuality;
+            int site = firstSite;
+            int refPosition = read.getStart();
+            int readOffset = 0;
+            for (final CigarElement element : read.getCigarElements()) {
+                final CigarOperator operator = element.getOperator();
+                final int length = element.getLength();
+                if (operator.consumesReferenceBases()) {
+                    final int elementEnd = refPosition + length - 1;
+                    for ( ; site < to && positions[site] <= elementEnd; site++) {
+                        // as in a pileup, sites in deletions are covered but have no base, and sites in skipped regions are not covered
+                        if (operator == CigarOperator.N) {
+                            continue;
+                        }
+                        isCovered[site - from] = true;
+                        if (!operator.consumesReadBases() || !isCounted) {
+                            continue;
+                        }
+                        final int baseIndex = BaseUtils.simpleBaseToBaseIndex(read.getBase(readOffset + positions[site] - refPosition));
+                        if (baseIndex == refBaseIndices[site]) {
+                            refCounts[site - from]++;
+                        } else if (baseIndex == altBaseIndices[site]) {
+                            altCounts[site - from]++;
+                        } else if (baseIndex != -1) {
+                            otherAltCounts[site - from]++;
+                        }
+                    }
+                    refPosition += length;
+                }
+                if (operator.consumesReadBases()) {
+                    readOffset += length;
+                }
+                if (site == to) {
+                    break;
+                }
+            }
+        }
+
+        for (int site = from; site < to; site++) {
+            if (isCovered[site - from]) {
+                action.accept(new PileupSummary(contig, positions[site], refCounts[site - from], altCounts[site - from],
+                        otherAltCounts[site - from], alleleFrequencies[site]));
+            }
+        }
+    }
+}
@@ -2,19 +2,25 @@ package org.broadinstitute.hellbender.tools.walkers.contamination;
 
 
 import htsjdk.samtools.SAMSequenceDictionary;
+import org.apache.commons.lang3.tuple.Pair;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
 import org.broadinstitute.hellbender.cmdline.CommandLineProgram;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
+import org.broadinstitute.hellbender.utils.BinaryTableWriter;
 import org.broadinstitute.hellbender.utils.reference.ReferenceUtils;
 import picard.cmdline.programgroups.DiagnosticsAndQCProgramGroup;
 
 import java.io.File;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
+/**
+ * Combine the outputs of {@link GetPileupSummaries} run over disjoint intervals, which may be text or binary tables.
+ * Each input is sorted and inputs do not overlap, so inputs are ordered by their first records and concatenated
+ * without sorting the records or reading any input in full more than once.  Outputs of this tool may themselves be gathered.
+ */
 @CommandLineProgramProperties(
         summary="Combine output files from GetPileupSummary in the order defined by a sequence dictionary",
         oneLineSummary = "Combine output files from GetPileupSummary in the order defined by a sequence dictionary",
@@ -27,7 +33,7 @@ public class GatherPileupSummaries extends CommandLineProgram {
     @Argument(fullName = StandardArgumentDefinitions.INPUT_SHORT_NAME, doc = "an output of PileupSummaryTable")
     final List<File> input = null;
 
-    @Argument(fullName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME, doc = "output")
+    @Argument(fullName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME, doc = "output, written in binary if its name ends in " + BinaryTableWriter.BINARY_TABLE_EXTENSION)
     final File output = null;
 
     SAMSequenceDictionary sequenceDictionary = null;
@@ -39,39 +45,18 @@ public class GatherPileupSummaries extends CommandLineProgram {
 
     @Override
     protected Object doWork() {
-        final List<File> nonEmptyFiles = removeEmptyFiles(input);
-        Collections.sort(nonEmptyFiles, new PileupSummaryFileComparator(sequenceDictionary));
-        PileupSummary.writeToFile(nonEmptyFiles, output);
-        return String.format("Successfully merged %d samples", nonEmptyFiles.size());
-    }
-
-    private List<File> removeEmptyFiles(final List<File> list){
-        final List<File> nonEmptyList = list.stream().filter(f -> PileupSummary.readFromFile(f).getRight().size() > 0)
+        // each file is sorted and files do not overlap, so it suffices to order the files by their first records
+        final PileupSummary.PileupSummaryComparator comparator = new PileupSummary.PileupSummaryComparator(sequenceDictionary);
+        final List<Pair<File, PileupSummary>> nonEmptyFiles = input.stream()
+                .map(file -> Pair.of(file, PileupSummary.readFirstRecord(file).getRight()))
+                .filter(pair -> pair.getRight() != null)
+                .sorted(Comparator.comparing(Pair::getRight, comparator))
                 .collect(Collectors.toList());
-        if (nonEmptyList.size() < list.size()){
-            logger.info(String.format("Removed %d empty samples", list.size() - nonEmptyList.size()));
-        }
-        return nonEmptyList;
-    }
-
-    /**
-     * Compare two PilupSummary files under the assumption that
-     *   1. PileupSummaries are already sorted within each file
-     *   2. Files do not overlap
-     */
-    private class PileupSummaryFileComparator implements Comparator<File> {
-        final SAMSequenceDictionary sequenceDictionary;
-
-        private PileupSummaryFileComparator(final SAMSequenceDictionary sequenceDictionary){
-            this.sequenceDictionary = sequenceDictionary;
+        if (nonEmptyFiles.size() < input.size()){
+            logger.info(String.format("Removed %d empty samples", input.size() - nonEmptyFiles.size()));
         }
 
-        @Override
-        public int compare(File file1, File file2) {
-            final PileupSummary ps1 = PileupSummary.readFromFile(file1).getRight().get(0);
-            final PileupSummary ps2 = PileupSummary.readFromFile(file2).getRight().get(0);
-
-            return new PileupSummary.PileupSummaryComparator(sequenceDictionary).compare(ps1, ps2);
-        }
+        PileupSummary.writeToFile(nonEmptyFiles.stream().map(Pair::getLeft).collect(Collectors.toList()), output);
+        return String.format("Successfully merged %d samples", nonEmptyFiles.size());
     }
 }
@@ -1,9 +1,11 @@
 package org.broadinstitute.hellbender.tools.walkers.contamination;
 
+import htsjdk.samtools.SamReaderFactory;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFConstants;
 import htsjdk.variant.vcf.VCFHeader;
 import org.broadinstitute.barclay.argparser.Argument;
+import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
 import org.broadinstitute.barclay.help.DocumentedFeature;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
@@ -12,16 +14,30 @@ import org.broadinstitute.hellbender.engine.*;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilterLibrary;
 import org.broadinstitute.hellbender.engine.filters.WellformedReadFilter;
+import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.transformers.ReadTransformer;
+import org.broadinstitute.hellbender.utils.BinaryTableWriter;
+import org.broadinstitute.hellbender.utils.IndexRange;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
 import org.broadinstitute.hellbender.utils.pileup.ReadPileup;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.read.ReadUtils;
-import org.broadinstitute.hellbender.utils.tsv.TableUtils;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * <p>Summarizes counts of reads that support reference, alternate and other alleles for given sites. Results can be used with {@link CalculateContamination}.</p>
@@ -100,6 +116,19 @@ import java.util.List;
  * file that have AF of 0.01 or more.
  * </p>
  *
+ * <p>
+ * By default the tool walks over every covered locus in the intervals.  When the sites are sparse compared to the
+ * reads, as with a common SNP resource and whole-genome or exome data, the {@code --sparse-sites} mode is faster.
+ * It loads the sites up front, queries the reads overlapping each batch of nearby sites directly, and counts alleles
+ * without building pileups.  Contigs may then be processed in parallel with {@code --threads}.  The output is the same
+ * in both modes, except that downsampling is not supported in sparse-site mode.
+ * </p>
+ *
+ * <p>
+ * If the output name ends in {@code .bin} the table is written in a binary format, which is smaller and faster to
+ * read.  {@link GatherPileupSummaries} and {@link CalculateContamination} accept either format.
+ * </p>
+ *
  */
 @CommandLineProgramProperties(
         summary = "Tabulates pileup metrics for inferring contamination",
@@ -114,14 +143,24 @@ public class GetPileupSummaries extends LocusWalker {
     public static final String MIN_SITE_AF_SHORT_NAME = "min-af";
     public static final String MIN_MAPPING_QUALITY_LONG_NAME = "min-mapping-quality";
     public static final String MIN_MAPPING_QUALITY_SHORT_NAME = "mmq";
+    public static final String SPARSE_SITES_LONG_NAME = "sparse-sites";
+    public static final String THREADS_LONG_NAME = "threads";
 
     private static final double DEFAULT_MIN_POPULATION_AF = 0.01;
     private static final double DEFAULT_MAX_POPULATION_AF = 0.2;
     private static final int DEFAULT_MINIMUM_MAPPING_QUALITY = 50;
 
+    // in sparse-site mode, nearby sites share a single query of the reads, which is cheaper than seeking to each site
+    // as long as the gap between sites is not much longer than the span of reads in a compressed block of the bam
+    private static final int MAX_GAP_BETWEEN_SITES_IN_BATCH = 1000;
+    private static final int MAX_SITES_PER_BATCH = 1000;
+
+    // sites are loaded from the variants in chunks of this size to avoid holding a whole contig's variants in memory
+    private static final int SITE_LOADING_CHUNK_SIZE = 1_000_000;
+
     @Argument(fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME,
             shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME,
-            doc="The output table", optional=false)
+            doc="The output table, written in binary if its name ends in " + BinaryTableWriter.BINARY_TABLE_EXTENSION, optional=false)
     private File outputTable;
 
     @Argument(fullName = StandardArgumentDefinitions.VARIANT_LONG_NAME, shortName = StandardArgumentDefinitions.VARIANT_SHORT_NAME, doc = "A VCF file containing variants and allele frequencies")
@@ -140,10 +179,16 @@ public class GetPileupSummaries extends LocusWalker {
     @Argument(fullName = MIN_MAPPING_QUALITY_LONG_NAME, shortName = MIN_MAPPING_QUALITY_SHORT_NAME, doc = "Minimum read mapping quality", optional = true)
     private int minMappingQuality = DEFAULT_MINIMUM_MAPPING_QUALITY;
 
+    @Argument(fullName = SPARSE_SITES_LONG_NAME, doc = "Query the reads at batches of nearby sites instead of traversing every covered locus", optional = true)
+    private boolean sparseSites = false;
+
+    @Argument(fullName = THREADS_LONG_NAME, doc = "Number of threads with which to process contigs in parallel in sparse-site mode", optional = true, minValue = 1)
+    private int numThreads = 1;
+
     private boolean sawVariantsWithoutAlleleFrequency = false;
     private boolean sawVariantsWithAlleleFrequency = false;
 
-    PileupSummary.PileupSummaryTableWriter writer;
+    PileupSummary.PileupSummaryOutput writer;
 
     @Override
     public boolean requiresReads() {
@@ -189,10 +234,15 @@ public class GetPileupSummaries extends LocusWalker {
             throw new UserException.BadInput("Population vcf does not have an allele frequency (AF) info field in its header.");
         }
 
+        if (!sparseSites && numThreads > 1) {
+            throw new CommandLineException.BadArgumentValue(THREADS_LONG_NAME, String.valueOf(numThreads), "multiple threads require --" + SPARSE_SITES_LONG_NAME);
+        } else if (sparseSites && maxDepthPerSample != 0) {
+            throw new CommandLineException.BadArgumentValue(MAX_DEPTH_PER_SAMPLE_NAME, String.valueOf(maxDepthPerSample), "downsampling is not supported with --" + SPARSE_SITES_LONG_NAME);
+        }
+
         try {
-            writer = new PileupSummary.PileupSummaryTableWriter(IOUtils.fileToPath(outputTable));
             final String sampleName = ReadUtils.getSamplesFromHeader(getHeaderForReads()).stream().findFirst().get();
-            writer.writeMetadata(TableUtils.SAMPLE_METADATA_TAG, sampleName);
+            writer = PileupSummary.PileupSummaryOutput.open(IOUtils.fileToPath(outputTable), sampleName);
         } catch (IOException ex) {
             throw new UserException.CouldNotCreateOutputFile(outputTable, ex);
         }
@@ -210,12 +260,127 @@ public class GetPileupSummaries extends LocusWalker {
         if ( vc.isBiallelic() && vc.isSNP() && alleleFrequencyInRange(vc) ) {
             final ReadPileup pileup = alignmentContext.getBasePileup()
                     .makeFilteredPileup(pe -> pe.getRead().getMappingQuality() >= minMappingQuality);
-            try {
-                writer.writeRecord(new PileupSummary(vc, pileup));
-            } catch (final IOException ex) {
-                throw new UserException(String.format("Encountered an IO exception while writing to %s", outputTable));
+            writeRecord(new PileupSummary(vc, pileup));
+        }
+    }
+
+    @Override
+    public void traverse() {
+        if (!sparseSites) {
+            super.traverse();
+            return;
+        }
+
+        final List<CommonSites> sitesByContig = loadCommonSites();
+        final SamReaderFactory factory = makeSamReaderFactory();
+        if (numThreads == 1) {
+            try (final ReadsPathDataSource readsSource = new ReadsPathDataSource(readArguments.getReadPaths(), readArguments.getReadIndexPaths(), factory)) {
+                sitesByContig.forEach(sites -> summarizeSites(sites, readsSource, this::writeRecordAndUpdateProgress));
+            }
+            return;
+        }
+
+        // each thread needs its own reader, and results are written in contig order as soon as they are available
+        final Collection<ReadsPathDataSource> readsSources = new Vector<>(numThreads);
+        final ThreadLocal<ReadsPathDataSource> threadReadsSource = ThreadLocal.withInitial(() -> {
+            final ReadsPathDataSource result = new ReadsPathDataSource(readArguments.getReadPaths(), readArguments.getReadIndexPaths(), factory);
+            readsSources.add(result);
+            return result;
+        });
+        final ForkJoinPool pool = new ForkJoinPool(numThreads);
+        try {
+            final List<ForkJoinTask<List<PileupSummary>>> tasks = sitesByContig.stream()
+                    .map(sites -> pool.submit(() -> {
+                        final List<PileupSummary> result = new ArrayList<>();
+                        summarizeSites(sites, threadReadsSource.get(), result::add);
+                        return result;
+                    })).collect(Collectors.toList());
+            for (final ForkJoinTask<List<PileupSummary>> task : tasks) {
+                task.get().forEach(this::writeRecordAndUpdateProgress);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while summarizing pileups.", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new GATKException("Exception thrown while summarizing pileups.", e.getCause());
+        } finally {
+            pool.shutdown();
+            readsSources.forEach(ReadsPathDataSource::close);
+        }
+    }
+
+    /**
+     * Load the biallelic SNPs within the allele frequency range for sparse-site mode.  To match the locus traversal,
+     * which only looks at the first variant overlapping each locus, a SNP is kept only if no earlier variant overlaps it.
+     */
+    private List<CommonSites> loadCommonSites() {
+        final List<CommonSites> result = new ArrayList<>();
+        CommonSites currentSites = null;
+        int currentStart = 0;
+        int maxEndOfEarlierStarts = 0;
+        int maxEndAtCurrentStart = 0;
+        for (final SimpleInterval interval : getTraversalIntervals()) {
+            if (currentSites == null || !currentSites.getContig().equals(interval.getContig())) {
+                currentSites = new CommonSites(interval.getContig());
+                result.add(currentSites);
+                currentStart = 0;
+                maxEndOfEarlierStarts = 0;
+                maxEndAtCurrentStart = 0;
+            }
+            for (int chunkStart = interval.getStart(); chunkStart <= interval.getEnd(); chunkStart += SITE_LOADING_CHUNK_SIZE) {
+                final SimpleInterval chunk = new SimpleInterval(interval.getContig(), chunkStart,
+                        Math.min(interval.getEnd(), chunkStart + SITE_LOADING_CHUNK_SIZE - 1));
+                // variants that start before the chunk are returned again, but they only affect the overlap bookkeeping
+                for (final VariantContext vc : features.getFeatures(variants, chunk)) {
+                    final boolean isFirstAtStart = vc.getStart() != currentStart;
+                    if (isFirstAtStart) {
+                        maxEndOfEarlierStarts = Math.max(maxEndOfEarlierStarts, maxEndAtCurrentStart);
+                        currentStart = vc.getStart();
+                        maxEndAtCurrentStart = vc.getEnd();
+                    } else {
+                        maxEndAtCurrentStart = Math.max(maxEndAtCurrentStart, vc.getEnd());
+                    }
+
+                    if (isFirstAtStart && maxEndOfEarlierStarts < vc.getStart() && chunk.getStart() <= vc.getStart()
+                            && vc.isBiallelic() && vc.isSNP() && alleleFrequencyInRange(vc)) {
+                        currentSites.add(vc.getStart(), vc.getReference().getBases()[0], vc.getAlternateAllele(0).getBases()[0],
+                                vc.getAttributeAsDouble(VCFConstants.ALLELE_FREQUENCY_KEY, 0));
+                    }
+                }
             }
         }
+        logger.info(String.format("Loaded %d sites in %d contigs.", result.stream().mapToInt(CommonSites::size).sum(), result.size()));
+        return result;
+    }
+
+    private void summarizeSites(final CommonSites sites, final ReadsPathDataSource readsSource, final Consumer<PileupSummary> action) {
+        final ReadFilter readFilter = makeReadFilter();
+        final ReadTransformer preTransformer = makePreReadFilterTransformer();
+        final ReadTransformer postTransformer = makePostReadFilterTransformer();
+        for (final IndexRange batch : sites.makeBatches(MAX_GAP_BETWEEN_SITES_IN_BATCH, MAX_SITES_PER_BATCH)) {
+            final Iterator<GATKRead> reads = Utils.stream(readsSource.query(sites.getInterval(batch)))
+                    .map(preTransformer)
+                    .filter(readFilter)
+                    .map(postTransformer)
+                    .iterator();
+            sites.summarizeBatch(batch, reads, minMappingQuality, action);
+        }
+    }
+
+    private void writeRecord(final PileupSummary pileupSummary) {
+        try {
+            writer.write(pileupSummary);
+        } catch (final IOException ex) {
+            throw new UserException(String.format("Encountered an IO exception while writing to %s", outputTable));
+        }
+    }
+
+    private void writeRecordAndUpdateProgress(final PileupSummary pileupSummary) {
+        writeRecord(pileupSummary);
+        progressMeter.update(pileupSummary);
     }
 
     @Override
@@ -9,14 +9,16 @@ import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.math3.util.FastMath;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.BaseUtils;
+import org.broadinstitute.hellbender.utils.BinaryTableReader;
+import org.broadinstitute.hellbender.utils.BinaryTableWriter;
 import org.broadinstitute.hellbender.utils.MathUtils;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
 import org.broadinstitute.hellbender.utils.pileup.ReadPileup;
 import org.broadinstitute.hellbender.utils.tsv.*;
 
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
+import java.nio.file.Files;
 import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -93,11 +95,13 @@ public class PileupSummary implements Locatable {
     }
 
 
-    //----- The following two public static methods read and write pileup summary files
+    //----- The following public static methods read and write pileup summary files, which are text tables unless
+    //----- their names end in BinaryTableWriter.BINARY_TABLE_EXTENSION.  Files in either format may be read.
     public static void writeToFile(final String sample, final List<PileupSummary> records, final File outputTable) {
-        try ( PileupSummaryTableWriter writer = new PileupSummaryTableWriter(IOUtils.fileToPath(outputTable)) ) {
-            writer.writeMetadata(TableUtils.SAMPLE_METADATA_TAG, sample);
-            writer.writeAllRecords(records);
+        try ( PileupSummaryOutput writer = PileupSummaryOutput.open(IOUtils.fileToPath(outputTable), sample) ) {
+            for (final PileupSummary record : records) {
+                writer.write(record);
+            }
         } catch (IOException e){
             throw new UserException(String.format("Encountered an IO exception while writing to %s.", outputTable));
         }
@@ -105,37 +109,36 @@ public class PileupSummary implements Locatable {
 
     // Takes a list of PileupSummaryTable files and write them all in one output file in order
     public static void writeToFile(final List<File> inputFiles, final File output) {
-        boolean headerWritten = false;
-        String sample = "";
-        try ( PileupSummaryTableWriter writer = new PileupSummaryTableWriter(output.toPath()) ) {
+        final String sample = inputFiles.isEmpty() ? null : readFirstRecord(inputFiles.get(0)).getLeft();
+        try ( PileupSummaryOutput writer = PileupSummaryOutput.open(output.toPath(), sample) ) {
             for (final File inputFile : inputFiles){
-                try ( PileupSummaryTableReader reader = new PileupSummaryTableReader(inputFile.toPath())){
-                    if (! headerWritten){
-                        sample = reader.getMetadata().get(TableUtils.SAMPLE_METADATA_TAG);
-                        writer.writeMetadata(TableUtils.SAMPLE_METADATA_TAG, sample);
-                        headerWritten = true;
-                    }
-
-                    final String thisSample = reader.getMetadata().get(TableUtils.SAMPLE_METADATA_TAG);
-                    if (! thisSample.equals(sample)){
-                        throw new UserException.BadInput(String.format("Combining PileupSummaryTables from different samples is not supported. Got samples %s and %s",
-                                sample, thisSample));
-                    }
-
-                    final List<PileupSummary> pileupSummaries = reader.toList();
-                    writer.writeAllRecords(pileupSummaries);
-                } catch (IOException e){
-                    throw new UserException(String.format("Encountered an IO exception while reading from %s.", inputFile));
+                final ImmutablePair<String, List<PileupSummary>> sampleAndRecords = readFromFile(inputFile);
+                final String thisSample = sampleAndRecords.getLeft();
+                if (! thisSample.equals(sample)){
+                    throw new UserException.BadInput(String.format("Combining PileupSummaryTables from different samples is not supported. Got samples %s and %s",
+                            sample, thisSample));
                 }
-            }
 
+                for (final PileupSummary record : sampleAndRecords.getRight()) {
+                    writer.write(record);
+                }
+            }
         } catch (IOException e){
             throw new UserException(String.format("Encountered an IO exception while writing to %s.", output));
         }
     }
 
     public static ImmutablePair<String, List<PileupSummary>> readFromFile(final File tableFile) {
-        try( PileupSummaryTableReader reader = new PileupSummaryTableReader(IOUtils.fileToPath(tableFile)) ) {
+        final Path path = IOUtils.fileToPath(tableFile);
+        if (isBinaryTable(path)) {
+            try ( PileupSummaryBinaryReader reader = PileupSummaryBinaryReader.open(path) ) {
+                return ImmutablePair.of(reader.getSample(), reader.readAll());
+            } catch (IOException e){
+                throw new UserException(String.format("Encountered an IO exception while reading from %s.", tableFile));
+            }
+        }
+
+        try( PileupSummaryTableReader reader = new PileupSummaryTableReader(path) ) {
             final List<PileupSummary> pileupSummaries = reader.toList();
             return ImmutablePair.of(reader.getMetadata().get(TableUtils.SAMPLE_METADATA_TAG), pileupSummaries);
         } catch (IOException e){
@@ -143,6 +146,32 @@ public class PileupSummary implements Locatable {
         }
     }
 
+    /**
+     * Read the sample and the first record of a pileup summary file without reading the rest of the file.
+     * The record is {@code null} if the file has no records.
+     */
+    public static ImmutablePair<String, PileupSummary> readFirstRecord(final File tableFile) {
+        final Path path = IOUtils.fileToPath(tableFile);
+        if (isBinaryTable(path)) {
+            try ( PileupSummaryBinaryReader reader = PileupSummaryBinaryReader.open(path) ) {
+                return ImmutablePair.of(reader.getSample(), reader.hasNext() ? reader.next() : null);
+            } catch (IOException e){
+                throw new UserException(String.format("Encountered an IO exception while reading from %s.", tableFile));
+            }
+        }
+
+        try( PileupSummaryTableReader reader = new PileupSummaryTableReader(path) ) {
+            final PileupSummary firstRecord = reader.readRecord();
+            return ImmutablePair.of(reader.getMetadata().get(TableUtils.SAMPLE_METADATA_TAG), firstRecord);
+        } catch (IOException e){
+            throw new UserException(String.format("Encountered an IO exception while reading from %s.", tableFile));
+        }
+    }
+
+    private static boolean isBinaryTable(final Path path) {
+        return BinaryTableReader.startsWithMagicNumber(path, PileupSummaryBinaryWriter.MAGIC_NUMBER);
+    }
+
     public static class PileupSummaryComparator implements Comparator<PileupSummary> {
         final SAMSequenceDictionary sequenceDictionary;
         final List<String> contigsInOrder;
@@ -201,6 +230,97 @@ public class PileupSummary implements Locatable {
         }
     }
 
+    /**
+     * Writes pileup summaries either as a text table or in binary, depending on the name of the output
+     */
+    public interface PileupSummaryOutput extends AutoCloseable {
+        void write(final PileupSummary record) throws IOException;
+
+        @Override
+        void close() throws IOException;
+
+        /**
+         * @param sample the sample of the pileup summaries, or {@code null} to omit it from a text table
+         */
+        static PileupSummaryOutput open(final Path output, final String sample) throws IOException {
+            if (BinaryTableWriter.isBinaryTablePath(output.toString())) {
+                final PileupSummaryBinaryWriter writer = new PileupSummaryBinaryWriter(output, sample == null ? "" : sample);
+                return new PileupSummaryOutput() {
+                    @Override
+                    public void write(final PileupSummary record) throws IOException { writer.write(record); }
+
+                    @Override
+                    public void close() throws IOException { writer.close(); }
+                };
+            }
+
+            final PileupSummaryTableWriter writer = new PileupSummaryTableWriter(output);
+            if (sample != null) {
+                writer.writeMetadata(TableUtils.SAMPLE_METADATA_TAG, sample);
+            }
+            return new PileupSummaryOutput() {
+                @Override
+                public void write(final PileupSummary record) throws IOException { writer.writeRecord(record); }
+
+                @Override
+                public void close() throws IOException { writer.close(); }
+            };
+        }
+    }
+
+    /**
+     * The binary format is a magic number and the sample name followed by the records, each of which is the contig,
+     * the position, the ref, alt, and other alt counts, and the allele frequency, and a trailer with the number of records.
+     */
+    public static class PileupSummaryBinaryWriter extends BinaryTableWriter<PileupSummary> {
+        // "PSB1"
+        private static final int MAGIC_NUMBER = 0x50534231;
+
+        public PileupSummaryBinaryWriter(final Path output, final String sample) throws IOException {
+            super(new BufferedOutputStream(Files.newOutputStream(output)), output.toString(), MAGIC_NUMBER);
+            dataOut.writeUTF(Utils.nonNull(sample));
+        }
+
+        @Override
+        protected void writeRecord(final PileupSummary record, final DataOutput output) throws IOException {
+            output.writeUTF(record.getContig());
+            output.writeInt(record.getStart());
+            output.writeInt(record.getRefCount());
+            output.writeInt(record.getAltCount());
+            output.writeInt(record.getOtherAltCount());
+            output.writeDouble(record.getAlleleFrequency());
+        }
+    }
+
+    private static class PileupSummaryBinaryReader extends BinaryTableReader<PileupSummary> {
+        private final String sample;
+
+        // the sample must be read before the superclass constructor reads the first record
+        private PileupSummaryBinaryReader(final DataInputStream in, final String source, final String sample) {
+            super(in, source, true);
+            this.sample = sample;
+        }
+
+        private static PileupSummaryBinaryReader open(final Path path) throws IOException {
+            return open(path, PileupSummaryBinaryWriter.MAGIC_NUMBER, "binary pileup summary table",
+                    (in, source) -> new PileupSummaryBinaryReader(in, source, in.readUTF()));
+        }
+
+        private String getSample() { return sample; }
+
+        @Override
+        protected PileupSummary readRecord(final DataInput input) throws IOException {
+            final String contig = input.readUTF();
+            final int position = input.readInt();
+            final int refCount = input.readInt();
+            final int altCount = input.readInt();
+            final int otherAltCount = input.readInt();
+            final double alleleFrequency = input.readDouble();
+
+            return new PileupSummary(contig, position, refCount, altCount, otherAltCount, alleleFrequency);
+        }
+    }
+
     private enum PileupSummaryTableColumn {
         CONTIG("contig"),
         POSITION("position"),
@@ -6,10 +6,12 @@ import org.broadinstitute.hellbender.cmdline.CommandLineProgram;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.cmdline.programgroups.CoverageAnalysisProgramGroup;
 import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.BinaryTableWriter;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -25,13 +27,24 @@ public class GatherNormalArtifactData extends CommandLineProgram {
     final List<File> input = null;
 
     @Argument(fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME, shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME,
-            doc = "output")
+            doc = "output, written in binary if its name ends in " + BinaryTableWriter.BINARY_TABLE_EXTENSION)
     final File output = null;
 
     @Override
     protected Object doWork() {
+        final Path outputPath = IOUtils.fileToPath(output);
+        if (BinaryTableWriter.isBinaryTablePath(outputPath.toString())) {
+            try ( NormalArtifactRecord.NormalArtifactBinaryWriter writer = new NormalArtifactRecord.NormalArtifactBinaryWriter(outputPath) ) {
+                for (final File inputFile : input) {
+                    writer.writeAll(NormalArtifactRecord.readFromFile(inputFile));
+                }
+            } catch (IOException e){
+                throw new UserException(String.format("Encountered an IO exception while writing to %s.", output));
+            }
+            return "SUCCESS";
+        }
 
-        try ( NormalArtifactRecord.NormalArtifactWriter writer = new NormalArtifactRecord.NormalArtifactWriter(IOUtils.fileToPath(output)) ) {
+        try ( NormalArtifactRecord.NormalArtifactWriter writer = new NormalArtifactRecord.NormalArtifactWriter(outputPath) ) {
             for (final File inputFile : input) {
                 writer.writeAllRecords(NormalArtifactRecord.readFromFile(inputFile));
             }
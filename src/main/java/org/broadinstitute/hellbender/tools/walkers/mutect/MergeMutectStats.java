@@ -5,6 +5,7 @@ import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
 import org.broadinstitute.hellbender.cmdline.CommandLineProgram;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.cmdline.programgroups.ShortVariantDiscoveryProgramGroup;
+import org.broadinstitute.hellbender.utils.BinaryTableWriter;
 import org.broadinstitute.hellbender.utils.Utils;
 
 import java.io.File;
@@ -13,7 +14,8 @@ import java.util.function.ToDoubleFunction;
 import java.util.stream.Collectors;
 
 /**
- * Merge the stats output by scatters of a single Mutect2 job.
+ * Merge the stats output by scatters of a single Mutect2 job.  Inputs may be text or binary stats tables, and since
+ * stats are aggregated by summation the outputs of this tool may themselves be merged.
  */
 @CommandLineProgramProperties(
         summary = "Merge the stats output by scatters of a single Mutect2 job",
@@ -25,7 +27,7 @@ public class MergeMutectStats extends CommandLineProgram {
     @Argument(fullName = Mutect2.MUTECT_STATS_SHORT_NAME, doc="Stats from Mutect2 scatters of a single tumor or tumor-normal pair")
     private Set<File> stats = new LinkedHashSet<>(0);
 
-    @Argument(fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME, shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME, doc="Output stats")
+    @Argument(fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME, shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME, doc="Output stats, written in binary if the name ends in " + BinaryTableWriter.BINARY_TABLE_EXTENSION)
     private File outputStatsTable = null;
 
     public Object doWork() {
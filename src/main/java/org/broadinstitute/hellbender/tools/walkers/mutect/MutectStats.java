@@ -1,7 +1,10 @@
 package org.broadinstitute.hellbender.tools.walkers.mutect;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
 import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.BinaryTableReader;
+import org.broadinstitute.hellbender.utils.BinaryTableWriter;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
 import org.broadinstitute.hellbender.utils.tsv.DataLine;
@@ -9,8 +12,7 @@ import org.broadinstitute.hellbender.utils.tsv.TableColumnCollection;
 import org.broadinstitute.hellbender.utils.tsv.TableReader;
 import org.broadinstitute.hellbender.utils.tsv.TableWriter;
 
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
 import java.util.List;
 
 public class MutectStats {
@@ -27,10 +29,20 @@ public class MutectStats {
     public double getValue() { return value; }
     
 
-    //----- The following two public static methods read and write contamination files
+    //----- The following two public static methods read and write stats files, which are text tables unless
+    //----- their names end in BinaryTableWriter.BINARY_TABLE_EXTENSION.  Files in either format may be read.
     public static void writeToFile(final List<MutectStats> records, final File outputTable) {
-        try ( MutectStats.MutectStatsWriter writer = new MutectStats.MutectStatsWriter(
-            IOUtils.fileToPath(outputTable)) ) {
+        final Path path = IOUtils.fileToPath(outputTable);
+        if (BinaryTableWriter.isBinaryTablePath(path.toString())) {
+            try ( MutectStatsBinaryWriter writer = new MutectStatsBinaryWriter(path) ) {
+                writer.writeAll(records);
+            } catch (IOException e){
+                throw new UserException(String.format("Encountered an IO exception while writing to %s.", outputTable));
+            }
+            return;
+        }
+
+        try ( MutectStats.MutectStatsWriter writer = new MutectStats.MutectStatsWriter(path) ) {
             writer.writeAllRecords(records);
         } catch (IOException e){
             throw new UserException(String.format("Encountered an IO exception while writing to %s.", outputTable));
@@ -38,8 +50,16 @@ public class MutectStats {
     }
 
     public static List<MutectStats> readFromFile(final File tableFile) {
-        try( MutectStats.MutectStatsReader reader = new MutectStats.MutectStatsReader(
-            IOUtils.fileToPath(tableFile)) ) {
+        final Path path = IOUtils.fileToPath(tableFile);
+        if (BinaryTableReader.startsWithMagicNumber(path, MutectStatsBinaryWriter.MAGIC_NUMBER)) {
+            try ( MutectStatsBinaryReader reader = MutectStatsBinaryReader.open(path) ) {
+                return reader.readAll();
+            } catch (IOException e){
+                throw new UserException(String.format("Encountered an IO exception while reading from %s.", tableFile));
+            }
+        }
+
+        try( MutectStats.MutectStatsReader reader = new MutectStats.MutectStatsReader(path) ) {
             return reader.toList();
         } catch (IOException e){
             throw new UserException(String.format("Encountered an IO exception while reading from %s.", tableFile));
@@ -72,6 +92,42 @@ public class MutectStats {
         }
     }
 
+    /**
+     * The binary format is a magic number followed by the records, each of which is the statistic and its value,
+     * and a trailer with the number of records
+     */
+    private static class MutectStatsBinaryWriter extends BinaryTableWriter<MutectStats> {
+        // "MSB1"
+        private static final int MAGIC_NUMBER = 0x4D534231;
+
+        private MutectStatsBinaryWriter(final Path output) throws IOException {
+            super(new BufferedOutputStream(Files.newOutputStream(output)), output.toString(), MAGIC_NUMBER);
+        }
+
+        @Override
+        protected void writeRecord(final MutectStats record, final DataOutput output) throws IOException {
+            output.writeUTF(record.getStatistic());
+            output.writeDouble(record.getValue());
+        }
+    }
+
+    private static class MutectStatsBinaryReader extends BinaryTableReader<MutectStats> {
+        private MutectStatsBinaryReader(final DataInputStream in, final String source) {
+            super(in, source, true);
+        }
+
+        private static MutectStatsBinaryReader open(final Path path) throws IOException {
+            return open(path, MutectStatsBinaryWriter.MAGIC_NUMBER, "binary Mutect stats table", MutectStatsBinaryReader::new);
+        }
+
+        @Override
+        protected MutectStats readRecord(final DataInput input) throws IOException {
+            final String statistic = input.readUTF();
+            final double value = input.readDouble();
+            return new MutectStats(statistic, value);
+        }
+    }
+
     private enum MutectStatsColumn {
         STATISTIC("statistic"),
         VALUE("value");
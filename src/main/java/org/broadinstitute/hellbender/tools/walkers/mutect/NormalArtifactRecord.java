@@ -1,6 +1,8 @@
 package org.broadinstitute.hellbender.tools.walkers.mutect;
 
 import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.BinaryTableReader;
+import org.broadinstitute.hellbender.utils.BinaryTableWriter;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
 import org.broadinstitute.hellbender.utils.tsv.DataLine;
@@ -8,8 +10,8 @@ import org.broadinstitute.hellbender.utils.tsv.TableColumnCollection;
 import org.broadinstitute.hellbender.utils.tsv.TableReader;
 import org.broadinstitute.hellbender.utils.tsv.TableWriter;
 
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 
@@ -56,9 +58,20 @@ public class NormalArtifactRecord {
     }
 
 
-    //----- The following two public static methods read and write normal artifact files
+    //----- The following two public static methods read and write normal artifact files, which are text tables unless
+    //----- their names end in BinaryTableWriter.BINARY_TABLE_EXTENSION.  Files in either format may be read.
     public static void writeToFile(final List<NormalArtifactRecord> records, final File outputTable) {
-        try ( NormalArtifactWriter writer = new NormalArtifactWriter(IOUtils.fileToPath(outputTable)) ) {
+        final Path path = IOUtils.fileToPath(outputTable);
+        if (BinaryTableWriter.isBinaryTablePath(path.toString())) {
+            try ( NormalArtifactBinaryWriter writer = new NormalArtifactBinaryWriter(path) ) {
+                writer.writeAll(records);
+            } catch (IOException e){
+                throw new UserException(String.format("Encountered an IO exception while writing to %s.", outputTable));
+            }
+            return;
+        }
+
+        try ( NormalArtifactWriter writer = new NormalArtifactWriter(path) ) {
             writer.writeAllRecords(records);
         } catch (IOException e){
             throw new UserException(String.format("Encountered an IO exception while writing to %s.", outputTable));
@@ -66,7 +79,16 @@ public class NormalArtifactRecord {
     }
 
     public static List<NormalArtifactRecord> readFromFile(final File tableFile) {
-        try( NormalArtifactReader reader = new NormalArtifactReader(IOUtils.fileToPath(tableFile)) ) {
+        final Path path = IOUtils.fileToPath(tableFile);
+        if (BinaryTableReader.startsWithMagicNumber(path, NormalArtifactBinaryWriter.MAGIC_NUMBER)) {
+            try ( NormalArtifactBinaryReader reader = NormalArtifactBinaryReader.open(path) ) {
+                return reader.readAll();
+            } catch (IOException e){
+                throw new UserException(String.format("Encountered an IO exception while reading from %s.", tableFile));
+            }
+        }
+
+        try( NormalArtifactReader reader = new NormalArtifactReader(path) ) {
             return reader.toList();
         } catch (IOException e){
             throw new UserException(String.format("Encountered an IO exception while reading from %s.", tableFile));
@@ -107,6 +129,50 @@ public class NormalArtifactRecord {
         }
     }
 
+    /**
+     * The binary format is a magic number followed by the records, each of which is the normal alt count and depth,
+     * the tumor alt count and depth, the downsampling, and the type, and a trailer with the number of records
+     */
+    public static class NormalArtifactBinaryWriter extends BinaryTableWriter<NormalArtifactRecord> {
+        // "NAB1"
+        private static final int MAGIC_NUMBER = 0x4E414231;
+
+        public NormalArtifactBinaryWriter(final Path output) throws IOException {
+            super(new BufferedOutputStream(Files.newOutputStream(output)), output.toString(), MAGIC_NUMBER);
+        }
+
+        @Override
+        protected void writeRecord(final NormalArtifactRecord record, final DataOutput output) throws IOException {
+            output.writeInt(record.getNormalAltCount());
+            output.writeInt(record.getNormalDepth());
+            output.writeInt(record.getTumorAltCount());
+            output.writeInt(record.getTumorDepth());
+            output.writeDouble(record.getDownsampling());
+            output.writeUTF(record.getType());
+        }
+    }
+
+    private static class NormalArtifactBinaryReader extends BinaryTableReader<NormalArtifactRecord> {
+        private NormalArtifactBinaryReader(final DataInputStream in, final String source) {
+            super(in, source, true);
+        }
+
+        private static NormalArtifactBinaryReader open(final Path path) throws IOException {
+            return open(path, NormalArtifactBinaryWriter.MAGIC_NUMBER, "binary normal artifact table", NormalArtifactBinaryReader::new);
+        }
+
+        @Override
+        protected NormalArtifactRecord readRecord(final DataInput input) throws IOException {
+            final int normalAltCount = input.readInt();
+            final int normalDepth = input.readInt();
+            final int tumorAltCount = input.readInt();
+            final int tumorDepth = input.readInt();
+            final double downsampling = input.readDouble();
+            final String type = input.readUTF();
+            return new NormalArtifactRecord(normalAltCount, normalDepth, tumorAltCount, tumorDepth, downsampling, type);
+        }
+    }
+
     private enum NormalArtifactColumn {
         NORMAL_ALT_COUNT("normal_alt"),
         NORMAL_DEPTH("normal_dp"),
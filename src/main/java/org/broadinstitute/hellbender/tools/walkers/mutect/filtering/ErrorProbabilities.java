@@ -20,11 +20,21 @@ public final class ErrorProbabilities {
 
 
     public ErrorProbabilities(final List<Mutect2Filter> filters, final VariantContext vc, final Mutect2FilteringEngine filteringEngine, final ReferenceContext referenceContext) {
+        this(filters, vc, filteringEngine, referenceContext, Collections.emptyMap());
+    }
+
+    /**
+     * @param precomputedProbabilities error probabilities of some of the filters that were already computed for this variant,
+     *                                 e.g. in an earlier pass of {@link FilterMutectCalls}.  These filters are not evaluated again.
+     */
+    public ErrorProbabilities(final List<Mutect2Filter> filters, final VariantContext vc, final Mutect2FilteringEngine filteringEngine,
+                              final ReferenceContext referenceContext, final Map<Mutect2Filter, List<Double>> precomputedProbabilities) {
+        Utils.nonNull(precomputedProbabilities);
         numAltAlleles = vc.getAlternateAlleles().size();
         alleleProbabilitiesByFilter = filters.stream()
                 .collect(toMap(
                         Function.identity(),
-                        f -> f.errorProbabilities(vc, filteringEngine, referenceContext),
+                        f -> precomputedProbabilities.containsKey(f) ? precomputedProbabilities.get(f) : f.errorProbabilities(vc, filteringEngine, referenceContext),
                         (a, b) -> a, LinkedHashMap::new))
                 // remove filters that were not applied. i.e. returned empty list
                 .entrySet().stream().filter(entry -> !entry.getValue().isEmpty())
@@ -0,0 +1,120 @@
+package org.broadinstitute.hellbender.tools.walkers.mutect.filtering;
+
+import htsjdk.variant.variantcontext.VariantContext;
+import org.broadinstitute.hellbender.engine.ReferenceContext;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Error probabilities of the filters that depend only on the variant (see {@link Mutect2Filter#dependsOnlyOnVariant()}),
+ * computed in the first pass of {@link FilterMutectCalls} and reused in the later passes, which would otherwise
+ * parse the same annotations from every {@link VariantContext} again.
+ *
+ * Variants are identified by their index in the traversal, which is the same in every pass.  The probabilities
+ * of each filter are stored in a single column holding the values of all variants contiguously, along with the offset
+ * of each variant's values within the column.  Filters may return any number of values for a variant, including none
+ * when the filter is not applied, so each filter has its own offsets.
+ */
+final class FilterFeatureCache {
+    private static final int INITIAL_CAPACITY = 1_000;
+
+    private final List<Mutect2Filter> filters;
+
+    // start positions of the variants, to check that later passes traverse the same variants in the same order
+    private int[] variantStarts = new int[INITIAL_CAPACITY];
+
+    // offsets[f][v] is the index in values[f] of the first value of variant v, and offsets[f][v + 1] is one past its last
+    private final int[][] offsets;
+
+    private final double[][] values;
+
+    private int numVariants = 0;
+
+    private boolean isComplete = false;
+
+    FilterFeatureCache(final List<Mutect2Filter> allFilters) {
+        Utils.nonNull(allFilters);
+        filters = allFilters.stream().filter(Mutect2Filter::dependsOnlyOnVariant).collect(Collectors.toList());
+        offsets = new int[filters.size()][INITIAL_CAPACITY + 1];
+        values = new double[filters.size()][INITIAL_CAPACITY];
+    }
+
+    boolean isComplete() { return isComplete; }
+
+    int getNumVariants() { return numVariants; }
+
+    /**
+     * Compute the error probabilities of the cached filters for a variant.  This does not modify the cache, so it
+     * may be called from several threads at once.
+     */
+    Map<Mutect2Filter, List<Double>> computeProbabilities(final VariantContext vc, final Mutect2FilteringEngine filteringEngine,
+                                                          final ReferenceContext referenceContext) {
+        final Map<Mutect2Filter, List<Double>> result = new LinkedHashMap<>();
+        filters.forEach(f -> result.put(f, f.errorProbabilities(vc, filteringEngine, referenceContext)));
+        return result;
+    }
+
+    /**
+     * Append the error probabilities, as returned by {@link #computeProbabilities}, of the next variant in the traversal
+     */
+    void add(final VariantContext vc, final Map<Mutect2Filter, List<Double>> probabilitiesByFilter) {
+        Utils.validate(!isComplete, "Cannot add variants to a complete cache.");
+        if (numVariants == variantStarts.length) {
+            final int newCapacity = 2 * variantStarts.length;
+            variantStarts = Arrays.copyOf(variantStarts, newCapacity);
+            for (int f = 0; f < filters.size(); f++) {
+                offsets[f] = Arrays.copyOf(offsets[f], newCapacity + 1);
+            }
+        }
+        variantStarts[numVariants] = vc.getStart();
+
+        for (int f = 0; f < filters.size(); f++) {
+            final List<Double> probabilities = Utils.nonNull(probabilitiesByFilter.get(filters.get(f)));
+            final int start = offsets[f][numVariants];
+            final int end = start + probabilities.size();
+            if (end > values[f].length) {
+                values[f] = Arrays.copyOf(values[f], Math.max(end, 2 * values[f].length));
+            }
+            for (int i = 0; i < probabilities.size(); i++) {
+                values[f][start + i] = probabilities.get(i);
+            }
+            offsets[f][numVariants + 1] = end;
+        }
+        numVariants++;
+    }
+
+    /**
+     * Mark the end of the first pass, after which no more variants may be added
+     */
+    void complete() {
+        isComplete = true;
+    }
+
+    /**
+     * Get the cached error probabilities of the variant with the given index in the traversal
+     */
+    Map<Mutect2Filter, List<Double>> get(final int variantIndex, final VariantContext vc) {
+        Utils.validate(isComplete, "Cannot read from the cache before the first pass is complete.");
+        Utils.validIndex(variantIndex, numVariants);
+        Utils.validate(variantStarts[variantIndex] == vc.getStart(),
+                () -> String.format("Variant at %s:%d does not match the cached variant at position %d.  Variants must be traversed in the same order in every pass.",
+                        vc.getContig(), vc.getStart(), variantStarts[variantIndex]));
+        final Map<Mutect2Filter, List<Double>> result = new LinkedHashMap<>();
+        for (int f = 0; f < filters.size(); f++) {
+            final int start = offsets[f][variantIndex];
+            final int end = offsets[f][variantIndex + 1];
+            final List<Double> probabilities = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++) {
+                probabilities.add(values[f][i]);
+            }
+            result.put(filters.get(f), probabilities);
+        }
+        return result;
+    }
+}
@@ -13,21 +13,28 @@ import org.broadinstitute.hellbender.engine.FeatureContext;
 import org.broadinstitute.hellbender.engine.MultiplePassVariantWalker;
 import org.broadinstitute.hellbender.engine.ReadsContext;
 import org.broadinstitute.hellbender.engine.ReferenceContext;
+import org.broadinstitute.hellbender.engine.ReferenceMemorySource;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.walkers.contamination.CalculateContamination;
 import org.broadinstitute.hellbender.tools.walkers.mutect.Mutect2;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
 import org.broadinstitute.hellbender.utils.param.ParamUtils;
+import org.broadinstitute.hellbender.utils.reference.ReferenceBases;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFHeaderLines;
 import picard.cmdline.programgroups.VariantFilteringProgramGroup;
+import org.broadinstitute.hellbender.tools.walkers.readorientation.F1R2FilterConstants;
 import org.broadinstitute.hellbender.tools.walkers.readorientation.LearnReadOrientationModel;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 /**
@@ -70,6 +77,9 @@ import java.util.stream.Collectors;
  * argument (default 0) activates a recommended filter against likely erroneously mapped  <a href="https://en.wikipedia.org/wiki/NUMT">NuMTs (nuclear mitochondrial DNA segments)</a>.
  * For the value, provide the median coverage expected in autosomal regions with coverage.
  *
+ * With --threads greater than one, the filters are evaluated for blocks of consecutive variants in parallel.  Learning and
+ * output are still done in the order of the variants, so the results do not depend on the number of threads.
+ *
  */
 @CommandLineProgramProperties(
         summary = "Filter somatic SNVs and indels called by Mutect2",
@@ -85,6 +95,10 @@ public final class FilterMutectCalls extends MultiplePassVariantWalker {
 
     public static final String FILTERING_STATS_EXTENSION = ".filteringStats.tsv";
 
+    public static final String THREADS_LONG_NAME = "threads";
+
+    private static final int VARIANTS_PER_BLOCK = 1000;
+
     @Argument(fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME, shortName =StandardArgumentDefinitions.OUTPUT_SHORT_NAME,
             doc="The output filtered VCF file", optional=false)
     private final String outputVcf = null;
@@ -95,6 +109,10 @@ public final class FilterMutectCalls extends MultiplePassVariantWalker {
     @Argument(fullName = FILTERING_STATS_LONG_NAME, doc="The output filtering stats file", optional=true)
     private final String filteringStatsOutput = null;
 
+    @Argument(fullName = THREADS_LONG_NAME, doc = "Number of threads with which to evaluate filters.  The output does not depend on the number of threads.",
+            optional = true, minValue = 1)
+    private int numThreads = 1;
+
     @ArgumentCollection
     protected M2FiltersArgumentCollection MTFAC = new M2FiltersArgumentCollection();
 
@@ -102,6 +120,13 @@ public final class FilterMutectCalls extends MultiplePassVariantWalker {
 
     private Mutect2FilteringEngine filteringEngine;
 
+    // null if single-threaded
+    private ForkJoinPool pool;
+
+    // variants of the current pass waiting to be processed as a block in parallel
+    private final List<VariantContext> variantBlock = new ArrayList<>();
+    private final List<ReferenceContext> referenceContextBlock = new ArrayList<>();
+
     private static final int NUMBER_OF_LEARNING_PASSES = 2;
 
     @Override
@@ -141,6 +166,7 @@ public final class FilterMutectCalls extends MultiplePassVariantWalker {
                     " a calls.vcf" + Mutect2.DEFAULT_STATS_EXTENSION + " file.  Perhaps this file was not moved along with the vcf, or perhaps it was not delocalized from a" +
                     " virtual machine while running in the cloud." );
         }
+        pool = numThreads > 1 ? new ForkJoinPool(numThreads) : null;
     }
 
     @Override
@@ -150,7 +176,13 @@ public final class FilterMutectCalls extends MultiplePassVariantWalker {
                                 final FeatureContext featureContext,
                                 final int n) {
         ParamUtils.isPositiveOrZero(n, "Passes must start at the 0th pass.");
-        if (n <= NUMBER_OF_LEARNING_PASSES) {
+        if (pool != null) {
+            variantBlock.add(variant);
+            referenceContextBlock.add(prefetch(referenceContext));
+            if (variantBlock.size() == VARIANTS_PER_BLOCK) {
+                processBlock(n);
+            }
+        } else if (n <= NUMBER_OF_LEARNING_PASSES) {
             filteringEngine.accumulateData(variant, referenceContext);
         } else if (n == NUMBER_OF_LEARNING_PASSES + 1) {
             vcfWriter.add(filteringEngine.applyFiltersAndAccumulateOutputStats(variant, referenceContext));
@@ -159,8 +191,32 @@ public final class FilterMutectCalls extends MultiplePassVariantWalker {
         }
     }
 
+    private void processBlock(final int n) {
+        if (n <= NUMBER_OF_LEARNING_PASSES) {
+            filteringEngine.accumulateData(variantBlock, referenceContextBlock, pool);
+        } else if (n == NUMBER_OF_LEARNING_PASSES + 1) {
+            filteringEngine.applyFiltersAndAccumulateOutputStats(variantBlock, referenceContextBlock, pool).forEach(vcfWriter::add);
+        } else {
+            throw new GATKException.ShouldNeverReachHereException("This walker should never reach (zero-indexed) pass " + n);
+        }
+        variantBlock.clear();
+        referenceContextBlock.clear();
+    }
+
+    // the reference data source is not thread-safe, so we load the bases that filters may query before evaluating them in parallel
+    private ReferenceContext prefetch(final ReferenceContext referenceContext) {
+        final SimpleInterval interval = referenceContext.getInterval();
+        final SimpleInterval window = interval.expandWithinContig(F1R2FilterConstants.REF_CONTEXT_PADDING, getReferenceDictionary());
+        final ReferenceBases bases = new ReferenceBases(referenceContext.getBases(window), window);
+        return new ReferenceContext(new ReferenceMemorySource(bases, getReferenceDictionary()), interval);
+    }
+
     @Override
     protected void afterNthPass(final int n) {
+        if (!variantBlock.isEmpty()) {
+            processBlock(n);
+        }
+
         if (n < NUMBER_OF_LEARNING_PASSES) {
             filteringEngine.learnParameters();
         } else if (n == NUMBER_OF_LEARNING_PASSES) {
@@ -180,6 +236,9 @@ public final class FilterMutectCalls extends MultiplePassVariantWalker {
         if ( vcfWriter != null ) {
             vcfWriter.close();
         }
+        if (pool != null) {
+            pool.shutdown();
+        }
     }
 
 }
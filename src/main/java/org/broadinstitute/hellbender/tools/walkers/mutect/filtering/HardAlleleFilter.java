@@ -20,6 +20,9 @@ public abstract class HardAlleleFilter extends Mutect2AlleleFilter {
 
     public abstract List<Boolean> areAllelesArtifacts(final VariantContext vc, final Mutect2FilteringEngine filteringEngine, ReferenceContext referenceContext);
 
+    @Override
+    protected boolean dependsOnlyOnVariant() { return true; }
+
     // the posterior of a hard filter is 0 or 1, hence there's no reason to annotate it
     @Override
     public Optional<String> phredScaledPosteriorAnnotationName() {
@@ -13,6 +13,9 @@ public abstract class HardFilter extends Mutect2VariantFilter {
 
     public abstract boolean isArtifact(final VariantContext vc, final Mutect2FilteringEngine filteringEngine);
 
+    @Override
+    protected boolean dependsOnlyOnVariant() { return true; }
+
     // the posterior of a hard filter is 0 or 1, hence there's no reason to annotate it
     @Override
     public Optional<String> phredScaledPosteriorAnnotationName() {
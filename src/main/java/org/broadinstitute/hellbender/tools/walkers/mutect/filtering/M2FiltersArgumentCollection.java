@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.tools.walkers.mutect.filtering;
 
+import org.broadinstitute.barclay.argparser.Advanced;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.hellbender.tools.walkers.mutect.M2ArgumentCollection;
 import org.broadinstitute.hellbender.utils.MathUtils;
@@ -198,4 +199,17 @@ public class M2FiltersArgumentCollection {
 
     @Argument(fullName = LONG_INDEL_LENGTH_LONG_NAME, optional = true, doc = "Indels of this length or greater are treated specially by the mapping quality filter.")
     public int longIndelLength = DEFAULT_LONG_INDEL_SIZE;
+
+    /**
+     * Performance
+     */
+    public static final String DISABLE_FILTER_FEATURE_CACHE_LONG_NAME = "disable-filter-feature-cache";
+
+    /**
+     * By default, the error probabilities of filters that do not depend on learned parameters, such as the hard filters,
+     * are computed once in the first pass and kept in memory for the later passes.  This takes a few bytes per alt allele and filter.
+     */
+    @Advanced
+    @Argument(fullName = DISABLE_FILTER_FEATURE_CACHE_LONG_NAME, optional = true, doc = "Recompute all filters in every pass instead of caching those that don't change between passes, to save memory")
+    public boolean disableFilterFeatureCache = false;
 }
@@ -26,6 +26,12 @@ public abstract class Mutect2Filter {
     public abstract Optional<String> phredScaledPosteriorAnnotationName();
     protected abstract List<String> requiredInfoAnnotations();
 
+    /**
+     * Whether the error probabilities of this filter depend only on the variant and reference context and not on any
+     * parameters learned in the passes of {@link FilterMutectCalls}, in which case they are computed only once and cached.
+     */
+    protected boolean dependsOnlyOnVariant() { return false; }
+
     /**
      * Should be overridden by the implementing class to return the probability that the allele should
      * filtered out. For filters that only apply at the site level, the same probability should be
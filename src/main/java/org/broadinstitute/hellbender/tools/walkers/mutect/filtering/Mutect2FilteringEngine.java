@@ -11,6 +11,7 @@ import java.nio.file.Path;
 import org.apache.commons.lang3.mutable.MutableDouble;
 import org.apache.commons.math3.util.MathArrays;
 import org.broadinstitute.hellbender.engine.ReferenceContext;
+import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.tools.walkers.annotator.AnnotationUtils;
 import org.broadinstitute.hellbender.tools.walkers.mutect.Mutect2Engine;
 import org.broadinstitute.hellbender.tools.walkers.mutect.MutectStats;
@@ -23,7 +24,11 @@ import org.broadinstitute.hellbender.utils.variant.VariantContextGetters;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class Mutect2FilteringEngine {
     public static final double EPSILON = 1.0e-10;
@@ -47,6 +52,12 @@ public class Mutect2FilteringEngine {
     private final FilteringOutputStats filteringOutputStats;
     private final SomaticClusteringModel somaticClusteringModel;
 
+    // error probabilities of filters that don't change between passes, or null if disabled
+    private final FilterFeatureCache featureCache;
+
+    // index of the next variant in the current pass
+    private int variantIndex = 0;
+
     public Mutect2FilteringEngine(M2FiltersArgumentCollection MTFAC, final VCFHeader vcfHeader, final File mutectStatsTable) {
         thresholdCalculator = new ThresholdCalculator(MTFAC.thresholdStrategy, MTFAC.initialPosteriorThreshold, MTFAC.maxFalsePositiveRate, MTFAC.fScoreBeta);
 
@@ -59,6 +70,7 @@ public class Mutect2FilteringEngine {
 
         buildFiltersList(MTFAC);
         filteringOutputStats = new FilteringOutputStats(filters);
+        featureCache = MTFAC.disableFilterFeatureCache ? null : new FilterFeatureCache(filters);
     }
 
     //THE FOLLOWING ARE HELPER METHODS FOR FILTERS THAT IMPLEMENT {@link Mutect2VariantFilter}
@@ -130,12 +142,24 @@ public class Mutect2FilteringEngine {
      * record data from a potential variant in a non-final pass of {@link FilterMutectCalls}
      */
     public void accumulateData(final VariantContext vc, final ReferenceContext referenceContext) {
-        // ignore GVCF mode sites where the only alt is NON-REF
-        if (vc.getAlleles().stream().noneMatch(a -> a.isNonReference() && !a.isNonRefAllele())) {
-            return;
+        accumulateData(Collections.singletonList(vc), Collections.singletonList(referenceContext), null);
+    }
+
+    /**
+     * record data from a block of consecutive potential variants in a non-final pass of {@link FilterMutectCalls}.
+     * The filters are evaluated in parallel if a pool is given, but data are recorded in the order of the variants,
+     * so that results do not depend on the number of threads.
+     */
+    public void accumulateData(final List<VariantContext> vcs, final List<ReferenceContext> referenceContexts, final ForkJoinPool pool) {
+        final List<ErrorProbabilities> errorProbabilities = computeErrorProbabilities(vcs, referenceContexts, pool, true);
+        for (int n = 0; n < vcs.size(); n++) {
+            if (errorProbabilities.get(n) != null) {
+                accumulateData(vcs.get(n), errorProbabilities.get(n));
+            }
         }
+    }
 
-        final ErrorProbabilities errorProbabilities = new ErrorProbabilities(filters, vc, this, referenceContext);
+    private void accumulateData(final VariantContext vc, final ErrorProbabilities errorProbabilities) {
         filters.forEach(f -> f.accumulateDataForLearning(vc, errorProbabilities, this));
         final int[] tumorADs = sumADsOverSamples(vc, true, false);
         final double[] tumorLogOdds = Mutect2FilteringEngine.getTumorLogOdds(vc);
@@ -149,6 +173,7 @@ public class Mutect2FilteringEngine {
      * Refine model parameters based on data acquired in a non-final pass of {@link FilterMutectCalls}
      */
     public void learnParameters() {
+        finishPass();
         filters.forEach(Mutect2Filter::learnParametersAndClearAccumulatedData);
         somaticClusteringModel.learnAndClearAccumulatedData();
         thresholdCalculator.relearnThresholdAndClearAcumulatedProbabilities();
@@ -157,6 +182,7 @@ public class Mutect2FilteringEngine {
     }
 
     public void learnThreshold() {
+        finishPass();
         thresholdCalculator.relearnThresholdAndClearAcumulatedProbabilities();
         filteringOutputStats.clear();
     }
@@ -165,10 +191,25 @@ public class Mutect2FilteringEngine {
      * Create a filtered variant and record statistics for the final pass of {@link FilterMutectCalls}
      */
     public VariantContext applyFiltersAndAccumulateOutputStats(final VariantContext vc, final ReferenceContext referenceContext) {
-        final VariantContextBuilder vcb = new VariantContextBuilder(vc).filters(new HashSet<>());
+        return applyFiltersAndAccumulateOutputStats(Collections.singletonList(vc), Collections.singletonList(referenceContext), null).get(0);
+    }
+
+    /**
+     * Create filtered variants for a block of consecutive variants and record statistics for the final pass of {@link FilterMutectCalls}.
+     * The filters are evaluated in parallel if a pool is given, but statistics are recorded in the order of the variants.
+     */
+    public List<VariantContext> applyFiltersAndAccumulateOutputStats(final List<VariantContext> vcs, final List<ReferenceContext> referenceContexts,
+                                                                     final ForkJoinPool pool) {
+        final List<ErrorProbabilities> errorProbabilities = computeErrorProbabilities(vcs, referenceContexts, pool, false);
+        errorProbabilities.forEach(ep -> filteringOutputStats.recordCall(ep, getThreshold() - EPSILON));
+
+        final VariantContext[] result = new VariantContext[vcs.size()];
+        forEachIndex(vcs.size(), n -> result[n] = applyFilters(vcs.get(n), errorProbabilities.get(n)), pool);
+        return Arrays.asList(result);
+    }
 
-        final ErrorProbabilities errorProbabilities = new ErrorProbabilities(filters, vc, this, referenceContext);
-        filteringOutputStats.recordCall(errorProbabilities, getThreshold() - EPSILON);
+    private VariantContext applyFilters(final VariantContext vc, final ErrorProbabilities errorProbabilities) {
+        final VariantContextBuilder vcb = new VariantContextBuilder(vc).filters(new HashSet<>());
 
         // error probability must exceed threshold, and just in case threshold is bad, probabilities close to 1 must be filtered
         // and probabilities close to 0 must not be filtered
@@ -240,6 +281,74 @@ public class Mutect2FilteringEngine {
         return vcb.make();
     }
 
+    /**
+     * Compute the error probabilities of a block of consecutive variants, taking the probabilities of filters that don't change
+     * between passes from the feature cache, or adding them to the cache in the first pass.
+     *
+     * @param skipNonRefOnlySites   if true, return null for GVCF mode sites where the only alt is NON-REF
+     */
+    private List<ErrorProbabilities> computeErrorProbabilities(final List<VariantContext> vcs, final List<ReferenceContext> referenceContexts,
+                                                               final ForkJoinPool pool, final boolean skipNonRefOnlySites) {
+        Utils.validateArg(vcs.size() == referenceContexts.size(), "Must have one reference context per variant.");
+        final int firstVariantIndex = variantIndex;
+        variantIndex += vcs.size();
+        final boolean isBuildingCache = featureCache != null && !featureCache.isComplete();
+
+        final List<Map<Mutect2Filter, List<Double>>> cachedProbabilities = new ArrayList<>(Collections.nCopies(vcs.size(), null));
+        final ErrorProbabilities[] result = new ErrorProbabilities[vcs.size()];
+        forEachIndex(vcs.size(), n -> {
+            final VariantContext vc = vcs.get(n);
+            final ReferenceContext referenceContext = referenceContexts.get(n);
+            if (featureCache == null) {
+                cachedProbabilities.set(n, Collections.emptyMap());
+            } else if (isBuildingCache) {
+                cachedProbabilities.set(n, featureCache.computeProbabilities(vc, this, referenceContext));
+            } else {
+                cachedProbabilities.set(n, featureCache.get(firstVariantIndex + n, vc));
+            }
+            final boolean skip = skipNonRefOnlySites && vc.getAlleles().stream().noneMatch(a -> a.isNonReference() && !a.isNonRefAllele());
+            result[n] = skip ? null : new ErrorProbabilities(filters, vc, this, referenceContext, cachedProbabilities.get(n));
+        }, pool);
+
+        if (isBuildingCache) {
+            for (int n = 0; n < vcs.size(); n++) {
+                featureCache.add(vcs.get(n), cachedProbabilities.get(n));
+            }
+        }
+        return Arrays.asList(result);
+    }
+
+    private static void forEachIndex(final int size, final IntConsumer action, final ForkJoinPool pool) {
+        if (pool == null) {
+            IntStream.range(0, size).forEach(action);
+            return;
+        }
+        try {
+            pool.submit(() -> IntStream.range(0, size).parallel().forEach(action)).get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while applying filters.", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new GATKException("Error applying filters.", e.getCause());
+        }
+    }
+
+    // the first pass fills the feature cache, and every pass must visit the same variants
+    private void finishPass() {
+        if (featureCache != null) {
+            if (featureCache.isComplete()) {
+                Utils.validate(variantIndex == featureCache.getNumVariants(), () -> String.format(
+                        "Traversed %d variants but %d were traversed in the first pass.", variantIndex, featureCache.getNumVariants()));
+            } else {
+                featureCache.complete();
+            }
+        }
+        variantIndex = 0;
+    }
+
     /**
      * Creates a list of the string names of all the filters that apply to the allele, or the string "SITE" if it passed all allele filters
      * @param filtersForAllele all the filters applied to the allele
@@ -70,6 +70,10 @@ public class ReadOrientationFilter extends Mutect2VariantFilter {
     @Override
     protected List<String> requiredInfoAnnotations() { return Collections.emptyList(); }
 
+    // the artifact priors are fixed inputs, not learned by FilterMutectCalls
+    @Override
+    protected boolean dependsOnlyOnVariant() { return true; }
+
 
     @VisibleForTesting
     double artifactProbability(final ReferenceContext referenceContext, final VariantContext vc, final Genotype g) {
@@ -0,0 +1,152 @@
+package org.broadinstitute.hellbender.tools.walkers.readorientation;
+
+import htsjdk.samtools.util.SequenceUtil;
+import org.broadinstitute.hellbender.utils.Nucleotide;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The {@link AltSiteRecord}s of a canonical reference context (see {@link F1R2FilterConstants#CANONICAL_KMERS})
+ * and its reverse complement, compressed into the distinct combinations of alt allele, depth, alt count, and alt F1R2 count.
+ *
+ * The read orientation model depends on an alt site only through these four values, so it suffices to keep each
+ * distinct combination once, along with the number of sites that share it.  Combinations are stored in parallel
+ * primitive arrays indexed in order of first appearance.  Records of the reverse complement context are converted
+ * to the canonical representation as they are added, so records may be streamed in from any number of tables
+ * without holding all of them in memory.
+ */
+public final class AltSiteCounts {
+    private static final int DEFAULT_INITIAL_CAPACITY = 1_000;
+
+    private final String referenceContext;
+
+    private final String reverseComplement;
+
+    private final Map<AltSiteKey, Integer> indexByKey = new HashMap<>();
+
+    private Nucleotide[] altAlleles;
+
+    private int[] depths;
+
+    private int[] altCounts;
+
+    private int[] altF1R2s;
+
+    private int[] numSites;
+
+    private int size = 0;
+
+    private int totalNumSites = 0;
+
+    public AltSiteCounts(final String referenceContext) {
+        Utils.validateArg(F1R2FilterConstants.CANONICAL_KMERS.contains(referenceContext),
+                referenceContext + " is not in the set of canonical kmers");
+        this.referenceContext = referenceContext;
+        this.reverseComplement = SequenceUtil.reverseComplement(referenceContext);
+        altAlleles = new Nucleotide[DEFAULT_INITIAL_CAPACITY];
+        depths = new int[DEFAULT_INITIAL_CAPACITY];
+        altCounts = new int[DEFAULT_INITIAL_CAPACITY];
+        altF1R2s = new int[DEFAULT_INITIAL_CAPACITY];
+        numSites = new int[DEFAULT_INITIAL_CAPACITY];
+    }
+
+    /**
+     * Adds a record whose reference context is either the canonical context of this object or its reverse complement,
+     * and returns the index of its combination of alt allele, depth, alt count, and alt F1R2 count.
+     */
+    public int add(final AltSiteRecord record) {
+        Utils.nonNull(record);
+        final String context = record.getReferenceContext();
+        if (context.equals(referenceContext)) {
+            return add(record.getAltAllele(), record.getDepth(), record.getAltCount(), record.getAltF1R2(), 1);
+        }
+        Utils.validateArg(context.equals(reverseComplement),
+                String.format("record with context %s cannot be added to the alt sites of context %s", context, referenceContext));
+        // the reverse complement swaps the F1R2 and F2R1 reads
+        return add(record.getAltAllele().complement(), record.getDepth(), record.getAltCount(), record.getAltCount() - record.getAltF1R2(), 1);
+    }
+
+    /**
+     * Adds {@code count} sites with the given values, which must be in the canonical representation,
+     * and returns the index of their combination.
+     */
+    public int add(final Nucleotide altAllele, final int depth, final int altCount, final int altF1R2, final int count) {
+        Utils.validateArg(altAllele != null && altAllele.isStandard(), "altAllele must be one of {A,C,G,T} but got " + altAllele);
+        Utils.validateArg(count >= 0, "count must be non-negative");
+        final AltSiteKey key = new AltSiteKey(altAllele, depth, altCount, altF1R2);
+        final Integer existingIndex = indexByKey.get(key);
+        final int index;
+        if (existingIndex != null) {
+            index = existingIndex;
+        } else {
+            index = size++;
+            if (index == depths.length) {
+                final int newCapacity = 2 * depths.length;
+                altAlleles = Arrays.copyOf(altAlleles, newCapacity);
+                depths = Arrays.copyOf(depths, newCapacity);
+                altCounts = Arrays.copyOf(altCounts, newCapacity);
+                altF1R2s = Arrays.copyOf(altF1R2s, newCapacity);
+                numSites = Arrays.copyOf(numSites, newCapacity);
+            }
+            altAlleles[index] = altAllele;
+            depths[index] = depth;
+            altCounts[index] = altCount;
+            altF1R2s[index] = altF1R2;
+            indexByKey.put(key, index);
+        }
+        numSites[index] += count;
+        totalNumSites += count;
+        return index;
+    }
+
+    public String getReferenceContext() { return referenceContext; }
+
+    /** The number of distinct combinations of alt allele, depth, alt count, and alt F1R2 count */
+    public int size() { return size; }
+
+    public boolean isEmpty() { return totalNumSites == 0; }
+
+    /** The total number of sites, counting multiplicity */
+    public int getTotalNumSites() { return totalNumSites; }
+
+    public Nucleotide getAltAllele(final int index) { return altAlleles[Utils.validIndex(index, size)]; }
+
+    public int getDepth(final int index) { return depths[Utils.validIndex(index, size)]; }
+
+    public int getAltCount(final int index) { return altCounts[Utils.validIndex(index, size)]; }
+
+    public int getAltF1R2(final int index) { return altF1R2s[Utils.validIndex(index, size)]; }
+
+    public int getNumSites(final int index) { return numSites[Utils.validIndex(index, size)]; }
+
+    private static final class AltSiteKey {
+        private final Nucleotide altAllele;
+        private final int depth;
+        private final int altCount;
+        private final int altF1R2;
+
+        private AltSiteKey(final Nucleotide altAllele, final int depth, final int altCount, final int altF1R2) {
+            this.altAllele = altAllele;
+            this.depth = depth;
+            this.altCount = altCount;
+            this.altF1R2 = altF1R2;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            final AltSiteKey that = (AltSiteKey) o;
+            return depth == that.depth && altCount == that.altCount && altF1R2 == that.altF1R2 && altAllele == that.altAllele;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(altAllele, depth, altCount, altF1R2);
+        }
+    }
+}
@@ -13,6 +13,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BiConsumer;
 
 /**
  * Created by tsato on 10/11/17.
@@ -149,6 +150,20 @@ public class AltSiteRecord {
         return ImmutablePair.of(sample, records);
     }
 
+    /**
+     * Code for streaming alt site records from a table without holding them in memory.  The sample name is passed
+     * along with each record.
+     */
+    public static void forEachAltSiteRecord(final Path table, final BiConsumer<String, AltSiteRecord> action) {
+        Utils.nonNull(action);
+        try (AltSiteRecordTableReader reader = new AltSiteRecordTableReader(table)) {
+            final String sample = reader.getMetadata().get(TableUtils.SAMPLE_METADATA_TAG);
+            reader.forEach(record -> action.accept(sample, record));
+        } catch (IOException e) {
+            throw new UserException(String.format("Encountered an IO exception while reading from %s.", table), e);
+        }
+    }
+
     public static Pair<String, List<AltSiteRecord>> readAltSiteRecords(final Path table) {
         // arbitrarily initialize the list to size 100
         return readAltSiteRecords(table, 100);
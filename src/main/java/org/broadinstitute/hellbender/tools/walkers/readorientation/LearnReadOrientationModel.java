@@ -3,6 +3,7 @@ package org.broadinstitute.hellbender.tools.walkers.readorientation;
 import com.google.common.annotations.VisibleForTesting;
 import htsjdk.samtools.metrics.MetricsFile;
 import htsjdk.samtools.util.*;
+import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
@@ -10,17 +11,20 @@ import org.broadinstitute.barclay.help.DocumentedFeature;
 import org.broadinstitute.hellbender.cmdline.CommandLineProgram;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.cmdline.programgroups.ShortVariantDiscoveryProgramGroup;
+import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.walkers.mutect.M2ArgumentCollection;
 import org.broadinstitute.hellbender.utils.Nucleotide;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
+import org.broadinstitute.hellbender.utils.param.ParamUtils;
 import org.broadinstitute.hellbender.tools.walkers.mutect.Mutect2;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 /**
  * Learn the prior probability of read orientation artifact from the output of {@link CollectF1R2Counts} of {@link Mutect2}
@@ -36,6 +40,8 @@ import java.util.stream.IntStream;
  *   Note that the -I argument may be specified multiple times, as in the case of learning a model from multiple scatters of the same sample.
  *   The input F1R2 tar.gz counts can be generated by CollectF1R2Counts or by Mutect2, with the --f1r2-tar-gz argument.  If the inputs contains
  *   F1R2 counts for multiple samples then the output file contains learned artifact priors for the same samples.
+ *   Inputs are merged one at a time as they are read, so many scatters may be given without holding all of their alt site records in memory.
+ *   The models of different reference contexts and samples may be learned in parallel with the --threads argument.
  */
 @CommandLineProgramProperties(
         summary = "Get the maximum likelihood estimates of artifact prior probabilities in the orientation bias mixture model filter",
@@ -46,11 +52,11 @@ import java.util.stream.IntStream;
 public class LearnReadOrientationModel extends CommandLineProgram {
     public static final double DEFAULT_CONVERGENCE_THRESHOLD = 1e-4;
     public static final int DEFAULT_MAX_ITERATIONS = 20;
-    private static final int DEFAULT_INITIAL_LIST_SIZE = 1_000_000;
 
     public static final String EM_CONVERGENCE_THRESHOLD_LONG_NAME = "convergence-threshold";
     public static final String MAX_EM_ITERATIONS_LONG_NAME = "num-em-iterations";
     public static final String MAX_DEPTH_LONG_NAME = "max-depth";
+    public static final String THREADS_LONG_NAME = "threads";
     public static final String ARTIFACT_PRIOR_EXTENSION = ".orientation_priors";
 
     @Argument(fullName = StandardArgumentDefinitions.INPUT_LONG_NAME, shortName = StandardArgumentDefinitions.INPUT_SHORT_NAME,
@@ -69,9 +75,9 @@ public class LearnReadOrientationModel extends CommandLineProgram {
     @Argument(fullName = MAX_DEPTH_LONG_NAME, doc = "sites with depth higher than this value will be grouped", optional = true)
     private int maxDepth = F1R2FilterConstants.DEFAULT_MAX_DEPTH;
 
-    private Map<String, List<Histogram<Integer>>> refHistogramsBySample;
-
-    private Map<String, List<Histogram<Integer>>> altHistogramsBySample;
+    @Argument(fullName = THREADS_LONG_NAME, doc = "Number of threads with which to learn the models of different reference contexts " +
+            "and samples in parallel.  The learned priors do not depend on the number of threads.", optional = true, minValue = 1)
+    private int numThreads = 1;
 
     @Override
     public Object doWork(){
@@ -79,99 +85,77 @@ public class LearnReadOrientationModel extends CommandLineProgram {
             throw new UserException.CouldNotCreateOutputFile(outputTarGz,  "Output file must end in .tar.gz");
         }
 
-        final List<File> tmpDirs = IntStream.range(0, inputTarGzs.size())
-                .mapToObj(n -> IOUtils.createTempDir(Integer.toString(n)))
-                .collect(Collectors.toList());
-
-        IntStream.range(0, inputTarGzs.size()).forEach(n -> IOUtils.extractTarGz(inputTarGzs.get(n).toPath(), tmpDirs.get(n).toPath()));
+        // Merge the counts of each input as it is extracted, so that neither all of the extracted inputs nor
+        // all of the alt site records need to be held at once
+        final Map<String, F1R2CountsOfSample> countsBySample = new TreeMap<>();
+        for (int n = 0; n < inputTarGzs.size(); n++) {
+            final File tmpDir = IOUtils.createTempDir(Integer.toString(n));
+            IOUtils.extractTarGz(inputTarGzs.get(n).toPath(), tmpDir.toPath());
 
-        final List<File> refHistogramFiles = tmpDirs.stream().flatMap(dir -> F1R2CountsCollector.getRefHistogramsFromExtractedTar(dir).stream()).collect(Collectors.toList());
-        final List<File> altHistogramFiles = tmpDirs.stream().flatMap(dir -> F1R2CountsCollector.getAltHistogramsFromExtractedTar(dir).stream()).collect(Collectors.toList());
-        final List<File> altTableFiles = tmpDirs.stream().flatMap(dir -> F1R2CountsCollector.getAltTablesFromExtractedTar(dir).stream()).collect(Collectors.toList());
+            addCountsFromExtractedTar(tmpDir, countsBySample);
+            IOUtils.deleteRecursively(tmpDir.toPath());
+        }
 
-        // TODO: this is brittle: it relies on the fact that in CollectF1R2Counts we put a single header line with the same name in the ref and alt histograms
-        final Map<String, List<MetricsFile<?, Integer>>> refHistogramMetricsFilesBySample = refHistogramFiles.stream()
-                .map(file -> readMetricsFile(file))
-                .collect(Collectors.groupingBy(metricsFile -> metricsFile.getHeaders().get(0).toString()));
-
-        final Map<String, List<MetricsFile<?, Integer>>> altHistogramMetricsFilesBySample = altHistogramFiles.stream()
-                .map(file -> readMetricsFile(file))
-                .collect(Collectors.groupingBy(metricsFile -> metricsFile.getHeaders().get(0).toString()));
-
-        final Set<String> refHistogramSamples = refHistogramMetricsFilesBySample.keySet();
-        final Set<String> altHistogramSamples = altHistogramMetricsFilesBySample.keySet();
-        Utils.validate(altHistogramSamples.isEmpty() || refHistogramSamples.containsAll(altHistogramSamples) && altHistogramSamples.containsAll(refHistogramSamples), "ref and alt histograms must have same samples");
-        Utils.validate(altHistogramSamples.isEmpty() || refHistogramSamples.stream().allMatch(sample -> refHistogramMetricsFilesBySample.get(sample).size() == altHistogramMetricsFilesBySample.get(sample).size()),
+        final boolean hasAltHistograms = countsBySample.values().stream().anyMatch(counts -> counts.numAltHistogramFiles > 0);
+        Utils.validate(!hasAltHistograms || countsBySample.values().stream().allMatch(counts -> (counts.numAltHistogramFiles > 0) == (counts.numRefHistogramFiles > 0)),
+                "ref and alt histograms must have same samples");
+        Utils.validate(!hasAltHistograms || countsBySample.values().stream().allMatch(counts -> counts.numAltHistogramFiles == counts.numRefHistogramFiles),
                 "Each sample must have the same number of alt and ref histograms");
 
-        //Utils.validate(altHistogramFiles.size() == 0 || altDataTables.size() == altHistogramFiles.size(), "If provided, the number of alt histograms must match others");
-        refHistogramsBySample = refHistogramSamples.stream().collect(Collectors.toMap(sample -> sample,
-                sample -> sumHistogramsFromFiles(refHistogramMetricsFilesBySample.get(sample), true)));
-
-        altHistogramsBySample = altHistogramSamples.stream().collect(Collectors.toMap(sample -> sample,
-                sample -> sumHistogramsFromFiles(altHistogramMetricsFilesBySample.get(sample), false)));
-
-        final Map<String, List<AltSiteRecord>> recordsBySample = gatherAltSiteRecords(altTableFiles);
-
-        final Map<String, ArtifactPriorCollection> artifactPriorCollectionBySample = new HashMap<>();
-        for (final Map.Entry<String, List<AltSiteRecord>> entry : recordsBySample.entrySet()) {
+        // Build the engines of all samples and contexts, and then learn their priors in parallel
+        final List<Pair<String, LearnReadOrientationModelEngine>> enginesAndSamples = new ArrayList<>();
+        for (final Map.Entry<String, F1R2CountsOfSample> entry : countsBySample.entrySet()) {
             final String sample = entry.getKey();
-            final List<AltSiteRecord> records = entry.getValue();
-
-            final Map<String, List<AltSiteRecord>> altDesignMatrixByContext = records.stream()
-                    .collect(Collectors.groupingBy(AltSiteRecord::getReferenceContext));
-
-            final ArtifactPriorCollection artifactPriorCollection = new ArtifactPriorCollection(sample);
+            final F1R2CountsOfSample counts = entry.getValue();
+            if (counts.altSiteCountsByContext.isEmpty()) {
+                continue;
+            }
 
             // Since e.g. G->T under AGT F1R2 is equivalent to C->A under ACT F2R1, combine the data
             for (final String refContext : F1R2FilterConstants.CANONICAL_KMERS) {
                 final String reverseComplement = SequenceUtil.reverseComplement(refContext);
 
                 // Merge ref histograms
-                final Histogram<Integer> refHistogram = refHistogramsBySample.get(sample).stream()
-                        .filter(h -> h.getValueLabel().equals(refContext))
-                        .findFirst().orElseGet(() -> F1R2FilterUtils.createRefHistogram(refContext, maxDepth));
-                final Histogram<Integer> refHistogramRevComp = refHistogramsBySample.get(sample).stream()
-                        .filter(h -> h.getValueLabel().equals(reverseComplement))
-                        .findFirst().orElseGet(() -> F1R2FilterUtils.createRefHistogram(reverseComplement, maxDepth));
+                final Histogram<Integer> refHistogram = Optional.ofNullable(counts.refHistograms.get(refContext))
+                        .orElseGet(() -> F1R2FilterUtils.createRefHistogram(refContext, maxDepth));
+                final Histogram<Integer> refHistogramRevComp = Optional.ofNullable(counts.refHistograms.get(reverseComplement))
+                        .orElseGet(() -> F1R2FilterUtils.createRefHistogram(reverseComplement, maxDepth));
                 final Histogram<Integer> combinedRefHistograms = combineRefHistogramWithRC(refContext, refHistogram, refHistogramRevComp, maxDepth);
 
-
                 // Merge alt depth=1 histograms
-                final List<Histogram<Integer>> altDepthOneHistogramsForContext = !altHistogramsBySample.containsKey(sample) ? Collections.emptyList() :
-                        altHistogramsBySample.get(sample).stream()
+                final List<Histogram<Integer>> altDepthOneHistogramsForContext = counts.altHistograms.values().stream()
                         .filter(h -> h.getValueLabel().startsWith(refContext))
                         .collect(Collectors.toList());
-                final List<Histogram<Integer>> altDepthOneHistogramsRevComp = !altHistogramsBySample.containsKey(sample) ? Collections.emptyList() :
-                        altHistogramsBySample.get(sample).stream()
+                final List<Histogram<Integer>> altDepthOneHistogramsRevComp = counts.altHistograms.values().stream()
                         .filter(h -> h.getValueLabel().startsWith(reverseComplement))
                         .collect(Collectors.toList());
                 final List<Histogram<Integer>> combinedAltHistograms = combineAltDepthOneHistogramWithRC(altDepthOneHistogramsForContext, altDepthOneHistogramsRevComp, maxDepth);
 
-                // Finally, merge the rest of alt records
-                final List<AltSiteRecord> altDesignMatrix = altDesignMatrixByContext.getOrDefault(refContext, new ArrayList<>()); // Cannot use Collections.emptyList() here because the input list must be mutable
-                final List<AltSiteRecord> altDesignMatrixRevComp = altDesignMatrixByContext.getOrDefault(reverseComplement, Collections.emptyList());
-                // Warning: the below method will mutate the content of {@link altDesignMatrixRevComp} and append to {@code altDesignMatrix}
-                mergeDesignMatrices(altDesignMatrix, altDesignMatrixRevComp);
-
+                // The rest of the alt records were merged with their reverse complements as they were read
+                final AltSiteCounts altSiteCounts = counts.altSiteCountsByContext.get(refContext);
 
-                if (combinedRefHistograms.getSumOfValues() == 0 || altDesignMatrix.isEmpty()) {
+                if (combinedRefHistograms.getSumOfValues() == 0 || altSiteCounts == null || altSiteCounts.isEmpty()) {
                     logger.info(String.format("Skipping the reference context %s as we didn't find either the ref or alt table for the context", refContext));
                     continue;
                 }
 
-                final LearnReadOrientationModelEngine engine = new LearnReadOrientationModelEngine(
+                enginesAndSamples.add(ImmutablePair.of(sample, new LearnReadOrientationModelEngine(
                         combinedRefHistograms,
                         combinedAltHistograms,
-                        altDesignMatrix,
+                        altSiteCounts,
                         convergenceThreshold,
                         maxEMIterations,
                         maxDepth,
-                        logger);
-                final ArtifactPrior artifactPrior = engine.learnPriorForArtifactStates();
-                artifactPriorCollection.set(artifactPrior);
+                        logger)));
             }
-            artifactPriorCollectionBySample.put(sample, artifactPriorCollection);
+        }
+
+        final List<ArtifactPrior> artifactPriors = learnPriors(enginesAndSamples.stream().map(Pair::getRight).collect(Collectors.toList()), numThreads);
+
+        final Map<String, ArtifactPriorCollection> artifactPriorCollectionBySample = new HashMap<>();
+        for (int i = 0; i < enginesAndSamples.size(); i++) {
+            artifactPriorCollectionBySample.computeIfAbsent(enginesAndSamples.get(i).getLeft(), ArtifactPriorCollection::new)
+                    .set(artifactPriors.get(i));
         }
 
         final File tmpPriorDir = IOUtils.createTempDir("priors");
@@ -191,6 +175,120 @@ public class LearnReadOrientationModel extends CommandLineProgram {
         return "SUCCESS";
     }
 
+    /**
+     * Learn the priors of the given engines on {@code numThreads} threads, returning them in the same order as the engines.
+     * Each engine is independent of the others, so the results do not depend on the number of threads.
+     */
+    @VisibleForTesting
+    static List<ArtifactPrior> learnPriors(final List<LearnReadOrientationModelEngine> engines, final int numThreads) {
+        Utils.nonNull(engines);
+        ParamUtils.isPositive(numThreads, "Number of threads must be positive.");
+        if (numThreads == 1) {
+            return engines.stream().map(LearnReadOrientationModelEngine::learnPriorForArtifactStates).collect(Collectors.toList());
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(numThreads);
+        try {
+            return pool.submit(() -> engines.parallelStream()
+                    .map(LearnReadOrientationModelEngine::learnPriorForArtifactStates)
+                    .collect(Collectors.toList())).get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while learning the read orientation model.", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new GATKException("Exception thrown while learning the read orientation model.", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Add the ref histograms, alt histograms, and alt site records of a single extracted output of CollectF1R2Counts
+     * to the counts of their samples.
+     */
+    @VisibleForTesting
+    static void addCountsFromExtractedTar(final File extractedDir, final Map<String, F1R2CountsOfSample> countsBySample) {
+        // TODO: this is brittle: it relies on the fact that in CollectF1R2Counts we put a single header line with the same name in the ref and alt histograms
+        for (final File refHistogramFile : F1R2CountsCollector.getRefHistogramsFromExtractedTar(extractedDir)) {
+            final MetricsFile<?, Integer> metricsFile = readMetricsFile(refHistogramFile);
+            countsBySample.computeIfAbsent(metricsFile.getHeaders().get(0).toString(), s -> new F1R2CountsOfSample())
+                    .addRefHistograms(metricsFile.getAllHistograms());
+        }
+
+        for (final File altHistogramFile : F1R2CountsCollector.getAltHistogramsFromExtractedTar(extractedDir)) {
+            final MetricsFile<?, Integer> metricsFile = readMetricsFile(altHistogramFile);
+            countsBySample.computeIfAbsent(metricsFile.getHeaders().get(0).toString(), s -> new F1R2CountsOfSample())
+                    .addAltHistograms(metricsFile.getAllHistograms());
+        }
+
+        for (final File altTableFile : F1R2CountsCollector.getAltTablesFromExtractedTar(extractedDir)) {
+            AltSiteRecord.forEachAltSiteRecord(altTableFile.toPath(), (sample, record) ->
+                    countsBySample.computeIfAbsent(sample, s -> new F1R2CountsOfSample()).addAltSiteRecord(record));
+        }
+    }
+
+    /**
+     * The F1R2 counts of a single sample, summed over any number of inputs.  Ref and alt histograms are summed by label,
+     * and alt site records are compressed by canonical reference context as they are added.
+     */
+    @VisibleForTesting
+    static final class F1R2CountsOfSample {
+        private final Map<String, Histogram<Integer>> refHistograms = new LinkedHashMap<>();
+        private final Map<String, Histogram<Integer>> altHistograms = new LinkedHashMap<>();
+        private final Map<String, AltSiteCounts> altSiteCountsByContext = new HashMap<>();
+        private int numRefHistogramFiles = 0;
+        private int numAltHistogramFiles = 0;
+
+        Map<String, Histogram<Integer>> getRefHistograms() {
+            return Collections.unmodifiableMap(refHistograms);
+        }
+
+        Map<String, Histogram<Integer>> getAltHistograms() {
+            return Collections.unmodifiableMap(altHistograms);
+        }
+
+        int getNumAltSites() {
+            return altSiteCountsByContext.values().stream().mapToInt(AltSiteCounts::getTotalNumSites).sum();
+        }
+
+        private void addRefHistograms(final List<Histogram<Integer>> histograms) {
+            validateHistograms(histograms, true);
+            addHistograms(refHistograms, histograms);
+            numRefHistogramFiles++;
+        }
+
+        private void addAltHistograms(final List<Histogram<Integer>> histograms) {
+            validateHistograms(histograms, false);
+            addHistograms(altHistograms, histograms);
+            numAltHistogramFiles++;
+        }
+
+        private void addAltSiteRecord(final AltSiteRecord record) {
+            final String context = record.getReferenceContext();
+            if (!F1R2FilterConstants.ALL_KMERS.contains(context)) {
+                return;
+            }
+            final String canonicalContext = F1R2FilterConstants.CANONICAL_KMERS.contains(context) ? context : SequenceUtil.reverseComplement(context);
+            altSiteCountsByContext.computeIfAbsent(canonicalContext, AltSiteCounts::new).add(record);
+        }
+
+        private void addHistograms(final Map<String, Histogram<Integer>> sums, final List<Histogram<Integer>> histograms) {
+            final boolean isFirst = sums.isEmpty();
+            for (final Histogram<Integer> histogram : histograms) {
+                final String label = histogram.getValueLabel();
+                if (isFirst) {
+                    sums.put(label, histogram);
+                } else {
+                    Utils.validate(sums.containsKey(label), "Missing histogram header for: " + label);
+                    sums.get(label).addHistogram(histogram);
+                }
+            }
+        }
+    }
+
     @VisibleForTesting
     public static Histogram<Integer> combineRefHistogramWithRC(final String refContext,
                                                                final Histogram<Integer> refHistogram,
@@ -261,37 +359,6 @@ public class LearnReadOrientationModel extends CommandLineProgram {
         return combinedHistograms;
     }
 
-
-    /**
-     * Contract: this method must be called after grouping the design matrices by context.
-     * That is, {@param altDesignMatrix} must be a list of {@link AltSiteRecord} of a single reference context
-     * (which is in F1R2FilterConstants.CANONICAL_KMERS) and {@param altDesignRevComp} contains only
-     * {@link AltSiteRecord} of its reverse complement.
-     */
-    @VisibleForTesting
-    public static void mergeDesignMatrices(final List<AltSiteRecord> altDesignMatrix, List<AltSiteRecord> altDesignMatrixRevComp){
-        if (altDesignMatrix.isEmpty() && altDesignMatrixRevComp.isEmpty()){
-            return;
-        }
-
-        // Order matters here. Assumes that all elements in the list have the same reference context
-        Utils.validateArg(altDesignMatrix.isEmpty() || F1R2FilterConstants.CANONICAL_KMERS.contains(altDesignMatrix.get(0).getReferenceContext()),
-                "altDesignMatrix must have the canonical representation");
-
-        final Optional<String> refContext = altDesignMatrix.isEmpty() ? Optional.empty() :
-                Optional.of(altDesignMatrix.get(0).getReferenceContext());
-        final Optional<String> revCompContext = altDesignMatrixRevComp.isEmpty() ? Optional.empty() :
-                Optional.of(altDesignMatrixRevComp.get(0).getReferenceContext());
-
-        // If the matrices aren't empty, their reference context much be the reverse complement of each other
-        if (refContext.isPresent() && revCompContext.isPresent()){
-            Utils.validateArg(refContext.get().equals(SequenceUtil.reverseComplement(revCompContext.get())),
-                    "ref context and its rev comp don't match");
-        }
-
-        altDesignMatrix.addAll(altDesignMatrixRevComp.stream().map(AltSiteRecord::getReverseComplementOfRecord).collect(Collectors.toList()));
-    }
-
     public static MetricsFile<?, Integer> readMetricsFile(File file){
         final MetricsFile<?, Integer> metricsFile = new MetricsFile<>();
         final Reader reader = IOUtil.openFileForBufferedReading(file);
@@ -300,13 +367,7 @@ public class LearnReadOrientationModel extends CommandLineProgram {
         return metricsFile;
     }
 
-    public static List<Histogram<Integer>> sumHistogramsFromFiles(final List<MetricsFile<?,Integer>> metricsFiles, final boolean ref){
-        Utils.nonNull(metricsFiles, "files may not be null");
-        if (metricsFiles.isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        final List<Histogram<Integer>> histogramList = metricsFiles.get(0).getAllHistograms();
+    private static void validateHistograms(final List<Histogram<Integer>> histogramList, final boolean ref){
         if (ref){
             Utils.validate(histogramList.size() == F1R2FilterConstants.NUM_KMERS,
                     "The list of ref histograms need to include all kmers as enforced by CollectF1R2Counts");
@@ -316,35 +377,5 @@ public class LearnReadOrientationModel extends CommandLineProgram {
             Utils.validate(histogramList.size() == F1R2FilterConstants.NUM_KMERS * F1R2FilterConstants.numAltHistogramsPerContext,
                     "The list of alt histograms missing some (kmer, alt allele, f1r2) triple");
         }
-
-        for (int i = 1; i < metricsFiles.size(); i++){
-            final List<Histogram<Integer>> ithHistograms = metricsFiles.get(i).getAllHistograms();
-            for (final Histogram<Integer> jthHistogram : ithHistograms){
-                final String refContext = jthHistogram.getValueLabel();
-                final Optional<Histogram<Integer>> hist = histogramList.stream().filter(h -> h.getValueLabel().equals(refContext)).findAny();
-                Utils.validate(hist.isPresent(),"Missing histogram header for: " + refContext);
-
-                hist.get().addHistogram(jthHistogram);
-            }
-        }
-        return histogramList;
-    }
-
-    @VisibleForTesting
-    static Map<String, List<AltSiteRecord>> gatherAltSiteRecords(final List<File> tables){
-        final Map<String, List<AltSiteRecord>> result = new HashMap<>();
-        for (final File table : tables) {
-            final Pair<String, List<AltSiteRecord>> sampleAndRecords = AltSiteRecord.readAltSiteRecords(table.toPath(), DEFAULT_INITIAL_LIST_SIZE);
-            final String sample = sampleAndRecords.getLeft();
-            final List<AltSiteRecord> records = sampleAndRecords.getRight();
-
-            if (result.containsKey(sample)) {
-                result.get(sample).addAll(records);
-            } else {
-                result.put(sample, records);
-            }
-        }
-
-        return result;
     }
-}
\ No newline at end of file
+}
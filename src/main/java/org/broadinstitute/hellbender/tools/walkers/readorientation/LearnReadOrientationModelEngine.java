@@ -3,11 +3,10 @@ package org.broadinstitute.hellbender.tools.walkers.readorientation;
 import com.google.common.annotations.VisibleForTesting;
 import htsjdk.samtools.util.Histogram;
 import org.apache.commons.lang3.mutable.MutableInt;
-import org.apache.commons.lang3.tuple.ImmutableTriple;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.lang3.tuple.Triple;
-import org.apache.commons.math3.linear.Array2DRowRealMatrix;
 import org.apache.commons.math3.linear.ArrayRealVector;
-import org.apache.commons.math3.linear.RealMatrix;
 import org.apache.commons.math3.linear.RealVector;
 import org.apache.commons.math3.util.MathArrays;
 import org.apache.logging.log4j.Logger;
@@ -18,8 +17,16 @@ import org.broadinstitute.hellbender.utils.Nucleotide;
 import org.broadinstitute.hellbender.utils.Utils;
 
 import java.util.*;
-
-
+import java.util.stream.Collectors;
+
+/**
+ * Learns the prior probabilities of the artifact states for a single canonical reference context by EM.
+ *
+ * Sites are laid out as rows of flat primitive arrays: first the ref sites of each depth, then the distinct alt sites
+ * of the design matrix (see {@link AltSiteCounts}), then the alt sites of each depth with a single alt read.  Each row
+ * carries the number of sites it represents.  Since the likelihoods of a site under each state do not depend on the prior,
+ * they are computed once, and each E step only adds the current log prior and normalizes.
+ */
 public class LearnReadOrientationModelEngine {
     // We consider the likelihood converged to its maximum when the difference falls below this threshold
     private final double convergenceThreshold;
@@ -35,29 +42,40 @@ public class LearnReadOrientationModelEngine {
 
     private final List<Histogram<Integer>> altDepthOneHistograms;
 
-    private final List<AltSiteRecord> altDesignMatrix;
+    private final AltSiteCounts altSiteCounts;
 
-    /**
-     * N by K matrix of posterior probabilities of latent variable z, where N is the number of alt sites,
-     * evaluated at the current estimates of the mixture weights
-     */
-    private final RealMatrix altResponsibilities;
+    // When constructed from a list of {@link AltSiteRecord}s, the index in {@link altSiteCounts} of each record
+    private int[] altSiteIndices;
+
+    private static final int K = F1R2FilterConstants.NUM_STATES;
+
+    // Rows [0, maxDepth) are ref sites with depth 1, 2,..., maxDepth, rows [altSitesStart, depthOneSitesStart) are the
+    // distinct alt sites, and the remaining rows are the alt sites with alt depth 1 for each alt allele, orientation, and depth
+    private int altSitesStart;
+
+    private int depthOneSitesStart;
+
+    private int numRows;
+
+    // Number of sites represented by each row
+    private double[] siteCounts;
 
-    private final Map<Triple<Integer, Nucleotide, ReadOrientation>, double[]> responsibilitiesOfAltDepth1Sites;
+    // numRows by K, row-major, log likelihoods of the data at each row given each state, independent of the prior
+    private double[] logLikelihoods;
 
     /**
-     * MAX_COVERAGE by K matrix of responsibilities of a ref site (i.e. ALT Depth = 0, ALT F1R2 = 0)
-     * for ref sites with coverage 1, 2,..., maxDepth
+     * numRows by K, row-major, posterior probabilities of latent variable z for each row,
+     * evaluated at the current estimates of the mixture weights
      */
-    private final RealMatrix refResponsibilities;
+    private double[] responsibilities;
 
-    private final int numAltExamples;
+    private int numAltExamples;
 
     private final int numRefExamples;
 
-    private final int numExamples;
+    private int numExamples;
 
-    // K-dimensional vector of effective sample counts for each class of z, weighted by the the altResponsibilities. For a fixed k,
+    // K-dimensional vector of effective sample counts for each class of z, weighted by the the responsibilities. For a fixed k,
     // we sum up the counts over all alleles. N_k in the docs.
     private RealVector effectiveCounts = new ArrayRealVector(F1R2FilterConstants.NUM_STATES);
 
@@ -112,26 +130,32 @@ public class LearnReadOrientationModelEngine {
                                            final List<AltSiteRecord> altDesignMatrixForContext,
                                            final double convergenceThreshold, final int maxEMIterations,
                                            final int maxDepth, final Logger logger) {
+        this(refHistogram, altDepthOneHistograms, new AltSiteCounts(Utils.nonNull(refHistogram).getValueLabel()),
+                convergenceThreshold, maxEMIterations, maxDepth, logger);
+        altSiteIndices = Utils.nonNull(altDesignMatrixForContext).stream()
+                .mapToInt(r -> altSiteCounts.add(r.getAltAllele(), r.getDepth(), r.getAltCount(), r.getAltF1R2(), 1))
+                .toArray();
+    }
+
+    /**
+     * Contract: the reference contexts must be combined with its reverse complements prior to instantiating this class,
+     * and {@code altSiteCounts} must be of the same canonical context as {@code refHistogram}
+     */
+    public LearnReadOrientationModelEngine(final Histogram<Integer> refHistogram, final List<Histogram<Integer>> altDepthOneHistograms,
+                                           final AltSiteCounts altSiteCounts,
+                                           final double convergenceThreshold, final int maxEMIterations,
+                                           final int maxDepth, final Logger logger) {
         this.refHistogram = Utils.nonNull(refHistogram);
         this.altDepthOneHistograms = Utils.nonNull(altDepthOneHistograms);
-        this.altDesignMatrix = Utils.nonNull(altDesignMatrixForContext);
+        this.altSiteCounts = Utils.nonNull(altSiteCounts);
         this.referenceContext = refHistogram.getValueLabel();
         Utils.validate(referenceContext.length() == F1R2FilterConstants.REFERENCE_CONTEXT_SIZE,
                 String.format("reference context must have length %d but got %s", F1R2FilterConstants.REFERENCE_CONTEXT_SIZE, referenceContext));
         Utils.validate(F1R2FilterConstants.CANONICAL_KMERS.contains(referenceContext),
                 referenceContext + " is not in the set of canonical kmers");
-        this.numAltExamples = altDesignMatrix.size() + altDepthOneHistograms.stream().mapToInt(h -> (int) h.getSumOfValues()).sum();
+        Utils.validateArg(altSiteCounts.getReferenceContext().equals(referenceContext),
+                String.format("alt sites of context %s do not match reference context %s", altSiteCounts.getReferenceContext(), referenceContext));
         this.numRefExamples = (int) refHistogram.getSumOfValues();
-        this.numExamples = numAltExamples + numRefExamples;
-
-        // Responsibilities of ref sites with equal depth are the same so we can compute it for each depth and
-        // multiply by the number of counts for that depth
-        this.refResponsibilities = new Array2DRowRealMatrix(maxDepth, F1R2FilterConstants.NUM_STATES);
-
-        this.altResponsibilities = new Array2DRowRealMatrix(altDesignMatrix.size(), F1R2FilterConstants.NUM_STATES);
-
-        // Store responsibilities for each depth and the F1R2/F2R1 of the one alt read
-        this.responsibilitiesOfAltDepth1Sites = new HashMap<>();
         this.refAllele = F1R2FilterUtils.getMiddleBase(referenceContext);
         this.convergenceThreshold = convergenceThreshold;
         this.maxEMIterations = maxEMIterations;
@@ -141,6 +165,8 @@ public class LearnReadOrientationModelEngine {
 
     // Learn the prior probabilities for the artifact states by the EM algorithm
     public ArtifactPrior learnPriorForArtifactStates() {
+        initializeSites();
+
         // Initialize the prior for artifact
         final double[] pseudocounts = getFlatPrior(refAllele);
         double[] statePrior = Arrays.copyOf(pseudocounts, F1R2FilterConstants.NUM_STATES);
@@ -172,46 +198,78 @@ public class LearnReadOrientationModelEngine {
     }
 
     /**
-     * Given the current estimates of artifact prior probabilities, compute the responsibilities, which are
-     * the posterior probabilities of artifact states, for each data point
-     **/
-    private void takeEstep(final double[] artifactPriors) {
-        /**
-         * Compute the responsibilities of ref examples.
-         * Given that for moderate to high depths we will always have P(HOM REF) = 1, this is largely overkill
-         *
-         * Ref sites with the same depth have the same alt and alt F1R2 depths (i.e. zero) so avoid repeated computations
-         */
+     * Lay out the sites as rows and compute their counts and the log likelihoods under each state
+     */
+    private void initializeSites() {
+        numAltExamples = altSiteCounts.getTotalNumSites() + altDepthOneHistograms.stream().mapToInt(h -> (int) h.getSumOfValues()).sum();
+        numExamples = numAltExamples + numRefExamples;
+
+        final List<Nucleotide> altAlleles = Nucleotide.STANDARD_BASES.stream().filter(a -> a != refAllele).collect(Collectors.toList());
+        altSitesStart = maxDepth;
+        depthOneSitesStart = altSitesStart + altSiteCounts.size();
+        numRows = depthOneSitesStart + altAlleles.size() * ReadOrientation.SIZE * maxDepth;
+        siteCounts = new double[numRows];
+        logLikelihoods = new double[numRows * K];
+        responsibilities = new double[numRows * K];
+
+        // Ref sites with the same depth have the same alt and alt F1R2 depths (i.e. zero) so avoid repeated computations
         for (int i = 0; i < maxDepth; i++) {
             final int depth = i + 1;
-            refResponsibilities.setRow(i, computeResponsibilities(refAllele, refAllele, 0, 0, depth, artifactPriors, false));
+            siteCounts[i] = refHistogram.get(depth).getValue();
+            computeLogLikelihoods(refAllele, refAllele, 0, 0, depth, logLikelihoods, i * K);
         }
 
-        // Compute the responsibilities of alt sites
-        for (int n = 0; n < altDesignMatrix.size(); n++) {
-            final AltSiteRecord example = altDesignMatrix.get(n);
-            final int depth = example.getDepth();
-            final int altDepth = example.getAltCount();
-            final int altF1R2 = example.getAltF1R2();
+        for (int n = 0; n < altSiteCounts.size(); n++) {
+            final int row = altSitesStart + n;
+            siteCounts[row] = altSiteCounts.getNumSites(n);
+            computeLogLikelihoods(refAllele, altSiteCounts.getAltAllele(n), altSiteCounts.getAltCount(n), altSiteCounts.getAltF1R2(n),
+                    altSiteCounts.getDepth(n), logLikelihoods, row * K);
+        }
 
-            altResponsibilities.setRow(n, computeResponsibilities(refAllele, example.getAltAllele(), altDepth, altF1R2, depth, artifactPriors, false));
+        final Map<Pair<Nucleotide, ReadOrientation>, Integer> depthOneBlockStarts = new HashMap<>();
+        int blockStart = depthOneSitesStart;
+        for (final Nucleotide altAllele : altAlleles) {
+            for (final ReadOrientation orientation : ReadOrientation.values()) {
+                depthOneBlockStarts.put(new ImmutablePair<>(altAllele, orientation), blockStart);
+                final int f1r2Depth = orientation == ReadOrientation.F1R2 ? 1 : 0;
+                for (int i = 0; i < maxDepth; i++) {
+                    computeLogLikelihoods(refAllele, altAllele, 1, f1r2Depth, i + 1, logLikelihoods, (blockStart + i) * K);
+                }
+                blockStart += maxDepth;
+            }
         }
 
-        // Compute the responsibilities of alt sites with depth=1
-        for (int i = 0; i < maxDepth; i++){
-            final int depth = i+1;
-            for (Nucleotide altAllele : Nucleotide.STANDARD_BASES){
-                for (ReadOrientation orientation : ReadOrientation.values()){
-                    if (altAllele == refAllele){
-                        continue;
-                    }
+        for (final Histogram<Integer> histogram : altDepthOneHistograms) {
+            final Triple<String, Nucleotide, ReadOrientation> triplet = F1R2FilterUtils.labelToTriplet(histogram.getValueLabel());
+            final Integer start = depthOneBlockStarts.get(new ImmutablePair<>(triplet.getMiddle(), triplet.getRight()));
+            Utils.validateArg(start != null, "alt histogram has the ref allele as the alt allele: " + histogram.getValueLabel());
+            for (int i = 0; i < maxDepth; i++) {
+                siteCounts[start + i] += histogram.get(i + 1).getValue();
+            }
+        }
+    }
 
-                    final int f1r2Depth = orientation == ReadOrientation.F1R2 ? 1 : 0;
+    /**
+     * Given the current estimates of artifact prior probabilities, compute the responsibilities, which are
+     * the posterior probabilities of artifact states, for each row of sites
+     **/
+    private void takeEstep(final double[] artifactPriors) {
+        final double[] logPriors = new double[K];
+        for (int k = 0; k < K; k++) {
+            Utils.validateArg(MathUtils.isValidProbability(artifactPriors[k]), String.format("statePrior must be a probability but got %f", artifactPriors[k]));
+            logPriors[k] = Math.log(artifactPriors[k]);
+        }
 
-                    final Triple<Integer, Nucleotide, ReadOrientation> key = createKey(depth, altAllele, orientation);
-                    responsibilitiesOfAltDepth1Sites.put(key, computeResponsibilities(refAllele, altAllele, 1, f1r2Depth, depth, artifactPriors, false));
-                }
+        final double[] logUnnormalizedResponsibilities = new double[K];
+        for (int row = 0; row < numRows; row++) {
+            final int offset = row * K;
+            for (int k = 0; k < K; k++) {
+                final double logLikelihood = logLikelihoods[offset + k];
+                // states that are inconsistent with the data have zero probability regardless of the prior
+                logUnnormalizedResponsibilities[k] = logLikelihood == Double.NEGATIVE_INFINITY ? logLikelihood : logPriors[k] + logLikelihood;
             }
+            NaturalLogUtils.normalizeLog(logUnnormalizedResponsibilities, false, true);
+            System.arraycopy(logUnnormalizedResponsibilities, 0, responsibilities, offset, K);
         }
     }
 
@@ -223,32 +281,32 @@ public class LearnReadOrientationModelEngine {
      */
     private double[] takeMstep(final double[] pseudocounts) {
         // First we compute the effective counts of each state, N_k in the docs. We do this separately over alt and ref sites
-        final double[] effectiveAltCountsFromDesignMatrix = MathUtils.sumArrayFunction(0, altDesignMatrix.size(), n -> altResponsibilities.getRow(n));
-        double[] effectiveAltCountsFromHistograms = new double[F1R2FilterConstants.NUM_STATES];
-
-        for (Histogram<Integer> histogram : altDepthOneHistograms){
-            final Triple<String, Nucleotide, ReadOrientation> triplet = F1R2FilterUtils.labelToTriplet(histogram.getValueLabel());
-            final Nucleotide altAllele = triplet.getMiddle();
-            final ReadOrientation orientation = triplet.getRight();
-
-
-            final double[] effectiveAltCountsFromHistogram = MathUtils.sumArrayFunction(0, maxDepth,
-                    i -> MathArrays.scale(histogram.get(i + 1).getValue(), responsibilitiesOfAltDepth1Sites.get(createKey(i+1, altAllele, orientation))));
-            effectiveAltCountsFromHistograms = MathArrays.ebeAdd(effectiveAltCountsFromHistograms, effectiveAltCountsFromHistogram);
-        }
-
-        final double[] effectiveAltCounts = MathArrays.ebeAdd(effectiveAltCountsFromDesignMatrix, effectiveAltCountsFromHistograms);
+        final double[] effectiveAltCounts = sumWeightedResponsibilities(altSitesStart, numRows);
 
         // TODO: at some depth, the responsibilities must be 1 for z = HOM_REF and 0 for everything else, we could probably save some time there
         // Over ref sites, we have a histogram of sites over different depths. At each depth we simply multiply the responsibilities by the number of sites,
         // and sum them over all of depths. Because we cut off the depth histogram at {@code MAX_COVERAGE}, we underestimate the ref effective counts by design
-        final double[] effectiveRefCounts = MathUtils.sumArrayFunction(0, maxDepth,
-                i -> MathArrays.scale(refHistogram.get(i + 1).getValue(), refResponsibilities.getRow(i)));
+        final double[] effectiveRefCounts = sumWeightedResponsibilities(0, altSitesStart);
 
         effectiveCounts = new ArrayRealVector(MathArrays.ebeAdd(effectiveAltCounts, effectiveRefCounts));
         return MathUtils.normalizeSumToOne(effectiveCounts.add(new ArrayRealVector(pseudocounts)).toArray());
     }
 
+    private double[] sumWeightedResponsibilities(final int startRow, final int endRow) {
+        final double[] result = new double[K];
+        for (int row = startRow; row < endRow; row++) {
+            final double count = siteCounts[row];
+            if (count == 0) {
+                continue;
+            }
+            final int offset = row * K;
+            for (int k = 0; k < K; k++) {
+                result[k] += count * responsibilities[offset + k];
+            }
+        }
+        return result;
+    }
+
     /**
      * Return normalized probabilities
      */
@@ -256,47 +314,66 @@ public class LearnReadOrientationModelEngine {
                                                    final int altDepth, final int f1r2AltCount, final int depth,
                                                    final double[] artifactPrior, final boolean givenNotHomRef) {
         final double[] logUnnormalizedResponsibilities = new double[F1R2FilterConstants.NUM_STATES];
+        computeLogLikelihoods(refAllele, altAllele, altDepth, f1r2AltCount, depth, logUnnormalizedResponsibilities, 0);
+
+        for (int stateIndex = 0; stateIndex < F1R2FilterConstants.NUM_STATES; stateIndex++) {
+            if (logUnnormalizedResponsibilities[stateIndex] == Double.NEGATIVE_INFINITY) {
+                continue;
+            }
+            logUnnormalizedResponsibilities[stateIndex] = computeLogPosterior(artifactPrior[stateIndex], logUnnormalizedResponsibilities[stateIndex]);
+        }
+
+        if (givenNotHomRef){
+            logUnnormalizedResponsibilities[ArtifactState.HOM_REF.ordinal()] = Double.NEGATIVE_INFINITY;
+        }
+
+        return NaturalLogUtils.normalizeFromLogToLinearSpace(logUnnormalizedResponsibilities);
+    }
+
+    /**
+     * Compute the log likelihood of the data given each state z, which does not depend on the prior, into
+     * {@code result} starting at {@code offset}.  States that are inconsistent with the data get negative infinity.
+     */
+    private static void computeLogLikelihoods(final Nucleotide refAllele, final Nucleotide altAllele,
+                                              final int altDepth, final int f1r2AltCount, final int depth,
+                                              final double[] result, final int offset) {
         final List<ArtifactState> refToRefArtifacts = ArtifactState.getRefToRefArtifacts(refAllele);
 
         for (ArtifactState state : ArtifactState.values()){
             final int stateIndex = state.ordinal();
             if (refToRefArtifacts.contains(state)) {
                 // This state is really just hom ref so give it zero probability and skip
-                logUnnormalizedResponsibilities[stateIndex] = Double.NEGATIVE_INFINITY;
+                result[offset + stateIndex] = Double.NEGATIVE_INFINITY;
                 continue;
             }
 
             if (ArtifactState.artifactStates.contains(state) && state.getAltAlleleOfArtifact() != altAllele) {
                 // The indicator function is 0
-                logUnnormalizedResponsibilities[stateIndex] = Double.NEGATIVE_INFINITY;
+                result[offset + stateIndex] = Double.NEGATIVE_INFINITY;
                 continue;
             }
 
             // If we get here, we have a non-artifact state i.e. { germline het, hom ref, hom var, somatic het }
             // or an artifact state whose transitions match the observed alt allele (e.g. alt allele = A, z = F1R2_A, F2R1_A)
-            logUnnormalizedResponsibilities[stateIndex] = computeLogPosterior(altDepth, f1r2AltCount, depth, artifactPrior[stateIndex],
+            result[offset + stateIndex] = computeLogLikelihood(altDepth, f1r2AltCount, depth,
                     alleleFractionPseudoCounts.get(state), altF1R2FractionPseudoCounts.get(state));
         }
-
-        if (givenNotHomRef){
-            logUnnormalizedResponsibilities[ArtifactState.HOM_REF.ordinal()] = Double.NEGATIVE_INFINITY;
-        }
-
-        return NaturalLogUtils.normalizeFromLogToLinearSpace(logUnnormalizedResponsibilities);
     }
 
-
     /**
-     * Compute the posterior probability of the state z given data. The caller is responsible for not calling
-     * this method on inconsistent states e.g. z = F1R2_C where the reference context is ACT
+     * Compute the posterior probability of the state z given data, up to normalization. The caller is responsible
+     * for not calling this method on inconsistent states e.g. z = F1R2_C where the reference context is ACT
      */
-    private static double computeLogPosterior(final int altDepth, final int altF1R2Depth, final int depth,
-                                              final double statePrior, final BetaDistributionShape afPseudoCounts,
-                                              final BetaDistributionShape f1r2PseudoCounts){
+    private static double computeLogPosterior(final double statePrior, final double logLikelihood){
         Utils.validateArg(MathUtils.isValidProbability(statePrior), String.format("statePrior must be a probability but got %f", statePrior));
 
-        return Math.log(statePrior)
-                + new BetaBinomialDistribution(null, afPseudoCounts.getAlpha(), afPseudoCounts.getBeta(), depth).logProbability(altDepth)
+        return Math.log(statePrior) + logLikelihood;
+    }
+
+    private static double computeLogLikelihood(final int altDepth, final int altF1R2Depth, final int depth,
+                                               final BetaDistributionShape afPseudoCounts,
+                                               final BetaDistributionShape f1r2PseudoCounts){
+        return new BetaBinomialDistribution(null, afPseudoCounts.getAlpha(), afPseudoCounts.getBeta(), depth).logProbability(altDepth)
                 + new BetaBinomialDistribution(null, f1r2PseudoCounts.getAlpha(), f1r2PseudoCounts.getBeta(), altDepth).logProbability(altF1R2Depth);
     }
 
@@ -332,12 +409,14 @@ public class LearnReadOrientationModelEngine {
 
     @VisibleForTesting
     public double[] getRefResonsibilities(final int rowNum){
-        return refResponsibilities.getRow(rowNum);
+        Utils.validIndex(rowNum, altSitesStart);
+        return Arrays.copyOfRange(responsibilities, rowNum * K, (rowNum + 1) * K);
     }
 
     @VisibleForTesting
     public double[] getAltResonsibilities(final int rowNum){
-        return altResponsibilities.getRow(rowNum);
+        final int row = altSitesStart + (altSiteIndices == null ? Utils.validIndex(rowNum, altSiteCounts.size()) : altSiteIndices[rowNum]);
+        return Arrays.copyOfRange(responsibilities, row * K, (row + 1) * K);
     }
 
     @VisibleForTesting
@@ -368,8 +447,4 @@ public class LearnReadOrientationModelEngine {
 
         return prior;
     }
-
-    private Triple<Integer, Nucleotide, ReadOrientation> createKey(final int depth, final Nucleotide altAllele, final ReadOrientation orientation){
-        return new ImmutableTriple<>(depth, altAllele, orientation);
-    }
 }
\ No newline at end of file
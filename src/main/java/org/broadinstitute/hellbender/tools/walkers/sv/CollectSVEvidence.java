@@ -24,6 +24,7 @@ import org.broadinstitute.hellbender.utils.Nucleotide;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.codecs.*;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.runtime.BackgroundBatchConsumer;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
@@ -98,6 +99,9 @@ import static org.broadinstitute.hellbender.utils.read.ReadUtils.isBaseInsideAda
  * as a tab-delimited text file by specifying an output file name that ends with ".bci" rather than
  * ".txt".  These files are self-indexing, and contain complete header information including sample
  * name(s) and a dictionary for the contigs.
+ *
+ * With --pipelined, site depth and read depth evidence are collected on their own threads, and each output file is
+ * encoded and written on its own thread, so that the tool can use several cores. The outputs are identical.
  */
 @BetaFeature
 @DocumentedFeature
@@ -129,6 +133,7 @@ public class CollectSVEvidence extends ReadWalker {
     public static final String MIN_SITE_DEPTH_BASEQ_ARGUMENT_NAME = "site-depth-min-baseq";
     public static final String SAMPLE_NAME_ARGUMENT_LONG_NAME = "sample-name";
     public static final String COMPRESSION_LEVEL_ARGUMENT_LONG_NAME = "compression-level";
+    public static final String PIPELINED_ARGUMENT_LONG_NAME = "pipelined";
 
     @Argument(shortName = PAIRED_END_FILE_ARGUMENT_SHORT_NAME,
             fullName = PAIRED_END_FILE_ARGUMENT_LONG_NAME, doc = "Output file for paired end evidence",
@@ -191,6 +196,11 @@ public class CollectSVEvidence extends ReadWalker {
     @Argument(fullName = COMPRESSION_LEVEL_ARGUMENT_LONG_NAME, doc = "Output compression level")
     int compressionLevel = 4;
 
+    @Argument(fullName = PIPELINED_ARGUMENT_LONG_NAME,
+            doc = "Collect site depth and read depth evidence, and write each output, on separate threads",
+            optional = true)
+    boolean pipelined = false;
+
     final Set<String> observedDiscordantNames = new HashSet<>();
     final PriorityQueue<SplitPos> splitPosBuffer = new PriorityQueue<>(new SplitPosComparator());
     final List<DiscordantRead> discordantPairs = new ArrayList<>();
@@ -202,6 +212,8 @@ public class CollectSVEvidence extends ReadWalker {
     private FeatureSink<SplitReadEvidence> srWriter;
     private SiteDepthCounter siteDepthCounter;
     private DepthEvidenceCollector depthEvidenceCollector;
+    private BackgroundBatchConsumer<GATKRead> siteDepthWorker;
+    private BackgroundBatchConsumer<GATKRead> depthEvidenceWorker;
 
     private SAMSequenceDictionary sequenceDictionary;
 
@@ -223,6 +235,16 @@ public class CollectSVEvidence extends ReadWalker {
                 siteDepthCounter == null && depthEvidenceCollector == null ) {
             throw new UserException("You must supply at least one output file: PE, SR, SD, or RD");
         }
+        if ( pipelined ) {
+            if ( siteDepthCounter != null ) {
+                siteDepthWorker = new BackgroundBatchConsumer<>(siteDepthCounter::apply,
+                        siteDepthCounter::close, "CollectSVEvidence-SD-counter");
+            }
+            if ( depthEvidenceCollector != null ) {
+                depthEvidenceWorker = new BackgroundBatchConsumer<>(depthEvidenceCollector::apply,
+                        depthEvidenceCollector::close, "CollectSVEvidence-RD-collector");
+            }
+        }
     }
 
     @Override
@@ -247,14 +269,42 @@ public class CollectSVEvidence extends ReadWalker {
             }
         }
 
-        if ( siteDepthCounter != null ) {
+        if ( siteDepthWorker != null || depthEvidenceWorker != null ) {
+            decodeForSharing(read);
+        }
+        if ( siteDepthWorker != null ) {
+            siteDepthWorker.accept(read);
+        } else if ( siteDepthCounter != null ) {
             siteDepthCounter.apply(read);
         }
-        if ( depthEvidenceCollector != null ) {
+        if ( depthEvidenceWorker != null ) {
+            depthEvidenceWorker.accept(read);
+        } else if ( depthEvidenceCollector != null ) {
             depthEvidenceCollector.apply(read);
         }
     }
 
+    /**
+     * Reads backed by BAM records decode some of their fields lazily, and caching the decoded values isn't
+     * thread-safe, so decode everything the evidence collectors use before sharing the read with their threads.
+     */
+    private static void decodeForSharing( final GATKRead read ) {
+        read.getName();
+        read.getCigar();
+        read.getEnd();
+        read.getBasesNoCopy();
+        read.getBaseQualitiesNoCopy();
+    }
+
+    /**
+     * Wraps a sink so that it is written on its own thread, if running in pipelined mode.
+     */
+    private static <F extends Feature> FeatureSink<F> maybeAsync( final FeatureSink<F> sink,
+                                                                 final boolean pipelined,
+                                                                 final String threadName ) {
+        return pipelined ? new AsyncFeatureSink<>(sink, threadName) : sink;
+    }
+
     private FeatureSink<DiscordantPairEvidence> createPEWriter() {
         if ( peFile == null ) {
             return null;
@@ -264,14 +314,16 @@ public class CollectSVEvidence extends ReadWalker {
         final DiscordantPairEvidenceCodec peCodec = new DiscordantPairEvidenceCodec();
         final DiscordantPairEvidenceBCICodec peBCICodec = new DiscordantPairEvidenceBCICodec();
         if ( peBCICodec.canDecode(peFilename) ) {
-            return peBCICodec.makeSink(peFile, sequenceDictionary, sampleNames, compressionLevel);
+            return maybeAsync(peBCICodec.makeSink(peFile, sequenceDictionary, sampleNames, compressionLevel),
+                    pipelined, "CollectSVEvidence-PE-writer");
         }
         if ( !peCodec.canDecode(peFilename) ) {
             throw new UserException("Attempting to write discordant pair evidence to a file that " +
                     "can't be read as discordant pair evidence: " + peFilename + ".  The file " +
                     "name should end with \".pe.txt\", \".pe.txt.gz\", or \".pe.bci\".");
         }
-        return peCodec.makeSink(peFile, sequenceDictionary, sampleNames, compressionLevel);
+        return maybeAsync(peCodec.makeSink(peFile, sequenceDictionary, sampleNames, compressionLevel),
+                pipelined, "CollectSVEvidence-PE-writer");
     }
 
     private FeatureSink<SplitReadEvidence> createSRWriter() {
@@ -283,21 +335,23 @@ public class CollectSVEvidence extends ReadWalker {
         final SplitReadEvidenceCodec srCodec = new SplitReadEvidenceCodec();
         final SplitReadEvidenceBCICodec srBCICodec = new SplitReadEvidenceBCICodec();
         if ( srBCICodec.canDecode(srFilename) ) {
-            return srBCICodec.makeSink(srFile, sequenceDictionary, sampleNames, compressionLevel);
+            return maybeAsync(srBCICodec.makeSink(srFile, sequenceDictionary, sampleNames, compressionLevel),
+                    pipelined, "CollectSVEvidence-SR-writer");
         }
         if ( !srCodec.canDecode(srFilename) ) {
             throw new UserException("Attempting to write split read evidence to a file that " +
                     "can't be read as split read evidence: " + srFilename + ".  The file " +
                     "name should end with \".sr.txt\", \".sr.txt.gz\", or \".sr.bci\".");
         }
-        return srCodec.makeSink(srFile, sequenceDictionary, sampleNames, compressionLevel);
+        return maybeAsync(srCodec.makeSink(srFile, sequenceDictionary, sampleNames, compressionLevel),
+                pipelined, "CollectSVEvidence-SR-writer");
     }
 
     private SiteDepthCounter createSiteDepthCounter() {
         if ( siteDepthInputFilename != null && siteDepthOutputFilename != null ) {
             return new SiteDepthCounter(sequenceDictionary, sampleName, compressionLevel,
                     siteDepthInputFilename, siteDepthOutputFilename,
-                                        minMapQ, minQ);
+                                        minMapQ, minQ, pipelined);
         }
         if ( siteDepthInputFilename != null ) {
             throw new UserException("Having specified a " + SITE_DEPTH_INPUT_ARGUMENT_LONG_NAME +
@@ -316,7 +370,7 @@ public class CollectSVEvidence extends ReadWalker {
         if ( depthEvidenceInputFilename != null && depthEvidenceOutputFilename != null ) {
             return new DepthEvidenceCollector(sequenceDictionary, sampleName, compressionLevel,
                                             depthEvidenceInputFilename, depthEvidenceOutputFilename,
-                                            minDepthEvidenceMapQ);
+                                            minDepthEvidenceMapQ, pipelined);
         }
         if ( depthEvidenceInputFilename != null ) {
             throw new UserException("Having specified an depth-evidence-intervals input, " +
@@ -442,14 +496,18 @@ public class CollectSVEvidence extends ReadWalker {
     public Object onTraversalSuccess() {
         flushSplitCounts(splitPos -> true, splitPosBuffer, srWriter);
         flushDiscordantReadPairs();
-        if ( siteDepthCounter != null ) {
+        if ( siteDepthWorker != null ) {
+            siteDepthWorker.close();
+        } else if ( siteDepthCounter != null ) {
             siteDepthCounter.close();
         }
-        if ( depthEvidenceCollector != null ) {
+        if ( depthEvidenceWorker != null ) {
+            depthEvidenceWorker.close();
+        } else if ( depthEvidenceCollector != null ) {
             depthEvidenceCollector.close();
-            if ( depthEvidenceSummaryFilename != null ) {
-                depthEvidenceCollector.reportSummaryStats(depthEvidenceSummaryFilename, sampleName);
-            }
+        }
+        if ( depthEvidenceCollector != null && depthEvidenceSummaryFilename != null ) {
+            depthEvidenceCollector.reportSummaryStats(depthEvidenceSummaryFilename, sampleName);
         }
         return null;
     }
@@ -688,14 +746,16 @@ public class CollectSVEvidence extends ReadWalker {
                                  final GATKPath inputPath,
                                  final GATKPath outputPath,
                                  final int minMapQ,
-                                 final int minQ ) {
+                                 final int minQ,
+                                 final boolean asyncWriter ) {
             this.lComp = new LocusComparator(dict);
             this.sampleName = sampleName;
             final String outputFilename = outputPath.toPath().toString();
             final SiteDepthBCICodec bciCodec = new SiteDepthBCICodec();
             final List<String> sampleNames = Collections.singletonList(sampleName);
             if ( bciCodec.canDecode(outputFilename) ) {
-                this.writer = bciCodec.makeSink(outputPath, dict, sampleNames, compressionLevel);
+                this.writer = maybeAsync(bciCodec.makeSink(outputPath, dict, sampleNames, compressionLevel),
+                        asyncWriter, "CollectSVEvidence-SD-writer");
             } else {
                 final SiteDepthCodec codec = new SiteDepthCodec();
                 if ( !codec.canDecode(outputFilename) ) {
@@ -703,7 +763,8 @@ public class CollectSVEvidence extends ReadWalker {
                             "can't be read as site depth evidence: " + outputFilename + ".  The file " +
                             "name should end with \".sd.txt\", \".sd.txt.gz\", or \".sd.bci\".");
                 }
-                this.writer = codec.makeSink(outputPath, dict, sampleNames, compressionLevel);
+                this.writer = maybeAsync(codec.makeSink(outputPath, dict, sampleNames, compressionLevel),
+                        asyncWriter, "CollectSVEvidence-SD-writer");
             }
             this.minMapQ = minMapQ;
             this.minQ = minQ;
@@ -931,14 +992,16 @@ public class CollectSVEvidence extends ReadWalker {
                                        final int cmprLevel,
                                        final GATKPath inputIntervalsPath,
                                        final GATKPath outputDepthEvidencePath,
-                                       final int minMapQ ) {
+                                       final int minMapQ,
+                                       final boolean asyncWriter ) {
             lComp = new LocusComparator(dict);
             countCounter = new CountCounter();
             final String outputFilename = outputDepthEvidencePath.toPath().toString();
             final DepthEvidenceBCICodec bciCodec = new DepthEvidenceBCICodec();
             final List<String> sampleNames = Collections.singletonList(sampleName);
             if ( bciCodec.canDecode(outputFilename) ) {
-                writer = bciCodec.makeSink(outputDepthEvidencePath, dict, sampleNames, cmprLevel);
+                writer = maybeAsync(bciCodec.makeSink(outputDepthEvidencePath, dict, sampleNames, cmprLevel),
+                        asyncWriter, "CollectSVEvidence-RD-writer");
             } else {
                 final DepthEvidenceCodec codec = new DepthEvidenceCodec();
                 if ( !codec.canDecode(outputFilename) ) {
@@ -946,7 +1009,8 @@ public class CollectSVEvidence extends ReadWalker {
                             "can't be read as depth evidence: " + outputFilename + ".  The file " +
                             "name should end with \".rd.txt\", \".rd.txt.gz\", or \".rd.bci\".");
                 }
-                writer = codec.makeSink(outputDepthEvidencePath, dict, sampleNames, cmprLevel);
+                writer = maybeAsync(codec.makeSink(outputDepthEvidencePath, dict, sampleNames, cmprLevel),
+                        asyncWriter, "CollectSVEvidence-RD-writer");
             }
 
             final FeatureDataSource<Feature> intervalSource =
@@ -2,6 +2,7 @@ package org.broadinstitute.hellbender.tools.walkers.sv;
 
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.samtools.reference.ReferenceSequenceFile;
+import htsjdk.samtools.util.CloserUtil;
 import htsjdk.variant.variantcontext.GenotypesContext;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.VariantContextBuilder;
@@ -189,6 +190,7 @@ public final class SVCluster extends MultiVariantWalker {
     public static final String OMIT_MEMBERS_LONG_NAME = "omit-members";
     public static final String INSERTION_LENGTH_SUMMARY_STRATEGY_LONG_NAME = "insertion-length-summary-strategy";
     public static final String DEFAULT_NO_CALL_LONG_NAME = "default-no-call";
+    public static final String CLUSTER_THREADS_LONG_NAME = "cluster-threads";
 
     /**
      * The enum Cluster algorithm.
@@ -319,6 +321,17 @@ public final class SVCluster extends MultiVariantWalker {
     )
     private boolean defaultNoCall = false;
 
+    /**
+     * With more than one thread, the input is split on each contig wherever no variant can cluster across the gap,
+     * and the resulting partitions are clustered in parallel. Results are identical to single-threaded clustering.
+     */
+    @Argument(fullName = CLUSTER_THREADS_LONG_NAME,
+            doc = "Number of threads to use for clustering",
+            minValue = 1,
+            optional = true
+    )
+    private int clusterThreads = 1;
+
     @ArgumentCollection
     private final SVClusterEngineArgumentsCollection clusterParameterArgs = new SVClusterEngineArgumentsCollection();
 
@@ -327,6 +340,8 @@ public final class SVCluster extends MultiVariantWalker {
     private PloidyTable ploidyTable;
     private VariantContextWriter writer;
     private SVClusterEngine<SVCallRecord> clusterEngine;
+    private PartitionedSVClusterEngine<SVCallRecord> partitionedClusterEngine;
+    private final List<ReferenceSequenceFile> clusterThreadReferences = Collections.synchronizedList(new ArrayList<>());
     private Set<String> samples;
     private String currentContig;
     private int numVariantsBuilt = 0;
@@ -346,18 +361,15 @@ public final class SVCluster extends MultiVariantWalker {
         ploidyTable = new PloidyTable(ploidyTablePath.toPath());
         samples = getSamplesForVariants();
 
-        if (algorithm == CLUSTER_ALGORITHM.DEFRAGMENT_CNV) {
-            clusterEngine = SVClusterEngineFactory.createCNVDefragmenter(dictionary, altAlleleSummaryStrategy,
-                    reference, defragPaddingFraction, defragSampleOverlapFraction);
-        } else if (algorithm == CLUSTER_ALGORITHM.SINGLE_LINKAGE || algorithm == CLUSTER_ALGORITHM.MAX_CLIQUE) {
-            final SVClusterEngine.CLUSTERING_TYPE type = algorithm == CLUSTER_ALGORITHM.SINGLE_LINKAGE ?
-                    SVClusterEngine.CLUSTERING_TYPE.SINGLE_LINKAGE : SVClusterEngine.CLUSTERING_TYPE.MAX_CLIQUE;
-            clusterEngine = SVClusterEngineFactory.createCanonical(type, breakpointSummaryStrategy,
-                    altAlleleSummaryStrategy, insertionLengthSummaryStrategy, dictionary, reference, enableCnv,
-                    clusterParameterArgs.getDepthParameters(), clusterParameterArgs.getMixedParameters(),
-                    clusterParameterArgs.getPESRParameters());
+        if (clusterThreads > 1) {
+            // Reference readers are not thread-safe, so each clustering thread gets its own
+            partitionedClusterEngine = new PartitionedSVClusterEngine<>(createClusterEngine(reference).getLinkage(), () -> {
+                final ReferenceSequenceFile threadReference = ReferenceUtils.createReferenceReader(referenceArguments.getReferenceSpecifier());
+                clusterThreadReferences.add(threadReference);
+                return createClusterEngine(threadReference);
+            }, clusterThreads);
         } else {
-            throw new IllegalArgumentException("Unsupported algorithm: " + algorithm.name());
+            clusterEngine = createClusterEngine(reference);
         }
 
         writer = createVCFWriter(outputFile);
@@ -374,11 +386,32 @@ public final class SVCluster extends MultiVariantWalker {
     @Override
     public void closeTool() {
         super.closeTool();
+        if (partitionedClusterEngine != null) {
+            // the clustering threads have stopped once the engine is closed, so their references may be closed
+            partitionedClusterEngine.close();
+            clusterThreadReferences.forEach(CloserUtil::close);
+        }
         if (writer != null) {
             writer.close();
         }
     }
 
+    private SVClusterEngine<SVCallRecord> createClusterEngine(final ReferenceSequenceFile engineReference) {
+        if (algorithm == CLUSTER_ALGORITHM.DEFRAGMENT_CNV) {
+            return SVClusterEngineFactory.createCNVDefragmenter(dictionary, altAlleleSummaryStrategy,
+                    engineReference, defragPaddingFraction, defragSampleOverlapFraction);
+        } else if (algorithm == CLUSTER_ALGORITHM.SINGLE_LINKAGE || algorithm == CLUSTER_ALGORITHM.MAX_CLIQUE) {
+            final SVClusterEngine.CLUSTERING_TYPE type = algorithm == CLUSTER_ALGORITHM.SINGLE_LINKAGE ?
+                    SVClusterEngine.CLUSTERING_TYPE.SINGLE_LINKAGE : SVClusterEngine.CLUSTERING_TYPE.MAX_CLIQUE;
+            return SVClusterEngineFactory.createCanonical(type, breakpointSummaryStrategy,
+                    altAlleleSummaryStrategy, insertionLengthSummaryStrategy, dictionary, engineReference, enableCnv,
+                    clusterParameterArgs.getDepthParameters(), clusterParameterArgs.getMixedParameters(),
+                    clusterParameterArgs.getPESRParameters());
+        } else {
+            throw new IllegalArgumentException("Unsupported algorithm: " + algorithm.name());
+        }
+    }
+
     @Override
     public void apply(final VariantContext variant, final ReadsContext readsContext,
                       final ReferenceContext referenceContext, final FeatureContext featureContext) {
@@ -400,16 +433,29 @@ public final class SVCluster extends MultiVariantWalker {
 
         // Add to clustering buffer
         if (convertInversions) {
-            SVCallRecordUtils.convertInversionsToBreakends(filteredCall, dictionary).forEachOrdered(clusterEngine::add);
+            SVCallRecordUtils.convertInversionsToBreakends(filteredCall, dictionary).forEachOrdered(this::addToClusterEngine);
         } else {
-            clusterEngine.add(filteredCall);
+            addToClusterEngine(filteredCall);
         }
 
         write(false);
     }
 
+    private void addToClusterEngine(final SVCallRecord call) {
+        if (partitionedClusterEngine != null) {
+            partitionedClusterEngine.add(call);
+        } else {
+            clusterEngine.add(call);
+        }
+    }
+
     private void write(final boolean force) {
-        final List<SVCallRecord> records = force ? clusterEngine.forceFlush() : clusterEngine.flush();
+        final List<SVCallRecord> records;
+        if (partitionedClusterEngine != null) {
+            records = force ? partitionedClusterEngine.forceFlush() : partitionedClusterEngine.flush();
+        } else {
+            records = force ? clusterEngine.forceFlush() : clusterEngine.flush();
+        }
         records.stream().map(this::buildVariantContext).forEachOrdered(writer::add);
     }
 
@@ -6,6 +6,7 @@ import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.Genotype;
 import htsjdk.variant.variantcontext.GenotypeBuilder;
 import htsjdk.variant.variantcontext.GenotypesContext;
+import htsjdk.variant.variantcontext.LazyGenotypesContext;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.VariantContextBuilder;
 import htsjdk.variant.variantcontext.VariantContextUtils;
@@ -29,6 +30,7 @@ import org.broadinstitute.hellbender.engine.FeatureContext;
 import org.broadinstitute.hellbender.engine.ReadsContext;
 import org.broadinstitute.hellbender.engine.ReferenceContext;
 import org.broadinstitute.hellbender.engine.VariantWalker;
+import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.walkers.annotator.ChromosomeCounts;
 import org.broadinstitute.hellbender.tools.walkers.genotyper.AlleleSubsettingUtils;
@@ -40,8 +42,12 @@ import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
 import org.broadinstitute.hellbender.utils.variant.*;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Predicate;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Select a subset of variants from a VCF file
@@ -68,6 +74,10 @@ import java.util.stream.Collectors;
  * <p>There are also several options for recording the original values of certain annotations which are recalculated
  * when one subsets the new callset, trims alleles, etc.</p>
  *
+ * <p>With --threads greater than 1, variants are selected and subset in parallel in blocks of consecutive records and
+ * then written in their input order, so the output is the same as with a single thread.  Genotypes are only parsed,
+ * on the worker threads, when the selection reads them, e.g. to subset samples or apply genotype filters.</p>
+ *
  * <h3>Input</h3>
  * <p>
  * A variant call set in VCF format from which a subset can be selected.
@@ -107,6 +117,12 @@ import java.util.stream.Collectors;
 @DocumentedFeature
 public final class SelectVariants extends VariantWalker {
 
+    public static final String THREADS_LONG_NAME = "threads";
+
+    private static final int VARIANTS_PER_BLOCK = 1000;
+
+    private static final Pattern JEXL_VARIANT_CONTEXT_REFERENCE = Pattern.compile("\\bvc\\b");
+
     private static final int MAX_FILTERED_GENOTYPES_DEFAULT_VALUE  = Integer.MAX_VALUE;
     private static final double MAX_FRACTION_FILTERED_GENOTYPES_DEFAULT_VALUE = 1.0;
 
@@ -429,8 +445,30 @@ public final class SelectVariants extends VariantWalker {
     @ArgumentCollection
     private GenomicsDBArgumentCollection genomicsdbArgs = new GenomicsDBArgumentCollection();
 
+    @Argument(fullName = THREADS_LONG_NAME, doc = "Number of threads with which to select and subset variants.  The output does not depend on the number of threads.",
+            optional = true, minValue = 1)
+    private int numThreads = 1;
+
     private VariantContextWriter vcfWriter = null;
 
+    // null if single-threaded
+    private ForkJoinPool pool = null;
+
+    // variants waiting to be processed in parallel, in input order
+    private final List<BufferedVariant> variantBlock = new ArrayList<>();
+
+    private ThreadLocal<List<VariantContextUtils.JexlVCMatchExp>> threadJexls = null;
+
+    private ThreadLocal<MendelianViolation> threadMendelianViolations = null;
+
+    // decode the genotypes of the driving variants and comp tracks on the worker threads; null if the selection does
+    // not read genotypes or the tool is single-threaded
+    private GenotypeDecoder variantGenotypeDecoder = null;
+
+    private GenotypeDecoder discordanceGenotypeDecoder = null;
+
+    private GenotypeDecoder concordanceGenotypeDecoder = null;
+
     private enum NumberAlleleRestriction {
         ALL,
         BIALLELIC,
@@ -562,11 +600,90 @@ public final class SelectVariants extends VariantWalker {
         final Path outPath = vcfOutput.toPath();
         vcfWriter = createVCFWriter(outPath);
         vcfWriter.writeHeader(new VCFHeader(actualLines, samples));
+
+        if (numThreads > 1) {
+            pool = new ForkJoinPool(numThreads);
+            threadJexls = ThreadLocal.withInitial(() -> VariantContextUtils.initializeMatchExps(selectNames, selectExpressions));
+            if (mendelianViolations) {
+                threadMendelianViolations = ThreadLocal.withInitial(() -> new MendelianViolation(mendelianViolationQualThreshold, false, true));
+            }
+            if (selectionReadsGenotypes()) {
+                variantGenotypeDecoder = new GenotypeDecoder(getHeaderForVariants());
+            }
+            if (discordanceOnly) {
+                discordanceGenotypeDecoder = new GenotypeDecoder((VCFHeader) getHeaderForFeatures(discordanceTrack));
+            }
+            if (concordanceOnly) {
+                concordanceGenotypeDecoder = new GenotypeDecoder((VCFHeader) getHeaderForFeatures(concordanceTrack));
+            }
+        }
+    }
+
+    /**
+     * Whether selecting a variant may read its genotypes, e.g. to subset samples or to apply genotype filters.  JEXL
+     * expressions can only reach the genotypes through the {@code vc} variable.
+     */
+    private boolean selectionReadsGenotypes() {
+        return !noSamplesSpecified || removeUnusedAlternates || fullyDecode || mendelianViolations ||
+                discordanceOnly || concordanceOnly || considerFilteredGenotypes() || considerNoCallGenotypes() ||
+                XLnonVariants || setFilteredGenotypesToNocall || !genotypeAnnotationsToDrop.isEmpty() ||
+                selectExpressions.stream().anyMatch(expression -> JEXL_VARIANT_CONTEXT_REFERENCE.matcher(expression).find());
     }
 
     @Override
     public void apply(VariantContext vc, ReadsContext readsContext, ReferenceContext ref, FeatureContext featureContext) {
+        final List<VariantContext> discordanceComps = discordanceOnly ? featureContext.getValues(discordanceTrack) : Collections.emptyList();
+        final List<VariantContext> concordanceComps = concordanceOnly ? featureContext.getValues(concordanceTrack) : Collections.emptyList();
+
+        if (pool == null) {
+            writeSelectedVariant(vc, selectVariant(vc, discordanceComps, concordanceComps, jexls, mv));
+            return;
+        }
+
+        variantBlock.add(new BufferedVariant(vc, discordanceComps, concordanceComps));
+        if (variantBlock.size() == VARIANTS_PER_BLOCK) {
+            processBlock();
+        }
+    }
+
+    /**
+     * Select and subset the buffered variants in parallel, then write them in their input order.  Each thread has its
+     * own JEXL expressions and Mendelian violation counter, and decodes genotypes with its own codec.
+     */
+    private void processBlock() {
+        final VariantContext[] selected = new VariantContext[variantBlock.size()];
+        try {
+            pool.submit(() -> IntStream.range(0, variantBlock.size()).parallel().forEach(n -> {
+                final BufferedVariant variant = variantBlock.get(n);
+                selected[n] = selectVariant(GenotypeDecoder.decode(variantGenotypeDecoder, variant.vc),
+                        variant.discordanceComps.stream().map(comp -> GenotypeDecoder.decode(discordanceGenotypeDecoder, comp)).collect(Collectors.toList()),
+                        variant.concordanceComps.stream().map(comp -> GenotypeDecoder.decode(concordanceGenotypeDecoder, comp)).collect(Collectors.toList()),
+                        threadJexls.get(), mendelianViolations ? threadMendelianViolations.get() : null);
+            })).get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while selecting variants.", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new GATKException("Error selecting variants.", e.getCause());
+        }
+
+        for (int n = 0; n < selected.length; n++) {
+            writeSelectedVariant(variantBlock.get(n).vc, selected[n]);
+        }
+        variantBlock.clear();
+    }
 
+    /**
+     * Write out the pending variants that precede an input variant and then queue the variant selected from it,
+     * if any.  This must be called in the order of the input variants.
+     *
+     * @param vc the input variant
+     * @param selected the variant to write, as returned by {@link #selectVariant}, or null if none was selected
+     */
+    private void writeSelectedVariant(final VariantContext vc, final VariantContext selected) {
         /*check for pending variants to write out
         since variant starts will only be moved further right, we can write out a pending variant if the current variant start is after the pending variant start
         variant record locations can move to the right due to allele trimming if preserveAlleles is false
@@ -575,32 +692,49 @@ public final class SelectVariants extends VariantWalker {
             vcfWriter.add(pendingVariants.poll());
         }
 
+        // random selection is done here, in input order, so that the output does not depend on the number of threads
+        if (selected != null && (!selectRandomFraction || Utils.getRandomGenerator().nextDouble() < fractionRandom)) {
+            pendingVariants.add(selected);
+        }
+    }
+
+    /**
+     * Apply the selection criteria to a variant and subset it to the selected samples.  This does not modify the state
+     * of the tool, so it may be called from several threads at once as long as each has its own JEXL expressions and
+     * Mendelian violation counter.
+     *
+     * @return the variant to write, or null if it is not selected
+     */
+    private VariantContext selectVariant(VariantContext vc, final List<VariantContext> discordanceComps,
+                                         final List<VariantContext> concordanceComps,
+                                         final List<VariantContextUtils.JexlVCMatchExp> matchExps,
+                                         final MendelianViolation mendelianViolation) {
         if (fullyDecode) {
             vc = vc.fullyDecode(getHeaderForVariants(), lenientVCFProcessing);
         }
 
-        if (mendelianViolations && invertLogic((mv.countFamilyViolations(sampleDB, samples, vc) == 0), invertMendelianViolations)) {
-            return;
+        if (mendelianViolations && invertLogic((mendelianViolation.countFamilyViolations(sampleDB, samples, vc) == 0), invertMendelianViolations)) {
+            return null;
         }
 
-        if (discordanceOnly && !isDiscordant(vc, featureContext.getValues(discordanceTrack))) {
-            return;
+        if (discordanceOnly && !isDiscordant(vc, discordanceComps)) {
+            return null;
         }
 
-        if (concordanceOnly && !isConcordant(vc, featureContext.getValues(concordanceTrack))) {
-            return;
+        if (concordanceOnly && !isConcordant(vc, concordanceComps)) {
+            return null;
         }
 
         if (alleleRestriction.equals(NumberAlleleRestriction.BIALLELIC) && !vc.isBiallelic()) {
-            return;
+            return null;
         }
 
         if (alleleRestriction.equals(NumberAlleleRestriction.MULTIALLELIC) && vc.isBiallelic()) {
-            return;
+            return null;
         }
 
         if (containsIndelLargerOrSmallerThan(vc, maxIndelSize, minIndelSize)) {
-            return;
+            return null;
         }
 
         if (considerFilteredGenotypes()) {
@@ -608,14 +742,14 @@ public final class SelectVariants extends VariantWalker {
             final double fractionFilteredGenotypes = samples.isEmpty() ? 0.0 : numFilteredSamples / samples.size();
             if (numFilteredSamples > maxFilteredGenotypes || numFilteredSamples < minFilteredGenotypes ||
                     fractionFilteredGenotypes > maxFractionFilteredGenotypes || fractionFilteredGenotypes < minFractionFilteredGenotypes)
-                return;
+                return null;
         }
 
         if (considerNoCallGenotypes()) {
             final int numNoCallSamples = numNoCallGenotypes(vc);
             final double fractionNoCallGenotypes = samples.isEmpty() ? 0.0 : ((double) numNoCallSamples) / samples.size();
             if (numNoCallSamples > maxNOCALLnumber || fractionNoCallGenotypes > maxNOCALLfraction)
-                return;
+                return null;
         }
 
         final VariantContext sub = subsetRecord(vc, preserveAlleles, removeUnusedAlternates);
@@ -643,7 +777,7 @@ public final class SelectVariants extends VariantWalker {
             boolean failedJexlMatch = false;
 
             try {
-                for (VariantContextUtils.JexlVCMatchExp jexl : jexls) {
+                for (VariantContextUtils.JexlVCMatchExp jexl : matchExps) {
                     if (invertLogic(!VariantContextUtils.match(filteredGenotypeToNocall, jexl), invertSelect)){
                         failedJexlMatch = true;
                         break;
@@ -656,12 +790,71 @@ public final class SelectVariants extends VariantWalker {
                         "\nSee https://gatk.broadinstitute.org/hc/en-us/articles/360035891011-JEXL-filtering-expressions for documentation on using JEXL in GATK", e);
             }
 
-            if (!failedJexlMatch &&
-                    (!selectRandomFraction || Utils.getRandomGenerator().nextDouble() < fractionRandom)) {
-                //remove annotations being dropped and write variantcontext
-                final VariantContext variantContextToWrite = buildVariantContextWithDroppedAnnotationsRemoved(filteredGenotypeToNocall);
-                pendingVariants.add(variantContextToWrite);
+            if (!failedJexlMatch) {
+                //remove annotations being dropped
+                return buildVariantContextWithDroppedAnnotationsRemoved(filteredGenotypeToNocall);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Genotypes read from a VCF are parsed lazily by the codec that read them, which is not thread-safe.  This instead
+     * parses the unparsed genotype fields of a record with a codec of the calling thread, built from the header of the
+     * record's source.  Genotypes read lazily from other formats are decoded by their own codec, one thread at a time.
+     */
+    private static final class GenotypeDecoder {
+        private final int numSamples;
+        private final ThreadLocal<VCFCodec> codecs;
+
+        private GenotypeDecoder(final VCFHeader header) {
+            numSamples = header.getNGenotypeSamples();
+            final VCFHeaderVersion version = header.getVCFHeaderVersion() == null ? VCFHeaderVersion.VCF4_2 : header.getVCFHeaderVersion();
+            codecs = ThreadLocal.withInitial(() -> {
+                final VCFCodec codec = new VCFCodec();
+                // the codec may repair the header lines of its header, so it gets its own copy
+                codec.setVCFHeader(new VCFHeader(header), version);
+                return codec;
+            });
+        }
+
+        /**
+         * @return {@code vc} with its genotypes decoded, or {@code vc} itself if {@code decoder} is null
+         */
+        private static VariantContext decode(final GenotypeDecoder decoder, final VariantContext vc) {
+            return decoder == null ? vc : decoder.decode(vc);
+        }
+
+        private VariantContext decode(final VariantContext vc) {
+            final GenotypesContext genotypes = vc.getGenotypes();
+            if (!(genotypes instanceof LazyGenotypesContext) || ((LazyGenotypesContext) genotypes).isLoaded()) {
+                return vc;
             }
+            final Object unparsedGenotypes = ((LazyGenotypesContext) genotypes).getUnparsedGenotypeData();
+            if (!(unparsedGenotypes instanceof String)) {
+                synchronized (this) {
+                    genotypes.iterator();
+                }
+                return vc;
+            }
+
+            final LazyGenotypesContext decoded = new LazyGenotypesContext(
+                    data -> codecs.get().createGenotypeMap((String) data, vc.getAlleles(), vc.getContig(), vc.getStart()),
+                    unparsedGenotypes, numSamples);
+            decoded.decode();
+            return new VariantContextBuilder(vc).genotypesNoValidation(decoded).make();
+        }
+    }
+
+    private static final class BufferedVariant {
+        private final VariantContext vc;
+        private final List<VariantContext> discordanceComps;
+        private final List<VariantContext> concordanceComps;
+
+        private BufferedVariant(final VariantContext vc, final List<VariantContext> discordanceComps, final List<VariantContext> concordanceComps) {
+            this.vc = vc;
+            this.discordanceComps = discordanceComps;
+            this.concordanceComps = concordanceComps;
         }
     }
 
@@ -670,6 +863,9 @@ public final class SelectVariants extends VariantWalker {
      */
     @Override
     public Object onTraversalSuccess() {
+        if (pool != null && !variantBlock.isEmpty()) {
+            processBlock();
+        }
         while(!pendingVariants.isEmpty()) {
             vcfWriter.add(pendingVariants.poll());
         }
@@ -724,6 +920,9 @@ public final class SelectVariants extends VariantWalker {
         if (vcfWriter != null) {
             vcfWriter.close();
         }
+        if (pool != null) {
+            pool.shutdown();
+        }
     }
 
     /**
@@ -18,6 +18,7 @@ import org.broadinstitute.hellbender.engine.VariantWalker;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
+import org.broadinstitute.hellbender.utils.variant.VariantFieldSelection;
 import org.broadinstitute.hellbender.utils.variant.VcfUtils;
 
 import java.io.FileNotFoundException;
@@ -206,6 +207,10 @@ public final class VariantsToTable extends VariantWalker {
 
     private static final String MISSING_DATA = "NA";
 
+    // the standard fields whose values are counted or read from the genotypes
+    private static final Set<String> GENOTYPE_DERIVED_FIELDS = new HashSet<>(Arrays.asList(
+            "HET", "HOM-REF", "HOM-VAR", "NO-CALL", "VAR", "NSAMPLES", "NCALLED", "SAMPLE_NAME"));
+
     private SortedSet<String> samples;
     private long nRecords = 0L;
     private PrintStream outputStream = null;
@@ -281,6 +286,29 @@ public final class VariantsToTable extends VariantWalker {
         }
     }
 
+    /**
+     * Decode only the requested INFO and FORMAT fields, and no genotypes at all if no genotype fields are requested.
+     * Without any requested fields, or with fields derived from every genotype, records are decoded in full.
+     */
+    @Override
+    protected VariantFieldSelection getDrivingVariantFieldSelection() {
+        final boolean noFieldsRequested = fieldsToTake.isEmpty() && genotypeFieldsToTake.isEmpty() && asFieldsToTake.isEmpty() && asGenotypeFieldsToTake.isEmpty();
+        if (noFieldsRequested || fieldsToTake.stream().anyMatch(GENOTYPE_DERIVED_FIELDS::contains)) {
+            return VariantFieldSelection.ALL;
+        }
+
+        final List<String> infoKeys = new ArrayList<>(asFieldsToTake);
+        fieldsToTake.stream().filter(field -> !getters.containsKey(field)).forEach(infoKeys::add);
+        final boolean anyWildCard = fieldsToTake.stream().anyMatch(VariantsToTable::isWildCard);
+
+        if (genotypeFieldsToTake.isEmpty() && asGenotypeFieldsToTake.isEmpty()) {
+            return VariantFieldSelection.sitesOnly(anyWildCard ? null : infoKeys);
+        }
+        final List<String> formatKeys = new ArrayList<>(genotypeFieldsToTake);
+        formatKeys.addAll(asGenotypeFieldsToTake);
+        return new VariantFieldSelection(anyWildCard ? null : infoKeys, formatKeys, null);
+    }
+
     private PrintStream createPrintStream() {
         try {
             return out != null ? new PrintStream(out) : System.out;
@@ -52,7 +52,11 @@ import java.util.stream.Collectors;
  * <p>
  *     Note that annotations and metadata are collected in memory during traversal until they are written to HDF5 files
  *     upon completion of the traversal. Memory requirements thus roughly scale linearly with both the number of sites
- *     extracted and the number of annotations.
+ *     extracted and the number of annotations. For large callsets, the {@value SPILL_BLOCK_SIZE_LONG_NAME} argument
+ *     can be used to bound the number of labeled sites held in memory, with the remainder spilled to a temporary file
+ *     on disk; together with reservoir sampling of unlabeled sites (see the
+ *     {@value MAXIMUM_NUMBER_OF_UNLABELED_VARIANTS_LONG_NAME} argument), this keeps memory requirements during
+ *     traversal independent of the size of the input VCF.
  * </p>
  *
  * <p>
@@ -357,7 +361,7 @@ public final class ExtractVariantAnnotations extends LabeledVariantAnnotationsWa
         }
         for (final VariantType variantType : variantTypesToExtract) {
             logger.info(String.format("Extracted unlabeled annotations for %d variants of type %s.",
-                    unlabeledDataReservoir.getVariantTypeFlat().stream().mapToInt(t -> t == variantType ? 1 : 0).sum(), variantType));
+                    unlabeledDataReservoir.getVariantTypeCount(variantType), variantType));
         }
         logger.info(String.format("Extracted unlabeled annotations for %s total variants.", unlabeledDataReservoir.size()));
 
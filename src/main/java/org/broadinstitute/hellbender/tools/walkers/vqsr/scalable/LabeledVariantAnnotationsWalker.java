@@ -94,6 +94,7 @@ public abstract class LabeledVariantAnnotationsWalker extends MultiplePassVarian
     public static final String RESOURCE_MATCHING_STRATEGY_LONG_NAME = "resource-matching-strategy";
     public static final String OMIT_ALLELES_IN_HDF5_LONG_NAME = "omit-alleles-in-hdf5";
     public static final String DO_NOT_GZIP_VCF_OUTPUT_LONG_NAME = "do-not-gzip-vcf-output";
+    public static final String SPILL_BLOCK_SIZE_LONG_NAME = "spill-block-size";
 
     public static final String ANNOTATIONS_HDF5_SUFFIX = ".annot.hdf5";
 
@@ -183,6 +184,16 @@ public abstract class LabeledVariantAnnotationsWalker extends MultiplePassVarian
     )
     boolean doNotGZIPVCFOutput = false;
 
+    @Argument(
+            fullName = SPILL_BLOCK_SIZE_LONG_NAME,
+            doc = "If greater than zero, at most this number of extracted variants will be held in memory during traversal; " +
+                    "full blocks of variants will instead be spilled to a temporary file, which will be streamed to the " +
+                    "output HDF5 file upon completion of the traversal. If zero, all extracted variants will be held in memory.",
+            optional = true,
+            minValue = 0
+    )
+    int spillBlockSize = 0;
+
     private final Set<String> ignoreInputFilterSet = new TreeSet<>();
     Set<VariantType> variantTypesToExtract;
     TreeSet<String> resourceLabels = new TreeSet<>();
@@ -222,7 +233,9 @@ public abstract class LabeledVariantAnnotationsWalker extends MultiplePassVarian
                     LabeledVariantAnnotationsData.SNP_LABEL));
         }
 
-        data = new LabeledVariantAnnotationsData(annotationNames, resourceLabels, useASAnnotations);
+        data = spillBlockSize > 0
+                ? new LabeledVariantAnnotationsData(annotationNames, resourceLabels, useASAnnotations, spillBlockSize, spillBlockSize)
+                : new LabeledVariantAnnotationsData(annotationNames, resourceLabels, useASAnnotations);
 
         vcfWriter = createVCFWriter(outputVCFFile);
         vcfWriter.writeHeader(constructVCFHeader(data.getSortedLabels()));
@@ -270,11 +283,11 @@ public abstract class LabeledVariantAnnotationsWalker extends MultiplePassVarian
         }
         for (final VariantType variantType : variantTypesToExtract) {
             logger.info(String.format("Extracted annotations for %d variants of type %s.",
-                    data.getVariantTypeFlat().stream().mapToInt(t -> t == variantType ? 1 : 0).sum(), variantType));
+                    data.getVariantTypeCount(variantType), variantType));
         }
         for (final String label : data.getSortedLabels()) {
             logger.info(String.format("Extracted annotations for %d variants labeled as %s.",
-                    data.isLabelFlat(label).stream().mapToInt(b -> b ? 1 : 0).sum(), label));
+                    data.getLabelCount(label), label));
         }
         logger.info(String.format("Extracted annotations for %s total variants.", data.size()));
 
@@ -64,7 +64,9 @@ import java.util.stream.IntStream;
  *     Note that annotations and metadata are collected in memory during traversal until they are written to HDF5 files
  *     upon completion of the traversal. Memory and disk requirements thus roughly scale linearly with both the number
  *     of sites scored and the number of annotations. For large callsets, this tool may be run in parallel over separate
- *     genomic shards using the {@value StandardArgumentDefinitions#INTERVALS_LONG_NAME} argument as usual.
+ *     genomic shards using the {@value StandardArgumentDefinitions#INTERVALS_LONG_NAME} argument as usual, and the
+ *     {@value SPILL_BLOCK_SIZE_LONG_NAME} argument can be used to bound the number of sites held in memory during
+ *     traversal by spilling the remainder to a temporary file on disk.
  * </p>
  *
  * <p>
@@ -456,7 +458,7 @@ public class ScoreVariantAnnotations extends LabeledVariantAnnotationsWalker {
     @Override
     protected void afterNthPass(final int n) {
         if (n == 0) {
-            // TODO if BGMM, preprocess annotations and write to HDF5 with BGMMVariantAnnotationsScorer.preprocessAnnotationsWithBGMMAndWriteHDF5
+            // raw annotations are written for all backends; the BGMM scorer applies the preprocessing fit during training itself
             writeAnnotationsToHDF5();
             if (data.size() > 0) {
                 data.clear();
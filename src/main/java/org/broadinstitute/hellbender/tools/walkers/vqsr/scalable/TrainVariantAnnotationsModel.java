@@ -121,6 +121,21 @@ import java.util.stream.IntStream;
  *     for instructions for using a custom, user-provided implementation.
  * </p>
  *
+ * <h4>Java Bayesian Gaussian Mixture Model backend</h4>
+ *
+ * <p>
+ *     This backend fits a Bayesian Gaussian Mixture Model (BGMM) with full covariance matrices, using a pure Java port
+ *     of the scikit-learn implementation; no Python environment is required. Annotations are standardized
+ *     (and missing values are imputed with the training mean) before fitting, and the score of each site is its log
+ *     density under the fitted mixture. This backend can be selected by specifying {@code JAVA_BGMM} to the
+ *     {@value MODEL_BACKEND_LONG_NAME} argument. See the BayesianGaussianMixture documentation
+ *     <a href="https://scikit-learn.org/stable/modules/generated/sklearn.mixture.BayesianGaussianMixture.html">here</a>
+ *     for a description of the hyperparameters, which can be specified using the {@value HYPERPARAMETERS_JSON_LONG_NAME}
+ *     argument along with the number of threads used for fitting and scoring ({@code n_threads}); see
+ *     src/main/resources/org/broadinstitute/hellbender/tools/walkers/vqsr/scalable/bgmm-hyperparameters.json
+ *     for an example and the default values.
+ * </p>
+ *
  * <h4>Python isolation-forest backend</h4>
  *
  * <p>
@@ -315,6 +330,7 @@ public final class TrainVariantAnnotationsModel extends CommandLineProgram {
 
     public static final String ISOLATION_FOREST_PYTHON_SCRIPT = "isolation-forest.py";
     public static final String ISOLATION_FOREST_HYPERPARAMETERS_JSON = "isolation-forest-hyperparameters.json";
+    public static final String BGMM_HYPERPARAMETERS_JSON = "bgmm-hyperparameters.json";
 
     enum AvailableLabelsMode {
         POSITIVE_ONLY, POSITIVE_UNLABELED
@@ -357,7 +373,7 @@ public final class TrainVariantAnnotationsModel extends CommandLineProgram {
 
     @Argument(
             fullName = HYPERPARAMETERS_JSON_LONG_NAME,
-            doc = "JSON file containing hyperparameters. Optional if the PYTHON_IFOREST backend is used " +
+            doc = "JSON file containing hyperparameters. Optional if the JAVA_BGMM or PYTHON_IFOREST backend is used " +
                     "(if not specified, a default set of hyperparameters will be used); otherwise required.",
             optional = true)
     private File hyperparametersJSONFile;
@@ -430,6 +446,9 @@ public final class TrainVariantAnnotationsModel extends CommandLineProgram {
             case JAVA_BGMM:
                 Utils.validateArg(pythonScriptFile == null,
                         "Python script should not be provided when using JAVA_BGMM backend.");
+                if (hyperparametersJSONFile == null) {
+                    hyperparametersJSONFile = IOUtils.writeTempResource(new Resource(BGMM_HYPERPARAMETERS_JSON, TrainVariantAnnotationsModel.class));
+                }
                 IOUtils.canReadFile(hyperparametersJSONFile);
                 logger.info("Running in JAVA_BGMM mode...");
                 break;
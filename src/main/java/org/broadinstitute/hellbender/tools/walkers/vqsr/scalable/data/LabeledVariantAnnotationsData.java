@@ -1,6 +1,7 @@
 package org.broadinstitute.hellbender.tools.walkers.vqsr.scalable.data;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.VariantContext;
 import org.apache.logging.log4j.LogManager;
@@ -8,19 +9,33 @@ import org.apache.logging.log4j.Logger;
 import org.broadinstitute.hdf5.HDF5File;
 import org.broadinstitute.hdf5.HDF5LibException;
 import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.copynumber.utils.HDF5Utils;
 import org.broadinstitute.hellbender.tools.walkers.vqsr.scalable.modeling.VariantAnnotationsModel;
 import org.broadinstitute.hellbender.tools.walkers.vqsr.scalable.modeling.VariantAnnotationsScorer;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.TreeSet;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -30,6 +45,14 @@ import java.util.stream.Stream;
  * The outer list is always per-variant. In allele-specific mode, each datum in the inner lists
  * corresponds to a single allele; otherwise, each inner list trivially contains a single datum corresponding
  * to the variant.
+ *
+ * <p>
+ *     If a positive spill block size is specified, the collection holds at most that number of variants in memory;
+ *     each full block is appended to a temporary columnar spill file, which is streamed column by column into the
+ *     HDF5 file by {@link #writeHDF5}. Since the HDF5 bindings can only write whole datasets, a single column of
+ *     per-site metadata (e.g., one label, or the ref alleles) is held in memory at a time when writing, while
+ *     annotations are written chunk by chunk.
+ * </p>
  */
 public final class LabeledVariantAnnotationsData {
     private static final Logger logger = LogManager.getLogger(LabeledVariantAnnotationsData.class);
@@ -40,6 +63,7 @@ public final class LabeledVariantAnnotationsData {
     private static final int MAXIMUM_CHUNK_SIZE = HDF5Utils.MAX_NUMBER_OF_VALUES_PER_HDF5_MATRIX / CHUNK_DIVISOR;
 
     private static final int INITIAL_SIZE = 10_000_000;
+    private static final int SPILL_BUFFER_SIZE = 1 << 20;
 
     public static final String TRAINING_LABEL = "training";
     public static final String CALIBRATION_LABEL = "calibration";
@@ -59,11 +83,36 @@ public final class LabeledVariantAnnotationsData {
     private final List<List<LabeledVariantAnnotationsDatum>> data;
     private final boolean useASAnnotations;
 
+    // counts over all data, including spilled data
+    private final int[] variantTypeCounts;
+    private final int[] labelCounts;
+
+    // 0 if all data are held in memory
+    private final int spillBlockSize;
+    private File spillFile;
+    private DataOutputStream spillOutputStream;
+    private int numSpilledVariants;
+    private int numSpilledDatums;
+    private final Map<String, Integer> spilledContigNamesToIndexMap = new LinkedHashMap<>();
+
     public LabeledVariantAnnotationsData(final Collection<String> annotationNames,
                                          final Collection<String> labels,
                                          final boolean useASAnnotations,
                                          final int initialSize) {
-        data = new ArrayList<>(initialSize);
+        this(annotationNames, labels, useASAnnotations, initialSize, 0);
+    }
+
+    /**
+     * @param spillBlockSize    if positive, the maximum number of variants held in memory before they are spilled to a
+     *                          temporary file; if zero, all variants are held in memory
+     */
+    public LabeledVariantAnnotationsData(final Collection<String> annotationNames,
+                                         final Collection<String> labels,
+                                         final boolean useASAnnotations,
+                                         final int initialSize,
+                                         final int spillBlockSize) {
+        Utils.validateArg(spillBlockSize >= 0, "Spill block size must be non-negative.");
+        data = new ArrayList<>(spillBlockSize > 0 ? Math.min(initialSize, spillBlockSize) : initialSize);
         sortedAnnotationNames = ImmutableList.copyOf(annotationNames.stream().distinct().sorted().collect(Collectors.toList()));
         Utils.validateArg(sortedAnnotationNames.size() > 0, "Number of annotation names must be positive.");
         if (sortedAnnotationNames.size() != annotationNames.size()) {
@@ -74,6 +123,9 @@ public final class LabeledVariantAnnotationsData {
             logger.warn(String.format("Ignoring duplicate labels: %s.", Utils.getDuplicatedItems(labels)));
         }
         this.useASAnnotations = useASAnnotations;
+        variantTypeCounts = new int[VariantType.values().length];
+        labelCounts = new int[sortedLabels.size()];
+        this.spillBlockSize = spillBlockSize;
     }
 
     public LabeledVariantAnnotationsData(final Collection<String> annotationNames,
@@ -90,12 +142,53 @@ public final class LabeledVariantAnnotationsData {
         return sortedLabels;
     }
 
+    /**
+     * @return  number of variants, including those that have been spilled
+     */
     public int size() {
-        return data.size();
+        return numSpilledVariants + data.size();
     }
 
+    /**
+     * Clears all data, including any spill file.
+     */
     public void clear() {
         data.clear();
+        Arrays.fill(variantTypeCounts, 0);
+        Arrays.fill(labelCounts, 0);
+        if (spillOutputStream != null) {
+            try {
+                spillOutputStream.close();
+            } catch (final IOException e) {
+                throw new GATKException(String.format("Could not close spill file %s.", spillFile.getAbsolutePath()), e);
+            }
+            spillOutputStream = null;
+            if (!spillFile.delete()) {
+                logger.warn(String.format("Could not delete spill file %s.", spillFile.getAbsolutePath()));
+            }
+            spillFile = null;
+        }
+        numSpilledVariants = 0;
+        numSpilledDatums = 0;
+        spilledContigNamesToIndexMap.clear();
+    }
+
+    /**
+     * @return  number of sites (i.e., alleles, in allele-specific mode) of the specified variant type,
+     *          including those that have been spilled
+     */
+    public int getVariantTypeCount(final VariantType variantType) {
+        return variantTypeCounts[variantType.ordinal()];
+    }
+
+    /**
+     * @return  number of sites (i.e., alleles, in allele-specific mode) assigned to the specified label,
+     *          including those that have been spilled
+     */
+    public int getLabelCount(final String label) {
+        final int labelIndex = sortedLabels.indexOf(label);
+        Utils.validateArg(labelIndex >= 0, String.format("Unknown label: %s.", label));
+        return labelCounts[labelIndex];
     }
 
     /**
@@ -114,6 +207,10 @@ public final class LabeledVariantAnnotationsData {
                             vc, altAllelesPerDatum.get(i), variantTypePerDatum.get(i), labelsPerDatum.get(i), sortedAnnotationNames, useASAnnotations))
                     .collect(Collectors.toList()));
         }
+        updateCounts(data.get(data.size() - 1), 1);
+        if (spillBlockSize > 0 && data.size() >= spillBlockSize) {
+            spill();
+        }
     }
 
     /**
@@ -124,6 +221,8 @@ public final class LabeledVariantAnnotationsData {
                     final List<List<Allele>> altAllelesPerDatum,
                     final List<VariantType> variantTypePerDatum,
                     final List<TreeSet<String>> labelsPerDatum) {
+        Utils.validate(numSpilledVariants == 0, "Data cannot be set after they have been spilled.");
+        updateCounts(data.get(index), -1);
         if (!useASAnnotations) {
             data.set(index, Collections.singletonList(new LabeledVariantAnnotationsDatum(
                     vc, altAllelesPerDatum.get(0), variantTypePerDatum.get(0), labelsPerDatum.get(0), sortedAnnotationNames, useASAnnotations)));
@@ -133,12 +232,26 @@ public final class LabeledVariantAnnotationsData {
                             vc, altAllelesPerDatum.get(i), variantTypePerDatum.get(i), labelsPerDatum.get(i), sortedAnnotationNames, useASAnnotations))
                     .collect(Collectors.toList()));
         }
+        updateCounts(data.get(index), 1);
+    }
+
+    private void updateCounts(final List<LabeledVariantAnnotationsDatum> datums,
+                              final int increment) {
+        for (final LabeledVariantAnnotationsDatum datum : datums) {
+            variantTypeCounts[datum.variantType.ordinal()] += increment;
+            for (int labelIndex = 0; labelIndex < sortedLabels.size(); labelIndex++) {
+                if (datum.labels.contains(sortedLabels.get(labelIndex))) {
+                    labelCounts[labelIndex] += increment;
+                }
+            }
+        }
     }
 
     /**
      * @return  list of {@link VariantType} indicators, with length given by the number of corresponding sites
      */
     public List<VariantType> getVariantTypeFlat() {
+        Utils.validate(numSpilledVariants == 0, "Flattened data are not available after data have been spilled.");
         return streamFlattenedData().map(datum -> datum.variantType).collect(Collectors.toList());
     }
 
@@ -147,6 +260,7 @@ public final class LabeledVariantAnnotationsData {
      *          an element in the list will be true if the corresponding site is assigned to the specified label
      */
     public List<Boolean> isLabelFlat(final String label) {
+        Utils.validate(numSpilledVariants == 0, "Flattened data are not available after data have been spilled.");
         return streamFlattenedData().map(datum -> datum.labels.contains(label)).collect(Collectors.toList());
     }
 
@@ -185,6 +299,10 @@ public final class LabeledVariantAnnotationsData {
      */
     public void writeHDF5(final File outputFile,
                           final boolean omitAllelesInHDF5) {
+        if (numSpilledVariants > 0) {
+            writeHDF5FromSpillFile(outputFile, omitAllelesInHDF5);
+            return;
+        }
 
         try (final HDF5File outputHDF5File = new HDF5File(outputFile, HDF5File.OpenMode.CREATE)) {
             IOUtils.canReadFile(outputHDF5File.getFile());
@@ -218,6 +336,195 @@ public final class LabeledVariantAnnotationsData {
         }
     }
 
+    /**
+     * Appends the variants held in memory to the spill file, one record per datum, and clears them from memory.
+     */
+    private void spill() {
+        try {
+            if (spillOutputStream == null) {
+                spillFile = IOUtils.createTempFile("annotations", ".spill");
+                spillOutputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(spillFile), SPILL_BUFFER_SIZE));
+            }
+            final Iterator<LabeledVariantAnnotationsDatum> datumIterator = streamFlattenedData().iterator();
+            while (datumIterator.hasNext()) {
+                writeSpilledDatum(datumIterator.next());
+                numSpilledDatums++;
+            }
+        } catch (final IOException e) {
+            throw new UserException.CouldNotCreateOutputFile(spillFile, e);
+        }
+        numSpilledVariants += data.size();
+        data.clear();
+    }
+
+    private void writeSpilledDatum(final LabeledVariantAnnotationsDatum datum) throws IOException {
+        Integer contigIndex = spilledContigNamesToIndexMap.get(datum.getContig());
+        if (contigIndex == null) {
+            contigIndex = spilledContigNamesToIndexMap.size();
+            spilledContigNamesToIndexMap.put(datum.getContig(), contigIndex);
+        }
+        spillOutputStream.writeInt(contigIndex);
+        spillOutputStream.writeInt(datum.getStart());
+        spillOutputStream.writeInt(datum.getEnd());
+        spillOutputStream.writeBoolean(datum.variantType == VariantType.SNP);
+        for (final String label : sortedLabels) {
+            spillOutputStream.writeBoolean(datum.labels.contains(label));
+        }
+        writeString(spillOutputStream, datum.refAllele.getDisplayString());
+        writeString(spillOutputStream, useASAnnotations
+                ? datum.altAlleles.get(0).getDisplayString()
+                : datum.altAlleles.stream().map(Allele::getDisplayString).collect(Collectors.joining(",")));
+        for (final double annotation : datum.annotations) {
+            spillOutputStream.writeDouble(annotation);
+        }
+    }
+
+    // alleles may exceed the length allowed by DataOutputStream.writeUTF
+    private static void writeString(final DataOutputStream outputStream,
+                                    final String string) throws IOException {
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        outputStream.writeInt(bytes.length);
+        outputStream.write(bytes);
+    }
+
+    private static String readString(final DataInputStream inputStream) throws IOException {
+        final byte[] bytes = new byte[inputStream.readInt()];
+        inputStream.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the same representation as {@link #writeHDF5} after spilling any data remaining in memory.
+     * Each dataset is filled by a separate pass over the spill file.
+     */
+    private void writeHDF5FromSpillFile(final File outputFile,
+                                        final boolean omitAllelesInHDF5) {
+        if (!data.isEmpty()) {
+            spill();
+        }
+        try {
+            spillOutputStream.flush();
+        } catch (final IOException e) {
+            throw new UserException.CouldNotCreateOutputFile(spillFile, e);
+        }
+        final int numDatums = numSpilledDatums;
+        try (final HDF5File outputHDF5File = new HDF5File(outputFile, HDF5File.OpenMode.CREATE)) {
+            IOUtils.canReadFile(outputHDF5File.getFile());
+            final int[] contigIndices = new int[numDatums];
+            final int[] starts = new int[numDatums];
+            final int[] ends = new int[numDatums];
+            forEachSpilledDatum((i, datum) -> {
+                contigIndices[i] = datum.contigIndex;
+                starts[i] = datum.start;
+                ends[i] = datum.end;
+            });
+            HDF5Utils.writeIntervals(outputHDF5File, INTERVALS_PATH,
+                    new ArrayList<>(spilledContigNamesToIndexMap.keySet()), contigIndices, starts, ends);
+            if (!omitAllelesInHDF5) {
+                final String[] alleles = new String[numDatums];
+                forEachSpilledDatum((i, datum) -> alleles[i] = datum.refAllele);
+                outputHDF5File.makeStringArray(ALLELES_REF_PATH, alleles);
+                forEachSpilledDatum((i, datum) -> alleles[i] = datum.altAlleles);
+                outputHDF5File.makeStringArray(ALLELES_ALT_PATH, alleles);
+            }
+            outputHDF5File.makeStringArray(ANNOTATIONS_NAMES_PATH, sortedAnnotationNames.toArray(new String[0]));
+            try (final SpilledDatumIterator datumIterator = new SpilledDatumIterator()) {
+                HDF5Utils.writeChunkedDoubleMatrix(outputHDF5File, ANNOTATIONS_PATH, numDatums, sortedAnnotationNames.size(),
+                        Iterators.transform(datumIterator, datum -> datum.annotations), MAXIMUM_CHUNK_SIZE);
+            }
+            final double[] labelIndicators = new double[numDatums];
+            forEachSpilledDatum((i, datum) -> labelIndicators[i] = datum.isSNP ? 1 : 0);
+            outputHDF5File.makeDoubleArray(LABELS_SNP_PATH, labelIndicators);
+            for (int labelIndex = 0; labelIndex < sortedLabels.size(); labelIndex++) {
+                final int finalLabelIndex = labelIndex;
+                forEachSpilledDatum((i, datum) -> labelIndicators[i] = datum.isLabel[finalLabelIndex] ? 1 : 0);
+                outputHDF5File.makeDoubleArray(String.format("%s/%s", LABELS_PATH, sortedLabels.get(labelIndex)), labelIndicators);
+            }
+        } catch (final HDF5LibException exception) {
+            throw new GATKException(String.format("Exception encountered during writing of annotations and metadata (%s). Output file at %s may be in a bad state.",
+                    exception, outputFile.getAbsolutePath()));
+        }
+    }
+
+    private void forEachSpilledDatum(final BiConsumer<Integer, SpilledDatum> action) {
+        try (final SpilledDatumIterator datumIterator = new SpilledDatumIterator()) {
+            int i = 0;
+            while (datumIterator.hasNext()) {
+                action.accept(i, datumIterator.next());
+                i++;
+            }
+        }
+    }
+
+    private static final class SpilledDatum {
+        private int contigIndex;
+        private int start;
+        private int end;
+        private boolean isSNP;
+        private boolean[] isLabel;
+        private String refAllele;
+        private String altAlleles;
+        private double[] annotations;
+    }
+
+    /**
+     * Iterates over the datums in the spill file, in the order in which they were added.
+     */
+    private final class SpilledDatumIterator implements Iterator<SpilledDatum>, AutoCloseable {
+        private final DataInputStream inputStream;
+        private int numDatumsRead = 0;
+
+        SpilledDatumIterator() {
+            try {
+                inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(spillFile), SPILL_BUFFER_SIZE));
+            } catch (final IOException e) {
+                throw new UserException.CouldNotReadInputFile(spillFile.toPath(), e);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return numDatumsRead < numSpilledDatums;
+        }
+
+        @Override
+        public SpilledDatum next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final SpilledDatum datum = new SpilledDatum();
+            try {
+                datum.contigIndex = inputStream.readInt();
+                datum.start = inputStream.readInt();
+                datum.end = inputStream.readInt();
+                datum.isSNP = inputStream.readBoolean();
+                datum.isLabel = new boolean[sortedLabels.size()];
+                for (int labelIndex = 0; labelIndex < sortedLabels.size(); labelIndex++) {
+                    datum.isLabel[labelIndex] = inputStream.readBoolean();
+                }
+                datum.refAllele = readString(inputStream);
+                datum.altAlleles = readString(inputStream);
+                datum.annotations = new double[sortedAnnotationNames.size()];
+                for (int annotationIndex = 0; annotationIndex < sortedAnnotationNames.size(); annotationIndex++) {
+                    datum.annotations[annotationIndex] = inputStream.readDouble();
+                }
+            } catch (final IOException e) {
+                throw new UserException.CouldNotReadInputFile(spillFile.toPath(), e);
+            }
+            numDatumsRead++;
+            return datum;
+        }
+
+        @Override
+        public void close() {
+            try {
+                inputStream.close();
+            } catch (final IOException e) {
+                throw new UserException.CouldNotReadInputFile(spillFile.toPath(), e);
+            }
+        }
+    }
+
     /**
      * @return  list of annotation names, with length given by the number of annotations, read from the specified file
      */
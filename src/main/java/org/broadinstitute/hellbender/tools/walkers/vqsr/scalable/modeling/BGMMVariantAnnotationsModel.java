@@ -1,31 +1,206 @@
 package org.broadinstitute.hellbender.tools.walkers.vqsr.scalable.modeling;
 
-import org.apache.commons.lang.NotImplementedException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.walkers.vqsr.scalable.data.LabeledVariantAnnotationsData;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.clustering.BayesianGaussianMixtureModeller;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
 
-// TODO this is just a stub, will be fleshed out in a separate PR
+/**
+ * Trains a {@link BayesianGaussianMixtureModeller} on preprocessed annotations and serializes the resulting
+ * {@link BGMMVariantAnnotationsScorer}, entirely within the JVM.
+ *
+ * <p>
+ *     Hyperparameters are given in a JSON file with keys named as the corresponding arguments of scikit-learn's
+ *     BayesianGaussianMixture: {@code n_components}, {@code tol}, {@code reg_covar}, {@code max_iter}, {@code n_init},
+ *     {@code init_params} ({@code kmeans}, {@code k-means++}, or {@code random}), {@code weight_concentration_prior},
+ *     {@code mean_precision_prior}, {@code mean_prior}, {@code degrees_of_freedom_prior}, {@code covariance_prior},
+ *     {@code random_state}, {@code warm_start}, and {@code verbose_interval}. The additional key {@code n_threads}
+ *     specifies the number of threads used for fitting and scoring. Keys that are not specified take the
+ *     scikit-learn defaults (and a single thread).
+ * </p>
+ */
 public final class BGMMVariantAnnotationsModel implements VariantAnnotationsModel {
 
+    private static final List<String> HYPERPARAMETER_KEYS = Arrays.asList(
+            "n_components", "tol", "reg_covar", "max_iter", "n_init", "init_params", "weight_concentration_prior",
+            "mean_precision_prior", "mean_prior", "degrees_of_freedom_prior", "covariance_prior", "random_state",
+            "warm_start", "verbose_interval", "n_threads");
+
+    private final BayesianGaussianMixtureModeller.Builder bgmmBuilder;
+
     public BGMMVariantAnnotationsModel(final File hyperparametersJSONFile) {
-        throw new NotImplementedException("BGMM module will be implemented in separate PR.");
+        bgmmBuilder = readHyperparameters(Utils.nonNull(hyperparametersJSONFile));
     }
 
     @Override
     public void trainAndSerialize(final File trainingAnnotationsFile,
                                   final String outputPrefix) {
-        throw new NotImplementedException("BGMM module will be implemented in separate PR.");
+        final List<String> annotationNames = LabeledVariantAnnotationsData.readAnnotationNames(trainingAnnotationsFile);
+        final double[][] data = LabeledVariantAnnotationsData.readAnnotations(trainingAnnotationsFile);
+
+        final Preprocesser preprocesser = new Preprocesser();
+        preprocesser.fit(data);
+        final double[][] preprocessedData = preprocesser.transform(data);
+
+        final BayesianGaussianMixtureModeller bgmm = bgmmBuilder.build();
+        bgmm.fit(preprocessedData);
+
+        final BGMMVariantAnnotationsScorer scorer = new BGMMVariantAnnotationsScorer(annotationNames, preprocesser, bgmm);
+        scorer.serialize(new File(outputPrefix + BGMMVariantAnnotationsScorer.BGMM_SCORER_SER_SUFFIX));
     }
 
+    private static BayesianGaussianMixtureModeller.Builder readHyperparameters(final File hyperparametersJSONFile) {
+        final JsonNode root;
+        try {
+            root = JsonMapper.builder().build().readTree(hyperparametersJSONFile);
+        } catch (final IOException e) {
+            throw new UserException.CouldNotReadInputFile(hyperparametersJSONFile.toPath(), e);
+        }
+        if (root == null || !root.isObject()) {
+            throw new UserException.BadInput(String.format("Hyperparameters JSON file %s must contain a JSON object.",
+                    hyperparametersJSONFile.getAbsolutePath()));
+        }
+        final Iterator<String> keys = root.fieldNames();
+        while (keys.hasNext()) {
+            final String key = keys.next();
+            if (!HYPERPARAMETER_KEYS.contains(key)) {
+                throw new UserException.BadInput(String.format("Unknown hyperparameter %s in %s; allowed hyperparameters are %s.",
+                        key, hyperparametersJSONFile.getAbsolutePath(), HYPERPARAMETER_KEYS));
+            }
+        }
+
+        final BayesianGaussianMixtureModeller.Builder builder = new BayesianGaussianMixtureModeller.Builder();
+        try {
+            if (root.has("n_components")) builder.nComponents(root.get("n_components").asInt());
+            if (root.has("tol")) builder.tol(root.get("tol").asDouble());
+            if (root.has("reg_covar")) builder.regCovar(root.get("reg_covar").asDouble());
+            if (root.has("max_iter")) builder.maxIter(root.get("max_iter").asInt());
+            if (root.has("n_init")) builder.nInit(root.get("n_init").asInt());
+            if (root.has("init_params")) builder.initMethod(parseInitMethod(root.get("init_params").asText()));
+            if (root.has("weight_concentration_prior") && !root.get("weight_concentration_prior").isNull()) {
+                builder.weightConcentrationPrior(root.get("weight_concentration_prior").asDouble());
+            }
+            if (root.has("mean_precision_prior") && !root.get("mean_precision_prior").isNull()) {
+                builder.meanPrecisionPrior(root.get("mean_precision_prior").asDouble());
+            }
+            if (root.has("mean_prior") && !root.get("mean_prior").isNull()) {
+                builder.meanPrior(new ArrayRealVector(readVector(root.get("mean_prior"))));
+            }
+            if (root.has("degrees_of_freedom_prior") && !root.get("degrees_of_freedom_prior").isNull()) {
+                builder.degreesOfFreedomPrior(root.get("degrees_of_freedom_prior").asDouble());
+            }
+            if (root.has("covariance_prior") && !root.get("covariance_prior").isNull()) {
+                final JsonNode rows = root.get("covariance_prior");
+                Utils.validateArg(rows.isArray(), "covariance_prior must be a two-dimensional array.");
+                final double[][] covariancePrior = new double[rows.size()][];
+                for (int i = 0; i < rows.size(); i++) {
+                    covariancePrior[i] = readVector(rows.get(i));
+                }
+                builder.covariancePrior(new Array2DRowRealMatrix(covariancePrior));
+            }
+            if (root.has("random_state")) builder.seed(root.get("random_state").asInt());
+            if (root.has("warm_start")) builder.warmStart(root.get("warm_start").asBoolean());
+            if (root.has("verbose_interval")) builder.verboseInterval(root.get("verbose_interval").asInt());
+            if (root.has("n_threads")) builder.numThreads(root.get("n_threads").asInt());
+            builder.build();    // validates the hyperparameters before any training data is read
+        } catch (final IllegalArgumentException e) {
+            throw new UserException.BadInput(String.format("Invalid hyperparameters in %s: %s",
+                    hyperparametersJSONFile.getAbsolutePath(), e.getMessage()));
+        }
+        return builder;
+    }
+
+    private static BayesianGaussianMixtureModeller.InitMethod parseInitMethod(final String initParams) {
+        switch (initParams) {
+            case "kmeans":
+                return BayesianGaussianMixtureModeller.InitMethod.K_MEANS;
+            case "k-means++":
+                return BayesianGaussianMixtureModeller.InitMethod.K_MEANS_PLUS_PLUS;
+            case "random":
+                return BayesianGaussianMixtureModeller.InitMethod.RANDOM;
+            default:
+                throw new IllegalArgumentException(String.format("init_params must be kmeans, k-means++, or random, but was %s.", initParams));
+        }
+    }
+
+    private static double[] readVector(final JsonNode node) {
+        Utils.validateArg(node.isArray(), "Expected a JSON array of numbers.");
+        final double[] values = new double[node.size()];
+        for (int i = 0; i < node.size(); i++) {
+            Utils.validateArg(node.get(i).isNumber(), "Expected a JSON array of numbers.");
+            values[i] = node.get(i).asDouble();
+        }
+        return values;
+    }
+
+    /**
+     * Standardizes each annotation using the mean and standard deviation of its non-missing training values,
+     * after which missing values are imputed with zero (i.e., the training mean). Annotations with zero variance
+     * are only centered.
+     */
     static final class Preprocesser implements Serializable {
         private static final long serialVersionUID = 1L;
 
+        private double[] meansOfNonMissing;
+        private double[] standardDeviationsOfNonMissing;
+
         Preprocesser() {
         }
 
+        void fit(final double[][] data) {
+            Utils.nonNull(data);
+            Utils.validateArg(data.length > 0, "Data must be non-empty.");
+            final int nFeatures = data[0].length;
+            meansOfNonMissing = new double[nFeatures];
+            standardDeviationsOfNonMissing = new double[nFeatures];
+            for (int f = 0; f < nFeatures; f++) {
+                // Welford's algorithm
+                long count = 0;
+                double mean = 0.;
+                double sumSquaredDeviations = 0.;
+                for (final double[] row : data) {
+                    Utils.validateArg(row.length == nFeatures, "All data points must have the same number of annotations.");
+                    final double value = row[f];
+                    if (Double.isFinite(value)) {
+                        count++;
+                        final double delta = value - mean;
+                        mean += delta / count;
+                        sumSquaredDeviations += delta * (value - mean);
+                    }
+                }
+                meansOfNonMissing[f] = count == 0 ? 0. : mean;
+                final double standardDeviation = count == 0 ? 0. : Math.sqrt(sumSquaredDeviations / count);
+                standardDeviationsOfNonMissing[f] = standardDeviation > 0. ? standardDeviation : 1.;
+            }
+        }
+
         double[][] transform(final double[][] data) {
-            throw new NotImplementedException("BGMM module will be implemented in separate PR.");
+            Utils.validate(meansOfNonMissing != null, "Preprocesser must be fit before transforming data.");
+            Utils.nonNull(data);
+            final int nFeatures = meansOfNonMissing.length;
+            final double[][] transformed = new double[data.length][nFeatures];
+            for (int i = 0; i < data.length; i++) {
+                Utils.validateArg(data[i].length == nFeatures,
+                        "Number of annotations does not match that used to fit the preprocesser.");
+                for (int f = 0; f < nFeatures; f++) {
+                    final double value = data[i][f];
+                    transformed[i][f] = Double.isFinite(value)
+                            ? (value - meansOfNonMissing[f]) / standardDeviationsOfNonMissing[f]
+                            : 0.;
+                }
+            }
+            return transformed;
         }
     }
-}
\ No newline at end of file
+}
@@ -1,48 +1,84 @@
 package org.broadinstitute.hellbender.tools.walkers.vqsr.scalable.modeling;
 
-import org.apache.commons.lang.NotImplementedException;
 import org.apache.logging.log4j.Logger;
 import org.broadinstitute.hdf5.HDF5File;
 import org.broadinstitute.hdf5.HDF5LibException;
 import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.copynumber.utils.HDF5Utils;
 import org.broadinstitute.hellbender.tools.walkers.vqsr.scalable.data.LabeledVariantAnnotationsData;
+import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.clustering.BayesianGaussianMixtureModeller;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 
-// TODO this is just a stub, will be fleshed out in a separate PR
+/**
+ * Scores annotations with a {@link BayesianGaussianMixtureModeller} after applying the preprocessing
+ * fit on the training annotations. The score of each data point is its log density under the fitted mixture.
+ * Scorers are persisted using Java serialization.
+ */
 public final class BGMMVariantAnnotationsScorer implements VariantAnnotationsScorer, Serializable {
 
     private static final long serialVersionUID = 1L;
 
     public static final String BGMM_SCORER_SER_SUFFIX = ".bgmmScorer.ser";
 
+    private final List<String> annotationNames;
+    private final BGMMVariantAnnotationsModel.Preprocesser preprocesser;
+    private final BayesianGaussianMixtureModeller bgmm;
+
     public BGMMVariantAnnotationsScorer(final List<String> annotationNames,
                                         final BGMMVariantAnnotationsModel.Preprocesser preprocesser,
                                         final BayesianGaussianMixtureModeller bgmm) {
-        throw new NotImplementedException("BGMM module will be implemented in separate PR.");
+        Utils.nonEmpty(annotationNames);
+        Utils.nonNull(preprocesser);
+        Utils.nonNull(bgmm);
+        Utils.validateArg(bgmm.isFitted(), "BGMM must be fit before it can be used for scoring.");
+        this.annotationNames = new ArrayList<>(annotationNames);
+        this.preprocesser = preprocesser;
+        this.bgmm = bgmm;
     }
 
     @Override
     public void score(final File inputAnnotationsFile,
                       final File outputScoresFile) {
-        throw new NotImplementedException("BGMM module will be implemented in separate PR.");
+        final List<String> inputAnnotationNames = LabeledVariantAnnotationsData.readAnnotationNames(inputAnnotationsFile);
+        Utils.validateArg(inputAnnotationNames.equals(annotationNames), "Annotation names must be identical to those used to train the BGMM.");
+        final double[][] data = LabeledVariantAnnotationsData.readAnnotations(inputAnnotationsFile);
+        final double[] scores = bgmm.scoreSamples(preprocess(data));
+        VariantAnnotationsScorer.writeScores(outputScoresFile, scores);
     }
 
     public double[][] preprocess(final double[][] annotations) {
-        throw new NotImplementedException("BGMM module will be implemented in separate PR.");
+        return preprocesser.transform(annotations);
     }
 
     public void serialize(final File scorerFile) {
-        throw new NotImplementedException("BGMM module will be implemented in separate PR.");
+        try (final ObjectOutputStream outputStream = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(scorerFile)))) {
+            outputStream.writeObject(this);
+        } catch (final IOException e) {
+            throw new UserException.CouldNotCreateOutputFile(scorerFile, e);
+        }
     }
 
     public static BGMMVariantAnnotationsScorer deserialize(final File scorerFile) {
-        throw new NotImplementedException("BGMM module will be implemented in separate PR.");
+        IOUtils.canReadFile(scorerFile);
+        try (final ObjectInputStream inputStream = new ObjectInputStream(new BufferedInputStream(new FileInputStream(scorerFile)))) {
+            return (BGMMVariantAnnotationsScorer) inputStream.readObject();
+        } catch (final IOException | ClassNotFoundException | ClassCastException e) {
+            throw new UserException.CouldNotReadInputFile(scorerFile.toPath(), e);
+        }
     }
 
     // TODO clean this up, copy more fields
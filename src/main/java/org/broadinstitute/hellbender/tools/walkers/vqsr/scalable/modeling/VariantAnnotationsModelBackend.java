@@ -1,7 +1,9 @@
 package org.broadinstitute.hellbender.tools.walkers.vqsr.scalable.modeling;
 
 public enum VariantAnnotationsModelBackend {
-    // TODO will be added in a separate PR
+    /**
+     * Use the pure Java Bayesian Gaussian Mixture Model; see {@link BGMMVariantAnnotationsModel}.
+     */
     JAVA_BGMM,
 
     /**
@@ -4,6 +4,8 @@ import org.apache.commons.io.input.NullInputStream;
 import org.broadinstitute.hellbender.exceptions.UserException;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -15,11 +17,33 @@ import java.util.stream.StreamSupport;
  */
 public abstract class BinaryTableReader<R> implements AutoCloseable, Iterator<R> {
 
+    /**
+     * Precedes every record of a table written with a magic number.
+     */
+    static final byte RECORD_MARKER = 1;
+
+    /**
+     * Follows the last record of a table written with a magic number, and is itself followed by the number of records.
+     */
+    static final byte END_MARKER = 0;
+
     private final DataInput dtInput;
     private R next;
     private final Runnable closeAction;
+    private final String source;
+    private final boolean checked;
+    private long recordsRead;
 
     protected BinaryTableReader(final InputStream in, final String source) {
+        this(in, source, false);
+    }
+
+    /**
+     * @param checked whether the table was written with a magic number, in which case every record is preceded by
+     *                {@link #RECORD_MARKER} and the table ends with {@link #END_MARKER} and the number of records.
+     *                Tables without the end marker, or with the wrong number of records, are reported as truncated.
+     */
+    protected BinaryTableReader(final InputStream in, final String source, final boolean checked) {
         final DataInputStream dataInputStream = new DataInputStream(in);
         dtInput = new DataInputStream(in);
         this.closeAction = () -> {
@@ -30,9 +54,42 @@ public abstract class BinaryTableReader<R> implements AutoCloseable, Iterator<R>
                                      : new UserException.CouldNotReadInputFile("unknown source");
             }
         };
+        this.source = source != null ? source : "unknown source";
+        this.checked = checked;
         next = readNextRecord();
     }
 
+    /**
+     * Creates a reader of a binary table from a stream positioned right after its magic number.
+     * Any further header must be read before the reader is constructed, as the constructor reads the first record.
+     */
+    @FunctionalInterface
+    public interface Opener<T extends BinaryTableReader<?>> {
+        T open(final DataInputStream in, final String source) throws IOException;
+    }
+
+    /**
+     * Opens a table written by a {@link BinaryTableWriter} with {@code magicNumber}, checks the magic number, and
+     * passes the stream to {@code opener}, which must construct a checked reader.  The stream is closed if this fails.
+     *
+     * @param description description of the table, used in the error message if the magic number does not match.
+     */
+    public static <T extends BinaryTableReader<?>> T open(final Path path, final int magicNumber, final String description,
+                                                        final Opener<T> opener) throws IOException {
+        Utils.nonNull(path);
+        Utils.nonNull(opener);
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)));
+        try {
+            if (in.readInt() != magicNumber) {
+                throw new UserException.BadInput(path + " is not a " + description);
+            }
+            return opener.open(in, path.toString());
+        } catch (final IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
     public static <E> BinaryTableReader<E> emptyReader() {
         return new BinaryTableReader<E>(new NullInputStream(0), "null") {
             @Override
@@ -42,7 +99,25 @@ public abstract class BinaryTableReader<R> implements AutoCloseable, Iterator<R>
         };
     }
 
+    /**
+     * Checks whether a file starts with the given magic number, so that binary tables with a header can be told
+     * apart from text tables without parsing them.  Files shorter than the magic number do not match.
+     */
+    public static boolean startsWithMagicNumber(final Path path, final int magicNumber) {
+        Utils.nonNull(path);
+        try (final DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+            return in.readInt() == magicNumber;
+        } catch (final EOFException ex) {
+            return false;
+        } catch (final IOException ex) {
+            throw new UserException.CouldNotReadInputFile(path, ex);
+        }
+    }
+
     private R readNextRecord() {
+        if (checked) {
+            return readNextCheckedRecord();
+        }
         try {
             return readRecord(dtInput);
         } catch (final EOFException ex) {
@@ -52,6 +127,30 @@ public abstract class BinaryTableReader<R> implements AutoCloseable, Iterator<R>
         }
     }
 
+    private R readNextCheckedRecord() {
+        try {
+            final byte marker = dtInput.readByte();
+            if (marker == END_MARKER) {
+                final long expectedRecords = dtInput.readLong();
+                if (expectedRecords != recordsRead) {
+                    throw new UserException.MalformedFile(String.format("%s has %d records but its trailer says %d",
+                            source, recordsRead, expectedRecords));
+                }
+                return null;
+            } else if (marker != RECORD_MARKER) {
+                throw new UserException.MalformedFile(String.format("%s has an invalid record marker after %d records",
+                        source, recordsRead));
+            }
+            final R result = readRecord(dtInput);
+            recordsRead++;
+            return result;
+        } catch (final EOFException ex) {
+            throw new UserException.MalformedFile(String.format("%s is truncated after %d complete records", source, recordsRead));
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
     protected abstract R readRecord(final DataInput input)
         throws IOException;
 
@@ -10,6 +10,11 @@ import java.io.*;
  */
 public abstract class BinaryTableWriter<R> implements AutoCloseable {
 
+    /**
+     * Extension of output files that tools writing either a text or a binary table write in binary.
+     */
+    public static final String BINARY_TABLE_EXTENSION = ".bin";
+
     protected final DataOutputStream dataOut;
 
     private final ByteCounterOutputStream byteCounter;
@@ -18,11 +23,40 @@ public abstract class BinaryTableWriter<R> implements AutoCloseable {
 
     private long counter;
 
+    // whether each record is preceded by a marker and the table ends with an end marker and the number of records
+    private final boolean checked;
+
+    private boolean closed;
+
     protected BinaryTableWriter(final OutputStream out, final String path) {
         Utils.nonNull(out);
         byteCounter = new ByteCounterOutputStream(out);
         dataOut = new DataOutputStream(byteCounter);
         this.path = path;
+        this.checked = false;
+    }
+
+    /**
+     * Creates a writer for a table that starts with {@code magicNumber}, which is written immediately, and in which
+     * every record is preceded by {@link BinaryTableReader#RECORD_MARKER}.  Upon closing, {@link BinaryTableReader#END_MARKER}
+     * and the number of records are written, so that a reader opened with
+     * {@link BinaryTableReader#open} can tell a truncated table from a complete one.
+     * Any further header must be written by the subclass constructor.
+     */
+    protected BinaryTableWriter(final OutputStream out, final String path, final int magicNumber) throws IOException {
+        Utils.nonNull(out);
+        byteCounter = new ByteCounterOutputStream(out);
+        dataOut = new DataOutputStream(byteCounter);
+        this.path = path;
+        this.checked = true;
+        dataOut.writeInt(magicNumber);
+    }
+
+    /**
+     * Whether a table should be written in binary, based on its extension.
+     */
+    public static boolean isBinaryTablePath(final String path) {
+        return Utils.nonNull(path).endsWith(BINARY_TABLE_EXTENSION);
     }
 
     public long offset() {
@@ -37,19 +71,30 @@ public abstract class BinaryTableWriter<R> implements AutoCloseable {
             throws IOException;
 
     public void write(final R record) throws IOException {
-        writeRecord(Utils.nonNull(record), dataOut);
+        Utils.nonNull(record);
+        if (checked) {
+            dataOut.writeByte(BinaryTableReader.RECORD_MARKER);
+        }
+        writeRecord(record, dataOut);
         counter++;
     }
 
     public void writeAll(final Iterable<? extends R> records) throws IOException {
         for (final R record : Utils.nonNull(records)) {
-            writeRecord(Utils.nonNull(record), dataOut);
-            counter++;
+            write(record);
         }
     }
 
     @Override
     public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (checked) {
+            dataOut.writeByte(BinaryTableReader.END_MARKER);
+            dataOut.writeLong(counter);
+        }
         dataOut.close();
     }
 
@@ -0,0 +1,77 @@
+package org.broadinstitute.hellbender.utils.bwa;
+
+import org.apache.spark.SparkEnv;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.ToIntFunction;
+
+/**
+ * Groups sequences into batches to be aligned together by a {@link BwaMemAligner}.
+ * <p>
+ *     Like the bwa mem command line with its -K option, each batch holds a fixed number of bases, so that the memory
+ *     used for the alignments of a batch stays bounded regardless of the number of input sequences. The batch size must
+ *     not depend on the number of alignment threads: bwa mem estimates the insert size distribution of pairs from each
+ *     batch, so the alignments would otherwise depend on the cluster configuration. When aligning pairs, both mates
+ *     of a pair always end up in the same batch.
+ * </p>
+ *
+ * @param <T> the type of the items holding the sequences.
+ */
+public final class BwaMemBatchIterator<T> implements Iterator<List<T>> {
+
+    /**
+     * Number of bases in each batch, independent of the number of alignment threads, as with bwa mem -K 10000000.
+     */
+    public static final long BASES_PER_BATCH = 10_000_000L;
+
+    private final Iterator<T> items;
+    private final ToIntFunction<T> sequenceLength;
+    private final long basesPerBatch;
+    private final boolean pairs;
+
+    /**
+     * @param items the items to group; when aligning pairs, mates must be consecutive.
+     * @param sequenceLength returns the length of the sequence of an item.
+     * @param basesPerBatch a batch is closed as soon as it has at least this many bases (and an even number of items, if aligning pairs).
+     * @param pairs whether items are interleaved pairs.
+     */
+    public BwaMemBatchIterator(final Iterator<T> items, final ToIntFunction<T> sequenceLength, final long basesPerBatch, final boolean pairs) {
+        Utils.validateArg(basesPerBatch > 0, "the number of bases per batch must be positive");
+        this.items = Utils.nonNull(items);
+        this.sequenceLength = Utils.nonNull(sequenceLength);
+        this.basesPerBatch = basesPerBatch;
+        this.pairs = pairs;
+    }
+
+    /**
+     * @return the number of cores Spark reserves for each task (spark.task.cpus), or 1 when not running in Spark.
+     */
+    public static int getTaskThreadCount() {
+        final SparkEnv env = SparkEnv.get();
+        return env == null ? 1 : Math.max(1, env.conf().getInt("spark.task.cpus", 1));
+    }
+
+    @Override
+    public boolean hasNext() {
+        return items.hasNext();
+    }
+
+    @Override
+    public List<T> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final List<T> batch = new ArrayList<>();
+        long bases = 0;
+        while (items.hasNext() && (bases < basesPerBatch || (pairs && (batch.size() & 1) != 0))) {
+            final T item = items.next();
+            bases += sequenceLength.applyAsInt(item);
+            batch.add(item);
+        }
+        return batch;
+    }
+}
@@ -1,6 +1,8 @@
 package org.broadinstitute.hellbender.utils.bwa;
 
+import org.apache.spark.TaskContext;
 import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.util.TaskCompletionListener;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.utils.Utils;
 
@@ -8,10 +10,18 @@ import java.util.*;
 
 /**
  * Manage a global collection of {@link BwaMemIndex} instances.
+ * <p>
+ *     There is at most one instance per index image file in the VM, shared by all threads. Users that hold on to
+ *     an instance while other code may close the cache (e.g. Spark tasks, which may run concurrently with the
+ *     {@link #closeAllDistributedInstances} call of another job) should use {@link #acquireInstance} and
+ *     {@link #releaseInstance}: closing an instance that has been acquired is deferred until its last user releases it.
+ * </p>
  */
 public class BwaMemIndexCache {
 
     private final static Map<String, BwaMemIndex> instances = new HashMap<>();
+    private final static Map<String, Integer> userCounts = new HashMap<>();
+    private final static Set<String> pendingCloses = new HashSet<>();
 
     /**
      * Returns a {@link BwaMemIndex} instance that corresponds to  given index image file.
@@ -26,20 +36,78 @@ public class BwaMemIndexCache {
         return instances.get(indexImageFile);
     }
 
+    /**
+     * Returns the {@link BwaMemIndex} instance that corresponds to given index image file, and registers a user for it.
+     * The instance won't be closed until {@link #releaseInstance} is called the same number of times.
+     * @param indexImageFile the target image file.
+     * @return never {@code null}.
+     */
+    public static synchronized BwaMemIndex acquireInstance( final String indexImageFile ) {
+        final BwaMemIndex instance = getInstance(indexImageFile);
+        userCounts.merge(indexImageFile, 1, Integer::sum);
+        pendingCloses.remove(indexImageFile);
+        return instance;
+    }
+
+    /**
+     * Unregisters a user of an instance previously returned by {@link #acquireInstance}. If the instance was closed
+     * while in use, it is closed now that it has no users left.
+     * @param indexImageFile the index file name used to acquire the instance.
+     */
+    public static synchronized void releaseInstance( final String indexImageFile ) {
+        Utils.nonNull(indexImageFile, "the input image file cannot be null");
+        final Integer users = userCounts.get(indexImageFile);
+        Utils.validate(users != null, () -> "the index " + indexImageFile + " has not been acquired");
+        if (users > 1) {
+            userCounts.put(indexImageFile, users - 1);
+        } else {
+            userCounts.remove(indexImageFile);
+            if (pendingCloses.remove(indexImageFile)) {
+                closeInstance(indexImageFile);
+            }
+        }
+    }
+
+    /**
+     * Returns the {@link BwaMemIndex} instance that corresponds to given index image file, keeping it open until
+     * the current Spark task completes. Outside of a Spark task this is equivalent to {@link #getInstance}.
+     * @param indexImageFile the target image file.
+     * @return never {@code null}.
+     */
+    public static BwaMemIndex getInstanceForTask( final String indexImageFile ) {
+        final TaskContext taskContext = TaskContext.get();
+        if (taskContext == null) {
+            return getInstance(indexImageFile);
+        }
+        final BwaMemIndex instance = acquireInstance(indexImageFile);
+        taskContext.addTaskCompletionListener((TaskCompletionListener) context -> releaseInstance(indexImageFile));
+        return instance;
+    }
+
+    /**
+     * @return the number of users that have acquired, and not yet released, the instance for the given index image file.
+     */
+    public static synchronized int getUserCount( final String indexImageFile ) {
+        return userCounts.getOrDefault(indexImageFile, 0);
+    }
+
     /**
      * Closes an index instance in the cache given its index file name.
      * <p>
      *     Notice that you need to pass in exactly the same file name that was used when invoking {@link #getInstance}.
      * </p>
      * <p>
-     *     An attempt to close a missing instance, won't have any effect.
+     *     An attempt to close a missing instance, won't have any effect. If the instance has been acquired
+     *     by users that have not released it yet, it will be closed when the last one releases it.
      * </p>
      *
      * @param indexImageFile the index file name of the instance to close.
      */
     public static synchronized void closeInstance(final String indexImageFile) {
         Utils.nonNull(indexImageFile, "the input image file cannot be null");
-        if (instances.containsKey(indexImageFile)) {
+        if (userCounts.containsKey(indexImageFile)) {
+            pendingCloses.add(indexImageFile);
+        } else if (instances.containsKey(indexImageFile)) {
             instances.get(indexImageFile).close();
             instances.remove(indexImageFile);
         }
@@ -55,21 +123,18 @@ public class BwaMemIndexCache {
      */
     public static synchronized void closeInstance(final BwaMemIndex instance) {
         Utils.nonNull(instance, "the input index cannot be null");
-        if (instances.values().contains(instance)) {
-            instance.close();
-            instances.values().remove(instance);
-        }
+        instances.entrySet().stream()
+                .filter(entry -> entry.getValue() == instance)
+                .map(Map.Entry::getKey)
+                .findFirst()
+                .ifPresent(BwaMemIndexCache::closeInstance);
     }
 
     /**
-     * Closes all instances in the VM.
+     * Closes all instances in the VM. Instances that are in use are closed when their last user releases them.
      */
     public static synchronized void closeInstances() {
-        final Iterator<BwaMemIndex> it = instances.values().iterator();
-        while (it.hasNext()) {
-            it.next().close();
-            it.remove();
-        }
+        new ArrayList<>(instances.keySet()).forEach(BwaMemIndexCache::closeInstance);
     }
 
     /**
@@ -1,18 +1,126 @@
 package org.broadinstitute.hellbender.utils.clustering;
 
-import org.apache.commons.lang.NotImplementedException;
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.CholeskyDecomposition;
+import org.apache.commons.math3.linear.NonPositiveDefiniteMatrixException;
+import org.apache.commons.math3.linear.NonSymmetricMatrixException;
 import org.apache.commons.math3.linear.RealMatrix;
 import org.apache.commons.math3.linear.RealVector;
+import org.apache.commons.math3.special.Beta;
+import org.apache.commons.math3.special.Gamma;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.utils.Utils;
 
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+/**
+ * Variational Bayesian estimation of a Gaussian mixture with full covariance matrices and a Dirichlet-process prior
+ * on the weights. This is a port of the corresponding functionality of scikit-learn's
+ * <a href="https://scikit-learn.org/stable/modules/generated/sklearn.mixture.BayesianGaussianMixture.html">BayesianGaussianMixture</a>
+ * (with {@code covariance_type='full'} and {@code weight_concentration_prior_type='dirichlet_process'}); see the
+ * documentation there for a description of the hyperparameters, which have the same names and defaults here.
+ *
+ * <p>
+ *     The expensive parts of fitting and scoring (the E step, the accumulation of the sufficient statistics in the M step,
+ *     and the evaluation of per-sample scores) are carried out over fixed-size chunks of data points, which are processed
+ *     in parallel when more than one thread is requested. Partial results are reduced in chunk order, so that results
+ *     do not depend on the number of threads.
+ * </p>
+ *
+ * <p>
+ *     Instances should be created using a {@link Builder}.
+ * </p>
+ */
 public final class BayesianGaussianMixtureModeller implements Serializable {
     private static final long serialVersionUID = 1L;
 
+    private static final Logger logger = LogManager.getLogger(BayesianGaussianMixtureModeller.class);
+
+    /**
+     * Number of data points per unit of parallel work.
+     */
+    static final int CHUNK_SIZE = 4096;
+
+    /**
+     * Maximum number of iterations and relative tolerance of k-means initialization, scikit-learn's defaults.
+     */
+    static final int K_MEANS_MAX_ITER = 300;
+    static final double K_MEANS_RELATIVE_TOLERANCE = 1E-4;
+
+    private static final double LOG_2 = Math.log(2.);
+    private static final double LOG_2_PI = Math.log(2. * Math.PI);
+
     public enum InitMethod {
-        K_MEANS_PLUS_PLUS, RANDOM, TEST
+        /**
+         * Assign each point to its cluster after k-means clustering seeded by k-means++, as does scikit-learn for
+         * {@code init_params='kmeans'} (its default).
+         */
+        K_MEANS,
+
+        /**
+         * Seed the components with points chosen by k-means++, as does scikit-learn for {@code init_params='k-means++'}.
+         */
+        K_MEANS_PLUS_PLUS,
+
+        /**
+         * Initialize with uniformly random responsibilities, as does scikit-learn for {@code init_params='random'}.
+         */
+        RANDOM,
+
+        /**
+         * Deterministically assign the i-th data point to the (i mod nComponents)-th component; for testing only.
+         */
+        TEST
     }
 
+    // hyperparameters
+    private final int nComponents;
+    private final double tol;
+    private final double regCovar;
+    private final int maxIter;
+    private final int nInit;
+    private final InitMethod initMethod;
+    private final double weightConcentrationPrior;
+    private final double meanPrecisionPrior;
+    private final double[] meanPrior;                   // null if to be set to the mean of the data
+    private final Double degreesOfFreedomPrior;         // null if to be set to the number of features
+    private final double[][] covariancePrior;           // null if to be set to the covariance of the data
+    private final int seed;
+    private final boolean warmStart;
+    private final int verboseInterval;
+    private final double relativeSymmetryThreshold;
+    private final double absolutePositivityThreshold;
+    private final double epsilon;
+    private final int numThreads;
+
+    // priors resolved against the data at the start of each fit
+    private double[] fittedMeanPrior;
+    private double fittedDegreesOfFreedomPrior;
+    private double[][] fittedCovariancePrior;
+
+    // fitted parameters
+    private int nFeatures;
+    private double[][] weightConcentration;             // 2 x nComponents (beta-distribution parameters of the stick breaking)
+    private double[] meanPrecision;                     // nComponents
+    private double[][] means;                           // nComponents x nFeatures
+    private double[] degreesOfFreedom;                  // nComponents
+    private double[][][] covariances;                   // nComponents x nFeatures x nFeatures
+    private double[][][] precisionsCholesky;            // nComponents x nFeatures x nFeatures (upper triangular)
+    private boolean isConverged;
+    private int nIter;
+    private double lowerBound = Double.NEGATIVE_INFINITY;
+    private boolean isFitted = false;
+
     private BayesianGaussianMixtureModeller(final int nComponents,
                                             final double tol,
                                             final double regCovar,
@@ -29,7 +137,996 @@ public final class BayesianGaussianMixtureModeller implements Serializable {
                                             final int verboseInterval,
                                             final double relativeSymmetryThreshold,
                                             final double absolutePositivityThreshold,
-                                            final double epsilon) {
-        throw new NotImplementedException("BGMM module implemented in separate PR.");
+                                            final double epsilon,
+                                            final int numThreads) {
+        Utils.validateArg(nComponents >= 1, "Number of components must be positive.");
+        Utils.validateArg(tol >= 0., "Convergence tolerance must be non-negative.");
+        Utils.validateArg(regCovar >= 0., "Covariance regularization must be non-negative.");
+        Utils.validateArg(maxIter >= 1, "Maximum number of iterations must be positive.");
+        Utils.validateArg(nInit >= 1, "Number of initializations must be positive.");
+        Utils.nonNull(initMethod);
+        Utils.validateArg(weightConcentrationPrior > 0., "Weight-concentration prior must be positive.");
+        Utils.validateArg(meanPrecisionPrior > 0., "Mean-precision prior must be positive.");
+        Utils.validateArg(verboseInterval >= 1, "Verbose interval must be positive.");
+        Utils.validateArg(epsilon >= 0., "Epsilon must be non-negative.");
+        Utils.validateArg(numThreads >= 1, "Number of threads must be positive.");
+        if (meanPrior != null && covariancePrior != null) {
+            Utils.validateArg(meanPrior.getDimension() == covariancePrior.getRowDimension(),
+                    "Dimensions of mean prior and covariance prior must match.");
+        }
+        if (covariancePrior != null) {
+            Utils.validateArg(covariancePrior.isSquare(), "Covariance prior must be square.");
+        }
+        this.nComponents = nComponents;
+        this.tol = tol;
+        this.regCovar = regCovar;
+        this.maxIter = maxIter;
+        this.nInit = nInit;
+        this.initMethod = initMethod;
+        this.weightConcentrationPrior = weightConcentrationPrior;
+        this.meanPrecisionPrior = meanPrecisionPrior;
+        this.meanPrior = meanPrior == null ? null : meanPrior.toArray();
+        this.degreesOfFreedomPrior = degreesOfFreedomPrior;
+        this.covariancePrior = covariancePrior == null ? null : covariancePrior.getData();
+        this.seed = seed;
+        this.warmStart = warmStart;
+        this.verboseInterval = verboseInterval;
+        this.relativeSymmetryThreshold = relativeSymmetryThreshold;
+        this.absolutePositivityThreshold = absolutePositivityThreshold;
+        this.epsilon = epsilon;
+        this.numThreads = numThreads;
+    }
+
+    public static final class Builder {
+        private int nComponents = 1;
+        private double tol = 1E-3;
+        private double regCovar = 1E-6;
+        private int maxIter = 100;
+        private int nInit = 1;
+        private InitMethod initMethod = InitMethod.K_MEANS;
+        private Double weightConcentrationPrior = null;
+        private double meanPrecisionPrior = 1.;
+        private RealVector meanPrior = null;
+        private Double degreesOfFreedomPrior = null;
+        private RealMatrix covariancePrior = null;
+        private int seed = 0;
+        private boolean warmStart = false;
+        private int verboseInterval = 10;
+        private double relativeSymmetryThreshold = CholeskyDecomposition.DEFAULT_RELATIVE_SYMMETRY_THRESHOLD;
+        private double absolutePositivityThreshold = CholeskyDecomposition.DEFAULT_ABSOLUTE_POSITIVITY_THRESHOLD;
+        private double epsilon = Math.ulp(1.);
+        private int numThreads = 1;
+
+        public Builder nComponents(final int nComponents) {
+            this.nComponents = nComponents;
+            return this;
+        }
+
+        public Builder tol(final double tol) {
+            this.tol = tol;
+            return this;
+        }
+
+        public Builder regCovar(final double regCovar) {
+            this.regCovar = regCovar;
+            return this;
+        }
+
+        public Builder maxIter(final int maxIter) {
+            this.maxIter = maxIter;
+            return this;
+        }
+
+        public Builder nInit(final int nInit) {
+            this.nInit = nInit;
+            return this;
+        }
+
+        public Builder initMethod(final InitMethod initMethod) {
+            this.initMethod = initMethod;
+            return this;
+        }
+
+        /**
+         * If not specified, 1 / nComponents will be used.
+         */
+        public Builder weightConcentrationPrior(final Double weightConcentrationPrior) {
+            this.weightConcentrationPrior = weightConcentrationPrior;
+            return this;
+        }
+
+        public Builder meanPrecisionPrior(final double meanPrecisionPrior) {
+            this.meanPrecisionPrior = meanPrecisionPrior;
+            return this;
+        }
+
+        /**
+         * If not specified, the mean of the data will be used.
+         */
+        public Builder meanPrior(final RealVector meanPrior) {
+            this.meanPrior = meanPrior;
+            return this;
+        }
+
+        /**
+         * If not specified, the number of features will be used.
+         */
+        public Builder degreesOfFreedomPrior(final Double degreesOfFreedomPrior) {
+            this.degreesOfFreedomPrior = degreesOfFreedomPrior;
+            return this;
+        }
+
+        /**
+         * If not specified, the covariance of the data will be used.
+         */
+        public Builder covariancePrior(final RealMatrix covariancePrior) {
+            this.covariancePrior = covariancePrior;
+            return this;
+        }
+
+        public Builder seed(final int seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder warmStart(final boolean warmStart) {
+            this.warmStart = warmStart;
+            return this;
+        }
+
+        public Builder verboseInterval(final int verboseInterval) {
+            this.verboseInterval = verboseInterval;
+            return this;
+        }
+
+        public Builder relativeSymmetryThreshold(final double relativeSymmetryThreshold) {
+            this.relativeSymmetryThreshold = relativeSymmetryThreshold;
+            return this;
+        }
+
+        public Builder absolutePositivityThreshold(final double absolutePositivityThreshold) {
+            this.absolutePositivityThreshold = absolutePositivityThreshold;
+            return this;
+        }
+
+        /**
+         * Added to the effective number of points in each component to avoid division by zero; corresponds to the
+         * machine epsilon used by scikit-learn.
+         */
+        public Builder epsilon(final double epsilon) {
+            this.epsilon = epsilon;
+            return this;
+        }
+
+        /**
+         * Number of threads used for fitting and scoring. Results do not depend on this value.
+         */
+        public Builder numThreads(final int numThreads) {
+            this.numThreads = numThreads;
+            return this;
+        }
+
+        public BayesianGaussianMixtureModeller build() {
+            return new BayesianGaussianMixtureModeller(nComponents, tol, regCovar, maxIter, nInit, initMethod,
+                    weightConcentrationPrior == null ? 1. / nComponents : weightConcentrationPrior,
+                    meanPrecisionPrior, meanPrior, degreesOfFreedomPrior, covariancePrior, seed, warmStart,
+                    verboseInterval, relativeSymmetryThreshold, absolutePositivityThreshold, epsilon, numThreads);
+        }
+    }
+
+    /**
+     * Estimates the model parameters from the data (a matrix with dimensions nSamples x nFeatures) using the
+     * variational-inference algorithm. The fit is repeated {@code nInit} times and the parameters with the largest
+     * lower bound are kept. If {@code warmStart} is set and the model has already been fit, the previous
+     * solution is used as the initialization and only a single fit is performed.
+     */
+    public void fit(final double[][] data) {
+        validateData(data, false);
+        final int nSamples = data.length;
+        Utils.validateArg(nSamples >= 2, "At least two samples are required.");
+        Utils.validateArg(nSamples >= nComponents,
+                String.format("Number of samples (%d) must be at least the number of components (%d).", nSamples, nComponents));
+
+        final boolean doInit = !(warmStart && isFitted);
+        if (!doInit) {
+            Utils.validateArg(data[0].length == nFeatures, "Number of features must match that of the previous fit.");
+        }
+        final int nInitEffective = doInit ? nInit : 1;
+
+        final ForkJoinPool pool = new ForkJoinPool(numThreads);
+        try {
+            nFeatures = data[0].length;
+            resolvePriors(pool, data);
+
+            final Random random = new Random(seed);
+            final double[][] responsibilities = new double[nSamples][nComponents];
+
+            double maxLowerBound = Double.NEGATIVE_INFINITY;
+            FittedParameters bestParameters = null;
+            int bestNIter = 0;
+            boolean bestConverged = false;
+            for (int init = 0; init < nInitEffective; init++) {
+                logger.debug(String.format("Initialization %d...", init));
+                if (doInit) {
+                    initialize(pool, data, responsibilities, random);
+                }
+                double currentLowerBound = doInit ? Double.NEGATIVE_INFINITY : lowerBound;
+                boolean converged = false;
+                int iter;
+                for (iter = 1; iter <= maxIter; iter++) {
+                    final double previousLowerBound = currentLowerBound;
+                    final double sumRespLogResp = eStep(pool, data, responsibilities);
+                    mStep(pool, data, responsibilities);
+                    currentLowerBound = computeLowerBound(sumRespLogResp);
+                    final double change = currentLowerBound - previousLowerBound;
+                    if (iter % verboseInterval == 0) {
+                        logger.info(String.format("Iteration %d, lower bound %.5f, change %.5f.", iter, currentLowerBound, change));
+                    }
+                    if (Math.abs(change) < tol) {
+                        converged = true;
+                        break;
+                    }
+                }
+                final int iterationsRun = Math.min(iter, maxIter);
+                logger.info(String.format("Initialization %d %s after %d iterations with lower bound %.5f.",
+                        init, converged ? "converged" : "did not converge", iterationsRun, currentLowerBound));
+                if (currentLowerBound > maxLowerBound || maxLowerBound == Double.NEGATIVE_INFINITY) {
+                    maxLowerBound = currentLowerBound;
+                    bestParameters = new FittedParameters(this);
+                    bestNIter = iterationsRun;
+                    bestConverged = converged;
+                }
+            }
+            if (!bestConverged) {
+                logger.warn("Initialization did not converge; try different initialization parameters, " +
+                        "increasing the maximum number of iterations or tolerance, or checking for degenerate data.");
+            }
+            bestParameters.restore(this);
+            nIter = bestNIter;
+            isConverged = bestConverged;
+            lowerBound = maxLowerBound;
+            isFitted = true;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Computes the log of the weighted mixture density for each sample (a row of the matrix with dimensions
+     * nSamples x nFeatures), i.e., the same quantity as scikit-learn's {@code score_samples}.
+     * Samples are processed in parallel chunks.
+     */
+    public double[] scoreSamples(final double[][] data) {
+        Utils.validate(isFitted, "Model must be fit before scoring.");
+        validateData(data, true);
+        final double[] scores = new double[data.length];
+        final ComponentConstants constants = computeComponentConstants();
+        final ForkJoinPool pool = new ForkJoinPool(numThreads);
+        try {
+            mapChunks(pool, data.length, (from, to) -> {
+                final double[] weightedLogProb = new double[nComponents];
+                final double[] centered = new double[nFeatures];
+                for (int i = from; i < to; i++) {
+                    computeWeightedLogProb(data[i], constants, centered, weightedLogProb);
+                    scores[i] = logSumExp(weightedLogProb);
+                }
+                return null;
+            });
+        } finally {
+            pool.shutdown();
+        }
+        return scores;
+    }
+
+    /**
+     * Computes the posterior probability of each component for each sample.
+     */
+    public double[][] predictProbabilities(final double[][] data) {
+        Utils.validate(isFitted, "Model must be fit before prediction.");
+        validateData(data, true);
+        final double[][] probabilities = new double[data.length][nComponents];
+        final ForkJoinPool pool = new ForkJoinPool(numThreads);
+        try {
+            eStep(pool, data, probabilities);
+        } finally {
+            pool.shutdown();
+        }
+        return probabilities;
+    }
+
+    public boolean isFitted() {
+        return isFitted;
+    }
+
+    public boolean isConverged() {
+        return isConverged;
+    }
+
+    public int getNIter() {
+        return nIter;
+    }
+
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    /**
+     * Returns the expected weights of the components under the variational posterior of the stick-breaking process.
+     */
+    public double[] getWeights() {
+        Utils.validate(isFitted, "Model must be fit before retrieving parameters.");
+        final double[] weights = new double[nComponents];
+        double remainingStick = 1.;
+        double sum = 0.;
+        for (int k = 0; k < nComponents; k++) {
+            final double total = weightConcentration[0][k] + weightConcentration[1][k];
+            weights[k] = remainingStick * weightConcentration[0][k] / total;
+            remainingStick *= weightConcentration[1][k] / total;
+            sum += weights[k];
+        }
+        for (int k = 0; k < nComponents; k++) {
+            weights[k] /= sum;
+        }
+        return weights;
+    }
+
+    public double[][] getMeans() {
+        Utils.validate(isFitted, "Model must be fit before retrieving parameters.");
+        return copy(means);
+    }
+
+    public double[][][] getCovariances() {
+        Utils.validate(isFitted, "Model must be fit before retrieving parameters.");
+        return Arrays.stream(covariances).map(BayesianGaussianMixtureModeller::copy).toArray(double[][][]::new);
+    }
+
+    public double[] getMeanPrecision() {
+        Utils.validate(isFitted, "Model must be fit before retrieving parameters.");
+        return meanPrecision.clone();
+    }
+
+    public double[] getDegreesOfFreedom() {
+        Utils.validate(isFitted, "Model must be fit before retrieving parameters.");
+        return degreesOfFreedom.clone();
+    }
+
+    private void validateData(final double[][] data, final boolean checkFeatures) {
+        Utils.nonNull(data);
+        Utils.validateArg(data.length > 0, "Data must be non-empty.");
+        final int nDataFeatures = data[0].length;
+        Utils.validateArg(nDataFeatures > 0, "Data must have at least one feature.");
+        if (checkFeatures) {
+            Utils.validateArg(nDataFeatures == nFeatures,
+                    String.format("Number of features (%d) does not match that of the fitted model (%d).", nDataFeatures, nFeatures));
+        }
+        for (final double[] row : data) {
+            Utils.validateArg(row.length == nDataFeatures, "All samples must have the same number of features.");
+            for (final double value : row) {
+                Utils.validateArg(Double.isFinite(value), "Data must not contain NaN or infinite values.");
+            }
+        }
+    }
+
+    private void resolvePriors(final ForkJoinPool pool,
+                               final double[][] data) {
+        if (meanPrior == null || covariancePrior == null) {
+            final double[] dataMean = computeMean(pool, data);
+            fittedMeanPrior = meanPrior == null ? dataMean : meanPrior.clone();
+            // unbiased estimate, as in numpy.cov
+            fittedCovariancePrior = covariancePrior == null ? computeScatter(pool, data, dataMean, data.length - 1.) : copy(covariancePrior);
+        } else {
+            fittedMeanPrior = meanPrior.clone();
+            fittedCovariancePrior = copy(covariancePrior);
+        }
+        Utils.validateArg(fittedMeanPrior.length == nFeatures, "Dimension of mean prior must match the number of features.");
+        Utils.validateArg(fittedCovariancePrior.length == nFeatures, "Dimension of covariance prior must match the number of features.");
+        fittedDegreesOfFreedomPrior = degreesOfFreedomPrior == null ? nFeatures : degreesOfFreedomPrior;
+        Utils.validateArg(fittedDegreesOfFreedomPrior > nFeatures - 1.,
+                String.format("Degrees-of-freedom prior (%f) must be greater than the number of features minus one (%d).",
+                        fittedDegreesOfFreedomPrior, nFeatures - 1));
+    }
+
+    /**
+     * Initializes the responsibilities according to the initialization method and performs an M step.
+     */
+    private void initialize(final ForkJoinPool pool,
+                            final double[][] data,
+                            final double[][] responsibilities,
+                            final Random random) {
+        final int nSamples = data.length;
+        for (final double[] row : responsibilities) {
+            Arrays.fill(row, 0.);
+        }
+        switch (initMethod) {
+            case K_MEANS:
+                final int[] labels = kMeansLabels(pool, data, random);
+                for (int i = 0; i < nSamples; i++) {
+                    responsibilities[i][labels[i]] = 1.;
+                }
+                break;
+            case K_MEANS_PLUS_PLUS:
+                final int[] seedIndices = kMeansPlusPlusSeeds(data, random);
+                for (int k = 0; k < nComponents; k++) {
+                    responsibilities[seedIndices[k]][k] = 1.;
+                }
+                break;
+            case RANDOM:
+                for (int i = 0; i < nSamples; i++) {
+                    double sum = 0.;
+                    for (int k = 0; k < nComponents; k++) {
+                        responsibilities[i][k] = random.nextDouble();
+                        sum += responsibilities[i][k];
+                    }
+                    for (int k = 0; k < nComponents; k++) {
+                        responsibilities[i][k] /= sum;
+                    }
+                }
+                break;
+            case TEST:
+                for (int i = 0; i < nSamples; i++) {
+                    responsibilities[i][i % nComponents] = 1.;
+                }
+                break;
+            default:
+                throw new GATKException.ShouldNeverReachHereException("Unknown initialization method.");
+        }
+        mStep(pool, data, responsibilities);
+    }
+
+    /**
+     * Clusters the data with Lloyd's algorithm from k-means++ seeds, following scikit-learn's {@code KMeans} with a
+     * single initialization, and returns the cluster of each point. Iteration stops when no point changes cluster,
+     * when the total squared shift of the centers is at most {@link #K_MEANS_RELATIVE_TOLERANCE} times the mean
+     * variance of the features, or after {@link #K_MEANS_MAX_ITER} iterations. Empty clusters keep their center.
+     */
+    private int[] kMeansLabels(final ForkJoinPool pool,
+                               final double[][] data,
+                               final Random random) {
+        final int nSamples = data.length;
+        final int[] seedIndices = kMeansPlusPlusSeeds(data, random);
+        double[][] centers = new double[nComponents][];
+        for (int k = 0; k < nComponents; k++) {
+            centers[k] = data[seedIndices[k]].clone();
+        }
+
+        final double[] featureMeans = new double[nFeatures];
+        for (final double[] point : data) {
+            for (int f = 0; f < nFeatures; f++) {
+                featureMeans[f] += point[f] / nSamples;
+            }
+        }
+        double meanVariance = 0.;
+        for (final double[] point : data) {
+            for (int f = 0; f < nFeatures; f++) {
+                meanVariance += (point[f] - featureMeans[f]) * (point[f] - featureMeans[f]);
+            }
+        }
+        meanVariance /= (double) nSamples * nFeatures;
+        final double tolerance = K_MEANS_RELATIVE_TOLERANCE * meanVariance;
+
+        final int[] labels = new int[nSamples];
+        Arrays.fill(labels, -1);
+        for (int iter = 0; iter < K_MEANS_MAX_ITER; iter++) {
+            final double[][] currentCenters = centers;
+            final int numChanged = mapChunks(pool, nSamples, (from, to) -> {
+                int changed = 0;
+                for (int i = from; i < to; i++) {
+                    int closest = 0;
+                    double closestDistSq = Double.POSITIVE_INFINITY;
+                    for (int k = 0; k < nComponents; k++) {
+                        final double distSq = squaredDistance(data[i], currentCenters[k]);
+                        if (distSq < closestDistSq) {
+                            closestDistSq = distSq;
+                            closest = k;
+                        }
+                    }
+                    if (labels[i] != closest) {
+                        labels[i] = closest;
+                        changed++;
+                    }
+                }
+                return changed;
+            }).stream().mapToInt(Integer::intValue).sum();
+            if (numChanged == 0) {
+                break;
+            }
+
+            final double[][] newCenters = new double[nComponents][nFeatures];
+            final int[] counts = new int[nComponents];
+            for (int i = 0; i < nSamples; i++) {
+                counts[labels[i]]++;
+                for (int f = 0; f < nFeatures; f++) {
+                    newCenters[labels[i]][f] += data[i][f];
+                }
+            }
+            double shift = 0.;
+            for (int k = 0; k < nComponents; k++) {
+                if (counts[k] == 0) {
+                    newCenters[k] = centers[k];
+                    continue;
+                }
+                for (int f = 0; f < nFeatures; f++) {
+                    newCenters[k][f] /= counts[k];
+                }
+                shift += squaredDistance(newCenters[k], centers[k]);
+            }
+            centers = newCenters;
+            if (shift <= tolerance) {
+                break;
+            }
+        }
+        return labels;
+    }
+
+    /**
+     * Chooses component seeds using greedy k-means++, following scikit-learn's {@code kmeans_plusplus}.
+     */
+    private int[] kMeansPlusPlusSeeds(final double[][] data,
+                                      final Random random) {
+        final int nSamples = data.length;
+        final int nLocalTrials = 2 + (int) Math.log(nComponents);
+        final int[] seedIndices = new int[nComponents];
+
+        seedIndices[0] = random.nextInt(nSamples);
+        final double[] closestDistSq = new double[nSamples];
+        double currentPotential = 0.;
+        for (int i = 0; i < nSamples; i++) {
+            closestDistSq[i] = squaredDistance(data[i], data[seedIndices[0]]);
+            currentPotential += closestDistSq[i];
+        }
+
+        final double[] cumulativeDistSq = new double[nSamples];
+        final double[] candidateDistSq = new double[nSamples];
+        final double[] bestDistSq = new double[nSamples];
+        for (int c = 1; c < nComponents; c++) {
+            double cumulative = 0.;
+            for (int i = 0; i < nSamples; i++) {
+                cumulative += closestDistSq[i];
+                cumulativeDistSq[i] = cumulative;
+            }
+            int bestCandidate = -1;
+            double bestPotential = Double.POSITIVE_INFINITY;
+            for (int trial = 0; trial < nLocalTrials; trial++) {
+                final double value = random.nextDouble() * currentPotential;
+                int candidate = Arrays.binarySearch(cumulativeDistSq, value);
+                candidate = Math.min(candidate >= 0 ? candidate : -candidate - 1, nSamples - 1);
+                double potential = 0.;
+                for (int i = 0; i < nSamples; i++) {
+                    candidateDistSq[i] = Math.min(closestDistSq[i], squaredDistance(data[i], data[candidate]));
+                    potential += candidateDistSq[i];
+                }
+                if (potential < bestPotential) {
+                    bestPotential = potential;
+                    bestCandidate = candidate;
+                    System.arraycopy(candidateDistSq, 0, bestDistSq, 0, nSamples);
+                }
+            }
+            seedIndices[c] = bestCandidate;
+            currentPotential = bestPotential;
+            System.arraycopy(bestDistSq, 0, closestDistSq, 0, nSamples);
+        }
+        return seedIndices;
+    }
+
+    /**
+     * Replaces the responsibilities with their updated values and returns the sum of resp * log(resp),
+     * which is required for the lower bound.
+     */
+    private double eStep(final ForkJoinPool pool,
+                         final double[][] data,
+                         final double[][] responsibilities) {
+        final ComponentConstants constants = computeComponentConstants();
+        final List<Double> partialSums = mapChunks(pool, data.length, (from, to) -> {
+            final double[] weightedLogProb = new double[nComponents];
+            final double[] centered = new double[nFeatures];
+            double sumRespLogResp = 0.;
+            for (int i = from; i < to; i++) {
+                computeWeightedLogProb(data[i], constants, centered, weightedLogProb);
+                final double logProbNorm = logSumExp(weightedLogProb);
+                final double[] resp = responsibilities[i];
+                for (int k = 0; k < nComponents; k++) {
+                    final double logResp = weightedLogProb[k] - logProbNorm;
+                    resp[k] = Math.exp(logResp);
+                    if (resp[k] > 0.) {
+                        sumRespLogResp += resp[k] * logResp;
+                    }
+                }
+            }
+            return sumRespLogResp;
+        });
+        double sumRespLogResp = 0.;
+        for (final double partialSum : partialSums) {
+            sumRespLogResp += partialSum;
+        }
+        return sumRespLogResp;
+    }
+
+    /**
+     * Updates the variational parameters given the responsibilities. The sufficient statistics are accumulated in
+     * two parallel passes over the data (the first for the effective counts and means, the second for the centered
+     * scatter matrices), which avoids the loss of precision of accumulating uncentered second moments.
+     */
+    private void mStep(final ForkJoinPool pool,
+                       final double[][] data,
+                       final double[][] responsibilities) {
+        final double[] nk = new double[nComponents];
+        final double[][] xk = new double[nComponents][nFeatures];
+        final List<double[][]> partialFirstMoments = mapChunks(pool, data.length, (from, to) -> {
+            final double[][] partial = new double[nComponents][nFeatures + 1];   // last column holds the counts
+            for (int i = from; i < to; i++) {
+                final double[] x = data[i];
+                for (int k = 0; k < nComponents; k++) {
+                    final double r = responsibilities[i][k];
+                    if (r == 0.) {
+                        continue;
+                    }
+                    final double[] partialK = partial[k];
+                    for (int f = 0; f < nFeatures; f++) {
+                        partialK[f] += r * x[f];
+                    }
+                    partialK[nFeatures] += r;
+                }
+            }
+            return partial;
+        });
+        for (final double[][] partial : partialFirstMoments) {
+            for (int k = 0; k < nComponents; k++) {
+                for (int f = 0; f < nFeatures; f++) {
+                    xk[k][f] += partial[k][f];
+                }
+                nk[k] += partial[k][nFeatures];
+            }
+        }
+        for (int k = 0; k < nComponents; k++) {
+            nk[k] += 10. * epsilon;
+            for (int f = 0; f < nFeatures; f++) {
+                xk[k][f] /= nk[k];
+            }
+        }
+
+        final List<double[][][]> partialScatters = mapChunks(pool, data.length, (from, to) -> {
+            final double[][][] partial = new double[nComponents][nFeatures][nFeatures];
+            final double[] centered = new double[nFeatures];
+            for (int i = from; i < to; i++) {
+                final double[] x = data[i];
+                for (int k = 0; k < nComponents; k++) {
+                    final double r = responsibilities[i][k];
+                    if (r == 0.) {
+                        continue;
+                    }
+                    for (int f = 0; f < nFeatures; f++) {
+                        centered[f] = x[f] - xk[k][f];
+                    }
+                    final double[][] partialK = partial[k];
+                    for (int f = 0; f < nFeatures; f++) {
+                        final double rc = r * centered[f];
+                        for (int g = f; g < nFeatures; g++) {
+                            partialK[f][g] += rc * centered[g];
+                        }
+                    }
+                }
+            }
+            return partial;
+        });
+        final double[][][] sk = new double[nComponents][nFeatures][nFeatures];
+        for (final double[][][] partial : partialScatters) {
+            for (int k = 0; k < nComponents; k++) {
+                for (int f = 0; f < nFeatures; f++) {
+                    for (int g = f; g < nFeatures; g++) {
+                        sk[k][f][g] += partial[k][f][g];
+                    }
+                }
+            }
+        }
+        for (int k = 0; k < nComponents; k++) {
+            for (int f = 0; f < nFeatures; f++) {
+                for (int g = f; g < nFeatures; g++) {
+                    sk[k][f][g] /= nk[k];
+                    sk[k][g][f] = sk[k][f][g];
+                }
+                sk[k][f][f] += regCovar;
+            }
+        }
+
+        estimateWeights(nk);
+        estimateMeans(nk, xk);
+        estimateWishart(nk, xk, sk);
+    }
+
+    private void estimateWeights(final double[] nk) {
+        weightConcentration = new double[2][nComponents];
+        double tailSum = 0.;
+        for (int k = nComponents - 1; k >= 0; k--) {
+            weightConcentration[0][k] = 1. + nk[k];
+            weightConcentration[1][k] = weightConcentrationPrior + tailSum;
+            tailSum += nk[k];
+        }
+    }
+
+    private void estimateMeans(final double[] nk,
+                               final double[][] xk) {
+        meanPrecision = new double[nComponents];
+        means = new double[nComponents][nFeatures];
+        for (int k = 0; k < nComponents; k++) {
+            meanPrecision[k] = meanPrecisionPrior + nk[k];
+            for (int f = 0; f < nFeatures; f++) {
+                means[k][f] = (meanPrecisionPrior * fittedMeanPrior[f] + nk[k] * xk[k][f]) / meanPrecision[k];
+            }
+        }
+    }
+
+    private void estimateWishart(final double[] nk,
+                                 final double[][] xk,
+                                 final double[][][] sk) {
+        degreesOfFreedom = new double[nComponents];
+        covariances = new double[nComponents][nFeatures][nFeatures];
+        precisionsCholesky = new double[nComponents][][];
+        final double[] diff = new double[nFeatures];
+        for (int k = 0; k < nComponents; k++) {
+            degreesOfFreedom[k] = fittedDegreesOfFreedomPrior + nk[k];
+            for (int f = 0; f < nFeatures; f++) {
+                diff[f] = xk[k][f] - fittedMeanPrior[f];
+            }
+            final double diffScale = nk[k] * meanPrecisionPrior / meanPrecision[k];
+            for (int f = 0; f < nFeatures; f++) {
+                for (int g = 0; g < nFeatures; g++) {
+                    covariances[k][f][g] = (fittedCovariancePrior[f][g] + nk[k] * sk[k][f][g] + diffScale * diff[f] * diff[g])
+                            / degreesOfFreedom[k];
+                }
+            }
+            precisionsCholesky[k] = computePrecisionCholesky(covariances[k]);
+        }
+    }
+
+    /**
+     * Returns the upper-triangular Cholesky factor U of the precision matrix (i.e., precision = U U^T),
+     * computed as the transpose of the inverse of the lower-triangular Cholesky factor of the covariance.
+     */
+    private double[][] computePrecisionCholesky(final double[][] covariance) {
+        final double[][] lower;
+        try {
+            lower = new CholeskyDecomposition(new Array2DRowRealMatrix(covariance, false),
+                    relativeSymmetryThreshold, absolutePositivityThreshold).getL().getData();
+        } catch (final NonPositiveDefiniteMatrixException | NonSymmetricMatrixException e) {
+            throw new GATKException("Fitting the mixture model failed because some components have ill-defined " +
+                    "empirical covariance (for instance caused by singleton or collapsed samples). " +
+                    "Try to decrease the number of components, or increase the covariance regularization.", e);
+        }
+        // invert the lower-triangular factor by forward substitution, storing the transpose
+        final double[][] precisionCholesky = new double[nFeatures][nFeatures];
+        for (int col = 0; col < nFeatures; col++) {
+            for (int row = col; row < nFeatures; row++) {
+                double sum = row == col ? 1. : 0.;
+                for (int m = col; m < row; m++) {
+                    sum -= lower[row][m] * precisionCholesky[col][m];
+                }
+                precisionCholesky[col][row] = sum / lower[row][row];
+            }
+        }
+        return precisionCholesky;
+    }
+
+    private double computeLowerBound(final double sumRespLogResp) {
+        double logWishartNorm = 0.;
+        double logNormWeight = 0.;
+        double sumLogMeanPrecision = 0.;
+        for (int k = 0; k < nComponents; k++) {
+            final double logDetPrecisionCholesky = logDetCholesky(precisionsCholesky[k]) - 0.5 * nFeatures * Math.log(degreesOfFreedom[k]);
+            double sumLogGamma = 0.;
+            for (int f = 0; f < nFeatures; f++) {
+                sumLogGamma += Gamma.logGamma(0.5 * (degreesOfFreedom[k] - f));
+            }
+            logWishartNorm += -(degreesOfFreedom[k] * logDetPrecisionCholesky + degreesOfFreedom[k] * nFeatures * 0.5 * LOG_2 + sumLogGamma);
+            logNormWeight += -Beta.logBeta(weightConcentration[0][k], weightConcentration[1][k]);
+            sumLogMeanPrecision += Math.log(meanPrecision[k]);
+        }
+        return -sumRespLogResp - logWishartNorm - logNormWeight - 0.5 * nFeatures * sumLogMeanPrecision;
+    }
+
+    /**
+     * Per-component terms of the weighted log probability that do not depend on the data point.
+     */
+    private static final class ComponentConstants {
+        private final double[] offsets;
+
+        ComponentConstants(final double[] offsets) {
+            this.offsets = offsets;
+        }
+    }
+
+    private ComponentConstants computeComponentConstants() {
+        final double[] offsets = new double[nComponents];
+        double cumulativeLogRemainingStick = 0.;
+        for (int k = 0; k < nComponents; k++) {
+            // expected log weight under the stick-breaking representation
+            final double digammaSum = Gamma.digamma(weightConcentration[0][k] + weightConcentration[1][k]);
+            final double logWeight = Gamma.digamma(weightConcentration[0][k]) - digammaSum + cumulativeLogRemainingStick;
+            cumulativeLogRemainingStick += Gamma.digamma(weightConcentration[1][k]) - digammaSum;
+
+            double logLambda = nFeatures * LOG_2;
+            for (int f = 0; f < nFeatures; f++) {
+                logLambda += Gamma.digamma(0.5 * (degreesOfFreedom[k] - f));
+            }
+            offsets[k] = logWeight
+                    + logDetCholesky(precisionsCholesky[k])
+                    - 0.5 * nFeatures * LOG_2_PI
+                    - 0.5 * nFeatures * Math.log(degreesOfFreedom[k])
+                    + 0.5 * (logLambda - nFeatures / meanPrecision[k]);
+        }
+        return new ComponentConstants(offsets);
+    }
+
+    /**
+     * Fills {@code weightedLogProb} with the expected log weight plus the expected log probability of the data point
+     * under each component. The Mahalanobis distance is computed via the upper-triangular precision Cholesky factor,
+     * and the degrees of freedom scale the precision as in scikit-learn.
+     */
+    private void computeWeightedLogProb(final double[] x,
+                                        final ComponentConstants constants,
+                                        final double[] centered,
+                                        final double[] weightedLogProb) {
+        for (int k = 0; k < nComponents; k++) {
+            final double[] mean = means[k];
+            final double[][] precisionCholesky = precisionsCholesky[k];
+            for (int f = 0; f < nFeatures; f++) {
+                centered[f] = x[f] - mean[f];
+            }
+            double sumSquares = 0.;
+            for (int g = 0; g < nFeatures; g++) {
+                double y = 0.;
+                for (int f = 0; f <= g; f++) {
+                    y += centered[f] * precisionCholesky[f][g];
+                }
+                sumSquares += y * y;
+            }
+            weightedLogProb[k] = constants.offsets[k] - 0.5 * sumSquares;
+        }
+    }
+
+    private double[] computeMean(final ForkJoinPool pool,
+                                 final double[][] data) {
+        final List<double[]> partialSums = mapChunks(pool, data.length, (from, to) -> {
+            final double[] partial = new double[nFeatures];
+            for (int i = from; i < to; i++) {
+                for (int f = 0; f < nFeatures; f++) {
+                    partial[f] += data[i][f];
+                }
+            }
+            return partial;
+        });
+        final double[] mean = new double[nFeatures];
+        for (final double[] partial : partialSums) {
+            for (int f = 0; f < nFeatures; f++) {
+                mean[f] += partial[f];
+            }
+        }
+        for (int f = 0; f < nFeatures; f++) {
+            mean[f] /= data.length;
+        }
+        return mean;
+    }
+
+    private double[][] computeScatter(final ForkJoinPool pool,
+                                      final double[][] data,
+                                      final double[] mean,
+                                      final double normalization) {
+        final List<double[][]> partialScatters = mapChunks(pool, data.length, (from, to) -> {
+            final double[][] partial = new double[nFeatures][nFeatures];
+            for (int i = from; i < to; i++) {
+                for (int f = 0; f < nFeatures; f++) {
+                    final double centeredF = data[i][f] - mean[f];
+                    for (int g = f; g < nFeatures; g++) {
+                        partial[f][g] += centeredF * (data[i][g] - mean[g]);
+                    }
+                }
+            }
+            return partial;
+        });
+        final double[][] scatter = new double[nFeatures][nFeatures];
+        for (final double[][] partial : partialScatters) {
+            for (int f = 0; f < nFeatures; f++) {
+                for (int g = f; g < nFeatures; g++) {
+                    scatter[f][g] += partial[f][g];
+                }
+            }
+        }
+        for (int f = 0; f < nFeatures; f++) {
+            for (int g = f; g < nFeatures; g++) {
+                scatter[f][g] /= normalization;
+                scatter[g][f] = scatter[f][g];
+            }
+        }
+        return scatter;
+    }
+
+    /**
+     * Applies the function to the half-open row ranges [from, to) of consecutive chunks of {@link #CHUNK_SIZE} rows,
+     * in parallel on the given pool, and returns the results in chunk order.
+     */
+    private static <R> List<R> mapChunks(final ForkJoinPool pool,
+                                         final int nRows,
+                                         final BiFunction<Integer, Integer, R> chunkFunction) {
+        final int nChunks = (nRows + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        try {
+            return pool.submit(() -> IntStream.range(0, nChunks).parallel()
+                    .mapToObj(c -> chunkFunction.apply(c * CHUNK_SIZE, Math.min(nRows, (c + 1) * CHUNK_SIZE)))
+                    .collect(Collectors.toList()))
+                    .get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted during Bayesian Gaussian mixture computation.", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new GATKException("Exception thrown during Bayesian Gaussian mixture computation.", e.getCause());
+        }
+    }
+
+    private static double logDetCholesky(final double[][] cholesky) {
+        double logDet = 0.;
+        for (int f = 0; f < cholesky.length; f++) {
+            logDet += Math.log(cholesky[f][f]);
+        }
+        return logDet;
+    }
+
+    private static double logSumExp(final double[] values) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (final double value : values) {
+            max = Math.max(max, value);
+        }
+        if (Double.isInfinite(max)) {
+            return max;
+        }
+        double sum = 0.;
+        for (final double value : values) {
+            sum += Math.exp(value - max);
+        }
+        return max + Math.log(sum);
+    }
+
+    private static double squaredDistance(final double[] x,
+                                          final double[] y) {
+        double sum = 0.;
+        for (int f = 0; f < x.length; f++) {
+            final double diff = x[f] - y[f];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    private static double[][] copy(final double[][] matrix) {
+        return Arrays.stream(matrix).map(double[]::clone).toArray(double[][]::new);
+    }
+
+    /**
+     * Snapshot of the fitted parameters, used to retain the best of multiple initializations.
+     */
+    private static final class FittedParameters {
+        private final double[][] weightConcentration;
+        private final double[] meanPrecision;
+        private final double[][] means;
+        private final double[] degreesOfFreedom;
+        private final double[][][] covariances;
+        private final double[][][] precisionsCholesky;
+
+        FittedParameters(final BayesianGaussianMixtureModeller bgmm) {
+            weightConcentration = bgmm.weightConcentration;
+            meanPrecision = bgmm.meanPrecision;
+            means = bgmm.means;
+            degreesOfFreedom = bgmm.degreesOfFreedom;
+            covariances = bgmm.covariances;
+            precisionsCholesky = bgmm.precisionsCholesky;
+        }
+
+        void restore(final BayesianGaussianMixtureModeller bgmm) {
+            bgmm.weightConcentration = weightConcentration;
+            bgmm.meanPrecision = meanPrecision;
+            bgmm.means = means;
+            bgmm.degreesOfFreedom = degreesOfFreedom;
+            bgmm.covariances = covariances;
+            bgmm.precisionsCholesky = precisionsCholesky;
+        }
     }
-}
\ No newline at end of file
+}
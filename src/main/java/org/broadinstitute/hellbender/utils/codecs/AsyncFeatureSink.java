@@ -0,0 +1,32 @@
+package org.broadinstitute.hellbender.utils.codecs;
+
+import htsjdk.tribble.Feature;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.runtime.BackgroundBatchConsumer;
+
+/**
+ * FeatureSink that encodes and writes features on a dedicated background thread, so that encoding and compression
+ * of the output overlap with the work producing the features. Features are written in the order in which they are
+ * passed to {@link #write}, and must not be modified after they have been passed.
+ */
+public final class AsyncFeatureSink<F extends Feature> implements FeatureSink<F> {
+    private final BackgroundBatchConsumer<F> consumer;
+
+    public AsyncFeatureSink( final FeatureSink<F> sink, final String threadName ) {
+        Utils.nonNull(sink, "sink must not be null");
+        this.consumer = new BackgroundBatchConsumer<>(sink::write, sink::close, threadName);
+    }
+
+    @Override
+    public void write( final F feature ) {
+        consumer.accept(feature);
+    }
+
+    /**
+     * Waits for all features to be written, and closes the wrapped sink.
+     */
+    @Override
+    public void close() {
+        consumer.close();
+    }
+}
@@ -791,14 +791,16 @@ public class AlleleLikelihoods<EVIDENCE extends Locatable, A extends Allele> imp
             final double[][] newSampleValues = result[s] = new double[newAlleleCount][sampleEvidenceCount];
 
             // For each old allele and unit of evidence we update the new table keeping the maximum likelihood.
+            // We sweep whole allele rows at a time rather than streaming over the old alleles for each unit of evidence.
             for (int newAllele = 0; newAllele < newAlleleCount; newAllele++) {
                 final BitSet oldAlleleSet = newToOldAlleleIndexMap.get(newAllele);
-                for (int r = 0; r < sampleEvidenceCount; r++) {
-                    final int finalR = r;
-                    newSampleValues[newAllele][finalR] = oldAlleleSet.stream()
-                            .mapToDouble(oldA -> oldSampleValues[oldA][finalR])
-                            .max()
-                            .orElse(Double.NEGATIVE_INFINITY);
+                final double[] newAlleleValues = newSampleValues[newAllele];
+                Arrays.fill(newAlleleValues, Double.NEGATIVE_INFINITY);
+                for (int oldA = oldAlleleSet.nextSetBit(0); oldA >= 0; oldA = oldAlleleSet.nextSetBit(oldA + 1)) {
+                    final double[] oldAlleleValues = oldSampleValues[oldA];
+                    for (int r = 0; r < sampleEvidenceCount; r++) {
+                        newAlleleValues[r] = Math.max(newAlleleValues[r], oldAlleleValues[r]);
+                    }
                 }
             }
         }
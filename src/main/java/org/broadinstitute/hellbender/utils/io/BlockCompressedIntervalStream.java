@@ -496,19 +496,27 @@ public class BlockCompressedIntervalStream {
 
         private void loadIndex( final BlockCompressedInputStream bcis ) {
             final SVIntervalTree<Long> intervalTree = new SVIntervalTree<>();
+            for ( final IndexEntry entry : readIndexEntries() ) {
+                intervalTree.put(entry.getInterval(), entry.getFilePosition());
+            }
+            index = intervalTree;
+        }
+
+        // the index entries in file order, leaving the stream positioned at the start of the data
+        List<IndexEntry> readIndexEntries() {
             try {
                 bcis.seek(indexFilePointer);
                 final DataInputStream dis = new DataInputStream(bcis);
-                int nEntries = dis.readInt();
-                while ( nEntries-- > 0 ) {
-                    final IndexEntry entry = new IndexEntry(dis);
-                    intervalTree.put(entry.getInterval(), entry.getFilePosition());
+                final int nEntries = dis.readInt();
+                final List<IndexEntry> entries = new ArrayList<>(nEntries);
+                for ( int idx = 0; idx != nEntries; ++idx ) {
+                    entries.add(new IndexEntry(dis));
                 }
                 bcis.seek(dataFilePointer);
+                return entries;
             } catch ( final IOException ioe ) {
                 throw new UserException("unable to read index from " + path, ioe);
             }
-            index = intervalTree;
         }
 
         private Reader<T> getReaderForIterator() {
@@ -0,0 +1,297 @@
+package org.broadinstitute.hellbender.utils.io;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.tribble.Feature;
+import org.broadinstitute.hellbender.utils.IntervalUtils;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.io.BlockCompressedIntervalStream.IndexEntry;
+import org.broadinstitute.hellbender.utils.io.BlockCompressedIntervalStream.Reader;
+
+import java.util.*;
+
+/**
+ * Answers interval queries against many block-compressed interval stream files (e.g., the per-sample evidence files
+ * of a large cohort) at once.  Each file's embedded index is used to seek directly to the blocks that might contain
+ * overlapping features, so that a query touches only a handful of blocks per file rather than streaming whole files.
+ * The features decoded from each block are kept in a least-recently-used cache shared by all the files, so that
+ * neighboring queries (which typically land in the same blocks) don't inflate and decode the same blocks again.
+ * The overlapping features of all the files are merged into a single stream by a k-way heap.
+ *
+ * This class takes ownership of the readers it's given, and closes them when it is closed.  It is not thread-safe.
+ *
+ * @param <T> type of feature in the files
+ */
+public final class BlockCompressedIntervalStreamQueryEngine<T extends Feature> implements AutoCloseable {
+    public static final int DEFAULT_MAX_CACHED_BLOCKS = 4096;
+
+    private final List<Reader<T>> readers;
+    private final FileIndex[] fileIndices;
+    private final Comparator<? super T> comparator;
+    private final Map<BlockKey, List<T>> blockCache;
+    private long nCacheHits;
+    private long nCacheMisses;
+
+    /**
+     * Merges features from the readers in the order of the dictionary, ties being resolved by the order of the
+     * readers.
+     */
+    public BlockCompressedIntervalStreamQueryEngine( final List<Reader<T>> readers,
+                                                     final SAMSequenceDictionary dictionary ) {
+        this(readers, IntervalUtils.getDictionaryOrderComparator(Utils.nonNull(dictionary)),
+                DEFAULT_MAX_CACHED_BLOCKS);
+    }
+
+    /**
+     * @param readers one reader for each file to query
+     * @param comparator order in which to return overlapping features -- this must be consistent with the order of
+     *                   the features within each file. Ties are resolved by the order of the readers.
+     * @param maxCachedBlocks maximum number of decoded blocks to keep in the cache (may be 0 to disable caching)
+     */
+    public BlockCompressedIntervalStreamQueryEngine( final List<Reader<T>> readers,
+                                                     final Comparator<? super T> comparator,
+                                                     final int maxCachedBlocks ) {
+        Utils.nonEmpty(readers, "no readers supplied");
+        Utils.nonNull(comparator, "comparator must not be null");
+        Utils.validateArg(maxCachedBlocks >= 0, "maximum number of cached blocks must not be negative");
+        this.readers = new ArrayList<>(readers);
+        this.fileIndices = new FileIndex[readers.size()];
+        this.comparator = comparator;
+        this.blockCache = new LinkedHashMap<BlockKey, List<T>>(16, .75f, true) {
+            private static final long serialVersionUID = 1L;
+            @Override protected boolean removeEldestEntry( final Map.Entry<BlockKey, List<T>> eldest ) {
+                return size() > maxCachedBlocks;
+            }
+        };
+    }
+
+    public int getNumReaders() { return readers.size(); }
+    public Reader<T> getReader( final int readerIdx ) { return readers.get(readerIdx); }
+    public long getCacheHits() { return nCacheHits; }
+    public long getCacheMisses() { return nCacheMisses; }
+
+    /**
+     * Returns the features of all the files that overlap the specified closed interval, in the comparator's order.
+     */
+    public Iterator<T> query( final String contig, final int start, final int end ) {
+        Utils.nonNull(contig, "contig must not be null");
+        Utils.validateArg(start <= end, "query start must not be greater than query end");
+        final PriorityQueue<FileOverlapIterator> queue = new PriorityQueue<>(readers.size(),
+                (itr1, itr2) -> {
+                    final int cmp = comparator.compare(itr1.peek(), itr2.peek());
+                    return cmp != 0 ? cmp : Integer.compare(itr1.readerIdx, itr2.readerIdx);
+                });
+        for ( int readerIdx = 0; readerIdx != readers.size(); ++readerIdx ) {
+            final int contigId = readers.get(readerIdx).getDictionary().getSequenceIndex(contig);
+            if ( contigId == -1 ) {
+                continue;
+            }
+            final FileOverlapIterator itr = new FileOverlapIterator(readerIdx, contigId, start, end);
+            if ( itr.hasNext() ) {
+                queue.add(itr);
+            }
+        }
+        return new MergingIterator(queue);
+    }
+
+    @Override
+    public void close() {
+        blockCache.clear();
+        readers.forEach(Reader::close);
+    }
+
+    private FileIndex getFileIndex( final int readerIdx ) {
+        FileIndex fileIndex = fileIndices[readerIdx];
+        if ( fileIndex == null ) {
+            final Reader<T> reader = readers.get(readerIdx);
+            fileIndex = new FileIndex(reader.readIndexEntries(), reader.indexFilePointer);
+            fileIndices[readerIdx] = fileIndex;
+        }
+        return fileIndex;
+    }
+
+    private List<T> getBlock( final int readerIdx, final int entryIdx ) {
+        final FileIndex fileIndex = getFileIndex(readerIdx);
+        final BlockKey key = new BlockKey(readerIdx, fileIndex.positions[entryIdx]);
+        final List<T> cachedFeatures = blockCache.get(key);
+        if ( cachedFeatures != null ) {
+            nCacheHits += 1;
+            return cachedFeatures;
+        }
+        nCacheMisses += 1;
+
+        // the features indexed by an entry run from its file position up to the file position of the next entry
+        final Reader<T> reader = readers.get(readerIdx);
+        final long blockEnd = fileIndex.getEndPosition(entryIdx);
+        final List<T> features = new ArrayList<>();
+        reader.seekStream(key.filePosition);
+        while ( reader.getPosition() < blockEnd ) {
+            features.add(reader.readStream());
+        }
+        blockCache.put(key, features);
+        return features;
+    }
+
+    /**
+     * The index entries of a file in file order.  Each entry describes a run of features on a single contig, and
+     * entries are sorted by contig and start, so the candidates for a query can be found by binary search on the
+     * start and on the running maximum of the end.
+     */
+    private static final class FileIndex {
+        private final int[] contigs;
+        private final int[] starts;
+        private final int[] ends;
+        private final int[] maxEnds; // running maximum of the end, restarted for each contig
+        private final long[] positions;
+        private final long dataEndPosition;
+
+        FileIndex( final List<IndexEntry> entries, final long dataEndPosition ) {
+            final int nEntries = entries.size();
+            contigs = new int[nEntries];
+            starts = new int[nEntries];
+            ends = new int[nEntries];
+            maxEnds = new int[nEntries];
+            positions = new long[nEntries];
+            for ( int idx = 0; idx != nEntries; ++idx ) {
+                final IndexEntry entry = entries.get(idx);
+                contigs[idx] = entry.getInterval().getContig();
+                starts[idx] = entry.getInterval().getStart();
+                ends[idx] = entry.getInterval().getEnd();
+                positions[idx] = entry.getFilePosition();
+                final boolean newContig = idx == 0 || contigs[idx] != contigs[idx - 1];
+                maxEnds[idx] = newContig ? ends[idx] : Math.max(ends[idx], maxEnds[idx - 1]);
+            }
+            this.dataEndPosition = dataEndPosition;
+        }
+
+        long getEndPosition( final int entryIdx ) {
+            return entryIdx + 1 < positions.length ? positions[entryIdx + 1] : dataEndPosition;
+        }
+
+        /** indices of the entries that might contain features overlapping the closed interval, in file order */
+        int[] getCandidates( final int contig, final int start, final int end ) {
+            final int contigBegin = lowerBound(contigs, 0, contigs.length, contig);
+            final int contigEnd = lowerBound(contigs, contigBegin, contigs.length, contig + 1);
+            final int first = lowerBound(maxEnds, contigBegin, contigEnd, start);
+            final int last = end == Integer.MAX_VALUE ? contigEnd : lowerBound(starts, first, contigEnd, end + 1);
+            int nCandidates = 0;
+            final int[] candidates = new int[last - first];
+            for ( int idx = first; idx < last; ++idx ) {
+                if ( ends[idx] >= start ) {
+                    candidates[nCandidates++] = idx;
+                }
+            }
+            return Arrays.copyOf(candidates, nCandidates);
+        }
+
+        // index of the first element in the sorted range [from, to) that is not less than value
+        private static int lowerBound( final int[] values, int from, int to, final int value ) {
+            while ( from < to ) {
+                final int mid = (from + to) >>> 1;
+                if ( values[mid] < value ) {
+                    from = mid + 1;
+                } else {
+                    to = mid;
+                }
+            }
+            return from;
+        }
+    }
+
+    private static final class BlockKey {
+        private final int readerIdx;
+        private final long filePosition;
+
+        BlockKey( final int readerIdx, final long filePosition ) {
+            this.readerIdx = readerIdx;
+            this.filePosition = filePosition;
+        }
+
+        @Override
+        public boolean equals( final Object obj ) {
+            if ( this == obj ) return true;
+            if ( !(obj instanceof BlockKey) ) return false;
+            final BlockKey that = (BlockKey)obj;
+            return readerIdx == that.readerIdx && filePosition == that.filePosition;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * readerIdx + Long.hashCode(filePosition);
+        }
+    }
+
+    // the features of one file that overlap a query, in file order
+    private final class FileOverlapIterator {
+        private final int readerIdx;
+        private final int start;
+        private final int end;
+        private final int[] candidates;
+        private int candidateIdx;
+        private List<T> block;
+        private int featureIdx;
+        private T nextT;
+
+        FileOverlapIterator( final int readerIdx, final int contigId, final int start, final int end ) {
+            this.readerIdx = readerIdx;
+            this.start = start;
+            this.end = end;
+            this.candidates = getFileIndex(readerIdx).getCandidates(contigId, start, end);
+            this.candidateIdx = 0;
+            this.block = Collections.emptyList();
+            this.featureIdx = 0;
+            advance();
+        }
+
+        boolean hasNext() { return nextT != null; }
+
+        T peek() { return nextT; }
+
+        T next() {
+            final T result = nextT;
+            advance();
+            return result;
+        }
+
+        private void advance() {
+            while ( true ) {
+                while ( featureIdx < block.size() ) {
+                    final T feature = block.get(featureIdx++);
+                    if ( feature.getStart() <= end && feature.getEnd() >= start ) {
+                        nextT = feature;
+                        return;
+                    }
+                }
+                if ( candidateIdx == candidates.length ) {
+                    nextT = null;
+                    return;
+                }
+                block = getBlock(readerIdx, candidates[candidateIdx++]);
+                featureIdx = 0;
+            }
+        }
+    }
+
+    private final class MergingIterator implements Iterator<T> {
+        private final PriorityQueue<FileOverlapIterator> queue;
+
+        MergingIterator( final PriorityQueue<FileOverlapIterator> queue ) {
+            this.queue = queue;
+        }
+
+        @Override
+        public boolean hasNext() { return !queue.isEmpty(); }
+
+        @Override
+        public T next() {
+            final FileOverlapIterator itr = queue.poll();
+            if ( itr == null ) {
+                throw new NoSuchElementException("query iterator has no next element");
+            }
+            final T result = itr.next();
+            if ( itr.hasNext() ) {
+                queue.add(itr);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.broadinstitute.hellbender.utils.iterators;
+
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.samtools.util.CloserUtil;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Iterator wrapper that drains the wrapped iterator on a dedicated background thread, handing elements over to the
+ * consuming thread in batches through a bounded queue. This allows decoding of several inputs (e.g. one VCF per
+ * sample) to proceed in parallel with each other and with the consumer, while bounding the memory used by
+ * records that have been read ahead.
+ *
+ * The wrapped iterator is only ever touched by the background thread once this iterator has been constructed, so it
+ * does not need to be thread-safe. Any exception thrown by the wrapped iterator is rethrown to the consumer, wrapped
+ * in a {@link GATKException}, at the point in the stream where it occurred.
+ *
+ * @param <T> type of items to be iterated over
+ */
+public final class PrefetchingIterator<T> implements CloseableIterator<T> {
+
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    public static final int DEFAULT_BATCHES_IN_FLIGHT = 4;
+
+    private final Iterator<T> source;
+    private final BlockingQueue<Batch<T>> queue;
+    private final Thread readerThread;
+    private volatile boolean closed = false;
+
+    private Iterator<T> currentBatch = Collections.emptyIterator();
+    private boolean sourceExhausted = false;
+
+    /**
+     * @param source wrapped iterator from which this iterator will pull elements on a background thread
+     * @param threadName name for the background reader thread
+     */
+    public PrefetchingIterator(final Iterator<T> source, final String threadName) {
+        this(source, threadName, DEFAULT_BATCH_SIZE, DEFAULT_BATCHES_IN_FLIGHT);
+    }
+
+    /**
+     * @param source wrapped iterator from which this iterator will pull elements on a background thread
+     * @param threadName name for the background reader thread
+     * @param batchSize number of elements handed from the reader thread to the consumer at a time
+     * @param batchesInFlight maximum number of batches that may be read ahead of the consumer
+     */
+    public PrefetchingIterator(final Iterator<T> source, final String threadName, final int batchSize, final int batchesInFlight) {
+        Utils.nonNull(source, "iterator must not be null");
+        Utils.nonNull(threadName, "thread name must not be null");
+        Utils.validateArg(batchSize > 0, "batch size must be positive");
+        Utils.validateArg(batchesInFlight > 0, "batches in flight must be positive");
+
+        this.source = source;
+        this.queue = new ArrayBlockingQueue<>(batchesInFlight);
+        this.readerThread = new Thread(() -> fill(batchSize), threadName);
+        this.readerThread.setDaemon(true);
+        this.readerThread.start();
+    }
+
+    private void fill(final int batchSize) {
+        try {
+            List<T> buffer = new ArrayList<>(batchSize);
+            while (!closed && source.hasNext()) {
+                buffer.add(source.next());
+                if (buffer.size() == batchSize) {
+                    queue.put(new Batch<>(buffer, null, false));
+                    buffer = new ArrayList<>(batchSize);
+                }
+            }
+            queue.put(new Batch<>(buffer, null, true));
+        } catch (final InterruptedException e) {
+            // we were closed while waiting for the consumer -- nothing left to do
+            Thread.currentThread().interrupt();
+        } catch (final Throwable t) {
+            try {
+                queue.put(new Batch<>(Collections.emptyList(), t, true));
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!currentBatch.hasNext()) {
+            if (sourceExhausted || closed) {
+                return false;
+            }
+            final Batch<T> batch;
+            try {
+                batch = queue.take();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new GATKException("Interrupted while waiting for " + readerThread.getName(), e);
+            }
+            sourceExhausted = batch.isLast;
+            if (batch.error != null) {
+                throw new GATKException("Exception thrown while reading in " + readerThread.getName(), batch.error);
+            }
+            currentBatch = batch.elements.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if ( !hasNext() ) {
+            throw new NoSuchElementException("next() called when there are no more items");
+        }
+        return currentBatch.next();
+    }
+
+    /**
+     * Stops the background reader thread, and closes the wrapped iterator if it is closeable.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        readerThread.interrupt();
+        queue.clear();
+        try {
+            readerThread.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        CloserUtil.close(source);
+    }
+
+    private static final class Batch<T> {
+        private final List<T> elements;
+        private final Throwable error;
+        private final boolean isLast;
+
+        private Batch(final List<T> elements, final Throwable error, final boolean isLast) {
+            this.elements = elements;
+            this.error = error;
+            this.isLast = isLast;
+        }
+    }
+}
@@ -5,13 +5,18 @@ import org.apache.commons.math3.random.RandomGenerator;
 import org.apache.commons.math3.random.RandomGeneratorFactory;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.param.ParamUtils;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Implements Gibbs sampling of a multivariate probability density function.
@@ -20,14 +25,14 @@ import java.util.stream.Collectors;
  * @author Samuel Lee &lt;slee@broadinstitute.org&gt;
  */
 public final class GibbsSampler<V extends Enum<V> & ParameterEnum, S extends ParameterizedState<V>, T extends DataCollection> {
-    private static final int RANDOM_SEED = 42;
-    private static final RandomGenerator rng =
-            RandomGeneratorFactory.createRandomGenerator(new Random(RANDOM_SEED));
+    public static final int DEFAULT_RANDOM_SEED = 42;
 
     private static final Logger logger = LogManager.getLogger(GibbsSampler.class);
     private static final int NUMBER_OF_SAMPLES_PER_LOG_ENTRY = 25;
 
     private final int numSamples;
+    private final long seed;
+    private final RandomGenerator rng;
     private int numSamplesPerLogEntry;
 
     private final ParameterizedModel<V, S, T> model;
@@ -39,15 +44,29 @@ public final class GibbsSampler<V extends Enum<V> & ParameterEnum, S extends Par
     /**
      * Constructs a GibbsSampler given the total number of samples (including burn-in) and a {@link ParameterizedModel}.
      * The {@link ParameterizedState} held by the model is used to initialize the Monte Carlo Markov Chain and is taken
-     * to be the first sample.  Number of samples per log entry will be set to the default.
+     * to be the first sample.  Number of samples per log entry will be set to the default and
+     * {@link #DEFAULT_RANDOM_SEED} will be used to seed the chain.
      * @param numSamples    total number of samples; must be positive
      * @param model         {@link ParameterizedModel} to be sampled
      */
     public GibbsSampler(final int numSamples, final ParameterizedModel<V, S, T> model) {
+        this(numSamples, model, DEFAULT_RANDOM_SEED);
+    }
+
+    /**
+     * As above, but the chain is seeded with {@code seed}.  Each GibbsSampler holds its own random-number generator,
+     * so that samplers holding different models may be run concurrently.
+     * @param numSamples    total number of samples; must be positive
+     * @param model         {@link ParameterizedModel} to be sampled
+     * @param seed          seed for the random-number generator, which is reset each time {@link #runMCMC} is called
+     */
+    public GibbsSampler(final int numSamples, final ParameterizedModel<V, S, T> model, final long seed) {
         ParamUtils.isPositive(numSamples, "Number of samples must be positive.");
         Utils.validateArg(model.getUpdateMethod() == ParameterizedModel.UpdateMethod.GIBBS, "ParameterizedModel must be constructed to update using Gibbs sampling.");
         this.numSamples = numSamples;
         this.model = model;
+        this.seed = seed;
+        rng = RandomGeneratorFactory.createRandomGenerator(new Random(seed));
         numSamplesPerLogEntry = NUMBER_OF_SAMPLES_PER_LOG_ENTRY;
         samples = new ArrayList<>(numSamples);
         samples.add(model.state());
@@ -67,7 +86,7 @@ public final class GibbsSampler<V extends Enum<V> & ParameterEnum, S extends Par
      * Progress is logged according to {@code numSamplesPerLogEntry}.
      */
     public void runMCMC() {
-        rng.setSeed(RANDOM_SEED);
+        rng.setSeed(seed);
         logger.info("Starting MCMC sampling.");
         for (int sample = 1; sample < numSamples; sample++) {
             if (sample % numSamplesPerLogEntry == 0) {
@@ -98,4 +117,51 @@ public final class GibbsSampler<V extends Enum<V> & ParameterEnum, S extends Par
         return samples.stream().map(s -> s.get(parameterName, parameterValueClass)).collect(Collectors.toList())
                 .subList(numBurnIn, numSamples);
     }
-}
\ No newline at end of file
+
+    /**
+     * Constructs a GibbsSampler for each of the given {@link ParameterizedModel}s and runs the resulting chains.
+     * The chain at index {@code c} is seeded with {@link #DEFAULT_RANDOM_SEED} {@code + c}, so that the first chain
+     * is identical to that produced by {@link #GibbsSampler(int, ParameterizedModel)}.  If {@code numThreads} is
+     * greater than one, the chains are run concurrently in a {@link ForkJoinPool} with that parallelism; any parallel
+     * streams used by the {@link ParameterSampler}s of the models will then also be executed in this pool.  The models
+     * must not share any mutable state.
+     * @param numSamples    total number of samples per chain; must be positive
+     * @param models        {@link ParameterizedModel}s to be sampled, one per chain; must be non-empty
+     * @param numThreads    number of threads; must be positive
+     * @return              samplers in the same order as {@code models}, each with a completed run
+     */
+    public static <V extends Enum<V> & ParameterEnum, S extends ParameterizedState<V>, T extends DataCollection>
+    List<GibbsSampler<V, S, T>> runChains(final int numSamples,
+                                          final List<ParameterizedModel<V, S, T>> models,
+                                          final int numThreads) {
+        Utils.nonEmpty(models);
+        ParamUtils.isPositive(numThreads, "Number of threads must be positive.");
+        final List<GibbsSampler<V, S, T>> gibbsSamplers = IntStream.range(0, models.size())
+                .mapToObj(c -> new GibbsSampler<>(numSamples, models.get(c), DEFAULT_RANDOM_SEED + c))
+                .collect(Collectors.toList());
+        if (numThreads == 1) {
+            gibbsSamplers.forEach(GibbsSampler::runMCMC);
+            return gibbsSamplers;
+        }
+        final ForkJoinPool pool = new ForkJoinPool(numThreads);
+        try {
+            final List<ForkJoinTask<?>> tasks = gibbsSamplers.stream()
+                    .map(gibbsSampler -> pool.submit(gibbsSampler::runMCMC))
+                    .collect(Collectors.toList());
+            for (final ForkJoinTask<?> task : tasks) {
+                task.get();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while running MCMC chains.", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new GATKException("Exception encountered while running MCMC chains.", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return gibbsSamplers;
+    }
+}
@@ -0,0 +1,156 @@
+package org.broadinstitute.hellbender.utils.runtime;
+
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Consumer that hands the items it accepts over to a dedicated background thread in batches through a bounded queue,
+ * where they are passed to a wrapped action. This is the counterpart of
+ * {@link org.broadinstitute.hellbender.utils.iterators.PrefetchingIterator} for the output side of a pipeline: it lets
+ * work such as evidence counting, encoding, and compression proceed in parallel with the producer, while bounding the
+ * memory used by items that have not been consumed yet.
+ *
+ * The wrapped action and finisher are only ever called by the background thread, so they do not need to be
+ * thread-safe, and items must not be modified by the producer after they have been accepted. Any exception thrown by
+ * the action is rethrown to the producer, wrapped in a {@link GATKException}, by a later call to {@link #accept} or by
+ * {@link #close}.
+ *
+ * @param <T> type of items to be consumed
+ */
+public final class BackgroundBatchConsumer<T> implements Consumer<T>, AutoCloseable {
+
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    public static final int DEFAULT_BATCHES_IN_FLIGHT = 4;
+
+    private final Consumer<T> action;
+    private final Runnable finisher;
+    private final int batchSize;
+    private final BlockingQueue<Batch<T>> queue;
+    private final Thread consumerThread;
+    private volatile Throwable error = null;
+    private boolean closed = false;
+
+    private List<T> buffer;
+
+    /**
+     * @param action called on the background thread with each item, in the order in which they were accepted
+     * @param finisher called on the background thread after the last item, when this consumer is closed (may be null)
+     * @param threadName name for the background consumer thread
+     */
+    public BackgroundBatchConsumer(final Consumer<T> action, final Runnable finisher, final String threadName) {
+        this(action, finisher, threadName, DEFAULT_BATCH_SIZE, DEFAULT_BATCHES_IN_FLIGHT);
+    }
+
+    /**
+     * @param action called on the background thread with each item, in the order in which they were accepted
+     * @param finisher called on the background thread after the last item, when this consumer is closed (may be null)
+     * @param threadName name for the background consumer thread
+     * @param batchSize number of items handed from the producer to the background thread at a time
+     * @param batchesInFlight maximum number of batches that may be waiting for the background thread
+     */
+    public BackgroundBatchConsumer(final Consumer<T> action, final Runnable finisher, final String threadName,
+                                   final int batchSize, final int batchesInFlight) {
+        Utils.nonNull(action, "action must not be null");
+        Utils.nonNull(threadName, "thread name must not be null");
+        Utils.validateArg(batchSize > 0, "batch size must be positive");
+        Utils.validateArg(batchesInFlight > 0, "batches in flight must be positive");
+
+        this.action = action;
+        this.finisher = finisher;
+        this.batchSize = batchSize;
+        this.buffer = new ArrayList<>(batchSize);
+        this.queue = new ArrayBlockingQueue<>(batchesInFlight);
+        this.consumerThread = new Thread(this::drain, threadName);
+        this.consumerThread.setDaemon(true);
+        this.consumerThread.start();
+    }
+
+    private void drain() {
+        boolean failed = false;
+        try {
+            while (true) {
+                final Batch<T> batch = queue.take();
+                if (!failed) {
+                    try {
+                        batch.items.forEach(action);
+                        if (batch.isLast && finisher != null) {
+                            finisher.run();
+                        }
+                    } catch (final Throwable t) {
+                        // keep taking batches so that the producer never blocks, and report the error to it
+                        error = t;
+                        failed = true;
+                    }
+                }
+                if (batch.isLast) {
+                    return;
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void accept(final T item) {
+        Utils.validate(!closed, "cannot accept items after close");
+        checkError();
+        buffer.add(item);
+        if (buffer.size() == batchSize) {
+            put(new Batch<>(buffer, false));
+            buffer = new ArrayList<>(batchSize);
+        }
+    }
+
+    /**
+     * Hands over any buffered items, waits for the background thread to consume all items and run the finisher,
+     * and rethrows any exception thrown on the background thread.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        put(new Batch<>(buffer, true));
+        buffer = null;
+        try {
+            consumerThread.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while waiting for " + consumerThread.getName(), e);
+        }
+        checkError();
+    }
+
+    private void put(final Batch<T> batch) {
+        try {
+            queue.put(batch);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while waiting for " + consumerThread.getName(), e);
+        }
+    }
+
+    private void checkError() {
+        if (error != null) {
+            throw new GATKException("Exception thrown while consuming items in " + consumerThread.getName(), error);
+        }
+    }
+
+    private static final class Batch<T> {
+        private final List<T> items;
+        private final boolean isLast;
+
+        private Batch(final List<T> items, final boolean isLast) {
+            this.items = items;
+            this.isLast = isLast;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package org.broadinstitute.hellbender.utils.variant;
+
+import htsjdk.tribble.readers.LineIterator;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFCodec;
+import htsjdk.variant.vcf.VCFConstants;
+import htsjdk.variant.vcf.VCFHeader;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A {@link VCFCodec} that decodes only the INFO keys, FORMAT keys, and samples of a {@link VariantFieldSelection}.
+ *
+ * Each line is cut down to the selected fields by scanning for delimiters before it is handed to the regular VCF
+ * parser, so the cost of decoding scales with the selected fields rather than with the whole line.  Once the
+ * selected samples have been found the rest of the line is not even scanned, and sites-only selections stop
+ * after the INFO column.  The header returned by {@link #readActualHeader} lists only the selected samples.
+ *
+ * The first FORMAT key, which the VCF spec requires to be GT when present, is always kept so that every selected
+ * sample keeps a genotype.  The INFO key END is always kept as well, since it sets the stop of a record and so decides
+ * which intervals the record overlaps.  Header lines for dropped INFO and FORMAT keys are kept.
+ */
+public final class SelectiveVCFCodec extends VCFCodec {
+    private static final String CHROM_LINE_PREFIX = VCFHeader.HEADER_INDICATOR + VCFHeader.HEADER_FIELDS.CHROM.name();
+
+    private static final int NUM_FIXED_COLUMNS = VCFHeader.HEADER_FIELDS.values().length;
+
+    // the INFO column is the last fixed column
+    private static final int NUM_COLUMNS_BEFORE_INFO = NUM_FIXED_COLUMNS - 1;
+
+    private final VariantFieldSelection selection;
+
+    // indices among the sample columns of the kept samples in increasing order, or null if all samples are kept
+    private int[] keptSampleColumns = null;
+
+    // most records share the same FORMAT, so the kept keys of the last FORMAT are cached
+    private String lastFormat = null;
+
+    private int[] lastKeptFormatKeys = null;
+
+    public SelectiveVCFCodec(final VariantFieldSelection selection) {
+        this.selection = Utils.nonNull(selection);
+    }
+
+    public VariantFieldSelection getSelection() { return selection; }
+
+    @Override
+    public Object readActualHeader(final LineIterator lineIterator) {
+        return super.readActualHeader(new LineIterator() {
+            @Override
+            public String peek() { return selectHeaderColumns(lineIterator.peek()); }
+
+            @Override
+            public boolean hasNext() { return lineIterator.hasNext(); }
+
+            @Override
+            public String next() { return selectHeaderColumns(lineIterator.next()); }
+        });
+    }
+
+    @Override
+    public VariantContext decode(final String line) {
+        return super.decode(selectFields(line));
+    }
+
+    /**
+     * Remove the columns of samples that are not selected from the #CHROM line, and record which columns are kept
+     */
+    private String selectHeaderColumns(final String line) {
+        if (selection.keepsAllSamples() || !line.startsWith(CHROM_LINE_PREFIX)) {
+            return line;
+        }
+
+        final String[] columns = line.split(VCFConstants.FIELD_SEPARATOR);
+        final List<String> keptColumns = new ArrayList<>(Arrays.asList(columns).subList(0, Math.min(NUM_FIXED_COLUMNS, columns.length)));
+        final List<Integer> keptSamples = new ArrayList<>();
+        for (int column = NUM_FIXED_COLUMNS + 1; column < columns.length; column++) {
+            if (selection.keepsSample(columns[column])) {
+                keptSamples.add(column - NUM_FIXED_COLUMNS - 1);
+            }
+        }
+
+        // without samples the FORMAT column is dropped as well, giving a sites-only header
+        if (!keptSamples.isEmpty()) {
+            keptColumns.add(columns[NUM_FIXED_COLUMNS]);
+            keptSamples.forEach(sample -> keptColumns.add(columns[sample + NUM_FIXED_COLUMNS + 1]));
+        }
+        keptSampleColumns = keptSamples.stream().mapToInt(n -> n).toArray();
+        return String.join(VCFConstants.FIELD_SEPARATOR, keptColumns);
+    }
+
+    /**
+     * Cut a data line down to the selected INFO keys, FORMAT keys, and samples.  Header lines and lines too short to
+     * have an INFO column are returned as they are, the latter to be rejected by the VCF parser.
+     */
+    String selectFields(final String line) {
+        if (line.startsWith(VCFHeader.HEADER_INDICATOR)) {
+            return line;
+        }
+        final int infoStart = startOfColumn(line, NUM_COLUMNS_BEFORE_INFO);
+        if (infoStart < 0) {
+            return line;
+        }
+        final int infoEnd = indexOf(line, '\t', infoStart, line.length());
+
+        final StringBuilder result = new StringBuilder(infoEnd + 1);
+        result.append(line, 0, infoStart);
+        appendInfo(result, line, infoStart, infoEnd);
+
+        if (infoEnd == line.length() || (keptSampleColumns != null && keptSampleColumns.length == 0)) {
+            return result.toString();
+        } else if (keptSampleColumns == null && selection.keepsAllFormatKeys()) {
+            return result.append(line, infoEnd, line.length()).toString();
+        }
+
+        final int formatStart = infoEnd + 1;
+        final int formatEnd = indexOf(line, '\t', formatStart, line.length());
+        final int[] keptFormatKeys = selection.keepsAllFormatKeys() ? null : getKeptFormatKeys(line.substring(formatStart, formatEnd));
+        result.append('\t');
+        appendSubfields(result, line, formatStart, formatEnd, keptFormatKeys);
+
+        int sampleStart = formatEnd + 1;
+        int nextKeptSample = 0;
+        for (int sample = 0; sampleStart <= line.length(); sample++) {
+            if (keptSampleColumns != null && nextKeptSample == keptSampleColumns.length) {
+                break;
+            }
+            final int sampleEnd = indexOf(line, '\t', sampleStart, line.length());
+            if (keptSampleColumns == null || keptSampleColumns[nextKeptSample] == sample) {
+                result.append('\t');
+                appendSubfields(result, line, sampleStart, sampleEnd, keptFormatKeys);
+                nextKeptSample++;
+            }
+            sampleStart = sampleEnd + 1;
+        }
+        return result.toString();
+    }
+
+    private void appendInfo(final StringBuilder result, final String line, final int start, final int end) {
+        if (selection.keepsAllInfoKeys()) {
+            result.append(line, start, end);
+            return;
+        }
+
+        final int lengthBefore = result.length();
+        for (int entryStart = start; entryStart < end; ) {
+            final int entryEnd = indexOf(line, VCFConstants.INFO_FIELD_SEPARATOR_CHAR, entryStart, end);
+            final int keyEnd = indexOf(line, '=', entryStart, entryEnd);
+            final String key = line.substring(entryStart, keyEnd);
+            if (selection.keepsInfoKey(key) || key.equals(VCFConstants.END_KEY)) {
+                if (result.length() > lengthBefore) {
+                    result.append(VCFConstants.INFO_FIELD_SEPARATOR_CHAR);
+                }
+                result.append(line, entryStart, entryEnd);
+            }
+            entryStart = entryEnd + 1;
+        }
+        if (result.length() == lengthBefore) {
+            result.append(VCFConstants.EMPTY_INFO_FIELD);
+        }
+    }
+
+    /**
+     * Append the colon-separated subfields of a FORMAT or sample column with the given indices, or all of them if
+     * {@code keptSubfields} is null.  Sample columns may have fewer subfields than the FORMAT column.
+     */
+    private static void appendSubfields(final StringBuilder result, final String line, final int start, final int end,
+                                        final int[] keptSubfields) {
+        if (keptSubfields == null) {
+            result.append(line, start, end);
+            return;
+        }
+
+        int nextKept = 0;
+        for (int subfield = 0, subfieldStart = start; subfieldStart <= end && nextKept < keptSubfields.length; subfield++) {
+            final int subfieldEnd = indexOf(line, ':', subfieldStart, end);
+            if (keptSubfields[nextKept] == subfield) {
+                if (nextKept > 0) {
+                    result.append(':');
+                }
+                result.append(line, subfieldStart, subfieldEnd);
+                nextKept++;
+            }
+            subfieldStart = subfieldEnd + 1;
+        }
+    }
+
+    private int[] getKeptFormatKeys(final String format) {
+        if (!format.equals(lastFormat)) {
+            final String[] keys = format.split(VCFConstants.GENOTYPE_FIELD_SEPARATOR);
+            final List<Integer> kept = new ArrayList<>();
+            for (int n = 0; n < keys.length; n++) {
+                if (n == 0 || selection.keepsFormatKey(keys[n])) {
+                    kept.add(n);
+                }
+            }
+            lastFormat = format;
+            lastKeptFormatKeys = kept.stream().mapToInt(n -> n).toArray();
+        }
+        return lastKeptFormatKeys;
+    }
+
+    /**
+     * @return the index of the first character of the given column, or -1 if the line has too few columns
+     */
+    private static int startOfColumn(final String line, final int column) {
+        int start = 0;
+        for (int n = 0; n < column; n++) {
+            final int tab = line.indexOf('\t', start);
+            if (tab < 0) {
+                return -1;
+            }
+            start = tab + 1;
+        }
+        return start;
+    }
+
+    /**
+     * @return the index of the first occurrence of {@code c} in {@code line} within [{@code from}, {@code to}), or {@code to} if there is none
+     */
+    private static int indexOf(final String line, final char c, final int from, final int to) {
+        for (int n = from; n < to; n++) {
+            if (line.charAt(n) == c) {
+                return n;
+            }
+        }
+        return to;
+    }
+}
@@ -0,0 +1,82 @@
+package org.broadinstitute.hellbender.utils.variant;
+
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The INFO keys, FORMAT keys, and samples of a VCF that a tool needs, so that a {@link SelectiveVCFCodec} can skip
+ * decoding the rest.  Each of the three is either a set of names or "all", in which case nothing of that kind is dropped.
+ *
+ * An empty set of samples gives sites-only {@link htsjdk.variant.variantcontext.VariantContext}s, which is the cheapest
+ * selection for tools that don't look at genotypes.
+ */
+public final class VariantFieldSelection {
+
+    /**
+     * Selects every field and sample, ie decodes records in full
+     */
+    public static final VariantFieldSelection ALL = new VariantFieldSelection(null, null, null);
+
+    // null means all
+    private final Set<String> infoKeys;
+    private final Set<String> formatKeys;
+    private final Set<String> samples;
+
+    /**
+     * @param infoKeys INFO keys to keep, or {@code null} to keep all of them
+     * @param formatKeys FORMAT keys to keep, or {@code null} to keep all of them
+     * @param samples samples to keep, or {@code null} to keep all of them
+     */
+    public VariantFieldSelection(final Collection<String> infoKeys, final Collection<String> formatKeys, final Collection<String> samples) {
+        this.infoKeys = copyOrNull(infoKeys);
+        this.formatKeys = copyOrNull(formatKeys);
+        this.samples = copyOrNull(samples);
+    }
+
+    /**
+     * A selection with no samples, keeping only the given INFO keys, or all INFO keys if {@code infoKeys} is {@code null}
+     */
+    public static VariantFieldSelection sitesOnly(final Collection<String> infoKeys) {
+        return new VariantFieldSelection(infoKeys, Collections.emptySet(), Collections.emptySet());
+    }
+
+    private static Set<String> copyOrNull(final Collection<String> names) {
+        if (names == null) {
+            return null;
+        }
+        Utils.containsNoNull(names, "names must not contain null");
+        return Collections.unmodifiableSet(new LinkedHashSet<>(names));
+    }
+
+    /**
+     * @return true if nothing is dropped, in which case records may be decoded in full
+     */
+    public boolean selectsAll() {
+        return infoKeys == null && formatKeys == null && samples == null;
+    }
+
+    public boolean keepsAllInfoKeys() { return infoKeys == null; }
+
+    public boolean keepsAllFormatKeys() { return formatKeys == null; }
+
+    public boolean keepsAllSamples() { return samples == null; }
+
+    public boolean keepsInfoKey(final String key) { return infoKeys == null || infoKeys.contains(key); }
+
+    public boolean keepsFormatKey(final String key) { return formatKeys == null || formatKeys.contains(key); }
+
+    public boolean keepsSample(final String sample) { return samples == null || samples.contains(sample); }
+
+    @Override
+    public String toString() {
+        return String.format("INFO keys: %s, FORMAT keys: %s, samples: %s", describe(infoKeys), describe(formatKeys), describe(samples));
+    }
+
+    private static String describe(final Set<String> names) {
+        return names == null ? "all" : names.toString();
+    }
+}
@@ -0,0 +1,132 @@
+package org.broadinstitute.hellbender.engine.spark;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.SamReader;
+import htsjdk.samtools.SamReaderFactory;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.engine.GATKPath;
+import org.broadinstitute.hellbender.engine.Shard;
+import org.broadinstitute.hellbender.engine.ShardBoundary;
+import org.broadinstitute.hellbender.utils.IntervalUtils;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class CoverageWeightedShardPlannerUnitTest extends GATKBaseTest {
+
+    private static final int WINDOW_SIZE = 1000;
+    private static final int SHARD_SIZE = 400;
+    private static final int PADDING = 10;
+
+    private final SAMSequenceDictionary dictionary = new SAMSequenceDictionary(
+            Arrays.asList(new SAMSequenceRecord("1", 20000), new SAMSequenceRecord("2", 5000)));
+
+    private static double[] uniformWeights(final int windows, final double weight) {
+        final double[] weights = new double[windows];
+        Arrays.fill(weights, weight);
+        return weights;
+    }
+
+    private static void assertTiles(final List<ShardBoundary> shards, final SimpleInterval interval, final int minLength, final int maxLength) {
+        int expectedStart = interval.getStart();
+        for (final ShardBoundary shard : shards) {
+            Assert.assertEquals(shard.getContig(), interval.getContig());
+            Assert.assertEquals(shard.getStart(), expectedStart);
+            Assert.assertTrue(shard.getInterval().getLengthOnReference() <= maxLength, shard.toString());
+            if (shard.getEnd() != interval.getEnd()) {
+                Assert.assertTrue(shard.getInterval().getLengthOnReference() >= minLength, shard.toString());
+            }
+            expectedStart = shard.getEnd() + 1;
+        }
+        Assert.assertEquals(expectedStart, interval.getEnd() + 1);
+    }
+
+    @Test
+    public void testNoWeightsFallsBackToFixedShards() {
+        final SimpleInterval interval = new SimpleInterval("1", 1, 20000);
+        final CoverageWeightedShardPlanner planner = new CoverageWeightedShardPlanner(null, WINDOW_SIZE,
+                Collections.singletonList(interval), SHARD_SIZE, PADDING, dictionary);
+        Assert.assertFalse(planner.isCoverageWeighted());
+        Assert.assertEquals(planner.divideIntervalIntoShards(interval), Shard.divideIntervalIntoShards(interval, SHARD_SIZE, PADDING, dictionary));
+    }
+
+    @Test
+    public void testUniformWeightsMatchFixedShards() {
+        final SimpleInterval interval = new SimpleInterval("1", 123, 19876);
+        final Map<String, double[]> weights = Collections.singletonMap("1", uniformWeights(20, 37.0));
+        final CoverageWeightedShardPlanner planner = new CoverageWeightedShardPlanner(weights, WINDOW_SIZE,
+                Collections.singletonList(interval), SHARD_SIZE, PADDING, dictionary);
+        Assert.assertTrue(planner.isCoverageWeighted());
+        Assert.assertEquals(planner.divideIntervalIntoShards(interval), Shard.divideIntervalIntoShards(interval, SHARD_SIZE, PADDING, dictionary));
+    }
+
+    @Test
+    public void testHotWindowIsSplitAndColdWindowsAreMerged() {
+        final SimpleInterval interval = new SimpleInterval("1", 1, 20000);
+        final double[] contigWeights = uniformWeights(20, 1.0);
+        contigWeights[5] = 1000.0;
+        final CoverageWeightedShardPlanner planner = new CoverageWeightedShardPlanner(Collections.singletonMap("1", contigWeights),
+                WINDOW_SIZE, Collections.singletonList(interval), SHARD_SIZE, PADDING, dictionary);
+
+        final List<ShardBoundary> shards = planner.divideIntervalIntoShards(interval);
+        final int minLength = SHARD_SIZE / CoverageWeightedShardPlanner.MIN_SHARD_SIZE_DIVISOR;
+        final int maxLength = SHARD_SIZE * CoverageWeightedShardPlanner.MAX_SHARD_SIZE_MULTIPLE;
+        assertTiles(shards, interval, minLength, maxLength);
+
+        final long hotShards = shards.stream().filter(s -> s.getStart() > 5000 && s.getEnd() <= 6000).count();
+        Assert.assertTrue(hotShards > 1);
+        shards.stream().filter(s -> s.getStart() > 5000 && s.getEnd() <= 6000)
+                .forEach(s -> Assert.assertTrue(s.getInterval().getLengthOnReference() < SHARD_SIZE));
+        shards.stream().filter(s -> s.getEnd() <= 5000)
+                .forEach(s -> Assert.assertEquals(s.getInterval().getLengthOnReference(), maxLength));
+
+        final ShardBoundary first = shards.get(0);
+        Assert.assertEquals(first.getPaddedInterval(), first.getInterval().expandWithinContig(PADDING, dictionary));
+    }
+
+    @Test
+    public void testContigWithoutReadsUsesLongestShards() {
+        final List<SimpleInterval> intervals = Arrays.asList(new SimpleInterval("1", 1, 20000), new SimpleInterval("2", 1, 5000));
+        final CoverageWeightedShardPlanner planner = new CoverageWeightedShardPlanner(Collections.singletonMap("1", uniformWeights(20, 5.0)),
+                WINDOW_SIZE, intervals, SHARD_SIZE, PADDING, dictionary);
+
+        final List<ShardBoundary> shards = planner.divideIntervalIntoShards(intervals.get(1));
+        assertTiles(shards, intervals.get(1), 1, SHARD_SIZE * CoverageWeightedShardPlanner.MAX_SHARD_SIZE_MULTIPLE);
+        Assert.assertEquals(shards.size(), 4);
+    }
+
+    @Test
+    public void testFromReadIndexes() throws IOException {
+        final GATKPath bam = new GATKPath(publicTestDir + "org/broadinstitute/hellbender/engine/reads_data_source_test1.bam");
+        final SAMSequenceDictionary bamDictionary;
+        try (final SamReader reader = SamReaderFactory.makeDefault().open(bam.toPath())) {
+            bamDictionary = reader.getFileHeader().getSequenceDictionary();
+        }
+        final List<SimpleInterval> intervals = IntervalUtils.getAllIntervalsForReference(bamDictionary);
+
+        final CoverageWeightedShardPlanner planner = CoverageWeightedShardPlanner.fromReadIndexes(Collections.singletonList(bam), null,
+                intervals, 1000, PADDING, bamDictionary);
+        Assert.assertTrue(planner.isCoverageWeighted());
+        for (final SimpleInterval interval : intervals) {
+            assertTiles(planner.divideIntervalIntoShards(interval), interval, 1, 1000 * CoverageWeightedShardPlanner.MAX_SHARD_SIZE_MULTIPLE);
+        }
+    }
+
+    @Test
+    public void testFromReadIndexesWithoutIndex() {
+        final GATKPath bam = new GATKPath(publicTestDir + "org/broadinstitute/hellbender/engine/unindexed.bam");
+        final SimpleInterval interval = new SimpleInterval("1", 1, 20000);
+        final CoverageWeightedShardPlanner planner = CoverageWeightedShardPlanner.fromReadIndexes(Collections.singletonList(bam), null,
+                Collections.singletonList(interval), SHARD_SIZE, PADDING, dictionary);
+        Assert.assertFalse(planner.isCoverageWeighted());
+        Assert.assertEquals(planner.divideIntervalsIntoShards(Collections.singletonList(interval)),
+                Shard.divideIntervalIntoShards(interval, SHARD_SIZE, PADDING, dictionary));
+    }
+}
@@ -0,0 +1,81 @@
+package org.broadinstitute.hellbender.engine.spark.datasources;
+
+import org.apache.spark.SparkConf;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.engine.GATKPath;
+import org.broadinstitute.hellbender.engine.spark.GATKRegistrator;
+import org.broadinstitute.hellbender.testutils.SparkTestUtils;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.reference.ReferenceBases;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+
+public class ReferenceMappedTwoBitSparkSourceUnitTest extends GATKBaseTest {
+    private static final String twoBitRefURL = publicTestDir + "large/human_g1k_v37.20.21.2bit";
+    private static final String fastaRefURL = publicTestDir + "large/human_g1k_v37.20.21.fasta";
+
+    @DataProvider(name = "intervals")
+    public Object[][] intervals() {
+        final int chr20End = 63025520;
+        return new Object[][]{
+                {"20:2-10"},
+                {"20:4-5"},
+                {"20:4,000-5,000"},
+                {"20:9,999,990-10,000,400"},
+                {"21:1-60,000"}, // starts with an N block
+                {"20:" + (chr20End - 100) + "-" + chr20End},
+                {"20:" + (chr20End - 1) + "-" + (chr20End + 100)}, // cropped at the contig end
+        };
+    }
+
+    @Test(dataProvider = "intervals")
+    public void testMatchesTwoBitSource(final String intervalString) throws IOException {
+        final SimpleInterval interval = new SimpleInterval(intervalString);
+        final ReferenceBases expected = new ReferenceTwoBitSparkSource(new GATKPath(twoBitRefURL)).getReferenceBases(interval);
+        final ReferenceBases actual = new ReferenceMappedTwoBitSparkSource(new GATKPath(twoBitRefURL)).getReferenceBases(interval);
+        Assert.assertEquals(actual, expected);
+    }
+
+    @Test
+    public void testMatchesFasta() throws IOException {
+        final SimpleInterval interval = new SimpleInterval("20", 1_000_000, 1_010_000);
+        final ReferenceBases expected = new ReferenceFileSparkSource(new GATKPath(fastaRefURL)).getReferenceBases(interval);
+        final ReferenceBases actual = new ReferenceMappedTwoBitSparkSource(new GATKPath(twoBitRefURL)).getReferenceBases(interval);
+        Assert.assertEquals(actual, expected);
+    }
+
+    @Test
+    public void testWholeContigMatchesFasta() throws IOException {
+        final SimpleInterval contig = new SimpleInterval("17", 1, 1_000_000);
+        final ReferenceBases expected = new ReferenceFileSparkSource(new GATKPath(publicTestDir + "human_g1k_v37.chr17_1Mb.fasta")).getReferenceBases(contig);
+        final ReferenceBases actual = new ReferenceMappedTwoBitSparkSource(new GATKPath(publicTestDir + "human_g1k_v37.chr17_1Mb.2bit")).getReferenceBases(contig);
+        Assert.assertEquals(new String(actual.getBases()), new String(expected.getBases()).toUpperCase());
+        Assert.assertEquals(actual.getInterval(), expected.getInterval());
+    }
+
+    @Test
+    public void testSequenceDictionary() throws IOException {
+        Assert.assertEquals(new ReferenceMappedTwoBitSparkSource(new GATKPath(twoBitRefURL)).getReferenceSequenceDictionary(null),
+                new ReferenceTwoBitSparkSource(new GATKPath(twoBitRefURL)).getReferenceSequenceDictionary(null));
+    }
+
+    @Test
+    public void testKryoRoundTrip() throws IOException {
+        final ReferenceMultiSparkSource source = new ReferenceMultiSparkSource(new GATKPath(twoBitRefURL), ReferenceWindowFunctions.IDENTITY_FUNCTION, true);
+        final SimpleInterval interval = new SimpleInterval("21", 10_000_000, 10_000_100);
+        final ReferenceBases before = source.getReferenceBases(interval);
+
+        final SparkConf conf = new SparkConf().set("spark.kryo.registrator", GATKRegistrator.class.getName());
+        final ReferenceMultiSparkSource copy = SparkTestUtils.roundTripInKryo(source, ReferenceMultiSparkSource.class, conf);
+        Assert.assertEquals(copy.getReferenceBases(interval), before);
+        Assert.assertEquals(copy.getReferenceSequenceDictionary(null), source.getReferenceSequenceDictionary(null));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRejectsFasta() {
+        new ReferenceMappedTwoBitSparkSource(new GATKPath(fastaRefURL));
+    }
+}
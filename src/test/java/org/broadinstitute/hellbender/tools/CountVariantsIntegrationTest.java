@@ -1,5 +1,7 @@
 package org.broadinstitute.hellbender.tools;
 
+import htsjdk.tribble.index.IndexFactory;
+import htsjdk.variant.vcf.VCFCodec;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.tools.walkers.CountVariants;
 import org.broadinstitute.hellbender.testutils.ArgumentsBuilder;
@@ -8,7 +10,9 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Files;
+import java.util.Arrays;
 
 public final class CountVariantsIntegrationTest extends CommandLineProgramTest {
 
@@ -41,6 +45,38 @@ public final class CountVariantsIntegrationTest extends CommandLineProgramTest {
         Assert.assertEquals(Files.readAllBytes(output.toPath()), Long.toString(expectedCount).getBytes());
     }
 
+    // CountVariants decodes only the sites, but END must still be decoded so that records starting before an interval are counted
+    @Test(dataProvider = "intervalsInsideBlocks")
+    public void testCountVariantsWithIntervalInsideBlock(final String interval, final long expectedCount) throws IOException {
+        final File gvcf = createTempFile("testCountVariantsWithIntervalInsideBlock", ".g.vcf");
+        Files.write(gvcf.toPath(), Arrays.asList(
+                "##fileformat=VCFv4.2",
+                "##INFO=<ID=DP,Number=1,Type=Integer,Description=\"Depth\">",
+                "##INFO=<ID=END,Number=1,Type=Integer,Description=\"Stop position of the interval\">",
+                "##FORMAT=<ID=GT,Number=1,Type=String,Description=\"Genotype\">",
+                "##contig=<ID=1,length=1000>",
+                "#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\tsample",
+                "1\t100\t.\tA\t<NON_REF>\t.\t.\tDP=30;END=200\tGT\t0/0",
+                "1\t201\t.\tC\tT,<NON_REF>\t50\t.\tDP=25\tGT\t0/1",
+                "1\t202\t.\tG\t<NON_REF>\t.\t.\tEND=400;DP=20\tGT\t0/0"));
+        IndexFactory.createDynamicIndex(gvcf, new VCFCodec()).writeBasedOnFeatureFile(gvcf);
+
+        final ArgumentsBuilder ab = new ArgumentsBuilder();
+        ab.addVCF(gvcf);
+        ab.addInterval(interval);
+        Assert.assertEquals(runCommandLine(ab), expectedCount);
+    }
+
+    @DataProvider(name = "intervalsInsideBlocks")
+    public Object[][] intervalsInsideBlocks() {
+        return new Object[][]{
+                {"1:150-160", 1L},
+                {"1:150-201", 2L},
+                {"1:300-500", 1L},
+                {"1:190-300", 3L},
+        };
+    }
+
     @DataProvider(name="countVariantsVCFInputs")
     public Object[][] countVariantsVCFInputs() {
         return new Object[][]{
@@ -257,6 +257,47 @@ public final class CreateReadCountPanelOfNormalsIntegrationTest extends CommandL
         testPanelOfNormals(annotatedIntervalsFile, expectedNumberOfEigenvalues, resultOutputFile);
     }
 
+    @Test(dataProvider = "dataPanelOfNormals")
+    public void testOutOfCore(final List<File> inputFiles,
+                              final File annotatedIntervalsFile,
+                              final int expectedNumberOfEigenvalues) {
+        final File inCoreOutputFile = createTempFile("create-read-count-panel-of-normals-test", ".hdf5");
+        final File outOfCoreOutputFile = createTempFile("create-read-count-panel-of-normals-out-of-core-test", ".hdf5");
+        for (final File outputFile : Arrays.asList(inCoreOutputFile, outOfCoreOutputFile)) {
+            final ArgumentsBuilder argsBuilder = new ArgumentsBuilder()
+                    .add(CreateReadCountPanelOfNormals.MINIMUM_INTERVAL_MEDIAN_PERCENTILE_LONG_NAME, Double.toString(MINIMUM_INTERVAL_MEDIAN_PERCENTILE))
+                    .add(CreateReadCountPanelOfNormals.MAXIMUM_ZEROS_IN_SAMPLE_PERCENTAGE_LONG_NAME, Double.toString(MAXIMUM_ZEROS_IN_SAMPLE_PERCENTAGE))
+                    .add(CreateReadCountPanelOfNormals.MAXIMUM_ZEROS_IN_INTERVAL_PERCENTAGE_LONG_NAME, Double.toString(MAXIMUM_ZEROS_IN_INTERVAL_PERCENTAGE))
+                    .add(CreateReadCountPanelOfNormals.EXTREME_SAMPLE_MEDIAN_PERCENTILE_LONG_NAME, Double.toString(EXTREME_SAMPLE_MEDIAN_PERCENTILE))
+                    .add(CopyNumberStandardArgument.NUMBER_OF_EIGENSAMPLES_LONG_NAME, Integer.toString(NUMBER_OF_EIGENVALUES_REQUESTED))
+                    .addOutput(outputFile);
+            if (annotatedIntervalsFile != null) {
+                argsBuilder.add(CopyNumberStandardArgument.ANNOTATED_INTERVALS_FILE_LONG_NAME, annotatedIntervalsFile);
+            }
+            if (outputFile == outOfCoreOutputFile) {
+                argsBuilder.add(CreateReadCountPanelOfNormals.OUT_OF_CORE_LONG_NAME, true);
+            }
+            inputFiles.forEach(argsBuilder::addInput);
+            runCommandLine(argsBuilder);
+        }
+        testPanelOfNormals(annotatedIntervalsFile, expectedNumberOfEigenvalues, outOfCoreOutputFile);
+
+        //check that filtering and preprocessing are identical and that the leading singular values agree
+        try (final HDF5File inCoreFile = new HDF5File(inCoreOutputFile);
+             final HDF5File outOfCoreFile = new HDF5File(outOfCoreOutputFile)) {
+            final SVDReadCountPanelOfNormals inCorePanelOfNormals = HDF5SVDReadCountPanelOfNormals.read(inCoreFile);
+            final SVDReadCountPanelOfNormals outOfCorePanelOfNormals = HDF5SVDReadCountPanelOfNormals.read(outOfCoreFile);
+            Assert.assertEquals(outOfCorePanelOfNormals.getOriginalReadCounts(), inCorePanelOfNormals.getOriginalReadCounts());
+            Assert.assertEquals(outOfCorePanelOfNormals.getPanelIntervals(), inCorePanelOfNormals.getPanelIntervals());
+            Assert.assertEquals(outOfCorePanelOfNormals.getPanelIntervalFractionalMedians(), inCorePanelOfNormals.getPanelIntervalFractionalMedians());
+            final double[] inCoreSingularValues = inCorePanelOfNormals.getSingularValues();
+            final double[] outOfCoreSingularValues = outOfCorePanelOfNormals.getSingularValues();
+            for (int i = 0; i < expectedNumberOfEigenvalues; i++) {
+                Assert.assertEquals(outOfCoreSingularValues[i], inCoreSingularValues[i], 1E-6 * inCoreSingularValues[0]);
+            }
+        }
+    }
+
     @Test(dataProvider = "dataPanelOfNormals")
     public void testSingleSample(final List<File> inputFiles,
                                  final File annotatedIntervalsFile,
@@ -82,4 +82,76 @@ public final class DenoiseReadCountsIntegrationTest extends CommandLineProgramTe
         //standardized and denoised copy ratios should be the same if PoN is not provided
         Assert.assertEquals(standardizedCopyRatios.getLog2CopyRatioValues().equals(denoisedCopyRatios.getLog2CopyRatioValues()), isStandardizedEqualsDenoised);
     }
+
+    @DataProvider(name = "dataDenoiseReadCountsMultipleSamples")
+    public Object[][] dataDenoiseReadCountsMultipleSamples() {
+        //PoN file, number of samples per batch
+        return new Object[][]{
+                {WGS_DO_GC_PON_FILE, 1},
+                {WGS_DO_GC_PON_FILE, 2},
+                {WGS_NO_GC_PON_FILE, 100},
+                {null, 100}
+        };
+    }
+
+    /**
+     * Checks that denoising multiple samples in a single invocation gives results identical to denoising each sample alone.
+     */
+    @Test(dataProvider = "dataDenoiseReadCountsMultipleSamples")
+    public void testDenoiseReadCountsMultipleSamples(final File ponFile,
+                                                     final int numSamplesPerBatch) {
+        final List<File> inputReadCountsFiles = Arrays.asList(WGS_READ_COUNTS_TSV_FILE, WGS_READ_COUNTS_HDF5_FILE, WGS_READ_COUNTS_TSV_FILE);
+        final List<File> standardizedCRFiles = new ArrayList<>();
+        final List<File> denoisedCRFiles = new ArrayList<>();
+        final ArgumentsBuilder arguments = new ArgumentsBuilder()
+                .add(DenoiseReadCounts.NUMBER_OF_SAMPLES_PER_BATCH_LONG_NAME, numSamplesPerBatch)
+                .add(CopyNumberStandardArgument.NUMBER_OF_EIGENSAMPLES_LONG_NAME, "10");
+        if (ponFile != null) {
+            arguments.add(CopyNumberStandardArgument.COUNT_PANEL_OF_NORMALS_FILE_LONG_NAME, ponFile);
+        } else {
+            arguments.add(CopyNumberStandardArgument.ANNOTATED_INTERVALS_FILE_LONG_NAME, WGS_ANNOTATED_INTERVALS_FILE);
+        }
+        for (final File inputReadCountsFile : inputReadCountsFiles) {
+            final File standardizedCRFile = createTempFile("test", ".standardizedCR.tsv");
+            final File denoisedCRFile = createTempFile("test", ".denoisedCR.tsv");
+            arguments.add(StandardArgumentDefinitions.INPUT_SHORT_NAME, inputReadCountsFile)
+                    .add(CopyNumberStandardArgument.STANDARDIZED_COPY_RATIOS_FILE_LONG_NAME, standardizedCRFile)
+                    .add(CopyNumberStandardArgument.DENOISED_COPY_RATIOS_FILE_LONG_NAME, denoisedCRFile);
+            standardizedCRFiles.add(standardizedCRFile);
+            denoisedCRFiles.add(denoisedCRFile);
+        }
+        runCommandLine(arguments);
+
+        for (int sampleIndex = 0; sampleIndex < inputReadCountsFiles.size(); sampleIndex++) {
+            final File expectedStandardizedCRFile = createTempFile("test", ".standardizedCR.tsv");
+            final File expectedDenoisedCRFile = createTempFile("test", ".denoisedCR.tsv");
+            final ArgumentsBuilder singleSampleArguments = new ArgumentsBuilder()
+                    .add(StandardArgumentDefinitions.INPUT_SHORT_NAME, inputReadCountsFiles.get(sampleIndex))
+                    .add(CopyNumberStandardArgument.NUMBER_OF_EIGENSAMPLES_LONG_NAME, "10")
+                    .add(CopyNumberStandardArgument.STANDARDIZED_COPY_RATIOS_FILE_LONG_NAME, expectedStandardizedCRFile)
+                    .add(CopyNumberStandardArgument.DENOISED_COPY_RATIOS_FILE_LONG_NAME, expectedDenoisedCRFile);
+            if (ponFile != null) {
+                singleSampleArguments.add(CopyNumberStandardArgument.COUNT_PANEL_OF_NORMALS_FILE_LONG_NAME, ponFile);
+            } else {
+                singleSampleArguments.add(CopyNumberStandardArgument.ANNOTATED_INTERVALS_FILE_LONG_NAME, WGS_ANNOTATED_INTERVALS_FILE);
+            }
+            runCommandLine(singleSampleArguments);
+
+            Assert.assertEquals(new CopyRatioCollection(standardizedCRFiles.get(sampleIndex)).getRecords(),
+                    new CopyRatioCollection(expectedStandardizedCRFile).getRecords());
+            Assert.assertEquals(new CopyRatioCollection(denoisedCRFiles.get(sampleIndex)).getRecords(),
+                    new CopyRatioCollection(expectedDenoisedCRFile).getRecords());
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testDenoiseReadCountsMismatchedNumberOfOutputs() {
+        final ArgumentsBuilder arguments = new ArgumentsBuilder()
+                .add(StandardArgumentDefinitions.INPUT_SHORT_NAME, WGS_READ_COUNTS_TSV_FILE)
+                .add(StandardArgumentDefinitions.INPUT_SHORT_NAME, WGS_READ_COUNTS_HDF5_FILE)
+                .add(CopyNumberStandardArgument.COUNT_PANEL_OF_NORMALS_FILE_LONG_NAME, WGS_DO_GC_PON_FILE)
+                .add(CopyNumberStandardArgument.STANDARDIZED_COPY_RATIOS_FILE_LONG_NAME, createTempFile("test", ".standardizedCR.tsv"))
+                .add(CopyNumberStandardArgument.DENOISED_COPY_RATIOS_FILE_LONG_NAME, createTempFile("test", ".denoisedCR.tsv"));
+        runCommandLine(arguments);
+    }
 }
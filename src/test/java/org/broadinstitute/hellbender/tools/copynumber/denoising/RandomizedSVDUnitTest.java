@@ -0,0 +1,127 @@
+package org.broadinstitute.hellbender.tools.copynumber.denoising;
+
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.SingularValueDecomposition;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+public final class RandomizedSVDUnitTest extends GATKBaseTest {
+    private static final int RANDOM_SEED = 17;
+    private static final int NUM_SAMPLES = 30;
+    private static final int NUM_INTERVALS = 2000;
+    private static final double EPSILON = 1E-9;
+
+    //low-rank signal plus small noise, so that the leading singular values are well separated
+    private static double[][] simulateData(final int rank) {
+        final Random random = new Random(RANDOM_SEED);
+        final double[][] data = new double[NUM_SAMPLES][NUM_INTERVALS];
+        for (int k = 0; k < rank; k++) {
+            final double scale = 10. / (k + 1);
+            final double[] sampleLoadings = random.doubles(NUM_SAMPLES).map(x -> x - 0.5).toArray();
+            final double[] intervalLoadings = random.doubles(NUM_INTERVALS).map(x -> x - 0.5).toArray();
+            for (int i = 0; i < NUM_SAMPLES; i++) {
+                for (int j = 0; j < NUM_INTERVALS; j++) {
+                    data[i][j] += scale * sampleLoadings[i] * intervalLoadings[j];
+                }
+            }
+        }
+        for (final double[] row : data) {
+            for (int j = 0; j < NUM_INTERVALS; j++) {
+                row[j] += 0.01 * random.nextGaussian();
+            }
+        }
+        return data;
+    }
+
+    private static MemoryMappedMatrix toMemoryMappedMatrix(final double[][] data) {
+        final MemoryMappedMatrix matrix = new MemoryMappedMatrix(data.length, data[0].length);
+        for (int i = 0; i < data.length; i++) {
+            matrix.setRow(i, data[i]);
+        }
+        return matrix;
+    }
+
+    @DataProvider(name = "dataRandomizedSVD")
+    public Object[][] dataRandomizedSVD() {
+        //rank, number of components, number of oversamples, number of power iterations
+        return new Object[][]{
+                {3, 3, 10, 2},
+                {5, 5, 5, 1},
+                {5, NUM_SAMPLES, 10, 0},    //sketch spans the full row space, so decomposition is exact
+                {1, 4, 0, 3}
+        };
+    }
+
+    @Test(dataProvider = "dataRandomizedSVD")
+    public void testRandomizedSVD(final int rank,
+                                  final int numComponents,
+                                  final int numOversamples,
+                                  final int numPowerIterations) {
+        final double[][] data = simulateData(rank);
+        final SingularValueDecomposition exactSVD = new SingularValueDecomposition(new Array2DRowRealMatrix(data, false));
+        try (final MemoryMappedMatrix matrix = toMemoryMappedMatrix(data)) {
+            final RandomizedSVD svd = RandomizedSVD.compute(matrix, numComponents, numOversamples, numPowerIterations, EPSILON, RANDOM_SEED);
+            Assert.assertEquals(svd.singularValues.length, numComponents);
+            Assert.assertEquals(svd.transposedRightSingularVectors.length, numComponents);
+            Assert.assertEquals(svd.transposedRightSingularVectors[0].length, NUM_INTERVALS);
+
+            //leading singular values and vectors (up to sign) of the low-rank signal are recovered
+            final RealMatrix exactTransposedRightSingularVectors = exactSVD.getVT();
+            for (int k = 0; k < Math.min(rank, numComponents); k++) {
+                Assert.assertEquals(svd.singularValues[k], exactSVD.getSingularValues()[k], 1E-6 * exactSVD.getSingularValues()[0]);
+                double overlap = 0.;
+                for (int j = 0; j < NUM_INTERVALS; j++) {
+                    overlap += svd.transposedRightSingularVectors[k][j] * exactTransposedRightSingularVectors.getEntry(k, j);
+                }
+                Assert.assertEquals(Math.abs(overlap), 1., 1E-4);
+            }
+            for (int k = 1; k < numComponents; k++) {
+                Assert.assertTrue(svd.singularValues[k] <= svd.singularValues[k - 1]);
+            }
+
+            //results are deterministic given the seed
+            final RandomizedSVD repeatedSVD = RandomizedSVD.compute(matrix, numComponents, numOversamples, numPowerIterations, EPSILON, RANDOM_SEED);
+            Assert.assertEquals(repeatedSVD.singularValues, svd.singularValues);
+        }
+    }
+
+    @Test
+    public void testRankDeficientMatrix() {
+        //all samples are identical, so only a single non-zero singular value should be returned
+        final double[][] data = new double[NUM_SAMPLES][];
+        final double[] row = new Random(RANDOM_SEED).doubles(NUM_INTERVALS).toArray();
+        for (int i = 0; i < NUM_SAMPLES; i++) {
+            data[i] = row.clone();
+        }
+        try (final MemoryMappedMatrix matrix = toMemoryMappedMatrix(data)) {
+            final RandomizedSVD svd = RandomizedSVD.compute(matrix, 5, 10, 2, EPSILON, RANDOM_SEED);
+            Assert.assertEquals(svd.singularValues.length, 1);
+            Assert.assertEquals(svd.transposedRightSingularVectors.length, 1);
+        }
+    }
+
+    @Test
+    public void testMemoryMappedMatrixColumnBlocks() {
+        final double[][] data = simulateData(2);
+        try (final MemoryMappedMatrix matrix = toMemoryMappedMatrix(data)) {
+            Assert.assertEquals(matrix.getRow(NUM_SAMPLES - 1), data[NUM_SAMPLES - 1]);
+            final double[][] block = matrix.getColumnBlock(NUM_INTERVALS - 10, 10);
+            for (int i = 0; i < NUM_SAMPLES; i++) {
+                for (int j = 0; j < 10; j++) {
+                    Assert.assertEquals(block[i][j], data[i][NUM_INTERVALS - 10 + j]);
+                }
+            }
+            final int[] numColumnsVisited = {0};
+            matrix.forEachColumnBlock((columnBlock, startColumnIndex) -> {
+                Assert.assertEquals(startColumnIndex, numColumnsVisited[0]);
+                numColumnsVisited[0] += columnBlock[0].length;
+            });
+            Assert.assertEquals(numColumnsVisited[0], NUM_INTERVALS);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.broadinstitute.hellbender.tools.copynumber.denoising;
+
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.stat.descriptive.rank.Percentile;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public final class SVDDenoisingUtilsUnitTest extends GATKBaseTest {
+    private static final int RANDOM_SEED = 11;
+    private static final int NUM_SAMPLES = 40;
+    private static final int NUM_INTERVALS = 500;
+
+    private static double[][] simulateReadCounts() {
+        final Random random = new Random(RANDOM_SEED);
+        final double[][] readCounts = new double[NUM_SAMPLES][NUM_INTERVALS];
+        final double[] intervalDepths = random.doubles(NUM_INTERVALS, 0., 200.).toArray();
+        for (int i = 0; i < NUM_SAMPLES; i++) {
+            final double sampleDepth = 0.5 + random.nextDouble();
+            for (int j = 0; j < NUM_INTERVALS; j++) {
+                //add some zeros, concentrated in the first samples and intervals, to exercise the filters
+                final boolean isZero = random.nextDouble() < (i < 3 || j < 10 ? 0.3 : 0.01);
+                readCounts[i][j] = isZero ? 0. : Math.round(sampleDepth * intervalDepths[j] * (1. + 0.2 * random.nextGaussian()));
+            }
+        }
+        return readCounts;
+    }
+
+    private static MemoryMappedMatrix toMemoryMappedMatrix(final double[][] data) {
+        final MemoryMappedMatrix matrix = new MemoryMappedMatrix(data.length, data[0].length);
+        for (int i = 0; i < data.length; i++) {
+            matrix.setRow(i, data[i]);
+        }
+        return matrix;
+    }
+
+    @DataProvider(name = "dataPreprocessing")
+    public Object[][] dataPreprocessing() {
+        final double[] intervalGCContent = new Random(RANDOM_SEED).doubles(NUM_INTERVALS, 0.3, 0.7).toArray();
+        //GC content, minimum interval median percentile, maximum zeros in sample percentage, maximum zeros in interval percentage,
+        //extreme sample median percentile, do impute zeros, extreme outlier truncation percentile
+        return new Object[][]{
+                {null, 10., 5., 5., 2.5, true, 0.1},
+                {intervalGCContent, 10., 5., 5., 2.5, true, 0.1},
+                {null, 0., 100., 100., 0., false, 0.},
+                {intervalGCContent, 25., 10., 20., 10., false, 5.}
+        };
+    }
+
+    @Test(dataProvider = "dataPreprocessing")
+    public void testOutOfCorePreprocessingMatchesInMemory(final double[] intervalGCContent,
+                                                          final double minimumIntervalMedianPercentile,
+                                                          final double maximumZerosInSamplePercentage,
+                                                          final double maximumZerosInIntervalPercentage,
+                                                          final double extremeSampleMedianPercentile,
+                                                          final boolean doImputeZeros,
+                                                          final double extremeOutlierTruncationPercentile) {
+        final double[][] readCounts = simulateReadCounts();
+        final SVDDenoisingUtils.PreprocessedStandardizedResult expected = SVDDenoisingUtils.preprocessAndStandardizePanel(
+                new Array2DRowRealMatrix(readCounts), intervalGCContent,
+                minimumIntervalMedianPercentile, maximumZerosInSamplePercentage, maximumZerosInIntervalPercentage,
+                extremeSampleMedianPercentile, doImputeZeros, extremeOutlierTruncationPercentile);
+        try (final MemoryMappedMatrix readCountMatrix = toMemoryMappedMatrix(readCounts)) {
+            final SVDDenoisingUtils.OutOfCorePreprocessedStandardizedResult result = SVDDenoisingUtils.preprocessAndStandardizePanel(
+                    readCountMatrix, intervalGCContent,
+                    minimumIntervalMedianPercentile, maximumZerosInSamplePercentage, maximumZerosInIntervalPercentage,
+                    extremeSampleMedianPercentile, doImputeZeros, extremeOutlierTruncationPercentile);
+            try (final MemoryMappedMatrix values = result.preprocessedStandardizedValues) {
+                Assert.assertEquals(result.filterSamples, expected.filterSamples);
+                Assert.assertEquals(result.filterIntervals, expected.filterIntervals);
+                Assert.assertEquals(result.panelIntervalFractionalMedians, expected.panelIntervalFractionalMedians);
+                Assert.assertEquals(values.getRowDimension(), expected.preprocessedStandardizedValues.getRowDimension());
+                Assert.assertEquals(values.getColumnDimension(), expected.preprocessedStandardizedValues.getColumnDimension());
+                for (int i = 0; i < values.getRowDimension(); i++) {
+                    Assert.assertEquals(values.getRow(i), expected.preprocessedStandardizedValues.getRow(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCalculatePercentiles() {
+        final Random random = new Random(RANDOM_SEED);
+        final double[][] data = new double[7][13];
+        for (final double[] row : data) {
+            for (int j = 0; j < row.length; j++) {
+                //include negative values, ties, and NaNs
+                final double u = random.nextDouble();
+                row[j] = u < 0.05 ? Double.NaN : u < 0.2 ? 1. : u < 0.3 ? 0. : 10. * random.nextGaussian();
+            }
+        }
+        final double[] values = Arrays.stream(data).flatMapToDouble(Arrays::stream).toArray();
+        final double[] percentiles = {0., 0.1, 1., 5., 25., 50., 50.5, 95., 99.9, 100.};
+        try (final MemoryMappedMatrix matrix = toMemoryMappedMatrix(data)) {
+            final double[] result = SVDDenoisingUtils.calculatePercentiles(matrix, percentiles);
+            for (int i = 0; i < percentiles.length; i++) {
+                Assert.assertEquals(result[i], new Percentile(percentiles[i] == 0. ? Double.MIN_VALUE : percentiles[i]).evaluate(values));
+            }
+        }
+    }
+}
@@ -32,19 +32,51 @@ public final class AlleleFractionModellerUnitTest extends GATKBaseTest {
     // more hets -- most of the error is the sampling error of a finite simulated data set, not numerical error of MCMC
     private static final double ABSOLUTE_TOLERANCE = 0.01;
 
+    private static final int NUM_SAMPLES = 150;
+    private static final int NUM_BURN_IN = 50;
+    private static final AlleleFractionPrior PRIOR = new AlleleFractionPrior(1.);
+
     @Test
     public void testMCMC() {
+        final AlleleFractionSimulatedData simulatedData = simulateData();
+
+        final AlleleFractionModeller modeller = new AlleleFractionModeller(simulatedData.getData().getAllelicCounts(), simulatedData.getData().getSegments(), PRIOR);
+        modeller.fitMCMC(NUM_SAMPLES, NUM_BURN_IN);
+
+        assertAlleleFractionPosteriorCenters(modeller, simulatedData);
+    }
+
+    @Test
+    public void testMCMCWithMultipleChainsAndThreads() {
+        final AlleleFractionSimulatedData simulatedData = simulateData();
+        final int numChains = 3;
+
+        final AlleleFractionModeller modellerTwoThreads = new AlleleFractionModeller(
+                simulatedData.getData().getAllelicCounts(), simulatedData.getData().getSegments(), PRIOR, numChains, 2);
+        modellerTwoThreads.fitMCMC(NUM_SAMPLES, NUM_BURN_IN);
+        final AlleleFractionModeller modellerFourThreads = new AlleleFractionModeller(
+                simulatedData.getData().getAllelicCounts(), simulatedData.getData().getSegments(), PRIOR, numChains, 4);
+        modellerFourThreads.fitMCMC(NUM_SAMPLES, NUM_BURN_IN);
+
+        //samples are pooled across chains
+        Assert.assertEquals(modellerTwoThreads.getMeanBiasSamples().size(), numChains * (NUM_SAMPLES - NUM_BURN_IN));
+        assertAlleleFractionPosteriorCenters(modellerTwoThreads, simulatedData);
+
+        //results do not depend on the number of threads
+        Assert.assertEquals(modellerFourThreads.getMeanBiasSamples(), modellerTwoThreads.getMeanBiasSamples());
+        Assert.assertEquals(modellerFourThreads.getBiasVarianceSamples(), modellerTwoThreads.getBiasVarianceSamples());
+        Assert.assertEquals(modellerFourThreads.getOutlierProbabilitySamples(), modellerTwoThreads.getOutlierProbabilitySamples());
+        Assert.assertEquals(modellerFourThreads.getMinorFractionsSamples(), modellerTwoThreads.getMinorFractionsSamples());
+    }
+
+    private static AlleleFractionSimulatedData simulateData() {
         final double meanBias = 1.2;
         final double biasVariance = 0.04;
         final double outlierProbability = 0.02;
         final AlleleFractionGlobalParameters globalParameters = new AlleleFractionGlobalParameters(meanBias, biasVariance, outlierProbability);
-        final double minorAlleleFractionPriorAlpha = 1.;
-        final AlleleFractionPrior prior = new AlleleFractionPrior(minorAlleleFractionPriorAlpha);
         final int numSegments = 50;
         final double averageHetsPerSegment = 50.;
         final double averageDepth = 50.;
-        final int numSamples = 150;
-        final int numBurnIn = 50;
         final RandomGenerator rng = RandomGeneratorFactory.createRandomGenerator(new Random(RANDOM_SEED));
 
         final SampleLocatableMetadata metadata = new SimpleSampleLocatableMetadata(
@@ -52,13 +84,8 @@ public final class AlleleFractionModellerUnitTest extends GATKBaseTest {
                 new SAMSequenceDictionary(IntStream.range(0, numSegments)
                         .mapToObj(i -> new SAMSequenceRecord("chr" + i + 1, 10000))
                         .collect(Collectors.toList())));
-        final AlleleFractionSimulatedData simulatedData = new AlleleFractionSimulatedData(
+        return new AlleleFractionSimulatedData(
                 metadata, globalParameters, numSegments, averageHetsPerSegment, averageDepth, rng);
-
-        final AlleleFractionModeller modeller = new AlleleFractionModeller(simulatedData.getData().getAllelicCounts(), simulatedData.getData().getSegments(), prior);
-        modeller.fitMCMC(numSamples, numBurnIn);
-
-        assertAlleleFractionPosteriorCenters(modeller, simulatedData);
     }
 
     static void assertAlleleFractionPosteriorCenters(final AlleleFractionModeller modeller,
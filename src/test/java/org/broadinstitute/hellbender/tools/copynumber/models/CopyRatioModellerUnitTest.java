@@ -32,14 +32,46 @@ public final class CopyRatioModellerUnitTest extends GATKBaseTest {
     // more intervals -- most of the error is the sampling error of a finite simulated data set, not numerical error of MCMC
     private static final double ABSOLUTE_TOLERANCE = 0.015;
 
+    private static final int NUM_SAMPLES = 150;
+    private static final int NUM_BURN_IN = 50;
+
     @Test
     public void testMCMC() {
+        final CopyRatioSimulatedData simulatedData = simulateData();
+
+        final CopyRatioModeller modeller = new CopyRatioModeller(simulatedData.getData().getCopyRatios(), simulatedData.getData().getSegments());
+        modeller.fitMCMC(NUM_SAMPLES, NUM_BURN_IN);
+
+        assertCopyRatioPosteriorCenters(modeller, simulatedData);
+    }
+
+    @Test
+    public void testMCMCWithMultipleChainsAndThreads() {
+        final CopyRatioSimulatedData simulatedData = simulateData();
+        final int numChains = 3;
+
+        final CopyRatioModeller modellerTwoThreads = new CopyRatioModeller(
+                simulatedData.getData().getCopyRatios(), simulatedData.getData().getSegments(), numChains, 2);
+        modellerTwoThreads.fitMCMC(NUM_SAMPLES, NUM_BURN_IN);
+        final CopyRatioModeller modellerFourThreads = new CopyRatioModeller(
+                simulatedData.getData().getCopyRatios(), simulatedData.getData().getSegments(), numChains, 4);
+        modellerFourThreads.fitMCMC(NUM_SAMPLES, NUM_BURN_IN);
+
+        //samples are pooled across chains
+        Assert.assertEquals(modellerTwoThreads.getVarianceSamples().size(), numChains * (NUM_SAMPLES - NUM_BURN_IN));
+        assertCopyRatioPosteriorCenters(modellerTwoThreads, simulatedData);
+
+        //results do not depend on the number of threads
+        Assert.assertEquals(modellerFourThreads.getVarianceSamples(), modellerTwoThreads.getVarianceSamples());
+        Assert.assertEquals(modellerFourThreads.getOutlierProbabilitySamples(), modellerTwoThreads.getOutlierProbabilitySamples());
+        Assert.assertEquals(modellerFourThreads.getSegmentMeansSamples(), modellerTwoThreads.getSegmentMeansSamples());
+    }
+
+    private static CopyRatioSimulatedData simulateData() {
         final double variance = 0.01;
         final double outlierProbability = 0.05;
         final int numSegments = 100;
         final double averageIntervalsPerSegment = 100.;
-        final int numSamples = 150;
-        final int numBurnIn = 50;
         final RandomGenerator rng = RandomGeneratorFactory.createRandomGenerator(new Random(RANDOM_SEED));
 
         final SampleLocatableMetadata metadata = new SimpleSampleLocatableMetadata(
@@ -47,13 +79,8 @@ public final class CopyRatioModellerUnitTest extends GATKBaseTest {
                 new SAMSequenceDictionary(IntStream.range(0, numSegments)
                         .mapToObj(i -> new SAMSequenceRecord("chr" + i + 1, 10000))
                         .collect(Collectors.toList())));
-        final CopyRatioSimulatedData simulatedData = new CopyRatioSimulatedData(
+        return new CopyRatioSimulatedData(
                 metadata, variance, outlierProbability, numSegments, averageIntervalsPerSegment, rng);
-
-        final CopyRatioModeller modeller = new CopyRatioModeller(simulatedData.getData().getCopyRatios(), simulatedData.getData().getSegments());
-        modeller.fitMCMC(numSamples, numBurnIn);
-
-        assertCopyRatioPosteriorCenters(modeller, simulatedData);
     }
 
     static void assertCopyRatioPosteriorCenters(final CopyRatioModeller modeller,
@@ -143,6 +143,24 @@ public final class KernelSegmenterUnitTest extends GATKBaseTest {
         Assert.assertEquals(changepoints.subList(0, changepointsExpected.size()), changepointsExpected);
     }
 
+    @Test(dataProvider = "dataKernelSegmenter")
+    public void testKernelSegmenterMultipleThreads(final List<Double> data,
+                                                   final BiFunction<Double, Double, Double> kernel,
+                                                   final List<Integer> changepointsExpected) {
+        final int maxNumChangepoints = 25;
+        final int kernelApproximationDimension = 20;
+        final List<Integer> windowSizes = Arrays.asList(8, 16, 32, 64);
+        final double numChangepointsPenaltyLinearFactor = 2.;
+        final double numChangepointsPenaltyLogLinearFactor = 2.;
+        final int numThreads = 4;
+
+        final List<Integer> changepoints = new KernelSegmenter<>(data, numThreads)
+                .findChangepoints(maxNumChangepoints, kernel, kernelApproximationDimension, windowSizes,
+                        numChangepointsPenaltyLinearFactor, numChangepointsPenaltyLogLinearFactor, ChangepointSortOrder.BACKWARD_SELECTION);
+
+        Assert.assertEquals(changepoints, changepointsExpected);
+    }
+
     @Test(expectedExceptions = IllegalArgumentException.class)
     public void testKernelSegmenterEmptyWindowSizes() {
         final int maxNumChangepoints = 25;
@@ -157,4 +175,9 @@ public final class KernelSegmenterUnitTest extends GATKBaseTest {
                 .findChangepoints(maxNumChangepoints, kernel, kernelApproximationDimension, windowSizes,
                         numChangepointsPenaltyLinearFactor, numChangepointsPenaltyLogLinearFactor, ChangepointSortOrder.BACKWARD_SELECTION);
     }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testKernelSegmenterNonpositiveNumberOfThreads() {
+        new KernelSegmenter<>(Arrays.asList(1., 2., 3.), 0);
+    }
 }
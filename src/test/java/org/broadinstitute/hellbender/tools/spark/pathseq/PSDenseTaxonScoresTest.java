@@ -0,0 +1,123 @@
+package org.broadinstitute.hellbender.tools.spark.pathseq;
+
+import org.apache.spark.api.java.JavaSparkContext;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.engine.spark.SparkContextFactory;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import scala.Tuple2;
+
+import java.util.*;
+
+public class PSDenseTaxonScoresTest extends GATKBaseTest {
+
+    private static PSTree createTree() {
+        final PSTree tree = new PSTree(1);
+        tree.addNode(2, "n2", 1, 0, PSTaxonomyConstants.KINGDOM_RANK_NAME);
+        tree.addNode(3, "n3", 2, 100, "species");
+        tree.addNode(4, "n4", 1, 0, PSTaxonomyConstants.SUPERKINGDOM_RANK_NAME);
+        tree.addNode(5, "n5", 2, 100, "species");
+        tree.addNode(6, "n6", 4, 100, "species");
+        tree.addNode(7, "n7", 4, 100, "species");
+        tree.addNode(8, "n8", 7, 250, "strain");
+        return tree;
+    }
+
+    private static List<PSPathogenAlignmentHit> createHits() {
+        return Arrays.asList(
+                new PSPathogenAlignmentHit(Arrays.asList(4), 2), //Invalid hit, ref length 0
+                new PSPathogenAlignmentHit(Arrays.asList(3), 2),
+                new PSPathogenAlignmentHit(Arrays.asList(3, 6), 2),
+                new PSPathogenAlignmentHit(Arrays.asList(3, 3, 5), 2),
+                new PSPathogenAlignmentHit(Arrays.asList(5), 2),
+                new PSPathogenAlignmentHit(Arrays.asList(6), 1),
+                new PSPathogenAlignmentHit(Arrays.asList(6, 8), 1),
+                new PSPathogenAlignmentHit(Arrays.asList(8, 9), 2), //9 is not in the tree
+                new PSPathogenAlignmentHit(Collections.emptyList(), 1));
+    }
+
+    private static Map<Integer, PSPathogenTaxonScore> computeExpected(final List<PSPathogenAlignmentHit> hits, final PSTree tree,
+                                                                     final boolean divideByGenomeLength) {
+        final Map<Integer, PSPathogenTaxonScore> expected = new HashMap<>();
+        final Iterator<Tuple2<Integer, PSPathogenTaxonScore>> iter = PSScorer.computeTaxScores(hits.iterator(),
+                new PSTaxonomyDatabase(tree, null), divideByGenomeLength);
+        iter.forEachRemaining(pair -> expected.put(pair._1, pair._2));
+        return expected;
+    }
+
+    private static void assertScoresEqual(final Map<Integer, PSPathogenTaxonScore> actual, final Map<Integer, PSPathogenTaxonScore> expected) {
+        Assert.assertEquals(actual.keySet(), expected.keySet());
+        for (final Map.Entry<Integer, PSPathogenTaxonScore> entry : expected.entrySet()) {
+            final PSPathogenTaxonScore actualScore = actual.get(entry.getKey());
+            final PSPathogenTaxonScore expectedScore = entry.getValue();
+            Assert.assertEquals(actualScore.getSelfScore(), expectedScore.getSelfScore(), 1e-9);
+            Assert.assertEquals(actualScore.getDescendentScore(), expectedScore.getDescendentScore(), 1e-9);
+            Assert.assertEquals(actualScore.getScoreNormalized(), expectedScore.getScoreNormalized(), 1e-9);
+            Assert.assertEquals(actualScore.getTotalReads(), expectedScore.getTotalReads());
+            Assert.assertEquals(actualScore.getUnambiguousReads(), expectedScore.getUnambiguousReads());
+            Assert.assertEquals(actualScore.getReferenceLength(), expectedScore.getReferenceLength());
+            Assert.assertEquals(actualScore.getKingdomTaxonId(), expectedScore.getKingdomTaxonId());
+        }
+    }
+
+    @Test
+    public void testTaxonIndex() {
+        final PSTree tree = createTree();
+        final PSTaxonIndex index = new PSTaxonIndex(tree);
+        Assert.assertEquals(index.size(), 8);
+        Assert.assertEquals(index.indexOf(9), PSTaxonIndex.NO_PARENT);
+        for (final int taxId : tree.getNodeIDs()) {
+            final int i = index.indexOf(taxId);
+            Assert.assertEquals(index.getTaxId(i), taxId);
+            Assert.assertEquals(index.getDepth(i), tree.getPathOf(taxId).size() - 1);
+            Assert.assertEquals(index.getReferenceLength(i), tree.getLengthOf(taxId));
+            final int parent = index.getParent(i);
+            Assert.assertEquals(parent == PSTaxonIndex.NO_PARENT ? PSTree.NULL_NODE : index.getTaxId(parent), tree.getParentOf(taxId));
+            for (final int otherTaxId : tree.getNodeIDs()) {
+                Assert.assertEquals(index.getTaxId(index.getLCA(i, index.indexOf(otherTaxId))), tree.getLCA(Arrays.asList(taxId, otherTaxId)));
+            }
+        }
+    }
+
+    @DataProvider(name = "divideByGenomeLength")
+    public Object[][] divideByGenomeLength() {
+        return new Object[][]{{true}, {false}};
+    }
+
+    @Test(dataProvider = "divideByGenomeLength")
+    public void testMatchesComputeTaxScores(final boolean divideByGenomeLength) {
+        final PSTree tree = createTree();
+        final PSTaxonIndex index = new PSTaxonIndex(tree);
+        final List<PSPathogenAlignmentHit> hits = createHits();
+
+        final PSDenseTaxonScores scores = new PSDenseTaxonScores(index.size());
+        hits.forEach(hit -> scores.addHit(hit, index, divideByGenomeLength));
+        assertScoresEqual(scores.toScoreMap(index), computeExpected(hits, tree, divideByGenomeLength));
+        Assert.assertEquals(scores.getInvalidTaxIds(), new HashSet<>(Arrays.asList(4, 9)));
+
+        //Merging the scores of two halves gives the same result
+        final PSDenseTaxonScores first = new PSDenseTaxonScores(index.size());
+        final PSDenseTaxonScores second = new PSDenseTaxonScores(index.size());
+        hits.subList(0, 4).forEach(hit -> first.addHit(hit, index, divideByGenomeLength));
+        hits.subList(4, hits.size()).forEach(hit -> second.addHit(hit, index, divideByGenomeLength));
+        assertScoresEqual(first.merge(second).toScoreMap(index), computeExpected(hits, tree, divideByGenomeLength));
+        Assert.assertEquals(first.getInvalidTaxIds(), new HashSet<>(Arrays.asList(4, 9)));
+    }
+
+    @Test
+    public void testComputeDenseTaxScoresSpark() {
+        final JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
+        final PSTree tree = createTree();
+        final List<PSPathogenAlignmentHit> hits = createHits();
+        final Map<Integer, PSPathogenTaxonScore> scores = PSScorer.computeDenseTaxScores(ctx, ctx.parallelize(hits, 3),
+                new PSTaxonomyDatabase(tree, null), true);
+        assertScoresEqual(PSScorer.computeNormalizedScores(scores, tree, false),
+                PSScorer.computeNormalizedScores(computeExpected(hits, tree, true), tree, false));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMergeDifferentSizes() {
+        new PSDenseTaxonScores(3).merge(new PSDenseTaxonScores(4));
+    }
+}
@@ -0,0 +1,88 @@
+package org.broadinstitute.hellbender.tools.spark.pathseq;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerShort;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerizer;
+import org.broadinstitute.hellbender.tools.spark.utils.LongBlockedBloomFilter;
+import org.broadinstitute.hellbender.tools.spark.utils.LongBloomFilter;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+public class PSKmerBlockedBloomFilterTest extends GATKBaseTest {
+
+    private static final double FALSE_POSITIVE_PROB = 0.001;
+    private static final int KMER_SIZE = 31;
+    private static final SVKmerShort MASK = SVKmerShort.getMask(new byte[]{15}, KMER_SIZE);
+
+    private static String randomBases(final Random rand, final int length) {
+        final char[] bases = new char[length];
+        for (int i = 0; i < length; i++) {
+            bases[i] = "ACGT".charAt(rand.nextInt(4));
+        }
+        return new String(bases);
+    }
+
+    private static long[] maskedKmers(final String bases) {
+        return SVKmerizer.stream(bases.getBytes(StandardCharsets.US_ASCII), KMER_SIZE, 1, new SVKmerShort(KMER_SIZE))
+                .mapToLong(kmer -> PSKmerCollection.canonicalizeAndMask((SVKmerShort) kmer, KMER_SIZE, MASK))
+                .toArray();
+    }
+
+    @Test
+    public void testCountKmersContainedMatchesBloomFilter() {
+        final Random rand = new Random(7383L);
+        final String host = randomBases(rand, 10000);
+        final long[] hostKmers = maskedKmers(host);
+
+        final LongBlockedBloomFilter blockedFilter = new LongBlockedBloomFilter(hostKmers.length, FALSE_POSITIVE_PROB);
+        blockedFilter.addAll(hostKmers);
+        final PSKmerBlockedBloomFilter blockedKmers = new PSKmerBlockedBloomFilter(blockedFilter, KMER_SIZE, MASK, hostKmers.length);
+        final LongBloomFilter filter = new LongBloomFilter(hostKmers.length, FALSE_POSITIVE_PROB);
+        filter.addAll(hostKmers);
+        final PSKmerBloomFilter kmers = new PSKmerBloomFilter(filter, KMER_SIZE, MASK, hostKmers.length);
+
+        Assert.assertEquals(blockedKmers.kmerSize(), KMER_SIZE);
+        Assert.assertEquals(blockedKmers.getMask(), MASK);
+        Assert.assertTrue(blockedKmers.getFalsePositiveProbability() <= FALSE_POSITIVE_PROB);
+
+        final byte[] hostRead = host.substring(100, 251).getBytes(StandardCharsets.US_ASCII);
+        Assert.assertEquals(blockedKmers.countKmersContained(hostRead, Integer.MAX_VALUE), 151 - KMER_SIZE + 1);
+        Assert.assertEquals(blockedKmers.countKmersContained(hostRead, 3), 3);
+        Assert.assertEquals(kmers.countKmersContained(hostRead, 3), 3);
+
+        // mixed read: all the kmers of the host half are found, and few (if any) false positives from the random half
+        final byte[] mixedRead = (host.substring(5000, 5075) + randomBases(rand, 76)).getBytes(StandardCharsets.US_ASCII);
+        final int numFound = blockedKmers.countKmersContained(mixedRead, Integer.MAX_VALUE);
+        Assert.assertTrue(numFound >= 75 - KMER_SIZE + 1 && numFound < 75 - KMER_SIZE + 6, "found " + numFound);
+
+        final byte[] shortRead = host.substring(0, KMER_SIZE - 1).getBytes(StandardCharsets.US_ASCII);
+        Assert.assertEquals(blockedKmers.countKmersContained(shortRead, 1), 0);
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        final Random rand = new Random(1234L);
+        final long[] hostKmers = maskedKmers(randomBases(rand, 5000));
+        final LongBlockedBloomFilter blockedFilter = new LongBlockedBloomFilter(hostKmers.length, FALSE_POSITIVE_PROB);
+        blockedFilter.addAll(hostKmers);
+        final PSKmerBlockedBloomFilter kmerFilter = new PSKmerBlockedBloomFilter(blockedFilter, KMER_SIZE, MASK, hostKmers.length);
+
+        final File file = createTempFile("kmers", PSKmerUtils.BLOCKED_BLOOM_FILTER_EXTENSION);
+        PSKmerUtils.writeKmerBlockedBloomFilter(file.getAbsolutePath(), kmerFilter);
+
+        final PSKmerCollection readFilter = PSKmerUtils.readKmerFilter(file.getAbsolutePath());
+        Assert.assertTrue(readFilter instanceof PSKmerBlockedBloomFilter);
+        Assert.assertEquals(readFilter, kmerFilter);
+        Assert.assertEquals(readFilter.getFalsePositiveProbability(), kmerFilter.getFalsePositiveProbability());
+
+        final GATKRead hostRead = ArtificialReadUtils.createArtificialRead("31M");
+        Assert.assertEquals(readFilter.countKmersContained(hostRead.getBases(), 1), kmerFilter.countKmersContained(hostRead.getBases(), 1));
+    }
+}
@@ -0,0 +1,155 @@
+package org.broadinstitute.hellbender.tools.spark.transforms.markduplicates;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMReadGroupRecord;
+import org.apache.spark.SparkConf;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.cmdline.argumentcollections.MarkDuplicatesSparkArgumentCollection;
+import org.broadinstitute.hellbender.engine.spark.GATKRegistrator;
+import org.broadinstitute.hellbender.testutils.SparkTestUtils;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.markduplicates.MarkDuplicatesScoringStrategy;
+import org.broadinstitute.hellbender.utils.read.markduplicates.sparkrecords.MarkDuplicatesSparkRecord;
+import org.broadinstitute.hellbender.utils.read.markduplicates.sparkrecords.Pair;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import picard.sam.markduplicates.util.OpticalDuplicateFinder;
+import picard.sam.util.PhysicalLocation;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class DuplicateGroupUnitTest extends GATKBaseTest {
+
+    private static final Map<String, Byte> LIBRARY_INDEX = Collections.singletonMap("library", (byte) 0);
+    private final OpticalDuplicateFinder finder = new OpticalDuplicateFinder();
+    private final MarkDuplicatesSparkArgumentCollection mdArgs = new MarkDuplicatesSparkArgumentCollection();
+
+    private SAMFileHeader header() {
+        final SAMFileHeader header = hg19Header.clone();
+        final SAMReadGroupRecord readGroup = new SAMReadGroupRecord("1");
+        readGroup.setLibrary("library");
+        header.setReadGroups(Collections.singletonList(readGroup));
+        return header;
+    }
+
+    private static GATKRead read(final String name, final int start, final byte quality, final boolean first) {
+        final GATKRead read = ArtificialReadUtils.createSamBackedRead("100M", start, 100);
+        read.setName(name);
+        read.setReadGroup("1");
+        read.setIsPaired(true);
+        read.setBaseQualities(fill(quality));
+        if (first) {
+            read.setIsFirstOfPair();
+        } else {
+            read.setIsSecondOfPair();
+            read.setIsReverseStrand(true);
+        }
+        return read;
+    }
+
+    private static byte[] fill(final byte quality) {
+        final byte[] quals = new byte[100];
+        Arrays.fill(quals, quality);
+        return quals;
+    }
+
+    private Pair pair(final String name, final byte quality, final int partitionIndex) {
+        final SAMFileHeader header = header();
+        final Pair pair = MarkDuplicatesSparkRecord.newPair(read(name, 100000, quality, true), read(name, 101000, quality, false),
+                header, partitionIndex, MarkDuplicatesScoringStrategy.SUM_OF_BASE_QUALITIES, LIBRARY_INDEX);
+        pair.setReadGroup((short) 0);
+        return pair;
+    }
+
+    @Test
+    public void testBestPairAndLocations() {
+        final DuplicateGroup group = new DuplicateGroup(false, true)
+                .add(pair("RUN:1:1101:1000:2000", (byte) 20, 0), finder)
+                .add(pair("RUN:1:1101:1010:2010", (byte) 30, 1), finder)
+                .add(pair("RUN:1:1102:5000:6000", (byte) 25, 2), finder);
+
+        Assert.assertEquals(group.getPairCount(), 3);
+        Assert.assertEquals(group.getBestPair().getName(), "RUN:1:1101:1010:2010");
+        Assert.assertEquals(group.getBestPairIndex(), 1);
+        Assert.assertEquals(group.getPairName(2), "RUN:1:1102:5000:6000");
+        Assert.assertEquals(group.getPairPartitionIndex(2), 2);
+
+        final List<PhysicalLocation> locations = group.getPairLocations();
+        Assert.assertEquals(locations.get(0).getTile(), (short) 1101);
+        Assert.assertEquals(locations.get(0).getX(), 1000);
+        Assert.assertEquals(locations.get(0).getY(), 2000);
+        Assert.assertEquals(locations.get(2).getTile(), (short) 1102);
+        Assert.assertTrue(group.getFragments().isEmpty());
+        Assert.assertTrue(group.getPassthroughs().isEmpty());
+    }
+
+    @Test
+    public void testMergeAfterKryoRoundTrip() {
+        final DuplicateGroup first = new DuplicateGroup(false, true)
+                .add(pair("RUN:1:1101:1000:2000", (byte) 20, 0), finder);
+        final DuplicateGroup second = new DuplicateGroup(false, true)
+                .add(pair("RUN:1:1101:1010:2010", (byte) 30, 1), finder)
+                .add(pair("RUN:1:1102:5000:6000", (byte) 25, 2), finder);
+
+        final SparkConf conf = new SparkConf().set("spark.kryo.registrator", GATKRegistrator.class.getName());
+        final DuplicateGroup merged = SparkTestUtils.roundTripInKryo(first, DuplicateGroup.class, conf)
+                .merge(SparkTestUtils.roundTripInKryo(second, DuplicateGroup.class, conf), finder);
+
+        Assert.assertEquals(merged.getPairCount(), 3);
+        Assert.assertEquals(merged.getBestPair().getName(), "RUN:1:1101:1010:2010");
+        Assert.assertEquals(merged.getBestPairIndex(), 1);
+        Assert.assertEquals(merged.getPairName(0), "RUN:1:1101:1000:2000");
+        Assert.assertEquals(merged.getPairLocations().get(1).getX(), 1010);
+        Assert.assertEquals(merged.getPairPartitionIndex(2), 2);
+    }
+
+    @Test
+    public void testEmptyFragmentDropsFragments() {
+        final SAMFileHeader header = header();
+        final GATKRead unpaired = read("RUN:1:1101:1000:2000", 100000, (byte) 30, true);
+        unpaired.setMateIsUnmapped();
+        final GATKRead mapped = read("RUN:1:1101:2000:2000", 100000, (byte) 30, true);
+
+        final DuplicateGroup withoutPlaceholder = new DuplicateGroup(false, false)
+                .add(MarkDuplicatesSparkRecord.newFragment(unpaired, header, 0, MarkDuplicatesScoringStrategy.SUM_OF_BASE_QUALITIES, LIBRARY_INDEX, mdArgs), finder);
+        Assert.assertEquals(withoutPlaceholder.getFragments().size(), 1);
+        Assert.assertFalse(withoutPlaceholder.hasEmptyFragment());
+
+        final DuplicateGroup withPlaceholder = new DuplicateGroup(false, false)
+                .add(MarkDuplicatesSparkRecord.newEmptyFragment(mapped, header, LIBRARY_INDEX, mdArgs), finder);
+        withoutPlaceholder.merge(withPlaceholder, finder);
+        Assert.assertTrue(withoutPlaceholder.hasEmptyFragment());
+        Assert.assertTrue(withoutPlaceholder.getFragments().isEmpty());
+
+        withoutPlaceholder.add(MarkDuplicatesSparkRecord.newFragment(unpaired, header, 0, MarkDuplicatesScoringStrategy.SUM_OF_BASE_QUALITIES, LIBRARY_INDEX, mdArgs), finder);
+        Assert.assertTrue(withoutPlaceholder.getFragments().isEmpty());
+    }
+
+    @Test
+    public void testBestFragmentAndPassthroughs() {
+        final SAMFileHeader header = header();
+        final GATKRead worse = read("RUN:1:1101:1000:2000", 100000, (byte) 10, true);
+        worse.setMateIsUnmapped();
+        final GATKRead better = read("RUN:1:1101:3000:2000", 100000, (byte) 30, true);
+        better.setMateIsUnmapped();
+
+        final DuplicateGroup group = new DuplicateGroup(false, false)
+                .add(MarkDuplicatesSparkRecord.newFragment(worse, header, 0, MarkDuplicatesScoringStrategy.SUM_OF_BASE_QUALITIES, LIBRARY_INDEX, mdArgs), finder)
+                .add(MarkDuplicatesSparkRecord.newFragment(better, header, 1, MarkDuplicatesScoringStrategy.SUM_OF_BASE_QUALITIES, LIBRARY_INDEX, mdArgs), finder)
+                .add(MarkDuplicatesSparkRecord.getPassthrough(worse, 3), finder);
+
+        Assert.assertEquals(group.getFragments().size(), 1);
+        Assert.assertEquals(group.getFragments().get(0).getName(), "RUN:1:1101:3000:2000");
+        Assert.assertEquals(group.getPassthroughs().size(), 1);
+        Assert.assertEquals(group.getPassthroughs().get(0).getPartitionIndex(), 3);
+
+        final DuplicateGroup allFragments = new DuplicateGroup(true, false)
+                .add(MarkDuplicatesSparkRecord.newFragment(worse, header, 0, MarkDuplicatesScoringStrategy.SUM_OF_BASE_QUALITIES, LIBRARY_INDEX, mdArgs), finder)
+                .add(MarkDuplicatesSparkRecord.newFragment(better, header, 1, MarkDuplicatesScoringStrategy.SUM_OF_BASE_QUALITIES, LIBRARY_INDEX, mdArgs), finder);
+        Assert.assertEquals(allFragments.getFragments().size(), 2);
+    }
+}
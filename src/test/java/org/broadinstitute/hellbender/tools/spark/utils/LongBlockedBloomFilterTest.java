@@ -0,0 +1,124 @@
+package org.broadinstitute.hellbender.tools.spark.utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.Random;
+
+public final class LongBlockedBloomFilterTest {
+
+    private static final long[] testVals = {0, 1, 2, 8, 16, 42, 97, 100, 2894765};
+    private static final int RAND_SEED = 0xdeadf00;
+    private static final int FPR_NVALS = 100000;
+    private static final double FPP = 0.01;
+
+    private static LongBlockedBloomFilter createRandomFilter(final int numVals, final HashSet<Long> values) {
+        final LongBlockedBloomFilter bloomFilter = new LongBlockedBloomFilter(numVals, FPP);
+        final Random rng = new Random(RAND_SEED);
+        for (int i = 0; i < numVals; i++) {
+            final long val = rng.nextLong();
+            values.add(val);
+            bloomFilter.add(val);
+        }
+        return bloomFilter;
+    }
+
+    @Test
+    void addTest() {
+        final LongBlockedBloomFilter bloomFilter = new LongBlockedBloomFilter(testVals.length, FPP);
+        bloomFilter.addAll(testVals);
+        Assert.assertTrue(bloomFilter.containsAll(testVals));
+        Assert.assertFalse(bloomFilter.isMapped());
+    }
+
+    @Test
+    void falsePositiveRateTest() {
+        final HashSet<Long> values = new HashSet<>();
+        final LongBlockedBloomFilter bloomFilter = createRandomFilter(FPR_NVALS, values);
+        for (final long val : values) {
+            Assert.assertTrue(bloomFilter.contains(val));
+        }
+
+        final Random rng = new Random(RAND_SEED + 1);
+        int numFalsePositives = 0;
+        int numTrials = 0;
+        while (numTrials < FPR_NVALS) {
+            final long val = rng.nextLong();
+            if (!values.contains(val)) {
+                numTrials++;
+                if (bloomFilter.contains(val)) {
+                    numFalsePositives++;
+                }
+            }
+        }
+        final double theoreticalFpp = bloomFilter.getTheoreticalFPP(FPR_NVALS);
+        Assert.assertTrue(theoreticalFpp <= FPP, "theoretical FPP " + theoreticalFpp);
+        Assert.assertEquals(numFalsePositives / (double) numTrials, theoreticalFpp, 0.5 * theoreticalFpp);
+    }
+
+    @Test
+    void countContainedTest() {
+        final HashSet<Long> values = new HashSet<>();
+        final LongBlockedBloomFilter bloomFilter = createRandomFilter(1000, values);
+        final long[] keys = new long[values.size() + 10];
+        int numKeys = 0;
+        for (final long val : values) {
+            keys[numKeys++] = val;
+        }
+        Assert.assertEquals(bloomFilter.countContained(keys, numKeys, Integer.MAX_VALUE), numKeys);
+        Assert.assertEquals(bloomFilter.countContained(keys, numKeys, 5), 5);
+        Assert.assertEquals(bloomFilter.countContained(keys, 3, 5), 3);
+        Assert.assertEquals(bloomFilter.countContained(keys, 0, 5), 0);
+    }
+
+    @Test
+    void readWriteTest() throws IOException {
+        final LongBlockedBloomFilter bloomFilter = createRandomFilter(FPR_NVALS, new HashSet<>());
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        bloomFilter.write(bos);
+        final LongBlockedBloomFilter copy = LongBlockedBloomFilter.read(new ByteArrayInputStream(bos.toByteArray()));
+        Assert.assertEquals(copy, bloomFilter);
+        Assert.assertEquals(copy.hashCode(), bloomFilter.hashCode());
+    }
+
+    @Test
+    void mapTest() throws IOException {
+        final HashSet<Long> values = new HashSet<>();
+        final LongBlockedBloomFilter bloomFilter = createRandomFilter(FPR_NVALS, values);
+        final File file = File.createTempFile("blockedBloomFilter", ".bbf");
+        file.deleteOnExit();
+        try (final OutputStream output = new FileOutputStream(file)) {
+            bloomFilter.write(output);
+        }
+        final LongBlockedBloomFilter mapped = LongBlockedBloomFilter.map(file.toPath());
+        Assert.assertTrue(mapped.isMapped());
+        Assert.assertEquals(mapped, bloomFilter);
+        Assert.assertEquals(mapped.hashCode(), bloomFilter.hashCode());
+        for (final long val : values) {
+            Assert.assertTrue(mapped.contains(val));
+        }
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    void mappedIsReadOnlyTest() throws IOException {
+        final LongBlockedBloomFilter bloomFilter = new LongBlockedBloomFilter(testVals.length, FPP);
+        final File file = File.createTempFile("blockedBloomFilter", ".bbf");
+        file.deleteOnExit();
+        try (final OutputStream output = new FileOutputStream(file)) {
+            bloomFilter.write(output);
+        }
+        LongBlockedBloomFilter.map(file.toPath()).add(1L);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    void readBadMagicTest() throws IOException {
+        LongBlockedBloomFilter.read(new ByteArrayInputStream(new byte[64]));
+    }
+}
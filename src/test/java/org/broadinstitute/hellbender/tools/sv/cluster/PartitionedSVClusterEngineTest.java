@@ -0,0 +1,120 @@
+package org.broadinstitute.hellbender.tools.sv.cluster;
+
+import htsjdk.samtools.reference.ReferenceSequenceFile;
+import htsjdk.samtools.util.CloserUtil;
+import htsjdk.variant.variantcontext.StructuralVariantType;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.engine.GATKPath;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.GATKSVVCFConstants;
+import org.broadinstitute.hellbender.tools.sv.SVCallRecord;
+import org.broadinstitute.hellbender.tools.sv.SVCallRecordUtils;
+import org.broadinstitute.hellbender.tools.sv.SVTestUtils;
+import org.broadinstitute.hellbender.utils.reference.ReferenceUtils;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+public class PartitionedSVClusterEngineTest {
+
+    private static Supplier<SVClusterEngine<SVCallRecord>> getEngineFactory(final SVClusterEngine.CLUSTERING_TYPE type,
+                                                                            final List<ReferenceSequenceFile> references) {
+        // each engine gets its own reference reader, which is not thread-safe; the readers are collected to be closed
+        return () -> {
+            final ReferenceSequenceFile reference = ReferenceUtils.createReferenceReader(new GATKPath(GATKBaseTest.hg38Reference));
+            references.add(reference);
+            return new SVClusterEngine<>(type,
+                    new CanonicalSVCollapser(reference,
+                            CanonicalSVCollapser.AltAlleleSummaryStrategy.COMMON_SUBTYPE,
+                            CanonicalSVCollapser.BreakpointSummaryStrategy.MEDIAN_START_MEDIAN_END,
+                            CanonicalSVCollapser.InsertionLengthSummaryStrategy.MEDIAN),
+                    SVTestUtils.getNewDefaultLinkage(), SVTestUtils.hg38Dict);
+        };
+    }
+
+    /**
+     * Groups of overlapping deletions separated by gaps of various sizes, on two contigs
+     */
+    private static List<SVCallRecord> createRecords() {
+        final Random random = new Random(42);
+        final List<SVCallRecord> records = new ArrayList<>();
+        for (final String contig : Arrays.asList("chr1", "chr2")) {
+            int groupStart = 10000;
+            for (int group = 0; group < 100; group++) {
+                final int numRecords = 1 + random.nextInt(10);
+                for (int i = 0; i < numRecords; i++) {
+                    final int start = groupStart + random.nextInt(1000);
+                    final int end = start + 500 + random.nextInt(2000);
+                    records.add(new SVCallRecord(contig + "_" + group + "_" + i, contig, start, true, contig, end, false,
+                            StructuralVariantType.DEL, end - start + 1, SVTestUtils.PESR_ONLY_ALGORITHM_LIST,
+                            Collections.emptyList(), Collections.emptyList(), Collections.emptyMap(), SVTestUtils.hg38Dict));
+                }
+                groupStart += random.nextInt(5000);
+            }
+        }
+        records.sort(SVCallRecordUtils.getCallComparator(SVTestUtils.hg38Dict));
+        return records;
+    }
+
+    private static List<String> summarize(final List<SVCallRecord> records) {
+        return records.stream()
+                .map(r -> r.getContigA() + ":" + r.getPositionA() + "-" + r.getPositionB() + " "
+                        + r.getAttributes().get(GATKSVVCFConstants.CLUSTER_MEMBER_IDS_KEY))
+                .collect(Collectors.toList());
+    }
+
+    @DataProvider(name = "partitionedData")
+    public Object[][] partitionedData() {
+        return new Object[][]{
+                {SVClusterEngine.CLUSTERING_TYPE.SINGLE_LINKAGE, 1, 1},
+                {SVClusterEngine.CLUSTERING_TYPE.SINGLE_LINKAGE, 4, 1},
+                {SVClusterEngine.CLUSTERING_TYPE.SINGLE_LINKAGE, 4, 50},
+                {SVClusterEngine.CLUSTERING_TYPE.MAX_CLIQUE, 4, 1},
+                {SVClusterEngine.CLUSTERING_TYPE.MAX_CLIQUE, 3, 20},
+        };
+    }
+
+    @Test(dataProvider = "partitionedData")
+    public void testMatchesSerialEngine(final SVClusterEngine.CLUSTERING_TYPE type, final int numThreads,
+                                        final int minItemsPerTask) {
+        final List<SVCallRecord> records = createRecords();
+        final List<ReferenceSequenceFile> references = Collections.synchronizedList(new ArrayList<>());
+
+        final SVClusterEngine<SVCallRecord> serialEngine = getEngineFactory(type, references).get();
+        records.forEach(serialEngine::add);
+        final List<SVCallRecord> expected = serialEngine.forceFlush();
+
+        final List<SVCallRecord> actual = new ArrayList<>();
+        try (final PartitionedSVClusterEngine<SVCallRecord> engine =
+                     new PartitionedSVClusterEngine<>(SVTestUtils.getNewDefaultLinkage(), getEngineFactory(type, references),
+                             numThreads, minItemsPerTask)) {
+            Assert.assertTrue(engine.isEmpty());
+            for (final SVCallRecord record : records) {
+                engine.add(record);
+                actual.addAll(engine.flush());
+            }
+            Assert.assertFalse(engine.isEmpty());
+            actual.addAll(engine.forceFlush());
+            Assert.assertTrue(engine.isEmpty());
+        } finally {
+            references.forEach(CloserUtil::close);
+        }
+        Assert.assertEquals(summarize(actual), summarize(expected));
+    }
+
+    @Test
+    public void testEngineReuseAfterForceFlush() {
+        final List<ReferenceSequenceFile> references = new ArrayList<>();
+        final SVClusterEngine<SVCallRecord> engine = getEngineFactory(SVClusterEngine.CLUSTERING_TYPE.SINGLE_LINKAGE, references).get();
+        engine.add(SVTestUtils.newCallRecordWithIntervalAndType(5000, 6000, StructuralVariantType.DEL));
+        Assert.assertEquals(engine.forceFlush().size(), 1);
+        // an earlier start is acceptable once all clusters have been flushed
+        engine.add(SVTestUtils.newCallRecordWithIntervalAndType(1000, 2000, StructuralVariantType.DEL));
+        engine.add(SVTestUtils.newCallRecordWithIntervalAndType(1001, 2000, StructuralVariantType.DEL));
+        Assert.assertEquals(engine.forceFlush().size(), 1);
+        references.forEach(CloserUtil::close);
+    }
+}
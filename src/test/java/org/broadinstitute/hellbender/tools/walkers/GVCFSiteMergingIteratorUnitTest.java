@@ -0,0 +1,80 @@
+package org.broadinstitute.hellbender.tools.walkers;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+public class GVCFSiteMergingIteratorUnitTest extends GATKBaseTest {
+
+    private static final SAMSequenceDictionary DICTIONARY = new SAMSequenceDictionary(Arrays.asList(
+            new SAMSequenceRecord("1", 1000), new SAMSequenceRecord("2", 1000)));
+
+    private static VariantContext refBlock(final String contig, final int start, final int end) {
+        return new VariantContextBuilder("test", contig, start, end, Arrays.asList(Allele.REF_A, Allele.NON_REF_ALLELE)).make();
+    }
+
+    private static VariantContext snp(final String contig, final int position) {
+        return new VariantContextBuilder("test", contig, position, position, Arrays.asList(Allele.REF_A, Allele.ALT_C, Allele.NON_REF_ALLELE)).make();
+    }
+
+    private static List<GVCFSiteMergingIterator.MergedSite> drain(final List<List<VariantContext>> inputs) {
+        final List<Iterator<VariantContext>> sources = new ArrayList<>();
+        inputs.forEach(records -> sources.add(records.iterator()));
+        final List<GVCFSiteMergingIterator.MergedSite> sites = new ArrayList<>();
+        new GVCFSiteMergingIterator(sources, DICTIONARY).forEachRemaining(sites::add);
+        return sites;
+    }
+
+    @Test
+    public void testSitesAreEmittedOnlyAtVariantStarts() {
+        final List<VariantContext> sample1 = Arrays.asList(refBlock("1", 1, 99), snp("1", 100), refBlock("1", 101, 300));
+        final List<VariantContext> sample2 = Arrays.asList(refBlock("1", 1, 199), snp("1", 200), refBlock("1", 201, 300));
+
+        final List<GVCFSiteMergingIterator.MergedSite> sites = drain(Arrays.asList(sample1, sample2));
+
+        Assert.assertEquals(sites.size(), 2);
+        Assert.assertEquals(sites.get(0).getLocus(), new SimpleInterval("1", 100, 100));
+        Assert.assertEquals(sites.get(0).getVariants(), Arrays.asList(sample1.get(1), sample2.get(0)));
+        Assert.assertEquals(sites.get(1).getLocus(), new SimpleInterval("1", 200, 200));
+        Assert.assertEquals(sites.get(1).getVariants(), Arrays.asList(sample1.get(2), sample2.get(1)));
+    }
+
+    @Test
+    public void testSharedSiteAndContigTransition() {
+        final List<VariantContext> sample1 = Arrays.asList(snp("1", 10), refBlock("1", 11, 1000), refBlock("2", 1, 49), snp("2", 50));
+        final List<VariantContext> sample2 = Arrays.asList(snp("1", 10), refBlock("1", 11, 1000), refBlock("2", 1, 1000));
+
+        final List<GVCFSiteMergingIterator.MergedSite> sites = drain(Arrays.asList(sample1, sample2));
+
+        Assert.assertEquals(sites.size(), 2);
+        Assert.assertEquals(sites.get(0).getLocus(), new SimpleInterval("1", 10, 10));
+        Assert.assertEquals(sites.get(0).getVariants(), Arrays.asList(sample1.get(0), sample2.get(0)));
+        Assert.assertEquals(sites.get(1).getLocus(), new SimpleInterval("2", 50, 50));
+        Assert.assertEquals(sites.get(1).getVariants(), Arrays.asList(sample1.get(3), sample2.get(2)));
+    }
+
+    @Test
+    public void testNoVariantsProducesNoSites() {
+        final List<VariantContext> sample1 = Collections.singletonList(refBlock("1", 1, 1000));
+        final List<VariantContext> sample2 = Collections.emptyList();
+        Assert.assertTrue(drain(Arrays.asList(sample1, sample2)).isEmpty());
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testUnsortedInput() {
+        drain(Collections.singletonList(Arrays.asList(snp("1", 100), snp("1", 50))));
+    }
+}
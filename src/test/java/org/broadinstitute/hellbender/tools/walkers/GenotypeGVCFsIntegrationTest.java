@@ -417,6 +417,37 @@ public class GenotypeGVCFsIntegrationTest extends CommandLineProgramTest {
         assertVariantContextsMatch(input, expected, extraArgs, reference);
     }
 
+    @Test(dataProvider = "gvcfsToGenotype")
+    public void testEntireVariantContextMultithreaded(File input, File expected, List<String> extraArgs, String reference) throws IOException {
+        final List<String> threadedArgs = new ArrayList<>(extraArgs);
+        threadedArgs.addAll(Arrays.asList("--" + GenotypeGVCFs.THREADS_LONG_NAME, "3", "--" + GenotypeGVCFs.THREADED_SHARD_SIZE_LONG_NAME, "10000"));
+        assertVariantContextsMatch(input, expected, threadedArgs, reference);
+    }
+
+    @DataProvider(name = "traversalModes")
+    public Object[][] traversalModes() {
+        return new Object[][] {
+                {NO_EXTRA_ARGS},    // by variant
+                {Collections.singletonList("--" + GenotypeGVCFs.ALL_SITES_LONG_NAME)}  // by locus
+        };
+    }
+
+    // the leading deletion and the reference block following it each span both intervals, but must be genotyped once
+    @Test(dataProvider = "traversalModes")
+    public void testMultithreadedVariantsSpanningTwoIntervals(final List<String> extraArgs) {
+        final List<String> args = new ArrayList<>(extraArgs);
+        args.addAll(Arrays.asList("-L", "20:69512-69512", "-L", "20:69514-69516"));
+        final File singleThreaded = runGenotypeGVCFS(getTestFile("leadingDeletion.g.vcf").getAbsolutePath(), null, args, b37_reference_20_21);
+
+        args.addAll(Arrays.asList("--" + GenotypeGVCFs.THREADS_LONG_NAME, "2"));
+        final File multithreaded = runGenotypeGVCFS(getTestFile("leadingDeletion.g.vcf").getAbsolutePath(), null, args, b37_reference_20_21);
+
+        final List<VariantContext> expected = VariantContextTestUtils.getVariantContexts(singleThreaded);
+        Assert.assertFalse(expected.isEmpty());
+        assertForEachElementInLists(VariantContextTestUtils.getVariantContexts(multithreaded), expected,
+                (a, e) -> VariantContextTestUtils.assertVariantContextsAreEqual(a, e, Collections.emptyList(), Collections.emptyList()));
+    }
+
     private void assertVariantContextsMatch(File input, File expected, List<String> extraArgs, String reference) throws IOException {
         try {
             final VCFHeader header = VCFHeaderReader.readHeaderFrom(new SeekablePathStream(IOUtils.getPath(expected.getAbsolutePath())));
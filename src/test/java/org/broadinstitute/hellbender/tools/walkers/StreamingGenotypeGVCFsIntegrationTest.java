@@ -0,0 +1,98 @@
+package org.broadinstitute.hellbender.tools.walkers;
+
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.VariantContext;
+import org.broadinstitute.hellbender.CommandLineProgramTest;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.testutils.ArgumentsBuilder;
+import org.broadinstitute.hellbender.testutils.VariantContextTestUtils;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class StreamingGenotypeGVCFsIntegrationTest extends CommandLineProgramTest {
+
+    private static final String GENOTYPE_GVCFS_DIR = toolsTestDir + "walkers/GenotypeGVCFs/";
+
+    private static final File GVCF = new File(GENOTYPE_GVCFS_DIR, "leadingDeletion.g.vcf");
+
+    private static final List<File> SINGLE_SAMPLE_GVCFS = Arrays.asList(
+            new File(GENOTYPE_GVCFS_DIR, "combine.single.sample.pipeline.1.vcf"),
+            new File(GENOTYPE_GVCFS_DIR, "combine.single.sample.pipeline.2.vcf"),
+            new File(GENOTYPE_GVCFS_DIR, "combine.single.sample.pipeline.3.vcf"));
+
+    @DataProvider(name = "intervals")
+    public Object[][] intervals() {
+        return new Object[][] {
+                // all of the inputs
+                {"20:10000000-11000000", false, -1},
+                {"20:10000000-11000000", true, -1},
+                // both ends fall inside <NON_REF> blocks of every input, and two samples have a deletion at 10624924
+                // spanning a SNP at 10624926, which must be genotyped with a spanning deletion allele
+                {"20:10624000-10626000", false, 10624926},
+        };
+    }
+
+    // genotyping the inputs directly must give the same calls as combining them first
+    @Test(dataProvider = "intervals")
+    public void testMatchesCombineGVCFsThenGenotypeGVCFs(final String interval, final boolean disableReaderThreads,
+                                                         final int spanningDeletionSite) {
+        final File combined = createTempFile("combined", ".g.vcf");
+        final ArgumentsBuilder combineArgs = new ArgumentsBuilder()
+                .addReference(b37_reference_20_21)
+                .addInterval(interval)
+                .addOutput(combined);
+        SINGLE_SAMPLE_GVCFS.forEach(combineArgs::addVCF);
+        runCommandLine(combineArgs, CombineGVCFs.class.getSimpleName());
+
+        final File expectedVcf = createTempFile("expected", ".vcf");
+        runCommandLine(new ArgumentsBuilder()
+                .addReference(b37_reference_20_21)
+                .addVCF(combined)
+                .addInterval(interval)
+                .addOutput(expectedVcf), GenotypeGVCFs.class.getSimpleName());
+
+        final File actualVcf = createTempFile("actual", ".vcf");
+        final ArgumentsBuilder args = new ArgumentsBuilder()
+                .addReference(b37_reference_20_21)
+                .addInterval(interval)
+                .add(StreamingGenotypeGVCFs.DISABLE_READER_THREADS_LONG_NAME, disableReaderThreads)
+                .addOutput(actualVcf);
+        SINGLE_SAMPLE_GVCFS.forEach(args::addVCF);
+        runCommandLine(args);
+
+        final List<VariantContext> expected = VariantContextTestUtils.streamVcf(expectedVcf).collect(Collectors.toList());
+        final List<VariantContext> actual = VariantContextTestUtils.streamVcf(actualVcf).collect(Collectors.toList());
+        Assert.assertFalse(expected.isEmpty());
+        Assert.assertEquals(actual.size(), expected.size());
+        for (int n = 0; n < expected.size(); n++) {
+            VariantContextTestUtils.assertVariantContextsAreEqual(actual.get(n), expected.get(n), Collections.emptyList(), Collections.emptyList());
+        }
+        if (spanningDeletionSite > 0) {
+            Assert.assertTrue(actual.stream().anyMatch(vc -> vc.getStart() == spanningDeletionSite && vc.hasAllele(Allele.SPAN_DEL)));
+        }
+    }
+
+    // a copy of an input under another name holds the same sample, which would otherwise be silently collapsed
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testDuplicateSamplesAcrossInputs() throws IOException {
+        final File copy = createTempFile("copy", ".g.vcf");
+        Files.copy(GVCF.toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        final ArgumentsBuilder args = new ArgumentsBuilder()
+                .addReference(b37_reference_20_21)
+                .addVCF(GVCF)
+                .addVCF(copy)
+                .addOutput(createTempFile("output", ".vcf"));
+        runCommandLine(args);
+    }
+}
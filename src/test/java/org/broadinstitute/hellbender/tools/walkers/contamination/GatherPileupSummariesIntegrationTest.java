@@ -6,7 +6,9 @@ import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.testutils.ArgumentsBuilder;
 import org.broadinstitute.hellbender.tools.walkers.SplitIntervals;
+import org.broadinstitute.hellbender.utils.BinaryTableWriter;
 import org.testng.Assert;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.File;
@@ -21,8 +23,18 @@ import java.util.Random;
 import java.util.stream.IntStream;
 
 public class GatherPileupSummariesIntegrationTest extends CommandLineProgramTest {
-    @Test
-    public void testGather() throws IOException {
+    @DataProvider(name = "tableExtensions")
+    public Object[][] tableExtensions() {
+        return new Object[][] {
+                { ".tsv", ".tsv" },
+                { BinaryTableWriter.BINARY_TABLE_EXTENSION, BinaryTableWriter.BINARY_TABLE_EXTENSION },
+                { BinaryTableWriter.BINARY_TABLE_EXTENSION, ".tsv" },
+                { ".tsv", BinaryTableWriter.BINARY_TABLE_EXTENSION }
+        };
+    }
+
+    @Test(dataProvider = "tableExtensions")
+    public void testGather(final String inputExtension, final String outputExtension) throws IOException {
         final Random rng = new Random();
         final String sampleName = "sample1";
 
@@ -56,11 +68,11 @@ public class GatherPileupSummariesIntegrationTest extends CommandLineProgramTest
                 position += 1;
             }
 
-            final Path file = Files.createTempFile(directory, "pileupSummary", ".tsv");
+            final Path file = Files.createTempFile(directory, "pileupSummary", inputExtension);
             PileupSummary.writeToFile(sampleName, records, file.toFile());
         }
 
-        final File combinedPileupSummary = createTempFile("combined", "tsv");
+        final File combinedPileupSummary = createTempFile("combined", outputExtension);
         final File[] files = directory.toFile().listFiles();
         final ArgumentsBuilder args = new ArgumentsBuilder();
         args.add(StandardArgumentDefinitions.SEQUENCE_DICTIONARY_NAME, FULL_HG19_DICT);
@@ -72,7 +84,10 @@ public class GatherPileupSummariesIntegrationTest extends CommandLineProgramTest
         runCommandLine(args.getArgsList(), GatherPileupSummaries.class.getSimpleName());
 
         // Use PileupSummaryComparator to test
-        final List<PileupSummary> scanned = PileupSummary.readFromFile(combinedPileupSummary).getRight();
+        final ImmutablePair<String, List<PileupSummary>> sampleAndScanned = PileupSummary.readFromFile(combinedPileupSummary);
+        Assert.assertEquals(sampleAndScanned.getLeft(), sampleName);
+        final List<PileupSummary> scanned = sampleAndScanned.getRight();
+        Assert.assertEquals(scanned.size(), pairs.size() * numEntriesPerFile);
         Assert.assertTrue(IntStream.range(0, scanned.size()-1).allMatch(i ->
                 contigsOrdered.indexOf(scanned.get(i).getContig()) < contigsOrdered.indexOf(scanned.get(i+1).getContig()) ||
                         (contigsOrdered.indexOf(scanned.get(i).getContig()) == contigsOrdered.indexOf(scanned.get(i+1).getContig()) && scanned.get(i).getStart() <= scanned.get(i+1).getStart())));
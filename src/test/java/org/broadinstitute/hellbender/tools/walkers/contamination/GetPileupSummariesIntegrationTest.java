@@ -5,6 +5,7 @@ import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.testutils.ArgumentsBuilder;
 import org.testng.Assert;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.File;
@@ -65,6 +66,47 @@ public class GetPileupSummariesIntegrationTest extends CommandLineProgramTest {
 
     }
 
+    @DataProvider(name = "threads")
+    public Object[][] threads() {
+        return new Object[][] {{1}, {2}};
+    }
+
+    @Test(dataProvider = "threads")
+    public void testSparseSitesMatchesLocusTraversal(final int threads) {
+        final File expectedOutput = createTempFile("expected", ".table");
+        runCommandLine(new ArgumentsBuilder()
+                .addInput(NA12878)
+                .addVCF(new File(thousandGenomes))
+                .addIntervals(new File(thousandGenomes))
+                .addOutput(expectedOutput)
+                .add(GetPileupSummaries.MAX_SITE_AF_SHORT_NAME, 0.9));
+
+        final File output = createTempFile("output", ".table");
+        runCommandLine(new ArgumentsBuilder()
+                .addInput(NA12878)
+                .addVCF(new File(thousandGenomes))
+                .addIntervals(new File(thousandGenomes))
+                .addOutput(output)
+                .add(GetPileupSummaries.MAX_SITE_AF_SHORT_NAME, 0.9)
+                .addFlag(GetPileupSummaries.SPARSE_SITES_LONG_NAME)
+                .add(GetPileupSummaries.THREADS_LONG_NAME, threads));
+
+        final ImmutablePair<String, List<PileupSummary>> expected = PileupSummary.readFromFile(expectedOutput);
+        final ImmutablePair<String, List<PileupSummary>> actual = PileupSummary.readFromFile(output);
+        Assert.assertEquals(actual.getLeft(), expected.getLeft());
+        Assert.assertEquals(actual.getRight().size(), expected.getRight().size());
+        for (int n = 0; n < expected.getRight().size(); n++) {
+            final PileupSummary expectedSummary = expected.getRight().get(n);
+            final PileupSummary actualSummary = actual.getRight().get(n);
+            Assert.assertEquals(actualSummary.getContig(), expectedSummary.getContig());
+            Assert.assertEquals(actualSummary.getStart(), expectedSummary.getStart());
+            Assert.assertEquals(actualSummary.getRefCount(), expectedSummary.getRefCount());
+            Assert.assertEquals(actualSummary.getAltCount(), expectedSummary.getAltCount());
+            Assert.assertEquals(actualSummary.getOtherAltCount(), expectedSummary.getOtherAltCount());
+            Assert.assertEquals(actualSummary.getAlleleFrequency(), expectedSummary.getAlleleFrequency());
+        }
+    }
+
     @Test(expectedExceptions = UserException.BadInput.class)
     public void testNoAFFieldInHeader() {
         final File vcfWithoutAF = new File(publicTestDir, "empty.vcf");
@@ -1,16 +1,21 @@
 package org.broadinstitute.hellbender.tools.walkers.contamination;
 
 import htsjdk.samtools.SAMSequenceDictionary;
+import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.broadinstitute.hellbender.GATKBaseTest;
 import org.broadinstitute.hellbender.engine.ReferenceFileSource;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.BinaryTableWriter;
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -42,6 +47,63 @@ public class PileupSummaryUnitTest extends GATKBaseTest {
         Assert.assertEquals(psCopy.get(0).getAlleleFrequency(), alleleFrequency);
     }
 
+    @Test
+    public void testBinaryFormat() throws IOException {
+        final List<PileupSummary> ps = Arrays.asList(new PileupSummary("chr1", 100, 20, 10, 2, 0.3),
+                new PileupSummary("chr1", 200, 5, 0, 0, 0.05),
+                new PileupSummary("chr2", 50, 0, 30, 1, 0.8));
+
+        final File file = File.createTempFile("pileup_summary", BinaryTableWriter.BINARY_TABLE_EXTENSION);
+        PileupSummary.writeToFile("sample", ps, file);
+        final ImmutablePair<String, List<PileupSummary>> sampleAndCopy = PileupSummary.readFromFile(file);
+        Assert.assertEquals(sampleAndCopy.getLeft(), "sample");
+
+        final List<PileupSummary> psCopy = sampleAndCopy.getRight();
+        Assert.assertEquals(psCopy.size(), ps.size());
+        for (int n = 0; n < ps.size(); n++) {
+            Assert.assertEquals(psCopy.get(n).getContig(), ps.get(n).getContig());
+            Assert.assertEquals(psCopy.get(n).getStart(), ps.get(n).getStart());
+            Assert.assertEquals(psCopy.get(n).getRefCount(), ps.get(n).getRefCount());
+            Assert.assertEquals(psCopy.get(n).getAltCount(), ps.get(n).getAltCount());
+            Assert.assertEquals(psCopy.get(n).getOtherAltCount(), ps.get(n).getOtherAltCount());
+            Assert.assertEquals(psCopy.get(n).getAlleleFrequency(), ps.get(n).getAlleleFrequency());
+        }
+
+        final ImmutablePair<String, PileupSummary> sampleAndFirst = PileupSummary.readFirstRecord(file);
+        Assert.assertEquals(sampleAndFirst.getLeft(), "sample");
+        Assert.assertEquals(sampleAndFirst.getRight().getStart(), 100);
+    }
+
+    @DataProvider(name = "truncations")
+    public Object[][] truncations() {
+        // the trailer is an end marker byte and a long record count
+        return new Object[][] { { 1 }, { Long.BYTES + 1 }, { Long.BYTES + 3 } };
+    }
+
+    // a binary table cut short, whether in the trailer or in the middle of a record, must not be read as a shorter table
+    @Test(dataProvider = "truncations", expectedExceptions = UserException.MalformedFile.class)
+    public void testTruncatedBinaryTable(final int bytesRemoved) throws IOException {
+        final List<PileupSummary> ps = Arrays.asList(new PileupSummary("chr1", 100, 20, 10, 2, 0.3),
+                new PileupSummary("chr1", 200, 5, 0, 0, 0.05));
+        final File file = File.createTempFile("pileup_summary", BinaryTableWriter.BINARY_TABLE_EXTENSION);
+        PileupSummary.writeToFile("sample", ps, file);
+
+        final byte[] bytes = Files.readAllBytes(file.toPath());
+        Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - bytesRemoved));
+        PileupSummary.readFromFile(file);
+    }
+
+    @Test
+    public void testReadFirstRecordOfEmptyTable() throws IOException {
+        for (final String extension : Arrays.asList(".table", BinaryTableWriter.BINARY_TABLE_EXTENSION)) {
+            final File file = File.createTempFile("pileup_summary", extension);
+            PileupSummary.writeToFile("sample", Collections.emptyList(), file);
+            final ImmutablePair<String, PileupSummary> sampleAndFirst = PileupSummary.readFirstRecord(file);
+            Assert.assertEquals(sampleAndFirst.getLeft(), "sample");
+            Assert.assertNull(sampleAndFirst.getRight());
+        }
+    }
+
     @DataProvider
     public Object[][] comparatorData(){
         return new Object[][]{
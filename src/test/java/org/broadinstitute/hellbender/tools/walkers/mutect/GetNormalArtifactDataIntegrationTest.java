@@ -3,6 +3,7 @@ package org.broadinstitute.hellbender.tools.walkers.mutect;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.Main;
 import org.broadinstitute.hellbender.testutils.ArgumentsBuilder;
+import org.broadinstitute.hellbender.utils.BinaryTableWriter;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -10,6 +11,7 @@ import org.testng.annotations.Test;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -49,6 +51,45 @@ public class GetNormalArtifactDataIntegrationTest extends CommandLineProgramTest
         runCommandLine(args2, GatherNormalArtifactData.class.getSimpleName());
     }
 
+    // binary and text tables round-trip, may be mixed when gathering, and a gathered binary table may be gathered again
+    @Test
+    public void testBinaryFormat() {
+        final List<NormalArtifactRecord> records1 = Arrays.asList(new NormalArtifactRecord(3, 40, 10, 60, 1.0, "SNV"),
+                new NormalArtifactRecord(0, 25, 7, 31, 0.5, "INSERTION"));
+        final List<NormalArtifactRecord> records2 = Arrays.asList(new NormalArtifactRecord(1, 12, 2, 20, 1.0, "DELETION"));
+
+        final File binary = createTempFile("binary", BinaryTableWriter.BINARY_TABLE_EXTENSION);
+        final File text = createTempFile("text", ".table");
+        NormalArtifactRecord.writeToFile(records1, binary);
+        NormalArtifactRecord.writeToFile(records2, text);
+        assertRecordsEqual(NormalArtifactRecord.readFromFile(binary), records1);
+
+        final File gather = createTempFile("gather", BinaryTableWriter.BINARY_TABLE_EXTENSION);
+        runCommandLine(new ArgumentsBuilder().addInput(binary).addInput(text).addOutput(gather),
+                GatherNormalArtifactData.class.getSimpleName());
+        final File gatherAgain = createTempFile("gatherAgain", ".table");
+        runCommandLine(new ArgumentsBuilder().addInput(gather).addInput(binary).addOutput(gatherAgain),
+                GatherNormalArtifactData.class.getSimpleName());
+
+        final List<NormalArtifactRecord> expected = new ArrayList<>(records1);
+        expected.addAll(records2);
+        assertRecordsEqual(NormalArtifactRecord.readFromFile(gather), expected);
+        expected.addAll(records1);
+        assertRecordsEqual(NormalArtifactRecord.readFromFile(gatherAgain), expected);
+    }
+
+    private static void assertRecordsEqual(final List<NormalArtifactRecord> actual, final List<NormalArtifactRecord> expected) {
+        Assert.assertEquals(actual.size(), expected.size());
+        for (int n = 0; n < expected.size(); n++) {
+            Assert.assertEquals(actual.get(n).getNormalAltCount(), expected.get(n).getNormalAltCount());
+            Assert.assertEquals(actual.get(n).getNormalDepth(), expected.get(n).getNormalDepth());
+            Assert.assertEquals(actual.get(n).getTumorAltCount(), expected.get(n).getTumorAltCount());
+            Assert.assertEquals(actual.get(n).getTumorDepth(), expected.get(n).getTumorDepth());
+            Assert.assertEquals(actual.get(n).getDownsampling(), expected.get(n).getDownsampling());
+            Assert.assertEquals(actual.get(n).getType(), expected.get(n).getType());
+        }
+    }
+
     private String getSampleName(final File bam)  {
         try {
             final File nameFile = createTempFile("sample_name", ".txt");
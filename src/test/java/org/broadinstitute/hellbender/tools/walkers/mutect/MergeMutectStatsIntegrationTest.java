@@ -2,6 +2,7 @@ package org.broadinstitute.hellbender.tools.walkers.mutect;
 
 import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.testutils.ArgumentsBuilder;
+import org.broadinstitute.hellbender.utils.BinaryTableWriter;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -37,6 +38,38 @@ public class MergeMutectStatsIntegrationTest extends CommandLineProgramTest {
         Assert.assertEquals(mergedStats.get(0).getValue(), 50, 1e-9);
     }
 
+    // binary and text stats may be mixed, and merged stats may be merged again
+    @Test
+    public void testBinaryStats() {
+        final File statsFile1 = createTempFile("stats1", BinaryTableWriter.BINARY_TABLE_EXTENSION);
+        final File statsFile2 = createTempFile("stats2", ".stats");
+        final File statsFile3 = createTempFile("stats3", BinaryTableWriter.BINARY_TABLE_EXTENSION);
+        final File merged = createTempFile("merged", BinaryTableWriter.BINARY_TABLE_EXTENSION);
+        final File mergedAgain = createTempFile("mergedAgain", ".stats");
+
+        MutectStats.writeToFile(Arrays.asList(new MutectStats(Mutect2Engine.CALLABLE_SITES_NAME, 20)), statsFile1);
+        MutectStats.writeToFile(Arrays.asList(new MutectStats(Mutect2Engine.CALLABLE_SITES_NAME, 30)), statsFile2);
+        MutectStats.writeToFile(Arrays.asList(new MutectStats(Mutect2Engine.CALLABLE_SITES_NAME, 7)), statsFile3);
+
+        runCommandLine(new ArgumentsBuilder()
+                .add(Mutect2.MUTECT_STATS_SHORT_NAME, statsFile1)
+                .add(Mutect2.MUTECT_STATS_SHORT_NAME, statsFile2)
+                .addOutput(merged));
+        runCommandLine(new ArgumentsBuilder()
+                .add(Mutect2.MUTECT_STATS_SHORT_NAME, merged)
+                .add(Mutect2.MUTECT_STATS_SHORT_NAME, statsFile3)
+                .addOutput(mergedAgain));
+
+        final List<MutectStats> mergedStats = MutectStats.readFromFile(merged);
+        Assert.assertEquals(mergedStats.size(), 1);
+        Assert.assertEquals(mergedStats.get(0).getValue(), 50, 1e-9);
+
+        final List<MutectStats> mergedAgainStats = MutectStats.readFromFile(mergedAgain);
+        Assert.assertEquals(mergedAgainStats.size(), 1);
+        Assert.assertEquals(mergedAgainStats.get(0).getStatistic(), Mutect2Engine.CALLABLE_SITES_NAME);
+        Assert.assertEquals(mergedAgainStats.get(0).getValue(), 57, 1e-9);
+    }
+
 
 
 }
\ No newline at end of file
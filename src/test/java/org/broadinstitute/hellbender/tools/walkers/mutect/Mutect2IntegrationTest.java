@@ -754,6 +754,72 @@ public class Mutect2IntegrationTest extends CommandLineProgramTest {
         Assert.assertEquals(actualFilters, expectedFilters);
     }
 
+    // filtering in parallel and caching filters between passes must not change the output
+    @Test(dataProvider = "vcfsForFiltering")
+    public void testFilterMitochondriaWithAndWithoutFeatureCacheInParallel(File unfiltered, final double minAlleleFraction, final List<String> intervals, List<Set<String>> expectedFilters, List<List<String>> expectedASFilters)  {
+        final List<List<VariantContext>> results = new ArrayList<>();
+        for (final boolean disableCache : new boolean[] {true, false}) {
+            for (final int threads : new int[] {1, 3}) {
+                final File filteredVcf = createTempFile("filtered", ".vcf");
+                runFilterMutectCalls(unfiltered, filteredVcf, MITO_REF.getAbsolutePath(),
+                        args -> args.add(M2ArgumentCollection.MITOCHONDRIA_MODE_LONG_NAME, true),
+                        args -> args.add(StandardArgumentDefinitions.DISABLE_SEQUENCE_DICT_VALIDATION_NAME, true),
+                        args -> args.add(M2FiltersArgumentCollection.MIN_AF_LONG_NAME, minAlleleFraction),
+                        args -> args.add(M2FiltersArgumentCollection.DISABLE_FILTER_FEATURE_CACHE_LONG_NAME, disableCache),
+                        args -> args.add(FilterMutectCalls.THREADS_LONG_NAME, threads),
+                        args -> {
+                            intervals.stream().map(SimpleInterval::new).forEach(args::addInterval);
+                            return args;
+                        });
+                results.add(VariantContextTestUtils.streamVcf(filteredVcf).collect(Collectors.toList()));
+            }
+        }
+
+        final List<VariantContext> expected = results.get(0);
+        for (final List<VariantContext> result : results.subList(1, results.size())) {
+            Assert.assertEquals(result.size(), expected.size());
+            for (int n = 0; n < expected.size(); n++) {
+                Assert.assertEquals(result.get(n).getFilters(), expected.get(n).getFilters());
+                Assert.assertEquals(result.get(n).getAttributes(), expected.get(n).getAttributes());
+            }
+        }
+    }
+
+    // the read orientation filter also caches its features, which the mitochondrial data above never exercise
+    @Test
+    public void testReadOrientationFilterWithAndWithoutFeatureCacheInParallel() {
+        Utils.resetRandomGenerator();
+        final File unfilteredVcf = createTempFile("unfiltered", ".vcf");
+        final File f1r2Counts = createTempFile("f1r2", ".tar.gz");
+        final File orientationModel = createTempFile("orientation", ".tar.gz");
+
+        runMutect2(DREAM_1_TUMOR, DREAM_1_NORMAL, unfilteredVcf, "20:10000000-13000000", b37Reference, Optional.empty(),
+                args -> args.add(M2ArgumentCollection.F1R2_TAR_GZ_NAME, f1r2Counts));
+        runCommandLine(new ArgumentsBuilder().addInput(f1r2Counts).addOutput(orientationModel), LearnReadOrientationModel.class.getSimpleName());
+
+        final List<List<VariantContext>> results = new ArrayList<>();
+        for (final boolean disableCache : new boolean[] {true, false}) {
+            for (final int threads : new int[] {1, 3}) {
+                final File filteredVcf = createTempFile("filtered", ".vcf");
+                runFilterMutectCalls(unfilteredVcf, filteredVcf, b37Reference,
+                        args -> args.add(M2FiltersArgumentCollection.ARTIFACT_PRIOR_TABLE_NAME, orientationModel),
+                        args -> args.add(M2FiltersArgumentCollection.DISABLE_FILTER_FEATURE_CACHE_LONG_NAME, disableCache),
+                        args -> args.add(FilterMutectCalls.THREADS_LONG_NAME, threads));
+                results.add(VariantContextTestUtils.streamVcf(filteredVcf).collect(Collectors.toList()));
+            }
+        }
+
+        final List<VariantContext> expected = results.get(0);
+        Assert.assertTrue(expected.stream().anyMatch(vc -> vc.hasAttribute(GATKVCFConstants.READ_ORIENTATION_QUAL_KEY)));
+        for (final List<VariantContext> result : results.subList(1, results.size())) {
+            Assert.assertEquals(result.size(), expected.size());
+            for (int n = 0; n < expected.size(); n++) {
+                Assert.assertEquals(result.get(n).getFilters(), expected.get(n).getFilters());
+                Assert.assertEquals(result.get(n).getAttributes(), expected.get(n).getAttributes());
+            }
+        }
+    }
+
     @DataProvider(name = "vcfsForNuMTFiltering")
     public Object[][] vcfsForNuMTFiltering() {
         return new Object[][]{
@@ -26,6 +26,7 @@ import org.testng.annotations.Test;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static org.broadinstitute.hellbender.tools.walkers.readorientation.F1R2FilterConstants.ALL_KMERS;
@@ -350,25 +351,27 @@ public class LearnReadOrientationModelEngineUnitTest extends CommandLineProgramT
 
 
         // Should be all AGA->C
-        LearnReadOrientationModel.mergeDesignMatrices(altDesignMatrix1a, altDesignMatrix1b);
-        Assert.assertEquals(altDesignMatrix1a.stream()
-                .filter(a -> a.getReferenceContext().equals(transitions1a.getLeft())).count(), 2*numExamples);
-        Assert.assertEquals(altDesignMatrix1a.stream()
-                .filter(a -> a.getAltAllele() == Nucleotide.C).count(), 2*numExamples);
-        Assert.assertEquals(altDesignMatrix1a.stream()
-                .filter(a -> a.getAltAllele() == Nucleotide.C).count(), 2*numExamples);
+        final AltSiteCounts altSiteCounts = new AltSiteCounts(transitions1a.getLeft());
+        altDesignMatrix1a.forEach(altSiteCounts::add);
+        altDesignMatrix1b.forEach(altSiteCounts::add);
+        // TCT->G F2R1 with 20 F1R2 alt reads is AGA->C F1R2 with none, so each has its own combination of counts
+        Assert.assertEquals(altSiteCounts.size(), 2);
+        Assert.assertEquals(altSiteCounts.getAltAllele(0), Nucleotide.C);
+        Assert.assertEquals(altSiteCounts.getAltAllele(1), Nucleotide.C);
+        Assert.assertEquals(altSiteCounts.getAltF1R2(0), altF1R2a);
+        Assert.assertEquals(altSiteCounts.getAltF1R2(1), altDepth - altF1R2b);
+        Assert.assertEquals(altSiteCounts.getTotalNumSites(), 2*numExamples);
 
         // Now add the third, distinct transition
-        LearnReadOrientationModel.mergeDesignMatrices(altDesignMatrix1a, altDesignMatrix1c);
-        Assert.assertEquals(altDesignMatrix1a.stream()
-                .filter(a -> a.getAltAllele() == Nucleotide.C).count(), 2*numExamples);
-        Assert.assertEquals(altDesignMatrix1a.stream()
-                .filter(a -> a.getAltAllele() == Nucleotide.A).count(), numExamples);
-        // Add more tests here?
+        altDesignMatrix1c.forEach(altSiteCounts::add);
+        Assert.assertEquals(altSiteCounts.size(), 3);
+        Assert.assertEquals(altSiteCounts.getAltAllele(2), Nucleotide.A);
+        Assert.assertEquals(altSiteCounts.getNumSites(2), numExamples);
+        Assert.assertEquals(altSiteCounts.getTotalNumSites(), 3*numExamples);
 
         try {
             // Merging the wrong direction should throw an error
-            LearnReadOrientationModel.mergeDesignMatrices(altDesignMatrix1b, altDesignMatrix1a);
+            new AltSiteCounts(transitions1b.getLeft());
             Assert.fail();
         } catch (IllegalArgumentException e){
             // Good
@@ -376,7 +379,7 @@ public class LearnReadOrientationModelEngineUnitTest extends CommandLineProgramT
 
         try {
             // Merging non-matching contexts should throw an error
-            LearnReadOrientationModel.mergeDesignMatrices(altDesignMatrix1a, altDesignMatrix1d);
+            altSiteCounts.add(altDesignMatrix1d.get(0));
             Assert.fail();
         } catch (IllegalArgumentException e){
             // Good
@@ -384,6 +387,60 @@ public class LearnReadOrientationModelEngineUnitTest extends CommandLineProgramT
 
     }
 
+    /**
+     * Compressing the alt sites with {@link AltSiteCounts}, including reverse complement records, must give the same
+     * priors as the merged design matrix, for any number of threads
+     */
+    @Test
+    public void testAltSiteCountsAndParallelLearning(){
+        final int numExamples = 100;
+        final int refDepth = 50;
+        final int altDepth = 10;
+        final int refF1R2 = refDepth/2;
+        final String refContext = "AGA";
+
+        final List<AltSiteRecord> altDesignMatrix = createDesignMatrixOfSingleContext(
+                new ImmutableTriple<>(refContext, Nucleotide.C, ReadOrientation.F1R2), refDepth, altDepth, refF1R2, altDepth, numExamples);
+        altDesignMatrix.addAll(createDesignMatrixOfSingleContext(
+                new ImmutableTriple<>(refContext, Nucleotide.T, ReadOrientation.F1R2), refDepth, altDepth, refF1R2, altDepth/2, numExamples));
+        final List<AltSiteRecord> altDesignMatrixRevComp = createDesignMatrixOfSingleContext(
+                new ImmutableTriple<>("TCT", Nucleotide.G, ReadOrientation.F2R1), refDepth, altDepth, refF1R2, 0, numExamples);
+
+        final AltSiteCounts altSiteCounts = new AltSiteCounts(refContext);
+        altDesignMatrix.forEach(altSiteCounts::add);
+        altDesignMatrixRevComp.forEach(altSiteCounts::add);
+        Assert.assertEquals(altSiteCounts.size(), 2);
+        Assert.assertEquals(altSiteCounts.getTotalNumSites(), 3*numExamples);
+        Assert.assertEquals(altSiteCounts.getNumSites(0), 2*numExamples);
+        Assert.assertEquals(altSiteCounts.getAltF1R2(0), altDepth);
+
+        altDesignMatrix.addAll(altDesignMatrixRevComp.stream().map(AltSiteRecord::getReverseComplementOfRecord).collect(Collectors.toList()));
+
+        final Histogram<Integer> refSiteHistogram = F1R2FilterUtils.createRefHistogram(refContext, F1R2FilterConstants.DEFAULT_MAX_DEPTH);
+        IntStream.range(0, 10*numExamples).forEach(i -> refSiteHistogram.increment(refDepth + altDepth));
+
+        final ArtifactPrior expected = new LearnReadOrientationModelEngine(refSiteHistogram, Collections.emptyList(), altDesignMatrix,
+                LearnReadOrientationModel.DEFAULT_CONVERGENCE_THRESHOLD, LearnReadOrientationModel.DEFAULT_MAX_ITERATIONS,
+                F1R2FilterConstants.DEFAULT_MAX_DEPTH, logger).learnPriorForArtifactStates();
+
+        for (final int numThreads : new int[]{1, 3}) {
+            final List<LearnReadOrientationModelEngine> engines = IntStream.range(0, 4)
+                    .mapToObj(i -> new LearnReadOrientationModelEngine(refSiteHistogram, Collections.emptyList(), altSiteCounts,
+                            LearnReadOrientationModel.DEFAULT_CONVERGENCE_THRESHOLD, LearnReadOrientationModel.DEFAULT_MAX_ITERATIONS,
+                            F1R2FilterConstants.DEFAULT_MAX_DEPTH, logger))
+                    .collect(Collectors.toList());
+            final List<ArtifactPrior> priors = LearnReadOrientationModel.learnPriors(engines, numThreads);
+            Assert.assertEquals(priors.size(), engines.size());
+            for (final ArtifactPrior prior : priors) {
+                Assert.assertEquals(prior.getNumExamples(), expected.getNumExamples());
+                Assert.assertEquals(prior.getNumAltExamples(), expected.getNumAltExamples());
+                for (int k = 0; k < F1R2FilterConstants.NUM_STATES; k++) {
+                    Assert.assertEquals(prior.getPi()[k], expected.getPi()[k], 1e-10);
+                }
+            }
+        }
+    }
+
     private List<AltSiteRecord> createDesignMatrixOfSingleContext(final Triple<String, Nucleotide, ReadOrientation> transition,
                                                                   final int refDepth, final int altDepth,
                                                                   final int refF1R2, final int altF1R2,
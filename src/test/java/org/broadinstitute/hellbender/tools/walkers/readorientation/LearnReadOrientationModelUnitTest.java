@@ -1,6 +1,5 @@
 package org.broadinstitute.hellbender.tools.walkers.readorientation;
 
-import htsjdk.samtools.metrics.MetricsFile;
 import htsjdk.samtools.util.Histogram;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.tools.walkers.SplitIntervals;
@@ -10,7 +9,10 @@ import org.testng.annotations.Test;
 
 import java.io.File;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -56,20 +58,10 @@ public class LearnReadOrientationModelUnitTest extends CommandLineProgramTest {
             IOUtils.extractTarGz(scatteredTarGz.toPath(), extractedDirs.get(i).toPath());
         }
 
-        final List<MetricsFile<?,Integer>> scatteredRefMetricsFiles = extractedDirs.stream()
-                .flatMap(dir -> F1R2CountsCollector.getRefHistogramsFromExtractedTar(dir).stream())
-                .map(LearnReadOrientationModel::readMetricsFile).collect(Collectors.toList());
-
-        final List<MetricsFile<?,Integer>> scatteredAltMetricsFiles = extractedDirs.stream()
-                .flatMap(dir -> F1R2CountsCollector.getAltHistogramsFromExtractedTar(dir).stream())
-                .map(LearnReadOrientationModel::readMetricsFile).collect(Collectors.toList());
-
-        final List<File> scatteredAltTableFiles = extractedDirs.stream()
-                .flatMap(dir -> F1R2CountsCollector.getAltTablesFromExtractedTar(dir).stream()).collect(Collectors.toList());
-
-        final List<Histogram<Integer>> ref = LearnReadOrientationModel.sumHistogramsFromFiles(scatteredRefMetricsFiles, true);
-        final List<Histogram<Integer>> alt = LearnReadOrientationModel.sumHistogramsFromFiles(scatteredAltMetricsFiles, false);
-        final List<AltSiteRecord> altSites = LearnReadOrientationModel.gatherAltSiteRecords(scatteredAltTableFiles).get("SM-CEMAH");
+        final Map<String, LearnReadOrientationModel.F1R2CountsOfSample> countsBySample = new TreeMap<>();
+        extractedDirs.forEach(dir -> LearnReadOrientationModel.addCountsFromExtractedTar(dir, countsBySample));
+        Assert.assertEquals(countsBySample.keySet(), Collections.singleton("SM-CEMAH"));
+        final LearnReadOrientationModel.F1R2CountsOfSample counts = countsBySample.get("SM-CEMAH");
 
         final File refHistUnscattered = F1R2CountsCollector.getRefHistogramsFromExtractedTar(extractedDir).get(0);
 
@@ -83,17 +75,19 @@ public class LearnReadOrientationModelUnitTest extends CommandLineProgramTest {
 
 
         for (Histogram<Integer> truth : refTruth){
-            final Histogram<Integer> eval = ref.stream().filter(h -> h.getValueLabel().equals(truth.getValueLabel())).findAny().get();
+            final Histogram<Integer> eval = counts.getRefHistograms().get(truth.getValueLabel());
             Assert.assertEquals(eval.getSumOfValues(), truth.getSumOfValues());
         }
 
         for (Histogram<Integer> truth : altTruth){
-            final Histogram<Integer> eval = alt.stream().filter(h -> h.getValueLabel().equals(truth.getValueLabel())).findAny().get();
+            final Histogram<Integer> eval = counts.getAltHistograms().get(truth.getValueLabel());
             Assert.assertEquals(eval.getSum(), truth.getSum());
             Assert.assertEquals(eval.getSumOfValues(), truth.getSumOfValues());
         }
 
-        Assert.assertEquals(altSites.size(), altSitesTruth.size());
+        // records of contexts containing N are dropped as they are read
+        Assert.assertEquals(counts.getNumAltSites(),
+                altSitesTruth.stream().filter(r -> F1R2FilterConstants.ALL_KMERS.contains(r.getReferenceContext())).count());
 
     }
 }
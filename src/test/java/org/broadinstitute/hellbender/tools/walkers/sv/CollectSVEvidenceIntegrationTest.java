@@ -6,6 +6,7 @@ import org.broadinstitute.hellbender.utils.codecs.DepthEvidenceCodec;
 import org.broadinstitute.hellbender.utils.codecs.DiscordantPairEvidenceCodec;
 import org.broadinstitute.hellbender.utils.codecs.SiteDepthCodec;
 import org.broadinstitute.hellbender.utils.codecs.SplitReadEvidenceCodec;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.util.Arrays;
@@ -15,42 +16,51 @@ public class CollectSVEvidenceIntegrationTest extends CommandLineProgramTest {
 
     public static final String pesrTestDir = toolsTestDir + "walkers/sv/pesr";
 
-    @Test
-    public void testPECollection() throws Exception {
+    @DataProvider(name = "pipelined")
+    public Object[][] pipelined() {
+        return new Object[][]{{false}, {true}};
+    }
+
+    private static String pipelinedArg( final boolean pipelined ) {
+        return " --" + CollectSVEvidence.PIPELINED_ARGUMENT_LONG_NAME + " " + pipelined;
+    }
+
+    @Test(dataProvider = "pipelined")
+    public void testPECollection( final boolean pipelined ) throws Exception {
         // these test files were generated by svtk collect-pesr
         final IntegrationTestSpec spec = new IntegrationTestSpec(
-                "-I " + NA12878_20_21_WGS_bam + " --sample-name NA12878 -PE %s",
+                "-I " + NA12878_20_21_WGS_bam + " --sample-name NA12878 -PE %s" + pipelinedArg(pipelined),
                 Collections.singletonList(pesrTestDir + "/NA12878" + DiscordantPairEvidenceCodec.FORMAT_SUFFIX + ".gz"));
         spec.setOutputFileExtension(DiscordantPairEvidenceCodec.FORMAT_SUFFIX + ".gz");
         spec.executeTest("PE collection", this);
     }
 
-    @Test
-    public void testSRCollection() throws Exception {
+    @Test(dataProvider = "pipelined")
+    public void testSRCollection( final boolean pipelined ) throws Exception {
         final IntegrationTestSpec spec = new IntegrationTestSpec(
-                "-I " + NA12878_20_21_WGS_bam + " --sample-name NA12878 -SR %s",
+                "-I " + NA12878_20_21_WGS_bam + " --sample-name NA12878 -SR %s" + pipelinedArg(pipelined),
                 Collections.singletonList(pesrTestDir + "/NA12878" + SplitReadEvidenceCodec.FORMAT_SUFFIX + ".gz"));
         spec.setOutputFileExtension(SplitReadEvidenceCodec.FORMAT_SUFFIX + ".gz");
         spec.executeTest("SR collection", this);
     }
 
-    @Test
-    public void testSDCollection() throws Exception {
+    @Test(dataProvider = "pipelined")
+    public void testSDCollection( final boolean pipelined ) throws Exception {
         final IntegrationTestSpec spec = new IntegrationTestSpec(
-                "-I " + NA12878_20_21_WGS_bam + " --sample-name NA12878 -F " + pesrTestDir + "/snpSites.vcf -SD %s",
+                "-I " + NA12878_20_21_WGS_bam + " --sample-name NA12878 -F " + pesrTestDir + "/snpSites.vcf -SD %s" + pipelinedArg(pipelined),
                 Collections.singletonList(pesrTestDir + "/NA12878" + SiteDepthCodec.FORMAT_SUFFIX + ".gz"));
         spec.setOutputFileExtension(SiteDepthCodec.FORMAT_SUFFIX + ".gz");
         spec.executeTest("SD collection", this);
     }
 
-    @Test
-    public void testRDCollection() throws Exception {
+    @Test(dataProvider = "pipelined")
+    public void testRDCollection( final boolean pipelined ) throws Exception {
         final IntegrationTestSpec spec = new IntegrationTestSpec(
                 "-I " + NA12878_20_21_WGS_bam +
                         " --sample-name NA12878" +
                         " -DI " + pesrTestDir + "/intervals.bed" +
                         " --" + CollectSVEvidence.MIN_DEPTH_EVIDENCE_MAPQ_ARGUMENT_NAME + " 30" +
-                        " -RD %s",
+                        " -RD %s" + pipelinedArg(pipelined),
                 Collections.singletonList(pesrTestDir + "/NA12878" + DepthEvidenceCodec.FORMAT_SUFFIX + ".gz"));
         spec.setOutputFileExtension(DepthEvidenceCodec.FORMAT_SUFFIX + ".gz");
         spec.executeTest("RD collection", this);
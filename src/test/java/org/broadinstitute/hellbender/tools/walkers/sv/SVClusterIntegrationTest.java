@@ -240,12 +240,21 @@ public class SVClusterIntegrationTest extends CommandLineProgramTest {
     }
 
 
-    // Ensure the output buffer works correctly
-    @Test
-    public void testAgainstSimpleImplementation() {
+    @DataProvider(name = "testAgainstSimpleImplementationData")
+    public Object[][] testAgainstSimpleImplementationData() {
+        return new Object[][]{
+                {1},
+                {4}
+        };
+    }
+
+    // Ensure the output buffer works correctly, and that partitioned clustering gives the same result
+    @Test(dataProvider= "testAgainstSimpleImplementationData")
+    public void testAgainstSimpleImplementation(final int clusterThreads) {
         final File output = createTempFile("single_linkage_cluster", ".vcf");
         final ArgumentsBuilder args = new ArgumentsBuilder()
                 .addOutput(output)
+                .add(SVCluster.CLUSTER_THREADS_LONG_NAME, clusterThreads)
                 .add(SVCluster.PLOIDY_TABLE_LONG_NAME, getToolTestDataDir() + "1kgp.batch1.ploidy.tsv")
                 .add(SVCluster.VARIANT_PREFIX_LONG_NAME, "SVx")
                 .add(SVCluster.ALGORITHM_LONG_NAME, SVCluster.CLUSTER_ALGORITHM.SINGLE_LINKAGE)
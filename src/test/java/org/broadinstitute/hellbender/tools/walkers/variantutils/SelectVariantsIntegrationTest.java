@@ -288,6 +288,51 @@ public class SelectVariantsIntegrationTest extends CommandLineProgramTest {
         spec.executeTest("testConcordance--" + testFile, this);
     }
 
+    // the multi-threaded output must match the expected single-threaded output
+    @Test
+    public void testMultithreadedSelection() throws IOException {
+        final String testFile = getToolTestDataDir() + "filteringDepthInFormat.vcf";
+
+        final IntegrationTestSpec spec = new IntegrationTestSpec(
+                " -R " + hg19MiniReference
+                        + " --variant " + testFile
+                        + " -select 'DP < 7' "
+                        + " --" + SelectVariants.THREADS_LONG_NAME + " 2 "
+                        + " --suppress-reference-path " // suppress reference file path in output for test differencing
+                        + " -O %s  --" + StandardArgumentDefinitions.ADD_OUTPUT_VCF_COMMANDLINE +" false",
+                Collections.singletonList(getToolTestDataDir() + "expected/" + "testSelectVariants_SimpleExpressionSelection.vcf")
+        );
+
+        spec.executeTest("testMultithreadedSelection--" + testFile, this);
+    }
+
+    @Test
+    public void testMultithreadedDiscordance() throws IOException {
+        final String testFile = getToolTestDataDir() + "vcfexample2.vcf";
+        final String discordanceFile = getToolTestDataDir() + "vcfexample2DiscordanceConcordance.vcf";
+
+        final IntegrationTestSpec spec = new IntegrationTestSpec(
+                baseTestString(" -sn NA11992 -disc " + discordanceFile + " --" + SelectVariants.THREADS_LONG_NAME + " 3 ", testFile),
+                Collections.singletonList(getToolTestDataDir() + "expected/" + "testSelectVariants_Discordance.vcf")
+        );
+
+        spec.executeTest("testMultithreadedDiscordance--" + testFile, this);
+    }
+
+    // worker threads decode the genotypes read by a JEXL expression and by dropping genotype annotations
+    @Test
+    public void testMultithreadedGenotypeSelection() throws IOException {
+        final String testFile = getToolTestDataDir() + "vcfexample2.vcf";
+
+        final IntegrationTestSpec spec = new IntegrationTestSpec(
+                baseTestString(" -DA FisherStrand -DA OnOffGenotype -DGA RD -sn NA11894 -select 'vc.getGenotype(\"NA11894\").getGQ()==1' " +
+                        " --" + SelectVariants.THREADS_LONG_NAME + " 3 ", testFile),
+                Collections.singletonList(getToolTestDataDir() + "expected/" + "testSelectVariants_DropAnnotationsSelectGQ.vcf")
+        );
+
+        spec.executeTest("testMultithreadedGenotypeSelection--" + testFile, this);
+    }
+
     /**
      * Test including variant types.
      */
@@ -156,6 +156,25 @@ public final class ExtractVariantAnnotationsIntegrationTest extends CommandLineP
         }
     }
 
+    /**
+     * Spilling labeled variants to disk during traversal should not change any outputs, so we check against the
+     * expected outputs of {@link #testValidInputs}. We use a small block size to spill many blocks.
+     */
+    @Test(dataProvider = "dataValidInputs", groups = {"python"}) // python environment is required to use h5diff for exact-match comparisons
+    public void testValidInputsWithSpilling(final String tag,
+                                            final ArgumentsBuilder argsBuilder) {
+        if (UPDATE_EXACT_MATCH_EXPECTED_OUTPUTS) {
+            return;
+        }
+        final File outputDir = createTempDir("extract");
+        final String outputPrefix = String.format("%s/%s", outputDir, tag);
+        argsBuilder.add(LabeledVariantAnnotationsWalker.SPILL_BLOCK_SIZE_LONG_NAME, 7);
+        argsBuilder.addOutput(outputPrefix);
+        runCommandLine(argsBuilder);
+
+        assertOutputs(tag, outputPrefix);
+    }
+
     private static void assertOutputs(final String tag,
                                       final String outputPrefix) {
         // vcf.idx files are not reproducible
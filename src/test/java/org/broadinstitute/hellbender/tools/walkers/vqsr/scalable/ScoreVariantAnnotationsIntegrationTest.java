@@ -8,7 +8,9 @@ import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.testutils.ArgumentsBuilder;
 import org.broadinstitute.hellbender.tools.walkers.vqsr.scalable.data.LabeledVariantAnnotationsData;
 import org.broadinstitute.hellbender.tools.walkers.vqsr.scalable.data.VariantType;
+import org.broadinstitute.hellbender.tools.walkers.vqsr.scalable.modeling.BGMMVariantAnnotationsScorer;
 import org.broadinstitute.hellbender.tools.walkers.vqsr.scalable.modeling.VariantAnnotationsModelBackend;
+import org.broadinstitute.hellbender.tools.walkers.vqsr.scalable.modeling.VariantAnnotationsScorer;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
 import org.broadinstitute.hellbender.utils.io.Resource;
 import org.broadinstitute.hellbender.utils.python.PythonScriptExecutorException;
@@ -52,6 +54,8 @@ public final class ScoreVariantAnnotationsIntegrationTest extends CommandLinePro
             "org/broadinstitute/hellbender/tools/walkers/vqsr/scalable/score");
     private static final File INPUT_FROM_TRAIN_EXPECTED_TEST_FILES_DIR = new File(largeFileTestDir,
             "org/broadinstitute/hellbender/tools/walkers/vqsr/scalable/train/expected");
+    private static final File INPUT_FROM_EXTRACT_EXPECTED_TEST_FILES_DIR = new File(largeFileTestDir,
+            "org/broadinstitute/hellbender/tools/walkers/vqsr/scalable/extract/expected");
     private static final File EXPECTED_TEST_FILES_DIR = new File(TEST_FILES_DIR, "expected");
 
     private static final File ISOLATION_FOREST_PYTHON_SCRIPT = IOUtils.writeTempResource(
@@ -89,12 +93,12 @@ public final class ScoreVariantAnnotationsIntegrationTest extends CommandLinePro
      * Exact-match tests for (non-exhaustive) configurations given by the Cartesian product of the following options:
      * 1) non-allele-specific ("nonAS") vs. allele-specific ("AS")
      * 2) model backend
-     *      2a) Java Bayesian Gaussian Mixture Model (BGMM) backend TODO the BGMM has been reduced to a stub for this initial PR; subsequent PRs will cover the backend code and reconnect the stub
+     *      2a) Java Bayesian Gaussian Mixture Model (BGMM) backend, which requires no python environment and is covered
+     *          separately by {@link #testBGMM}
      *      2b) default PYTHON_IFOREST ("IF.score")
      *      2c) specified PYTHON_SCRIPT ("IF.score"); we will simply use the same script as the default PYTHON_IFOREST backend, so this is just a test of the command-line interface
      *      We should expect 2b-c to give functionally identical results.
      * 3) SNP-only ("snp") vs. SNP+INDEL ("snpIndel") (for both of these options, we use trained models that contain both SNP and INDEL scorers as input)
-     *  TODO the BGMM has been reduced to a stub for this initial PR; subsequent PRs will cover the backend code and reconnect the stub
      */
     @DataProvider(name = "dataValidInputs")
     public Object[][] dataValidInputs() {
@@ -171,6 +175,57 @@ public final class ScoreVariantAnnotationsIntegrationTest extends CommandLinePro
                 EXPECTED_TEST_FILES_DIR, tag, outputPrefix));
     }
 
+    @DataProvider(name = "dataBGMM")
+    public Object[][] dataBGMM() {
+        return new Object[][]{
+                {"extract.nonAS.snpIndel.posUn", ExtractVariantAnnotationsIntegrationTest.ADD_NON_ALLELE_SPECIFIC_ANNOTATIONS},
+                {"extract.AS.snpIndel.posUn", ExtractVariantAnnotationsIntegrationTest.ADD_ALLELE_SPECIFIC_ANNOTATIONS}
+        };
+    }
+
+    /**
+     * The JAVA_BGMM backend does not require a python environment, so we train a positive-only SNP model on the
+     * extracted annotations and check that scoring with it gives the scores of its serialized scorer.
+     */
+    @Test(dataProvider = "dataBGMM")
+    public void testBGMM(final String extractTag,
+                         final Function<ArgumentsBuilder, ArgumentsBuilder> addAnnotations) {
+        final File outputDir = createTempDir("score");
+        final String modelPrefix = String.format("%s/%s.train.snp.posOnly.BGMM", outputDir, extractTag);
+        final ArgumentsBuilder trainArgsBuilder = new ArgumentsBuilder();
+        trainArgsBuilder.add(TrainVariantAnnotationsModel.ANNOTATIONS_HDF5_LONG_NAME,
+                        new File(INPUT_FROM_EXTRACT_EXPECTED_TEST_FILES_DIR, extractTag + LabeledVariantAnnotationsWalker.ANNOTATIONS_HDF5_SUFFIX))
+                .add(LabeledVariantAnnotationsWalker.MODE_LONG_NAME, VariantType.SNP)
+                .add(TrainVariantAnnotationsModel.MODEL_BACKEND_LONG_NAME, VariantAnnotationsModelBackend.JAVA_BGMM)
+                .addOutput(modelPrefix);
+        runCommandLine(trainArgsBuilder, TrainVariantAnnotationsModel.class.getSimpleName());
+
+        final String outputPrefix = String.format("%s/%s.train.snp.posOnly.BGMM.score.snp", outputDir, extractTag);
+        final ArgumentsBuilder argsBuilder = BASE_ARGUMENTS_BUILDER_SUPPLIER.get();
+        argsBuilder.addOutput(outputPrefix);
+        addAnnotations
+                .andThen(ExtractVariantAnnotationsIntegrationTest.ADD_SNP_MODE_AND_RESOURCES)
+                .andThen(ab -> ADD_MODEL_PREFIX.apply(ab, modelPrefix))
+                .andThen(ab -> ADD_MODEL_BACKEND.apply(ab, VariantAnnotationsModelBackend.JAVA_BGMM))
+                .andThen(ab -> ADD_CALIBRATION_SENSITIVITY_THRESHOLD.apply(ab, CALIBRATION_SENSITIVITY_THRESHOLD))
+                .apply(argsBuilder);
+        runCommandLine(argsBuilder);
+
+        final File annotationsFile = new File(outputPrefix + ScoreVariantAnnotations.ANNOTATIONS_HDF5_SUFFIX);
+        final File scoresFile = new File(outputPrefix + ScoreVariantAnnotations.SCORES_HDF5_SUFFIX);
+        Assert.assertTrue(new File(outputPrefix + ".vcf").exists());
+        Assert.assertTrue(new File(outputPrefix + ".vcf.idx").exists());
+
+        final double[] scores = VariantAnnotationsScorer.readScores(scoresFile);
+        Assert.assertTrue(scores.length > 0);
+        Assert.assertTrue(Arrays.stream(scores).allMatch(Double::isFinite));
+
+        final File expectedScoresFile = new File(outputDir, "expected" + ScoreVariantAnnotations.SCORES_HDF5_SUFFIX);
+        BGMMVariantAnnotationsScorer.deserialize(new File(modelPrefix + ".snp" + BGMMVariantAnnotationsScorer.BGMM_SCORER_SER_SUFFIX))
+                .score(annotationsFile, expectedScoresFile);
+        Assert.assertEquals(scores, VariantAnnotationsScorer.readScores(expectedScoresFile));
+    }
+
     /**
      * In contrast to {@link ExtractVariantAnnotationsIntegrationTest#testNoResources}, the non-presence of
      * resources here does not really affect the output.
@@ -11,6 +11,7 @@ import org.broadinstitute.hellbender.tools.walkers.vqsr.scalable.data.VariantTyp
 import org.broadinstitute.hellbender.tools.walkers.vqsr.scalable.modeling.BGMMVariantAnnotationsScorer;
 import org.broadinstitute.hellbender.tools.walkers.vqsr.scalable.modeling.PythonSklearnVariantAnnotationsScorer;
 import org.broadinstitute.hellbender.tools.walkers.vqsr.scalable.modeling.VariantAnnotationsModelBackend;
+import org.broadinstitute.hellbender.tools.walkers.vqsr.scalable.modeling.VariantAnnotationsScorer;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
 import org.broadinstitute.hellbender.utils.io.Resource;
 import org.testng.Assert;
@@ -18,6 +19,9 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -100,7 +104,8 @@ public final class TrainVariantAnnotationsModelIntegrationTest extends CommandLi
      *  2) SNP-only ("snp") vs. SNP+INDEL ("snpIndel") (for both of these options, we use extracted annotations that contain both SNP and INDEL variants as input)
      *  3) positive training with {extract-tag}.annot.hdf5 ("posOnly") vs. positive-negative training with {extract-tag}.annot.hdf5 and {extract-tag}.unlabeled.annot.hdf5 ("posNeg")
      *  4) model backend
-     *      4a) Java Bayesian Gaussian Mixture Model (BGMM) backend TODO the BGMM has been reduced to a stub for this initial PR; subsequent PRs will cover the backend code and reconnect the stub
+     *      4a) Java Bayesian Gaussian Mixture Model (BGMM) backend ("BGMM"), which requires no python environment and is covered
+     *          separately by {@link #dataBGMMValidInputs} and {@link #testBGMMValidInputs}
      *      4b) default PYTHON_IFOREST with default hyperparameters ("IF")
      *      4c) default PYTHON_IFOREST with non-default seed hyperparameter ("IFDifferentSeed")
      *      4d) specified PYTHON_SCRIPT with non-default seed hyperparameter ("IFDifferentSeed"); we will simply use the same script as the default PYTHON_IFOREST backend, so this is just a test of the command-line interface
@@ -108,6 +113,25 @@ public final class TrainVariantAnnotationsModelIntegrationTest extends CommandLi
      */
     @DataProvider(name = "dataValidInputs")
     public Object[][] dataValidInputs() {
+        return makeTestConfigurations(Arrays.asList(
+                Pair.of("IF", ab -> ADD_MODEL_BACKEND.apply(ab, VariantAnnotationsModelBackend.PYTHON_IFOREST)),
+                Pair.of("IFDifferentSeed", ADD_ISOLATION_FOREST_HYPERPARAMETERS_JSON
+                        .andThen(ab -> ADD_MODEL_BACKEND.apply(ab, VariantAnnotationsModelBackend.PYTHON_IFOREST))), // this and the following case give the same results, so they are given the same IFDifferentSeed tag
+                Pair.of("IFDifferentSeed", ADD_ISOLATION_FOREST_PYTHON_SCRIPT
+                        .andThen(ADD_ISOLATION_FOREST_HYPERPARAMETERS_JSON)
+                        .andThen(ab -> ADD_MODEL_BACKEND.apply(ab, VariantAnnotationsModelBackend.PYTHON_SCRIPT)))));
+    }
+
+    /**
+     * The same configurations as {@link #dataValidInputs}, but with the JAVA_BGMM backend and its default hyperparameters ("BGMM").
+     */
+    @DataProvider(name = "dataBGMMValidInputs")
+    public Object[][] dataBGMMValidInputs() {
+        return makeTestConfigurations(Collections.singletonList(
+                Pair.of("BGMM", ab -> ADD_MODEL_BACKEND.apply(ab, VariantAnnotationsModelBackend.JAVA_BGMM))));
+    }
+
+    private static Object[][] makeTestConfigurations(final List<Pair<String, Function<ArgumentsBuilder, ArgumentsBuilder>>> modelBackends) {
         final List<List<Pair<String, Function<ArgumentsBuilder, ArgumentsBuilder>>>> testConfigurations = Lists.cartesianProduct(
                 Arrays.asList(
                         Pair.of("extract.nonAS.snpIndel.posUn.train", Function.identity()),
@@ -118,13 +142,7 @@ public final class TrainVariantAnnotationsModelIntegrationTest extends CommandLi
                 Arrays.asList(              // we will consume the tag and add appropriate arguments for positive and positive-negative training below
                         Pair.of("posOnly", Function.identity()),
                         Pair.of("posNeg", Function.identity())),
-                Arrays.asList(
-                        Pair.of("IF", ab -> ADD_MODEL_BACKEND.apply(ab, VariantAnnotationsModelBackend.PYTHON_IFOREST)),
-                        Pair.of("IFDifferentSeed", ADD_ISOLATION_FOREST_HYPERPARAMETERS_JSON
-                                .andThen(ab -> ADD_MODEL_BACKEND.apply(ab, VariantAnnotationsModelBackend.PYTHON_IFOREST))), // this and the following case give the same results, so they are given the same IFDifferentSeed tag
-                        Pair.of("IFDifferentSeed", ADD_ISOLATION_FOREST_PYTHON_SCRIPT
-                                .andThen(ADD_ISOLATION_FOREST_HYPERPARAMETERS_JSON)
-                                .andThen(ab -> ADD_MODEL_BACKEND.apply(ab, VariantAnnotationsModelBackend.PYTHON_SCRIPT)))));
+                modelBackends);
 
         return testConfigurations.stream()
                 .map(tagAndAddFunctionPairs -> new Object[]{
@@ -148,7 +166,17 @@ public final class TrainVariantAnnotationsModelIntegrationTest extends CommandLi
         final File outputDir = UPDATE_EXACT_MATCH_EXPECTED_OUTPUTS ? EXPECTED_TEST_FILES_DIR : createTempDir("train");
         final String outputPrefix = String.format("%s/%s", outputDir, tag);
         argsBuilder.addOutput(outputPrefix);
+        addAnnotationsForTag(tag, argsBuilder);
+
+        runCommandLine(argsBuilder);
+
+        if (!UPDATE_EXACT_MATCH_EXPECTED_OUTPUTS) {
+            assertExpectedOutputs(tag, outputPrefix);
+        }
+    }
 
+    private static void addAnnotationsForTag(final String tag,
+                                             final ArgumentsBuilder argsBuilder) {
         // add arguments for positive/unlabeled annotations based on the
         // extract tag (the portion of the tag preceding ".train", e.g., extract.nonAS.snpIndel.posUn),
         // which gives the basename for the annotation files
@@ -168,11 +196,55 @@ public final class TrainVariantAnnotationsModelIntegrationTest extends CommandLi
         } else {
             addPositiveAnnotations.apply(argsBuilder);
         }
+    }
 
+    /**
+     * The JAVA_BGMM backend does not require a python environment. Its model outputs are checked against those of the
+     * same configuration trained with several threads, which must be identical, and all scores must be finite.
+     */
+    @Test(dataProvider = "dataBGMMValidInputs")
+    public void testBGMMValidInputs(final String tag,
+                                    final ArgumentsBuilder argsBuilder) throws IOException {
+        final File outputDir = createTempDir("train");
+        final File multithreadedHyperparametersJSON = new File(outputDir, "bgmm-hyperparameters-multithreaded.json");
+        Files.write(multithreadedHyperparametersJSON.toPath(), Collections.singletonList(
+                "{\"n_components\": 6, \"max_iter\": 200, \"random_state\": 0, \"n_threads\": 4}"));
+
+        final String outputPrefix = String.format("%s/%s", outputDir, tag);
+        final List<String> args = new ArrayList<>(argsBuilder.getArgsList());
+        argsBuilder.addOutput(outputPrefix);
+        addAnnotationsForTag(tag, argsBuilder);
         runCommandLine(argsBuilder);
 
-        if (!UPDATE_EXACT_MATCH_EXPECTED_OUTPUTS) {
-            assertExpectedOutputs(tag, outputPrefix);
+        final String multithreadedOutputPrefix = String.format("%s/%s.multithreaded", outputDir, tag);
+        final ArgumentsBuilder multithreadedArgsBuilder = new ArgumentsBuilder(args.toArray());
+        multithreadedArgsBuilder.addOutput(multithreadedOutputPrefix);
+        multithreadedArgsBuilder.add(TrainVariantAnnotationsModel.HYPERPARAMETERS_JSON_LONG_NAME, multithreadedHyperparametersJSON);
+        addAnnotationsForTag(tag, multithreadedArgsBuilder);
+        runCommandLine(multithreadedArgsBuilder);
+
+        final List<String> variantTypes = tag.contains("train.snp.") ? Collections.singletonList("snp") : Arrays.asList("snp", "indel");
+        if (tag.contains("train.snp.")) {
+            assertOutputsForVariantTypeDoNotExist(outputPrefix, "indel");
+        }
+        final List<String> scoresSuffixes = tag.contains("posNeg")
+                ? Arrays.asList(TrainVariantAnnotationsModel.TRAINING_SCORES_HDF5_SUFFIX, TrainVariantAnnotationsModel.CALIBRATION_SCORES_HDF5_SUFFIX, TrainVariantAnnotationsModel.UNLABELED_SCORES_HDF5_SUFFIX)
+                : Arrays.asList(TrainVariantAnnotationsModel.TRAINING_SCORES_HDF5_SUFFIX, TrainVariantAnnotationsModel.CALIBRATION_SCORES_HDF5_SUFFIX);
+        for (final String variantType : variantTypes) {
+            final String tagAndVariantType = String.format("%s.%s", tag, variantType);
+            final String outputPrefixAndVariantType = String.format("%s.%s", outputPrefix, variantType);
+            assertScorerExpectedOutputs(tagAndVariantType, outputPrefixAndVariantType, false);
+            if (tag.contains("posNeg")) {
+                assertScorerExpectedOutputs(tagAndVariantType, outputPrefixAndVariantType, true);
+            } else {
+                Assert.assertFalse(new File(outputPrefixAndVariantType + TrainVariantAnnotationsModel.UNLABELED_SCORES_HDF5_SUFFIX).exists());
+            }
+            for (final String scoresSuffix : scoresSuffixes) {
+                final double[] scores = VariantAnnotationsScorer.readScores(new File(outputPrefixAndVariantType + scoresSuffix));
+                Assert.assertTrue(scores.length > 0);
+                Assert.assertTrue(Arrays.stream(scores).allMatch(Double::isFinite));
+                Assert.assertEquals(VariantAnnotationsScorer.readScores(new File(String.format("%s.%s", multithreadedOutputPrefix, variantType) + scoresSuffix)), scores);
+            }
         }
     }
 
@@ -0,0 +1,62 @@
+package org.broadinstitute.hellbender.utils.bwa;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class BwaMemBatchIteratorUnitTest extends GATKBaseTest {
+
+    private static List<List<String>> batches(final List<String> seqs, final long basesPerBatch, final boolean pairs) {
+        final List<List<String>> result = new ArrayList<>();
+        new BwaMemBatchIterator<>(seqs.iterator(), String::length, basesPerBatch, pairs).forEachRemaining(result::add);
+        return result;
+    }
+
+    @Test
+    public void testUnpairedBatches() {
+        final List<String> seqs = Arrays.asList("AAAA", "CC", "GGGGGG", "T", "AC");
+        final List<List<String>> batches = batches(seqs, 6, false);
+        Assert.assertEquals(batches, Arrays.asList(
+                Arrays.asList("AAAA", "CC"),
+                Collections.singletonList("GGGGGG"),
+                Arrays.asList("T", "AC")));
+    }
+
+    @Test
+    public void testPairsAreNeverSplit() {
+        final List<String> seqs = Arrays.asList("AAAAAAAA", "CC", "GG", "TT", "A", "C");
+        final List<List<String>> batches = batches(seqs, 5, true);
+        Assert.assertEquals(batches, Arrays.asList(
+                Arrays.asList("AAAAAAAA", "CC"),
+                Arrays.asList("GG", "TT", "A", "C")));
+        batches.forEach(batch -> Assert.assertEquals(batch.size() % 2, 0));
+    }
+
+    @Test
+    public void testAllInputIsReturned() {
+        final List<String> seqs = Collections.nCopies(1001, "ACGT");
+        final List<List<String>> batches = batches(seqs, 100, false);
+        Assert.assertEquals(batches.size(), 41);
+        Assert.assertEquals(batches.stream().mapToInt(List::size).sum(), seqs.size());
+    }
+
+    @Test
+    public void testEmptyInput() {
+        Assert.assertTrue(batches(Collections.emptyList(), 10, true).isEmpty());
+    }
+
+    @Test
+    public void testTaskThreadCountOutsideSpark() {
+        Assert.assertEquals(BwaMemBatchIterator.getTaskThreadCount(), 1);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidBatchSize() {
+        new BwaMemBatchIterator<>(Collections.<String>emptyIterator(), String::length, 0, false);
+    }
+}
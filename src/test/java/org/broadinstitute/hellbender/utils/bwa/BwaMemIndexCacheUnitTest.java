@@ -0,0 +1,64 @@
+package org.broadinstitute.hellbender.utils.bwa;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+public class BwaMemIndexCacheUnitTest extends GATKBaseTest {
+
+    private static final String IMAGE_PATH = publicTestDir + "hg19mini.fasta.img";
+
+    @AfterMethod
+    public void closeAll() {
+        while (BwaMemIndexCache.getUserCount(IMAGE_PATH) > 0) {
+            BwaMemIndexCache.releaseInstance(IMAGE_PATH);
+        }
+        BwaMemIndexCache.closeInstances();
+    }
+
+    @Test
+    public void testInstanceIsShared() {
+        final BwaMemIndex first = BwaMemIndexCache.acquireInstance(IMAGE_PATH);
+        final BwaMemIndex second = BwaMemIndexCache.acquireInstance(IMAGE_PATH);
+        Assert.assertSame(first, second);
+        Assert.assertSame(BwaMemIndexCache.getInstance(IMAGE_PATH), first);
+        Assert.assertEquals(BwaMemIndexCache.getUserCount(IMAGE_PATH), 2);
+    }
+
+    @Test
+    public void testCloseIsDeferredWhileInUse() {
+        final BwaMemIndex index = BwaMemIndexCache.acquireInstance(IMAGE_PATH);
+        BwaMemIndexCache.acquireInstance(IMAGE_PATH);
+
+        BwaMemIndexCache.closeInstances();
+        Assert.assertSame(BwaMemIndexCache.getInstance(IMAGE_PATH), index);
+        Assert.assertFalse(index.getReferenceContigNames().isEmpty());
+
+        BwaMemIndexCache.releaseInstance(IMAGE_PATH);
+        Assert.assertSame(BwaMemIndexCache.getInstance(IMAGE_PATH), index);
+
+        BwaMemIndexCache.releaseInstance(IMAGE_PATH);
+        Assert.assertEquals(BwaMemIndexCache.getUserCount(IMAGE_PATH), 0);
+        Assert.assertNotSame(BwaMemIndexCache.getInstance(IMAGE_PATH), index);
+    }
+
+    @Test
+    public void testCloseUnusedInstance() {
+        final BwaMemIndex index = BwaMemIndexCache.getInstance(IMAGE_PATH);
+        BwaMemIndexCache.closeInstance(index);
+        Assert.assertNotSame(BwaMemIndexCache.getInstance(IMAGE_PATH), index);
+    }
+
+    @Test
+    public void testGetInstanceForTaskOutsideSpark() {
+        final BwaMemIndex index = BwaMemIndexCache.getInstanceForTask(IMAGE_PATH);
+        Assert.assertSame(BwaMemIndexCache.getInstance(IMAGE_PATH), index);
+        Assert.assertEquals(BwaMemIndexCache.getUserCount(IMAGE_PATH), 0);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testReleaseWithoutAcquire() {
+        BwaMemIndexCache.releaseInstance(IMAGE_PATH);
+    }
+}
@@ -0,0 +1,189 @@
+package org.broadinstitute.hellbender.utils.clustering;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+public final class BayesianGaussianMixtureModellerUnitTest extends GATKBaseTest {
+    private static final double[][] CENTERS = {{0., 0., 0.}, {5., 5., 0.}, {-5., 3., 4.}};
+    private static final double[] STANDARD_DEVIATIONS = {1., 1.3, 1.6};
+
+    // enough points for more than one chunk
+    private static final int NUM_SAMPLES = 2 * BayesianGaussianMixtureModeller.CHUNK_SIZE + 100;
+
+    private static double[][] simulateData(final int nSamples, final int seed) {
+        final Random random = new Random(seed);
+        final double[][] data = new double[nSamples][CENTERS[0].length];
+        for (int i = 0; i < nSamples; i++) {
+            final double[] center = CENTERS[i % CENTERS.length];
+            for (int f = 0; f < center.length; f++) {
+                data[i][f] = center[f] + STANDARD_DEVIATIONS[f] * random.nextGaussian();
+            }
+        }
+        return data;
+    }
+
+    private static BayesianGaussianMixtureModeller.Builder getBuilder(final int nComponents) {
+        return new BayesianGaussianMixtureModeller.Builder()
+                .nComponents(nComponents)
+                .maxIter(200)
+                .seed(1);
+    }
+
+    @DataProvider(name = "initMethods")
+    public Object[][] initMethods() {
+        return Arrays.stream(BayesianGaussianMixtureModeller.InitMethod.values())
+                .map(m -> new Object[]{m})
+                .toArray(Object[][]::new);
+    }
+
+    @Test(dataProvider = "initMethods")
+    public void testRecoversComponents(final BayesianGaussianMixtureModeller.InitMethod initMethod) {
+        final double[][] data = simulateData(NUM_SAMPLES, 0);
+        final BayesianGaussianMixtureModeller bgmm = getBuilder(3).initMethod(initMethod).build();
+        bgmm.fit(data);
+
+        Assert.assertTrue(bgmm.isFitted());
+        Assert.assertTrue(bgmm.isConverged());
+        Assert.assertEquals(Arrays.stream(bgmm.getWeights()).sum(), 1., 1E-10);
+
+        // each true center is matched by a component with roughly a third of the weight
+        final double[] weights = bgmm.getWeights();
+        final double[][] means = bgmm.getMeans();
+        final double[][][] covariances = bgmm.getCovariances();
+        for (final double[] center : CENTERS) {
+            final int k = closestComponent(means, center);
+            Assert.assertEquals(weights[k], 1. / 3., 0.01);
+            for (int f = 0; f < center.length; f++) {
+                Assert.assertEquals(means[k][f], center[f], 0.1);
+                Assert.assertEquals(covariances[k][f][f], STANDARD_DEVIATIONS[f] * STANDARD_DEVIATIONS[f], 0.15);
+            }
+        }
+    }
+
+    @Test
+    public void testScoreSamples() {
+        final double[][] data = simulateData(NUM_SAMPLES, 0);
+        final BayesianGaussianMixtureModeller bgmm = getBuilder(3).build();
+        bgmm.fit(data);
+
+        // at a center, the density is dominated by a single component with a third of the weight
+        final double expectedLogDensityAtCenter = -0.5 * CENTERS[0].length * Math.log(2. * Math.PI)
+                - Arrays.stream(STANDARD_DEVIATIONS).map(Math::log).sum()
+                - Math.log(3.);
+        final double[] scores = bgmm.scoreSamples(new double[][]{CENTERS[0], CENTERS[1], {20., 20., 20.}});
+        Assert.assertEquals(scores[0], expectedLogDensityAtCenter, 0.05);
+        Assert.assertEquals(scores[1], expectedLogDensityAtCenter, 0.05);
+        Assert.assertTrue(scores[2] < scores[0] - 100.);
+
+        final double[][] probabilities = bgmm.predictProbabilities(new double[][]{CENTERS[2]});
+        Assert.assertEquals(Arrays.stream(probabilities[0]).sum(), 1., 1E-10);
+        Assert.assertEquals(Arrays.stream(probabilities[0]).max().getAsDouble(), 1., 1E-6);
+    }
+
+    @Test
+    public void testExtraComponentsArePruned() {
+        final double[][] data = simulateData(NUM_SAMPLES, 0);
+        final BayesianGaussianMixtureModeller bgmm = getBuilder(6).initMethod(BayesianGaussianMixtureModeller.InitMethod.RANDOM).build();
+        bgmm.fit(data);
+        final double[] sortedWeights = Arrays.stream(bgmm.getWeights()).boxed()
+                .sorted(Comparator.reverseOrder()).mapToDouble(Double::doubleValue).toArray();
+        Assert.assertTrue(sortedWeights[0] + sortedWeights[1] + sortedWeights[2] + sortedWeights[3] > 0.99);
+    }
+
+    @Test(dataProvider = "initMethods")
+    public void testResultsDoNotDependOnNumberOfThreads(final BayesianGaussianMixtureModeller.InitMethod initMethod) {
+        final double[][] data = simulateData(NUM_SAMPLES, 2);
+        final BayesianGaussianMixtureModeller bgmmSingleThreaded = getBuilder(4).initMethod(initMethod).nInit(2).numThreads(1).build();
+        final BayesianGaussianMixtureModeller bgmmMultiThreaded = getBuilder(4).initMethod(initMethod).nInit(2).numThreads(4).build();
+        bgmmSingleThreaded.fit(data);
+        bgmmMultiThreaded.fit(data);
+
+        Assert.assertEquals(bgmmMultiThreaded.getNIter(), bgmmSingleThreaded.getNIter());
+        Assert.assertEquals(bgmmMultiThreaded.getLowerBound(), bgmmSingleThreaded.getLowerBound());
+        Assert.assertEquals(bgmmMultiThreaded.getWeights(), bgmmSingleThreaded.getWeights());
+        Assert.assertEquals(bgmmMultiThreaded.scoreSamples(data), bgmmSingleThreaded.scoreSamples(data));
+    }
+
+    @Test
+    public void testWarmStart() {
+        final double[][] data = simulateData(NUM_SAMPLES, 3);
+        final BayesianGaussianMixtureModeller bgmm = getBuilder(3).warmStart(true).build();
+        bgmm.fit(data);
+        Assert.assertTrue(bgmm.isConverged());
+        final double lowerBound = bgmm.getLowerBound();
+
+        // refitting from the converged solution should converge immediately to the same solution
+        bgmm.fit(data);
+        Assert.assertTrue(bgmm.isConverged());
+        Assert.assertEquals(bgmm.getNIter(), 1);
+        Assert.assertEquals(bgmm.getLowerBound(), lowerBound, 1E-2);
+    }
+
+    @Test
+    public void testSerialization() throws IOException, ClassNotFoundException {
+        final double[][] data = simulateData(NUM_SAMPLES, 4);
+        final BayesianGaussianMixtureModeller bgmm = getBuilder(3).build();
+        bgmm.fit(data);
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final ObjectOutputStream outputStream = new ObjectOutputStream(bytes)) {
+            outputStream.writeObject(bgmm);
+        }
+        final BayesianGaussianMixtureModeller deserialized;
+        try (final ObjectInputStream inputStream = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            deserialized = (BayesianGaussianMixtureModeller) inputStream.readObject();
+        }
+        Assert.assertEquals(deserialized.scoreSamples(data), bgmm.scoreSamples(data));
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testScoreBeforeFit() {
+        getBuilder(3).build().scoreSamples(simulateData(10, 0));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testScoreWithWrongNumberOfFeatures() {
+        final BayesianGaussianMixtureModeller bgmm = getBuilder(3).build();
+        bgmm.fit(simulateData(NUM_SAMPLES, 0));
+        bgmm.scoreSamples(new double[][]{{0., 0.}});
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testFitWithNaN() {
+        final double[][] data = simulateData(100, 0);
+        data[50][1] = Double.NaN;
+        getBuilder(3).build().fit(data);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidDegreesOfFreedomPrior() {
+        getBuilder(3).degreesOfFreedomPrior(1.).build().fit(simulateData(100, 0));
+    }
+
+    private static int closestComponent(final double[][] means, final double[] point) {
+        int closest = -1;
+        double minDistance = Double.POSITIVE_INFINITY;
+        for (int k = 0; k < means.length; k++) {
+            double distance = 0.;
+            for (int f = 0; f < point.length; f++) {
+                distance += (means[k][f] - point[f]) * (means[k][f] - point[f]);
+            }
+            if (distance < minDistance) {
+                minDistance = distance;
+                closest = k;
+            }
+        }
+        return closest;
+    }
+}
@@ -27,14 +27,14 @@ public class BlockCompressIntervalStreamUnitTest extends GATKBaseTest {
         dict.addSequence(new SAMSequenceRecord("22", 50818468));
     }
 
-    private static void write( final SimpleFeature feature, final Writer<SimpleFeature> writer ) throws IOException {
+    static void write( final SimpleFeature feature, final Writer<SimpleFeature> writer ) throws IOException {
         final DataOutputStream dos = writer.getStream();
         dos.writeInt(writer.getContigIndex(feature.getContig()));
         dos.writeInt(feature.getStart());
         dos.writeInt(feature.getEnd());
     }
 
-    private static class SimpleFeatureCodec implements FeatureCodec<SimpleFeature, Reader<SimpleFeature>> {
+    static class SimpleFeatureCodec implements FeatureCodec<SimpleFeature, Reader<SimpleFeature>> {
 
         @Override
         public Feature decodeLoc( Reader<SimpleFeature> simpleFeatureReader ) throws IOException {
@@ -0,0 +1,160 @@
+package org.broadinstitute.hellbender.utils.io;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.seekablestream.ByteArraySeekableStream;
+import htsjdk.tribble.SimpleFeature;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.tools.sv.SVFeaturesHeader;
+import org.broadinstitute.hellbender.utils.IntervalUtils;
+import org.broadinstitute.hellbender.utils.io.BlockCompressedIntervalStream.Reader;
+import org.broadinstitute.hellbender.utils.io.BlockCompressedIntervalStream.Writer;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class BlockCompressedIntervalStreamQueryEngineUnitTest extends GATKBaseTest {
+    private static final int N_FILES = 3;
+    private static final int N_FEATURES_PER_CONTIG = 30000;
+    private static final int MAX_START = 3000000;
+    private static final int MAX_LENGTH = 3000;
+
+    private static final SAMSequenceDictionary dict = new SAMSequenceDictionary();
+    static {
+        dict.addSequence(new SAMSequenceRecord("21", 46709983));
+        dict.addSequence(new SAMSequenceRecord("22", 50818468));
+    }
+    private static final Comparator<SimpleFeature> comparator = IntervalUtils.getDictionaryOrderComparator(dict);
+
+    private static List<SimpleFeature> makeFeatures( final Random random ) {
+        final List<SimpleFeature> features = new ArrayList<>();
+        for ( final SAMSequenceRecord rec : dict.getSequences() ) {
+            // a gigantic feature at the start of each contig
+            features.add(new SimpleFeature(rec.getSequenceName(), 1, MAX_START));
+            for ( int idx = 0; idx != N_FEATURES_PER_CONTIG; ++idx ) {
+                final int start = 1 + random.nextInt(MAX_START);
+                features.add(new SimpleFeature(rec.getSequenceName(), start, start + random.nextInt(MAX_LENGTH)));
+            }
+        }
+        features.sort(comparator);
+        return features;
+    }
+
+    private static byte[] writeFeatures( final List<SimpleFeature> features ) {
+        final ByteArrayOutputStream os = new ByteArrayOutputStream(1000000);
+        final SVFeaturesHeader header = new SVFeaturesHeader(SimpleFeature.class.getSimpleName(), "1", dict,
+                Collections.singletonList("sample"));
+        final Writer<SimpleFeature> writer =
+                new Writer<>("in-memory stream", os, header, BlockCompressIntervalStreamUnitTest::write);
+        features.forEach(writer::write);
+        writer.close();
+        return os.toByteArray();
+    }
+
+    private static List<String> toStrings( final Iterator<SimpleFeature> itr ) {
+        final List<String> result = new ArrayList<>();
+        itr.forEachRemaining(feature ->
+                result.add(feature.getContig() + ":" + feature.getStart() + "-" + feature.getEnd()));
+        return result;
+    }
+
+    private static List<String> bruteForceQuery( final List<List<SimpleFeature>> filesFeatures,
+                                                 final String contig, final int start, final int end ) {
+        // a stable sort of the overlappers in file order resolves ties by file, just as the engine does
+        final List<SimpleFeature> overlappers = filesFeatures.stream()
+                .flatMap(List::stream)
+                .filter(feature -> feature.getContig().equals(contig) &&
+                        feature.getStart() <= end && feature.getEnd() >= start)
+                .sorted(comparator)
+                .collect(Collectors.toList());
+        return toStrings(overlappers.iterator());
+    }
+
+    @Test
+    public void testQueriesMatchBruteForce() {
+        final Random random = new Random(47L);
+        final List<List<SimpleFeature>> filesFeatures = new ArrayList<>(N_FILES);
+        final List<Reader<SimpleFeature>> readers = new ArrayList<>(N_FILES);
+        final BlockCompressIntervalStreamUnitTest.SimpleFeatureCodec codec =
+                new BlockCompressIntervalStreamUnitTest.SimpleFeatureCodec();
+        for ( int fileIdx = 0; fileIdx != N_FILES; ++fileIdx ) {
+            final List<SimpleFeature> features = makeFeatures(random);
+            filesFeatures.add(features);
+            readers.add(new Reader<>("in-memory stream " + fileIdx,
+                    new ByteArraySeekableStream(writeFeatures(features)), codec));
+        }
+
+        try ( final BlockCompressedIntervalStreamQueryEngine<SimpleFeature> engine =
+                      new BlockCompressedIntervalStreamQueryEngine<>(readers, dict) ) {
+            Assert.assertEquals(engine.getNumReaders(), N_FILES);
+            final List<int[]> queries = new ArrayList<>();
+            queries.add(new int[] {1, 1});
+            queries.add(new int[] {MAX_START, MAX_START});
+            queries.add(new int[] {MAX_START + 1, MAX_START + MAX_LENGTH});
+            queries.add(new int[] {MAX_START + MAX_LENGTH + 1, Integer.MAX_VALUE});
+            queries.add(new int[] {1, Integer.MAX_VALUE});
+            for ( int idx = 0; idx != 50; ++idx ) {
+                final int start = 1 + random.nextInt(MAX_START);
+                queries.add(new int[] {start, start + random.nextInt(20000)});
+            }
+            for ( final SAMSequenceRecord rec : dict.getSequences() ) {
+                final String contig = rec.getSequenceName();
+                for ( final int[] query : queries ) {
+                    Assert.assertEquals(toStrings(engine.query(contig, query[0], query[1])),
+                            bruteForceQuery(filesFeatures, contig, query[0], query[1]),
+                            "query " + contig + ":" + query[0] + "-" + query[1]);
+                }
+            }
+            Assert.assertFalse(engine.query("unknownContig", 1, 100).hasNext());
+        }
+    }
+
+    @Test
+    public void testBlocksAreCached() {
+        final Random random = new Random(11L);
+        final List<SimpleFeature> features = makeFeatures(random);
+        final byte[] bytes = writeFeatures(features);
+        final BlockCompressIntervalStreamUnitTest.SimpleFeatureCodec codec =
+                new BlockCompressIntervalStreamUnitTest.SimpleFeatureCodec();
+        final List<Reader<SimpleFeature>> readers = Arrays.asList(
+                new Reader<>("stream 1", new ByteArraySeekableStream(bytes), codec),
+                new Reader<>("stream 2", new ByteArraySeekableStream(bytes), codec));
+
+        try ( final BlockCompressedIntervalStreamQueryEngine<SimpleFeature> engine =
+                      new BlockCompressedIntervalStreamQueryEngine<>(readers, comparator, 100) ) {
+            final List<String> firstResult = toStrings(engine.query("21", 100000, 110000));
+            final long nMisses = engine.getCacheMisses();
+            Assert.assertTrue(nMisses > 0);
+            Assert.assertEquals(engine.getCacheHits(), 0);
+
+            // both files have the same content, so each feature comes out twice, the first file's copy first
+            Assert.assertEquals(firstResult.size() % 2, 0);
+            for ( int idx = 0; idx < firstResult.size(); idx += 2 ) {
+                Assert.assertEquals(firstResult.get(idx), firstResult.get(idx + 1));
+            }
+
+            // repeating the query is answered entirely from the cache
+            Assert.assertEquals(toStrings(engine.query("21", 100000, 110000)), firstResult);
+            Assert.assertEquals(engine.getCacheMisses(), nMisses);
+            Assert.assertEquals(engine.getCacheHits(), nMisses);
+        }
+    }
+
+    @Test
+    public void testUncached() {
+        final List<SimpleFeature> features = makeFeatures(new Random(5L));
+        final Reader<SimpleFeature> reader = new Reader<>("stream", new ByteArraySeekableStream(writeFeatures(features)),
+                new BlockCompressIntervalStreamUnitTest.SimpleFeatureCodec());
+        try ( final BlockCompressedIntervalStreamQueryEngine<SimpleFeature> engine =
+                      new BlockCompressedIntervalStreamQueryEngine<>(Collections.singletonList(reader), comparator, 0) ) {
+            final List<String> expected =
+                    bruteForceQuery(Collections.singletonList(features), "22", 2000000, 2100000);
+            Assert.assertEquals(toStrings(engine.query("22", 2000000, 2100000)), expected);
+            Assert.assertEquals(toStrings(engine.query("22", 2000000, 2100000)), expected);
+            Assert.assertEquals(engine.getCacheHits(), 0);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.broadinstitute.hellbender.utils.iterators;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class PrefetchingIteratorUnitTest extends GATKBaseTest {
+
+    @DataProvider(name = "sizes")
+    public Object[][] getSizes() {
+        return new Object[][] {
+                {0, 1, 1},
+                {1, 256, 4},
+                {1000, 7, 2},
+                {1000, 1000, 1},
+                {1001, 100, 3}
+        };
+    }
+
+    @Test(dataProvider = "sizes")
+    public void testOrderIsPreserved(final int numElements, final int batchSize, final int batchesInFlight) {
+        final List<Integer> expected = IntStream.range(0, numElements).boxed().collect(Collectors.toList());
+        final List<Integer> actual = new ArrayList<>();
+        try (final PrefetchingIterator<Integer> it = new PrefetchingIterator<>(expected.iterator(), "test", batchSize, batchesInFlight)) {
+            it.forEachRemaining(actual::add);
+            Assert.assertFalse(it.hasNext());
+        }
+        Assert.assertEquals(actual, expected);
+    }
+
+    @Test(expectedExceptions = GATKException.class)
+    public void testExceptionIsPropagated() {
+        final Iterator<Integer> failing = new Iterator<Integer>() {
+            private int count = 0;
+            @Override
+            public boolean hasNext() { return true; }
+            @Override
+            public Integer next() {
+                if (++count > 10) {
+                    throw new IllegalStateException("source failure");
+                }
+                return count;
+            }
+        };
+        try (final PrefetchingIterator<Integer> it = new PrefetchingIterator<>(failing, "test", 3, 2)) {
+            while (it.hasNext()) {
+                it.next();
+            }
+        }
+    }
+
+    @Test
+    public void testCloseBeforeExhaustion() {
+        final Iterator<Integer> infinite = IntStream.iterate(0, i -> i + 1).iterator();
+        final PrefetchingIterator<Integer> it = new PrefetchingIterator<>(infinite, "test", 10, 2);
+        Assert.assertEquals(it.next(), Integer.valueOf(0));
+        it.close();
+        Assert.assertFalse(it.hasNext());
+    }
+}
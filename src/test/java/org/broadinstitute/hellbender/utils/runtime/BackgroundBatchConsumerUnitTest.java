@@ -0,0 +1,80 @@
+package org.broadinstitute.hellbender.utils.runtime;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class BackgroundBatchConsumerUnitTest extends GATKBaseTest {
+
+    @DataProvider(name = "sizes")
+    public Object[][] getSizes() {
+        return new Object[][] {
+                {0, 1, 1},
+                {1, 256, 4},
+                {1000, 7, 2},
+                {1000, 1000, 1},
+                {1001, 100, 3}
+        };
+    }
+
+    @Test(dataProvider = "sizes")
+    public void testOrderIsPreserved(final int numElements, final int batchSize, final int batchesInFlight) {
+        final List<Integer> expected = IntStream.range(0, numElements).boxed().collect(Collectors.toList());
+        final List<Integer> actual = new ArrayList<>();
+        final AtomicBoolean finished = new AtomicBoolean(false);
+        try (final BackgroundBatchConsumer<Integer> consumer = new BackgroundBatchConsumer<>(actual::add,
+                () -> finished.set(actual.size() == numElements), "test", batchSize, batchesInFlight)) {
+            expected.forEach(consumer);
+        }
+        Assert.assertEquals(actual, expected);
+        Assert.assertTrue(finished.get());
+    }
+
+    @Test
+    public void testCloseIsIdempotent() {
+        final List<Integer> actual = new ArrayList<>();
+        final BackgroundBatchConsumer<Integer> consumer = new BackgroundBatchConsumer<>(actual::add, null, "test");
+        consumer.accept(1);
+        consumer.close();
+        consumer.close();
+        Assert.assertEquals(actual.size(), 1);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testAcceptAfterClose() {
+        final BackgroundBatchConsumer<Integer> consumer = new BackgroundBatchConsumer<>(i -> {}, null, "test");
+        consumer.close();
+        consumer.accept(1);
+    }
+
+    @Test(expectedExceptions = GATKException.class)
+    public void testActionExceptionIsPropagated() {
+        try (final BackgroundBatchConsumer<Integer> consumer = new BackgroundBatchConsumer<>(i -> {
+            if (i > 10) {
+                throw new IllegalStateException("consumer failure");
+            }
+        }, null, "test", 3, 2)) {
+            // more batches than fit in the queue, so the producer would block if the failed consumer stopped taking them
+            for (int i = 0; i < 100; i++) {
+                consumer.accept(i);
+            }
+        }
+    }
+
+    @Test(expectedExceptions = GATKException.class)
+    public void testFinisherExceptionIsPropagated() {
+        final BackgroundBatchConsumer<Integer> consumer = new BackgroundBatchConsumer<>(i -> {}, () -> {
+            throw new IllegalStateException("finisher failure");
+        }, "test");
+        consumer.accept(1);
+        consumer.close();
+    }
+}
@@ -0,0 +1,92 @@
+package org.broadinstitute.hellbender.utils.variant;
+
+import htsjdk.tribble.readers.LineIteratorImpl;
+import htsjdk.tribble.readers.SynchronousLineReader;
+import htsjdk.variant.variantcontext.Genotype;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFHeader;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class SelectiveVCFCodecUnitTest extends GATKBaseTest {
+    private static final String HEADER = String.join("\n",
+            "##fileformat=VCFv4.2",
+            "##INFO=<ID=AC,Number=A,Type=Integer,Description=\"Allele count\">",
+            "##INFO=<ID=DP,Number=1,Type=Integer,Description=\"Depth\">",
+            "##INFO=<ID=DB,Number=0,Type=Flag,Description=\"dbSNP membership\">",
+            "##INFO=<ID=END,Number=1,Type=Integer,Description=\"Stop position of the interval\">",
+            "##FORMAT=<ID=GT,Number=1,Type=String,Description=\"Genotype\">",
+            "##FORMAT=<ID=AD,Number=R,Type=Integer,Description=\"Allelic depths\">",
+            "##FORMAT=<ID=DP,Number=1,Type=Integer,Description=\"Depth\">",
+            "#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\ts1\ts2\ts3") + "\n";
+
+    private static final String LINE = "1\t100\t.\tA\tC\t50\tPASS\tAC=2;DP=30;DB\tGT:AD:DP\t0/1:5,5:10\t1/1:0,8:8\t0/0:9,0:9";
+
+    private static SelectiveVCFCodec makeCodec(final VariantFieldSelection selection) {
+        final SelectiveVCFCodec codec = new SelectiveVCFCodec(selection);
+        codec.readActualHeader(new LineIteratorImpl(new SynchronousLineReader(new StringReader(HEADER))));
+        return codec;
+    }
+
+    @Test
+    public void testSelectFieldsAndSamples() {
+        final SelectiveVCFCodec codec = new SelectiveVCFCodec(new VariantFieldSelection(Arrays.asList("DP", "DB"),
+                Collections.singletonList("DP"), Arrays.asList("s3", "s1")));
+        final VCFHeader header = (VCFHeader) codec.readActualHeader(new LineIteratorImpl(new SynchronousLineReader(new StringReader(HEADER))));
+        Assert.assertEquals(header.getGenotypeSamples(), Arrays.asList("s1", "s3"));
+
+        Assert.assertEquals(codec.selectFields(LINE), "1\t100\t.\tA\tC\t50\tPASS\tDP=30;DB\tGT:DP\t0/1:10\t0/0:9");
+
+        final VariantContext vc = codec.decode(LINE);
+        Assert.assertEquals(vc.getStart(), 100);
+        Assert.assertFalse(vc.hasAttribute("AC"));
+        Assert.assertEquals(vc.getAttributeAsInt("DP", 0), 30);
+        Assert.assertTrue(vc.hasAttribute("DB"));
+        Assert.assertEquals(vc.getNSamples(), 2);
+
+        final Genotype genotype = vc.getGenotype("s3");
+        Assert.assertTrue(genotype.isHomRef());
+        Assert.assertEquals(genotype.getDP(), 9);
+        Assert.assertFalse(genotype.hasAD());
+    }
+
+    @Test
+    public void testSitesOnly() {
+        final SelectiveVCFCodec codec = makeCodec(VariantFieldSelection.sitesOnly(Collections.emptySet()));
+        Assert.assertEquals(codec.selectFields(LINE), "1\t100\t.\tA\tC\t50\tPASS\t.");
+
+        final VariantContext vc = codec.decode(LINE);
+        Assert.assertEquals(vc.getNSamples(), 0);
+        Assert.assertTrue(vc.getAttributes().isEmpty());
+        Assert.assertTrue(vc.isNotFiltered());
+    }
+
+    @Test
+    public void testEndIsAlwaysKept() {
+        final String blockLine = "1\t100\t.\tA\t<NON_REF>\t.\t.\tDP=30;END=200\tGT:DP\t0/0:10\t0/0:8\t0/0:9";
+        final SelectiveVCFCodec codec = makeCodec(VariantFieldSelection.sitesOnly(Collections.emptySet()));
+        Assert.assertEquals(codec.selectFields(blockLine), "1\t100\t.\tA\t<NON_REF>\t.\t.\tEND=200");
+
+        final VariantContext vc = codec.decode(blockLine);
+        Assert.assertEquals(vc.getStart(), 100);
+        Assert.assertEquals(vc.getEnd(), 200);
+    }
+
+    @Test
+    public void testSamplesWithAllFields() {
+        final SelectiveVCFCodec codec = makeCodec(new VariantFieldSelection(null, null, Collections.singletonList("s2")));
+        Assert.assertEquals(codec.selectFields(LINE), "1\t100\t.\tA\tC\t50\tPASS\tAC=2;DP=30;DB\tGT:AD:DP\t1/1:0,8:8");
+    }
+
+    @Test
+    public void testSelectAll() {
+        final SelectiveVCFCodec codec = makeCodec(VariantFieldSelection.ALL);
+        Assert.assertEquals(codec.selectFields(LINE), LINE);
+        Assert.assertEquals(codec.decode(LINE).getNSamples(), 3);
+    }
+}